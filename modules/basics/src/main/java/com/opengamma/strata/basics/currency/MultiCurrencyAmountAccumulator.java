@@ -0,0 +1,311 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.basics.currency;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.collect.ImmutableSortedSet;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * A mutable accumulator of amounts in multiple currencies.
+ * <p>
+ * Adding to a {@link MultiCurrencyAmount} or {@link MultiCurrencyAmountArray} creates a new instance
+ * for each addition. When many amounts are summed, for example over the payment periods of a swap
+ * or over the trades of a portfolio, this class avoids the intermediate instances.
+ * <p>
+ * Each currency is allocated a dense ordinal the first time it is seen, and the amounts are held
+ * in one primitive array per currency, indexed by that ordinal. The accumulator has a fixed size,
+ * which is one when accumulating single amounts and the number of scenarios when accumulating arrays.
+ * <p>
+ * A currency is present in the result once it has been added, even if the total amount is zero,
+ * consistent with {@link MultiCurrencyAmount#plus(MultiCurrencyAmount)}.
+ * <p>
+ * This class is mutable and not thread-safe.
+ */
+public final class MultiCurrencyAmountAccumulator {
+
+  /**
+   * The ordinal of each currency.
+   */
+  private static final Map<Currency, Integer> ORDINALS = new ConcurrentHashMap<>();
+  /**
+   * The currency of each ordinal.
+   */
+  private static final AtomicReference<Currency[]> CURRENCIES = new AtomicReference<>(new Currency[0]);
+
+  /**
+   * The number of amounts for each currency.
+   */
+  private final int size;
+  /**
+   * The amounts, indexed by currency ordinal, null if the currency has not been added.
+   */
+  private double[][] amounts = new double[0][];
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates an empty accumulator of single amounts.
+   *
+   * @return the accumulator
+   */
+  public static MultiCurrencyAmountAccumulator create() {
+    return new MultiCurrencyAmountAccumulator(1);
+  }
+
+  /**
+   * Creates an empty accumulator of arrays of amounts.
+   *
+   * @param size  the number of amounts for each currency, typically the number of scenarios
+   * @return the accumulator
+   */
+  public static MultiCurrencyAmountAccumulator create(int size) {
+    ArgChecker.notNegative(size, "size");
+    return new MultiCurrencyAmountAccumulator(size);
+  }
+
+  /**
+   * Creates an accumulator of single amounts initialized with an amount.
+   *
+   * @param amount  the initial amount
+   * @return the accumulator
+   */
+  public static MultiCurrencyAmountAccumulator of(MultiCurrencyAmount amount) {
+    return create().add(amount);
+  }
+
+  /**
+   * Creates an accumulator of arrays of amounts initialized with an array.
+   *
+   * @param array  the initial array
+   * @return the accumulator
+   */
+  public static MultiCurrencyAmountAccumulator of(MultiCurrencyAmountArray array) {
+    return create(array.size()).add(array);
+  }
+
+  // restricted constructor
+  private MultiCurrencyAmountAccumulator(int size) {
+    this.size = size;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of amounts for each currency.
+   *
+   * @return the size
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Adds an amount to each element of the accumulator.
+   *
+   * @param currency  the currency
+   * @param amount  the amount to add
+   * @return this accumulator, for chaining
+   */
+  public MultiCurrencyAmountAccumulator add(Currency currency, double amount) {
+    double[] array = amounts(currency);
+    for (int i = 0; i < size; i++) {
+      array[i] += amount;
+    }
+    return this;
+  }
+
+  /**
+   * Adds an amount to one element of the accumulator.
+   *
+   * @param currency  the currency
+   * @param index  the index of the element, typically the scenario index
+   * @param amount  the amount to add
+   * @return this accumulator, for chaining
+   */
+  public MultiCurrencyAmountAccumulator add(Currency currency, int index, double amount) {
+    ArgChecker.inRange(index, 0, size, "index");
+    amounts(currency)[index] += amount;
+    return this;
+  }
+
+  /**
+   * Adds an amount to each element of the accumulator.
+   *
+   * @param amount  the amount to add
+   * @return this accumulator, for chaining
+   */
+  public MultiCurrencyAmountAccumulator add(CurrencyAmount amount) {
+    return add(amount.getCurrency(), amount.getAmount());
+  }
+
+  /**
+   * Adds the amounts to each element of the accumulator.
+   *
+   * @param amount  the amounts to add
+   * @return this accumulator, for chaining
+   */
+  public MultiCurrencyAmountAccumulator add(MultiCurrencyAmount amount) {
+    for (CurrencyAmount currencyAmount : amount.getAmounts()) {
+      add(currencyAmount.getCurrency(), currencyAmount.getAmount());
+    }
+    return this;
+  }
+
+  /**
+   * Adds an array of amounts element by element.
+   *
+   * @param array  the array to add, of the same size as this accumulator
+   * @return this accumulator, for chaining
+   */
+  public MultiCurrencyAmountAccumulator add(CurrencyAmountArray array) {
+    add(array.getCurrency(), array.getValues());
+    return this;
+  }
+
+  /**
+   * Adds an array of amounts element by element.
+   *
+   * @param array  the array to add, of the same size as this accumulator
+   * @return this accumulator, for chaining
+   */
+  public MultiCurrencyAmountAccumulator add(MultiCurrencyAmountArray array) {
+    for (Map.Entry<Currency, DoubleArray> entry : array.getValues().entrySet()) {
+      add(entry.getKey(), entry.getValue());
+    }
+    return this;
+  }
+
+  /**
+   * Adds another accumulator element by element.
+   *
+   * @param other  the accumulator to add, of the same size as this accumulator
+   * @return this accumulator, for chaining
+   */
+  public MultiCurrencyAmountAccumulator add(MultiCurrencyAmountAccumulator other) {
+    ArgChecker.isTrue(other.size == size, "Accumulator must have size {} but was {}", size, other.size);
+    for (int ordinal = 0; ordinal < other.amounts.length; ordinal++) {
+      double[] otherArray = other.amounts[ordinal];
+      if (otherArray != null) {
+        double[] array = amounts(ordinal);
+        for (int i = 0; i < size; i++) {
+          array[i] += otherArray[i];
+        }
+      }
+    }
+    return this;
+  }
+
+  // adds an array of values for a currency
+  private void add(Currency currency, DoubleArray values) {
+    ArgChecker.isTrue(values.size() == size, "Array must have size {} but was {}", size, values.size());
+    double[] array = amounts(currency);
+    for (int i = 0; i < size; i++) {
+      array[i] += values.get(i);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the accumulated amount.
+   * <p>
+   * The accumulator must have a size of one.
+   *
+   * @return the amount
+   */
+  public MultiCurrencyAmount toMultiCurrencyAmount() {
+    ArgChecker.isTrue(size == 1, "Accumulator must have size 1 but was {}", size);
+    return toMultiCurrencyAmount(0);
+  }
+
+  /**
+   * Returns the accumulated amount of one element.
+   *
+   * @param index  the index of the element, typically the scenario index
+   * @return the amount
+   */
+  public MultiCurrencyAmount toMultiCurrencyAmount(int index) {
+    ArgChecker.inRange(index, 0, size, "index");
+    Currency[] ordinalCurrencies = CURRENCIES.get();
+    ImmutableSortedSet.Builder<CurrencyAmount> builder = ImmutableSortedSet.naturalOrder();
+    for (int ordinal = 0; ordinal < amounts.length; ordinal++) {
+      if (amounts[ordinal] != null) {
+        builder.add(CurrencyAmount.of(ordinalCurrencies[ordinal], amounts[ordinal][index]));
+      }
+    }
+    return MultiCurrencyAmount.of(builder.build());
+  }
+
+  /**
+   * Returns the accumulated array of amounts.
+   *
+   * @return the array of amounts
+   */
+  public MultiCurrencyAmountArray toMultiCurrencyAmountArray() {
+    Currency[] ordinalCurrencies = CURRENCIES.get();
+    Map<Currency, DoubleArray> values = new TreeMap<>();
+    for (int ordinal = 0; ordinal < amounts.length; ordinal++) {
+      if (amounts[ordinal] != null) {
+        values.put(ordinalCurrencies[ordinal], DoubleArray.copyOf(amounts[ordinal]));
+      }
+    }
+    return values.isEmpty() ?
+        MultiCurrencyAmountArray.of(size, i -> MultiCurrencyAmount.empty()) :
+        MultiCurrencyAmountArray.of(values);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return size == 1 ? toMultiCurrencyAmount().toString() : toMultiCurrencyAmountArray().toString();
+  }
+
+  //-------------------------------------------------------------------------
+  // obtains the amounts of a currency, creating the array if necessary
+  private double[] amounts(Currency currency) {
+    ArgChecker.notNull(currency, "currency");
+    return amounts(ordinal(currency));
+  }
+
+  // obtains the amounts at an ordinal, creating the array if necessary
+  private double[] amounts(int ordinal) {
+    if (ordinal >= amounts.length) {
+      amounts = Arrays.copyOf(amounts, Math.max(ordinal + 1, amounts.length * 2));
+    }
+    double[] array = amounts[ordinal];
+    if (array == null) {
+      array = new double[size];
+      amounts[ordinal] = array;
+    }
+    return array;
+  }
+
+  // obtains the ordinal of a currency, allocating the next ordinal if the currency is new
+  private static int ordinal(Currency currency) {
+    Integer ordinal = ORDINALS.get(currency);
+    return ordinal != null ? ordinal : allocateOrdinal(currency);
+  }
+
+  // allocates an ordinal, the currency array is published before the ordinal so that lookups always succeed
+  private static synchronized int allocateOrdinal(Currency currency) {
+    Integer existing = ORDINALS.get(currency);
+    if (existing != null) {
+      return existing;
+    }
+    Currency[] current = CURRENCIES.get();
+    int ordinal = current.length;
+    Currency[] updated = Arrays.copyOf(current, ordinal + 1);
+    updated[ordinal] = currency;
+    CURRENCIES.set(updated);
+    ORDINALS.put(currency, ordinal);
+    return ordinal;
+  }
+
+}
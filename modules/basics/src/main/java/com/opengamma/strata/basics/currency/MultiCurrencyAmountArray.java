@@ -12,6 +12,7 @@ import static java.util.stream.Collectors.toMap;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -39,7 +40,6 @@ import org.joda.beans.impl.direct.DirectPrivateBeanBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Sets;
-import com.opengamma.strata.collect.Guavate;
 import com.opengamma.strata.collect.MapStream;
 import com.opengamma.strata.collect.Messages;
 import com.opengamma.strata.collect.array.DoubleArray;
@@ -345,7 +345,16 @@ public final class MultiCurrencyAmountArray
    * @return the total amounts
    */
   public static MultiCurrencyAmountArray total(Iterable<CurrencyAmountArray> arrays) {
-    return Guavate.stream(arrays).collect(toMultiCurrencyAmountArray());
+    Iterator<CurrencyAmountArray> it = arrays.iterator();
+    if (!it.hasNext()) {
+      return MultiCurrencyAmountArray.of(ImmutableMap.of());
+    }
+    CurrencyAmountArray first = it.next();
+    MultiCurrencyAmountAccumulator accumulator = MultiCurrencyAmountAccumulator.create(first.size()).add(first);
+    while (it.hasNext()) {
+      accumulator.add(it.next());
+    }
+    return accumulator.toMultiCurrencyAmountArray();
   }
 
   /**
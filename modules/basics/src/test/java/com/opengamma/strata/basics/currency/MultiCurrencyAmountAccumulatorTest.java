@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.basics.currency;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.currency.Currency.GBP;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Test {@link MultiCurrencyAmountAccumulator}.
+ */
+@Test
+public class MultiCurrencyAmountAccumulatorTest {
+
+  private static final MultiCurrencyAmountArray ARRAY = MultiCurrencyAmountArray.of(
+      ImmutableMap.of(
+          GBP, DoubleArray.of(1, 2, 3),
+          USD, DoubleArray.of(10, 20, 30)));
+
+  //-------------------------------------------------------------------------
+  public void test_create() {
+    MultiCurrencyAmountAccumulator test = MultiCurrencyAmountAccumulator.create();
+    assertThat(test.size()).isEqualTo(1);
+    assertThat(test.toMultiCurrencyAmount()).isEqualTo(MultiCurrencyAmount.empty());
+    assertThat(test.toString()).isEqualTo(MultiCurrencyAmount.empty().toString());
+  }
+
+  public void test_create_size() {
+    MultiCurrencyAmountAccumulator test = MultiCurrencyAmountAccumulator.create(3);
+    assertThat(test.size()).isEqualTo(3);
+    assertThat(test.toMultiCurrencyAmountArray().size()).isEqualTo(3);
+    assertThat(test.toMultiCurrencyAmountArray().getCurrencies()).isEmpty();
+    assertThrowsIllegalArg(() -> MultiCurrencyAmountAccumulator.create(-1));
+    assertThrowsIllegalArg(() -> test.toMultiCurrencyAmount());
+  }
+
+  public void test_add_amounts() {
+    MultiCurrencyAmountAccumulator test = MultiCurrencyAmountAccumulator.create()
+        .add(CurrencyAmount.of(GBP, 1))
+        .add(MultiCurrencyAmount.of(CurrencyAmount.of(GBP, 2), CurrencyAmount.of(USD, 3)))
+        .add(EUR, 4)
+        .add(EUR, 0, 5);
+    MultiCurrencyAmount expected = MultiCurrencyAmount.of(
+        CurrencyAmount.of(GBP, 3), CurrencyAmount.of(USD, 3), CurrencyAmount.of(EUR, 9));
+    assertThat(test.toMultiCurrencyAmount()).isEqualTo(expected);
+    assertThat(MultiCurrencyAmountAccumulator.of(expected).toMultiCurrencyAmount()).isEqualTo(expected);
+  }
+
+  public void test_add_zero() {
+    MultiCurrencyAmountAccumulator test = MultiCurrencyAmountAccumulator.create()
+        .add(CurrencyAmount.of(GBP, 1))
+        .add(CurrencyAmount.of(GBP, -1))
+        .add(CurrencyAmount.zero(USD));
+    MultiCurrencyAmount expected = MultiCurrencyAmount.of(CurrencyAmount.of(GBP, 1))
+        .plus(MultiCurrencyAmount.of(CurrencyAmount.of(GBP, -1)))
+        .plus(MultiCurrencyAmount.of(CurrencyAmount.zero(USD)));
+    assertThat(test.toMultiCurrencyAmount()).isEqualTo(expected);
+    assertThat(test.toMultiCurrencyAmount().getCurrencies()).containsOnly(GBP, USD);
+  }
+
+  public void test_add_arrays() {
+    MultiCurrencyAmountAccumulator test = MultiCurrencyAmountAccumulator.of(ARRAY)
+        .add(CurrencyAmountArray.of(EUR, DoubleArray.of(4, 5, 6)))
+        .add(GBP, 1)
+        .add(USD, 2, 100);
+    MultiCurrencyAmountArray expected = MultiCurrencyAmountArray.of(
+        ImmutableMap.of(
+            GBP, DoubleArray.of(2, 3, 4),
+            USD, DoubleArray.of(10, 20, 130),
+            EUR, DoubleArray.of(4, 5, 6)));
+    assertThat(test.toMultiCurrencyAmountArray()).isEqualTo(expected);
+    assertThat(test.toMultiCurrencyAmount(1)).isEqualTo(expected.get(1));
+    assertThat(test.toString()).isEqualTo(expected.toString());
+  }
+
+  public void test_add_accumulator() {
+    MultiCurrencyAmountAccumulator other = MultiCurrencyAmountAccumulator.of(ARRAY);
+    MultiCurrencyAmountAccumulator test = MultiCurrencyAmountAccumulator.create(3)
+        .add(EUR, 1)
+        .add(other)
+        .add(other);
+    MultiCurrencyAmountArray expected = ARRAY.plus(ARRAY).plus(MultiCurrencyAmountArray.of(
+        ImmutableMap.of(EUR, DoubleArray.of(1, 1, 1))));
+    assertThat(test.toMultiCurrencyAmountArray()).isEqualTo(expected);
+  }
+
+  public void test_add_badSize() {
+    MultiCurrencyAmountAccumulator test = MultiCurrencyAmountAccumulator.create(2);
+    assertThrowsIllegalArg(() -> test.add(ARRAY));
+    assertThrowsIllegalArg(() -> test.add(CurrencyAmountArray.of(GBP, DoubleArray.of(1, 2, 3))));
+    assertThrowsIllegalArg(() -> test.add(MultiCurrencyAmountAccumulator.create()));
+    assertThrowsIllegalArg(() -> test.add(GBP, 2, 1d));
+    assertThrowsIllegalArg(() -> test.toMultiCurrencyAmount(2));
+  }
+
+  public void test_total_consistent() {
+    CurrencyAmountArray gbp = CurrencyAmountArray.of(GBP, DoubleArray.of(1, 2, 3));
+    CurrencyAmountArray usd = CurrencyAmountArray.of(USD, DoubleArray.of(10, 20, 30));
+    MultiCurrencyAmountArray total = MultiCurrencyAmountArray.total(ImmutableList.of(gbp, usd));
+    assertThat(total).isEqualTo(ARRAY);
+  }
+
+}
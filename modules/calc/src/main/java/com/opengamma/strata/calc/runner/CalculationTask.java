@@ -43,6 +43,7 @@ import com.opengamma.strata.data.MarketDataId;
 import com.opengamma.strata.data.MarketDataNotFoundException;
 import com.opengamma.strata.data.ObservableId;
 import com.opengamma.strata.data.ObservableSource;
+import com.opengamma.strata.data.scenario.ScenarioFxRateCube;
 import com.opengamma.strata.data.scenario.ScenarioFxRateProvider;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
 
@@ -203,15 +204,37 @@ public final class CalculationTask implements ImmutableBean {
    * @param refData  the reference data
    * @return results of the calculation, one for every scenario in the market data
    */
-  @SuppressWarnings("unchecked")
   public CalculationResults execute(ScenarioMarketData marketData, ReferenceData refData) {
+    return execute(marketData, refData, new HashMap<>());
+  }
+
+  /**
+   * Executes the task, sharing the FX rates used for currency conversion with other tasks.
+   * <p>
+   * The map holds the FX rate cube for each FX rate lookup, the empty key representing the default lookup.
+   * Tasks of the same calculation run share the map so that the rates are obtained once per run.
+   * The map must be thread-safe if the tasks are executed concurrently.
+   *
+   * @param marketData  the market data used in the calculation
+   * @param refData  the reference data
+   * @param fxRateCubes  the FX rate cubes keyed by FX rate lookup, updated as necessary
+   * @return results of the calculation, one for every scenario in the market data
+   */
+  @SuppressWarnings("unchecked")
+  CalculationResults execute(
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      Map<Optional<FxRateLookup>, ScenarioFxRateCube> fxRateCubes) {
+
     // calculate the results
     Map<Measure, Result<?>> results = calculate(marketData, refData);
 
-    // get a suitable FX provider
-    ScenarioFxRateProvider fxProvider = parameters.findParameter(FxRateLookup.class)
-        .map(lookup -> LookupScenarioFxRateProvider.of(marketData, lookup))
-        .orElse(ScenarioFxRateProvider.of(marketData));
+    // get a suitable FX provider, the rates of each currency pair are obtained once for all scenarios
+    ScenarioFxRateProvider fxProvider = fxRateCubes.computeIfAbsent(
+        parameters.findParameter(FxRateLookup.class),
+        lookup -> ScenarioFxRateCube.of(lookup
+            .map(fxLookup -> LookupScenarioFxRateProvider.of(marketData, fxLookup))
+            .orElse(ScenarioFxRateProvider.of(marketData))));
 
     // convert the results, using a normal loop for better stack traces
     ImmutableList.Builder<CalculationResult> resultBuilder = ImmutableList.builder();
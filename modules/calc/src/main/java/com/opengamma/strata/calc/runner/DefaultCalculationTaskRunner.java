@@ -8,7 +8,10 @@ package com.opengamma.strata.calc.runner;
 import static com.opengamma.strata.collect.Guavate.toImmutableList;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
@@ -24,6 +27,7 @@ import com.opengamma.strata.collect.Messages;
 import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.data.scenario.ScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioFxRateCube;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
 
 /**
@@ -179,8 +183,11 @@ final class DefaultCalculationTaskRunner implements CalculationTaskRunner {
     Consumer<CalculationResults> consumer =
         new ListenerWrapper(listener, taskList.size(), tasks.getTargets(), tasks.getColumns());
 
+    // the FX rates used for currency conversion are shared by all tasks of the run
+    Map<Optional<FxRateLookup>, ScenarioFxRateCube> fxRateCubes = new ConcurrentHashMap<>();
+
     // run each task using the executor
-    taskList.forEach(task -> runTask(task, marketData, refData, consumer));
+    taskList.forEach(task -> runTask(task, marketData, refData, fxRateCubes, consumer));
   }
 
   // submits a task to the executor to be run
@@ -188,11 +195,12 @@ final class DefaultCalculationTaskRunner implements CalculationTaskRunner {
       CalculationTask task,
       ScenarioMarketData marketData,
       ReferenceData refData,
+      Map<Optional<FxRateLookup>, ScenarioFxRateCube> fxRateCubes,
       Consumer<CalculationResults> consumer) {
 
     // the task is executed, with the result passed to the consumer
     // the consumer wraps the listener to ensure thread-safety
-    Supplier<CalculationResults> taskExecutor = () -> task.execute(marketData, refData);
+    Supplier<CalculationResults> taskExecutor = () -> task.execute(marketData, refData, fxRateCubes);
     CompletableFuture.supplyAsync(taskExecutor, executor).thenAccept(consumer);
   }
 
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.data.scenario;
+
+import java.io.Serializable;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Messages;
+import com.opengamma.strata.collect.function.ObjIntFunction;
+import com.opengamma.strata.collect.tuple.Pair;
+
+/**
+ * A market data box containing market data for multiple scenarios, where the value of each scenario
+ * is derived on demand.
+ * <p>
+ * A perturbation typically derives the value of each scenario from a base value, for example by shifting
+ * some of the nodes of a curve. This box holds the base box and the perturbation, and derives the value
+ * of a scenario each time it is requested. The derived values are not kept, thus the memory used does not
+ * depend on the number of scenarios, but a value requested several times is derived several times.
+ * The values share data with the base value only where the perturbation itself returns a view of it.
+ * <p>
+ * The value of the first scenario is derived when the box is created. Thus a function that fails,
+ * typically because the perturbation does not apply to the value, fails where the box is created,
+ * as it would when deriving all the values eagerly.
+ * <p>
+ * Functions applied to the box, such as {@link #map(Function)}, are composed with the values of the box,
+ * so that market data derived from the value is also derived on demand.
+ * <p>
+ * Two boxes are equal if their base boxes are equal and their perturbations are equal.
+ * The function deriving the values must therefore be determined by the base box and the perturbation.
+ * When serialized, the values of all scenarios are derived and a box holding them is written.
+ *
+ * @param <T>  the type of data held in the box
+ */
+final class LazyScenarioMarketDataBox<T>
+    implements MarketDataBox<T>, Serializable {
+
+  /** Serialization version. */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The number of scenarios.
+   */
+  private final int scenarioCount;
+  /**
+   * The box the values are derived from.
+   */
+  private final transient MarketDataBox<?> base;
+  /**
+   * The perturbation applied to the base box, which determines the function.
+   */
+  private final transient Object perturbation;
+  /**
+   * The function deriving the value of a scenario from the scenario index.
+   */
+  private final transient IntFunction<T> valueFunction;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from a base box, a perturbation and the function deriving the value of each scenario.
+   * <p>
+   * The function must be determined by the base box and the perturbation, as they define equality.
+   *
+   * @param <T>  the type of data held in the box
+   * @param base  the box the values are derived from
+   * @param perturbation  the perturbation applied to the base box
+   * @param scenarioCount  the number of scenarios
+   * @param valueFunction  the function deriving the value of a scenario from the scenario index
+   * @return an instance with the specified base, perturbation, scenario count and function
+   */
+  static <T> LazyScenarioMarketDataBox<T> of(
+      MarketDataBox<?> base,
+      Object perturbation,
+      int scenarioCount,
+      IntFunction<T> valueFunction) {
+
+    return new LazyScenarioMarketDataBox<>(base, perturbation, scenarioCount, valueFunction);
+  }
+
+  // restricted constructor
+  private LazyScenarioMarketDataBox(
+      MarketDataBox<?> base,
+      Object perturbation,
+      int scenarioCount,
+      IntFunction<T> valueFunction) {
+
+    ArgChecker.notNegativeOrZero(scenarioCount, "scenarioCount");
+    this.base = ArgChecker.notNull(base, "base");
+    this.perturbation = ArgChecker.notNull(perturbation, "perturbation");
+    this.scenarioCount = scenarioCount;
+    this.valueFunction = ArgChecker.notNull(valueFunction, "valueFunction");
+    getValue(0);
+  }
+
+  // the derived values are serialized
+  private Object writeReplace() {
+    return ScenarioMarketDataBox.of(getScenarioValue());
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public T getSingleValue() {
+    throw new IllegalStateException("This box does not contain a single value");
+  }
+
+  @Override
+  public ScenarioArray<T> getScenarioValue() {
+    return ScenarioArray.of(scenarioCount, this::getValue);
+  }
+
+  @Override
+  public T getValue(int scenarioIndex) {
+    ArgChecker.inRange(scenarioIndex, 0, scenarioCount, "scenarioIndex");
+    return ArgChecker.notNull(valueFunction.apply(scenarioIndex), "value");
+  }
+
+  @Override
+  public boolean isSingleValue() {
+    return false;
+  }
+
+  @Override
+  public int getScenarioCount() {
+    return scenarioCount;
+  }
+
+  @Override
+  public Class<?> getMarketDataType() {
+    return getValue(0).getClass();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public <R> MarketDataBox<R> map(Function<T, R> fn) {
+    return of(this, fn, scenarioCount, i -> fn.apply(getValue(i)));
+  }
+
+  @Override
+  public <R> MarketDataBox<R> mapWithIndex(int scenarioCount, ObjIntFunction<T, R> fn) {
+    if (scenarioCount != this.scenarioCount) {
+      throw new IllegalArgumentException(
+          Messages.format(
+              "Scenario count {} does not equal the scenario count of the value {}",
+              scenarioCount,
+              this.scenarioCount));
+    }
+    return of(this, fn, scenarioCount, i -> fn.apply(getValue(i), i));
+  }
+
+  @Override
+  public <U, R> MarketDataBox<R> combineWith(MarketDataBox<U> other, BiFunction<T, U, R> fn) {
+    if (other.isSingleValue()) {
+      U otherValue = other.getSingleValue();
+      return of(this, Pair.of(other, fn), scenarioCount, i -> fn.apply(getValue(i), otherValue));
+    }
+    if (other.getScenarioCount() != scenarioCount) {
+      throw new IllegalArgumentException(Messages.format(
+          "Scenario values must have the same number of scenarios. {} has {} scenarios, {} has {}",
+          this,
+          scenarioCount,
+          other,
+          other.getScenarioCount()));
+    }
+    return of(this, Pair.of(other, fn), scenarioCount, i -> fn.apply(getValue(i), other.getValue(i)));
+  }
+
+  @Override
+  public Stream<T> stream() {
+    return IntStream.range(0, scenarioCount).mapToObj(this::getValue);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj != null && obj.getClass() == this.getClass()) {
+      LazyScenarioMarketDataBox<?> other = (LazyScenarioMarketDataBox<?>) obj;
+      return scenarioCount == other.scenarioCount &&
+          base.equals(other.base) &&
+          perturbation.equals(other.perturbation);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = getClass().hashCode();
+    hash = hash * 31 + scenarioCount;
+    hash = hash * 31 + base.hashCode();
+    hash = hash * 31 + perturbation.hashCode();
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return "LazyScenarioMarketDataBox[scenarioCount=" + scenarioCount + "]";
+  }
+
+}
@@ -10,6 +10,7 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+import com.opengamma.strata.collect.Messages;
 import com.opengamma.strata.collect.function.ObjIntFunction;
 
 /**
@@ -219,6 +220,40 @@ public interface MarketDataBox<T> {
    */
   public abstract <R> MarketDataBox<R> mapWithIndex(int scenarioCount, ObjIntFunction<T, R> fn);
 
+  /**
+   * Returns a box that applies the function of a perturbation to the contents of this box for a scenario
+   * each time the value of that scenario is requested.
+   * <p>
+   * This is equivalent to {@link #mapWithIndex(int, ObjIntFunction)} with the scenario count of the perturbation,
+   * except that the values of the scenarios are derived on demand and are not kept. The function is applied
+   * to the first scenario immediately, so that a failing function fails here.
+   * <p>
+   * This is intended to be used by perturbations of large market data values, where only some of
+   * the scenarios are typically used at a time. The returned box is equal to another box derived from
+   * an equal box by an equal perturbation, thus the function must be determined by the perturbation.
+   * The function must be thread-safe.
+   *
+   * @param perturbation  the perturbation applied to this box
+   * @param fn  the function that is invoked with a scenario index and the market data value for that scenario.
+   *   The return value is used as the scenario data in the returned box
+   * @param <R>  the type of the returned market data
+   * @return a box containing market data derived by applying the function to the contents of this box
+   */
+  public default <R> MarketDataBox<R> mapWithIndexLazily(
+      ScenarioPerturbation<?> perturbation,
+      ObjIntFunction<T, R> fn) {
+
+    int scenarioCount = perturbation.getScenarioCount();
+    if (isScenarioValue() && scenarioCount != getScenarioCount()) {
+      throw new IllegalArgumentException(
+          Messages.format(
+              "Scenario count {} does not equal the scenario count of the value {}",
+              scenarioCount,
+              getScenarioCount()));
+    }
+    return LazyScenarioMarketDataBox.of(this, perturbation, scenarioCount, i -> fn.apply(getValue(i), i));
+  }
+
   /**
    * Applies a function to the market data in this box and another box and returns a box containing the result.
    * <p>
@@ -11,6 +11,7 @@ import static java.util.stream.Collectors.toList;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -32,12 +33,13 @@ import org.joda.beans.impl.direct.DirectMetaProperty;
 import org.joda.beans.impl.direct.DirectMetaPropertyMap;
 import org.joda.beans.impl.direct.DirectPrivateBeanBuilder;
 
+import com.google.common.collect.ImmutableMap;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
 import com.opengamma.strata.basics.currency.CurrencyAmountArray;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.basics.currency.MultiCurrencyAmountAccumulator;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmountArray;
-import com.opengamma.strata.collect.Guavate;
 import com.opengamma.strata.collect.MapStream;
 import com.opengamma.strata.collect.Messages;
 import com.opengamma.strata.collect.array.DoubleArray;
@@ -194,11 +196,11 @@ public final class MultiCurrencyScenarioArray
     double[] singleCurrencyValues = new double[size];
     for (Map.Entry<Currency, DoubleArray> entry : amounts.getValues().entrySet()) {
       Currency currency = entry.getKey();
-      DoubleArray currencyValues = entry.getValue();
+      double[] currencyValues = entry.getValue().toArrayUnsafe();
+      double[] rates = fxRateProvider.fxRates(currency, reportingCurrency).toArrayUnsafe();
 
       for (int i = 0; i < size; i++) {
-        double convertedValue = currencyValues.get(i) * fxRateProvider.fxRate(currency, reportingCurrency, i);
-        singleCurrencyValues[i] += convertedValue;
+        singleCurrencyValues[i] += currencyValues[i] * rates[i];
       }
     }
     return CurrencyScenarioArray.of(reportingCurrency, DoubleArray.ofUnsafe(singleCurrencyValues));
@@ -213,7 +215,17 @@ public final class MultiCurrencyScenarioArray
    * @return the total amounts
    */
   public static MultiCurrencyScenarioArray total(Iterable<CurrencyScenarioArray> arrays) {
-    return Guavate.stream(arrays).collect(toMultiCurrencyScenarioArray());
+    Iterator<CurrencyScenarioArray> it = arrays.iterator();
+    if (!it.hasNext()) {
+      return MultiCurrencyScenarioArray.of(ImmutableMap.of());
+    }
+    CurrencyScenarioArray first = it.next();
+    MultiCurrencyAmountAccumulator accumulator =
+        MultiCurrencyAmountAccumulator.create(first.getScenarioCount()).add(first.getAmounts());
+    while (it.hasNext()) {
+      accumulator.add(it.next().getAmounts());
+    }
+    return MultiCurrencyScenarioArray.of(accumulator.toMultiCurrencyAmountArray());
   }
 
   /**
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.data.scenario;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.FxRateProvider;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * A provider of scenario FX rates that holds the rates of all scenarios in a dense cube.
+ * <p>
+ * Converting an array of scenario amounts using {@link ScenarioFxRateProvider#fxRate(Currency, Currency, int)}
+ * requires one lookup per scenario, and each lookup typically queries the market data of the scenario.
+ * This provider wraps another provider and holds the rates of each currency pair for all scenarios,
+ * indexed by base currency, counter currency and scenario.
+ * The rates of a currency pair are obtained from the underlying provider the first time the pair is requested,
+ * subsequent requests return the same array, allowing amounts to be converted by an array multiplication.
+ * <p>
+ * An instance is intended to be created once for a calculation run and shared between the calculations.
+ * Calls to the methods are thread-safe.
+ */
+public final class ScenarioFxRateCube
+    implements ScenarioFxRateProvider {
+
+  /**
+   * The underlying provider.
+   */
+  private final ScenarioFxRateProvider underlying;
+  /**
+   * The number of scenarios.
+   */
+  private final int scenarioCount;
+  /**
+   * The rates used when the two currencies are the same.
+   */
+  private final DoubleArray ones;
+  /**
+   * The index of each currency in the cube.
+   */
+  private final Map<Currency, Integer> indices = new ConcurrentHashMap<>();
+  /**
+   * The rates, indexed by base currency and counter currency, null if not yet obtained.
+   * The array is replaced when a new currency is added.
+   */
+  private volatile DoubleArray[][] rates = new DoubleArray[0][0];
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance wrapping the underlying provider.
+   * <p>
+   * If the underlying provider is already a cube, it is returned.
+   *
+   * @param underlying  the underlying provider
+   * @return the cube
+   */
+  public static ScenarioFxRateCube of(ScenarioFxRateProvider underlying) {
+    if (underlying instanceof ScenarioFxRateCube) {
+      return (ScenarioFxRateCube) underlying;
+    }
+    return new ScenarioFxRateCube(underlying);
+  }
+
+  // restricted constructor
+  private ScenarioFxRateCube(ScenarioFxRateProvider underlying) {
+    this.underlying = ArgChecker.notNull(underlying, "underlying");
+    this.scenarioCount = underlying.getScenarioCount();
+    this.ones = DoubleArray.filled(scenarioCount, 1d);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public int getScenarioCount() {
+    return scenarioCount;
+  }
+
+  @Override
+  public double fxRate(Currency baseCurrency, Currency counterCurrency, int scenarioIndex) {
+    return fxRates(baseCurrency, counterCurrency).get(scenarioIndex);
+  }
+
+  @Override
+  public DoubleArray fxRates(Currency baseCurrency, Currency counterCurrency) {
+    if (baseCurrency.equals(counterCurrency)) {
+      return ones;
+    }
+    Integer baseIndex = indices.get(baseCurrency);
+    Integer counterIndex = indices.get(counterCurrency);
+    if (baseIndex != null && counterIndex != null) {
+      DoubleArray[][] cube = rates;
+      if (baseIndex < cube.length && counterIndex < cube.length) {
+        DoubleArray pairRates = cube[baseIndex][counterIndex];
+        if (pairRates != null) {
+          return pairRates;
+        }
+      }
+    }
+    return load(baseCurrency, counterCurrency);
+  }
+
+  @Override
+  public FxRateProvider fxRateProvider(int scenarioIndex) {
+    ArgChecker.inRange(scenarioIndex, 0, scenarioCount, "scenarioIndex");
+    return (baseCurrency, counterCurrency) -> fxRate(baseCurrency, counterCurrency, scenarioIndex);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains the number of currencies in the cube.
+   *
+   * @return the number of currencies
+   */
+  public int getCurrencyCount() {
+    return indices.size();
+  }
+
+  //-------------------------------------------------------------------------
+  // obtains the rates of a pair from the underlying provider, storing them in the cube
+  // the rates are obtained before the cube is changed so that a failure leaves the cube unchanged
+  private synchronized DoubleArray load(Currency baseCurrency, Currency counterCurrency) {
+    Integer baseIndex = indices.get(baseCurrency);
+    Integer counterIndex = indices.get(counterCurrency);
+    if (baseIndex != null && counterIndex != null && rates[baseIndex][counterIndex] != null) {
+      return rates[baseIndex][counterIndex];
+    }
+    DoubleArray pairRates = underlying.fxRates(baseCurrency, counterCurrency);
+    ArgChecker.isTrue(
+        pairRates.size() == scenarioCount,
+        "Expected {} FX rates but received {}", scenarioCount, pairRates.size());
+    int base = index(baseCurrency);
+    int counter = index(counterCurrency);
+    rates[base][counter] = pairRates;
+    return pairRates;
+  }
+
+  // obtains the index of a currency, growing the cube if the currency is new
+  private int index(Currency currency) {
+    Integer existing = indices.get(currency);
+    if (existing != null) {
+      return existing;
+    }
+    int index = rates.length;
+    DoubleArray[][] grown = new DoubleArray[index + 1][];
+    for (int i = 0; i < index; i++) {
+      grown[i] = Arrays.copyOf(rates[i], index + 1);
+    }
+    grown[index] = new DoubleArray[index + 1];
+    rates = grown;
+    indices.put(currency, index);
+    return index;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "ScenarioFxRateCube[currencies=" + indices.keySet() + ", scenarios=" + scenarioCount + "]";
+  }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.data.scenario;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrows;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.ReferenceData;
+
+/**
+ * Test {@link LazyScenarioMarketDataBox}.
+ */
+@Test
+public class LazyScenarioMarketDataBoxTest {
+
+  private static final ScenarioPerturbation<Integer> SHIFT = new TestPerturbation("Shift", 3);
+
+  public void mapWithIndexLazily_single() {
+    AtomicInteger count = new AtomicInteger();
+    MarketDataBox<Integer> base = MarketDataBox.ofSingleValue(27);
+    MarketDataBox<Integer> box = base.mapWithIndexLazily(SHIFT, (v, i) -> {
+      count.incrementAndGet();
+      return v + i;
+    });
+    // the first scenario is derived immediately
+    assertThat(count.get()).isEqualTo(1);
+    assertThat(box.isScenarioValue()).isTrue();
+    assertThat(box.getScenarioCount()).isEqualTo(3);
+    assertThat(box.getValue(2)).isEqualTo(29);
+    assertThat(count.get()).isEqualTo(2);
+    // the values are not kept, each request derives the value again
+    assertThat(box.getValue(2)).isEqualTo(29);
+    assertThat(count.get()).isEqualTo(3);
+    assertThat(box.getMarketDataType()).isEqualTo(Integer.class);
+    assertThat(box.getScenarioValue()).isEqualTo(ScenarioArray.of(27, 28, 29));
+    assertThat(box.stream().collect(toList())).isEqualTo(ImmutableList.of(27, 28, 29));
+    assertThrows(box::getSingleValue, IllegalStateException.class, "This box does not contain a single value");
+    assertThrowsIllegalArg(() -> box.getValue(3));
+  }
+
+  public void mapWithIndexLazily_scenario() {
+    MarketDataBox<Integer> base = MarketDataBox.ofScenarioValues(27, 28, 29);
+    MarketDataBox<Integer> box = base.mapWithIndexLazily(SHIFT, (v, i) -> v * i);
+    assertThat(box.getScenarioValue()).isEqualTo(ScenarioArray.of(0, 28, 58));
+    assertThrowsIllegalArg(() -> base.mapWithIndexLazily(new TestPerturbation("Shift", 4), (v, i) -> v));
+  }
+
+  public void mapWithIndexLazily_failure() {
+    MarketDataBox<Integer> base = MarketDataBox.ofSingleValue(27);
+    assertThrows(
+        () -> base.mapWithIndexLazily(SHIFT, (v, i) -> {
+          throw new IllegalStateException("Perturbation failed");
+        }),
+        IllegalStateException.class,
+        "Perturbation failed");
+  }
+
+  public void equalsHashCode() {
+    AtomicInteger count = new AtomicInteger();
+    MarketDataBox<Integer> box = MarketDataBox.ofSingleValue(27).mapWithIndexLazily(SHIFT, (v, i) -> {
+      count.incrementAndGet();
+      return v + i;
+    });
+    MarketDataBox<Integer> equal = MarketDataBox.ofSingleValue(27).mapWithIndexLazily(SHIFT, (v, i) -> v + i);
+    assertThat(box).isEqualTo(box);
+    assertThat(box).isEqualTo(equal);
+    assertThat(box.hashCode()).isEqualTo(equal.hashCode());
+    assertThat(box).isNotEqualTo(MarketDataBox.ofScenarioValues(27, 28, 29));
+    assertThat(box).isNotEqualTo(MarketDataBox.ofSingleValue(28).mapWithIndexLazily(SHIFT, (v, i) -> v + i));
+    assertThat(box).isNotEqualTo(
+        MarketDataBox.ofSingleValue(27).mapWithIndexLazily(new TestPerturbation("Other", 3), (v, i) -> v - i));
+    assertThat(box).isNotEqualTo(null);
+    // comparing does not derive the values
+    assertThat(count.get()).isEqualTo(1);
+    // derived boxes compare the functions applied
+    Function<Integer, Integer> fn = v -> v * 2;
+    assertThat(box.map(fn)).isEqualTo(equal.map(fn));
+    assertThat(box.map(fn)).isNotEqualTo(box.map(v -> v * 2));
+    assertThat(box.combineWith(MarketDataBox.ofSingleValue(1), Integer::sum))
+        .isNotEqualTo(box.combineWith(MarketDataBox.ofSingleValue(2), Integer::sum));
+  }
+
+  public void map() {
+    MarketDataBox<Integer> box = MarketDataBox.ofSingleValue(27).mapWithIndexLazily(SHIFT, (v, i) -> v + i);
+    MarketDataBox<Integer> result = box.map(v -> v * 2);
+    assertThat(result).isInstanceOf(LazyScenarioMarketDataBox.class);
+    assertThat(result.getScenarioValue()).isEqualTo(ScenarioArray.of(54, 56, 58));
+  }
+
+  public void mapWithIndex() {
+    MarketDataBox<Integer> box = MarketDataBox.ofSingleValue(27).mapWithIndexLazily(SHIFT, (v, i) -> v + i);
+    MarketDataBox<Integer> result = box.mapWithIndex(3, (v, i) -> v * i);
+    assertThat(result.getScenarioValue()).isEqualTo(ScenarioArray.of(0, 28, 58));
+    assertThrowsIllegalArg(() -> box.mapWithIndex(4, (v, i) -> v));
+    assertThat(box.mapWithIndexLazily(SHIFT, (v, i) -> v - i).getScenarioValue())
+        .isEqualTo(ScenarioArray.of(27, 27, 27));
+  }
+
+  public void combineWith() {
+    MarketDataBox<Integer> box = MarketDataBox.ofSingleValue(27).mapWithIndexLazily(SHIFT, (v, i) -> v + i);
+    assertThat(box.combineWith(MarketDataBox.ofSingleValue(10), (a, b) -> a + b).getScenarioValue())
+        .isEqualTo(ScenarioArray.of(37, 38, 39));
+    assertThat(box.combineWith(MarketDataBox.ofScenarioValues(1, 2, 3), (a, b) -> a * b).getScenarioValue())
+        .isEqualTo(ScenarioArray.of(27, 56, 87));
+    assertThrowsIllegalArg(() -> box.combineWith(MarketDataBox.ofScenarioValues(1, 2), (a, b) -> a * b));
+  }
+
+  public void serialization() throws Exception {
+    MarketDataBox<Integer> box = MarketDataBox.ofSingleValue(27).mapWithIndexLazily(SHIFT, (v, i) -> v + i);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(box);
+    }
+    Object cycled;
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      cycled = ois.readObject();
+    }
+    assertThat(cycled).isInstanceOf(ScenarioMarketDataBox.class);
+    assertThat(cycled).isEqualTo(MarketDataBox.ofScenarioValues(27, 28, 29));
+    assertThat(box.toString()).contains("scenarioCount=3");
+  }
+
+  //-------------------------------------------------------------------------
+  // a perturbation equal to another with the same name and scenario count
+  private static final class TestPerturbation implements ScenarioPerturbation<Integer> {
+
+    private final String name;
+    private final int scenarioCount;
+
+    private TestPerturbation(String name, int scenarioCount) {
+      this.name = name;
+      this.scenarioCount = scenarioCount;
+    }
+
+    @Override
+    public MarketDataBox<Integer> applyTo(MarketDataBox<Integer> marketData, ReferenceData refData) {
+      return marketData.mapWithIndexLazily(this, (v, i) -> v + i);
+    }
+
+    @Override
+    public int getScenarioCount() {
+      return scenarioCount;
+    }
+
+    @Override
+    public Class<Integer> getMarketDataType() {
+      return Integer.class;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof TestPerturbation) {
+        TestPerturbation other = (TestPerturbation) obj;
+        return name.equals(other.name) && scenarioCount == other.scenarioCount;
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, scenarioCount);
+    }
+  }
+
+}
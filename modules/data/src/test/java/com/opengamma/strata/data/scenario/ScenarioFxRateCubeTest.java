@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.data.scenario;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.currency.Currency.GBP;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmountArray;
+import com.opengamma.strata.basics.currency.FxRateProvider;
+import com.opengamma.strata.basics.currency.MultiCurrencyAmountArray;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Test {@link ScenarioFxRateCube}.
+ */
+@Test
+public class ScenarioFxRateCubeTest {
+
+  private static final FxRateScenarioArray GBP_USD =
+      FxRateScenarioArray.of(GBP, USD, DoubleArray.of(1.40, 1.41, 1.42));
+  private static final FxRateScenarioArray EUR_USD =
+      FxRateScenarioArray.of(EUR, USD, DoubleArray.of(1.07, 1.08, 1.09));
+
+  //-------------------------------------------------------------------------
+  public void test_fxRates() {
+    CountingProvider underlying = new CountingProvider(new TestScenarioFxRateProvider(GBP_USD, EUR_USD));
+    ScenarioFxRateCube test = ScenarioFxRateCube.of(underlying);
+    assertThat(test.getScenarioCount()).isEqualTo(3);
+    assertThat(test.fxRates(GBP, USD)).isEqualTo(DoubleArray.of(1.40, 1.41, 1.42));
+    assertThat(test.fxRates(EUR, USD)).isEqualTo(DoubleArray.of(1.07, 1.08, 1.09));
+    assertThat(test.fxRates(GBP, GBP)).isEqualTo(DoubleArray.of(1, 1, 1));
+    assertThat(test.getCurrencyCount()).isEqualTo(3);
+    assertThat(underlying.count.get()).isEqualTo(6);
+    // cached
+    assertThat(test.fxRates(GBP, USD)).isSameAs(test.fxRates(GBP, USD));
+    assertThat(test.fxRate(EUR, USD, 1)).isEqualTo(1.08);
+    assertThat(test.fxRateProvider(2).fxRate(GBP, USD)).isEqualTo(1.42);
+    assertThat(test.convert(10, GBP, USD, 0)).isEqualTo(14d);
+    assertThat(underlying.count.get()).isEqualTo(6);
+    assertThat(test.toString()).contains("scenarios=3");
+  }
+
+  public void test_of_cube() {
+    ScenarioFxRateCube test = ScenarioFxRateCube.of(new TestScenarioFxRateProvider(GBP_USD));
+    assertThat(ScenarioFxRateCube.of(test)).isSameAs(test);
+  }
+
+  public void test_failure() {
+    ScenarioFxRateCube test = ScenarioFxRateCube.of(new TestScenarioFxRateProvider(GBP_USD));
+    assertThrowsIllegalArg(() -> test.fxRates(EUR, USD));
+    assertThat(test.getCurrencyCount()).isEqualTo(0);
+    assertThrowsIllegalArg(() -> test.fxRateProvider(3));
+  }
+
+  public void test_convertedTo() {
+    ScenarioFxRateProvider underlying = new TestScenarioFxRateProvider(GBP_USD, EUR_USD);
+    ScenarioFxRateCube test = ScenarioFxRateCube.of(underlying);
+    CurrencyScenarioArray amounts = CurrencyScenarioArray.of(GBP, DoubleArray.of(1, 2, 3));
+    assertThat(amounts.convertedTo(USD, test)).isEqualTo(amounts.convertedTo(USD, underlying));
+    MultiCurrencyScenarioArray multi = MultiCurrencyScenarioArray.of(MultiCurrencyAmountArray.of(
+        ImmutableMap.of(GBP, DoubleArray.of(1, 2, 3), EUR, DoubleArray.of(4, 5, 6))));
+    CurrencyScenarioArray converted = multi.convertedTo(USD, test);
+    assertThat(converted).isEqualTo(multi.convertedTo(USD, underlying));
+    assertThat(converted.getAmounts())
+        .isEqualTo(CurrencyAmountArray.of(USD, DoubleArray.of(1.40 + 4 * 1.07, 2 * 1.41 + 5 * 1.08, 3 * 1.42 + 6 * 1.09)));
+  }
+
+  //-------------------------------------------------------------------------
+  // counts the number of rates requested
+  private static final class CountingProvider implements ScenarioFxRateProvider {
+    private final ScenarioFxRateProvider underlying;
+    private final AtomicInteger count = new AtomicInteger();
+
+    private CountingProvider(ScenarioFxRateProvider underlying) {
+      this.underlying = underlying;
+    }
+
+    @Override
+    public int getScenarioCount() {
+      return underlying.getScenarioCount();
+    }
+
+    @Override
+    public double fxRate(Currency baseCurrency, Currency counterCurrency, int scenarioIndex) {
+      count.incrementAndGet();
+      return underlying.fxRate(baseCurrency, counterCurrency, scenarioIndex);
+    }
+
+    @Override
+    public FxRateProvider fxRateProvider(int scenarioIndex) {
+      return underlying.fxRateProvider(scenarioIndex);
+    }
+  }
+
+}
@@ -13,6 +13,7 @@ import java.util.stream.IntStream;
 
 import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.market.param.CurrencyParameterSensitivity;
 import com.opengamma.strata.market.param.ParameterMetadata;
@@ -103,6 +104,45 @@ public interface Curve extends ParameterizedData {
    */
   public abstract UnitParameterSensitivity yValueParameterSensitivity(double x);
 
+  /**
+   * Computes the y-values for the specified x-values.
+   * <p>
+   * This returns an array with one element for each x-value.
+   * The x-values are intended to be sorted in ascending order, in which case
+   * implementations may compute the y-values more efficiently than one by one.
+   * 
+   * @param xValues  the x-values to find the y-values for
+   * @return the values at the x-values
+   */
+  public default DoubleArray yValuesAt(DoubleArray xValues) {
+    return xValues.map(this::yValue);
+  }
+
+  /**
+   * Computes the weighted sum of the sensitivities of the y-values with respect to the curve parameters.
+   * <p>
+   * This returns the sum over {@code i} of {@code factors[i]} multiplied by the sensitivity
+   * of the y-value at {@code xValues[i]}, see {@link #yValueParameterSensitivity(double)}.
+   * The x-values are intended to be sorted in ascending order, in which case
+   * implementations may compute the sensitivity more efficiently than one by one.
+   * 
+   * @param xValues  the x-values at which the parameter sensitivity is computed
+   * @param factors  the factors applied to the sensitivities, of the same size as the x-values
+   * @return the sensitivity
+   * @throws RuntimeException if the sensitivity cannot be calculated
+   */
+  public default UnitParameterSensitivity yValueParameterSensitivity(DoubleArray xValues, DoubleArray factors) {
+    ArgChecker.isTrue(xValues.size() == factors.size(), "Arrays must have the same size");
+    if (xValues.isEmpty()) {
+      return createParameterSensitivity(DoubleArray.filled(getParameterCount()));
+    }
+    UnitParameterSensitivity result = yValueParameterSensitivity(xValues.get(0)).multipliedBy(factors.get(0));
+    for (int i = 1; i < xValues.size(); i++) {
+      result = result.plus(yValueParameterSensitivity(xValues.get(i)).multipliedBy(factors.get(i)));
+    }
+    return result;
+  }
+
   /**
    * Computes the first derivative of the curve.
    * <p>
@@ -86,7 +86,7 @@ public final class CurveParallelShifts
   //-------------------------------------------------------------------------
   @Override
   public MarketDataBox<Curve> applyTo(MarketDataBox<Curve> curve, ReferenceData refData) {
-    return curve.mapWithIndex(getScenarioCount(), this::applyShift);
+    return curve.mapWithIndexLazily(this, this::applyShift);
   }
 
   private Curve applyShift(Curve curve, int scenarioIndex) {
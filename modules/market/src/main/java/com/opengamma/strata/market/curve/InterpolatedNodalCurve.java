@@ -30,6 +30,7 @@ import org.joda.beans.impl.direct.DirectMetaProperty;
 import org.joda.beans.impl.direct.DirectMetaPropertyMap;
 
 import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.market.curve.interpolator.BoundCurveInterpolator;
 import com.opengamma.strata.market.curve.interpolator.CurveExtrapolator;
@@ -248,6 +249,21 @@ public final class InterpolatedNodalCurve
     return createParameterSensitivity(boundInterpolator.parameterSensitivity(x));
   }
 
+  @Override
+  public DoubleArray yValuesAt(DoubleArray xValues) {
+    double[] result = new double[xValues.size()];
+    boundInterpolator.interpolate(xValues.toArrayUnsafe(), result);
+    return DoubleArray.ofUnsafe(result);
+  }
+
+  @Override
+  public UnitParameterSensitivity yValueParameterSensitivity(DoubleArray xValues, DoubleArray factors) {
+    ArgChecker.isTrue(xValues.size() == factors.size(), "Arrays must have the same size");
+    double[] buffer = new double[getParameterCount()];
+    boundInterpolator.addParameterSensitivity(xValues.toArrayUnsafe(), factors.toArrayUnsafe(), buffer);
+    return createParameterSensitivity(DoubleArray.ofUnsafe(buffer));
+  }
+
   @Override
   public double firstDerivative(double x) {
     return boundInterpolator.firstDerivative(x);
@@ -27,6 +27,10 @@ public abstract class AbstractBoundCurveInterpolator
    * The right extrapolator.
    */
   private final BoundCurveExtrapolator extrapolatorRight;
+  /**
+   * The x-values of the nodes.
+   */
+  private final double[] nodeXValues;
   /**
    * The x-value of the first node.
    */
@@ -54,6 +58,7 @@ public abstract class AbstractBoundCurveInterpolator
     ArgChecker.isTrue(size > 1, "Curve node arrays must have at least two nodes");
     this.extrapolatorLeft = ExceptionCurveExtrapolator.INSTANCE;
     this.extrapolatorRight = ExceptionCurveExtrapolator.INSTANCE;
+    this.nodeXValues = xValues.toArrayUnsafe();
     this.firstXValue = xValues.get(0);
     this.lastXValue = xValues.get(size - 1);
     this.lastYValue = yValues.get(size - 1);
@@ -73,6 +78,7 @@ public abstract class AbstractBoundCurveInterpolator
 
     this.extrapolatorLeft = ArgChecker.notNull(extrapolatorLeft, "extrapolatorLeft");
     this.extrapolatorRight = ArgChecker.notNull(extrapolatorRight, "extrapolatorRight");
+    this.nodeXValues = base.nodeXValues;
     this.firstXValue = base.firstXValue;
     this.lastXValue = base.lastXValue;
     this.lastYValue = base.lastYValue;
@@ -101,6 +107,21 @@ public abstract class AbstractBoundCurveInterpolator
    */
   protected abstract double doInterpolate(double xValue);
 
+  /**
+   * Method for subclasses to calculate the interpolated value when the lower bound index is known.
+   * <p>
+   * Callers can assume that {@code xValue} is less than the x-value of the last node and that
+   * {@code lowerIndex} is the result of {@link #lowerBoundIndex(double, double[])} on the x-values of the nodes.
+   * Subclasses should override this method to avoid searching the nodes again.
+   * 
+   * @param xValue  the x-value
+   * @param lowerIndex  the index of the last node whose x-value is lower than or equal to the x-value
+   * @return the interpolated y-value
+   */
+  protected double doInterpolate(double xValue, int lowerIndex) {
+    return doInterpolate(xValue);
+  }
+
   /**
    * Method for {@code InterpolatorCurveExtrapolator} to calculate the interpolated value.
    * <p>
@@ -152,6 +173,89 @@ public abstract class AbstractBoundCurveInterpolator
    */
   protected abstract DoubleArray doParameterSensitivity(double xValue);
 
+  @Override
+  public final void interpolate(double[] xValues, double[] result) {
+    int cursor = 0;
+    double previous = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < xValues.length; i++) {
+      double xValue = xValues[i];
+      if (xValue < firstXValue) {
+        result[i] = extrapolatorLeft.leftExtrapolate(xValue);
+      } else if (xValue > lastXValue) {
+        result[i] = extrapolatorRight.rightExtrapolate(xValue);
+      } else if (xValue == lastXValue) {
+        result[i] = lastYValue;
+      } else {
+        cursor = advance(cursor, xValue, previous);
+        previous = xValue;
+        result[i] = doInterpolate(xValue, cursor);
+      }
+    }
+  }
+
+  @Override
+  public final void addParameterSensitivity(double xValue, double factor, double[] buffer) {
+    if (xValue < firstXValue) {
+      addTo(extrapolatorLeft.leftExtrapolateParameterSensitivity(xValue), factor, buffer);
+    } else if (xValue > lastXValue) {
+      addTo(extrapolatorRight.rightExtrapolateParameterSensitivity(xValue), factor, buffer);
+    } else {
+      doAddParameterSensitivity(xValue, lowerBoundIndex(xValue, nodeXValues), factor, buffer);
+    }
+  }
+
+  @Override
+  public final void addParameterSensitivity(double[] xValues, double[] factors, double[] buffer) {
+    int cursor = 0;
+    double previous = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < xValues.length; i++) {
+      double xValue = xValues[i];
+      if (xValue < firstXValue) {
+        addTo(extrapolatorLeft.leftExtrapolateParameterSensitivity(xValue), factors[i], buffer);
+      } else if (xValue > lastXValue) {
+        addTo(extrapolatorRight.rightExtrapolateParameterSensitivity(xValue), factors[i], buffer);
+      } else {
+        cursor = advance(cursor, xValue, previous);
+        previous = xValue;
+        doAddParameterSensitivity(xValue, cursor, factors[i], buffer);
+      }
+    }
+  }
+
+  /**
+   * Method for subclasses to add the parameter sensitivity, multiplied by a factor, to a buffer.
+   * <p>
+   * Callers can assume that {@code xValue} is between the x-values of the first and last nodes, inclusive,
+   * and that {@code lowerIndex} is the result of {@link #lowerBoundIndex(double, double[])} on the x-values
+   * of the nodes. The default implementation uses {@link #doParameterSensitivity(double)},
+   * subclasses should override this method to avoid the allocation.
+   * 
+   * @param xValue  the x-value
+   * @param lowerIndex  the index of the last node whose x-value is lower than or equal to the x-value
+   * @param factor  the factor applied to the sensitivity
+   * @param buffer  the array to which the sensitivity is added
+   */
+  protected void doAddParameterSensitivity(double xValue, int lowerIndex, double factor, double[] buffer) {
+    addTo(doParameterSensitivity(xValue), factor, buffer);
+  }
+
+  // moves the cursor to the lower bound index of the x-value, restarting if the x-values are not sorted
+  private int advance(int cursor, double xValue, double previous) {
+    int index = xValue < previous ? 0 : cursor;
+    int last = nodeXValues.length - 1;
+    while (index < last && nodeXValues[index + 1] <= xValue) {
+      index++;
+    }
+    return index;
+  }
+
+  // adds the sensitivity multiplied by the factor to the buffer
+  private static void addTo(DoubleArray sensitivity, double factor, double[] buffer) {
+    for (int j = 0; j < buffer.length; j++) {
+      buffer[j] += factor * sensitivity.get(j);
+    }
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Returns the index of the last value in the input array which is lower than the specified value.
@@ -52,6 +52,62 @@ public interface BoundCurveInterpolator {
    */
   public abstract DoubleArray parameterSensitivity(double x);
 
+  //-------------------------------------------------------------------------
+  /**
+   * Computes the y-values for the specified x-values by interpolation.
+   * <p>
+   * The {@code i}-th element of {@code result} is populated with the y-value at the {@code i}-th x-value.
+   * The x-values are intended to be sorted in ascending order, in which case implementations
+   * may walk the nodes with a moving cursor rather than searching the nodes for each x-value.
+   * Unsorted x-values are permitted, but may be slower.
+   * 
+   * @param xValues  the x-values to find the y-values for
+   * @param result  the array to populate with the y-values, of the same size as the x-values
+   * @throws RuntimeException if a y-value cannot be calculated
+   */
+  public default void interpolate(double[] xValues, double[] result) {
+    for (int i = 0; i < xValues.length; i++) {
+      result[i] = interpolate(xValues[i]);
+    }
+  }
+
+  /**
+   * Adds the sensitivity of the y-value with respect to the curve parameters, multiplied by a factor, to a buffer.
+   * <p>
+   * The {@code j}-th element of {@code buffer} is incremented by {@code factor} times the sensitivity
+   * of the y-value at the x-value to the {@code j}-th parameter.
+   * Implementations may avoid the allocation of {@link #parameterSensitivity(double)}.
+   * 
+   * @param x  the x-value at which the parameter sensitivity is computed
+   * @param factor  the factor applied to the sensitivity
+   * @param buffer  the array to which the sensitivity is added, one element for each parameter of the curve
+   * @throws RuntimeException if the sensitivity cannot be calculated
+   */
+  public default void addParameterSensitivity(double x, double factor, double[] buffer) {
+    DoubleArray sensitivity = parameterSensitivity(x);
+    for (int j = 0; j < buffer.length; j++) {
+      buffer[j] += factor * sensitivity.get(j);
+    }
+  }
+
+  /**
+   * Adds the sensitivity of the y-values with respect to the curve parameters, multiplied by factors, to a buffer.
+   * <p>
+   * The {@code j}-th element of {@code buffer} is incremented by the sum over {@code i} of {@code factors[i]}
+   * times the sensitivity of the y-value at the {@code i}-th x-value to the {@code j}-th parameter.
+   * The x-values are intended to be sorted in ascending order, as for {@link #interpolate(double[], double[])}.
+   * 
+   * @param xValues  the x-values at which the parameter sensitivity is computed
+   * @param factors  the factors applied to the sensitivities, of the same size as the x-values
+   * @param buffer  the array to which the sensitivity is added, one element for each parameter of the curve
+   * @throws RuntimeException if the sensitivity cannot be calculated
+   */
+  public default void addParameterSensitivity(double[] xValues, double[] factors, double[] buffer) {
+    for (int i = 0; i < xValues.length; i++) {
+      addParameterSensitivity(xValues[i], factors[i], buffer);
+    }
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Binds this interpolator to the specified extrapolators.
@@ -121,10 +121,12 @@ public final class PointShifts
       MarketDataBox<ParameterizedData> marketData,
       ReferenceData refData) {
 
-    log.debug("Applying {} point shift to ParameterizedData '{}'", shiftType,
-        marketData.getValue(0).toString());
-    return marketData.mapWithIndex(
-        shifts.rowCount(),
+    if (log.isDebugEnabled()) {
+      log.debug("Applying {} point shift to ParameterizedData '{}'", shiftType,
+          marketData.getValue(0).toString());
+    }
+    return marketData.mapWithIndexLazily(
+        this,
         (prams, scenarioIndex) -> applyShifts(scenarioIndex, prams));
   }
 
@@ -39,6 +39,10 @@ public class CurveParallelShiftsTest {
     assertEquals(shiftedCurveBox.getValue(0), ParallelShiftedCurve.absolute(baseCurve, 1d));
     assertEquals(shiftedCurveBox.getValue(1), ParallelShiftedCurve.absolute(baseCurve, 2d));
     assertEquals(shiftedCurveBox.getValue(2), ParallelShiftedCurve.absolute(baseCurve, 4d));
+    // equal shifts of an equal curve give an equal box
+    assertEquals(
+        CurveParallelShifts.absolute(1d, 2d, 4d).applyTo(MarketDataBox.ofSingleValue(baseCurve), REF_DATA),
+        shiftedCurveBox);
   }
 
   public void test_relative() {
@@ -12,12 +12,14 @@ import static com.opengamma.strata.collect.TestHelper.coverBeanEquals;
 import static com.opengamma.strata.collect.TestHelper.coverImmutableBean;
 import static com.opengamma.strata.collect.TestHelper.date;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
 
 import java.util.ArrayList;
 import java.util.List;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.market.ValueType;
@@ -227,6 +229,33 @@ public class InterpolatedNodalCurveTest {
     assertThat(test.getYValues()).isEqualTo(DoubleArray.of(5d, 4d, 8d));
   }
 
+  //-------------------------------------------------------------------------
+  public void test_yValues_batch() {
+    DoubleArray xValues = DoubleArray.of(0d, 1d, 1.5d, 2.5d, 3d, 4d, 2.2d);
+    DoubleArray factors = DoubleArray.of(1d, 2d, 3d, 4d, 5d, 6d, 7d);
+    List<CurveInterpolator> interpolators = ImmutableList.of(
+        CurveInterpolators.LINEAR, CurveInterpolators.LOG_LINEAR, CurveInterpolators.DOUBLE_QUADRATIC);
+    for (CurveInterpolator interpolator : interpolators) {
+      InterpolatedNodalCurve test = InterpolatedNodalCurve.of(
+          METADATA_ENTRIES, XVALUES, YVALUES, interpolator, LINEAR_EXTRAPOLATOR, FLAT_EXTRAPOLATOR);
+      DoubleArray computedValues = test.yValuesAt(xValues);
+      UnitParameterSensitivity computedSensi = test.yValueParameterSensitivity(xValues, factors);
+      UnitParameterSensitivity expectedSensi = test.createParameterSensitivity(DoubleArray.filled(SIZE));
+      for (int i = 0; i < xValues.size(); i++) {
+        assertThat(computedValues.get(i)).isCloseTo(test.yValue(xValues.get(i)), offset(1e-14));
+        UnitParameterSensitivity sensi = test.yValueParameterSensitivity(xValues.get(i));
+        expectedSensi = expectedSensi.plus(sensi.multipliedBy(factors.get(i)));
+      }
+      assertThat(computedSensi.getMarketDataName()).isEqualTo(CURVE_NAME);
+      assertThat(computedSensi.getSensitivity().equalWithTolerance(expectedSensi.getSensitivity(), 1e-13)).isTrue();
+    }
+  }
+
+  public void test_yValues_batch_badSize() {
+    InterpolatedNodalCurve test = InterpolatedNodalCurve.of(METADATA, XVALUES, YVALUES, INTERPOLATOR);
+    assertThrowsIllegalArg(() -> test.yValueParameterSensitivity(DoubleArray.of(1d, 2d), DoubleArray.of(1d)));
+  }
+
   //-------------------------------------------------------------------------
   public void test_createParameterSensitivity() {
     InterpolatedNodalCurve test = InterpolatedNodalCurve.of(METADATA_ENTRIES, XVALUES, YVALUES, INTERPOLATOR);
@@ -95,6 +95,31 @@ public class LogLinearCurveInterpolatorTest {
   }
 
   //-------------------------------------------------------------------------
+  public void test_batch() {
+    BoundCurveInterpolator bci = LL_INTERPOLATOR.bind(X_DATA, Y_DATA, FLAT_EXTRAPOLATOR, FLAT_EXTRAPOLATOR);
+    // sorted with extrapolation, nodes and the last node, followed by unsorted values
+    double[] xValues = {-1.0, -0d, 0.2, 0.4, 0.4, 1.1, 2.3, 5.0, 6.0, 1.9, 0.1, 3.5, -0.5};
+    double[] factors = {1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0, 10.0, 11.0, 12.0, 13.0};
+    double[] result = new double[xValues.length];
+    bci.interpolate(xValues, result);
+    double[] expectedSensi = new double[X_DATA.size()];
+    for (int i = 0; i < xValues.length; i++) {
+      assertEquals(result[i], bci.interpolate(xValues[i]), TOL);
+      DoubleArray sensi = bci.parameterSensitivity(xValues[i]);
+      double[] buffer = new double[X_DATA.size()];
+      bci.addParameterSensitivity(xValues[i], factors[i], buffer);
+      for (int j = 0; j < X_DATA.size(); j++) {
+        assertEquals(buffer[j], factors[i] * sensi.get(j), TOL);
+        expectedSensi[j] += factors[i] * sensi.get(j);
+      }
+    }
+    double[] computedSensi = new double[X_DATA.size()];
+    bci.addParameterSensitivity(xValues, factors, computedSensi);
+    for (int j = 0; j < X_DATA.size(); j++) {
+      assertEquals(computedSensi[j], expectedSensi[j], TOL);
+    }
+  }
+
   public void test_serialization() {
     assertSerialization(LL_INTERPOLATOR);
   }
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.random;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Generator of Sobol low discrepancy sequences.
+ * <p>
+ * The points are generated in Gray code order, see Antonov and Saleev (1979).
+ * The direction numbers are those of Joe and Kuo (2008), "Constructing Sobol sequences with better
+ * two-dimensional projections", for the first {@link #MAX_DIMENSION} dimensions.
+ * <p>
+ * The first point of the sequence, which is zero in all dimensions, is skipped,
+ * so that the points are always strictly inside the unit hypercube.
+ * <p>
+ * The generator is stateful and is not thread-safe.
+ * For parallel generation, use one generator per thread and {@link #skipTo(long)} to the start of the block.
+ */
+public final class SobolSequenceGenerator {
+
+  /**
+   * The maximum dimension supported.
+   */
+  public static final int MAX_DIMENSION = 21;
+  /**
+   * The number of bits of the generated integers.
+   */
+  private static final int BITS = 32;
+  /**
+   * The scale to convert the generated integers to doubles in the unit interval.
+   */
+  private static final double SCALE = Math.pow(2d, -BITS);
+  /**
+   * The degree, the coefficients and the initial direction numbers of the primitive polynomials,
+   * for the dimensions 2 and above.
+   */
+  private static final int[][] POLYNOMIALS = new int[][] {
+      {1, 0, 1},
+      {2, 1, 1, 3},
+      {3, 1, 1, 3, 1},
+      {3, 2, 1, 1, 1},
+      {4, 1, 1, 1, 3, 3},
+      {4, 4, 1, 3, 5, 13},
+      {5, 2, 1, 1, 5, 5, 17},
+      {5, 4, 1, 1, 5, 5, 5},
+      {5, 7, 1, 1, 7, 11, 19},
+      {5, 11, 1, 1, 5, 1, 1},
+      {5, 13, 1, 1, 1, 3, 11},
+      {5, 14, 1, 3, 5, 5, 31},
+      {6, 1, 1, 3, 3, 9, 7, 49},
+      {6, 13, 1, 1, 1, 15, 21, 21},
+      {6, 16, 1, 3, 1, 13, 27, 49},
+      {6, 19, 1, 1, 1, 15, 7, 5},
+      {6, 22, 1, 3, 1, 15, 13, 25},
+      {6, 25, 1, 1, 5, 5, 19, 61},
+      {7, 1, 1, 3, 7, 11, 23, 15, 103},
+      {7, 4, 1, 3, 7, 13, 13, 15, 69}};
+  /**
+   * The direction numbers for all of the supported dimensions.
+   */
+  private static final long[][] DIRECTIONS = directions();
+
+  /**
+   * The dimension.
+   */
+  private final int dimension;
+  /**
+   * The current point, as integers.
+   */
+  private final long[] current;
+  /**
+   * The index of the next point.
+   */
+  private long index;
+
+  /**
+   * Creates an instance.
+   *
+   * @param dimension  the dimension of the sequence
+   */
+  public SobolSequenceGenerator(int dimension) {
+    ArgChecker.inRangeInclusive(dimension, 1, MAX_DIMENSION, "dimension");
+    this.dimension = dimension;
+    this.current = new long[dimension];
+    this.index = 0;
+    skipTo(1);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains the dimension.
+   *
+   * @return the dimension
+   */
+  public int getDimension() {
+    return dimension;
+  }
+
+  /**
+   * Obtains the index of the next point to be generated.
+   *
+   * @return the index
+   */
+  public long getNextIndex() {
+    return index;
+  }
+
+  /**
+   * Moves the generator to the specified point.
+   * <p>
+   * The next point generated will be the point with the specified index.
+   * The index 0 is the zero point that is skipped by the generator, thus the index must be positive.
+   *
+   * @param index  the index of the next point
+   */
+  public void skipTo(long index) {
+    ArgChecker.isTrue(index > 0, "index must be positive");
+    ArgChecker.isTrue(index < (1L << BITS), "index must be smaller than 2^32");
+    long previous = index - 1;
+    long gray = previous ^ (previous >>> 1);
+    for (int d = 0; d < dimension; ++d) {
+      long value = 0L;
+      for (int bit = 0; bit < BITS; ++bit) {
+        if (((gray >>> bit) & 1L) != 0L) {
+          value ^= DIRECTIONS[d][bit];
+        }
+      }
+      current[d] = value;
+    }
+    this.index = index;
+  }
+
+  /**
+   * Generates the next point of the sequence.
+   * <p>
+   * The point is written to the specified array, whose size must be at least the dimension.
+   *
+   * @param point  the array to populate
+   */
+  public void nextPoint(double[] point) {
+    ArgChecker.isTrue(index < (1L << BITS), "Sobol sequence exhausted");
+    int bit = Long.numberOfTrailingZeros(index);
+    for (int d = 0; d < dimension; ++d) {
+      current[d] ^= DIRECTIONS[d][bit];
+      point[d] = current[d] * SCALE;
+    }
+    index++;
+  }
+
+  /**
+   * Generates the next point of the sequence.
+   *
+   * @return the point
+   */
+  public double[] nextVector() {
+    double[] point = new double[dimension];
+    nextPoint(point);
+    return point;
+  }
+
+  //-------------------------------------------------------------------------
+  // computes the direction numbers from the primitive polynomials
+  private static long[][] directions() {
+    long[][] directions = new long[MAX_DIMENSION][BITS];
+    for (int i = 0; i < BITS; ++i) {
+      directions[0][i] = 1L << (BITS - 1 - i);
+    }
+    for (int d = 1; d < MAX_DIMENSION; ++d) {
+      int[] polynomial = POLYNOMIALS[d - 1];
+      int degree = polynomial[0];
+      int coefficients = polynomial[1];
+      long[] v = directions[d];
+      for (int i = 0; i < degree; ++i) {
+        v[i] = ((long) polynomial[i + 2]) << (BITS - 1 - i);
+      }
+      for (int i = degree; i < BITS; ++i) {
+        v[i] = v[i - degree] ^ (v[i - degree] >>> degree);
+        for (int k = 1; k < degree; ++k) {
+          if (((coefficients >>> (degree - 1 - k)) & 1) != 0) {
+            v[i] ^= v[i - k];
+          }
+        }
+      }
+    }
+    return directions;
+  }
+
+}
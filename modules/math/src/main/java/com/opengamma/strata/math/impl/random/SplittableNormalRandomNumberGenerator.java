@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.random;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.math.impl.cern.Probability;
+
+/**
+ * Generator of standard normal random numbers with independent, reproducible streams.
+ * <p>
+ * The uniform random numbers are generated by {@link SplittableRandom} and
+ * converted to normal random numbers by inversion of the cumulative distribution function.
+ * <p>
+ * A generator created from a seed can be split into any number of streams by {@link #stream(long)}.
+ * The stream for a given index depends only on the seed and the index, not on the order in which streams are created.
+ * Thus a simulation that assigns one stream to each block of work gives the same results
+ * whatever the number of threads used to process the blocks.
+ * <p>
+ * Each generator is stateful and is not thread-safe.
+ */
+public final class SplittableNormalRandomNumberGenerator
+    implements RandomNumberGenerator {
+
+  /**
+   * The increment used to derive the stream seeds, the golden ratio.
+   */
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+  /**
+   * The scale to convert 53 random bits to a double.
+   */
+  private static final double DOUBLE_UNIT = 1d / (1L << 53);
+
+  /**
+   * The seed.
+   */
+  private final long seed;
+  /**
+   * The underlying generator of uniform random numbers.
+   */
+  private final SplittableRandom random;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from a seed.
+   *
+   * @param seed  the seed
+   * @return the generator
+   */
+  public static SplittableNormalRandomNumberGenerator of(long seed) {
+    return new SplittableNormalRandomNumberGenerator(seed);
+  }
+
+  private SplittableNormalRandomNumberGenerator(long seed) {
+    this.seed = seed;
+    this.random = new SplittableRandom(seed);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains the seed.
+   *
+   * @return the seed
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Obtains an independent stream.
+   * <p>
+   * The stream depends only on the seed of this generator and the index.
+   * The state of this generator is not used or altered.
+   *
+   * @param index  the index of the stream
+   * @return the generator of the stream
+   */
+  public SplittableNormalRandomNumberGenerator stream(long index) {
+    return new SplittableNormalRandomNumberGenerator(mix64(seed + (index + 1) * GOLDEN_GAMMA));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Generates the next standard normal random number.
+   *
+   * @return the random number
+   */
+  public double nextNormal() {
+    // uniform strictly inside (0,1) so that the inverse is finite
+    double uniform = ((random.nextLong() >>> 11) + 0.5) * DOUBLE_UNIT;
+    return Probability.normalInverse(uniform);
+  }
+
+  /**
+   * Populates the array with standard normal random numbers.
+   *
+   * @param array  the array to populate
+   */
+  public void fill(double[] array) {
+    for (int i = 0; i < array.length; i++) {
+      array[i] = nextNormal();
+    }
+  }
+
+  @Override
+  public double[] getVector(int size) {
+    ArgChecker.notNegative(size, "size");
+    double[] result = new double[size];
+    fill(result);
+    return result;
+  }
+
+  @Override
+  public List<double[]> getVectors(int arraySize, int listSize) {
+    ArgChecker.notNegative(arraySize, "arraySize");
+    ArgChecker.notNegative(listSize, "listSize");
+    List<double[]> result = new ArrayList<>(listSize);
+    for (int i = 0; i < listSize; i++) {
+      result.add(getVector(arraySize));
+    }
+    return result;
+  }
+
+  //-------------------------------------------------------------------------
+  // the finalizer of SplitMix64
+  private static long mix64(long value) {
+    long z = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+}
@@ -5,6 +5,7 @@
  */
 package com.opengamma.strata.math.impl.rootfinding;
 
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 
 import com.opengamma.strata.collect.ArgChecker;
@@ -81,6 +82,24 @@ public class BracketRoot {
    * @throws MathException If a root is not bracketed in 50 attempts.
    */
   public double[] getBracketedPoints(Function<Double, Double> f, double xLower, double xUpper, double minX, double maxX) {
+    ArgChecker.notNull(f, "f");
+    return getBracketedPoints((DoubleUnaryOperator) f::apply, xLower, xUpper, minX, maxX);
+  }
+
+  /**
+   * Gets the bracketed roots of a primitive function.
+   * <p>
+   * This avoids the boxing of the function arguments and values.
+   * 
+   * @param f The function, not null
+   * @param xLower Initial value of lower bracket
+   * @param xUpper Initial value of upper bracket
+   * @param minX  the minimum x
+   * @param maxX  the maximum x
+   * @return The bracketed points as an array, where the first element is the lower bracket and the second the upper bracket.
+   * @throws MathException If a root is not bracketed in 50 attempts.
+   */
+  public double[] getBracketedPoints(DoubleUnaryOperator f, double xLower, double xUpper, double minX, double maxX) {
     ArgChecker.notNull(f, "f");
     ArgChecker.isTrue(xLower >= minX, "xLower < minX");
     ArgChecker.isTrue(xUpper <= maxX, "xUpper < maxX");
@@ -90,8 +109,8 @@ public class BracketRoot {
     double f2 = 0;
     boolean lowerLimitReached = false;
     boolean upperLimitReached = false;
-    f1 = f.apply(x1);
-    f2 = f.apply(x2);
+    f1 = f.applyAsDouble(x1);
+    f2 = f.applyAsDouble(x2);
     if (Double.isNaN(f1)) {
       throw new MathException("Failed to bracket root: function invalid at x = " + x1 + " f(x) = " + f1);
     }
@@ -111,7 +130,7 @@ public class BracketRoot {
           x1 = minX;
           lowerLimitReached = true;
         }
-        f1 = f.apply(x1);
+        f1 = f.applyAsDouble(x1);
         if (Double.isNaN(f1)) {
           throw new MathException("Failed to bracket root: function invalid at x = " + x1 + " f(x) = " + f1);
         }
@@ -121,7 +140,7 @@ public class BracketRoot {
           x2 = maxX;
           upperLimitReached = true;
         }
-        f2 = f.apply(x2);
+        f2 = f.applyAsDouble(x2);
         if (Double.isNaN(f2)) {
           throw new MathException("Failed to bracket root: function invalid at x = " + x2 + " f(x) = " + f2);
         }
@@ -5,8 +5,10 @@
  */
 package com.opengamma.strata.math.impl.rootfinding;
 
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.math.MathException;
 
 /**
@@ -38,7 +40,26 @@ public class BrentSingleRootFinder extends RealSingleRootFinder {
   @Override
   public Double getRoot(Function<Double, Double> function, Double xLower, Double xUpper) {
     checkInputs(function, xLower, xUpper);
-    if (xLower.equals(xUpper)) {
+    return getRoot((DoubleUnaryOperator) function::apply, xLower.doubleValue(), xUpper.doubleValue());
+  }
+
+  /**
+   * Finds the root of a primitive function.
+   * <p>
+   * This avoids the boxing of the function arguments and values.
+   * The root must be bracketed by the bounding values.
+   *
+   * @param function  the function, not null
+   * @param xLower  the lower bound
+   * @param xUpper  the upper bound, must be greater than or equal to the lower bound
+   * @return the root
+   * @throws IllegalArgumentException if the bounds do not bracket a root
+   * @throws MathException if the root is not found in 100 iterations
+   */
+  public double getRoot(DoubleUnaryOperator function, double xLower, double xUpper) {
+    ArgChecker.notNull(function, "function");
+    ArgChecker.isTrue(xLower <= xUpper, "x1 must be less or equal to  x2");
+    if (xLower == xUpper) {
       return xLower;
     }
     double x1 = xLower;
@@ -46,8 +67,9 @@ public class BrentSingleRootFinder extends RealSingleRootFinder {
     double x3 = xUpper;
     double delta = 0;
     double oldDelta = 0;
-    double f1 = function.apply(x1);
-    double f2 = function.apply(x2);
+    double f1 = function.applyAsDouble(x1);
+    double f2 = function.applyAsDouble(x2);
+    ArgChecker.isTrue(f1 * f2 <= 0, "x1 and x2 do not bracket a root");
     double f3 = f2;
     double r1, r2, r3, r4, eps, xMid, min1, min2;
     for (int i = 0; i < MAX_ITER; i++) {
@@ -104,9 +126,9 @@ public class BrentSingleRootFinder extends RealSingleRootFinder {
       } else {
         x2 += Math.copySign(eps, xMid);
       }
-      f1 = function.apply(x1);
-      f2 = function.apply(x2);
-      f3 = function.apply(x3);
+      f1 = function.applyAsDouble(x1);
+      f2 = function.applyAsDouble(x2);
+      f3 = function.applyAsDouble(x3);
     }
     throw new MathException("Could not converge to root in " + MAX_ITER + " attempts");
   }
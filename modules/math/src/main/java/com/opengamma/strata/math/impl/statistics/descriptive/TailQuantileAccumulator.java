@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.statistics.descriptive;
+
+import java.util.Arrays;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Messages;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Accumulates the lower tail of a sample to estimate a low quantile and expected shortfall.
+ * <p>
+ * The quantile and expected shortfall estimations of {@link QuantileCalculationMethod} only use
+ * the smallest observations of the sample when the level is small, for example the 1% quantile of a P&L sample.
+ * This accumulator receives the observations one at a time, or in chunks, and only retains
+ * the smallest observations required by the estimation at the level.
+ * The memory used is thus proportional to the size of the tail rather than the size of the sample.
+ * <p>
+ * The size of the sample must be known in advance, and the estimation is only available
+ * once all the observations have been added. The estimation is then the same as the estimation
+ * of the method applied to the whole sample.
+ * <p>
+ * The estimation of {@link ExponentiallyWeightedInterpolationQuantileMethod} depends on the order
+ * of the observations and is not supported.
+ * <p>
+ * This class is mutable and not thread-safe.
+ * Accumulators of different parts of a sample can be combined using {@link #combine(TailQuantileAccumulator)}.
+ */
+public final class TailQuantileAccumulator {
+
+  /**
+   * The number of observations retained above the index of the quantile.
+   * This covers the index corrections of the methods.
+   */
+  private static final int INDEX_MARGIN = 2;
+
+  /**
+   * The quantile calculation method.
+   */
+  private final QuantileCalculationMethod method;
+  /**
+   * The quantile level.
+   */
+  private final double level;
+  /**
+   * The size of the sample.
+   */
+  private final int sampleSize;
+  /**
+   * The smallest observations, held as a max-heap.
+   */
+  private final double[] tail;
+  /**
+   * The number of observations in the tail.
+   */
+  private int tailSize;
+  /**
+   * The number of observations added.
+   */
+  private int count;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an empty accumulator.
+   * <p>
+   * The level is measured from the bottom, see {@link QuantileCalculationMethod}.
+   * For example, the 99% value-at-risk of a P&L sample is minus the quantile at the level 1%.
+   *
+   * @param method  the quantile calculation method
+   * @param level  the quantile level, 0 < level < 1
+   * @param sampleSize  the size of the sample
+   * @return the accumulator
+   */
+  public static TailQuantileAccumulator of(QuantileCalculationMethod method, double level, int sampleSize) {
+    return new TailQuantileAccumulator(method, level, sampleSize);
+  }
+
+  // restricted constructor
+  private TailQuantileAccumulator(QuantileCalculationMethod method, double level, int sampleSize) {
+    ArgChecker.notNull(method, "method");
+    ArgChecker.isFalse(
+        method instanceof ExponentiallyWeightedInterpolationQuantileMethod,
+        "Quantile method must not depend on the order of the observations");
+    ArgChecker.inRangeExclusive(level, 0d, 1d, "level");
+    ArgChecker.notNegativeOrZero(sampleSize, "sampleSize");
+    this.method = method;
+    this.level = level;
+    this.sampleSize = sampleSize;
+    double tailIndex = Math.ceil(level * (sampleSize + 1)) + INDEX_MARGIN;
+    this.tail = new double[(int) Math.min(sampleSize, tailIndex)];
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the quantile level.
+   *
+   * @return the level
+   */
+  public double getLevel() {
+    return level;
+  }
+
+  /**
+   * Gets the size of the sample.
+   *
+   * @return the sample size
+   */
+  public int getSampleSize() {
+    return sampleSize;
+  }
+
+  /**
+   * Gets the number of observations added so far.
+   *
+   * @return the number of observations
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the maximum number of observations retained.
+   *
+   * @return the size of the tail
+   */
+  public int getTailCapacity() {
+    return tail.length;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Adds an observation.
+   *
+   * @param value  the observation
+   * @throws IllegalStateException if the sample is already complete
+   */
+  public void add(double value) {
+    if (count == sampleSize) {
+      throw new IllegalStateException(Messages.format("Sample is already complete with {} observations", sampleSize));
+    }
+    count++;
+    offer(value);
+  }
+
+  /**
+   * Adds observations.
+   *
+   * @param values  the observations
+   * @throws IllegalStateException if the observations exceed the size of the sample
+   */
+  public void addAll(DoubleArray values) {
+    if (count + values.size() > sampleSize) {
+      throw new IllegalStateException(Messages.format(
+          "Adding {} observations to {} exceeds the sample size {}", values.size(), count, sampleSize));
+    }
+    count += values.size();
+    for (double value : values.toArrayUnsafe()) {
+      offer(value);
+    }
+  }
+
+  /**
+   * Adds the observations of another accumulator.
+   * <p>
+   * The other accumulator must have the same method, level and sample size.
+   * It is typically used to combine the accumulators of chunks of a sample calculated in parallel.
+   *
+   * @param other  the other accumulator
+   * @throws IllegalArgumentException if the accumulators are not compatible
+   * @throws IllegalStateException if the observations exceed the size of the sample
+   */
+  public void combine(TailQuantileAccumulator other) {
+    ArgChecker.isTrue(
+        other.method.equals(method) && other.level == level && other.sampleSize == sampleSize,
+        "Accumulators must have the same method, level and sample size");
+    if (count + other.count > sampleSize) {
+      throw new IllegalStateException(Messages.format(
+          "Adding {} observations to {} exceeds the sample size {}", other.count, count, sampleSize));
+    }
+    count += other.count;
+    for (int i = 0; i < other.tailSize; i++) {
+      offer(other.tail[i]);
+    }
+  }
+
+  // retains the value if it is one of the smallest observations
+  private void offer(double value) {
+    if (tailSize < tail.length) {
+      int index = tailSize++;
+      while (index > 0) {
+        int parent = (index - 1) >> 1;
+        if (tail[parent] >= value) {
+          break;
+        }
+        tail[index] = tail[parent];
+        index = parent;
+      }
+      tail[index] = value;
+    } else if (value < tail[0]) {
+      int index = 0;
+      while (true) {
+        int child = 2 * index + 1;
+        if (child >= tailSize) {
+          break;
+        }
+        if (child + 1 < tailSize && tail[child + 1] > tail[child]) {
+          child++;
+        }
+        if (tail[child] <= value) {
+          break;
+        }
+        tail[index] = tail[child];
+        index = child;
+      }
+      tail[index] = value;
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Computes the quantile estimation of the sample.
+   * <p>
+   * See {@link QuantileCalculationMethod#quantileFromSorted(double, DoubleArray)}.
+   *
+   * @return the quantile estimation
+   * @throws IllegalStateException if the sample is not complete
+   */
+  public double quantile() {
+    return method.quantileFromSorted(level, sortedSample());
+  }
+
+  /**
+   * Computes the expected shortfall estimation of the sample.
+   * <p>
+   * See {@link QuantileCalculationMethod#expectedShortfallFromSorted(double, DoubleArray)}.
+   *
+   * @return the expected shortfall estimation
+   * @throws IllegalStateException if the sample is not complete
+   */
+  public double expectedShortfall() {
+    return method.expectedShortfallFromSorted(level, sortedSample());
+  }
+
+  // the sorted sample, the observations above the tail are replaced by the largest observation of the tail
+  private DoubleArray sortedSample() {
+    if (count != sampleSize) {
+      throw new IllegalStateException(Messages.format(
+          "Sample is not complete, {} observations of {} have been added", count, sampleSize));
+    }
+    double[] sorted = Arrays.copyOf(tail, sampleSize);
+    Arrays.sort(sorted, 0, tailSize);
+    Arrays.fill(sorted, tailSize, sampleSize, sorted[tailSize - 1]);
+    return DoubleArray.ofUnsafe(sorted);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "TailQuantileAccumulator[level=" + level + ", sampleSize=" + sampleSize + ", count=" + count + "]";
+  }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.random;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test {@link SobolSequenceGenerator}.
+ */
+@Test
+public class SobolSequenceGeneratorTest {
+
+  public void test_firstPoints() {
+    SobolSequenceGenerator generator = new SobolSequenceGenerator(3);
+    assertEquals(generator.getDimension(), 3);
+    assertEquals(generator.getNextIndex(), 1L);
+    double[][] expected = new double[][] {
+        {0.5, 0.5, 0.5},
+        {0.75, 0.25, 0.25},
+        {0.25, 0.75, 0.75},
+        {0.375, 0.375, 0.625},
+        {0.875, 0.875, 0.125}};
+    for (double[] point : expected) {
+      double[] computed = generator.nextVector();
+      for (int d = 0; d < 3; ++d) {
+        assertEquals(computed[d], point[d]);
+      }
+    }
+    assertEquals(generator.getNextIndex(), 6L);
+  }
+
+  public void test_stratification() {
+    // the first 2^k points of each dimension have exactly one point in each interval of size 2^-k
+    int k = 10;
+    int nPoints = 1 << k;
+    SobolSequenceGenerator generator = new SobolSequenceGenerator(SobolSequenceGenerator.MAX_DIMENSION);
+    int[][] counts = new int[SobolSequenceGenerator.MAX_DIMENSION][nPoints];
+    // the skipped zero point is in the first interval
+    for (int d = 0; d < SobolSequenceGenerator.MAX_DIMENSION; ++d) {
+      counts[d][0]++;
+    }
+    double[] point = new double[SobolSequenceGenerator.MAX_DIMENSION];
+    for (int i = 1; i < nPoints; ++i) {
+      generator.nextPoint(point);
+      for (int d = 0; d < SobolSequenceGenerator.MAX_DIMENSION; ++d) {
+        assertTrue(point[d] > 0d && point[d] < 1d);
+        counts[d][(int) (point[d] * nPoints)]++;
+      }
+    }
+    for (int d = 0; d < SobolSequenceGenerator.MAX_DIMENSION; ++d) {
+      for (int i = 0; i < nPoints; ++i) {
+        assertEquals(counts[d][i], 1);
+      }
+    }
+  }
+
+  public void test_skipTo() {
+    int dimension = 7;
+    SobolSequenceGenerator sequential = new SobolSequenceGenerator(dimension);
+    SobolSequenceGenerator skipped = new SobolSequenceGenerator(dimension);
+    for (int i = 1; i < 300; ++i) {
+      double[] expected = sequential.nextVector();
+      skipped.skipTo(i);
+      double[] computed = skipped.nextVector();
+      for (int d = 0; d < dimension; ++d) {
+        assertEquals(computed[d], expected[d]);
+      }
+    }
+  }
+
+  public void test_invalid() {
+    assertThrowsIllegalArg(() -> new SobolSequenceGenerator(0));
+    assertThrowsIllegalArg(() -> new SobolSequenceGenerator(SobolSequenceGenerator.MAX_DIMENSION + 1));
+    assertThrowsIllegalArg(() -> new SobolSequenceGenerator(2).skipTo(0));
+  }
+
+}
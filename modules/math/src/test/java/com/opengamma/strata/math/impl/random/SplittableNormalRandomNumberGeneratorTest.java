@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.random;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test {@link SplittableNormalRandomNumberGenerator}.
+ */
+@Test
+public class SplittableNormalRandomNumberGeneratorTest {
+
+  private static final SplittableNormalRandomNumberGenerator GENERATOR = SplittableNormalRandomNumberGenerator.of(42L);
+
+  public void test_array() {
+    double[] result = GENERATOR.stream(0).getVector(10);
+    assertEquals(result.length, 10);
+  }
+
+  public void test_list() {
+    List<double[]> result = GENERATOR.stream(1).getVectors(10, 50);
+    assertEquals(result.size(), 50);
+    for (double[] d : result) {
+      assertEquals(d.length, 10);
+    }
+  }
+
+  public void test_streams() {
+    // streams depend on seed and index only
+    double[] stream3 = SplittableNormalRandomNumberGenerator.of(42L).stream(3).getVector(100);
+    GENERATOR.stream(5).getVector(100);
+    assertEquals(GENERATOR.stream(3).getVector(100), stream3);
+    assertEquals(GENERATOR.getSeed(), 42L);
+    assertFalse(Arrays.equals(GENERATOR.stream(4).getVector(100), stream3));
+  }
+
+  public void test_moments() {
+    SplittableNormalRandomNumberGenerator generator = GENERATOR.stream(7);
+    int n = 200_000;
+    double sum = 0d;
+    double sumSquare = 0d;
+    for (int i = 0; i < n; ++i) {
+      double x = generator.nextNormal();
+      sum += x;
+      sumSquare += x * x;
+    }
+    assertEquals(sum / n, 0d, 1.0e-2);
+    assertEquals(sumSquare / n, 1d, 1.0e-2);
+  }
+
+  public void test_invalid() {
+    assertThrowsIllegalArg(() -> GENERATOR.getVector(-1));
+    assertThrowsIllegalArg(() -> GENERATOR.getVectors(-1, 4));
+    assertThrowsIllegalArg(() -> GENERATOR.getVectors(1, -5));
+  }
+
+}
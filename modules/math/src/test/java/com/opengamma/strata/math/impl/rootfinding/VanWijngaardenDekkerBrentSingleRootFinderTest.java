@@ -5,6 +5,10 @@
  */
 package com.opengamma.strata.math.impl.rootfinding;
 
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.function.DoubleUnaryOperator;
+
 import org.testng.annotations.Test;
 
 /**
@@ -12,11 +16,30 @@ import org.testng.annotations.Test;
  */
 @Test
 public class VanWijngaardenDekkerBrentSingleRootFinderTest extends RealSingleRootFinderTestCase {
-  private static final RealSingleRootFinder FINDER = new BrentSingleRootFinder();
+  private static final BrentSingleRootFinder FINDER = new BrentSingleRootFinder();
+  private static final DoubleUnaryOperator PRIMITIVE_F = x -> x * x * x - 4 * x * x + x + 6;
 
   @Override
   protected RealSingleRootFinder getRootFinder() {
     return FINDER;
   }
 
+  @Test
+  public void testPrimitive() {
+    assertEquals(FINDER.getRoot(PRIMITIVE_F, 2.5, 3.5), FINDER.getRoot(F, 2.5, 3.5), 0d);
+    assertEquals(FINDER.getRoot(PRIMITIVE_F, 1.5, 2.5), FINDER.getRoot(F, 1.5, 2.5), 0d);
+    assertEquals(FINDER.getRoot(PRIMITIVE_F, -1.5, 0.5), -1, EPS);
+    BracketRoot bracketer = new BracketRoot();
+    double[] bracket = bracketer.getBracketedPoints(PRIMITIVE_F, 2.6, 2.7, 2.5, 10d);
+    double[] expected = bracketer.getBracketedPoints(F, 2.6, 2.7, 2.5, 10d);
+    assertEquals(bracket[0], expected[0], 0d);
+    assertEquals(bracket[1], expected[1], 0d);
+    assertEquals(FINDER.getRoot(PRIMITIVE_F, bracket[0], bracket[1]), 3, EPS);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testPrimitiveOutsideRoots() {
+    FINDER.getRoot(PRIMITIVE_F, 10., 100.);
+  }
+
 }
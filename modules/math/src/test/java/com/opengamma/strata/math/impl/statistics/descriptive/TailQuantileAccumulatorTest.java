@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.statistics.descriptive;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrows;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Test {@link TailQuantileAccumulator}.
+ */
+@Test
+public class TailQuantileAccumulatorTest {
+
+  private static final List<QuantileCalculationMethod> METHODS = ImmutableList.of(
+      IndexAboveQuantileMethod.DEFAULT,
+      NearestIndexQuantileMethod.DEFAULT,
+      SamplePlusOneNearestIndexQuantileMethod.DEFAULT,
+      SampleInterpolationQuantileMethod.DEFAULT,
+      SamplePlusOneInterpolationQuantileMethod.DEFAULT,
+      MidwayInterpolationQuantileMethod.DEFAULT);
+  private static final double[] LEVELS = {0.01, 0.025, 0.05, 0.1};
+  private static final double TOL = 1e-12;
+
+  private static DoubleArray sample(int size, long seed) {
+    Random random = new Random(seed);
+    return DoubleArray.of(size, i -> random.nextGaussian() * 1000d);
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_of() {
+    TailQuantileAccumulator test = TailQuantileAccumulator.of(NearestIndexQuantileMethod.DEFAULT, 0.01, 1000);
+    assertEquals(test.getLevel(), 0.01);
+    assertEquals(test.getSampleSize(), 1000);
+    assertEquals(test.getCount(), 0);
+    assertEquals(test.getTailCapacity(), 13);
+    assertTrue(test.toString().contains("sampleSize=1000"));
+    assertEquals(TailQuantileAccumulator.of(NearestIndexQuantileMethod.DEFAULT, 0.5, 4).getTailCapacity(), 4);
+  }
+
+  public void test_of_invalid() {
+    assertThrowsIllegalArg(() -> TailQuantileAccumulator.of(NearestIndexQuantileMethod.DEFAULT, 0d, 100));
+    assertThrowsIllegalArg(() -> TailQuantileAccumulator.of(NearestIndexQuantileMethod.DEFAULT, 1d, 100));
+    assertThrowsIllegalArg(() -> TailQuantileAccumulator.of(NearestIndexQuantileMethod.DEFAULT, 0.01, 0));
+    assertThrowsIllegalArg(() -> TailQuantileAccumulator.of(
+        new ExponentiallyWeightedInterpolationQuantileMethod(0.99), 0.01, 100));
+  }
+
+  public void test_matchesFullSample() {
+    for (int size : new int[] {7, 250, 1000}) {
+      DoubleArray sample = sample(size, size);
+      for (QuantileCalculationMethod method : METHODS) {
+        for (double level : LEVELS) {
+          if (level * size < 1) {
+            continue;
+          }
+          TailQuantileAccumulator test = TailQuantileAccumulator.of(method, level, size);
+          for (int i = 0; i < size; i++) {
+            test.add(sample.get(i));
+          }
+          assertEquals(test.getCount(), size);
+          assertEquals(test.quantile(), method.quantileFromUnsorted(level, sample), TOL);
+          assertEquals(test.expectedShortfall(), method.expectedShortfallFromUnsorted(level, sample), TOL);
+        }
+      }
+    }
+  }
+
+  public void test_addAll_combine() {
+    DoubleArray sample = sample(500, 1L);
+    QuantileCalculationMethod method = SampleInterpolationQuantileMethod.DEFAULT;
+    TailQuantileAccumulator test = TailQuantileAccumulator.of(method, 0.05, 500);
+    TailQuantileAccumulator other = TailQuantileAccumulator.of(method, 0.05, 500);
+    test.addAll(sample.subArray(0, 200));
+    other.addAll(sample.subArray(200, 350));
+    other.addAll(sample.subArray(350));
+    test.combine(other);
+    assertEquals(test.getCount(), 500);
+    assertEquals(test.quantile(), method.quantileFromUnsorted(0.05, sample), TOL);
+    assertEquals(test.expectedShortfall(), method.expectedShortfallFromUnsorted(0.05, sample), TOL);
+  }
+
+  public void test_invalidState() {
+    TailQuantileAccumulator test = TailQuantileAccumulator.of(NearestIndexQuantileMethod.DEFAULT, 0.1, 3);
+    test.add(1d);
+    assertThrows(test::quantile, IllegalStateException.class);
+    assertThrows(test::expectedShortfall, IllegalStateException.class);
+    assertThrows(() -> test.addAll(DoubleArray.of(1d, 2d, 3d)), IllegalStateException.class);
+    test.addAll(DoubleArray.of(2d, 3d));
+    assertThrows(() -> test.add(4d), IllegalStateException.class);
+    TailQuantileAccumulator other = TailQuantileAccumulator.of(NearestIndexQuantileMethod.DEFAULT, 0.1, 3);
+    other.add(1d);
+    assertThrows(() -> test.combine(other), IllegalStateException.class);
+    assertThrowsIllegalArg(() -> test.combine(TailQuantileAccumulator.of(NearestIndexQuantileMethod.DEFAULT, 0.2, 3)));
+  }
+
+}
@@ -24,6 +24,7 @@ import com.opengamma.strata.collect.result.FailureReason;
 import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
 import com.opengamma.strata.measure.Measures;
+import com.opengamma.strata.measure.calc.ResolvedTradeCache;
 import com.opengamma.strata.measure.rate.RatesMarketDataLookup;
 import com.opengamma.strata.measure.rate.RatesScenarioMarketData;
 import com.opengamma.strata.product.LegalEntityId;
@@ -153,7 +154,7 @@ public class CapitalIndexedBondTradeCalculationFunction<T extends SecuritizedPro
       ReferenceData refData) {
 
     // resolve the trade once for all measures and all scenarios
-    ResolvedCapitalIndexedBondTrade resolved = target.resolve(refData);
+    ResolvedCapitalIndexedBondTrade resolved = ResolvedTradeCache.resolve(target, parameters, refData);
 
     // use lookup to query market data
     RatesMarketDataLookup ratesLookup = parameters.getParameter(RatesMarketDataLookup.class);
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.measure.calc;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.Resolvable;
+import com.opengamma.strata.calc.CalculationRules;
+import com.opengamma.strata.calc.runner.CalculationParameters;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.product.ResolvableTrade;
+import com.opengamma.strata.product.ResolvedTrade;
+
+/**
+ * A cache of resolved trades, usable across calculation runs.
+ * <p>
+ * Trades are resolved by the calculation functions before pricing, see {@link ResolvableTrade#resolve(ReferenceData)}.
+ * Positions and trades in securities are resolved in the same way, and are also cached.
+ * Resolution involves schedule generation and holiday adjustment, and can be as expensive as the pricing itself.
+ * As trades rarely change between calculation runs, this cache allows the resolved form to be reused.
+ * <p>
+ * To use the cache, add its {@linkplain #parameter() parameter} to the {@link CalculationRules} used for each run.
+ * The parameter is an immutable and serializable handle, identifying the cache by a unique identifier.
+ * The cache itself is held outside the rules, and must be referenced by the application
+ * for as long as it is to be used. Once the cache is no longer referenced, the handle
+ * no longer finds it and the trades are resolved directly.
+ * The same cache must be used across runs for the resolved trades to be shared.
+ * <p>
+ * The cache is keyed by the trade and the reference data.
+ * The trade is compared by value, thus an identical trade loaded again hits the cache.
+ * The reference data is compared by identity, thus a new instance of reference data,
+ * for example with updated holiday calendars, causes the trades to be resolved again.
+ * <p>
+ * The cache is bounded, the least recently used trades are evicted first.
+ * The resolved trades are strongly referenced, thus they are kept between runs until evicted or cleared.
+ * Hits and misses are recorded, see {@link #getHitRate()}.
+ * An instance can be shared between threads.
+ */
+public final class ResolvedTradeCache {
+
+  /**
+   * Default maximum number of cached trades.
+   */
+  private static final int MAX_SIZE_DEFAULT = 100_000;
+  /**
+   * The caches in use, keyed by identifier, only weakly referenced.
+   */
+  private static final Cache<String, ResolvedTradeCache> CACHES = CacheBuilder.newBuilder()
+      .weakValues()
+      .build();
+
+  /**
+   * The parameter identifying this cache.
+   */
+  private final ResolvedTradeCacheParameter parameter;
+  /**
+   * The cache of resolved trades.
+   */
+  private final Cache<TradeKey, ResolvedTrade> cache;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an empty cache with the default maximum size.
+   *
+   * @return the cache
+   */
+  public static ResolvedTradeCache of() {
+    return new ResolvedTradeCache(MAX_SIZE_DEFAULT);
+  }
+
+  /**
+   * Obtains an empty cache with the specified maximum size.
+   *
+   * @param maxSize  the maximum number of cached trades
+   * @return the cache
+   */
+  public static ResolvedTradeCache of(int maxSize) {
+    return new ResolvedTradeCache(maxSize);
+  }
+
+  private ResolvedTradeCache(int maxSize) {
+    ArgChecker.notNegativeOrZero(maxSize, "maxSize");
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .recordStats()
+        .build();
+    this.parameter = ResolvedTradeCacheParameter.of(UUID.randomUUID().toString());
+    CACHES.put(parameter.getCacheId(), this);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the calculation parameter identifying this cache.
+   * <p>
+   * The parameter is to be added to the {@link CalculationRules} of the calculation runs using the cache.
+   *
+   * @return the parameter
+   */
+  public ResolvedTradeCacheParameter parameter() {
+    return parameter;
+  }
+
+  // finds the cache identified by the parameter, empty if not in use
+  static Optional<ResolvedTradeCache> find(ResolvedTradeCacheParameter parameter) {
+    return Optional.ofNullable(CACHES.getIfPresent(parameter.getCacheId()));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Resolves the trade using the cache in the parameters if available.
+   * <p>
+   * If the parameters contain a {@link ResolvedTradeCacheParameter} identifying a cache in use,
+   * the trade is resolved using the cache, otherwise the trade is resolved directly.
+   *
+   * @param <T>  the type of the resolved trade
+   * @param trade  the trade or position to resolve
+   * @param parameters  the calculation parameters
+   * @param refData  the reference data to use when resolving
+   * @return the resolved trade
+   * @throws RuntimeException if unable to resolve due to an invalid definition
+   */
+  public static <T extends ResolvedTrade> T resolve(
+      Resolvable<T> trade,
+      CalculationParameters parameters,
+      ReferenceData refData) {
+
+    return parameters.findParameter(ResolvedTradeCacheParameter.class)
+        .flatMap(ResolvedTradeCache::find)
+        .map(cache -> cache.resolve(trade, refData))
+        .orElseGet(() -> trade.resolve(refData));
+  }
+
+  /**
+   * Resolves the trade, returning the cached resolved trade if available.
+   *
+   * @param <T>  the type of the resolved trade
+   * @param trade  the trade or position to resolve
+   * @param refData  the reference data to use when resolving
+   * @return the resolved trade
+   * @throws RuntimeException if unable to resolve due to an invalid definition
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends ResolvedTrade> T resolve(Resolvable<T> trade, ReferenceData refData) {
+    ArgChecker.notNull(trade, "trade");
+    ArgChecker.notNull(refData, "refData");
+    try {
+      return (T) cache.get(new TradeKey(trade, refData), () -> trade.resolve(refData));
+    } catch (ExecutionException | UncheckedExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains the number of cached trades.
+   *
+   * @return the number of cached trades
+   */
+  public long getCacheSize() {
+    return cache.size();
+  }
+
+  /**
+   * Obtains the number of times a resolved trade was found in the cache.
+   *
+   * @return the number of hits
+   */
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+
+  /**
+   * Obtains the number of times a trade had to be resolved.
+   *
+   * @return the number of misses
+   */
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+
+  /**
+   * Obtains the ratio of hits to requests.
+   * <p>
+   * This returns 1 if no trades have been requested.
+   *
+   * @return the hit rate
+   */
+  public double getHitRate() {
+    return cache.stats().hitRate();
+  }
+
+  /**
+   * Discards all of the cached trades.
+   * <p>
+   * The hit and miss counts are not reset.
+   */
+  public void clearCache() {
+    cache.invalidateAll();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "ResolvedTradeCache[size=" + getCacheSize() + ", hitRate=" + getHitRate() + "]";
+  }
+
+  //-------------------------------------------------------------------------
+  // the key of the cache, the trade is compared by value and the reference data by identity
+  private static final class TradeKey {
+    private final Resolvable<?> trade;
+    private final ReferenceData refData;
+    private final int hashCode;
+
+    private TradeKey(Resolvable<?> trade, ReferenceData refData) {
+      this.trade = trade;
+      this.refData = refData;
+      this.hashCode = trade.hashCode() * 31 + System.identityHashCode(refData);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (obj instanceof TradeKey) {
+        TradeKey other = (TradeKey) obj;
+        return refData == other.refData &&
+            trade.equals(other.trade);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+}
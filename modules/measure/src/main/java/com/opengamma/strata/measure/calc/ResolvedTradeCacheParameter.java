@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.measure.calc;
+
+import java.io.Serializable;
+
+import com.opengamma.strata.calc.CalculationRules;
+import com.opengamma.strata.calc.runner.CalculationParameter;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The calculation parameter identifying a {@link ResolvedTradeCache}.
+ * <p>
+ * This is an immutable handle to a cache held outside the {@link CalculationRules}.
+ * It is obtained using {@link ResolvedTradeCache#parameter()}.
+ * Two parameters are equal if they identify the same cache.
+ * <p>
+ * If the identified cache is not in use, for example after deserialization in another process,
+ * the trades are resolved directly.
+ */
+public final class ResolvedTradeCacheParameter implements CalculationParameter, Serializable {
+
+  /** Serialization version. */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The identifier of the cache.
+   */
+  private final String cacheId;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance identifying the cache.
+   *
+   * @param cacheId  the identifier of the cache
+   * @return the parameter
+   */
+  static ResolvedTradeCacheParameter of(String cacheId) {
+    return new ResolvedTradeCacheParameter(cacheId);
+  }
+
+  private ResolvedTradeCacheParameter(String cacheId) {
+    this.cacheId = ArgChecker.notEmpty(cacheId, "cacheId");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the identifier of the cache.
+   *
+   * @return the identifier
+   */
+  public String getCacheId() {
+    return cacheId;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj instanceof ResolvedTradeCacheParameter) {
+      return cacheId.equals(((ResolvedTradeCacheParameter) obj).cacheId);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return cacheId.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "ResolvedTradeCacheParameter[" + cacheId + "]";
+  }
+
+}
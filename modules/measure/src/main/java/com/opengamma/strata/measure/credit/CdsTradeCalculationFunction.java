@@ -23,6 +23,7 @@ import com.opengamma.strata.collect.result.FailureReason;
 import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
 import com.opengamma.strata.measure.Measures;
+import com.opengamma.strata.measure.calc.ResolvedTradeCache;
 import com.opengamma.strata.product.credit.Cds;
 import com.opengamma.strata.product.credit.CdsTrade;
 import com.opengamma.strata.product.credit.ResolvedCdsTrade;
@@ -138,7 +139,7 @@ public class CdsTradeCalculationFunction
       ReferenceData refData) {
 
     // resolve the trade once for all measures and all scenarios
-    ResolvedCdsTrade resolved = trade.resolve(refData);
+    ResolvedCdsTrade resolved = ResolvedTradeCache.resolve(trade, parameters, refData);
 
     // use lookup to query market data
     CreditRatesMarketDataLookup ledLookup = parameters.getParameter(CreditRatesMarketDataLookup.class);
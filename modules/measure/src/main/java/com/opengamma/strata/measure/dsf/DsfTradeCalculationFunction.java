@@ -28,6 +28,7 @@ import com.opengamma.strata.data.MarketDataId;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
 import com.opengamma.strata.market.observable.QuoteId;
 import com.opengamma.strata.measure.Measures;
+import com.opengamma.strata.measure.calc.ResolvedTradeCache;
 import com.opengamma.strata.measure.rate.RatesMarketDataLookup;
 import com.opengamma.strata.measure.rate.RatesScenarioMarketData;
 import com.opengamma.strata.product.SecuritizedProductPortfolioItem;
@@ -167,7 +168,7 @@ public class DsfTradeCalculationFunction<T extends SecuritizedProductPortfolioIt
       ReferenceData refData) {
 
     // resolve the trade once for all measures and all scenarios
-    ResolvedDsfTrade resolved = target.resolve(refData);
+    ResolvedDsfTrade resolved = ResolvedTradeCache.resolve(target, parameters, refData);
 
     // use lookup to query market data
     RatesMarketDataLookup ratesLookup = parameters.getParameter(RatesMarketDataLookup.class);
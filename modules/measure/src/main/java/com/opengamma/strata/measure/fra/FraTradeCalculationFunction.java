@@ -25,6 +25,7 @@ import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
 import com.opengamma.strata.measure.AdvancedMeasures;
 import com.opengamma.strata.measure.Measures;
+import com.opengamma.strata.measure.calc.ResolvedTradeCache;
 import com.opengamma.strata.measure.rate.RatesMarketDataLookup;
 import com.opengamma.strata.measure.rate.RatesScenarioMarketData;
 import com.opengamma.strata.product.fra.Fra;
@@ -137,7 +138,7 @@ public class FraTradeCalculationFunction
       ReferenceData refData) {
 
     // resolve the trade once for all measures and all scenarios
-    ResolvedFraTrade resolved = trade.resolve(refData);
+    ResolvedFraTrade resolved = ResolvedTradeCache.resolve(trade, parameters, refData);
 
     // use lookup to query market data
     RatesMarketDataLookup ratesLookup = parameters.getParameter(RatesMarketDataLookup.class);
@@ -23,6 +23,7 @@ import com.opengamma.strata.collect.result.FailureReason;
 import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
 import com.opengamma.strata.measure.Measures;
+import com.opengamma.strata.measure.calc.ResolvedTradeCache;
 import com.opengamma.strata.measure.rate.RatesMarketDataLookup;
 import com.opengamma.strata.measure.rate.RatesScenarioMarketData;
 import com.opengamma.strata.product.fxopt.FxSingleBarrierOption;
@@ -132,7 +133,7 @@ public class FxSingleBarrierOptionTradeCalculationFunction
       ReferenceData refData) {
 
     // expand the trade once for all measures and all scenarios
-    ResolvedFxSingleBarrierOptionTrade resolved = trade.resolve(refData);
+    ResolvedFxSingleBarrierOptionTrade resolved = ResolvedTradeCache.resolve(trade, parameters, refData);
     RatesMarketDataLookup ratesLookup = parameters.getParameter(RatesMarketDataLookup.class);
     RatesScenarioMarketData ratesMarketData = ratesLookup.marketDataView(scenarioMarketData);
     FxOptionMarketDataLookup optionLookup = parameters.getParameter(FxOptionMarketDataLookup.class);
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.measure.historical;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.calc.marketdata.MarketDataFilter;
+import com.opengamma.strata.calc.marketdata.PerturbationMapping;
+import com.opengamma.strata.calc.marketdata.ScenarioDefinition;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.market.GenericDoubleShifts;
+import com.opengamma.strata.market.ShiftType;
+import com.opengamma.strata.market.observable.QuoteId;
+
+/**
+ * Generates historical scenarios from the time-series of a set of quotes.
+ * <p>
+ * Each scenario is attributed to a date of the history. The shift of a quote in the scenario is
+ * the change of the quote between the previous date and the date of the scenario, expressed
+ * using the shift type, for example an absolute or a relative change.
+ * The dates of the history are the dates present in the time-series of all the quotes.
+ * <p>
+ * The scenarios are generated in windows, each window being a range of consecutive scenarios.
+ * A window is typically applied to base market data using {@link #scenarioDefinition(int, int)},
+ * so that the market data of a large history is never held for all the scenarios at the same time.
+ */
+public final class HistoricalScenarioGenerator {
+
+  /**
+   * The identifiers of the quotes.
+   */
+  private final ImmutableList<QuoteId> quoteIds;
+  /**
+   * The shift type.
+   */
+  private final ShiftType shiftType;
+  /**
+   * The date of each scenario.
+   */
+  private final ImmutableList<LocalDate> scenarioDates;
+  /**
+   * The shifts, indexed by quote then scenario.
+   */
+  private final double[][] shifts;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from the time-series of the quotes.
+   * <p>
+   * The shifts of each scenario are computed using {@link ShiftType#computeShift(double, double)},
+   * from the value of the quote at the previous date to the value at the date of the scenario.
+   *
+   * @param history  the time-series of each quote
+   * @param shiftType  the type of the shifts
+   * @return the generator
+   * @throws IllegalArgumentException if the time-series have less than two dates in common
+   */
+  public static HistoricalScenarioGenerator of(Map<QuoteId, LocalDateDoubleTimeSeries> history, ShiftType shiftType) {
+    ArgChecker.notEmpty(history, "history");
+    ArgChecker.notNull(shiftType, "shiftType");
+    ImmutableList<QuoteId> quoteIds = ImmutableList.copyOf(history.keySet());
+    List<LocalDateDoubleTimeSeries> timeSeries = quoteIds.stream()
+        .map(history::get)
+        .collect(toImmutableList());
+    List<LocalDate> dates = timeSeries.get(0).dates()
+        .filter(date -> timeSeries.stream().allMatch(ts -> ts.containsDate(date)))
+        .collect(toImmutableList());
+    ArgChecker.isTrue(dates.size() >= 2, "History must contain at least two dates common to all quotes");
+
+    int scenarioCount = dates.size() - 1;
+    double[][] shifts = new double[quoteIds.size()][scenarioCount];
+    for (int j = 0; j < quoteIds.size(); j++) {
+      LocalDateDoubleTimeSeries ts = timeSeries.get(j);
+      double previous = ts.get(dates.get(0)).getAsDouble();
+      for (int i = 0; i < scenarioCount; i++) {
+        double current = ts.get(dates.get(i + 1)).getAsDouble();
+        shifts[j][i] = shiftType.computeShift(previous, current);
+        previous = current;
+      }
+    }
+    return new HistoricalScenarioGenerator(quoteIds, shiftType, dates.subList(1, dates.size()), shifts);
+  }
+
+  // restricted constructor
+  private HistoricalScenarioGenerator(
+      ImmutableList<QuoteId> quoteIds,
+      ShiftType shiftType,
+      List<LocalDate> scenarioDates,
+      double[][] shifts) {
+
+    this.quoteIds = quoteIds;
+    this.shiftType = shiftType;
+    this.scenarioDates = ImmutableList.copyOf(scenarioDates);
+    this.shifts = shifts;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the identifiers of the quotes.
+   *
+   * @return the quote identifiers
+   */
+  public ImmutableList<QuoteId> getQuoteIds() {
+    return quoteIds;
+  }
+
+  /**
+   * Gets the shift type.
+   *
+   * @return the shift type
+   */
+  public ShiftType getShiftType() {
+    return shiftType;
+  }
+
+  /**
+   * Gets the date of each scenario.
+   *
+   * @return the scenario dates
+   */
+  public ImmutableList<LocalDate> getScenarioDates() {
+    return scenarioDates;
+  }
+
+  /**
+   * Gets the number of scenarios.
+   *
+   * @return the number of scenarios
+   */
+  public int getScenarioCount() {
+    return scenarioDates.size();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the shifts of a quote in a window of scenarios.
+   *
+   * @param quoteIndex  the index of the quote
+   * @param startScenario  the first scenario of the window, inclusive
+   * @param endScenario  the last scenario of the window, exclusive
+   * @return the shifts of the quote in each scenario of the window
+   */
+  public DoubleArray shifts(int quoteIndex, int startScenario, int endScenario) {
+    ArgChecker.inRange(quoteIndex, 0, quoteIds.size(), "quoteIndex");
+    checkWindow(startScenario, endScenario);
+    return DoubleArray.copyOf(shifts[quoteIndex], startScenario, endScenario);
+  }
+
+  /**
+   * Gets the changes of the quotes in a window of scenarios, when the shifts are applied to base values.
+   * <p>
+   * The change of a quote is the shifted value minus the base value.
+   * If the shift type is absolute, the change is the shift.
+   *
+   * @param baseValues  the base value of each quote
+   * @param startScenario  the first scenario of the window, inclusive
+   * @param endScenario  the last scenario of the window, exclusive
+   * @return the changes, a row for each scenario of the window and a column for each quote
+   */
+  public DoubleMatrix quoteChanges(DoubleArray baseValues, int startScenario, int endScenario) {
+    ArgChecker.isTrue(baseValues.size() == quoteIds.size(), "Base values must be provided for each quote");
+    checkWindow(startScenario, endScenario);
+    return DoubleMatrix.of(endScenario - startScenario, quoteIds.size(), (i, j) -> {
+      double base = baseValues.get(j);
+      return shiftType.applyShift(base, shifts[j][startScenario + i]) - base;
+    });
+  }
+
+  /**
+   * Creates the definition of a window of scenarios.
+   * <p>
+   * The definition contains a perturbation of each quote, shifting the quote in each scenario of the window.
+   * The names of the scenarios are the dates of the scenarios.
+   *
+   * @param startScenario  the first scenario of the window, inclusive
+   * @param endScenario  the last scenario of the window, exclusive
+   * @return the scenario definition
+   */
+  public ScenarioDefinition scenarioDefinition(int startScenario, int endScenario) {
+    checkWindow(startScenario, endScenario);
+    List<PerturbationMapping<Double>> mappings = new ArrayList<>(quoteIds.size());
+    for (int j = 0; j < quoteIds.size(); j++) {
+      mappings.add(PerturbationMapping.of(
+          MarketDataFilter.ofId(quoteIds.get(j)),
+          GenericDoubleShifts.of(shiftType, shifts(j, startScenario, endScenario))));
+    }
+    List<String> names = scenarioDates.subList(startScenario, endScenario).stream()
+        .map(LocalDate::toString)
+        .collect(toImmutableList());
+    return ScenarioDefinition.ofMappings(mappings, names);
+  }
+
+  // checks the window is a non-empty range of scenarios
+  private void checkWindow(int startScenario, int endScenario) {
+    ArgChecker.inRange(startScenario, 0, scenarioDates.size(), "startScenario");
+    ArgChecker.inRangeInclusive(endScenario, startScenario + 1, scenarioDates.size(), "endScenario");
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "HistoricalScenarioGenerator[quoteCount=" + quoteIds.size() + ", scenarioCount=" + scenarioDates.size() +
+        ", shiftType=" + shiftType + "]";
+  }
+
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.measure.historical;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.calc.CalculationRules;
+import com.opengamma.strata.calc.CalculationRunner;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.marketdata.MarketDataConfig;
+import com.opengamma.strata.calc.marketdata.MarketDataFactory;
+import com.opengamma.strata.calc.marketdata.MarketDataFilter;
+import com.opengamma.strata.calc.marketdata.MarketDataRequirements;
+import com.opengamma.strata.calc.marketdata.PerturbationMapping;
+import com.opengamma.strata.calc.marketdata.ScenarioDefinition;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Messages;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.data.scenario.CurrencyScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+import com.opengamma.strata.market.GenericDoubleShifts;
+import com.opengamma.strata.market.ShiftType;
+import com.opengamma.strata.market.observable.QuoteId;
+import com.opengamma.strata.measure.Measures;
+
+/**
+ * Historical simulation of the profit and loss of a portfolio.
+ * <p>
+ * The scenarios are generated by a {@link HistoricalScenarioGenerator} from the history of a set of quotes.
+ * The P&L of a scenario is the present value of the portfolio in the scenario minus the base present value.
+ * The P&L can be calculated in two modes:
+ * <ul>
+ * <li>full revaluation, where the market data of each scenario, including calibrated curves,
+ *  is built from the shifted quotes and the portfolio is priced with it
+ * <li>Taylor approximation, where the P&L is approximated from the sensitivities of the portfolio
+ *  to the quotes, see {@link QuoteDeltaGamma}
+ * </ul>
+ * The scenarios are processed in chunks of consecutive scenarios, the P&L of each chunk being passed
+ * to a consumer before the next chunk is processed. The memory used by the market data is thus bounded
+ * by the size of a chunk rather than the number of scenarios.
+ * <p>
+ * The P&L is typically accumulated into a {@code TailQuantileAccumulator} to obtain the value-at-risk and
+ * the expected shortfall without holding the P&L of all scenarios. For example, the 99% value-at-risk is
+ * minus the quantile of the P&L at the level 1%:
+ * <pre>
+ *  TailQuantileAccumulator pnl = TailQuantileAccumulator.of(method, 0.01, scenarios.getScenarioCount());
+ *  simulation.fullRevaluationPnl(trades, USD, marketData, scenarios, pnl::addAll);
+ *  double var = -pnl.quantile();
+ *  double es = -pnl.expectedShortfall();
+ * </pre>
+ */
+public final class HistoricalSimulation {
+
+  /**
+   * The default number of scenarios in a chunk.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 250;
+
+  /**
+   * The calculation runner.
+   */
+  private final CalculationRunner runner;
+  /**
+   * The calculation rules.
+   */
+  private final CalculationRules rules;
+  /**
+   * The market data factory.
+   */
+  private final MarketDataFactory marketDataFactory;
+  /**
+   * The market data configuration.
+   */
+  private final MarketDataConfig marketDataConfig;
+  /**
+   * The reference data.
+   */
+  private final ReferenceData refData;
+  /**
+   * The maximum number of scenarios in a chunk.
+   */
+  private final int chunkSize;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance using the default chunk size.
+   *
+   * @param runner  the calculation runner
+   * @param rules  the calculation rules
+   * @param marketDataFactory  the factory building the market data of the scenarios
+   * @param marketDataConfig  the market data configuration, used for example to calibrate curves
+   * @param refData  the reference data
+   * @return the historical simulation
+   */
+  public static HistoricalSimulation of(
+      CalculationRunner runner,
+      CalculationRules rules,
+      MarketDataFactory marketDataFactory,
+      MarketDataConfig marketDataConfig,
+      ReferenceData refData) {
+
+    return of(runner, rules, marketDataFactory, marketDataConfig, refData, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Obtains an instance.
+   *
+   * @param runner  the calculation runner
+   * @param rules  the calculation rules
+   * @param marketDataFactory  the factory building the market data of the scenarios
+   * @param marketDataConfig  the market data configuration, used for example to calibrate curves
+   * @param refData  the reference data
+   * @param chunkSize  the maximum number of scenarios in a chunk
+   * @return the historical simulation
+   */
+  public static HistoricalSimulation of(
+      CalculationRunner runner,
+      CalculationRules rules,
+      MarketDataFactory marketDataFactory,
+      MarketDataConfig marketDataConfig,
+      ReferenceData refData,
+      int chunkSize) {
+
+    return new HistoricalSimulation(runner, rules, marketDataFactory, marketDataConfig, refData, chunkSize);
+  }
+
+  // restricted constructor
+  private HistoricalSimulation(
+      CalculationRunner runner,
+      CalculationRules rules,
+      MarketDataFactory marketDataFactory,
+      MarketDataConfig marketDataConfig,
+      ReferenceData refData,
+      int chunkSize) {
+
+    this.runner = ArgChecker.notNull(runner, "runner");
+    this.rules = ArgChecker.notNull(rules, "rules");
+    this.marketDataFactory = ArgChecker.notNull(marketDataFactory, "marketDataFactory");
+    this.marketDataConfig = ArgChecker.notNull(marketDataConfig, "marketDataConfig");
+    this.refData = ArgChecker.notNull(refData, "refData");
+    this.chunkSize = ArgChecker.notNegativeOrZero(chunkSize, "chunkSize");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the maximum number of scenarios in a chunk.
+   *
+   * @return the chunk size
+   */
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the P&L of the portfolio in each scenario by full revaluation.
+   * <p>
+   * The market data of each chunk of scenarios is built by applying the shifts of the quotes to the base market data.
+   * Any market data built from the quotes, such as calibrated curves, is built in each scenario.
+   * Such market data must therefore not be present in the base market data.
+   * <p>
+   * The consumer is invoked with the P&L of each chunk of scenarios, in the order of the scenarios.
+   *
+   * @param targets  the targets of the portfolio, typically trades
+   * @param currency  the currency of the P&L
+   * @param baseMarketData  the base market data, containing the base value of the quotes
+   * @param scenarios  the generator of the scenarios
+   * @param pnlConsumer  the consumer of the P&L of each chunk
+   * @throws IllegalArgumentException if the present value of a target cannot be calculated
+   */
+  public void fullRevaluationPnl(
+      List<? extends CalculationTarget> targets,
+      Currency currency,
+      MarketData baseMarketData,
+      HistoricalScenarioGenerator scenarios,
+      Consumer<DoubleArray> pnlConsumer) {
+
+    List<Column> columns = ImmutableList.of(Column.of(Measures.PRESENT_VALUE, currency));
+    MarketDataRequirements requirements = MarketDataRequirements.of(rules, targets, columns, refData);
+    double basePv = presentValues(targets, columns, requirements, baseMarketData, ScenarioDefinition.empty()).get(0);
+    int scenarioCount = scenarios.getScenarioCount();
+    for (int start = 0; start < scenarioCount; start += chunkSize) {
+      int end = Math.min(start + chunkSize, scenarioCount);
+      ScenarioDefinition definition = scenarios.scenarioDefinition(start, end);
+      DoubleArray pv = presentValues(targets, columns, requirements, baseMarketData, definition);
+      pnlConsumer.accept(pv.minus(basePv));
+    }
+  }
+
+  /**
+   * Calculates the P&L of the portfolio in each scenario by Taylor approximation.
+   * <p>
+   * The change of the quotes in each scenario is computed from the base values of the sensitivities.
+   * The quotes of the sensitivities must be the quotes of the scenarios.
+   * <p>
+   * The consumer is invoked with the P&L of each chunk of scenarios, in the order of the scenarios.
+   *
+   * @param sensitivities  the sensitivities of the portfolio to the quotes
+   * @param scenarios  the generator of the scenarios
+   * @param pnlConsumer  the consumer of the P&L of each chunk
+   * @throws IllegalArgumentException if the quotes of the sensitivities and the scenarios differ
+   */
+  public void taylorPnl(
+      QuoteDeltaGamma sensitivities,
+      HistoricalScenarioGenerator scenarios,
+      Consumer<DoubleArray> pnlConsumer) {
+
+    ArgChecker.isTrue(
+        sensitivities.getQuoteIds().equals(scenarios.getQuoteIds()),
+        "Sensitivities must be to the quotes of the scenarios");
+    int scenarioCount = scenarios.getScenarioCount();
+    for (int start = 0; start < scenarioCount; start += chunkSize) {
+      int end = Math.min(start + chunkSize, scenarioCount);
+      pnlConsumer.accept(sensitivities.pnl(scenarios.quoteChanges(sensitivities.getBaseValues(), start, end)));
+    }
+  }
+
+  /**
+   * Calculates the sensitivities of the portfolio to the quotes by finite difference.
+   * <p>
+   * Each quote is shifted up and down by an absolute amount, the other quotes being unchanged.
+   * The delta and gamma are the central first and second order differences of the present value.
+   * The shifted market data is built in the same way as for {@link #fullRevaluationPnl}.
+   *
+   * @param targets  the targets of the portfolio, typically trades
+   * @param currency  the currency of the present value
+   * @param baseMarketData  the base market data, containing the base value of the quotes
+   * @param quoteIds  the identifiers of the quotes
+   * @param shift  the absolute shift applied to the quotes
+   * @return the sensitivities to the quotes
+   * @throws IllegalArgumentException if the present value of a target cannot be calculated
+   */
+  public QuoteDeltaGamma quoteDeltaGamma(
+      List<? extends CalculationTarget> targets,
+      Currency currency,
+      MarketData baseMarketData,
+      List<QuoteId> quoteIds,
+      double shift) {
+
+    ArgChecker.notEmpty(quoteIds, "quoteIds");
+    ArgChecker.notNegativeOrZero(shift, "shift");
+    List<Column> columns = ImmutableList.of(Column.of(Measures.PRESENT_VALUE, currency));
+    MarketDataRequirements requirements = MarketDataRequirements.of(rules, targets, columns, refData);
+    double basePv = presentValues(targets, columns, requirements, baseMarketData, ScenarioDefinition.empty()).get(0);
+    int quoteCount = quoteIds.size();
+    double[] delta = new double[quoteCount];
+    double[] gamma = new double[quoteCount];
+    // each scenario shifts one quote, up then down, the scenarios are split in chunks of quotes
+    int quotesPerChunk = Math.max(chunkSize / 2, 1);
+    for (int start = 0; start < quoteCount; start += quotesPerChunk) {
+      int end = Math.min(start + quotesPerChunk, quoteCount);
+      List<PerturbationMapping<Double>> mappings = new ArrayList<>(end - start);
+      for (int j = start; j < end; j++) {
+        int scenario = 2 * (j - start);
+        DoubleArray shifts = DoubleArray.of(
+            2 * (end - start),
+            i -> i == scenario ? shift : (i == scenario + 1 ? -shift : 0d));
+        mappings.add(PerturbationMapping.of(
+            MarketDataFilter.ofId(quoteIds.get(j)),
+            GenericDoubleShifts.of(ShiftType.ABSOLUTE, shifts)));
+      }
+      DoubleArray pv = presentValues(
+          targets, columns, requirements, baseMarketData, ScenarioDefinition.ofMappings(mappings));
+      for (int j = start; j < end; j++) {
+        double up = pv.get(2 * (j - start));
+        double down = pv.get(2 * (j - start) + 1);
+        delta[j] = (up - down) / (2d * shift);
+        gamma[j] = (up - 2d * basePv + down) / (shift * shift);
+      }
+    }
+    DoubleArray baseValues = DoubleArray.of(quoteCount, j -> baseMarketData.getValue(quoteIds.get(j)));
+    return QuoteDeltaGamma.of(quoteIds, currency, baseValues, DoubleArray.ofUnsafe(delta), DoubleArray.ofUnsafe(gamma));
+  }
+
+  // calculates the present value of the portfolio in each scenario of the definition
+  private DoubleArray presentValues(
+      List<? extends CalculationTarget> targets,
+      List<Column> columns,
+      MarketDataRequirements requirements,
+      MarketData baseMarketData,
+      ScenarioDefinition definition) {
+
+    ScenarioMarketData marketData = marketDataFactory.createMultiScenario(
+        requirements, marketDataConfig, baseMarketData, refData, definition);
+    Results results = runner.calculateMultiScenario(rules, targets, columns, marketData, refData);
+    // the market data has a single scenario if the targets do not depend on the perturbed data
+    double[] total = new double[Math.max(definition.getScenarioCount(), 1)];
+    for (int i = 0; i < results.getRowCount(); i++) {
+      Result<?> result = results.get(i, 0);
+      if (result.isFailure()) {
+        throw new IllegalArgumentException(Messages.format(
+            "Present value of target {} could not be calculated: {}", i, result.getFailure().getMessage()));
+      }
+      if (!(result.getValue() instanceof CurrencyScenarioArray)) {
+        throw new IllegalArgumentException(Messages.format(
+            "Present value of target {} is not a currency amount: {}", i, result.getValue()));
+      }
+      double[] pv = ((CurrencyScenarioArray) result.getValue()).getAmounts().getValues().toArrayUnsafe();
+      for (int s = 0; s < total.length; s++) {
+        total[s] += pv.length == 1 ? pv[0] : pv[s];
+      }
+    }
+    return DoubleArray.ofUnsafe(total);
+  }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.measure.historical;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.market.observable.QuoteId;
+
+/**
+ * The first and second order sensitivities of a present value to a set of quotes.
+ * <p>
+ * This is used to approximate the change of the present value when the quotes change,
+ * using a second order Taylor expansion without the cross terms.
+ * The change is the sum over the quotes of {@code delta * change + 0.5 * gamma * change^2}.
+ */
+public final class QuoteDeltaGamma {
+
+  /**
+   * The identifiers of the quotes.
+   */
+  private final ImmutableList<QuoteId> quoteIds;
+  /**
+   * The currency of the present value.
+   */
+  private final Currency currency;
+  /**
+   * The base value of each quote.
+   */
+  private final DoubleArray baseValues;
+  /**
+   * The first order sensitivity to each quote.
+   */
+  private final DoubleArray delta;
+  /**
+   * The second order sensitivity to each quote.
+   */
+  private final DoubleArray gamma;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from the sensitivities to each quote.
+   *
+   * @param quoteIds  the identifiers of the quotes
+   * @param currency  the currency of the present value
+   * @param baseValues  the base value of each quote
+   * @param delta  the first order sensitivity to each quote
+   * @param gamma  the second order sensitivity to each quote
+   * @return the sensitivities
+   * @throws IllegalArgumentException if the sizes differ
+   */
+  public static QuoteDeltaGamma of(
+      List<QuoteId> quoteIds,
+      Currency currency,
+      DoubleArray baseValues,
+      DoubleArray delta,
+      DoubleArray gamma) {
+
+    ArgChecker.notNull(quoteIds, "quoteIds");
+    ArgChecker.notNull(currency, "currency");
+    int size = quoteIds.size();
+    ArgChecker.isTrue(baseValues.size() == size, "Base values must be provided for each quote");
+    ArgChecker.isTrue(delta.size() == size, "Delta must be provided for each quote");
+    ArgChecker.isTrue(gamma.size() == size, "Gamma must be provided for each quote");
+    return new QuoteDeltaGamma(ImmutableList.copyOf(quoteIds), currency, baseValues, delta, gamma);
+  }
+
+  // restricted constructor
+  private QuoteDeltaGamma(
+      ImmutableList<QuoteId> quoteIds,
+      Currency currency,
+      DoubleArray baseValues,
+      DoubleArray delta,
+      DoubleArray gamma) {
+
+    this.quoteIds = quoteIds;
+    this.currency = currency;
+    this.baseValues = baseValues;
+    this.delta = delta;
+    this.gamma = gamma;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the identifiers of the quotes.
+   *
+   * @return the quote identifiers
+   */
+  public ImmutableList<QuoteId> getQuoteIds() {
+    return quoteIds;
+  }
+
+  /**
+   * Gets the currency of the present value.
+   *
+   * @return the currency
+   */
+  public Currency getCurrency() {
+    return currency;
+  }
+
+  /**
+   * Gets the base value of each quote.
+   *
+   * @return the base values
+   */
+  public DoubleArray getBaseValues() {
+    return baseValues;
+  }
+
+  /**
+   * Gets the first order sensitivity to each quote.
+   *
+   * @return the delta
+   */
+  public DoubleArray getDelta() {
+    return delta;
+  }
+
+  /**
+   * Gets the second order sensitivity to each quote.
+   *
+   * @return the gamma
+   */
+  public DoubleArray getGamma() {
+    return gamma;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Approximates the change of the present value for changes of the quotes.
+   *
+   * @param quoteChanges  the changes, a row for each scenario and a column for each quote
+   * @return the change of the present value in each scenario
+   * @throws IllegalArgumentException if the number of columns is not the number of quotes
+   */
+  public DoubleArray pnl(DoubleMatrix quoteChanges) {
+    ArgChecker.isTrue(quoteChanges.columnCount() == quoteIds.size(), "Changes must be provided for each quote");
+    double[] d = delta.toArrayUnsafe();
+    double[] g = gamma.toArrayUnsafe();
+    double[][] changes = quoteChanges.toArrayUnsafe();
+    return DoubleArray.of(changes.length, i -> {
+      double[] row = changes[i];
+      double pnl = 0d;
+      for (int j = 0; j < row.length; j++) {
+        pnl += row[j] * (d[j] + 0.5 * g[j] * row[j]);
+      }
+      return pnl;
+    });
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "QuoteDeltaGamma[currency=" + currency + ", quoteIds=" + quoteIds + ", delta=" + delta +
+        ", gamma=" + gamma + "]";
+  }
+
+}
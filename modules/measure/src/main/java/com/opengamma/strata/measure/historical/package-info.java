@@ -0,0 +1,10 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+
+/**
+ * Historical simulation of profit and loss, value-at-risk and expected shortfall.
+ */
+package com.opengamma.strata.measure.historical;
@@ -28,6 +28,7 @@ import com.opengamma.strata.data.MarketDataId;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
 import com.opengamma.strata.market.observable.QuoteId;
 import com.opengamma.strata.measure.Measures;
+import com.opengamma.strata.measure.calc.ResolvedTradeCache;
 import com.opengamma.strata.measure.rate.RatesMarketDataLookup;
 import com.opengamma.strata.measure.rate.RatesScenarioMarketData;
 import com.opengamma.strata.product.SecuritizedProductPortfolioItem;
@@ -163,7 +164,7 @@ public class OvernightFutureTradeCalculationFunction<T extends SecuritizedProduc
       ReferenceData refData) {
 
     // resolve the trade once for all measures and all scenarios
-    ResolvedOvernightFutureTrade resolved = target.resolve(refData);
+    ResolvedOvernightFutureTrade resolved = ResolvedTradeCache.resolve(target, parameters, refData);
 
     // use lookup to query market data
     RatesMarketDataLookup ratesLookup = parameters.getParameter(RatesMarketDataLookup.class);
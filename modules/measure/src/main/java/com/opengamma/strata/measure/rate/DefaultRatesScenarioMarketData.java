@@ -5,9 +5,13 @@
  */
 package com.opengamma.strata.measure.rate;
 
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
 import java.io.Serializable;
 import java.lang.invoke.MethodHandles;
+import java.time.LocalDate;
 import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
 
 import org.joda.beans.ImmutableBean;
 import org.joda.beans.JodaBeanUtils;
@@ -18,8 +22,15 @@ import org.joda.beans.gen.ImmutableConstructor;
 import org.joda.beans.gen.PropertyDefinition;
 import org.joda.beans.impl.light.LightMetaBean;
 
+import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.data.MarketDataNotFoundException;
+import com.opengamma.strata.data.scenario.MarketDataBox;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
+import com.opengamma.strata.market.curve.Curve;
+import com.opengamma.strata.market.curve.CurveId;
+import com.opengamma.strata.pricer.DiscountFactors;
+import com.opengamma.strata.pricer.ScenarioDiscountFactors;
 
 /**
  * The default market data for rates products, used for calculation across multiple scenarios.
@@ -95,6 +106,24 @@ final class DefaultRatesScenarioMarketData
         v -> v != null ? v : lookup.marketDataView(marketData.scenario(scenarioIndex)));
   }
 
+  @Override
+  public ScenarioDiscountFactors discountFactors(Currency currency) {
+    if (!(lookup instanceof DefaultRatesMarketDataLookup)) {
+      return RatesScenarioMarketData.super.discountFactors(currency);
+    }
+    // the curves are obtained as in DefaultLookupRatesProvider, without building the rates provider of each scenario
+    DefaultRatesMarketDataLookup defaultLookup = (DefaultRatesMarketDataLookup) lookup;
+    CurveId curveId = defaultLookup.getDiscountCurves().get(currency);
+    if (curveId == null) {
+      throw new MarketDataNotFoundException(defaultLookup.msgCurrencyNotFound(currency));
+    }
+    MarketDataBox<LocalDate> valuationDates = marketData.getValuationDate();
+    MarketDataBox<Curve> curves = marketData.getValue(curveId);
+    return ScenarioDiscountFactors.of(IntStream.range(0, getScenarioCount())
+        .mapToObj(i -> DiscountFactors.of(currency, valuationDates.getValue(i), curves.getValue(i)))
+        .collect(toImmutableList()));
+  }
+
   //------------------------- AUTOGENERATED START -------------------------
   /**
    * The meta-bean for {@code DefaultRatesScenarioMarketData}.
@@ -5,7 +5,13 @@
  */
 package com.opengamma.strata.measure.rate;
 
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.util.stream.IntStream;
+
+import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
+import com.opengamma.strata.pricer.ScenarioDiscountFactors;
 
 /**
  * Market data for rates products, used for calculation across multiple scenarios.
@@ -59,4 +65,19 @@ public interface RatesScenarioMarketData {
    */
   public abstract RatesMarketData scenario(int scenarioIndex);
 
+  /**
+   * Gets the discount factors of a currency in all scenarios.
+   * <p>
+   * This allows known cashflows to be discounted in all scenarios in one pass.
+   * 
+   * @param currency  the currency to obtain the discount factors for
+   * @return the discount factors of each scenario
+   * @throws IllegalArgumentException if the discount factors are not available
+   */
+  public default ScenarioDiscountFactors discountFactors(Currency currency) {
+    return ScenarioDiscountFactors.of(IntStream.range(0, getScenarioCount())
+        .mapToObj(i -> scenario(i).ratesProvider().discountFactors(currency))
+        .collect(toImmutableList()));
+  }
+
 }
@@ -23,6 +23,7 @@ import com.opengamma.strata.collect.result.FailureReason;
 import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
 import com.opengamma.strata.measure.Measures;
+import com.opengamma.strata.measure.calc.ResolvedTradeCache;
 import com.opengamma.strata.measure.rate.RatesMarketDataLookup;
 import com.opengamma.strata.measure.rate.RatesScenarioMarketData;
 import com.opengamma.strata.product.swaption.ResolvedSwaptionTrade;
@@ -128,7 +129,7 @@ public class SwaptionTradeCalculationFunction
       ReferenceData refData) {
 
     // expand the trade once for all measures and all scenarios
-    ResolvedSwaptionTrade resolved = trade.resolve(refData);
+    ResolvedSwaptionTrade resolved = ResolvedTradeCache.resolve(trade, parameters, refData);
     RatesMarketDataLookup ratesLookup = parameters.getParameter(RatesMarketDataLookup.class);
     RatesScenarioMarketData ratesMarketData = ratesLookup.marketDataView(scenarioMarketData);
     SwaptionMarketDataLookup swaptionLookup = parameters.getParameter(SwaptionMarketDataLookup.class);
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.measure.calc;
+
+import static com.opengamma.strata.collect.TestHelper.assertSerialization;
+import static com.opengamma.strata.collect.TestHelper.assertThrows;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.ReferenceDataNotFoundException;
+import com.opengamma.strata.calc.runner.CalculationParameters;
+import com.opengamma.strata.pricer.fra.FraDummyData;
+import com.opengamma.strata.product.TradeInfo;
+import com.opengamma.strata.product.fra.FraTrade;
+import com.opengamma.strata.product.fra.ResolvedFraTrade;
+
+/**
+ * Test {@link ResolvedTradeCache}.
+ */
+@Test
+public class ResolvedTradeCacheTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final FraTrade TRADE = FraDummyData.FRA_TRADE;
+
+  //-------------------------------------------------------------------------
+  public void test_resolve() {
+    ResolvedTradeCache test = ResolvedTradeCache.of();
+    ResolvedFraTrade resolved = test.resolve(TRADE, REF_DATA);
+    assertThat(resolved).isEqualTo(TRADE.resolve(REF_DATA));
+    assertThat(test.getCacheSize()).isEqualTo(1);
+    assertThat(test.getMissCount()).isEqualTo(1);
+    assertThat(test.getHitCount()).isEqualTo(0);
+    // same instance for an equal trade
+    FraTrade copy = TRADE.toBuilder().build();
+    assertThat(test.resolve(copy, REF_DATA)).isSameAs(resolved);
+    assertThat(test.getHitCount()).isEqualTo(1);
+    assertThat(test.getHitRate()).isEqualTo(0.5);
+    // different trade
+    FraTrade other = TRADE.toBuilder().info(TradeInfo.of(TRADE.getProduct().getStartDate())).build();
+    assertThat(test.resolve(other, REF_DATA)).isEqualTo(other.resolve(REF_DATA));
+    assertThat(test.getCacheSize()).isEqualTo(2);
+    assertThat(test.getMissCount()).isEqualTo(2);
+    assertThat(test.toString()).contains("size=2");
+  }
+
+  public void test_resolve_newReferenceData() {
+    ResolvedTradeCache test = ResolvedTradeCache.of(10);
+    ResolvedFraTrade resolved = test.resolve(TRADE, REF_DATA);
+    ReferenceData refData = REF_DATA.combinedWith(ReferenceData.of(ImmutableMap.of()));
+    assertThat(test.resolve(TRADE, refData)).isNotSameAs(resolved).isEqualTo(resolved);
+    assertThat(test.getMissCount()).isEqualTo(2);
+    assertThat(test.getHitCount()).isEqualTo(0);
+  }
+
+  public void test_resolve_failure() {
+    ResolvedTradeCache test = ResolvedTradeCache.of();
+    assertThat(test.getHitRate()).isEqualTo(1d);
+    assertThrows(() -> test.resolve(TRADE, ReferenceData.empty()), ReferenceDataNotFoundException.class);
+    assertThat(test.getCacheSize()).isEqualTo(0);
+  }
+
+  public void test_resolve_parameters() {
+    ResolvedTradeCache cache = ResolvedTradeCache.of();
+    CalculationParameters parameters = CalculationParameters.of(cache.parameter());
+    ResolvedFraTrade resolved = ResolvedTradeCache.resolve(TRADE, parameters, REF_DATA);
+    assertThat(ResolvedTradeCache.resolve(TRADE, parameters, REF_DATA)).isSameAs(resolved);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    // no cache in the parameters
+    assertThat(ResolvedTradeCache.resolve(TRADE, CalculationParameters.empty(), REF_DATA)).isEqualTo(resolved);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  public void test_parameter() {
+    ResolvedTradeCache cache = ResolvedTradeCache.of();
+    ResolvedTradeCacheParameter parameter = cache.parameter();
+    assertThat(ResolvedTradeCache.find(parameter)).hasValue(cache);
+    assertThat(parameter.getCacheId()).isNotEqualTo(ResolvedTradeCache.of().parameter().getCacheId());
+    assertThat(parameter).isEqualTo(ResolvedTradeCacheParameter.of(parameter.getCacheId()));
+    assertThat(parameter.hashCode()).isEqualTo(ResolvedTradeCacheParameter.of(parameter.getCacheId()).hashCode());
+    assertThat(parameter.toString()).contains(parameter.getCacheId());
+    assertSerialization(parameter);
+    // unknown cache, the trade is resolved directly
+    CalculationParameters parameters = CalculationParameters.of(ResolvedTradeCacheParameter.of("unknown"));
+    assertThat(ResolvedTradeCache.resolve(TRADE, parameters, REF_DATA)).isEqualTo(TRADE.resolve(REF_DATA));
+    assertThat(cache.getMissCount()).isEqualTo(0);
+  }
+
+  public void test_clearCache() {
+    ResolvedTradeCache test = ResolvedTradeCache.of();
+    test.resolve(TRADE, REF_DATA);
+    test.clearCache();
+    assertThat(test.getCacheSize()).isEqualTo(0);
+    test.resolve(TRADE, REF_DATA);
+    assertThat(test.getMissCount()).isEqualTo(2);
+  }
+
+  public void test_of_invalid() {
+    assertThrowsIllegalArg(() -> ResolvedTradeCache.of(0));
+  }
+
+}
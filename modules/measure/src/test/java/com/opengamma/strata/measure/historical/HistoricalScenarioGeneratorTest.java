@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.measure.historical;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.calc.marketdata.PerturbationMapping;
+import com.opengamma.strata.calc.marketdata.ScenarioDefinition;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.scenario.MarketDataBox;
+import com.opengamma.strata.market.ShiftType;
+import com.opengamma.strata.market.observable.QuoteId;
+
+/**
+ * Test {@link HistoricalScenarioGenerator}.
+ */
+@Test
+public class HistoricalScenarioGeneratorTest {
+
+  private static final QuoteId QUOTE_1 = QuoteId.of(StandardId.of("OG", "1"));
+  private static final QuoteId QUOTE_2 = QuoteId.of(StandardId.of("OG", "2"));
+  private static final LocalDate DATE_1 = date(2018, 1, 2);
+  private static final LocalDate DATE_2 = date(2018, 1, 3);
+  private static final LocalDate DATE_3 = date(2018, 1, 4);
+  private static final LocalDate DATE_4 = date(2018, 1, 5);
+  private static final Map<QuoteId, LocalDateDoubleTimeSeries> HISTORY = ImmutableMap.of(
+      QUOTE_1, LocalDateDoubleTimeSeries.builder()
+          .put(DATE_1, 100d)
+          .put(DATE_2, 102d)
+          .put(DATE_3, 99d)
+          .put(DATE_4, 101d)
+          .build(),
+      QUOTE_2, LocalDateDoubleTimeSeries.builder()
+          .put(DATE_1, 2d)
+          .put(DATE_3, 2.5d)
+          .put(DATE_4, 2d)
+          .build());
+  private static final double TOL = 1e-12;
+
+  //-------------------------------------------------------------------------
+  public void test_of_absolute() {
+    HistoricalScenarioGenerator test = HistoricalScenarioGenerator.of(HISTORY, ShiftType.ABSOLUTE);
+    assertThat(test.getQuoteIds()).containsExactly(QUOTE_1, QUOTE_2);
+    assertThat(test.getShiftType()).isEqualTo(ShiftType.ABSOLUTE);
+    assertThat(test.getScenarioDates()).containsExactly(DATE_3, DATE_4);
+    assertThat(test.getScenarioCount()).isEqualTo(2);
+    assertThat(test.shifts(0, 0, 2)).isEqualTo(DoubleArray.of(-1d, 2d));
+    assertThat(test.shifts(1, 1, 2)).isEqualTo(DoubleArray.of(-0.5d));
+    assertThat(test.toString()).contains("scenarioCount=2");
+  }
+
+  public void test_of_relative() {
+    HistoricalScenarioGenerator test = HistoricalScenarioGenerator.of(HISTORY, ShiftType.RELATIVE);
+    assertThat(test.shifts(0, 0, 2).get(0)).isCloseTo(-0.01, offset(TOL));
+    assertThat(test.shifts(0, 0, 2).get(1)).isCloseTo(2d / 99d, offset(TOL));
+    assertThat(test.shifts(1, 0, 2).get(0)).isCloseTo(0.25, offset(TOL));
+    DoubleMatrix changes = test.quoteChanges(DoubleArray.of(200d, 4d), 0, 2);
+    assertThat(changes.rowCount()).isEqualTo(2);
+    assertThat(changes.get(0, 0)).isCloseTo(-2d, offset(TOL));
+    assertThat(changes.get(1, 0)).isCloseTo(400d / 99d, offset(TOL));
+    assertThat(changes.get(0, 1)).isCloseTo(1d, offset(TOL));
+    assertThat(changes.get(1, 1)).isCloseTo(-0.8d, offset(TOL));
+  }
+
+  public void test_of_invalid() {
+    assertThrowsIllegalArg(() -> HistoricalScenarioGenerator.of(ImmutableMap.of(), ShiftType.ABSOLUTE));
+    Map<QuoteId, LocalDateDoubleTimeSeries> history = ImmutableMap.of(
+        QUOTE_1, LocalDateDoubleTimeSeries.of(DATE_1, 1d),
+        QUOTE_2, LocalDateDoubleTimeSeries.of(DATE_1, 2d));
+    assertThrowsIllegalArg(() -> HistoricalScenarioGenerator.of(history, ShiftType.ABSOLUTE));
+  }
+
+  public void test_windows_invalid() {
+    HistoricalScenarioGenerator test = HistoricalScenarioGenerator.of(HISTORY, ShiftType.ABSOLUTE);
+    assertThrowsIllegalArg(() -> test.shifts(2, 0, 1));
+    assertThrowsIllegalArg(() -> test.shifts(0, 1, 1));
+    assertThrowsIllegalArg(() -> test.shifts(0, 0, 3));
+    assertThrowsIllegalArg(() -> test.scenarioDefinition(2, 3));
+    assertThrowsIllegalArg(() -> test.quoteChanges(DoubleArray.of(1d), 0, 1));
+  }
+
+  public void test_scenarioDefinition() {
+    HistoricalScenarioGenerator test = HistoricalScenarioGenerator.of(HISTORY, ShiftType.ABSOLUTE);
+    ScenarioDefinition definition = test.scenarioDefinition(1, 2);
+    assertThat(definition.getScenarioCount()).isEqualTo(1);
+    assertThat(definition.getScenarioNames()).isEqualTo(ImmutableList.of(DATE_4.toString()));
+    assertThat(definition.getMappings()).hasSize(2);
+    MarketDataBox<Double> box = MarketDataBox.ofSingleValue(100d);
+    @SuppressWarnings("unchecked")
+    PerturbationMapping<Double> mapping = (PerturbationMapping<Double>) definition.getMappings().get(0);
+    MarketDataBox<Double> shifted = mapping.applyPerturbation(box, ReferenceData.empty());
+    assertThat(shifted.getValue(0)).isEqualTo(102d);
+    assertThat(definition.getMappings().get(1).matches(QUOTE_2, box, ReferenceData.empty())).isTrue();
+  }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.measure.historical;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.calc.CalculationRules;
+import com.opengamma.strata.calc.CalculationRunner;
+import com.opengamma.strata.calc.marketdata.MarketDataConfig;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeriesBuilder;
+import com.opengamma.strata.data.ImmutableMarketData;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.market.ShiftType;
+import com.opengamma.strata.market.observable.QuoteId;
+import com.opengamma.strata.math.impl.statistics.descriptive.SampleInterpolationQuantileMethod;
+import com.opengamma.strata.math.impl.statistics.descriptive.TailQuantileAccumulator;
+import com.opengamma.strata.measure.StandardComponents;
+import com.opengamma.strata.product.GenericSecurity;
+import com.opengamma.strata.product.GenericSecurityTrade;
+import com.opengamma.strata.product.SecurityId;
+import com.opengamma.strata.product.SecurityInfo;
+import com.opengamma.strata.product.TradeInfo;
+
+/**
+ * Test {@link HistoricalSimulation}.
+ */
+@Test
+public class HistoricalSimulationTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final LocalDate VAL_DATE = LocalDate.of(2018, 3, 1);
+  private static final double TICK_SIZE = 0.01;
+  private static final double TICK_VALUE = 10;
+  private static final SecurityId SEC_ID_1 = SecurityId.of("OG-Future", "Future-1");
+  private static final SecurityId SEC_ID_2 = SecurityId.of("OG-Future", "Future-2");
+  private static final QuoteId QUOTE_1 = QuoteId.of(SEC_ID_1.getStandardId());
+  private static final QuoteId QUOTE_2 = QuoteId.of(SEC_ID_2.getStandardId());
+  private static final QuoteId QUOTE_UNUSED = QuoteId.of(StandardId.of("OG", "Unused"));
+  private static final List<GenericSecurityTrade> TRADES = ImmutableList.of(trade(SEC_ID_1, 20), trade(SEC_ID_2, -35));
+  private static final double UNIT_VALUE = TICK_VALUE / TICK_SIZE;
+  private static final DoubleArray QUANTITIES = DoubleArray.of(20d, -35d, 0d);
+  private static final DoubleArray BASE_QUOTES = DoubleArray.of(99.5d, 97.25d, 1.5d);
+  private static final MarketData MARKET_DATA = ImmutableMarketData.builder(VAL_DATE)
+      .addValue(QUOTE_1, BASE_QUOTES.get(0))
+      .addValue(QUOTE_2, BASE_QUOTES.get(1))
+      .addValue(QUOTE_UNUSED, BASE_QUOTES.get(2))
+      .build();
+  private static final int SCENARIO_COUNT = 12;
+  private static final HistoricalScenarioGenerator SCENARIOS =
+      HistoricalScenarioGenerator.of(history(), ShiftType.RELATIVE);
+
+  private final CalculationRunner runner = CalculationRunner.ofMultiThreaded();
+  private final HistoricalSimulation simulation = HistoricalSimulation.of(
+      runner,
+      CalculationRules.of(StandardComponents.calculationFunctions()),
+      StandardComponents.marketDataFactory(),
+      MarketDataConfig.empty(),
+      REF_DATA,
+      5);
+
+  private static GenericSecurityTrade trade(SecurityId securityId, double quantity) {
+    return GenericSecurityTrade.builder()
+        .info(TradeInfo.builder().settlementDate(VAL_DATE).build())
+        .security(GenericSecurity.of(SecurityInfo.of(securityId, TICK_SIZE, CurrencyAmount.of(EUR, TICK_VALUE))))
+        .quantity(quantity)
+        .price(98d)
+        .build();
+  }
+
+  private static Map<QuoteId, LocalDateDoubleTimeSeries> history() {
+    Random random = new Random(1);
+    Map<QuoteId, LocalDateDoubleTimeSeries> history = new LinkedHashMap<>();
+    for (QuoteId quoteId : ImmutableList.of(QUOTE_1, QUOTE_2, QUOTE_UNUSED)) {
+      LocalDateDoubleTimeSeriesBuilder builder = LocalDateDoubleTimeSeries.builder();
+      double value = 100d;
+      for (int i = 0; i <= SCENARIO_COUNT; i++) {
+        builder.put(VAL_DATE.minusDays(SCENARIO_COUNT - i), value);
+        value += random.nextGaussian();
+      }
+      history.put(quoteId, builder.build());
+    }
+    return history;
+  }
+
+  // the P&L of the linear trades when the relative shifts are applied to the base quotes
+  private static DoubleArray expectedPnl() {
+    return DoubleArray.of(SCENARIO_COUNT, i -> {
+      double pnl = 0d;
+      for (int j = 0; j < QUANTITIES.size(); j++) {
+        double shift = SCENARIOS.shifts(j, i, i + 1).get(0);
+        pnl += QUANTITIES.get(j) * UNIT_VALUE * BASE_QUOTES.get(j) * shift;
+      }
+      return pnl;
+    });
+  }
+
+  @AfterClass
+  public void close() {
+    runner.close();
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_of() {
+    assertThat(simulation.getChunkSize()).isEqualTo(5);
+    HistoricalSimulation test = HistoricalSimulation.of(
+        runner,
+        CalculationRules.of(StandardComponents.calculationFunctions()),
+        StandardComponents.marketDataFactory(),
+        MarketDataConfig.empty(),
+        REF_DATA);
+    assertThat(test.getChunkSize()).isEqualTo(HistoricalSimulation.DEFAULT_CHUNK_SIZE);
+    assertThrowsIllegalArg(() -> HistoricalSimulation.of(
+        runner,
+        CalculationRules.of(StandardComponents.calculationFunctions()),
+        StandardComponents.marketDataFactory(),
+        MarketDataConfig.empty(),
+        REF_DATA,
+        0));
+  }
+
+  public void test_fullRevaluationPnl() {
+    List<DoubleArray> chunks = new ArrayList<>();
+    simulation.fullRevaluationPnl(TRADES, EUR, MARKET_DATA, SCENARIOS, chunks::add);
+    assertThat(chunks).extracting(DoubleArray::size).containsExactly(5, 5, 2);
+    DoubleArray pnl = chunks.stream().reduce(DoubleArray.EMPTY, DoubleArray::concat);
+    DoubleArray expected = expectedPnl();
+    for (int i = 0; i < SCENARIO_COUNT; i++) {
+      assertThat(pnl.get(i)).isCloseTo(expected.get(i), offset(1e-8));
+    }
+  }
+
+  public void test_quoteDeltaGamma() {
+    QuoteDeltaGamma test = simulation.quoteDeltaGamma(TRADES, EUR, MARKET_DATA, SCENARIOS.getQuoteIds(), 0.01);
+    assertThat(test.getQuoteIds()).isEqualTo(SCENARIOS.getQuoteIds());
+    assertThat(test.getCurrency()).isEqualTo(EUR);
+    assertThat(test.getBaseValues()).isEqualTo(BASE_QUOTES);
+    for (int j = 0; j < QUANTITIES.size(); j++) {
+      assertThat(test.getDelta().get(j)).isCloseTo(QUANTITIES.get(j) * UNIT_VALUE, offset(1e-6));
+      assertThat(test.getGamma().get(j)).isCloseTo(0d, offset(1e-2));
+    }
+  }
+
+  public void test_taylorPnl() {
+    QuoteDeltaGamma sensitivities = QuoteDeltaGamma.of(
+        SCENARIOS.getQuoteIds(), EUR, BASE_QUOTES, QUANTITIES.multipliedBy(UNIT_VALUE), DoubleArray.filled(3));
+    List<DoubleArray> chunks = new ArrayList<>();
+    simulation.taylorPnl(sensitivities, SCENARIOS, chunks::add);
+    assertThat(chunks).extracting(DoubleArray::size).containsExactly(5, 5, 2);
+    DoubleArray pnl = chunks.stream().reduce(DoubleArray.EMPTY, DoubleArray::concat);
+    DoubleArray expected = expectedPnl();
+    for (int i = 0; i < SCENARIO_COUNT; i++) {
+      assertThat(pnl.get(i)).isCloseTo(expected.get(i), offset(1e-8));
+    }
+    QuoteDeltaGamma other = QuoteDeltaGamma.of(
+        ImmutableList.of(QUOTE_1), EUR, DoubleArray.of(1d), DoubleArray.of(1d), DoubleArray.of(1d));
+    assertThrowsIllegalArg(() -> simulation.taylorPnl(other, SCENARIOS, chunks::add));
+  }
+
+  public void test_valueAtRisk() {
+    SampleInterpolationQuantileMethod method = SampleInterpolationQuantileMethod.DEFAULT;
+    TailQuantileAccumulator pnl = TailQuantileAccumulator.of(method, 0.1, SCENARIO_COUNT);
+    simulation.fullRevaluationPnl(TRADES, EUR, MARKET_DATA, SCENARIOS, pnl::addAll);
+    DoubleArray expected = expectedPnl();
+    assertThat(pnl.quantile()).isCloseTo(method.quantileFromUnsorted(0.1, expected), offset(1e-8));
+    assertThat(pnl.expectedShortfall()).isCloseTo(method.expectedShortfallFromUnsorted(0.1, expected), offset(1e-8));
+  }
+
+}
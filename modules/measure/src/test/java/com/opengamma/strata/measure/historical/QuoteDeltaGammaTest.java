@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.measure.historical;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.market.observable.QuoteId;
+
+/**
+ * Test {@link QuoteDeltaGamma}.
+ */
+@Test
+public class QuoteDeltaGammaTest {
+
+  private static final List<QuoteId> QUOTE_IDS = ImmutableList.of(
+      QuoteId.of(StandardId.of("OG", "1")),
+      QuoteId.of(StandardId.of("OG", "2")));
+  private static final DoubleArray BASE = DoubleArray.of(100d, 2d);
+  private static final DoubleArray DELTA = DoubleArray.of(10d, -500d);
+  private static final DoubleArray GAMMA = DoubleArray.of(0.5d, 2000d);
+
+  public void test_of() {
+    QuoteDeltaGamma test = QuoteDeltaGamma.of(QUOTE_IDS, EUR, BASE, DELTA, GAMMA);
+    assertThat(test.getQuoteIds()).isEqualTo(QUOTE_IDS);
+    assertThat(test.getCurrency()).isEqualTo(EUR);
+    assertThat(test.getBaseValues()).isEqualTo(BASE);
+    assertThat(test.getDelta()).isEqualTo(DELTA);
+    assertThat(test.getGamma()).isEqualTo(GAMMA);
+    assertThat(test.toString()).contains("QuoteDeltaGamma");
+  }
+
+  public void test_of_invalid() {
+    assertThrowsIllegalArg(() -> QuoteDeltaGamma.of(QUOTE_IDS, EUR, DoubleArray.of(1d), DELTA, GAMMA));
+    assertThrowsIllegalArg(() -> QuoteDeltaGamma.of(QUOTE_IDS, EUR, BASE, DoubleArray.of(1d), GAMMA));
+    assertThrowsIllegalArg(() -> QuoteDeltaGamma.of(QUOTE_IDS, EUR, BASE, DELTA, DoubleArray.of(1d)));
+  }
+
+  public void test_pnl() {
+    QuoteDeltaGamma test = QuoteDeltaGamma.of(QUOTE_IDS, EUR, BASE, DELTA, GAMMA);
+    DoubleMatrix changes = DoubleMatrix.of(3, 2,
+        1d, 0.01d,
+        -2d, 0d,
+        0d, -0.02d);
+    DoubleArray pnl = test.pnl(changes);
+    assertThat(pnl.size()).isEqualTo(3);
+    assertThat(pnl.get(0)).isCloseTo(10d + 0.25d - 5d + 0.1d, offset(1e-12));
+    assertThat(pnl.get(1)).isCloseTo(-20d + 1d, offset(1e-12));
+    assertThat(pnl.get(2)).isCloseTo(10d + 0.4d, offset(1e-12));
+    assertThrowsIllegalArg(() -> test.pnl(DoubleMatrix.of(1, 1, 1d)));
+  }
+
+}
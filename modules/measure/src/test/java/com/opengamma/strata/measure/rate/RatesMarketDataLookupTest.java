@@ -31,6 +31,7 @@ import org.joda.beans.ImmutableBean;
 import org.joda.beans.ser.JodaBeanSer;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.opengamma.strata.basics.currency.Currency;
@@ -39,6 +40,7 @@ import com.opengamma.strata.basics.currency.FxRateProvider;
 import com.opengamma.strata.basics.index.Index;
 import com.opengamma.strata.calc.runner.FunctionRequirements;
 import com.opengamma.strata.calc.runner.FxRateLookup;
+import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.data.FxRateId;
 import com.opengamma.strata.data.ImmutableMarketData;
 import com.opengamma.strata.data.MarketData;
@@ -46,6 +48,7 @@ import com.opengamma.strata.data.MarketDataFxRateProvider;
 import com.opengamma.strata.data.MarketDataId;
 import com.opengamma.strata.data.MarketDataNotFoundException;
 import com.opengamma.strata.data.ObservableSource;
+import com.opengamma.strata.data.scenario.ImmutableScenarioMarketData;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
 import com.opengamma.strata.market.curve.ConstantCurve;
 import com.opengamma.strata.market.curve.Curve;
@@ -55,6 +58,7 @@ import com.opengamma.strata.market.curve.Curves;
 import com.opengamma.strata.market.curve.RatesCurveGroup;
 import com.opengamma.strata.market.observable.IndexQuoteId;
 import com.opengamma.strata.measure.curve.TestMarketDataMap;
+import com.opengamma.strata.pricer.ScenarioDiscountFactors;
 import com.opengamma.strata.pricer.SimpleDiscountFactors;
 import com.opengamma.strata.pricer.rate.DiscountIborIndexRates;
 import com.opengamma.strata.pricer.rate.DiscountOvernightIndexRates;
@@ -156,6 +160,22 @@ public class RatesMarketDataLookupTest {
     assertEquals(scenario.getValuationDate(), valDate);
   }
 
+  public void test_discountFactors_scenarios() {
+    RatesMarketDataLookup test = RatesMarketDataLookup.of(ImmutableMap.of(USD, CURVE_ID_DSC), ImmutableMap.of());
+    LocalDate valDate = date(2015, 6, 30);
+    Curve dscCurve1 = ConstantCurve.of(Curves.discountFactors(CURVE_ID_DSC.getCurveName(), ACT_360), 0.9d);
+    Curve dscCurve2 = ConstantCurve.of(Curves.discountFactors(CURVE_ID_DSC.getCurveName(), ACT_360), 0.8d);
+    ScenarioMarketData md = ImmutableScenarioMarketData.builder(valDate)
+        .addScenarioValue(CURVE_ID_DSC, ImmutableList.of(dscCurve1, dscCurve2))
+        .build();
+    ScenarioDiscountFactors dfs = test.marketDataView(md).discountFactors(USD);
+    assertEquals(dfs.getScenarioCount(), 2);
+    assertEquals(dfs.getCurrency(), USD);
+    assertEquals(dfs.discountFactors(date(2016, 6, 30)), DoubleArray.of(0.9d, 0.8d));
+    assertEquals(dfs.getDiscountFactors(1), test.marketDataView(md).scenario(1).ratesProvider().discountFactors(USD));
+    assertThrowsIllegalArg(() -> test.marketDataView(md).discountFactors(GBP));
+  }
+
   public void test_ratesProvider() {
     ImmutableMap<Currency, CurveId> discounts = ImmutableMap.of(USD, CURVE_ID_DSC);
     ImmutableMap<Index, CurveId> forwards =
@@ -8,6 +8,7 @@ package com.opengamma.strata.pricer;
 import static com.opengamma.strata.pricer.SimpleDiscountFactors.EFFECTIVE_ZERO;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import com.opengamma.strata.basics.currency.Currency;
@@ -121,6 +122,21 @@ public interface DiscountFactors
    */
   public abstract double discountFactor(double yearFraction);
 
+  /**
+   * Gets the discount factors for the specified year fractions.
+   * <p>
+   * The year fractions must be based on {@code #relativeYearFraction(LocalDate)}.
+   * They are intended to be sorted in ascending order, in which case implementations
+   * may compute the discount factors more efficiently than one by one.
+   * 
+   * @param yearFractions  the year fractions
+   * @return the discount factors, one for each year fraction
+   * @throws RuntimeException if the values cannot be obtained
+   */
+  public default DoubleArray discountFactors(DoubleArray yearFractions) {
+    return yearFractions.map(this::discountFactor);
+  }
+
   /**
    * Returns the discount factor derivative with respect to the year fraction or time.
    * <p>
@@ -447,6 +463,25 @@ public interface DiscountFactors
    */
   public abstract CurrencyParameterSensitivities parameterSensitivity(ZeroRateSensitivity pointSensitivity);
 
+  /**
+   * Calculates the parameter sensitivity from a list of point sensitivities.
+   * <p>
+   * This is used to convert several point sensitivities to the same discount factors,
+   * for example those of the payments of a swap leg, to a single parameter sensitivity.
+   * The result is the sum of the parameter sensitivities of the point sensitivities.
+   * 
+   * @param pointSensitivities  the point sensitivities to convert
+   * @return the parameter sensitivity
+   * @throws RuntimeException if the result cannot be calculated
+   */
+  public default CurrencyParameterSensitivities parameterSensitivity(List<ZeroRateSensitivity> pointSensitivities) {
+    CurrencyParameterSensitivities result = CurrencyParameterSensitivities.empty();
+    for (ZeroRateSensitivity pointSensitivity : pointSensitivities) {
+      result = result.combinedWith(parameterSensitivity(pointSensitivity));
+    }
+    return result;
+  }
+
   /**
    * Creates the parameter sensitivity when the sensitivity values are known.
    * <p>
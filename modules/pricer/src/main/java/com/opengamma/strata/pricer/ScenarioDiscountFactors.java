@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmountArray;
+import com.opengamma.strata.basics.currency.Payment;
+import com.opengamma.strata.basics.date.DayCount;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.curve.Curve;
+import com.opengamma.strata.market.curve.CurveInfoType;
+
+/**
+ * The discount factors of a currency in multiple scenarios.
+ * <p>
+ * This provides the discount factors of all scenarios for a date in one call.
+ * It is typically used to price a schedule of known cashflows against all scenarios in one pass.
+ * <p>
+ * When the scenarios are curve-based discount factors sharing the same valuation date and day count,
+ * the year fraction of a date is the same in all scenarios. In that case the year fraction is computed
+ * once for each date, and applied to the curve of each scenario. This is the typical case of scenarios
+ * created by shifting the nodes of a base curve. Otherwise, the year fractions of each scenario are
+ * computed separately.
+ * <p>
+ * The present value of a schedule of payments uses {@link DiscountFactors#discountFactors(DoubleArray)},
+ * thus the curve of each scenario is traversed once for all the payments.
+ */
+public final class ScenarioDiscountFactors {
+
+  /**
+   * The currency.
+   */
+  private final Currency currency;
+  /**
+   * The discount factors of each scenario.
+   */
+  private final ImmutableList<DiscountFactors> discountFactors;
+  /**
+   * Whether the scenarios share the year fraction of each date.
+   */
+  private final boolean sharedYearFraction;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from the discount factors of each scenario.
+   * <p>
+   * The discount factors must all be in the same currency.
+   *
+   * @param discountFactors  the discount factors of each scenario
+   * @return the scenario discount factors
+   * @throws IllegalArgumentException if the list is empty or the currencies differ
+   */
+  public static ScenarioDiscountFactors of(List<? extends DiscountFactors> discountFactors) {
+    ArgChecker.notEmpty(discountFactors, "discountFactors");
+    return new ScenarioDiscountFactors(ImmutableList.copyOf(discountFactors));
+  }
+
+  // restricted constructor
+  private ScenarioDiscountFactors(ImmutableList<DiscountFactors> discountFactors) {
+    this.currency = discountFactors.get(0).getCurrency();
+    for (DiscountFactors scenario : discountFactors) {
+      ArgChecker.isTrue(
+          scenario.getCurrency().equals(currency),
+          "Discount factors must all be in {} but found {}", currency, scenario.getCurrency());
+    }
+    this.discountFactors = discountFactors;
+    this.sharedYearFraction = sharesYearFraction(discountFactors);
+  }
+
+  // checks if the scenarios have the same valuation date and a known and identical day count
+  private static boolean sharesYearFraction(List<DiscountFactors> discountFactors) {
+    DiscountFactors first = discountFactors.get(0);
+    Optional<DayCount> dayCount = dayCount(first);
+    if (!dayCount.isPresent()) {
+      return false;
+    }
+    for (DiscountFactors scenario : discountFactors) {
+      if (!scenario.getValuationDate().equals(first.getValuationDate()) || !dayCount(scenario).equals(dayCount)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // obtains the day count used by curve-based discount factors to compute the year fractions
+  private static Optional<DayCount> dayCount(DiscountFactors discountFactors) {
+    Curve curve;
+    if (discountFactors instanceof ZeroRateDiscountFactors) {
+      curve = ((ZeroRateDiscountFactors) discountFactors).getCurve();
+    } else if (discountFactors instanceof SimpleDiscountFactors) {
+      curve = ((SimpleDiscountFactors) discountFactors).getCurve();
+    } else if (discountFactors instanceof ZeroRatePeriodicDiscountFactors) {
+      curve = ((ZeroRatePeriodicDiscountFactors) discountFactors).getCurve();
+    } else {
+      return Optional.empty();
+    }
+    return curve.getMetadata().findInfo(CurveInfoType.DAY_COUNT);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the currency.
+   *
+   * @return the currency
+   */
+  public Currency getCurrency() {
+    return currency;
+  }
+
+  /**
+   * Gets the number of scenarios.
+   *
+   * @return the number of scenarios
+   */
+  public int getScenarioCount() {
+    return discountFactors.size();
+  }
+
+  /**
+   * Gets the discount factors of a scenario.
+   *
+   * @param scenarioIndex  the index of the scenario
+   * @return the discount factors of the scenario
+   */
+  public DiscountFactors getDiscountFactors(int scenarioIndex) {
+    ArgChecker.inRange(scenarioIndex, 0, discountFactors.size(), "scenarioIndex");
+    return discountFactors.get(scenarioIndex);
+  }
+
+  /**
+   * Checks if the year fraction of a date is shared by all scenarios.
+   * <p>
+   * If true, the year fraction of a date is computed once for all the scenarios.
+   *
+   * @return true if the year fractions are shared
+   */
+  public boolean isSharedYearFraction() {
+    return sharedYearFraction;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the discount factors of all scenarios for the specified date.
+   * <p>
+   * See {@link DiscountFactors#discountFactor(LocalDate)}.
+   * As for a single scenario, the date may be before the valuation date.
+   *
+   * @param date  the date to discount to
+   * @return the discount factor of each scenario
+   * @throws RuntimeException if the value cannot be obtained
+   */
+  public DoubleArray discountFactors(LocalDate date) {
+    if (sharedYearFraction) {
+      double yearFraction = discountFactors.get(0).relativeYearFraction(date);
+      return DoubleArray.of(discountFactors.size(), i -> discountFactors.get(i).discountFactor(yearFraction));
+    }
+    return DoubleArray.of(discountFactors.size(), i -> discountFactors.get(i).discountFactor(date));
+  }
+
+  /**
+   * Calculates the present value of the payments in all scenarios.
+   * <p>
+   * The present value of each payment is its amount multiplied by the discount factor of its date.
+   * Payments before the valuation date have no value, see {@link DiscountingPaymentPricer}.
+   *
+   * @param payments  the payments, in the currency of the discount factors
+   * @return the present value of the payments in each scenario
+   * @throws IllegalArgumentException if a payment is not in the currency of the discount factors
+   */
+  public CurrencyAmountArray presentValue(List<Payment> payments) {
+    for (Payment payment : payments) {
+      ArgChecker.isTrue(
+          payment.getCurrency().equals(currency),
+          "Payment currency {} must match discount factors currency {}", payment.getCurrency(), currency);
+    }
+    // sorted so that the curve of each scenario is traversed once
+    List<Payment> sorted = payments.stream()
+        .sorted(Comparator.comparing(Payment::getDate))
+        .collect(toImmutableList());
+    double[] result = new double[discountFactors.size()];
+    Schedule schedule = null;
+    for (int i = 0; i < result.length; i++) {
+      DiscountFactors scenario = discountFactors.get(i);
+      if (schedule == null || !sharedYearFraction) {
+        schedule = new Schedule(sorted, scenario);
+      }
+      result[i] = scenario.discountFactors(schedule.yearFractions).multipliedBy(schedule.amounts).sum();
+    }
+    return CurrencyAmountArray.of(currency, DoubleArray.ofUnsafe(result));
+  }
+
+  // the year fractions and amounts of the payments on or after the valuation date
+  private static final class Schedule {
+    private final DoubleArray yearFractions;
+    private final DoubleArray amounts;
+
+    private Schedule(List<Payment> sortedPayments, DiscountFactors discountFactors) {
+      List<Payment> payments = sortedPayments.stream()
+          .filter(payment -> !payment.getDate().isBefore(discountFactors.getValuationDate()))
+          .collect(toImmutableList());
+      this.yearFractions = DoubleArray.of(
+          payments.size(), i -> discountFactors.relativeYearFraction(payments.get(i).getDate()));
+      this.amounts = DoubleArray.of(payments.size(), i -> payments.get(i).getAmount());
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "ScenarioDiscountFactors[currency=" + currency + ", scenarioCount=" + discountFactors.size() +
+        ", sharedYearFraction=" + sharedYearFraction + "]";
+  }
+
+}
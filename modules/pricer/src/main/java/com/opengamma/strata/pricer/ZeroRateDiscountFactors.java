@@ -7,9 +7,13 @@ package com.opengamma.strata.pricer;
 
 import java.io.Serializable;
 import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.joda.beans.Bean;
 import org.joda.beans.BeanBuilder;
@@ -165,6 +169,13 @@ public final class ZeroRateDiscountFactors
     return Math.exp(-yearFraction * curve.yValue(yearFraction));
   }
 
+  @Override
+  public DoubleArray discountFactors(DoubleArray yearFractions) {
+    // interpolate all zero rates in one pass over the curve
+    DoubleArray zeroRates = curve.yValuesAt(yearFractions);
+    return zeroRates.mapWithIndex((i, zr) -> Math.exp(-yearFractions.get(i) * zr));
+  }
+
   @Override
   public double discountFactorTimeDerivative(double yearFraction) {
     double zr = curve.yValue(yearFraction);
@@ -191,6 +202,23 @@ public final class ZeroRateDiscountFactors
     return CurrencyParameterSensitivities.of(curSens);
   }
 
+  @Override
+  public CurrencyParameterSensitivities parameterSensitivity(List<ZeroRateSensitivity> pointSensitivities) {
+    // group by currency, sorting by year fraction so the curve is traversed in a single pass
+    Map<Currency, List<ZeroRateSensitivity>> byCurrency = pointSensitivities.stream()
+        .sorted(Comparator.comparingDouble(ZeroRateSensitivity::getYearFraction))
+        .collect(Collectors.groupingBy(ZeroRateSensitivity::getCurrency, LinkedHashMap::new, Collectors.toList()));
+    CurrencyParameterSensitivities result = CurrencyParameterSensitivities.empty();
+    for (Map.Entry<Currency, List<ZeroRateSensitivity>> entry : byCurrency.entrySet()) {
+      List<ZeroRateSensitivity> sensitivities = entry.getValue();
+      DoubleArray yearFractions = DoubleArray.of(sensitivities.size(), i -> sensitivities.get(i).getYearFraction());
+      DoubleArray factors = DoubleArray.of(sensitivities.size(), i -> sensitivities.get(i).getSensitivity());
+      UnitParameterSensitivity unitSens = curve.yValueParameterSensitivity(yearFractions, factors);
+      result = result.combinedWith(unitSens.multipliedBy(entry.getKey(), 1d));
+    }
+    return result;
+  }
+
   @Override
   public CurrencyParameterSensitivities createParameterSensitivity(Currency currency, DoubleArray sensitivities) {
     return CurrencyParameterSensitivities.of(curve.createParameterSensitivity(currency, sensitivities));
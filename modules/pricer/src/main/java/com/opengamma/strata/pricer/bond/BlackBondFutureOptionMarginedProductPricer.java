@@ -5,7 +5,10 @@
  */
 package com.opengamma.strata.pricer.bond;
 
+import java.util.List;
+
 import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.market.sensitivity.PointSensitivities;
 import com.opengamma.strata.pricer.impl.option.BlackFormulaRepository;
 import com.opengamma.strata.product.bond.BondFuture;
@@ -154,6 +157,38 @@ public final class BlackBondFutureOptionMarginedProductPricer {
     return price(futureOption, discountingProvider, (BlackBondFutureVolatilities) volatilities);
   }
 
+  /**
+   * Calculates the price of the bond future option product in multiple scenarios.
+   * <p>
+   * The underlying future prices of all the scenarios are computed by the basket analytics,
+   * which are typically shared by all the options on the same future.
+   * <p>
+   * Strata uses <i>decimal prices</i> for bond futures. This is coherent with the pricing of {@link BondFuture}.
+   * For example, a price of 1.32% is represented in Strata by 0.0132.
+   *
+   * @param futureOption  the option product
+   * @param basketAnalytics  the delivery basket analytics of the underlying future
+   * @param discountingProviders  the discounting provider of each scenario
+   * @param volatilities  the volatilities of each scenario
+   * @return the price of the product in each scenario, in decimal form
+   * @throws IllegalArgumentException if the analytics are not for the underlying future or the sizes differ
+   */
+  public DoubleArray prices(
+      ResolvedBondFutureOption futureOption,
+      BondFutureBasketAnalytics basketAnalytics,
+      List<? extends LegalEntityDiscountingProvider> discountingProviders,
+      List<? extends BlackBondFutureVolatilities> volatilities) {
+
+    ArgChecker.isTrue(basketAnalytics.getFuture().equals(futureOption.getUnderlyingFuture()),
+        "Basket analytics must be for the underlying future");
+    ArgChecker.isTrue(volatilities.size() == discountingProviders.size(),
+        "Volatilities must be provided for each scenario");
+    DoubleArray futurePrices = basketAnalytics.prices(discountingProviders);
+    return DoubleArray.of(
+        futurePrices.size(),
+        i -> price(futureOption, discountingProviders.get(i), volatilities.get(i), futurePrices.get(i)));
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Calculates the delta of the bond future option product.
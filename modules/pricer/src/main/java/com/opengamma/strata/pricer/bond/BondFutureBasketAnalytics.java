@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.bond;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.Payment;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.collect.array.IntArray;
+import com.opengamma.strata.collect.tuple.Pair;
+import com.opengamma.strata.market.sensitivity.PointSensitivities;
+import com.opengamma.strata.pricer.DiscountFactors;
+import com.opengamma.strata.pricer.ScenarioDiscountFactors;
+import com.opengamma.strata.product.LegalEntityId;
+import com.opengamma.strata.product.SecurityId;
+import com.opengamma.strata.product.bond.FixedCouponBondPaymentPeriod;
+import com.opengamma.strata.product.bond.ResolvedBondFuture;
+import com.opengamma.strata.product.bond.ResolvedFixedCouponBond;
+
+/**
+ * Delivery basket analytics for a bond future in multiple scenarios.
+ * <p>
+ * The cash flows of each deliverable bond, settled at the last delivery date of the future, are extracted once
+ * together with the accrued interest and the conversion factor. The converted prices of all the deliverables
+ * are then computed against the issuer and repo curves of all the scenarios, using {@link ScenarioDiscountFactors}.
+ * The issuer curves are only looked up once per issuer, even if they are shared by several deliverables.
+ * <p>
+ * The future price and the cheapest-to-deliver bond of each scenario are consistent with
+ * {@link DiscountingBondFutureProductPricer#price(ResolvedBondFuture, LegalEntityDiscountingProvider)}.
+ * The future prices can be used by {@link BlackBondFutureOptionMarginedProductPricer} to price options on the future.
+ * <p>
+ * Strata uses <i>decimal prices</i> for bond futures. For example, a price of 99.32% is represented by 0.9932.
+ */
+public final class BondFutureBasketAnalytics {
+
+  /**
+   * The future.
+   */
+  private final ResolvedBondFuture future;
+  /**
+   * The pricer of the deliverable bonds, used for sensitivities.
+   */
+  private final DiscountingFixedCouponBondProductPricer bondPricer;
+  /**
+   * The payment dates of each deliverable bond.
+   */
+  private final LocalDate[][] paymentDates;
+  /**
+   * The payment amounts of each deliverable bond, divided by the notional and the conversion factor.
+   */
+  private final double[][] paymentAmounts;
+  /**
+   * The accrued interest at delivery of each deliverable bond, divided by the notional and the conversion factor.
+   */
+  private final double[] accruedInterests;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance for the future.
+   *
+   * @param future  the future
+   * @return the analytics
+   */
+  public static BondFutureBasketAnalytics of(ResolvedBondFuture future) {
+    return of(future, DiscountingFixedCouponBondProductPricer.DEFAULT);
+  }
+
+  /**
+   * Obtains an instance for the future, specifying the pricer of the deliverable bonds.
+   *
+   * @param future  the future
+   * @param bondPricer  the pricer of the deliverable bonds
+   * @return the analytics
+   */
+  public static BondFutureBasketAnalytics of(
+      ResolvedBondFuture future,
+      DiscountingFixedCouponBondProductPricer bondPricer) {
+
+    ArgChecker.notNull(future, "future");
+    ArgChecker.notNull(bondPricer, "bondPricer");
+    return new BondFutureBasketAnalytics(future, bondPricer);
+  }
+
+  // restricted constructor
+  private BondFutureBasketAnalytics(ResolvedBondFuture future, DiscountingFixedCouponBondProductPricer bondPricer) {
+    this.future = future;
+    this.bondPricer = bondPricer;
+    ImmutableList<ResolvedFixedCouponBond> basket = future.getDeliveryBasket();
+    LocalDate deliveryDate = future.getLastDeliveryDate();
+    int size = basket.size();
+    this.paymentDates = new LocalDate[size][];
+    this.paymentAmounts = new double[size][];
+    this.accruedInterests = new double[size];
+    for (int i = 0; i < size; i++) {
+      ResolvedFixedCouponBond bond = basket.get(i);
+      double scale = 1d / (bond.getNotional() * future.getConversionFactors().get(i));
+      ImmutableList<FixedCouponBondPaymentPeriod> periods = bond.getPeriodicPayments();
+      LocalDate[] dates = new LocalDate[periods.size() + 1];
+      double[] amounts = new double[periods.size() + 1];
+      int nbFlows = 0;
+      for (FixedCouponBondPaymentPeriod period : periods) {
+        if (period.getDetachmentDate().isAfter(deliveryDate)) {
+          dates[nbFlows] = period.getPaymentDate();
+          amounts[nbFlows] = period.getFixedRate() * period.getNotional() * period.getYearFraction() * scale;
+          nbFlows++;
+        }
+      }
+      Payment nominal = bond.getNominalPayment();
+      dates[nbFlows] = nominal.getDate();
+      amounts[nbFlows] = nominal.getAmount() * scale;
+      nbFlows++;
+      paymentDates[i] = Arrays.copyOf(dates, nbFlows);
+      paymentAmounts[i] = Arrays.copyOf(amounts, nbFlows);
+      accruedInterests[i] = bondPricer.accruedInterest(bond, deliveryDate) * scale;
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the future.
+   *
+   * @return the future
+   */
+  public ResolvedBondFuture getFuture() {
+    return future;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the converted price of each deliverable bond in each scenario.
+   * <p>
+   * The converted price is the clean price of the bond at the last delivery date divided by its conversion factor.
+   * The result has one row per scenario and one column per deliverable bond.
+   *
+   * @param discountingProviders  the discounting provider of each scenario
+   * @return the converted prices, in decimal form
+   */
+  public DoubleMatrix convertedPrices(List<? extends LegalEntityDiscountingProvider> discountingProviders) {
+    ArgChecker.notEmpty(discountingProviders, "discountingProviders");
+    ImmutableList<ResolvedFixedCouponBond> basket = future.getDeliveryBasket();
+    LocalDate deliveryDate = future.getLastDeliveryDate();
+    int nbScenarios = discountingProviders.size();
+    double[][] result = new double[nbScenarios][basket.size()];
+    Map<Pair<LegalEntityId, Currency>, ScenarioDiscountFactors> issuerCache = new HashMap<>();
+    Map<Pair<SecurityId, LegalEntityId>, ScenarioDiscountFactors> repoCache = new HashMap<>();
+    for (int i = 0; i < basket.size(); i++) {
+      ResolvedFixedCouponBond bond = basket.get(i);
+      ScenarioDiscountFactors issuerDfs = issuerCache.computeIfAbsent(
+          Pair.of(bond.getLegalEntityId(), bond.getCurrency()),
+          k -> scenarioDiscountFactors(discountingProviders, p -> DiscountingFixedCouponBondProductPricer
+              .issuerCurveDf(bond, p).getDiscountFactors()));
+      ScenarioDiscountFactors repoDfs = repoCache.computeIfAbsent(
+          Pair.of(bond.getSecurityId(), bond.getLegalEntityId()),
+          k -> scenarioDiscountFactors(discountingProviders, p -> DiscountingFixedCouponBondProductPricer
+              .repoCurveDf(bond, p).getDiscountFactors()));
+      double[] pv = new double[nbScenarios];
+      LocalDate[] dates = paymentDates[i];
+      double[] amounts = paymentAmounts[i];
+      for (int j = 0; j < dates.length; j++) {
+        DoubleArray dfs = issuerDfs.discountFactors(dates[j]);
+        for (int s = 0; s < nbScenarios; s++) {
+          pv[s] += amounts[j] * dfs.get(s);
+        }
+      }
+      DoubleArray repoDeliveryDfs = repoDfs.discountFactors(deliveryDate);
+      for (int s = 0; s < nbScenarios; s++) {
+        result[s][i] = pv[s] / repoDeliveryDfs.get(s) - accruedInterests[i];
+      }
+    }
+    return DoubleMatrix.ofUnsafe(result);
+  }
+
+  /**
+   * Calculates the price of the future in each scenario.
+   * <p>
+   * The price is the minimum of the converted prices of the deliverable bonds.
+   *
+   * @param discountingProviders  the discounting provider of each scenario
+   * @return the price of the future in each scenario, in decimal form
+   */
+  public DoubleArray prices(List<? extends LegalEntityDiscountingProvider> discountingProviders) {
+    DoubleMatrix convertedPrices = convertedPrices(discountingProviders);
+    return DoubleArray.of(convertedPrices.rowCount(), s -> convertedPrices.row(s).min());
+  }
+
+  /**
+   * Determines the cheapest-to-deliver bond in each scenario.
+   * <p>
+   * The result is the index of the cheapest-to-deliver bond in the delivery basket.
+   * Comparing the indices between scenarios identifies the scenarios where the cheapest-to-deliver switches.
+   *
+   * @param discountingProviders  the discounting provider of each scenario
+   * @return the index of the cheapest-to-deliver bond in each scenario
+   */
+  public IntArray cheapestToDeliver(List<? extends LegalEntityDiscountingProvider> discountingProviders) {
+    DoubleMatrix convertedPrices = convertedPrices(discountingProviders);
+    return IntArray.of(convertedPrices.rowCount(), s -> cheapestToDeliver(convertedPrices.row(s)));
+  }
+
+  /**
+   * Calculates the price sensitivity of the future in each scenario.
+   * <p>
+   * The sensitivity is the sensitivity of the cheapest-to-deliver bond of the scenario, divided by its
+   * conversion factor. Only the cheapest-to-deliver bond is priced for sensitivity.
+   * See {@link DiscountingBondFutureProductPricer#priceSensitivity(ResolvedBondFuture, LegalEntityDiscountingProvider)}.
+   *
+   * @param discountingProviders  the discounting provider of each scenario
+   * @return the price curve sensitivity of the future in each scenario
+   */
+  public List<PointSensitivities> priceSensitivities(
+      List<? extends LegalEntityDiscountingProvider> discountingProviders) {
+
+    IntArray ctds = cheapestToDeliver(discountingProviders);
+    ImmutableList.Builder<PointSensitivities> builder = ImmutableList.builder();
+    for (int s = 0; s < ctds.size(); s++) {
+      int ctd = ctds.get(s);
+      builder.add(bondPricer.dirtyPriceSensitivity(
+          future.getDeliveryBasket().get(ctd), discountingProviders.get(s), future.getLastDeliveryDate())
+          .multipliedBy(1d / future.getConversionFactors().get(ctd))
+          .build());
+    }
+    return builder.build();
+  }
+
+  //-------------------------------------------------------------------------
+  // obtains the discount factors of all the scenarios
+  private static ScenarioDiscountFactors scenarioDiscountFactors(
+      List<? extends LegalEntityDiscountingProvider> discountingProviders,
+      Function<LegalEntityDiscountingProvider, DiscountFactors> extractor) {
+
+    ImmutableList.Builder<DiscountFactors> builder = ImmutableList.builder();
+    for (LegalEntityDiscountingProvider provider : discountingProviders) {
+      builder.add(extractor.apply(provider));
+    }
+    return ScenarioDiscountFactors.of(builder.build());
+  }
+
+  // the index of the lowest converted price, the first one in case of equality
+  private static int cheapestToDeliver(DoubleArray convertedPrices) {
+    int ctd = 0;
+    for (int i = 1; i < convertedPrices.size(); i++) {
+      if (convertedPrices.get(i) < convertedPrices.get(ctd)) {
+        ctd = i;
+      }
+    }
+    return ctd;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "BondFutureBasketAnalytics[securityId=" + future.getSecurityId() +
+        ", basketSize=" + accruedInterests.length + "]";
+  }
+
+}
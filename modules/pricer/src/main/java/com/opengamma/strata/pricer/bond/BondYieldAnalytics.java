@@ -0,0 +1,395 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.bond;
+
+import static com.opengamma.strata.product.bond.FixedCouponBondYieldConvention.DE_BONDS;
+import static com.opengamma.strata.product.bond.FixedCouponBondYieldConvention.GB_BUMP_DMO;
+import static com.opengamma.strata.product.bond.FixedCouponBondYieldConvention.JP_SIMPLE;
+import static com.opengamma.strata.product.bond.FixedCouponBondYieldConvention.US_STREET;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.math.impl.rootfinding.BracketRoot;
+import com.opengamma.strata.math.impl.rootfinding.BrentSingleRootFinder;
+import com.opengamma.strata.math.impl.rootfinding.RealSingleRootFinder;
+import com.opengamma.strata.product.bond.CapitalIndexedBondPaymentPeriod;
+import com.opengamma.strata.product.bond.FixedCouponBondPaymentPeriod;
+import com.opengamma.strata.product.bond.FixedCouponBondYieldConvention;
+import com.opengamma.strata.product.bond.ResolvedCapitalIndexedBond;
+import com.opengamma.strata.product.bond.ResolvedFixedCouponBond;
+
+/**
+ * Yield analytics for a set of bonds.
+ * <p>
+ * The cash flows of the yield formula of each bond are extracted once into primitive arrays.
+ * The dirty price, yield, modified duration and convexity of all the bonds are then computed from the arrays,
+ * without walking the periods of the bonds again.
+ * <p>
+ * Fixed coupon bonds use the formulas of {@link DiscountingFixedCouponBondProductPricer} for their yield convention.
+ * Capital indexed bonds use the standard yield of {@link DiscountingCapitalIndexedBondProductPricer}.
+ * <p>
+ * The yield is solved by Newton iterations, falling back to Brent root finding if Newton does not converge.
+ * The bonds are processed in parallel if the instance is obtained from {@link #parallel()}.
+ * <p>
+ * The yields and prices are expressed in fraction.
+ */
+public final class BondYieldAnalytics {
+
+  /**
+   * The maximum number of Newton iterations.
+   */
+  private static final int MAX_ITERATIONS = 50;
+  /**
+   * The absolute tolerance on the yield for Newton iterations.
+   */
+  private static final double TOLERANCE = 1e-14;
+  /**
+   * The root finder used if Newton iterations fail.
+   */
+  private static final RealSingleRootFinder ROOT_FINDER = new BrentSingleRootFinder();
+  /**
+   * Brackets a root.
+   */
+  private static final BracketRoot ROOT_BRACKETER = new BracketRoot();
+
+  /**
+   * Whether the price of each bond is a simple rate formula, {@code amount / (1 + exponent * yield) + constant}.
+   * Otherwise the price is the sum of {@code amount * (1 + yield / frequency)^(-exponent)}.
+   */
+  private final boolean[] simple;
+  /**
+   * The number of coupons per year of each bond.
+   */
+  private final double[] frequencies;
+  /**
+   * The amounts of each bond, expressed per unit of notional.
+   */
+  private final double[][] amounts;
+  /**
+   * The exponents of each bond, matching the amounts.
+   */
+  private final double[][] exponents;
+  /**
+   * The constant part of the price of each bond.
+   */
+  private final double[] constants;
+  /**
+   * Whether the bonds are processed in parallel.
+   */
+  private final boolean parallel;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance for fixed coupon bonds.
+   * <p>
+   * The yield is consistent with
+   * {@link DiscountingFixedCouponBondProductPricer#dirtyPriceFromYield(ResolvedFixedCouponBond, LocalDate, double)}.
+   *
+   * @param bonds  the bonds
+   * @param settlementDates  the settlement date of each bond
+   * @return the analytics
+   * @throws IllegalArgumentException if the sizes differ, or if the settlement date of a bond using
+   *   the JP_SIMPLE yield convention is after its maturity date
+   * @throws UnsupportedOperationException if the yield convention of a bond is not supported
+   */
+  public static BondYieldAnalytics ofFixedCoupon(List<ResolvedFixedCouponBond> bonds, List<LocalDate> settlementDates) {
+    ArgChecker.notNull(bonds, "bonds");
+    ArgChecker.isTrue(settlementDates.size() == bonds.size(), "Settlement date must be provided for each bond");
+    int nbBonds = bonds.size();
+    BondYieldAnalytics analytics = new BondYieldAnalytics(nbBonds, false);
+    DiscountingFixedCouponBondProductPricer pricer = DiscountingFixedCouponBondProductPricer.DEFAULT;
+    for (int i = 0; i < nbBonds; i++) {
+      analytics.extractFixedCoupon(i, bonds.get(i), settlementDates.get(i), pricer);
+    }
+    return analytics;
+  }
+
+  /**
+   * Obtains an instance for capital indexed bonds, using the standard yield.
+   * <p>
+   * The yield is consistent with {@link DiscountingCapitalIndexedBondProductPricer#dirtyPriceFromStandardYield}.
+   * The price is the real price.
+   *
+   * @param bonds  the bonds
+   * @param settlementDates  the settlement date of each bond
+   * @return the analytics
+   * @throws IllegalArgumentException if the sizes differ
+   */
+  public static BondYieldAnalytics ofCapitalIndexed(
+      List<ResolvedCapitalIndexedBond> bonds,
+      List<LocalDate> settlementDates) {
+
+    ArgChecker.notNull(bonds, "bonds");
+    ArgChecker.isTrue(settlementDates.size() == bonds.size(), "Settlement date must be provided for each bond");
+    int nbBonds = bonds.size();
+    BondYieldAnalytics analytics = new BondYieldAnalytics(nbBonds, false);
+    DiscountingCapitalIndexedBondProductPricer pricer = DiscountingCapitalIndexedBondProductPricer.DEFAULT;
+    for (int i = 0; i < nbBonds; i++) {
+      ResolvedCapitalIndexedBond bond = bonds.get(i);
+      LocalDate settlementDate = settlementDates.get(i);
+      int nbCoupon = bond.getPeriodicPayments().size();
+      double[] couponAmounts = new double[nbCoupon];
+      int pow = 0;
+      for (CapitalIndexedBondPaymentPeriod period : bond.getPeriodicPayments()) {
+        if ((bond.hasExCouponPeriod() && !settlementDate.isAfter(period.getDetachmentDate())) ||
+            (!bond.hasExCouponPeriod() && period.getPaymentDate().isAfter(settlementDate))) {
+          couponAmounts[pow] = period.getRealCoupon();
+          ++pow;
+        }
+      }
+      analytics.setCompounded(
+          i, bond.getFrequency().eventsPerYear(), couponAmounts, pow, pricer.factorToNextCoupon(bond, settlementDate));
+    }
+    return analytics;
+  }
+
+  // creates an empty instance, populated by the factory methods
+  private BondYieldAnalytics(int nbBonds, boolean parallel) {
+    this.simple = new boolean[nbBonds];
+    this.frequencies = new double[nbBonds];
+    this.amounts = new double[nbBonds][];
+    this.exponents = new double[nbBonds][];
+    this.constants = new double[nbBonds];
+    this.parallel = parallel;
+  }
+
+  // restricted constructor
+  private BondYieldAnalytics(BondYieldAnalytics base, boolean parallel) {
+    this.simple = base.simple;
+    this.frequencies = base.frequencies;
+    this.amounts = base.amounts;
+    this.exponents = base.exponents;
+    this.constants = base.constants;
+    this.parallel = parallel;
+  }
+
+  // extracts the yield formula of a fixed coupon bond
+  private void extractFixedCoupon(
+      int index,
+      ResolvedFixedCouponBond bond,
+      LocalDate settlementDate,
+      DiscountingFixedCouponBondProductPricer pricer) {
+
+    ImmutableList<FixedCouponBondPaymentPeriod> payments = bond.getPeriodicPayments();
+    FixedCouponBondYieldConvention yieldConv = bond.getYieldConvention();
+    double couponPerYear = bond.getFrequency().eventsPerYear();
+    int nCoupon = payments.size() - pricer.couponIndex(payments, settlementDate);
+    if (nCoupon == 1 && (yieldConv.equals(US_STREET) || yieldConv.equals(DE_BONDS))) {
+      FixedCouponBondPaymentPeriod payment = payments.get(payments.size() - 1);
+      setSimple(
+          index,
+          1d + payment.getFixedRate() * payment.getYearFraction(),
+          pricer.factorToNextCoupon(bond, settlementDate) / couponPerYear,
+          0d);
+      return;
+    }
+    if (yieldConv.equals(JP_SIMPLE)) {
+      LocalDate maturityDate = bond.getUnadjustedEndDate();
+      ArgChecker.isFalse(
+          settlementDate.isAfter(maturityDate),
+          "Settlement date {} must not be after maturity date {} for yield convention JP_SIMPLE",
+          settlementDate,
+          maturityDate);
+      double maturity = bond.getDayCount().relativeYearFraction(settlementDate, maturityDate);
+      double accrued = pricer.accruedYearFraction(bond, settlementDate) * bond.getFixedRate();
+      setSimple(index, 1d + bond.getFixedRate() * maturity, maturity, accrued);
+      return;
+    }
+    if (!yieldConv.equals(US_STREET) && !yieldConv.equals(GB_BUMP_DMO) && !yieldConv.equals(DE_BONDS)) {
+      throw new UnsupportedOperationException("The convention " + yieldConv.name() + " is not supported.");
+    }
+    double[] couponAmounts = new double[payments.size()];
+    int pow = 0;
+    for (FixedCouponBondPaymentPeriod period : payments) {
+      if ((period.hasExCouponPeriod() && !settlementDate.isAfter(period.getDetachmentDate())) ||
+          (!period.hasExCouponPeriod() && period.getPaymentDate().isAfter(settlementDate))) {
+        couponAmounts[pow] = bond.getFixedRate() * period.getYearFraction();
+        ++pow;
+      }
+    }
+    setCompounded(index, couponPerYear, couponAmounts, pow, pricer.factorToNextCoupon(bond, settlementDate));
+  }
+
+  // stores a price of the form amount / (1 + exponent * yield) + constant
+  private void setSimple(int index, double amount, double exponent, double constant) {
+    simple[index] = true;
+    amounts[index] = new double[] {amount};
+    exponents[index] = new double[] {exponent};
+    constants[index] = constant;
+  }
+
+  // stores the coupons and the unit nominal discounted at the compounded yield from the next coupon
+  private void setCompounded(int index, double frequency, double[] couponAmounts, int nbCoupon, double factorToNext) {
+    double[] bondAmounts = new double[nbCoupon + 1];
+    double[] bondExponents = new double[nbCoupon + 1];
+    for (int j = 0; j < nbCoupon; j++) {
+      bondAmounts[j] = couponAmounts[j];
+      bondExponents[j] = j + factorToNext;
+    }
+    bondAmounts[nbCoupon] = 1d;
+    bondExponents[nbCoupon] = nbCoupon - 1 + factorToNext;
+    frequencies[index] = frequency;
+    amounts[index] = bondAmounts;
+    exponents[index] = bondExponents;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns an instance processing the bonds in parallel.
+   *
+   * @return the parallel instance
+   */
+  public BondYieldAnalytics parallel() {
+    return new BondYieldAnalytics(this, true);
+  }
+
+  /**
+   * Gets the number of bonds.
+   *
+   * @return the number of bonds
+   */
+  public int getBondCount() {
+    return amounts.length;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the dirty price of each bond from its yield.
+   *
+   * @param yields  the yield of each bond
+   * @return the dirty price of each bond
+   */
+  public DoubleArray dirtyPriceFromYield(DoubleArray yields) {
+    checkSize(yields);
+    return compute(i -> derivatives(i, yields.get(i))[0]);
+  }
+
+  /**
+   * Calculates the yield of each bond from its dirty price.
+   *
+   * @param dirtyPrices  the dirty price of each bond
+   * @return the yield of each bond
+   */
+  public DoubleArray yieldFromDirtyPrice(DoubleArray dirtyPrices) {
+    checkSize(dirtyPrices);
+    return compute(i -> yield(i, dirtyPrices.get(i)));
+  }
+
+  /**
+   * Calculates the modified duration of each bond from its yield.
+   * <p>
+   * The modified duration is the minus of the first derivative of the dirty price with respect to the yield,
+   * divided by the dirty price.
+   *
+   * @param yields  the yield of each bond
+   * @return the modified duration of each bond
+   */
+  public DoubleArray modifiedDurationFromYield(DoubleArray yields) {
+    checkSize(yields);
+    return compute(i -> {
+      double[] derivatives = derivatives(i, yields.get(i));
+      return derivatives[0] == 0d ? 0d : -derivatives[1] / derivatives[0];
+    });
+  }
+
+  /**
+   * Calculates the convexity of each bond from its yield.
+   * <p>
+   * The convexity is the second derivative of the dirty price with respect to the yield, divided by the dirty price.
+   *
+   * @param yields  the yield of each bond
+   * @return the convexity of each bond
+   */
+  public DoubleArray convexityFromYield(DoubleArray yields) {
+    checkSize(yields);
+    return compute(i -> {
+      double[] derivatives = derivatives(i, yields.get(i));
+      return derivatives[0] == 0d ? 0d : derivatives[2] / derivatives[0];
+    });
+  }
+
+  //-------------------------------------------------------------------------
+  // the dirty price and its first and second derivatives with respect to the yield
+  private double[] derivatives(int index, double yield) {
+    double[] bondAmounts = amounts[index];
+    double[] bondExponents = exponents[index];
+    if (simple[index]) {
+      double inverse = 1d / (1d + bondExponents[0] * yield);
+      double price = bondAmounts[0] * inverse;
+      return new double[] {
+          price + constants[index],
+          -price * bondExponents[0] * inverse,
+          2d * price * bondExponents[0] * bondExponents[0] * inverse * inverse};
+    }
+    double frequency = frequencies[index];
+    double v = 1d / (1d + yield / frequency);
+    double price = 0d;
+    double first = 0d;
+    double second = 0d;
+    for (int j = 0; j < bondAmounts.length; j++) {
+      double e = bondExponents[j];
+      double pv = bondAmounts[j] * Math.pow(v, e);
+      price += pv;
+      first += pv * e;
+      second += pv * e * (e + 1d);
+    }
+    return new double[] {price, -first * v / frequency, second * v * v / (frequency * frequency)};
+  }
+
+  // solves the yield of a bond
+  private double yield(int index, double dirtyPrice) {
+    if (simple[index]) {
+      double exponent = exponents[index][0];
+      return (amounts[index][0] / (dirtyPrice - constants[index]) - 1d) / exponent;
+    }
+    double frequency = frequencies[index];
+    double yield = 0.05d;
+    for (int iter = 0; iter < MAX_ITERATIONS; iter++) {
+      double[] derivatives = derivatives(index, yield);
+      double step = (derivatives[0] - dirtyPrice) / derivatives[1];
+      yield -= step;
+      if (!Double.isFinite(yield) || yield <= -frequency) {
+        break;
+      }
+      if (Math.abs(step) < TOLERANCE) {
+        return yield;
+      }
+    }
+    Function<Double, Double> residual = y -> derivatives(index, y)[0] - dirtyPrice;
+    double[] range = ROOT_BRACKETER.getBracketedPoints(residual, 0.00, 0.20);
+    return ROOT_FINDER.getRoot(residual, range[0], range[1]);
+  }
+
+  // checks the size of the input
+  private void checkSize(DoubleArray values) {
+    ArgChecker.isTrue(values.size() == amounts.length, "A value must be provided for each bond");
+  }
+
+  // computes a value for each bond, in parallel if required
+  private DoubleArray compute(IntToDoubleFunction function) {
+    double[] result = new double[amounts.length];
+    IntStream indices = IntStream.range(0, amounts.length);
+    if (parallel) {
+      indices = indices.parallel();
+    }
+    indices.forEach(i -> result[i] = function.applyAsDouble(i));
+    return DoubleArray.ofUnsafe(result);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "BondYieldAnalytics[bondCount=" + amounts.length + ", parallel=" + parallel + "]";
+  }
+
+}
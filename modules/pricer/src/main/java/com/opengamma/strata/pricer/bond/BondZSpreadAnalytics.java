@@ -0,0 +1,376 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.bond;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+import com.opengamma.strata.basics.currency.Payment;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.math.impl.rootfinding.BracketRoot;
+import com.opengamma.strata.math.impl.rootfinding.BrentSingleRootFinder;
+import com.opengamma.strata.math.impl.rootfinding.RealSingleRootFinder;
+import com.opengamma.strata.pricer.CompoundedRateType;
+import com.opengamma.strata.pricer.DiscountFactors;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+import com.opengamma.strata.product.bond.CapitalIndexedBondPaymentPeriod;
+import com.opengamma.strata.product.bond.FixedCouponBondPaymentPeriod;
+import com.opengamma.strata.product.bond.ResolvedCapitalIndexedBond;
+import com.opengamma.strata.product.bond.ResolvedFixedCouponBond;
+
+/**
+ * Z-spread analytics for a set of bonds.
+ * <p>
+ * The cash flows of each bond are extracted once into primitive arrays, together with the year fraction
+ * and the discount factor of the issuer curve at each payment date. The dirty prices and z-spreads of all
+ * the bonds are then computed from the arrays, without walking the periods of the bonds or querying the curves again.
+ * <p>
+ * The z-spread is a parallel shift applied to continuously compounded rates or periodic
+ * compounded rates of the issuer discounting curve, as in {@link DiscountFactors#discountFactorWithSpread}.
+ * The dirty price is the present value with z-spread, divided by the repo discount factor at
+ * the settlement date and by the notional.
+ * <p>
+ * The z-spread is solved by Newton iterations, falling back to Brent root finding if Newton does not converge.
+ * The bonds are processed in parallel if the instance is obtained from {@link #parallel()}.
+ */
+public final class BondZSpreadAnalytics {
+
+  /**
+   * The year fraction below which the discount factor with spread is 1.
+   */
+  private static final double EFFECTIVE_ZERO = 1e-10;
+  /**
+   * The maximum number of Newton iterations.
+   */
+  private static final int MAX_ITERATIONS = 50;
+  /**
+   * The absolute tolerance on the z-spread for Newton iterations.
+   */
+  private static final double TOLERANCE = 1e-14;
+  /**
+   * The root finder used if Newton iterations fail.
+   */
+  private static final RealSingleRootFinder ROOT_FINDER = new BrentSingleRootFinder();
+  /**
+   * Brackets a root.
+   */
+  private static final BracketRoot ROOT_BRACKETER = new BracketRoot();
+
+  /**
+   * The year fraction of each cash flow of each bond.
+   */
+  private final double[][] times;
+  /**
+   * The discount factor of each cash flow of each bond.
+   */
+  private final double[][] discountFactors;
+  /**
+   * The amount of each cash flow of each bond, divided by the repo discount factor and the notional.
+   */
+  private final double[][] amounts;
+  /**
+   * The part of the dirty price of each bond which does not depend on the z-spread.
+   */
+  private final double[] constants;
+  /**
+   * Whether the bonds are processed in parallel.
+   */
+  private final boolean parallel;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance for fixed coupon bonds.
+   * <p>
+   * The dirty price is consistent with {@link DiscountingFixedCouponBondProductPricer#dirtyPriceFromCurvesWithZSpread}.
+   *
+   * @param bonds  the bonds
+   * @param provider  the discounting provider
+   * @param settlementDates  the settlement date of each bond
+   * @return the analytics
+   * @throws IllegalArgumentException if the sizes differ
+   */
+  public static BondZSpreadAnalytics ofFixedCoupon(
+      List<ResolvedFixedCouponBond> bonds,
+      LegalEntityDiscountingProvider provider,
+      List<LocalDate> settlementDates) {
+
+    ArgChecker.notNull(bonds, "bonds");
+    ArgChecker.notNull(provider, "provider");
+    ArgChecker.isTrue(settlementDates.size() == bonds.size(), "Settlement date must be provided for each bond");
+    int nbBonds = bonds.size();
+    BondZSpreadAnalytics analytics = new BondZSpreadAnalytics(nbBonds, false);
+    LocalDate valuationDate = provider.getValuationDate();
+    for (int i = 0; i < nbBonds; i++) {
+      ResolvedFixedCouponBond bond = bonds.get(i);
+      LocalDate settlementDate = settlementDates.get(i);
+      DiscountFactors issuerDf =
+          DiscountingFixedCouponBondProductPricer.issuerCurveDf(bond, provider).getDiscountFactors();
+      double scale = 1d /
+          (DiscountingFixedCouponBondProductPricer.repoCurveDf(bond, provider).discountFactor(settlementDate) *
+              bond.getNotional());
+      int nbPayments = bond.getPeriodicPayments().size() + 1;
+      double[] paymentAmounts = new double[nbPayments];
+      LocalDate[] paymentDates = new LocalDate[nbPayments];
+      int nbFlows = 0;
+      for (FixedCouponBondPaymentPeriod period : bond.getPeriodicPayments()) {
+        if (period.getDetachmentDate().isAfter(settlementDate) && !period.getPaymentDate().isBefore(valuationDate)) {
+          paymentAmounts[nbFlows] = period.getFixedRate() * period.getNotional() * period.getYearFraction();
+          paymentDates[nbFlows] = period.getPaymentDate();
+          nbFlows++;
+        }
+      }
+      Payment nominal = bond.getNominalPayment();
+      if (!valuationDate.isAfter(nominal.getDate())) {
+        paymentAmounts[nbFlows] = nominal.getAmount();
+        paymentDates[nbFlows] = nominal.getDate();
+        nbFlows++;
+      }
+      analytics.setCashFlows(i, issuerDf, paymentAmounts, paymentDates, nbFlows, scale);
+    }
+    return analytics;
+  }
+
+  /**
+   * Obtains an instance for capital indexed bonds.
+   * <p>
+   * The cash flows are the forecast values of the periods, using the price index values of the rates provider.
+   * The dirty price is the dirty nominal price, consistent with
+   * {@link DiscountingCapitalIndexedBondProductPricer#dirtyNominalPriceFromCurvesWithZSpread}.
+   *
+   * @param bonds  the bonds
+   * @param ratesProvider  the rates provider, used to determine price index values
+   * @param discountingProvider  the discount factors provider
+   * @param settlementDates  the settlement date of each bond
+   * @return the analytics
+   * @throws IllegalArgumentException if the sizes differ or the valuation dates of the providers differ
+   */
+  public static BondZSpreadAnalytics ofCapitalIndexed(
+      List<ResolvedCapitalIndexedBond> bonds,
+      RatesProvider ratesProvider,
+      LegalEntityDiscountingProvider discountingProvider,
+      List<LocalDate> settlementDates) {
+
+    ArgChecker.notNull(bonds, "bonds");
+    ArgChecker.isTrue(ratesProvider.getValuationDate().isEqual(discountingProvider.getValuationDate()),
+        "the rates providers should be for the same date");
+    ArgChecker.isTrue(settlementDates.size() == bonds.size(), "Settlement date must be provided for each bond");
+    int nbBonds = bonds.size();
+    BondZSpreadAnalytics analytics = new BondZSpreadAnalytics(nbBonds, false);
+    DiscountingCapitalIndexedBondPaymentPeriodPricer periodPricer =
+        DiscountingCapitalIndexedBondProductPricer.DEFAULT.getPeriodPricer();
+    for (int i = 0; i < nbBonds; i++) {
+      ResolvedCapitalIndexedBond bond = bonds.get(i);
+      LocalDate settlementDate = settlementDates.get(i);
+      DiscountFactors issuerDf =
+          DiscountingCapitalIndexedBondProductPricer.issuerCurveDf(bond, discountingProvider).getDiscountFactors();
+      double scale = 1d /
+          (DiscountingCapitalIndexedBondProductPricer.repoCurveDf(bond, discountingProvider)
+              .discountFactor(settlementDate) * bond.getNotional());
+      int nbPayments = bond.getPeriodicPayments().size() + 1;
+      double[] paymentAmounts = new double[nbPayments];
+      LocalDate[] paymentDates = new LocalDate[nbPayments];
+      int nbFlows = 0;
+      for (CapitalIndexedBondPaymentPeriod period : bond.getPeriodicPayments()) {
+        if ((bond.hasExCouponPeriod() && period.getDetachmentDate().isAfter(settlementDate)) ||
+            (!bond.hasExCouponPeriod() && period.getPaymentDate().isAfter(settlementDate))) {
+          paymentAmounts[nbFlows] = periodPricer.forecastValue(period, ratesProvider);
+          paymentDates[nbFlows] = period.getPaymentDate();
+          nbFlows++;
+        }
+      }
+      CapitalIndexedBondPaymentPeriod nominal = bond.getNominalPayment();
+      paymentAmounts[nbFlows] = periodPricer.forecastValue(nominal, ratesProvider);
+      paymentDates[nbFlows] = nominal.getPaymentDate();
+      nbFlows++;
+      analytics.setCashFlows(i, issuerDf, paymentAmounts, paymentDates, nbFlows, scale);
+    }
+    return analytics;
+  }
+
+  // creates an empty instance, populated by the factory methods
+  private BondZSpreadAnalytics(int nbBonds, boolean parallel) {
+    this.times = new double[nbBonds][];
+    this.discountFactors = new double[nbBonds][];
+    this.amounts = new double[nbBonds][];
+    this.constants = new double[nbBonds];
+    this.parallel = parallel;
+  }
+
+  // restricted constructor
+  private BondZSpreadAnalytics(BondZSpreadAnalytics base, boolean parallel) {
+    this.times = base.times;
+    this.discountFactors = base.discountFactors;
+    this.amounts = base.amounts;
+    this.constants = base.constants;
+    this.parallel = parallel;
+  }
+
+  // stores the cash flows, those paid at the valuation date do not depend on the z-spread
+  private void setCashFlows(
+      int index,
+      DiscountFactors issuerDf,
+      double[] paymentAmounts,
+      LocalDate[] paymentDates,
+      int nbFlows,
+      double scale) {
+
+    double[] bondTimes = new double[nbFlows];
+    double[] bondDfs = new double[nbFlows];
+    double[] bondAmounts = new double[nbFlows];
+    int nbSpreadFlows = 0;
+    for (int j = 0; j < nbFlows; j++) {
+      double time = issuerDf.relativeYearFraction(paymentDates[j]);
+      if (Math.abs(time) < EFFECTIVE_ZERO) {
+        constants[index] += paymentAmounts[j] * scale;
+      } else {
+        bondTimes[nbSpreadFlows] = time;
+        bondDfs[nbSpreadFlows] = issuerDf.discountFactor(time);
+        bondAmounts[nbSpreadFlows] = paymentAmounts[j] * scale;
+        nbSpreadFlows++;
+      }
+    }
+    times[index] = Arrays.copyOf(bondTimes, nbSpreadFlows);
+    discountFactors[index] = Arrays.copyOf(bondDfs, nbSpreadFlows);
+    amounts[index] = Arrays.copyOf(bondAmounts, nbSpreadFlows);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns an instance processing the bonds in parallel.
+   *
+   * @return the parallel instance
+   */
+  public BondZSpreadAnalytics parallel() {
+    return new BondZSpreadAnalytics(this, true);
+  }
+
+  /**
+   * Gets the number of bonds.
+   *
+   * @return the number of bonds
+   */
+  public int getBondCount() {
+    return amounts.length;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the dirty price of each bond from its z-spread.
+   *
+   * @param zSpreads  the z-spread of each bond
+   * @param compoundedRateType  the compounded rate type
+   * @param periodsPerYear  the number of periods per year
+   * @return the dirty price of each bond
+   */
+  public DoubleArray dirtyPriceFromZSpread(
+      DoubleArray zSpreads,
+      CompoundedRateType compoundedRateType,
+      int periodsPerYear) {
+
+    checkInputs(zSpreads, compoundedRateType, periodsPerYear);
+    return compute(i -> priceAndDerivative(i, zSpreads.get(i), compoundedRateType, periodsPerYear)[0]);
+  }
+
+  /**
+   * Calculates the z-spread of each bond from its dirty price.
+   *
+   * @param dirtyPrices  the dirty price of each bond
+   * @param compoundedRateType  the compounded rate type
+   * @param periodsPerYear  the number of periods per year
+   * @return the z-spread of each bond
+   */
+  public DoubleArray zSpreadFromDirtyPrice(
+      DoubleArray dirtyPrices,
+      CompoundedRateType compoundedRateType,
+      int periodsPerYear) {
+
+    checkInputs(dirtyPrices, compoundedRateType, periodsPerYear);
+    return compute(i -> zSpread(i, dirtyPrices.get(i), compoundedRateType, periodsPerYear));
+  }
+
+  //-------------------------------------------------------------------------
+  // the dirty price and its derivative with respect to the z-spread
+  private double[] priceAndDerivative(
+      int index,
+      double zSpread,
+      CompoundedRateType compoundedRateType,
+      int periodsPerYear) {
+
+    double[] bondTimes = times[index];
+    double[] bondDfs = discountFactors[index];
+    double[] bondAmounts = amounts[index];
+    double price = constants[index];
+    double derivative = 0d;
+    if (compoundedRateType.equals(CompoundedRateType.PERIODIC)) {
+      for (int j = 0; j < bondTimes.length; j++) {
+        double exponent = -periodsPerYear * bondTimes[j];
+        double ratePlusOne = Math.pow(bondDfs[j], 1d / exponent) + zSpread / periodsPerYear;
+        double pv = bondAmounts[j] * Math.pow(ratePlusOne, exponent);
+        price += pv;
+        derivative -= pv * bondTimes[j] / ratePlusOne;
+      }
+    } else {
+      for (int j = 0; j < bondTimes.length; j++) {
+        double pv = bondAmounts[j] * bondDfs[j] * Math.exp(-zSpread * bondTimes[j]);
+        price += pv;
+        derivative -= pv * bondTimes[j];
+      }
+    }
+    return new double[] {price, derivative};
+  }
+
+  // solves the z-spread of a bond
+  private double zSpread(int index, double dirtyPrice, CompoundedRateType compoundedRateType, int periodsPerYear) {
+    double zSpread = 0d;
+    for (int iter = 0; iter < MAX_ITERATIONS; iter++) {
+      double[] priceAndDerivative = priceAndDerivative(index, zSpread, compoundedRateType, periodsPerYear);
+      double step = (priceAndDerivative[0] - dirtyPrice) / priceAndDerivative[1];
+      zSpread -= step;
+      if (!Double.isFinite(zSpread)) {
+        break;
+      }
+      if (Math.abs(step) < TOLERANCE) {
+        return zSpread;
+      }
+    }
+    Function<Double, Double> residual =
+        z -> priceAndDerivative(index, z, compoundedRateType, periodsPerYear)[0] - dirtyPrice;
+    double[] range = ROOT_BRACKETER.getBracketedPoints(residual, -0.01, 0.01);
+    return ROOT_FINDER.getRoot(residual, range[0], range[1]);
+  }
+
+  // checks the inputs
+  private void checkInputs(DoubleArray values, CompoundedRateType compoundedRateType, int periodsPerYear) {
+    ArgChecker.isTrue(values.size() == amounts.length, "A value must be provided for each bond");
+    ArgChecker.notNull(compoundedRateType, "compoundedRateType");
+    if (compoundedRateType.equals(CompoundedRateType.PERIODIC)) {
+      ArgChecker.notNegativeOrZero(periodsPerYear, "periodPerYear");
+    }
+  }
+
+  // computes a value for each bond, in parallel if required
+  private DoubleArray compute(IntToDoubleFunction function) {
+    double[] result = new double[amounts.length];
+    IntStream indices = IntStream.range(0, amounts.length);
+    if (parallel) {
+      indices = indices.parallel();
+    }
+    indices.forEach(i -> result[i] = function.applyAsDouble(i));
+    return DoubleArray.ofUnsafe(result);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "BondZSpreadAnalytics[bondCount=" + amounts.length + ", parallel=" + parallel + "]";
+  }
+
+}
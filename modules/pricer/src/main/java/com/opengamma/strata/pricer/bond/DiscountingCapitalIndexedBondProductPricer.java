@@ -1152,7 +1152,8 @@ public class DiscountingCapitalIndexedBondProductPricer {
     return nbDayToSpot / nbDaysPeriod;
   }
 
-  private double factorToNextCoupon(ResolvedCapitalIndexedBond bond, LocalDate settlementDate) {
+  // the fraction of the current coupon period remaining after the settlement date
+  double factorToNextCoupon(ResolvedCapitalIndexedBond bond, LocalDate settlementDate) {
     if (bond.getUnadjustedStartDate().isAfter(settlementDate)) {
       return 0d;
     }
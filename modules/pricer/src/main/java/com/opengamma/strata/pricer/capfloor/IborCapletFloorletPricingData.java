@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.capfloor;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.opengamma.strata.basics.index.IborIndexObservation;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.curve.Curve;
+import com.opengamma.strata.market.sensitivity.PointSensitivities;
+import com.opengamma.strata.market.sensitivity.PointSensitivity;
+import com.opengamma.strata.pricer.model.SabrParameters;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+import com.opengamma.strata.product.capfloor.IborCapletFloorletPeriod;
+import com.opengamma.strata.product.capfloor.ResolvedIborCapFloorLeg;
+
+/**
+ * The market data of the caplet/floorlet periods of a list of caps, used in calibration.
+ * <p>
+ * The forward rate and discount factor of each caplet/floorlet period are computed once.
+ * They are shared by the periods with the same fixing or payment date.
+ * The caps are then priced by the {@link SabrIborCapletFloorletPeriodPricer} from this data, without any curve lookup.
+ * <p>
+ * Instances are immutable and safe to use from multiple threads if the pricer is.
+ */
+final class IborCapletFloorletPricingData {
+
+  /**
+   * The pricer of the periods.
+   */
+  private final SabrIborCapletFloorletPeriodPricer pricer;
+  /**
+   * The index of the first period of each cap, with the total number of periods as last element.
+   */
+  private final int[] capStart;
+  /**
+   * The periods of all the caps.
+   */
+  private final IborCapletFloorletPeriod[] periods;
+  /**
+   * The forward rate of each period.
+   */
+  private final double[] forwards;
+  /**
+   * The discount factor of each period, zero if already paid.
+   */
+  private final double[] discountFactors;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance for the caps.
+   *
+   * @param caps  the caps
+   * @param ratesProvider  the rates provider
+   * @param pricer  the pricer of the periods
+   * @return the pricing data
+   */
+  static IborCapletFloorletPricingData of(
+      List<ResolvedIborCapFloorLeg> caps,
+      RatesProvider ratesProvider,
+      SabrIborCapletFloorletPeriodPricer pricer) {
+
+    return new IborCapletFloorletPricingData(caps, ratesProvider, pricer);
+  }
+
+  // restricted constructor
+  private IborCapletFloorletPricingData(
+      List<ResolvedIborCapFloorLeg> caps,
+      RatesProvider ratesProvider,
+      SabrIborCapletFloorletPeriodPricer pricer) {
+
+    this.pricer = ArgChecker.notNull(pricer, "pricer");
+    int nCaps = caps.size();
+    this.capStart = new int[nCaps + 1];
+    for (int i = 0; i < nCaps; ++i) {
+      capStart[i + 1] = capStart[i] + caps.get(i).getCapletFloorletPeriods().size();
+    }
+    int nPeriods = capStart[nCaps];
+    this.periods = new IborCapletFloorletPeriod[nPeriods];
+    this.forwards = new double[nPeriods];
+    this.discountFactors = new double[nPeriods];
+    Map<IborIndexObservation, Double> forwardCache = new HashMap<>();
+    Map<LocalDate, Double> discountFactorCache = new HashMap<>();
+    int k = 0;
+    for (ResolvedIborCapFloorLeg cap : caps) {
+      for (IborCapletFloorletPeriod period : cap.getCapletFloorletPeriods()) {
+        periods[k] = period;
+        forwards[k] = forwardCache.computeIfAbsent(
+            period.getIborRate().getObservation(),
+            obs -> ratesProvider.iborIndexRates(obs.getIndex()).rate(obs));
+        if (!ratesProvider.getValuationDate().isAfter(period.getPaymentDate())) {
+          discountFactors[k] = discountFactorCache.computeIfAbsent(
+              period.getPaymentDate(), date -> ratesProvider.discountFactor(period.getCurrency(), date));
+        }
+        k++;
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of caps.
+   *
+   * @return the number of caps
+   */
+  int getCapCount() {
+    return capStart.length - 1;
+  }
+
+  /**
+   * Calculates the present value of the periods of a cap.
+   * <p>
+   * Only the periods fixing after the fixing limit are included if {@code afterLimit} is true,
+   * and only the other periods otherwise. If the fixing limit is null, all the periods are included.
+   *
+   * @param capIndex  the index of the cap
+   * @param volatilities  the SABR volatilities
+   * @param fixingLimit  the fixing limit, null for all the periods
+   * @param afterLimit  whether the periods after the limit are included, rather than the periods before
+   * @return the present value
+   */
+  double presentValue(
+      int capIndex,
+      SabrIborCapletFloorletVolatilities volatilities,
+      ZonedDateTime fixingLimit,
+      boolean afterLimit) {
+
+    double pv = 0d;
+    for (int k = capStart[capIndex]; k < capStart[capIndex + 1]; ++k) {
+      if (isIncluded(k, fixingLimit, afterLimit) && discountFactors[k] != 0d) {
+        pv += pricer.presentValue(periods[k], forwards[k], discountFactors[k], volatilities);
+      }
+    }
+    return pv;
+  }
+
+  /**
+   * Calculates the present value sensitivity of the periods of a cap to the nodes of the SABR parameter curves.
+   * <p>
+   * The result contains the sensitivity to the nodes of the alpha, beta, rho and nu curves, in this order.
+   * The periods are selected by the fixing limit as for the present value.
+   *
+   * @param capIndex  the index of the cap
+   * @param volatilities  the SABR volatilities
+   * @param fixingLimit  the fixing limit, null for all the periods
+   * @param afterLimit  whether the periods after the limit are included, rather than the periods before
+   * @return the sensitivity to the nodes of each parameter curve
+   */
+  double[][] presentValueSensitivityModelParamsSabr(
+      int capIndex,
+      SabrParametersIborCapletFloorletVolatilities volatilities,
+      ZonedDateTime fixingLimit,
+      boolean afterLimit) {
+
+    SabrParameters parameters = volatilities.getParameters();
+    Curve[] curves = new Curve[] {
+        parameters.getAlphaCurve(), parameters.getBetaCurve(), parameters.getRhoCurve(), parameters.getNuCurve()};
+    double[][] sensitivities = new double[4][];
+    for (int p = 0; p < 4; ++p) {
+      sensitivities[p] = new double[curves[p].getParameterCount()];
+    }
+    for (int k = capStart[capIndex]; k < capStart[capIndex + 1]; ++k) {
+      if (!isIncluded(k, fixingLimit, afterLimit) || discountFactors[k] == 0d) {
+        continue;
+      }
+      PointSensitivities points = pricer.presentValueSensitivityModelParamsSabr(
+          periods[k], forwards[k], discountFactors[k], volatilities).build();
+      for (PointSensitivity point : points.getSensitivities()) {
+        if (!(point instanceof IborCapletFloorletSabrSensitivity)) {
+          continue;
+        }
+        IborCapletFloorletSabrSensitivity sabrPoint = (IborCapletFloorletSabrSensitivity) point;
+        int p = sabrPoint.getSensitivityType().ordinal(); // alpha, beta, rho and nu are the first types
+        if (p >= curves.length) {
+          continue;
+        }
+        DoubleArray unit = curves[p].yValueParameterSensitivity(sabrPoint.getExpiry()).getSensitivity();
+        for (int j = 0; j < unit.size(); ++j) {
+          sensitivities[p][j] += sabrPoint.getSensitivity() * unit.get(j);
+        }
+      }
+    }
+    return sensitivities;
+  }
+
+  // checks if the period is selected by the fixing limit
+  private boolean isIncluded(int periodIndex, ZonedDateTime fixingLimit, boolean afterLimit) {
+    return fixingLimit == null || periods[periodIndex].getFixingDateTime().isAfter(fixingLimit) == afterLimit;
+  }
+
+}
@@ -37,6 +37,18 @@ public class SabrIborCapFloorLegPricer
     this.periodPricer = periodPricer;
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains the underlying period pricer. 
+   * 
+   * @return the period pricer
+   */
+  @Override
+  public SabrIborCapletFloorletPeriodPricer getPeriodPricer() {
+    return periodPricer;
+  }
+
+  //-------------------------------------------------------------------------
   /**
    * Calculates the present value sensitivity of the Ibor cap/floor leg to the rate curves.
    * <p>
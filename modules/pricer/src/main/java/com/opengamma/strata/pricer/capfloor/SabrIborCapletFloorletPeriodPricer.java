@@ -99,6 +99,34 @@ public class SabrIborCapletFloorletPeriodPricer
       RatesProvider ratesProvider,
       SabrIborCapletFloorletVolatilities volatilities) {
 
+    double expiry = volatilities.relativeTime(period.getFixingDateTime());
+    if (expiry < 0d) { // option expired already
+      return PointSensitivityBuilder.none();
+    }
+    double indexRate = ratesProvider.iborIndexRates(period.getIndex()).rate(period.getIborRate().getObservation());
+    double df = ratesProvider.discountFactor(period.getCurrency(), period.getPaymentDate());
+    return presentValueSensitivityModelParamsSabr(period, indexRate, df, volatilities);
+  }
+
+  /**
+   * Calculates the present value sensitivity to the SABR model parameters of the Ibor caplet/floorlet
+   * from its forward rate and discount factor.
+   * <p>
+   * This is used once the market data of the period has been obtained, for example by the calibrators
+   * which compute the market data of the caplets once and price them repeatedly.
+   * 
+   * @param period  the Ibor caplet/floorlet period
+   * @param forward  the forward rate of the period
+   * @param discountFactor  the discount factor at the payment date of the period
+   * @param volatilities  the volatilities
+   * @return the point sensitivity to the SABR model parameters
+   */
+  protected PointSensitivityBuilder presentValueSensitivityModelParamsSabr(
+      IborCapletFloorletPeriod period,
+      double forward,
+      double discountFactor,
+      SabrIborCapletFloorletVolatilities volatilities) {
+
     double expiry = volatilities.relativeTime(period.getFixingDateTime());
     if (expiry < 0d) { // option expired already
       return PointSensitivityBuilder.none();
@@ -106,12 +134,11 @@ public class SabrIborCapletFloorletPeriodPricer
     Currency currency = period.getCurrency();
     PutCall putCall = period.getPutCall();
     double strike = period.getStrike();
-    double indexRate = ratesProvider.iborIndexRates(period.getIndex()).rate(period.getIborRate().getObservation());
     double factor = period.getNotional() * period.getYearFraction();
-    ValueDerivatives volatilityAdj = volatilities.volatilityAdjoint(expiry, strike, indexRate);
+    ValueDerivatives volatilityAdj = volatilities.volatilityAdjoint(expiry, strike, forward);
     DoubleArray derivative = volatilityAdj.getDerivatives();
-    double df = ratesProvider.discountFactor(currency, period.getPaymentDate());
-    double vega = df * factor * volatilities.priceVega(expiry, putCall, strike, indexRate, volatilityAdj.getValue());
+    double vega = discountFactor * factor *
+        volatilities.priceVega(expiry, putCall, strike, forward, volatilityAdj.getValue());
     IborCapletFloorletVolatilitiesName name = volatilities.getName();
 
     return PointSensitivityBuilder.of(
@@ -16,9 +16,9 @@ import java.util.BitSet;
 import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.opengamma.strata.basics.ReferenceData;
-import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.index.IborIndex;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
@@ -27,8 +27,6 @@ import com.opengamma.strata.market.ValueType;
 import com.opengamma.strata.market.curve.Curve;
 import com.opengamma.strata.market.curve.CurveMetadata;
 import com.opengamma.strata.market.curve.InterpolatedNodalCurve;
-import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
-import com.opengamma.strata.market.sensitivity.PointSensitivities;
 import com.opengamma.strata.market.surface.Surface;
 import com.opengamma.strata.market.surface.SurfaceMetadata;
 import com.opengamma.strata.math.impl.minimization.DoubleRangeLimitTransform;
@@ -56,6 +54,10 @@ import com.opengamma.strata.product.capfloor.ResolvedIborCapFloorLeg;
  * <p>
  * The calibration to SABR is computed once the option volatility date is converted to prices. Thus we should note that 
  * the error values in {@code RawOptionData} are applied in the price space rather than the volatility space.
+ * <p>
+ * The forward rates and discount factors of the caplets are computed once, and the caplets are priced from them
+ * by the SABR period pricer during the calibration. The caps of an expiry are priced in parallel if the instance is
+ * obtained from {@link #parallel()}.
  */
 public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloorletVolatilityCalibrator {
 
@@ -90,6 +92,10 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
    * SABR pricer for caplet/floorlet.
    */
   private final SabrIborCapletFloorletPeriodPricer sabrPeriodPricer;
+  /**
+   * Whether the caps are priced in parallel.
+   */
+  private final boolean parallel;
 
   //-------------------------------------------------------------------------
   /**
@@ -111,7 +117,7 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
       ReferenceData referenceData) {
 
     NonLinearLeastSquare solver = new NonLinearLeastSquare(SV_COMMONS, OG_ALGEBRA, epsilon);
-    return new SabrIborCapletFloorletVolatilityBootstrapper(pricer, sabrPeriodPricer, solver, referenceData);
+    return new SabrIborCapletFloorletVolatilityBootstrapper(pricer, sabrPeriodPricer, solver, referenceData, false);
   }
 
   // private constructor
@@ -119,11 +125,25 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
       VolatilityIborCapFloorLegPricer pricer,
       SabrIborCapletFloorletPeriodPricer sabrPeriodPricer,
       NonLinearLeastSquare solver,
-      ReferenceData referenceData) {
+      ReferenceData referenceData,
+      boolean parallel) {
 
     super(pricer, referenceData);
     this.sabrPeriodPricer = ArgChecker.notNull(sabrPeriodPricer, "sabrPeriodPricer");
     this.solver = ArgChecker.notNull(solver, "solver");
+    this.parallel = parallel;
+  }
+
+  /**
+   * Returns an instance pricing the caps of each expiry in parallel.
+   * <p>
+   * The expiries are still bootstrapped sequentially, as each expiry depends on the previous ones.
+   *
+   * @return the parallel instance
+   */
+  public SabrIborCapletFloorletVolatilityBootstrapper parallel() {
+    return new SabrIborCapletFloorletVolatilityBootstrapper(
+        getLegPricer(), sabrPeriodPricer, solver, getReferenceData(), true);
   }
 
   //-------------------------------------------------------------------------
@@ -216,6 +236,7 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
         alphaCurve, betaCurve, rhoCurve, nuCurve, shiftCurve, bsDefinition.getSabrVolatilityFormula());
     SabrParametersIborCapletFloorletVolatilities vols =
         SabrParametersIborCapletFloorletVolatilities.of(bsDefinition.getName(), index, calibrationDateTime, sabrParams);
+    IborCapletFloorletPricingData pricingData = IborCapletFloorletPricingData.of(capList, ratesProvider, sabrPeriodPricer);
     double totalChiSq = 0d;
     ZonedDateTime prevExpiry = calibrationDateTime.minusDays(1L); // included if calibrationDateTime == fixingDateTime
     for (int i = 0; i < nExpiries; ++i) {
@@ -225,11 +246,11 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
       int nCaplets = startIndex[i + 1] - startIndex[i];
       int currentStart = startIndex[i];
       Function<DoubleArray, DoubleArray> valueFunction = createPriceFunction(
-          ratesProvider, vols, prevExpiry, capList, priceList, startIndex, nExpiries, i, nCaplets, betaFix);
+          pricingData, vols, prevExpiry, priceList, startIndex, nExpiries, i, nCaplets, betaFix);
       Function<DoubleArray, DoubleMatrix> jacobianFunction = createJacobianFunction(
-          ratesProvider, vols, prevExpiry, capList, priceList, index.getCurrency(), startIndex, nExpiries, i, nCaplets, betaFix);
+          pricingData, vols, prevExpiry, priceList, startIndex, nExpiries, i, nCaplets, betaFix);
       NonLinearTransformFunction transFunc = new NonLinearTransformFunction(valueFunction, jacobianFunction, transform);
-      DoubleArray adjustedPrices = adjustedPrices(ratesProvider, vols, prevExpiry, capList, priceList, startIndex, i, nCaplets);
+      DoubleArray adjustedPrices = adjustedPrices(pricingData, vols, prevExpiry, priceList, startIndex, i, nCaplets);
       DoubleArray errors = DoubleArray.of(nCaplets, n -> errorList.get(currentStart + n));
       LeastSquareResults res = solver.solve(adjustedPrices, errors, transFunc.getFittingFunction(),
           transFunc.getFittingJacobian(), transform.transform(start));
@@ -275,10 +296,9 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
 
   // price function
   private Function<DoubleArray, DoubleArray> createPriceFunction(
-      RatesProvider ratesProvider,
+      IborCapletFloorletPricingData pricingData,
       SabrParametersIborCapletFloorletVolatilities volatilities,
       ZonedDateTime prevExpiry,
-      List<ResolvedIborCapFloorLeg> capList,
       List<Double> priceList,
       int[] startIndex,
       int nExpiries,
@@ -291,11 +311,10 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
       @Override
       public DoubleArray apply(DoubleArray x) {
         SabrParametersIborCapletFloorletVolatilities volsNew = updateParameters(volatilities, nExpiries, timeIndex, betaFixed, x);
-        return DoubleArray.of(nCaplets,
-            n -> capList.get(currentStart + n).getCapletFloorletPeriods().stream()
-                .filter(p -> p.getFixingDateTime().isAfter(prevExpiry))
-                .mapToDouble(p -> sabrPeriodPricer.presentValue(p, ratesProvider, volsNew).getAmount())
-                .sum() / priceList.get(currentStart + n));
+        double[] prices = new double[nCaplets];
+        capIndices(nCaplets).forEach(n -> prices[n] =
+            pricingData.presentValue(currentStart + n, volsNew, prevExpiry, true) / priceList.get(currentStart + n));
+        return DoubleArray.ofUnsafe(prices);
       }
     };
     return priceFunction;
@@ -303,49 +322,36 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
 
   // node sensitivity function
   private Function<DoubleArray, DoubleMatrix> createJacobianFunction(
-      RatesProvider ratesProvider,
+      IborCapletFloorletPricingData pricingData,
       SabrParametersIborCapletFloorletVolatilities volatilities,
       ZonedDateTime prevExpiry,
-      List<ResolvedIborCapFloorLeg> capList,
       List<Double> priceList,
-      Currency currency,
       int[] startIndex,
       int nExpiries,
       int timeIndex,
       int nCaplets,
       boolean betaFixed) {
 
-    Curve alphaCurve = volatilities.getParameters().getAlphaCurve();
-    Curve betaCurve = volatilities.getParameters().getBetaCurve();
-    Curve rhoCurve = volatilities.getParameters().getRhoCurve();
-    Curve nuCurve = volatilities.getParameters().getNuCurve();
     int currentStart = startIndex[timeIndex];
     Function<DoubleArray, DoubleMatrix> jacobianFunction = new Function<DoubleArray, DoubleMatrix>() {
       @Override
       public DoubleMatrix apply(DoubleArray x) {
         SabrParametersIborCapletFloorletVolatilities volsNew = updateParameters(volatilities, nExpiries, timeIndex, betaFixed, x);
         double[][] jacobian = new double[nCaplets][4];
-        for (int i = 0; i < nCaplets; ++i) {
-          PointSensitivities point = capList.get(currentStart + i).getCapletFloorletPeriods().stream()
-              .filter(p -> p.getFixingDateTime().isAfter(prevExpiry))
-              .map(p -> sabrPeriodPricer.presentValueSensitivityModelParamsSabr(p, ratesProvider, volsNew))
-              .reduce((c1, c2) -> c1.combinedWith(c2))
-              .get()
-              .build();
+        capIndices(nCaplets).forEach(i -> {
+          double[][] sensi =
+              pricingData.presentValueSensitivityModelParamsSabr(currentStart + i, volsNew, prevExpiry, true);
           double targetPrice = priceList.get(currentStart + i);
-          CurrencyParameterSensitivities sensi = volsNew.parameterSensitivity(point);
-          jacobian[i][0] = sensi.getSensitivity(alphaCurve.getName(), currency).getSensitivity().get(timeIndex) / targetPrice;
+          jacobian[i][0] = sensi[0][timeIndex] / targetPrice;
           if (betaFixed) {
             jacobian[i][1] = 0d;
-            jacobian[i][2] = sensi.getSensitivity(rhoCurve.getName(), currency).getSensitivity().get(timeIndex) / targetPrice;
-
+            jacobian[i][2] = sensi[2][timeIndex] / targetPrice;
           } else {
-            jacobian[i][1] = sensi.getSensitivity(betaCurve.getName(), currency).getSensitivity().get(timeIndex) / targetPrice;
+            jacobian[i][1] = sensi[1][timeIndex] / targetPrice;
             jacobian[i][2] = 0d;
-
           }
-          jacobian[i][3] = sensi.getSensitivity(nuCurve.getName(), currency).getSensitivity().get(timeIndex) / targetPrice;
-        }
+          jacobian[i][3] = sensi[3][timeIndex] / targetPrice;
+        });
         return DoubleMatrix.ofUnsafe(jacobian);
       }
     };
@@ -375,10 +381,9 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
 
   // sum of caplet prices which are not fixed
   private DoubleArray adjustedPrices(
-      RatesProvider ratesProvider,
-      IborCapletFloorletVolatilities vols,
+      IborCapletFloorletPricingData pricingData,
+      SabrIborCapletFloorletVolatilities vols,
       ZonedDateTime prevExpiry,
-      List<ResolvedIborCapFloorLeg> capList,
       List<Double> priceList,
       int[] startIndex,
       int timeIndex,
@@ -389,10 +394,14 @@ public class SabrIborCapletFloorletVolatilityBootstrapper extends IborCapletFloo
     }
     int currentStart = startIndex[timeIndex];
     return DoubleArray.of(nCaplets,
-        n -> (priceList.get(currentStart + n) - capList.get(currentStart + n).getCapletFloorletPeriods().stream()
-            .filter(p -> !p.getFixingDateTime().isAfter(prevExpiry))
-            .mapToDouble(p -> sabrPeriodPricer.presentValue(p, ratesProvider, vols).getAmount())
-            .sum()) / priceList.get(currentStart + n));
+        n -> (priceList.get(currentStart + n) - pricingData.presentValue(currentStart + n, vols, prevExpiry, false)) /
+            priceList.get(currentStart + n));
+  }
+
+  // the indices of the caps, in parallel if required
+  private IntStream capIndices(int nCaps) {
+    IntStream indices = IntStream.range(0, nCaps);
+    return parallel ? indices.parallel() : indices;
   }
 
 }
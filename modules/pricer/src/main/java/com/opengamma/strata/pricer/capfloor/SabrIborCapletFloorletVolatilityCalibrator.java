@@ -15,19 +15,16 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.ReferenceData;
-import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.index.IborIndex;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.array.DoubleMatrix;
 import com.opengamma.strata.market.curve.Curve;
 import com.opengamma.strata.market.curve.CurveMetadata;
-import com.opengamma.strata.market.curve.CurveName;
-import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
-import com.opengamma.strata.market.sensitivity.PointSensitivities;
 import com.opengamma.strata.market.surface.Surface;
 import com.opengamma.strata.market.surface.SurfaceMetadata;
 import com.opengamma.strata.math.impl.minimization.DoubleRangeLimitTransform;
@@ -54,6 +51,10 @@ import com.opengamma.strata.product.capfloor.ResolvedIborCapFloorLeg;
  * <p>
  * The calibration to SABR is computed once the option volatility date is converted to prices. 
  * Thus the error values in {@code RawOptionData} are applied in the price space rather than the volatility space.
+ * <p>
+ * The forward rates and discount factors of the caplets are computed once, and the caplets are priced from them
+ * by the period pricer of the SABR cap pricer during the calibration. The caps are priced in parallel if the instance
+ * is obtained from {@link #parallel()}.
  */
 public class SabrIborCapletFloorletVolatilityCalibrator
     extends IborCapletFloorletVolatilityCalibrator {
@@ -89,6 +90,10 @@ public class SabrIborCapletFloorletVolatilityCalibrator
    * SABR pricer for cap/floor leg.
    */
   private final SabrIborCapFloorLegPricer sabrPricer;
+  /**
+   * Whether the caps are priced in parallel.
+   */
+  private final boolean parallel;
 
   //-------------------------------------------------------------------------
   /**
@@ -110,7 +115,7 @@ public class SabrIborCapletFloorletVolatilityCalibrator
       ReferenceData referenceData) {
 
     NonLinearLeastSquare solver = new NonLinearLeastSquare(SV_COMMONS, OG_ALGEBRA, epsilon);
-    return new SabrIborCapletFloorletVolatilityCalibrator(pricer, sabrPricer, solver, referenceData);
+    return new SabrIborCapletFloorletVolatilityCalibrator(pricer, sabrPricer, solver, referenceData, false);
   }
 
   // private constructor
@@ -118,11 +123,22 @@ public class SabrIborCapletFloorletVolatilityCalibrator
       VolatilityIborCapFloorLegPricer pricer,
       SabrIborCapFloorLegPricer sabrPricer,
       NonLinearLeastSquare solver,
-      ReferenceData referenceData) {
+      ReferenceData referenceData,
+      boolean parallel) {
 
     super(pricer, referenceData);
     this.sabrPricer = ArgChecker.notNull(sabrPricer, "sabrPricer");
     this.solver = ArgChecker.notNull(solver, "solver");
+    this.parallel = parallel;
+  }
+
+  /**
+   * Returns an instance pricing the caps in parallel.
+   *
+   * @return the parallel instance
+   */
+  public SabrIborCapletFloorletVolatilityCalibrator parallel() {
+    return new SabrIborCapletFloorletVolatilityCalibrator(getLegPricer(), sabrPricer, solver, getReferenceData(), true);
   }
 
   //-------------------------------------------------------------------------
@@ -180,13 +196,15 @@ public class SabrIborCapletFloorletVolatilityCalibrator
         sabrDefinition.getSabrVolatilityFormula());
     SabrParametersIborCapletFloorletVolatilities vols = SabrParametersIborCapletFloorletVolatilities.of(
         sabrDefinition.getName(), index, calibrationDateTime, sabrParamsInitial);
+    IborCapletFloorletPricingData pricingData = IborCapletFloorletPricingData.of(
+        capList, ratesProvider, sabrPricer.getPeriodPricer());
     // solve least square
     UncoupledParameterTransforms transform = new UncoupledParameterTransforms(
         initialValues, sabrDefinition.createFullTransform(TRANSFORMS), new BitSet());
     Function<DoubleArray, DoubleArray> valueFunction = createPriceFunction(
-        sabrDefinition, ratesProvider, vols, capList, priceList);
+        sabrDefinition, pricingData, vols, priceList);
     Function<DoubleArray, DoubleMatrix> jacobianFunction = createJacobianFunction(
-        sabrDefinition, ratesProvider, vols, capList, priceList, index.getCurrency());
+        sabrDefinition, pricingData, vols, priceList);
     NonLinearTransformFunction transFunc = new NonLinearTransformFunction(valueFunction, jacobianFunction, transform);
     LeastSquareResults res = solver.solve(
         DoubleArray.filled(priceList.size(), 1d),
@@ -203,17 +221,18 @@ public class SabrIborCapletFloorletVolatilityCalibrator
   // price function
   private Function<DoubleArray, DoubleArray> createPriceFunction(
       SabrIborCapletFloorletVolatilityCalibrationDefinition sabrDefinition,
-      RatesProvider ratesProvider,
+      IborCapletFloorletPricingData pricingData,
       SabrParametersIborCapletFloorletVolatilities volatilities,
-      List<ResolvedIborCapFloorLeg> capList,
       List<Double> priceList) {
 
+    int nCaps = pricingData.getCapCount();
     Function<DoubleArray, DoubleArray> priceFunction = new Function<DoubleArray, DoubleArray>() {
       @Override
       public DoubleArray apply(DoubleArray x) {
         SabrParametersIborCapletFloorletVolatilities volsNew = updateParameters(sabrDefinition, volatilities, x);
-        return DoubleArray.of(capList.size(),
-            n -> sabrPricer.presentValue(capList.get(n), ratesProvider, volsNew).getAmount() / priceList.get(n));
+        double[] prices = new double[nCaps];
+        capIndices(nCaps).forEach(n -> prices[n] = pricingData.presentValue(n, volsNew, null, true) / priceList.get(n));
+        return DoubleArray.ofUnsafe(prices);
       }
     };
     return priceFunction;
@@ -222,38 +241,25 @@ public class SabrIborCapletFloorletVolatilityCalibrator
   // node sensitivity function
   private Function<DoubleArray, DoubleMatrix> createJacobianFunction(
       SabrIborCapletFloorletVolatilityCalibrationDefinition sabrDefinition,
-      RatesProvider ratesProvider,
+      IborCapletFloorletPricingData pricingData,
       SabrParametersIborCapletFloorletVolatilities volatilities,
-      List<ResolvedIborCapFloorLeg> capList,
-      List<Double> priceList,
-      Currency currency) {
+      List<Double> priceList) {
 
-    int nCaps = capList.size();
-    SabrParameters sabrParams = volatilities.getParameters();
-    CurveName alphaName = sabrParams.getAlphaCurve().getName();
-    CurveName betaName = sabrParams.getBetaCurve().getName();
-    CurveName rhoName = sabrParams.getRhoCurve().getName();
-    CurveName nuName = sabrParams.getNuCurve().getName();
+    int nCaps = pricingData.getCapCount();
+    boolean betaFixed = sabrDefinition.getBetaCurve().isPresent();
     Function<DoubleArray, DoubleMatrix> jacobianFunction = new Function<DoubleArray, DoubleMatrix>() {
       @Override
       public DoubleMatrix apply(DoubleArray x) {
         SabrParametersIborCapletFloorletVolatilities volsNew = updateParameters(sabrDefinition, volatilities, x);
         double[][] jacobian = new double[nCaps][];
-        for (int i = 0; i < nCaps; ++i) {
-          PointSensitivities point =
-              sabrPricer.presentValueSensitivityModelParamsSabr(capList.get(i), ratesProvider, volsNew).build();
-          CurrencyParameterSensitivities sensi = volsNew.parameterSensitivity(point);
+        capIndices(nCaps).forEach(i -> {
+          double[][] sensi = pricingData.presentValueSensitivityModelParamsSabr(i, volsNew, null, true);
           double targetPriceInv = 1d / priceList.get(i);
-          DoubleArray sensitivities = sensi.getSensitivity(alphaName, currency).getSensitivity();
-          if (sabrDefinition.getBetaCurve().isPresent()) { // beta fixed
-            sensitivities = sensitivities.concat(sensi.getSensitivity(rhoName, currency).getSensitivity());
-          } else { // rho fixed
-            sensitivities = sensitivities.concat(sensi.getSensitivity(betaName, currency).getSensitivity());
-          }
-          jacobian[i] = sensitivities.concat(sensi.getSensitivity(nuName, currency).getSensitivity())
-              .multipliedBy(targetPriceInv)
-              .toArray();
-        }
+          DoubleArray sensitivities = DoubleArray.ofUnsafe(sensi[0])
+              .concat(betaFixed ? sensi[2] : sensi[1]) // rho if beta fixed, beta if rho fixed
+              .concat(sensi[3]);
+          jacobian[i] = sensitivities.multipliedBy(targetPriceInv).toArrayUnsafe();
+        });
         return DoubleMatrix.ofUnsafe(jacobian);
       }
     };
@@ -285,4 +291,10 @@ public class SabrIborCapletFloorletVolatilityCalibrator
     return newVols;
   }
 
+  // the indices of the caps, in parallel if required
+  private IntStream capIndices(int nCaps) {
+    IntStream indices = IntStream.range(0, nCaps);
+    return parallel ? indices.parallel() : indices;
+  }
+
 }
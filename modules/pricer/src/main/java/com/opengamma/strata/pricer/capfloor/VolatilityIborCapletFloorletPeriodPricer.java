@@ -52,19 +52,41 @@ public class VolatilityIborCapletFloorletPeriodPricer {
     if (ratesProvider.getValuationDate().isAfter(period.getPaymentDate())) {
       return CurrencyAmount.of(currency, 0d);
     }
-    double expiry = volatilities.relativeTime(period.getFixingDateTime());
     double df = ratesProvider.discountFactor(currency, period.getPaymentDate());
+    double indexRate = ratesProvider.iborIndexRates(period.getIndex()).rate(period.getIborRate().getObservation());
+    return CurrencyAmount.of(currency, presentValue(period, indexRate, df, volatilities));
+  }
+
+  /**
+   * Calculates the present value of the Ibor caplet/floorlet period from its forward rate and discount factor.
+   * <p>
+   * This is used once the market data of the period has been obtained, for example by the calibrators
+   * which compute the market data of the caplets once and price them repeatedly.
+   * The period must not be paid before the valuation date and the volatilities are not validated.
+   * 
+   * @param period  the Ibor caplet/floorlet period
+   * @param forward  the forward rate of the period
+   * @param discountFactor  the discount factor at the payment date of the period
+   * @param volatilities  the volatilities
+   * @return the present value, in the currency of the period
+   */
+  protected double presentValue(
+      IborCapletFloorletPeriod period,
+      double forward,
+      double discountFactor,
+      IborCapletFloorletVolatilities volatilities) {
+
+    double expiry = volatilities.relativeTime(period.getFixingDateTime());
     PutCall putCall = period.getPutCall();
     double strike = period.getStrike();
-    double indexRate = ratesProvider.iborIndexRates(period.getIndex()).rate(period.getIborRate().getObservation());
     if (expiry < 0d) { // Option has expired already
       double sign = putCall.isCall() ? 1d : -1d;
-      double payoff = Math.max(sign * (indexRate - strike), 0d);
-      return CurrencyAmount.of(currency, df * payoff * period.getYearFraction() * period.getNotional());
+      double payoff = Math.max(sign * (forward - strike), 0d);
+      return discountFactor * payoff * period.getYearFraction() * period.getNotional();
     }
-    double volatility = volatilities.volatility(expiry, strike, indexRate);
-    double price = df * period.getYearFraction() * volatilities.price(expiry, putCall, strike, indexRate, volatility);
-    return CurrencyAmount.of(currency, price * period.getNotional());
+    double volatility = volatilities.volatility(expiry, strike, forward);
+    double price = volatilities.price(expiry, putCall, strike, forward, volatility);
+    return discountFactor * price * period.getYearFraction() * period.getNotional();
   }
 
   //-------------------------------------------------------------------------
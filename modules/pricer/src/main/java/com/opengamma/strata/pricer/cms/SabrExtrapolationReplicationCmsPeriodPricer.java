@@ -12,6 +12,8 @@ import static com.opengamma.strata.market.model.SabrParameterType.RHO;
 
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.OptionalDouble;
 import java.util.function.Function;
 
@@ -27,6 +29,8 @@ import com.opengamma.strata.market.explain.ExplainKey;
 import com.opengamma.strata.market.explain.ExplainMapBuilder;
 import com.opengamma.strata.market.sensitivity.PointSensitivityBuilder;
 import com.opengamma.strata.math.MathException;
+import com.opengamma.strata.math.impl.integration.GaussLegendreWeightAndAbscissaFunction;
+import com.opengamma.strata.math.impl.integration.GaussianQuadratureData;
 import com.opengamma.strata.math.impl.integration.RungeKuttaIntegrator1D;
 import com.opengamma.strata.pricer.impl.option.SabrExtrapolationRightFunction;
 import com.opengamma.strata.pricer.impl.volatility.smile.SabrFormulaData;
@@ -51,6 +55,8 @@ import com.opengamma.strata.product.swap.SwapLegType;
  *  more details on the extrapolation method.
  *  <p>
  *  The replication requires numerical integration. This is completed by {@link RungeKuttaIntegrator1D}.
+ *  Alternatively, a pricer obtained by {@link #ofFixedGrid(DiscountingSwapProductPricer, double, double, int)}
+ *  uses composite Gauss-Legendre quadrature on a fixed grid, which is faster but not adaptive.
  *  <p>
  *  The consistency between {@code RatesProvider} and {@code SabrParametersSwaptionVolatilities} is not checked in this 
  *  class, but validated only once in {@link SabrExtrapolationReplicationCmsLegPricer}.
@@ -99,6 +105,11 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
    * For expiry below that value, the forward rate is used for present value.
    */
   private static final double MIN_TIME = 1e-4;
+  /**
+   * The Gauss-Legendre nodes and weights on [-1, 1] used on each sub-interval of a fixed grid.
+   */
+  private static final GaussianQuadratureData GAUSS_LEGENDRE =
+      new GaussLegendreWeightAndAbscissaFunction().generate(10);
 
   /**
    * Pricer for the underlying swap.
@@ -116,6 +127,10 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
    * This must be greater than 0 in order to ensure that the call price converges to 0 for infinite strike.
    */
   private final double mu;
+  /**
+   * The number of sub-intervals of each interval of the fixed grid, zero if the integration is adaptive.
+   */
+  private final int gridIntervalCount;
 
   //-------------------------------------------------------------------------
   /**
@@ -131,7 +146,7 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
       double cutOffStrike,
       double mu) {
 
-    return new SabrExtrapolationReplicationCmsPeriodPricer(swapPricer, cutOffStrike, mu);
+    return new SabrExtrapolationReplicationCmsPeriodPricer(swapPricer, cutOffStrike, mu, 0);
   }
 
   /**
@@ -145,14 +160,67 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
     return of(DiscountingSwapProductPricer.DEFAULT, cutOffStrike, mu);
   }
 
+  /**
+   * Obtains the pricer computing the replication integrals on a fixed grid.
+   * <p>
+   * The replication integrals are computed by a 10 point Gauss-Legendre quadrature on each sub-interval
+   * of a fixed grid, instead of the adaptive integration of {@link RungeKuttaIntegrator1D}.
+   * The integration range is split at the cut-off strike and at the shifted zero strike,
+   * and each part is divided in {@code intervalCount} sub-intervals of equal length.
+   * For cap and coupon the integral above the upper bound of the adaptive integration is computed
+   * on [0, 1] through the change of variable {@code x = upper * t^(-2 / (mu - 1))},
+   * which removes most of the power decay of the extrapolated prices.
+   * The integrant values at the nodes are shared between the integrals of present value and sensitivities.
+   * <p>
+   * With 8 sub-intervals the present value agrees with the adaptive integration to a relative
+   * difference below 10<sup>-6</sup>, which is the order of the tolerance of the adaptive integration.
+   * The tail thickness must be greater than 1.
+   * 
+   * @param swapPricer  the pricer for underlying swap
+   * @param cutOffStrike  the cut-off strike value
+   * @param mu  the tail thickness
+   * @param intervalCount  the number of sub-intervals of each part of the grid
+   * @return the pricer
+   */
+  public static SabrExtrapolationReplicationCmsPeriodPricer ofFixedGrid(
+      DiscountingSwapProductPricer swapPricer,
+      double cutOffStrike,
+      double mu,
+      int intervalCount) {
+
+    ArgChecker.isTrue(mu > 1d, "Tail thickness must be greater than 1 for fixed grid, but was {}", mu);
+    ArgChecker.notNegativeOrZero(intervalCount, "intervalCount");
+    return new SabrExtrapolationReplicationCmsPeriodPricer(swapPricer, cutOffStrike, mu, intervalCount);
+  }
+
+  /**
+   * Obtains the pricer computing the replication integrals on a fixed grid, with default swap pricer.
+   * <p>
+   * See {@link #ofFixedGrid(DiscountingSwapProductPricer, double, double, int)} for the details of the grid.
+   * 
+   * @param cutOffStrike  the cut-off strike value
+   * @param mu  the tail thickness
+   * @param intervalCount  the number of sub-intervals of each part of the grid
+   * @return the pricer
+   */
+  public static SabrExtrapolationReplicationCmsPeriodPricer ofFixedGrid(
+      double cutOffStrike,
+      double mu,
+      int intervalCount) {
+
+    return ofFixedGrid(DiscountingSwapProductPricer.DEFAULT, cutOffStrike, mu, intervalCount);
+  }
+
   private SabrExtrapolationReplicationCmsPeriodPricer(
       DiscountingSwapProductPricer swapPricer,
       double cutOffStrike,
-      double mu) {
+      double mu,
+      int gridIntervalCount) {
 
     this.swapPricer = ArgChecker.notNull(swapPricer, "swapPricer");
     this.cutOffStrike = cutOffStrike;
     this.mu = ArgChecker.notNegativeOrZero(mu, "mu");
+    this.gridIntervalCount = gridIntervalCount;
   }
 
   //-------------------------------------------------------------------------
@@ -204,18 +272,23 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
         cmsPeriod, swap, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor, cutOffStrike, eta);
     double factor = dfPayment / intProv.h(forward) * intProv.g(forward);
     double strikePart = factor * intProv.k(strikeCpn) * intProv.bs(strikeCpn);
-    RungeKuttaIntegrator1D integrator = new RungeKuttaIntegrator1D(ABS_TOL, REL_TOL, NUM_ITER);
     double integralPart = 0d;
-    Function<Double, Double> integrant = intProv.integrant();
-    try {
-      if (intProv.getPutCall().isCall()) {
-        integralPart = dfPayment *
-            integrateCall(integrator, integrant, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor);
-      } else {
-        integralPart = -dfPayment * integrator.integrate(integrant, -shift + ZERO_SHIFT, strikeCpn);
+    if (gridIntervalCount > 0) {
+      ReplicationGrid grid = replicationGrid(intProv, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor);
+      integralPart = grid.getSign() * dfPayment * intProv.integral(grid);
+    } else {
+      RungeKuttaIntegrator1D integrator = new RungeKuttaIntegrator1D(ABS_TOL, REL_TOL, NUM_ITER);
+      Function<Double, Double> integrant = intProv.integrant();
+      try {
+        if (intProv.getPutCall().isCall()) {
+          integralPart = dfPayment *
+              integrateCall(integrator, integrant, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor);
+        } else {
+          integralPart = -dfPayment * integrator.integrate(integrant, -shift + ZERO_SHIFT, strikeCpn);
+        }
+      } catch (Exception e) {
+        throw new MathException(e);
       }
-    } catch (Exception e) {
-      throw new MathException(e);
     }
     double priceCMS = (strikePart + integralPart);
     if (cmsPeriod.getCmsPeriodType().equals(CmsPeriodType.COUPON)) {
@@ -324,26 +397,33 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
         .relativeYearFraction(cmsPeriod.getPaymentDate(), swap.getStartDate());
     CmsDeltaIntegrantProvider intProv = new CmsDeltaIntegrantProvider(
         cmsPeriod, swap, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor, cutOffStrike, eta);
-    RungeKuttaIntegrator1D integrator = new RungeKuttaIntegrator1D(ABS_TOL, REL_TOL, NUM_ITER);
     double[] bs = intProv.bsbsp(strikeCpn);
     double[] n = intProv.getNnp();
     double strikePartPrice = intProv.k(strikeCpn) * n[0] * bs[0];
     double integralPartPrice = 0d;
     double integralPart = 0d;
-    Function<Double, Double> integrant = intProv.integrant();
-    Function<Double, Double> integrantDelta = intProv.integrantDelta();
-    try {
-      if (intProv.getPutCall().isCall()) {
-        integralPartPrice =
-            integrateCall(integrator, integrant, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor);
-        integralPart = dfPayment *
-            integrateCall(integrator, integrantDelta, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor);
-      } else {
-        integralPartPrice = -integrator.integrate(integrant, -shift + ZERO_SHIFT, strikeCpn);
-        integralPart = -dfPayment * integrator.integrate(integrantDelta, -shift, strikeCpn);
+    if (gridIntervalCount > 0) {
+      ReplicationGrid grid = replicationGrid(intProv, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor);
+      double[] integrals = intProv.integralAndDelta(grid);
+      integralPartPrice = grid.getSign() * integrals[0];
+      integralPart = grid.getSign() * dfPayment * integrals[1];
+    } else {
+      RungeKuttaIntegrator1D integrator = new RungeKuttaIntegrator1D(ABS_TOL, REL_TOL, NUM_ITER);
+      Function<Double, Double> integrant = intProv.integrant();
+      Function<Double, Double> integrantDelta = intProv.integrantDelta();
+      try {
+        if (intProv.getPutCall().isCall()) {
+          integralPartPrice =
+              integrateCall(integrator, integrant, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor);
+          integralPart = dfPayment *
+              integrateCall(integrator, integrantDelta, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor);
+        } else {
+          integralPartPrice = -integrator.integrate(integrant, -shift + ZERO_SHIFT, strikeCpn);
+          integralPart = -dfPayment * integrator.integrate(integrantDelta, -shift, strikeCpn);
+        }
+      } catch (Exception e) {
+        throw new MathException(e);
       }
-    } catch (Exception e) {
-      throw new MathException(e);
     }
     double deltaPD = strikePartPrice + integralPartPrice;
     if (cmsPeriod.getCmsPeriodType().equals(CmsPeriodType.COUPON)) {
@@ -404,23 +484,33 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
     double[] strikePartPrice = intProv.getSabrExtrapolation()
         .priceAdjointSabr(Math.max(0d, strikeCpn + shift), intProv.getPutCall()) // handle tiny but negative number
         .getDerivatives().multipliedBy(factor2).toArray();
-    RungeKuttaIntegrator1D integrator = new RungeKuttaIntegrator1D(ABS_TOL, REL_TOL_VEGA, NUM_ITER);
     double[] totalSensi = new double[4];
-    for (int loopparameter = 0; loopparameter < 4; loopparameter++) {
-      double integralPart = 0d;
-      Function<Double, Double> integrant = intProv.integrantVega(loopparameter);
-      try {
-        if (intProv.getPutCall().isCall()) {
-          integralPart = dfPayment *
-              integrateCall(integrator, integrant, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor);
-        } else {
-          integralPart = -dfPayment * integrator.integrate(integrant, -shift + ZERO_SHIFT, strikeCpn);
+    if (gridIntervalCount > 0) {
+      ReplicationGrid grid = replicationGrid(intProv, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor);
+      double[] integralParts = intProv.integralVega(grid);
+      for (int loopparameter = 0; loopparameter < 4; loopparameter++) {
+        double integralPart = grid.getSign() * dfPayment * integralParts[loopparameter];
+        totalSensi[loopparameter] =
+            (strikePartPrice[loopparameter] + integralPart) * cmsPeriod.getNotional() * cmsPeriod.getYearFraction();
+      }
+    } else {
+      RungeKuttaIntegrator1D integrator = new RungeKuttaIntegrator1D(ABS_TOL, REL_TOL_VEGA, NUM_ITER);
+      for (int loopparameter = 0; loopparameter < 4; loopparameter++) {
+        double integralPart = 0d;
+        Function<Double, Double> integrant = intProv.integrantVega(loopparameter);
+        try {
+          if (intProv.getPutCall().isCall()) {
+            integralPart = dfPayment *
+                integrateCall(integrator, integrant, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor);
+          } else {
+            integralPart = -dfPayment * integrator.integrate(integrant, -shift + ZERO_SHIFT, strikeCpn);
+          }
+        } catch (Exception e) {
+          throw new RuntimeException(e);
         }
-      } catch (Exception e) {
-        throw new RuntimeException(e);
+        totalSensi[loopparameter] =
+            (strikePartPrice[loopparameter] + integralPart) * cmsPeriod.getNotional() * cmsPeriod.getYearFraction();
       }
-      totalSensi[loopparameter] =
-          (strikePartPrice[loopparameter] + integralPart) * cmsPeriod.getNotional() * cmsPeriod.getYearFraction();
     }
     SwaptionVolatilitiesName name = swaptionVolatilities.getName();
     return PointSensitivityBuilder.of(
@@ -486,17 +576,20 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
     CmsIntegrantProvider intProv = new CmsIntegrantProvider(
         cmsPeriod, swap, swaptionVolatilities, forward, strike, expiryTime, tenor, cutOffStrike, eta);
     double factor = dfPayment * intProv.g(forward) / intProv.h(forward);
-    RungeKuttaIntegrator1D integrator = new RungeKuttaIntegrator1D(ABS_TOL, REL_TOL_STRIKE, NUM_ITER);
     double[] kpkpp = intProv.kpkpp(strike);
-    double firstPart;
+    double firstPart = -kpkpp[0] * intProv.bs(strike);
     double thirdPart;
-    Function<Double, Double> integrant = intProv.integrantDualDelta();
-    if (intProv.getPutCall().isCall()) {
-      firstPart = -kpkpp[0] * intProv.bs(strike);
-      thirdPart = integrateCall(integrator, integrant, swaptionVolatilities, forward, strike, expiryTime, tenor);
+    if (gridIntervalCount > 0) {
+      ReplicationGrid grid = replicationGrid(intProv, swaptionVolatilities, forward, strike, expiryTime, tenor);
+      thirdPart = grid.getSign() * intProv.integralDualDelta(grid);
     } else {
-      firstPart = -kpkpp[0] * intProv.bs(strike);
-      thirdPart = -integrator.integrate(integrant, -shift + ZERO_SHIFT, strike);
+      RungeKuttaIntegrator1D integrator = new RungeKuttaIntegrator1D(ABS_TOL, REL_TOL_STRIKE, NUM_ITER);
+      Function<Double, Double> integrant = intProv.integrantDualDelta();
+      if (intProv.getPutCall().isCall()) {
+        thirdPart = integrateCall(integrator, integrant, swaptionVolatilities, forward, strike, expiryTime, tenor);
+      } else {
+        thirdPart = -integrator.integrate(integrant, -shift + ZERO_SHIFT, strike);
+      }
     }
     double secondPart =
         intProv.k(strike) * intProv.getSabrExtrapolation().priceDerivativeStrike(strike + shift, intProv.getPutCall());
@@ -554,6 +647,82 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
     return res;
   }
 
+  // the fixed grid of the replication integral, consistent with the range of the adaptive integration
+  private ReplicationGrid replicationGrid(
+      CmsIntegrantProvider intProv,
+      SabrSwaptionVolatilities swaptionVolatilities,
+      double forward,
+      double strike,
+      double expiryTime,
+      double tenor) {
+
+    List<double[]> intervals = new ArrayList<>();
+    double tailStart = Double.NaN;
+    if (intProv.getPutCall().isCall()) {
+      double vol = swaptionVolatilities.volatility(expiryTime, tenor, forward, forward);
+      double upper0 = Math.max(
+          forward * Math.exp(6d * vol * Math.sqrt(expiryTime)),
+          Math.max(cutOffStrike, 2d * strike));
+      double upper = Math.max(Math.min(upper0, 1d), strike);
+      // the price is constant below the shifted zero strike, which creates a kink in the integrant
+      double lower = Math.max(strike, -intProv.getShift());
+      if (lower > strike && lower < upper) {
+        intervals.add(new double[] {strike, lower});
+      }
+      addIntervals(intervals, Math.min(lower, upper), upper);
+      tailStart = upper;
+    } else {
+      addIntervals(intervals, -intProv.getShift() + ZERO_SHIFT, strike);
+    }
+    double[] abscissas = GAUSS_LEGENDRE.getAbscissas();
+    double[] weights = GAUSS_LEGENDRE.getWeights();
+    int nbNodes = abscissas.length;
+    int nbIntervals = (intervals.size() + (Double.isNaN(tailStart) ? 0 : 1)) * gridIntervalCount;
+    double[] nodes = new double[nbNodes * nbIntervals];
+    double[] nodeWeights = new double[nbNodes * nbIntervals];
+    int index = 0;
+    for (double[] interval : intervals) {
+      double halfWidth = 0.5 * (interval[1] - interval[0]) / gridIntervalCount;
+      for (int j = 0; j < gridIntervalCount; j++) {
+        double mid = interval[0] + (2 * j + 1) * halfWidth;
+        for (int i = 0; i < nbNodes; i++) {
+          nodes[index] = mid + halfWidth * abscissas[i];
+          nodeWeights[index] = halfWidth * weights[i];
+          index++;
+        }
+      }
+    }
+    if (!Double.isNaN(tailStart)) {
+      // x = tailStart * t^(-power) on t in (0, 1], the integrand decays like x^(-mu)
+      double power = 2d / (mu - 1d);
+      double halfWidth = 0.5 / gridIntervalCount;
+      for (int j = 0; j < gridIntervalCount; j++) {
+        double mid = (2 * j + 1) * halfWidth;
+        for (int i = 0; i < nbNodes; i++) {
+          double t = mid + halfWidth * abscissas[i];
+          double x = tailStart * Math.pow(t, -power);
+          nodes[index] = x;
+          nodeWeights[index] = halfWidth * weights[i] * power * x / t;
+          index++;
+        }
+      }
+    }
+    return new ReplicationGrid(nodes, nodeWeights, intProv.getPutCall().isCall() ? 1d : -1d);
+  }
+
+  // adds the intervals between lower and upper, split at the cut-off strike
+  private void addIntervals(List<double[]> intervals, double lower, double upper) {
+    if (upper <= lower) {
+      return;
+    }
+    if (cutOffStrike > lower && cutOffStrike < upper) {
+      intervals.add(new double[] {lower, cutOffStrike});
+      intervals.add(new double[] {cutOffStrike, upper});
+    } else {
+      intervals.add(new double[] {lower, upper});
+    }
+  }
+
   /**
    * Explains the present value of the CMS period.
    * <p>
@@ -650,6 +819,15 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
       return shift;
     }
 
+    /**
+     * Gets the factor field.
+     * 
+     * @return the factor
+     */
+    protected double getFactor() {
+      return factor;
+    }
+
     /**
      * Gets the sabrExtrapolation field.
      * 
@@ -745,6 +923,64 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
       };
     }
 
+    /**
+     * Computes the integral used in price replication on a fixed grid.
+     * 
+     * @param grid  the grid
+     * @return the integral
+     */
+    double integral(ReplicationGrid grid) {
+      double[] nodes = grid.getNodes();
+      double[] weights = grid.getWeights();
+      double result = 0d;
+      for (int i = 0; i < nodes.length; i++) {
+        double[] kD = kpkpp(nodes[i]);
+        result += weights[i] * factor * (kD[1] * (nodes[i] - strike) + 2d * kD[0]) * bs(nodes[i]);
+      }
+      return result;
+    }
+
+    /**
+     * Computes the integrals of the sensitivities to the SABR parameters on a fixed grid.
+     * <p>
+     * The derivatives of the price with respect to the four SABR parameters are computed once per node.
+     * 
+     * @param grid  the grid
+     * @return the integrals, one for each SABR parameter
+     */
+    double[] integralVega(ReplicationGrid grid) {
+      double[] nodes = grid.getNodes();
+      double[] weights = grid.getWeights();
+      double[] result = new double[4];
+      for (int i = 0; i < nodes.length; i++) {
+        double[] kD = kpkpp(nodes[i]);
+        double xShifted = Math.max(nodes[i] + shift, 0d); // handle tiny but negative number
+        DoubleArray priceDerivativeSabr = sabrExtrapolation.priceAdjointSabr(xShifted, putCall).getDerivatives();
+        double weight = weights[i] * factor * (kD[1] * (nodes[i] - strike) + 2d * kD[0]);
+        for (int p = 0; p < 4; p++) {
+          result[p] += weight * priceDerivativeSabr.get(p);
+        }
+      }
+      return result;
+    }
+
+    /**
+     * Computes the integral of the sensitivity to strike on a fixed grid.
+     * 
+     * @param grid  the grid
+     * @return the integral
+     */
+    double integralDualDelta(ReplicationGrid grid) {
+      double[] nodes = grid.getNodes();
+      double[] weights = grid.getWeights();
+      double result = 0d;
+      for (int i = 0; i < nodes.length; i++) {
+        double[] kD = kpkpp(nodes[i]);
+        result -= weights[i] * kD[1] * bs(nodes[i]);
+      }
+      return result;
+    }
+
     /**
      * The approximation of the discount factor as function of the swap rate.
      * 
@@ -888,6 +1124,28 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
       };
     }
 
+    /**
+     * Computes the integrals used in price replication and in delta on a fixed grid.
+     * <p>
+     * The integrant values at the nodes are shared by the two integrals.
+     * 
+     * @param grid  the grid
+     * @return the price integral and the delta integral
+     */
+    double[] integralAndDelta(ReplicationGrid grid) {
+      double[] nodes = grid.getNodes();
+      double[] weights = grid.getWeights();
+      double[] result = new double[2];
+      for (int i = 0; i < nodes.length; i++) {
+        double[] kD = kpkpp(nodes[i]);
+        double[] bs = bsbsp(nodes[i]);
+        double weight = weights[i] * (kD[1] * (nodes[i] - getStrike()) + 2d * kD[0]);
+        result[0] += weight * getFactor() * bs[0];
+        result[1] += weight * (nnp[1] * bs[0] + nnp[0] * bs[1]);
+      }
+      return result;
+    }
+
     /**
      * The Black price and its derivative with respect to the forward.
      * 
@@ -919,4 +1177,47 @@ public final class SabrExtrapolationReplicationCmsPeriodPricer {
     }
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Inner class holding the nodes and weights of a fixed grid used for the replication integrals.
+   */
+  private static final class ReplicationGrid {
+    private final double[] nodes;
+    private final double[] weights;
+    private final double sign;
+
+    private ReplicationGrid(double[] nodes, double[] weights, double sign) {
+      this.nodes = nodes;
+      this.weights = weights;
+      this.sign = sign;
+    }
+
+    /**
+     * Gets the nodes, the swap rates at which the integrant is evaluated.
+     * 
+     * @return the nodes
+     */
+    double[] getNodes() {
+      return nodes;
+    }
+
+    /**
+     * Gets the weights of the nodes.
+     * 
+     * @return the weights
+     */
+    double[] getWeights() {
+      return weights;
+    }
+
+    /**
+     * Gets the sign of the integral, 1 for a call integrated above the strike, -1 for a put integrated below.
+     * 
+     * @return the sign
+     */
+    double getSign() {
+      return sign;
+    }
+  }
+
 }
@@ -10,9 +10,12 @@ import static com.opengamma.strata.math.impl.util.Epsilon.epsilonP;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
 
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.market.ValueType;
 import com.opengamma.strata.market.curve.ConstantNodalCurve;
@@ -26,8 +29,6 @@ import com.opengamma.strata.market.curve.interpolator.CurveInterpolators;
 import com.opengamma.strata.math.MathException;
 import com.opengamma.strata.math.impl.rootfinding.BracketRoot;
 import com.opengamma.strata.math.impl.rootfinding.BrentSingleRootFinder;
-import com.opengamma.strata.math.impl.rootfinding.RealSingleRootFinder;
-import com.opengamma.strata.pricer.common.PriceType;
 import com.opengamma.strata.product.credit.CreditCouponPaymentPeriod;
 import com.opengamma.strata.product.credit.ResolvedCds;
 import com.opengamma.strata.product.credit.ResolvedCdsTrade;
@@ -39,6 +40,9 @@ import com.opengamma.strata.product.credit.ResolvedCdsTrade;
  * in that it will produce the same curve from the same inputs (up to numerical round-off).
  * <p>
  * The CDS pricer is internally implemented for fast calibration.
+ * <p>
+ * The credit curves of many legal entities sharing a node schedule can be calibrated in bulk,
+ * see {@link #calibrate(List, List, List, List, LocalDate, CreditDiscountFactors, List, ReferenceData)}.
  */
 public final class FastCreditCurveCalibrator extends IsdaCompliantCreditCurveCalibrator {
 
@@ -54,7 +58,7 @@ public final class FastCreditCurveCalibrator extends IsdaCompliantCreditCurveCal
   /**
    * The root finder.
    */
-  private static final RealSingleRootFinder ROOTFINDER = new BrentSingleRootFinder();
+  private static final BrentSingleRootFinder ROOTFINDER = new BrentSingleRootFinder();
 
   //-------------------------------------------------------------------------
   /**
@@ -111,33 +115,86 @@ public final class FastCreditCurveCalibrator extends IsdaCompliantCreditCurveCal
       RecoveryRates recoveryRates,
       ReferenceData refData) {
 
+    double[] t = nodeTimes(calibrationCDSs, discountFactors);
+    NodePricer[] pricers = nodePricers(calibrationCDSs, t, valuationDate, discountFactors, refData);
+    double[] lgd = lossGivenDefaults(calibrationCDSs, recoveryRates);
+    return calibrate(pricers, t, flactionalSpreads, pointsUpfront, lgd, name, discountFactors);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calibrates the ISDA compliant credit curves of many legal entities sharing a node schedule.
+   * <p>
+   * The calibration CDSs define the node schedule, which is common to all of the legal entities.
+   * Only the dates and conventions of the calibration CDSs are used, thus the node trades of any of the
+   * legal entities can be passed. The fractional spreads, points upfront, curve names and recovery rates
+   * are specified for each legal entity, in the same order.
+   * <p>
+   * The integration points of the protection and premium legs, the discount factors at these points
+   * and the interpolation weights of the credit curve are computed once for the node schedule.
+   * The legal entities are then calibrated in parallel, and the root finding does not allocate.
+   * The resulting curves are the same as those calibrated one legal entity at a time.
+   * 
+   * @param calibrationCDSs  the calibration CDS, defining the node schedule
+   * @param fractionalSpreads  the fractional spreads for each legal entity
+   * @param pointsUpfront  the points upfront values for each legal entity
+   * @param names  the curve name for each legal entity
+   * @param valuationDate  the valuation date
+   * @param discountFactors  the discount factors
+   * @param recoveryRates  the recovery rates for each legal entity
+   * @param refData  the reference data
+   * @return the ISDA compliant credit curves, in the order of the legal entities
+   */
+  public List<NodalCurve> calibrate(
+      List<ResolvedCdsTrade> calibrationCDSs,
+      List<DoubleArray> fractionalSpreads,
+      List<DoubleArray> pointsUpfront,
+      List<CurveName> names,
+      LocalDate valuationDate,
+      CreditDiscountFactors discountFactors,
+      List<RecoveryRates> recoveryRates,
+      ReferenceData refData) {
+
+    int nEntities = names.size();
+    ArgChecker.isTrue(fractionalSpreads.size() == nEntities, "fractionalSpreads and names must have the same size");
+    ArgChecker.isTrue(pointsUpfront.size() == nEntities, "pointsUpfront and names must have the same size");
+    ArgChecker.isTrue(recoveryRates.size() == nEntities, "recoveryRates and names must have the same size");
+    ArgChecker.isTrue(!calibrationCDSs.isEmpty(), "calibrationCDSs must not be empty");
+    int n = calibrationCDSs.size();
+    double[] t = nodeTimes(calibrationCDSs, discountFactors);
+    NodePricer[] pricers = nodePricers(calibrationCDSs, t, valuationDate, discountFactors, refData);
+    NodalCurve[] curves = new NodalCurve[nEntities];
+    IntStream.range(0, nEntities).parallel().forEach(e -> {
+      DoubleArray spreads = fractionalSpreads.get(e);
+      DoubleArray pufs = pointsUpfront.get(e);
+      ArgChecker.isTrue(spreads.size() == n && pufs.size() == n,
+          "quotes of legal entity {} must match the {} calibration CDSs", e, n);
+      double[] lgd = lossGivenDefaults(calibrationCDSs, recoveryRates.get(e));
+      curves[e] = calibrate(pricers, t, spreads, pufs, lgd, names.get(e), discountFactors);
+    });
+    return ImmutableList.copyOf(curves);
+  }
+
+  // the times of the nodes of the credit curve, which are the protection end dates of the calibration CDSs
+  private static double[] nodeTimes(List<ResolvedCdsTrade> calibrationCDSs, CreditDiscountFactors discountFactors) {
     int n = calibrationCDSs.size();
-    double[] guess = new double[n];
     double[] t = new double[n];
-    double[] lgd = new double[n];
     for (int i = 0; i < n; i++) {
-      LocalDate endDate = calibrationCDSs.get(i).getProduct().getProtectionEndDate();
-      t[i] = discountFactors.relativeYearFraction(endDate);
-      lgd[i] = 1d - recoveryRates.recoveryRate(endDate);
-      guess[i] = (flactionalSpreads.get(i) + pointsUpfront.get(i) / t[i]) / lgd[i];
+      t[i] = discountFactors.relativeYearFraction(calibrationCDSs.get(i).getProduct().getProtectionEndDate());
     }
-    DoubleArray times = DoubleArray.ofUnsafe(t);
-    CurveMetadata baseMetadata = DefaultCurveMetadata.builder()
-        .xValueType(ValueType.YEAR_FRACTION)
-        .yValueType(ValueType.ZERO_RATE)
-        .curveName(name)
-        .dayCount(discountFactors.getDayCount())
-        .build();
-    NodalCurve creditCurve = n == 1 ?
-        ConstantNodalCurve.of(baseMetadata, t[0], guess[0]) :
-        InterpolatedNodalCurve.of(
-            baseMetadata,
-            times,
-            DoubleArray.ofUnsafe(guess),
-            CurveInterpolators.PRODUCT_LINEAR,
-            CurveExtrapolators.FLAT,
-            CurveExtrapolators.PRODUCT_LINEAR);
+    return t;
+  }
 
+  // the pricers of the calibration CDSs, which only depend on the node schedule and the discount factors
+  private NodePricer[] nodePricers(
+      List<ResolvedCdsTrade> calibrationCDSs,
+      double[] t,
+      LocalDate valuationDate,
+      CreditDiscountFactors discountFactors,
+      ReferenceData refData) {
+
+    int n = calibrationCDSs.size();
+    NodePricer[] pricers = new NodePricer[n];
     for (int i = 0; i < n; i++) {
       ResolvedCds cds = calibrationCDSs.get(i).getProduct();
       LocalDate stepinDate = cds.getStepinDateOffset().adjust(valuationDate, refData);
@@ -145,23 +202,59 @@ public final class FastCreditCurveCalibrator extends IsdaCompliantCreditCurveCal
       LocalDate settlementDate = calibrationCDSs.get(i).getInfo().getSettlementDate()
           .orElse(cds.getSettlementDateOffset().adjust(valuationDate, refData));
       double accrued = cds.accruedYearFraction(stepinDate);
+      pricers[i] = new NodePricer(cds, discountFactors, t, stepinDate, effectiveStartDate, settlementDate, accrued);
+    }
+    return pricers;
+  }
 
-      Pricer pricer = new Pricer(cds, discountFactors, times, flactionalSpreads.get(i), pointsUpfront.get(i), lgd[i], stepinDate,
-          effectiveStartDate, settlementDate, accrued);
-      Function<Double, Double> func = pricer.getPointFunction(i, creditCurve);
+  // the loss given default at the protection end date of each calibration CDS
+  private static double[] lossGivenDefaults(List<ResolvedCdsTrade> calibrationCDSs, RecoveryRates recoveryRates) {
+    int n = calibrationCDSs.size();
+    double[] lgd = new double[n];
+    for (int i = 0; i < n; i++) {
+      lgd[i] = 1d - recoveryRates.recoveryRate(calibrationCDSs.get(i).getProduct().getProtectionEndDate());
+    }
+    return lgd;
+  }
+
+  // calibrates the curve of a single legal entity, the zero rates are updated in place
+  private NodalCurve calibrate(
+      NodePricer[] pricers,
+      double[] t,
+      DoubleArray fractionalSpreads,
+      DoubleArray pointsUpfront,
+      double[] lgd,
+      CurveName name,
+      CreditDiscountFactors discountFactors) {
 
+    int n = t.length;
+    double[] guess = new double[n];
+    double[] zeroRates = new double[n];
+    for (int i = 0; i < n; i++) {
+      guess[i] = (fractionalSpreads.get(i) + pointsUpfront.get(i) / t[i]) / lgd[i];
+      zeroRates[i] = guess[i];
+    }
+    for (int i = 0; i < n; i++) {
+      NodePricer pricer = pricers[i];
+      int index = i;
+      double spread = fractionalSpreads.get(i);
+      double puf = pointsUpfront.get(i);
+      double lossGivenDefault = lgd[i];
+      DoubleUnaryOperator func = x -> {
+        zeroRates[index] = x;
+        return pricer.value(zeroRates, spread, puf, lossGivenDefault);
+      };
       switch (getArbitrageHandling()) {
         case IGNORE: {
           try {
             double[] bracket = BRACKETER.getBracketedPoints(
                 func, 0.8 * guess[i], 1.25 * guess[i], Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
-            double zeroRate = bracket[0] > bracket[1] ?
+            zeroRates[i] = bracket[0] > bracket[1] ?
                 ROOTFINDER.getRoot(func, bracket[1], bracket[0]) :
-                ROOTFINDER.getRoot(func, bracket[0], bracket[1]); //Negative guess handled
-            creditCurve = creditCurve.withParameter(i, zeroRate);
-          } catch (final MathException e) { //handling bracketing failure due to small survival probability
-            if (Math.abs(func.apply(creditCurve.getYValues().get(i - 1))) < 1.e-12) {
-              creditCurve = creditCurve.withParameter(i, creditCurve.getYValues().get(i - 1));
+                ROOTFINDER.getRoot(func, bracket[0], bracket[1]);
+          } catch (MathException e) { //handling bracketing failure due to small survival probability
+            if (i > 0 && Math.abs(func.applyAsDouble(zeroRates[i - 1])) < 1.e-12) {
+              zeroRates[i] = zeroRates[i - 1];
             } else {
               throw new MathException(e);
             }
@@ -169,39 +262,33 @@ public final class FastCreditCurveCalibrator extends IsdaCompliantCreditCurveCal
           break;
         }
         case FAIL: {
-          final double minValue = i == 0 ?
-              0d :
-              creditCurve.getYValues().get(i - 1) * creditCurve.getXValues().get(i - 1) / creditCurve.getXValues().get(i);
-          if (i > 0 && func.apply(minValue) > 0.0) { //can never fail on the first spread
-            final StringBuilder msg = new StringBuilder();
-            if (pointsUpfront.get(i) == 0.0) {
-              msg.append("The par spread of " + flactionalSpreads.get(i) + " at index " + i);
+          double minValue = i == 0 ? 0d : zeroRates[i - 1] * t[i - 1] / t[i];
+          if (i > 0 && func.applyAsDouble(minValue) > 0.0) { //can never fail on the first spread
+            StringBuilder msg = new StringBuilder();
+            msg.append("Credit curve " + name + ": ");
+            if (puf == 0.0) {
+              msg.append("The par spread of " + spread + " at index " + i);
             } else {
-              msg.append(
-                  "The premium of " + flactionalSpreads.get(i) +
-                      "and points up-front of " + pointsUpfront.get(i) + " at index " + i);
+              msg.append("The premium of " + spread + "and points up-front of " + puf + " at index " + i);
             }
             msg.append(" is an arbitrage; cannot fit a curve with positive forward hazard rate. ");
             throw new IllegalArgumentException(msg.toString());
           }
           guess[i] = Math.max(minValue, guess[i]);
-          double[] bracket = BRACKETER.getBracketedPoints(func, guess[i], 1.2 * guess[i], minValue, Double.POSITIVE_INFINITY);
-          double zeroRate = ROOTFINDER.getRoot(func, bracket[0], bracket[1]);
-          creditCurve = creditCurve.withParameter(i, zeroRate);
+          double[] bracket = BRACKETER.getBracketedPoints(
+              func, guess[i], 1.2 * guess[i], minValue, Double.POSITIVE_INFINITY);
+          zeroRates[i] = ROOTFINDER.getRoot(func, bracket[0], bracket[1]);
           break;
         }
         case ZERO_HAZARD_RATE: {
-          final double minValue = i == 0 ?
-              0.0 :
-              creditCurve.getYValues().get(i - 1) * creditCurve.getXValues().get(i - 1) / creditCurve.getXValues().get(i);
-          if (i > 0 && func.apply(minValue) > 0.0) { //can never fail on the first spread
-            creditCurve = creditCurve.withParameter(i, minValue);
+          double minValue = i == 0 ? 0d : zeroRates[i - 1] * t[i - 1] / t[i];
+          if (i > 0 && func.applyAsDouble(minValue) > 0.0) { //can never fail on the first spread
+            zeroRates[i] = minValue;
           } else {
             guess[i] = Math.max(minValue, guess[i]);
-            final double[] bracket =
-                BRACKETER.getBracketedPoints(func, guess[i], 1.2 * guess[i], minValue, Double.POSITIVE_INFINITY);
-            final double zeroRate = ROOTFINDER.getRoot(func, bracket[0], bracket[1]);
-            creditCurve = creditCurve.withParameter(i, zeroRate);
+            double[] bracket = BRACKETER.getBracketedPoints(
+                func, guess[i], 1.2 * guess[i], minValue, Double.POSITIVE_INFINITY);
+            zeroRates[i] = ROOTFINDER.getRoot(func, bracket[0], bracket[1]);
           }
           break;
         }
@@ -209,93 +296,102 @@ public final class FastCreditCurveCalibrator extends IsdaCompliantCreditCurveCal
           throw new IllegalArgumentException("unknown case " + getArbitrageHandling());
       }
     }
-    return creditCurve;
+    CurveMetadata metadata = DefaultCurveMetadata.builder()
+        .xValueType(ValueType.YEAR_FRACTION)
+        .yValueType(ValueType.ZERO_RATE)
+        .curveName(name)
+        .dayCount(discountFactors.getDayCount())
+        .build();
+    return n == 1 ?
+        ConstantNodalCurve.of(metadata, t[0], zeroRates[0]) :
+        InterpolatedNodalCurve.of(
+            metadata,
+            DoubleArray.copyOf(t),
+            DoubleArray.ofUnsafe(zeroRates),
+            CurveInterpolators.PRODUCT_LINEAR,
+            CurveExtrapolators.FLAT,
+            CurveExtrapolators.PRODUCT_LINEAR);
   }
 
-  /* Prices the CDS */
-  final class Pricer {
+  //-------------------------------------------------------------------------
+  /* Prices the CDS of a node, the integration points, discount factors and interpolation weights are precomputed */
+  private final class NodePricer {
 
-    private final ResolvedCds cds;
-    private final double lgdDF;
     private final double valuationDF;
-    private final double fracSpread;
-    private final double puf;
+    private final double accYearFraction;
     // protection leg
-    private final int nProPoints;
-    private final double[] proLegIntPoints;
     private final double[] proYieldCurveRT;
     private final double[] proDF;
+    private final HazardWeights proWeights;
     // premium leg
     private final int nPayments;
-    private final double[] paymentDF;
+    private final int startPeriodIndex;
+    private final double[] couponDF;
+    private final HazardWeights endWeights;
+    // accrual on default, null if not paid
+    private final double[] accRate;
+    private final double[] offsetAccStart;
     private final double[][] premLegIntPoints;
     private final double[][] premDF;
     private final double[][] rt;
     private final double[][] premDt;
-    private final double[] accRate;
-    private final double[] offsetAccStart;
-    private final double[] offsetAccEnd;
-
-    private final double accYearFraction;
-    private final double productEffectiveStart;
-    private final int startPeriodIndex;
+    private final HazardWeights[] premWeights;
 
-    public Pricer(ResolvedCds nodeCds, CreditDiscountFactors yieldCurve, DoubleArray creditCurveKnots, double fractionalSpread,
-        double pointsUpfront, double lgd, LocalDate stepinDate, LocalDate effectiveStartDate, LocalDate settlementDate,
+    NodePricer(
+        ResolvedCds cds,
+        CreditDiscountFactors yieldCurve,
+        double[] creditCurveKnots,
+        LocalDate stepinDate,
+        LocalDate effectiveStartDate,
+        LocalDate settlementDate,
         double accruedYearFraction) {
 
+      DoubleArray knots = DoubleArray.copyOf(creditCurveKnots);
       accYearFraction = accruedYearFraction;
-      cds = nodeCds;
-      fracSpread = fractionalSpread;
-      puf = pointsUpfront;
-      productEffectiveStart = yieldCurve.relativeYearFraction(effectiveStartDate);
+      double productEffectiveStart = yieldCurve.relativeYearFraction(effectiveStartDate);
       double protectionEnd = yieldCurve.relativeYearFraction(cds.getProtectionEndDate());
-      // protection leg
-      proLegIntPoints = DoublesScheduleGenerator.getIntegrationsPoints(
-          productEffectiveStart,
-          protectionEnd,
-          yieldCurve.getParameterKeys(), creditCurveKnots).toArray();
-      nProPoints = proLegIntPoints.length;
       valuationDF = yieldCurve.discountFactor(settlementDate);
-      lgdDF = lgd / valuationDF;
-      proYieldCurveRT = new double[nProPoints];
-      proDF = new double[nProPoints];
-      for (int i = 0; i < nProPoints; i++) {
+      // protection leg
+      double[] proLegIntPoints = DoublesScheduleGenerator.getIntegrationsPoints(
+          productEffectiveStart, protectionEnd, yieldCurve.getParameterKeys(), knots).toArray();
+      proYieldCurveRT = new double[proLegIntPoints.length];
+      proDF = new double[proLegIntPoints.length];
+      for (int i = 0; i < proLegIntPoints.length; i++) {
         proYieldCurveRT[i] = yieldCurve.zeroRate(proLegIntPoints[i]) * proLegIntPoints[i];
         proDF[i] = Math.exp(-proYieldCurveRT[i]);
       }
+      proWeights = new HazardWeights(proLegIntPoints, creditCurveKnots);
       // premium leg
       nPayments = cds.getPaymentPeriods().size();
-      paymentDF = new double[nPayments];
+      couponDF = new double[nPayments];
+      double[] offsetAccEnd = new double[nPayments];
       int indexTmp = -1;
       for (int i = 0; i < nPayments; i++) {
-        if (stepinDate.isBefore(cds.getPaymentPeriods().get(i).getEndDate())) {
-          paymentDF[i] = yieldCurve.discountFactor(cds.getPaymentPeriods().get(i).getPaymentDate());
+        CreditCouponPaymentPeriod coupon = cds.getPaymentPeriods().get(i);
+        offsetAccEnd[i] = yieldCurve.relativeYearFraction(coupon.getEffectiveEndDate());
+        if (stepinDate.isBefore(coupon.getEndDate())) {
+          couponDF[i] = coupon.getYearFraction() * yieldCurve.discountFactor(coupon.getPaymentDate());
         } else {
           indexTmp = i;
         }
       }
       startPeriodIndex = indexTmp + 1;
+      endWeights = new HazardWeights(offsetAccEnd, creditCurveKnots);
       // accrual on default
       if (cds.getPaymentOnDefault().isAccruedInterest()) {
         LocalDate tmp = nPayments == 1 ? effectiveStartDate : cds.getAccrualStartDate();
-        DoubleArray integrationSchedule =
-            DoublesScheduleGenerator.getIntegrationsPoints(
-                yieldCurve.relativeYearFraction(tmp),
-                protectionEnd,
-                yieldCurve.getParameterKeys(),
-                creditCurveKnots);
+        DoubleArray integrationSchedule = DoublesScheduleGenerator.getIntegrationsPoints(
+            yieldCurve.relativeYearFraction(tmp), protectionEnd, yieldCurve.getParameterKeys(), knots);
         accRate = new double[nPayments];
         offsetAccStart = new double[nPayments];
-        offsetAccEnd = new double[nPayments];
         premLegIntPoints = new double[nPayments][];
         premDF = new double[nPayments][];
         rt = new double[nPayments][];
         premDt = new double[nPayments][];
+        premWeights = new HazardWeights[nPayments];
         for (int i = startPeriodIndex; i < nPayments; i++) {
           CreditCouponPaymentPeriod coupon = cds.getPaymentPeriods().get(i);
           offsetAccStart[i] = yieldCurve.relativeYearFraction(coupon.getEffectiveStartDate());
-          offsetAccEnd[i] = yieldCurve.relativeYearFraction(coupon.getEffectiveEndDate());
           accRate[i] = coupon.getYearFraction() /
               yieldCurve.getDayCount().relativeYearFraction(coupon.getStartDate(), coupon.getEndDate());
           double start = Math.max(productEffectiveStart, offsetAccStart[i]);
@@ -303,9 +399,7 @@ public final class FastCreditCurveCalibrator extends IsdaCompliantCreditCurveCal
             continue;
           }
           premLegIntPoints[i] = DoublesScheduleGenerator.truncateSetInclusive(
-              start,
-              offsetAccEnd[i],
-              integrationSchedule).toArray();
+              start, offsetAccEnd[i], integrationSchedule).toArray();
           int n = premLegIntPoints[i].length;
           rt[i] = new double[n];
           premDF[i] = new double[n];
@@ -314,78 +408,60 @@ public final class FastCreditCurveCalibrator extends IsdaCompliantCreditCurveCal
             premDF[i][k] = Math.exp(-rt[i][k]);
           }
           premDt[i] = new double[n - 1];
-
           for (int k = 1; k < n; k++) {
-            final double dt = premLegIntPoints[i][k] - premLegIntPoints[i][k - 1];
-            premDt[i][k - 1] = dt;
+            premDt[i][k - 1] = premLegIntPoints[i][k] - premLegIntPoints[i][k - 1];
           }
+          premWeights[i] = new HazardWeights(premLegIntPoints[i], creditCurveKnots);
         }
       } else {
         accRate = null;
         offsetAccStart = null;
-        offsetAccEnd = null;
+        premLegIntPoints = null;
         premDF = null;
-        premDt = null;
         rt = null;
-        premLegIntPoints = null;
+        premDt = null;
+        premWeights = null;
       }
     }
 
-    public Function<Double, Double> getPointFunction(int index, NodalCurve creditCurve) {
-      return new Function<Double, Double>() {
-        @Override
-        public Double apply(Double x) {
-          NodalCurve cc = creditCurve.withParameter(index, x);
-          double rpv01 = rpv01(cc, PriceType.CLEAN);
-          double pro = protectionLeg(cc);
-          return pro - fracSpread * rpv01 - puf;
-        }
-      };
+    // the price of the node CDS for the zero rates of the credit curve
+    double value(double[] zeroRates, double fractionalSpread, double pointsUpfront, double lgd) {
+      return lgd * protectionLeg(zeroRates) / valuationDF - fractionalSpread * rpv01(zeroRates) - pointsUpfront;
     }
 
-    public double rpv01(NodalCurve creditCurve, PriceType cleanOrDirty) {
-      double pv = 0.0;
+    // the clean risky annuity
+    private double rpv01(double[] zeroRates) {
+      double pv = 0d;
       for (int i = startPeriodIndex; i < nPayments; i++) {
-        CreditCouponPaymentPeriod coupon = cds.getPaymentPeriods().get(i);
-        double yc = offsetAccEnd[i];
-        double q = Math.exp(-creditCurve.yValue(yc) * yc);
-        pv += coupon.getYearFraction() * paymentDF[i] * q;
+        pv += couponDF[i] * Math.exp(-endWeights.rt(zeroRates, i));
       }
-
-      if (cds.getPaymentOnDefault().isAccruedInterest()) {
-        double accPV = 0.0;
+      if (premLegIntPoints != null) {
         for (int i = startPeriodIndex; i < nPayments; i++) {
-          accPV += calculateSinglePeriodAccrualOnDefault(i, creditCurve);
+          pv += accrualOnDefault(i, zeroRates);
         }
-        pv += accPV;
       }
-      pv /= valuationDF;
-      if (cleanOrDirty == PriceType.CLEAN) {
-        pv -= accYearFraction;
-      }
-      return pv;
+      return pv / valuationDF - accYearFraction;
     }
 
-    private double calculateSinglePeriodAccrualOnDefault(int paymentIndex, NodalCurve creditCurve) {
+    private double accrualOnDefault(int paymentIndex, double[] zeroRates) {
       double[] knots = premLegIntPoints[paymentIndex];
       if (knots == null) {
         return 0d;
       }
+      HazardWeights weights = premWeights[paymentIndex];
       double[] df = premDF[paymentIndex];
       double[] deltaT = premDt[paymentIndex];
       double[] rtCurrent = rt[paymentIndex];
-      double accRateCurrent = accRate[paymentIndex];
       double accStart = offsetAccStart[paymentIndex];
-      double t = knots[0];
-      double ht0 = creditCurve.yValue(t) * t;
+      double omega = getAccrualOnDefaultFormula().getOmega();
+      boolean markitFix = getAccrualOnDefaultFormula() == AccrualOnDefaultFormula.MARKIT_FIX;
+      double ht0 = weights.rt(zeroRates, 0);
       double rt0 = rtCurrent[0];
       double b0 = df[0] * Math.exp(-ht0);
-      double t0 = t - accStart + getAccrualOnDefaultFormula().getOmega();
+      double t0 = knots[0] - accStart + omega;
       double pv = 0d;
-      int nItems = knots.length;
-      for (int j = 1; j < nItems; ++j) {
-        t = knots[j];
-        double ht1 = creditCurve.yValue(t) * t;
+      for (int j = 1; j < knots.length; ++j) {
+        double ht1 = weights.rt(zeroRates, j);
         double rt1 = rtCurrent[j];
         double b1 = df[j] * Math.exp(-ht1);
         double dt = deltaT[j - 1];
@@ -393,14 +469,14 @@ public final class FastCreditCurveCalibrator extends IsdaCompliantCreditCurveCal
         double drt = rt1 - rt0;
         double dhrt = dht + drt + 1e-50; // to keep consistent with ISDA c code
         double tPV;
-        if (getAccrualOnDefaultFormula() == AccrualOnDefaultFormula.MARKIT_FIX) {
+        if (markitFix) {
           if (Math.abs(dhrt) < 1e-5) {
             tPV = dht * dt * b0 * epsilonP(-dhrt);
           } else {
             tPV = dht * dt / dhrt * ((b0 - b1) / dhrt - b1);
           }
         } else {
-          double t1 = t - accStart + getAccrualOnDefaultFormula().getOmega();
+          double t1 = knots[j] - accStart + omega;
           if (Math.abs(dhrt) < 1e-5) {
             tPV = dht * b0 * (t0 * epsilon(-dhrt) + dt * epsilonP(-dhrt));
           } else {
@@ -413,36 +489,76 @@ public final class FastCreditCurveCalibrator extends IsdaCompliantCreditCurveCal
         rt0 = rt1;
         b0 = b1;
       }
-      return accRateCurrent * pv;
+      return accRate[paymentIndex] * pv;
     }
 
-    public double protectionLeg(NodalCurve creditCurve) {
-      double ht0 = creditCurve.yValue(proLegIntPoints[0]) * proLegIntPoints[0];
+    // the protection leg, before multiplication by the loss given default
+    private double protectionLeg(double[] zeroRates) {
+      double ht0 = proWeights.rt(zeroRates, 0);
       double rt0 = proYieldCurveRT[0];
       double b0 = proDF[0] * Math.exp(-ht0);
       double pv = 0d;
-      for (int i = 1; i < nProPoints; ++i) {
-        double ht1 = creditCurve.yValue(proLegIntPoints[i]) * proLegIntPoints[i];
+      for (int i = 1; i < proDF.length; ++i) {
+        double ht1 = proWeights.rt(zeroRates, i);
         double rt1 = proYieldCurveRT[i];
         double b1 = proDF[i] * Math.exp(-ht1);
         double dht = ht1 - ht0;
-        double drt = rt1 - rt0;
-        double dhrt = dht + drt;
-        // this is equivalent to the ISDA code without explicitly calculating the time step - it also handles the limit
-        double dPV;
+        double dhrt = dht + rt1 - rt0;
         if (Math.abs(dhrt) < 1e-5) {
-          dPV = dht * b0 * epsilon(-dhrt);
+          pv += dht * b0 * epsilon(-dhrt);
         } else {
-          dPV = (b0 - b1) * dht / dhrt;
+          pv += (b0 - b1) * dht / dhrt;
         }
-        pv += dPV;
         ht0 = ht1;
         rt0 = rt1;
         b0 = b1;
       }
-      pv *= lgdDF; // multiply by LGD and adjust to valuation date
       return pv;
     }
   }
 
+  //-------------------------------------------------------------------------
+  /*
+   * The interpolation weights of the credit curve at fixed points.
+   * The credit curve is product linear with flat left extrapolation and product linear right extrapolation,
+   * thus the integrated hazard rate at a point is linear in the zero rates of the two nodes around it.
+   */
+  private static final class HazardWeights {
+
+    private final int[] lowerIndex;
+    private final double[] lowerWeight;
+    private final double[] upperWeight;
+
+    HazardWeights(double[] points, double[] knots) {
+      int nPoints = points.length;
+      int nKnots = knots.length;
+      lowerIndex = new int[nPoints];
+      lowerWeight = new double[nPoints];
+      upperWeight = new double[nPoints];
+      for (int j = 0; j < nPoints; j++) {
+        double point = points[j];
+        if (nKnots == 1 || point <= knots[0]) {
+          lowerWeight[j] = point;
+          continue;
+        }
+        int k = 0;
+        while (k < nKnots - 2 && knots[k + 1] < point) {
+          k++;
+        }
+        double dt = knots[k + 1] - knots[k];
+        lowerIndex[j] = k;
+        lowerWeight[j] = (knots[k + 1] - point) / dt * knots[k];
+        upperWeight[j] = (point - knots[k]) / dt * knots[k + 1];
+      }
+    }
+
+    // the integrated hazard rate at the point, h(t) t
+    double rt(double[] zeroRates, int pointIndex) {
+      int k = lowerIndex[pointIndex];
+      double upper = upperWeight[pointIndex];
+      double value = lowerWeight[pointIndex] * zeroRates[k];
+      return upper == 0d ? value : value + upper * zeroRates[k + 1];
+    }
+  }
+
 }
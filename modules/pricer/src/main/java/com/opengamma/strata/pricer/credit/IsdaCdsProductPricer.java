@@ -10,6 +10,7 @@ import static com.opengamma.strata.math.impl.util.Epsilon.epsilonP;
 import static com.opengamma.strata.math.impl.util.Epsilon.epsilonPP;
 
 import java.time.LocalDate;
+import java.util.Optional;
 
 import com.google.common.collect.ImmutableMap;
 import com.opengamma.strata.basics.ReferenceData;
@@ -54,6 +55,10 @@ public class IsdaCdsProductPricer {
    * The omega parameter.
    */
   private final double omega;
+  /**
+   * The cache of integration schedules, null if not cached.
+   */
+  private final IsdaIntegrationScheduleCache scheduleCache;
 
   /**
    * Constructor specifying the formula to use for the accrued on default calculation.  
@@ -66,6 +71,25 @@ public class IsdaCdsProductPricer {
   public IsdaCdsProductPricer(AccrualOnDefaultFormula formula) {
     this.formula = ArgChecker.notNull(formula, "formula");
     this.omega = formula.getOmega();
+    this.scheduleCache = null;
+  }
+
+  /**
+   * Constructor specifying the formula and the cache of integration schedules.
+   * <p>
+   * The integration schedules of the protection leg and of the accrual-on-default are obtained from the cache,
+   * thus they are computed once for all of the CDSs with the same dates priced against curves with the same nodes.
+   * The integrals of the protection leg and of the accrual-on-default of each coupon are also obtained
+   * from the cache, thus they are computed once for all of the CDSs with the same dates priced against
+   * the same curves.
+   *
+   * @param formula  the formula
+   * @param scheduleCache  the cache of integration schedules
+   */
+  public IsdaCdsProductPricer(AccrualOnDefaultFormula formula, IsdaIntegrationScheduleCache scheduleCache) {
+    this.formula = ArgChecker.notNull(formula, "formula");
+    this.omega = formula.getOmega();
+    this.scheduleCache = ArgChecker.notNull(scheduleCache, "scheduleCache");
   }
 
   //-------------------------------------------------------------------------
@@ -78,6 +102,15 @@ public class IsdaCdsProductPricer {
     return formula;
   }
 
+  /**
+   * Gets the cache of integration schedules used in this pricer, if present. 
+   * 
+   * @return the cache, empty if the integration schedules are not cached
+   */
+  public Optional<IsdaIntegrationScheduleCache> getScheduleCache() {
+    return Optional.ofNullable(scheduleCache);
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Calculates the price of the CDS product, which is the present value per unit notional. 
@@ -484,11 +517,31 @@ public class IsdaCdsProductPricer {
       LocalDate referenceDate,
       LocalDate effectiveStartDate) {
 
-    DoubleArray integrationSchedule = DoublesScheduleGenerator.getIntegrationsPoints(
-        discountFactors.relativeYearFraction(effectiveStartDate),
-        discountFactors.relativeYearFraction(cds.getProtectionEndDate()),
-        discountFactors.getParameterKeys(),
-        survivalProbabilities.getParameterKeys());
+    double start = discountFactors.relativeYearFraction(effectiveStartDate);
+    double end = discountFactors.relativeYearFraction(cds.getProtectionEndDate());
+    double pv = scheduleCache == null ?
+        protectionIntegral(start, end, discountFactors, survivalProbabilities) :
+        scheduleCache.protectionTerm(
+            discountFactors,
+            survivalProbabilities,
+            start,
+            end,
+            () -> protectionIntegral(start, end, discountFactors, survivalProbabilities));
+    // roll to the cash settle date
+    double df = discountFactors.discountFactor(referenceDate);
+
+    return pv / df;
+  }
+
+  // computes the integral of the protection leg between the start and end times
+  private double protectionIntegral(
+      double start,
+      double end,
+      CreditDiscountFactors discountFactors,
+      LegalEntitySurvivalProbabilities survivalProbabilities) {
+
+    DoubleArray integrationSchedule = integrationsPoints(
+        start, end, discountFactors.getParameterKeys(), survivalProbabilities.getParameterKeys());
 
     double pv = 0d;
     double ht0 = survivalProbabilities.zeroRate(integrationSchedule.get(0)) * integrationSchedule.get(0);
@@ -515,10 +568,7 @@ public class IsdaCdsProductPricer {
       rt0 = rt1;
       b0 = b1;
     }
-    // roll to the cash settle date
-    double df = discountFactors.discountFactor(referenceDate);
-
-    return pv / df;
+    return pv;
   }
 
   // computes risky annuity
@@ -543,7 +593,7 @@ public class IsdaCdsProductPricer {
     if (cds.getPaymentOnDefault().isAccruedInterest()) {
       // This is needed so that the code is consistent with ISDA C when the Markit `fix' is used. 
       LocalDate start = cds.getPaymentPeriods().size() == 1 ? effectiveStartDate : cds.getAccrualStartDate();
-      DoubleArray integrationSchedule = DoublesScheduleGenerator.getIntegrationsPoints(
+      DoubleArray integrationSchedule = integrationsPoints(
           discountFactors.relativeYearFraction(start),
           discountFactors.relativeYearFraction(cds.getProtectionEndDate()),
           discountFactors.getParameterKeys(),
@@ -578,15 +628,46 @@ public class IsdaCdsProductPricer {
       return 0d; // this coupon has already expired
     }
 
-    DoubleArray knots = DoublesScheduleGenerator.truncateSetInclusive(discountFactors.relativeYearFraction(start),
-        discountFactors.relativeYearFraction(coupon.getEffectiveEndDate()), integrationSchedule);
+    double startTime = discountFactors.relativeYearFraction(start);
+    double endTime = discountFactors.relativeYearFraction(coupon.getEffectiveEndDate());
+    double effStart = discountFactors.relativeYearFraction(coupon.getEffectiveStartDate());
+    // the integration schedule is defined by its first and last points for given curves
+    double pv = scheduleCache == null ?
+        accrualOnDefaultIntegral(
+            startTime, effStart, endTime, integrationSchedule, discountFactors, survivalProbabilities) :
+        scheduleCache.accrualOnDefaultTerm(
+            formula,
+            discountFactors,
+            survivalProbabilities,
+            integrationSchedule.get(0),
+            integrationSchedule.get(integrationSchedule.size() - 1),
+            startTime,
+            effStart,
+            endTime,
+            () -> accrualOnDefaultIntegral(
+                startTime, effStart, endTime, integrationSchedule, discountFactors, survivalProbabilities));
+
+    double yearFractionCurve =
+        discountFactors.getDayCount().relativeYearFraction(coupon.getStartDate(), coupon.getEndDate());
+    return coupon.getYearFraction() * pv / yearFractionCurve;
+  }
+
+  // computes the integral of the accrual-on-default between the start and end times
+  private double accrualOnDefaultIntegral(
+      double startTime,
+      double effStart,
+      double endTime,
+      DoubleArray integrationSchedule,
+      CreditDiscountFactors discountFactors,
+      LegalEntitySurvivalProbabilities survivalProbabilities) {
+
+    DoubleArray knots = truncateSetInclusive(startTime, endTime, integrationSchedule);
 
     double t0Knot = knots.get(0);
     double ht0 = survivalProbabilities.zeroRate(t0Knot) * t0Knot;
     double rt0 = discountFactors.zeroRate(t0Knot) * t0Knot;
     double b0 = Math.exp(-rt0 - ht0);
 
-    double effStart = discountFactors.relativeYearFraction(coupon.getEffectiveStartDate());
     double t0 = t0Knot - effStart + omega;
     double pv = 0d;
     final int nItems = knots.size();
@@ -624,10 +705,7 @@ public class IsdaCdsProductPricer {
       rt0 = rt1;
       b0 = b1;
     }
-
-    double yearFractionCurve =
-        discountFactors.getDayCount().relativeYearFraction(coupon.getStartDate(), coupon.getEndDate());
-    return coupon.getYearFraction() * pv / yearFractionCurve;
+    return pv;
   }
 
   //-------------------------------------------------------------------------
@@ -639,7 +717,7 @@ public class IsdaCdsProductPricer {
       LocalDate effectiveStartDate,
       double recoveryRate) {
 
-    DoubleArray integrationSchedule = DoublesScheduleGenerator.getIntegrationsPoints(
+    DoubleArray integrationSchedule = integrationsPoints(
         discountFactors.relativeYearFraction(effectiveStartDate),
         discountFactors.relativeYearFraction(cds.getProtectionEndDate()),
         discountFactors.getParameterKeys(),
@@ -740,7 +818,7 @@ public class IsdaCdsProductPricer {
     if (cds.getPaymentOnDefault().isAccruedInterest()) {
       // This is needed so that the code is consistent with ISDA C when the Markit `fix' is used. 
       LocalDate start = cds.getPaymentPeriods().size() == 1 ? effectiveStartDate : cds.getAccrualStartDate();
-      DoubleArray integrationSchedule = DoublesScheduleGenerator.getIntegrationsPoints(
+      DoubleArray integrationSchedule = integrationsPoints(
           discountFactors.relativeYearFraction(start),
           discountFactors.relativeYearFraction(cds.getProtectionEndDate()),
           discountFactors.getParameterKeys(),
@@ -773,7 +851,7 @@ public class IsdaCdsProductPricer {
     if (!start.isBefore(coupon.getEffectiveEndDate())) {
       return Pair.of(0d, PointSensitivityBuilder.none()); //this coupon has already expired
     }
-    DoubleArray knots = DoublesScheduleGenerator.truncateSetInclusive(discountFactors.relativeYearFraction(start),
+    DoubleArray knots = truncateSetInclusive(discountFactors.relativeYearFraction(start),
         discountFactors.relativeYearFraction(coupon.getEffectiveEndDate()), integrationSchedule);
     // pv
     double pv = 0d;
@@ -867,6 +945,25 @@ public class IsdaCdsProductPricer {
   }
 
   //-------------------------------------------------------------------------
+  // combines the curve nodes, using the cache if present
+  private DoubleArray integrationsPoints(
+      double start,
+      double end,
+      DoubleArray discountCurveNodes,
+      DoubleArray creditCurveNodes) {
+
+    return scheduleCache == null ?
+        DoublesScheduleGenerator.getIntegrationsPoints(start, end, discountCurveNodes, creditCurveNodes) :
+        scheduleCache.getIntegrationsPoints(start, end, discountCurveNodes, creditCurveNodes);
+  }
+
+  // truncates the integration points, using the cache if present
+  private DoubleArray truncateSetInclusive(double lower, double upper, DoubleArray set) {
+    return scheduleCache == null ?
+        DoublesScheduleGenerator.truncateSetInclusive(lower, upper, set) :
+        scheduleCache.truncateSetInclusive(lower, upper, set);
+  }
+
   private boolean isExpired(ResolvedCds cds, CreditRatesProvider ratesProvider) {
     return !cds.getProtectionEndDate().isAfter(ratesProvider.getValuationDate());
   }
@@ -5,7 +5,10 @@
  */
 package com.opengamma.strata.pricer.credit;
 
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
 import java.time.LocalDate;
+import java.util.List;
 
 import com.google.common.collect.ImmutableMap;
 import com.opengamma.strata.basics.ReferenceData;
@@ -53,6 +56,18 @@ public class IsdaHomogenousCdsIndexProductPricer {
     this.underlyingPricer = new IsdaCdsProductPricer(formula);
   }
 
+  /**
+   * Constructor specifying the formula and the cache of integration schedules.
+   * <p>
+   * The cache can be shared across pricers and scenarios, see {@link IsdaIntegrationScheduleCache}.
+   * 
+   * @param formula  the formula
+   * @param scheduleCache  the cache of integration schedules
+   */
+  public IsdaHomogenousCdsIndexProductPricer(AccrualOnDefaultFormula formula, IsdaIntegrationScheduleCache scheduleCache) {
+    this.underlyingPricer = new IsdaCdsProductPricer(formula, scheduleCache);
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Gets the accrual-on-default formula used in this pricer. 
@@ -150,6 +165,70 @@ public class IsdaHomogenousCdsIndexProductPricer {
     return CurrencyAmount.of(cds.getCurrency(), amount);
   }
 
+  /**
+   * Calculates the present value of many CDS index products.
+   * <p>
+   * The products are priced as in {@link #presentValue(ResolvedCdsIndex, CreditRatesProvider, LocalDate, PriceType,
+   * ReferenceData)}, with the integration schedules, and the integrals of the protection leg and of
+   * the accrual-on-default of each coupon, computed once for the products sharing the same dates.
+   * If this pricer has no cache of integration schedules, a cache is created for the duration of the call.
+   * 
+   * @param cdsIndices  the products
+   * @param ratesProvider  the rates provider
+   * @param referenceDate  the reference date
+   * @param priceType  the price type
+   * @param refData  the reference data
+   * @return the present values, in the order of the products
+   */
+  public List<CurrencyAmount> presentValue(
+      List<ResolvedCdsIndex> cdsIndices,
+      CreditRatesProvider ratesProvider,
+      LocalDate referenceDate,
+      PriceType priceType,
+      ReferenceData refData) {
+
+    IsdaHomogenousCdsIndexProductPricer pricer = batchPricer();
+    return cdsIndices.stream()
+        .map(cdsIndex -> pricer.presentValue(cdsIndex, ratesProvider, referenceDate, priceType, refData))
+        .collect(toImmutableList());
+  }
+
+  /**
+   * Calculates the present value of the CDS index product for many scenarios.
+   * <p>
+   * The product is priced as in {@link #presentValue(ResolvedCdsIndex, CreditRatesProvider, LocalDate, PriceType,
+   * ReferenceData)} for each rates provider. The integration schedules are computed once for the scenarios
+   * whose curves share the same node sets, as is the case for shifted curves.
+   * The integrals are only shared between the scenarios with the same curves.
+   * If this pricer has no cache of integration schedules, a cache is created for the duration of the call.
+   * 
+   * @param cdsIndex  the product
+   * @param ratesProviders  the rates providers, one for each scenario
+   * @param referenceDate  the reference date
+   * @param priceType  the price type
+   * @param refData  the reference data
+   * @return the present values, in the order of the scenarios
+   */
+  public List<CurrencyAmount> presentValue(
+      ResolvedCdsIndex cdsIndex,
+      List<? extends CreditRatesProvider> ratesProviders,
+      LocalDate referenceDate,
+      PriceType priceType,
+      ReferenceData refData) {
+
+    IsdaHomogenousCdsIndexProductPricer pricer = batchPricer();
+    return ratesProviders.stream()
+        .map(ratesProvider -> pricer.presentValue(cdsIndex, ratesProvider, referenceDate, priceType, refData))
+        .collect(toImmutableList());
+  }
+
+  // the pricer used for batches, caching the integration schedules
+  private IsdaHomogenousCdsIndexProductPricer batchPricer() {
+    return underlyingPricer.getScheduleCache().isPresent() ?
+        this :
+        new IsdaHomogenousCdsIndexProductPricer(getAccrualOnDefaultFormula(), IsdaIntegrationScheduleCache.of());
+  }
+
   /**
    * Calculates the present value sensitivity of the product. 
    * <p>
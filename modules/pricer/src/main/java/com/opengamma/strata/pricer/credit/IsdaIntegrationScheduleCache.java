@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.credit;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.DoubleSupplier;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Cache of the integration schedules and integration terms used by the ISDA model.
+ * <p>
+ * The protection leg and the accrual-on-default of the premium leg are integrated over time points
+ * combining the discount curve nodes and the credit curve nodes, see {@link DoublesScheduleGenerator}.
+ * <p>
+ * The integration points depend only on the start and end times and on the node sets.
+ * They are keyed by the start and end times and by the identity of the node sets, thus the curves
+ * sharing the same node set instance share the integration points. This is typically the case of
+ * the scenarios of a CDS, where the curves are shifted but the nodes are unchanged.
+ * <p>
+ * The integration terms, which are the integrals of the protection leg and of the accrual-on-default
+ * of each coupon, are keyed by the start and end times and by the identity of the discount factors
+ * and survival probabilities. Thus the CDSs with the same dates priced against the same curves,
+ * typically the CDS indices of a series, compute each integral once.
+ * <p>
+ * The keys are hashed in constant time, whatever the number of nodes.
+ * The cache only holds weak references to the curves and node sets, thus it does not prevent them
+ * from being garbage collected. The entries whose curves have been collected are never matched again.
+ * The cache is bounded, the least recently used entries are evicted first.
+ * An instance can be shared between pricers and threads.
+ */
+public final class IsdaIntegrationScheduleCache {
+
+  /**
+   * Default maximum number of cached schedules, and of cached integration terms.
+   */
+  private static final int MAX_SIZE_DEFAULT = 10000;
+
+  /**
+   * The cache of integration points and truncated integration points.
+   */
+  private final Cache<Key, DoubleArray> schedules;
+  /**
+   * The cache of integration terms.
+   */
+  private final Cache<Key, Double> terms;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an empty cache with the default maximum size.
+   *
+   * @return the cache
+   */
+  public static IsdaIntegrationScheduleCache of() {
+    return new IsdaIntegrationScheduleCache(MAX_SIZE_DEFAULT);
+  }
+
+  /**
+   * Obtains an empty cache with the specified maximum size.
+   *
+   * @param maxSize  the maximum number of cached schedules, and of cached integration terms
+   * @return the cache
+   */
+  public static IsdaIntegrationScheduleCache of(int maxSize) {
+    return new IsdaIntegrationScheduleCache(maxSize);
+  }
+
+  private IsdaIntegrationScheduleCache(int maxSize) {
+    ArgChecker.notNegativeOrZero(maxSize, "maxSize");
+    this.schedules = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .build();
+    this.terms = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .build();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains the number of cached schedules and integration terms.
+   *
+   * @return the number of cached entries
+   */
+  public long getCacheSize() {
+    return schedules.size() + terms.size();
+  }
+
+  /**
+   * Obtains the number of cached schedules.
+   *
+   * @return the number of cached schedules
+   */
+  public long getScheduleCacheSize() {
+    return schedules.size();
+  }
+
+  /**
+   * Obtains the number of cached integration terms.
+   *
+   * @return the number of cached integration terms
+   */
+  public long getTermCacheSize() {
+    return terms.size();
+  }
+
+  /**
+   * Discards all of the cached schedules and integration terms.
+   */
+  public void clearCache() {
+    schedules.invalidateAll();
+    terms.invalidateAll();
+  }
+
+  //-------------------------------------------------------------------------
+  // combines the discount curve nodes and credit curve nodes, the node sets are compared by identity
+  DoubleArray getIntegrationsPoints(
+      double start,
+      double end,
+      DoubleArray discountCurveNodes,
+      DoubleArray creditCurveNodes) {
+
+    return get(
+        schedules,
+        new Key(KeyType.SCHEDULE, discountCurveNodes, creditCurveNodes, start, end),
+        () -> DoublesScheduleGenerator.getIntegrationsPoints(start, end, discountCurveNodes, creditCurveNodes));
+  }
+
+  // truncates the integration points, the integration points are compared by identity
+  DoubleArray truncateSetInclusive(double lower, double upper, DoubleArray set) {
+    return get(
+        schedules,
+        new Key(KeyType.TRUNCATION, set, null, lower, upper),
+        () -> DoublesScheduleGenerator.truncateSetInclusive(lower, upper, set));
+  }
+
+  // the integral of the protection leg between the start and end times
+  double protectionTerm(
+      CreditDiscountFactors discountFactors,
+      LegalEntitySurvivalProbabilities survivalProbabilities,
+      double start,
+      double end,
+      DoubleSupplier integral) {
+
+    return get(
+        terms,
+        new Key(KeyType.PROTECTION, discountFactors, survivalProbabilities, start, end),
+        integral::getAsDouble);
+  }
+
+  // the integral of the accrual-on-default of a coupon, the schedule being defined by its start and end times
+  double accrualOnDefaultTerm(
+      AccrualOnDefaultFormula formula,
+      CreditDiscountFactors discountFactors,
+      LegalEntitySurvivalProbabilities survivalProbabilities,
+      double scheduleStart,
+      double scheduleEnd,
+      double start,
+      double effectiveStart,
+      double end,
+      DoubleSupplier integral) {
+
+    return get(
+        terms,
+        new Key(formula, discountFactors, survivalProbabilities, scheduleStart, scheduleEnd, start, effectiveStart, end),
+        integral::getAsDouble);
+  }
+
+  // obtains the cached value, computing it if absent
+  private static <T> T get(Cache<Key, T> cache, Key key, Callable<T> loader) {
+    try {
+      return cache.get(key, loader);
+    } catch (ExecutionException | UncheckedExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  // the types of cached values, the accrual-on-default terms are keyed by formula instead
+  private enum KeyType {
+    SCHEDULE,
+    TRUNCATION,
+    PROTECTION;
+  }
+
+  // the key of the cache, the objects are weakly referenced and compared by identity, the second may be null
+  private static final class Key {
+    private final Object type;
+    private final WeakReference<Object> first;
+    private final WeakReference<Object> second;
+    private final double[] times;
+    private final int hashCode;
+
+    private Key(Object type, Object first, Object second, double... times) {
+      this.type = type;
+      this.first = new WeakReference<>(first);
+      this.second = second == null ? null : new WeakReference<>(second);
+      this.times = times;
+      this.hashCode = ((type.hashCode() * 31 + System.identityHashCode(first)) * 31 +
+          System.identityHashCode(second)) * 31 + Arrays.hashCode(times);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (obj instanceof Key) {
+        Key other = (Key) obj;
+        return type == other.type &&
+            hashCode == other.hashCode &&
+            sameReferent(first, other.first) &&
+            sameReferent(second, other.second) &&
+            Arrays.equals(times, other.times);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    // the referents must not have been collected
+    private static boolean sameReferent(WeakReference<Object> reference, WeakReference<Object> otherReference) {
+      if (reference == null || otherReference == null) {
+        return reference == otherReference;
+      }
+      Object referent = reference.get();
+      return referent != null && referent == otherReference.get();
+    }
+  }
+
+}
@@ -13,6 +13,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 
 import org.joda.beans.Bean;
 import org.joda.beans.ImmutableBean;
@@ -20,17 +21,22 @@ import org.joda.beans.JodaBeanUtils;
 import org.joda.beans.MetaBean;
 import org.joda.beans.MetaProperty;
 import org.joda.beans.gen.BeanDefinition;
+import org.joda.beans.gen.ImmutableConstructor;
 import org.joda.beans.gen.PropertyDefinition;
 import org.joda.beans.impl.direct.DirectFieldsBeanBuilder;
 import org.joda.beans.impl.direct.DirectMetaBean;
 import org.joda.beans.impl.direct.DirectMetaProperty;
 import org.joda.beans.impl.direct.DirectMetaPropertyMap;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.opengamma.strata.basics.currency.CurrencyPair;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.array.DoubleMatrix;
 import com.opengamma.strata.data.MarketDataName;
+import com.opengamma.strata.market.curve.interpolator.BoundCurveInterpolator;
 import com.opengamma.strata.market.option.DeltaStrike;
 import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
 import com.opengamma.strata.market.param.CurrencyParameterSensitivity;
@@ -52,6 +58,11 @@ import com.opengamma.strata.product.common.PutCall;
 public final class BlackFxOptionSmileVolatilities
     implements BlackFxOptionVolatilities, ImmutableBean, Serializable {
 
+  /**
+   * The maximum number of expiries with a memoised smile.
+   */
+  private static final int MAX_CACHED_EXPIRIES = 1000;
+
   /**
    * The name of the volatilities.
    */
@@ -76,6 +87,10 @@ public final class BlackFxOptionSmileVolatilities
    */
   @PropertyDefinition(validate = "notNull")
   private final SmileDeltaTermStructure smile;
+  /**
+   * The smiles at the expiries queried so far, keyed by expiry time.
+   */
+  private final transient Cache<Double, ExpirySmile> smileCache;  // cached, not a property
 
   //-------------------------------------------------------------------------
   /**
@@ -96,6 +111,31 @@ public final class BlackFxOptionSmileVolatilities
     return new BlackFxOptionSmileVolatilities(name, currencyPair, valuationTime, smile);
   }
 
+  @ImmutableConstructor
+  private BlackFxOptionSmileVolatilities(
+      FxOptionVolatilitiesName name,
+      CurrencyPair currencyPair,
+      ZonedDateTime valuationDateTime,
+      SmileDeltaTermStructure smile) {
+
+    JodaBeanUtils.notNull(name, "name");
+    JodaBeanUtils.notNull(currencyPair, "currencyPair");
+    JodaBeanUtils.notNull(valuationDateTime, "valuationDateTime");
+    JodaBeanUtils.notNull(smile, "smile");
+    this.name = name;
+    this.currencyPair = currencyPair;
+    this.valuationDateTime = valuationDateTime;
+    this.smile = smile;
+    this.smileCache = CacheBuilder.newBuilder()
+        .maximumSize(MAX_CACHED_EXPIRIES)
+        .build();
+  }
+
+  // ensure standard constructor is invoked
+  private Object readResolve() {
+    return new BlackFxOptionSmileVolatilities(name, currencyPair, valuationDateTime, smile);
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public <T> Optional<T> findData(MarketDataName<T> name) {
@@ -133,12 +173,20 @@ public final class BlackFxOptionSmileVolatilities
   }
 
   //-------------------------------------------------------------------------
+  /**
+   * {@inheritDoc}
+   * <p>
+   * If the smile is an {@link InterpolatedStrikeSmileDeltaTermStructure}, the smile at the expiry,
+   * interpolated in time from the term structure, is memoised by expiry time, together with the strikes
+   * of the smile for the last forward queried at that expiry.
+   * Options sharing the same expiry are thus priced without interpolating the term structure again.
+   */
   @Override
   public double volatility(CurrencyPair currencyPair, double expiryTime, double strike, double forward) {
     if (currencyPair.isInverse(this.currencyPair)) {
-      return smile.volatility(expiryTime, 1d / strike, 1d / forward);
+      return smileVolatility(expiryTime, 1d / strike, 1d / forward);
     }
-    return smile.volatility(expiryTime, strike, forward);
+    return smileVolatility(expiryTime, strike, forward);
   }
 
   @Override
@@ -160,7 +208,7 @@ public final class BlackFxOptionSmileVolatilities
     double strike = currencyPair.isInverse(point.getCurrencyPair()) ? 1d / point.getStrike() : point.getStrike();
     double forward = currencyPair.isInverse(point.getCurrencyPair()) ? 1d / point.getForward() : point.getForward();
     double pointValue = point.getSensitivity();
-    DoubleMatrix bucketedSensi = smile.volatilityAndSensitivities(expiryTime, strike, forward).getSensitivities();
+    DoubleMatrix bucketedSensi = smileSensitivities(expiryTime, strike, forward);
     double[] times = smile.getExpiries().toArray();
     int nTimes = times.length;
     List<Double> sensiList = new ArrayList<Double>();
@@ -186,6 +234,45 @@ public final class BlackFxOptionSmileVolatilities
     return CurrencyParameterSensitivity.of(name, paramList, point.getCurrency(), DoubleArray.copyOf(sensiList));
   }
 
+  // the volatility in the currency pair of the smile
+  private double smileVolatility(double expiryTime, double strike, double forward) {
+    if (smile instanceof InterpolatedStrikeSmileDeltaTermStructure) {
+      return smileInterpolator((InterpolatedStrikeSmileDeltaTermStructure) smile, expiryTime, forward)
+          .interpolate(strike);
+    }
+    return smile.volatility(expiryTime, strike, forward);
+  }
+
+  // the sensitivity of the volatility to the volatility data points, in the currency pair of the smile
+  private DoubleMatrix smileSensitivities(double expiryTime, double strike, double forward) {
+    if (smile instanceof InterpolatedStrikeSmileDeltaTermStructure) {
+      DoubleArray smileVolatilityBar =
+          smileInterpolator((InterpolatedStrikeSmileDeltaTermStructure) smile, expiryTime, forward)
+              .parameterSensitivity(strike);
+      return smile.smileAndSensitivitiesForExpiry(expiryTime, smileVolatilityBar).getSensitivities();
+    }
+    return smile.volatilityAndSensitivities(expiryTime, strike, forward).getSensitivities();
+  }
+
+  // the strike interpolator of the smile at the expiry, using the memoised smile
+  private BoundCurveInterpolator smileInterpolator(
+      InterpolatedStrikeSmileDeltaTermStructure termStructure,
+      double expiryTime,
+      double forward) {
+
+    ArgChecker.isTrue(expiryTime >= 0, "Positive time");
+    ExpirySmile expirySmile;
+    try {
+      expirySmile = smileCache.get(expiryTime, () -> new ExpirySmile(termStructure.smileForExpiry(expiryTime)));
+    } catch (ExecutionException | UncheckedExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw new IllegalStateException(ex.getCause());
+    }
+    return expirySmile.interpolator(termStructure, forward);
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public double price(double expiry, PutCall putCall, double strike, double forward, double volatility) {
@@ -201,6 +288,62 @@ public final class BlackFxOptionSmileVolatilities
     return smile.getDayCount().relativeYearFraction(valuationDate, date);
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * The smile at an expiry, with the strikes for the last forward.
+   * <p>
+   * The strikes depend on the forward, which is usually the same for all the options of a given expiry.
+   * The interpolator is replaced when a different forward is queried, which is safe as it is immutable.
+   */
+  private static final class ExpirySmile {
+
+    /**
+     * The smile at the expiry.
+     */
+    private final SmileDeltaParameters smile;
+    /**
+     * The strike interpolator for the last forward, null if none.
+     */
+    private volatile StrikeInterpolator last;
+
+    private ExpirySmile(SmileDeltaParameters smile) {
+      this.smile = smile;
+    }
+
+    // obtains the strike interpolator for the forward
+    private BoundCurveInterpolator interpolator(
+        InterpolatedStrikeSmileDeltaTermStructure termStructure,
+        double forward) {
+
+      StrikeInterpolator current = last;
+      if (current == null || current.forward != forward) {
+        current = new StrikeInterpolator(forward, termStructure.bindStrikes(smile, forward));
+        last = current;
+      }
+      return current.interpolator;
+    }
+  }
+
+  /**
+   * The strike interpolator of a smile for a forward.
+   */
+  private static final class StrikeInterpolator {
+
+    /**
+     * The forward.
+     */
+    private final double forward;
+    /**
+     * The interpolator bound to the strikes.
+     */
+    private final BoundCurveInterpolator interpolator;
+
+    private StrikeInterpolator(double forward, BoundCurveInterpolator interpolator) {
+      this.forward = forward;
+      this.interpolator = interpolator;
+    }
+  }
+
   //------------------------- AUTOGENERATED START -------------------------
   /**
    * The meta-bean for {@code BlackFxOptionSmileVolatilities}.
@@ -227,21 +370,6 @@ public final class BlackFxOptionSmileVolatilities
     return new BlackFxOptionSmileVolatilities.Builder();
   }
 
-  private BlackFxOptionSmileVolatilities(
-      FxOptionVolatilitiesName name,
-      CurrencyPair currencyPair,
-      ZonedDateTime valuationDateTime,
-      SmileDeltaTermStructure smile) {
-    JodaBeanUtils.notNull(name, "name");
-    JodaBeanUtils.notNull(currencyPair, "currencyPair");
-    JodaBeanUtils.notNull(valuationDateTime, "valuationDateTime");
-    JodaBeanUtils.notNull(smile, "smile");
-    this.name = name;
-    this.currencyPair = currencyPair;
-    this.valuationDateTime = valuationDateTime;
-    this.smile = smile;
-  }
-
   @Override
   public BlackFxOptionSmileVolatilities.Meta metaBean() {
     return BlackFxOptionSmileVolatilities.Meta.INSTANCE;
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.fxopt;
+
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.opengamma.strata.basics.currency.CurrencyPair;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.market.surface.InterpolatedNodalSurface;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+
+/**
+ * Calibrator of implied trinomial trees that caches the calibrated trees and local volatility surfaces.
+ * <p>
+ * The calibration of the local volatility tree is the dominant cost of pricing under implied trinomial tree.
+ * This calibrator keeps the calibrated trees and local volatility surfaces, keyed by the currency pair,
+ * the time to expiry, and the identity of the rates provider and volatilities.
+ * The number of time steps is fixed for a calibrator, thus completing the tree parameters of the key.
+ * Options on the same currency pair with the same expiry, priced against the same market data instances,
+ * thus share a single calibrated tree.
+ * <p>
+ * The market data is compared by identity, not by equality, as the market data is immutable
+ * and the equality check would be as expensive as a calibration in the worst case.
+ * The market data is only weakly referenced by the cache, thus the cached trees do not prevent
+ * the rates provider and volatilities from being garbage collected. The entries whose market data
+ * has been collected are never matched again.
+ * The cache is bounded, the least recently used trees are evicted first.
+ */
+public class CachingImpliedTrinomialTreeFxOptionCalibrator
+    extends ImpliedTrinomialTreeFxOptionCalibrator {
+
+  /**
+   * Default maximum number of cached trees, and of cached local volatility surfaces.
+   */
+  private static final int MAX_SIZE_DEFAULT = 1000;
+
+  /**
+   * The cache of calibrated trees.
+   */
+  private final Cache<TreeKey, RecombiningTrinomialTreeData> cache;
+  /**
+   * The cache of calibrated local volatility surfaces.
+   */
+  private final Cache<TreeKey, InterpolatedNodalSurface> localVolatilityCache;
+
+  /**
+   * Calibrator with the specified number of time steps and the default cache size.
+   *
+   * @param nSteps  number of time steps
+   */
+  public CachingImpliedTrinomialTreeFxOptionCalibrator(int nSteps) {
+    this(nSteps, MAX_SIZE_DEFAULT);
+  }
+
+  /**
+   * Calibrator with the specified number of time steps and cache size.
+   *
+   * @param nSteps  number of time steps
+   * @param maxSize  the maximum number of cached trees
+   */
+  public CachingImpliedTrinomialTreeFxOptionCalibrator(int nSteps, int maxSize) {
+    this(nSteps, maxSize, false);
+  }
+
+  /**
+   * Calibrator with the specified number of time steps and cache size,
+   * calibrating the time slices in parallel if required.
+   *
+   * @param nSteps  number of time steps
+   * @param maxSize  the maximum number of cached trees, and of cached local volatility surfaces
+   * @param parallel  whether the time slices of the tree are calibrated in parallel
+   */
+  public CachingImpliedTrinomialTreeFxOptionCalibrator(int nSteps, int maxSize, boolean parallel) {
+    super(nSteps, parallel);
+    ArgChecker.notNegativeOrZero(maxSize, "maxSize");
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .build();
+    this.localVolatilityCache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .build();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calibrate trinomial tree to Black volatilities, returning the cached tree if available.
+   *
+   * @param timeToExpiry  the time to expiry
+   * @param currencyPair  the currency pair
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the trinomial tree data
+   */
+  @Override
+  public RecombiningTrinomialTreeData calibrateTrinomialTree(
+      double timeToExpiry,
+      CurrencyPair currencyPair,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities) {
+
+    TreeKey key = new TreeKey(timeToExpiry, currencyPair, ratesProvider, volatilities);
+    return cached(
+        cache, key, () -> super.calibrateTrinomialTree(timeToExpiry, currencyPair, ratesProvider, volatilities));
+  }
+
+  /**
+   * Calibrate local volatility surface to Black volatilities, returning the cached surface if available.
+   *
+   * @param timeToExpiry  the time to expiry
+   * @param currencyPair  the currency pair
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the local volatility surface
+   */
+  @Override
+  public InterpolatedNodalSurface calibrateLocalVolatility(
+      double timeToExpiry,
+      CurrencyPair currencyPair,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities) {
+
+    TreeKey key = new TreeKey(timeToExpiry, currencyPair, ratesProvider, volatilities);
+    return cached(
+        localVolatilityCache,
+        key,
+        () -> super.calibrateLocalVolatility(timeToExpiry, currencyPair, ratesProvider, volatilities));
+  }
+
+  /**
+   * Obtains the number of cached trees.
+   *
+   * @return the number of cached trees
+   */
+  public long getCacheSize() {
+    return cache.size();
+  }
+
+  /**
+   * Obtains the number of cached local volatility surfaces.
+   *
+   * @return the number of cached local volatility surfaces
+   */
+  public long getLocalVolatilityCacheSize() {
+    return localVolatilityCache.size();
+  }
+
+  /**
+   * Discards all of the cached trees and local volatility surfaces.
+   */
+  public void clearCache() {
+    cache.invalidateAll();
+    localVolatilityCache.invalidateAll();
+  }
+
+  //-------------------------------------------------------------------------
+  // obtains the cached value, calibrating it if absent
+  private static <T> T cached(Cache<TreeKey, T> cache, TreeKey key, Callable<T> calibration) {
+    try {
+      return cache.get(key, calibration);
+    } catch (ExecutionException | UncheckedExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  // the key of the cache, market data is weakly referenced and compared by identity
+  private static final class TreeKey {
+    private final double timeToExpiry;
+    private final CurrencyPair currencyPair;
+    private final WeakReference<RatesProvider> ratesProvider;
+    private final WeakReference<BlackFxOptionVolatilities> volatilities;
+    private final int hashCode;
+
+    private TreeKey(
+        double timeToExpiry,
+        CurrencyPair currencyPair,
+        RatesProvider ratesProvider,
+        BlackFxOptionVolatilities volatilities) {
+
+      this.timeToExpiry = timeToExpiry;
+      this.currencyPair = currencyPair;
+      this.ratesProvider = new WeakReference<>(ratesProvider);
+      this.volatilities = new WeakReference<>(volatilities);
+      this.hashCode = Objects.hash(timeToExpiry, currencyPair) * 31 +
+          System.identityHashCode(ratesProvider) * 17 + System.identityHashCode(volatilities);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (obj instanceof TreeKey) {
+        TreeKey other = (TreeKey) obj;
+        RatesProvider provider = ratesProvider.get();
+        BlackFxOptionVolatilities vols = volatilities.get();
+        return provider != null && vols != null &&
+            Double.doubleToLongBits(timeToExpiry) == Double.doubleToLongBits(other.timeToExpiry) &&
+            currencyPair.equals(other.currencyPair) &&
+            provider == other.ratesProvider.get() &&
+            vols == other.volatilities.get();
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.fxopt;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.market.sensitivity.PointSensitivities;
+
+/**
+ * The present values and sensitivities of a list of FX vanilla options.
+ * <p>
+ * The values are computed together, in a single pass over the options, and are in the order of the options.
+ * For each option, the rates sensitivity is the present value sensitivity to the curves
+ * and the volatility sensitivity is the present value sensitivity to the Black volatilities.
+ * The latter can be converted to bucketed vega using
+ * {@link BlackFxOptionSmileVolatilities#parameterSensitivity(PointSensitivities)}.
+ */
+public final class FxVanillaOptionBatchValues {
+
+  /**
+   * The present values.
+   */
+  private final ImmutableList<CurrencyAmount> presentValues;
+  /**
+   * The present value sensitivities to the curves.
+   */
+  private final ImmutableList<PointSensitivities> ratesSensitivities;
+  /**
+   * The present value sensitivities to the volatilities.
+   */
+  private final ImmutableList<PointSensitivities> volatilitySensitivities;
+
+  /**
+   * Creates an instance.
+   *
+   * @param presentValues  the present values
+   * @param ratesSensitivities  the present value sensitivities to the curves
+   * @param volatilitySensitivities  the present value sensitivities to the volatilities
+   * @return the instance
+   */
+  public static FxVanillaOptionBatchValues of(
+      List<CurrencyAmount> presentValues,
+      List<PointSensitivities> ratesSensitivities,
+      List<PointSensitivities> volatilitySensitivities) {
+
+    return new FxVanillaOptionBatchValues(presentValues, ratesSensitivities, volatilitySensitivities);
+  }
+
+  // restricted constructor
+  private FxVanillaOptionBatchValues(
+      List<CurrencyAmount> presentValues,
+      List<PointSensitivities> ratesSensitivities,
+      List<PointSensitivities> volatilitySensitivities) {
+
+    ArgChecker.isTrue(presentValues.size() == ratesSensitivities.size(),
+        "presentValues and ratesSensitivities must have the same size");
+    ArgChecker.isTrue(presentValues.size() == volatilitySensitivities.size(),
+        "presentValues and volatilitySensitivities must have the same size");
+    this.presentValues = ImmutableList.copyOf(presentValues);
+    this.ratesSensitivities = ImmutableList.copyOf(ratesSensitivities);
+    this.volatilitySensitivities = ImmutableList.copyOf(volatilitySensitivities);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of options.
+   *
+   * @return the number of options
+   */
+  public int getOptionCount() {
+    return presentValues.size();
+  }
+
+  /**
+   * Gets the present values, in the order of the options.
+   *
+   * @return the present values
+   */
+  public ImmutableList<CurrencyAmount> getPresentValues() {
+    return presentValues;
+  }
+
+  /**
+   * Gets the present value sensitivities to the curves, in the order of the options.
+   *
+   * @return the sensitivities
+   */
+  public ImmutableList<PointSensitivities> getRatesSensitivities() {
+    return ratesSensitivities;
+  }
+
+  /**
+   * Gets the present value sensitivities to the volatilities, in the order of the options.
+   *
+   * @return the sensitivities
+   */
+  public ImmutableList<PointSensitivities> getVolatilitySensitivities() {
+    return volatilitySensitivities;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "FxVanillaOptionBatchValues[" + presentValues.size() + " options]";
+  }
+
+}
@@ -11,8 +11,11 @@ import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.CurrencyPair;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.tuple.DoublesPair;
+import com.opengamma.strata.market.surface.InterpolatedNodalSurface;
+import com.opengamma.strata.market.surface.SurfaceName;
 import com.opengamma.strata.pricer.DiscountFactors;
 import com.opengamma.strata.pricer.impl.volatility.local.ImpliedTrinomialTreeLocalVolatilityCalculator;
+import com.opengamma.strata.pricer.impl.volatility.local.LocalVolatilityGridSampler;
 import com.opengamma.strata.pricer.rate.RatesProvider;
 import com.opengamma.strata.product.fxopt.ResolvedFxVanillaOption;
 
@@ -25,6 +28,10 @@ public class ImpliedTrinomialTreeFxOptionCalibrator {
    * Number of time steps.
    */
   private final int nSteps;
+  /**
+   * Whether the time slices of the tree are calibrated in parallel.
+   */
+  private final boolean parallel;
 
   /**
    * Calibrator with the specified number of time steps.
@@ -32,8 +39,21 @@ public class ImpliedTrinomialTreeFxOptionCalibrator {
    * @param nSteps  number of time steps
    */
   public ImpliedTrinomialTreeFxOptionCalibrator(int nSteps) {
+    this(nSteps, false);
+  }
+
+  /**
+   * Calibrator with the specified number of time steps, calibrating the time slices in parallel if required.
+   * <p>
+   * See {@link ImpliedTrinomialTreeLocalVolatilityCalculator#parallel()}.
+   * 
+   * @param nSteps  number of time steps
+   * @param parallel  whether the time slices of the tree are calibrated in parallel
+   */
+  public ImpliedTrinomialTreeFxOptionCalibrator(int nSteps, boolean parallel) {
     ArgChecker.isTrue(nSteps > 1, "the number of steps should be greater than 1");
     this.nSteps = nSteps;
+    this.parallel = parallel;
   }
 
   //-------------------------------------------------------------------------
@@ -46,6 +66,15 @@ public class ImpliedTrinomialTreeFxOptionCalibrator {
     return nSteps;
   }
 
+  /**
+   * Checks if the time slices of the tree are calibrated in parallel.
+   * 
+   * @return true if the time slices are calibrated in parallel
+   */
+  public boolean isParallel() {
+    return parallel;
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Calibrate trinomial tree to Black volatilities by using a vanilla option.
@@ -86,6 +115,49 @@ public class ImpliedTrinomialTreeFxOptionCalibrator {
       RatesProvider ratesProvider,
       BlackFxOptionVolatilities volatilities) {
 
+    return calibrate(timeToExpiry, currencyPair, ratesProvider, volatilities,
+        (localVol, impliedVolSurface, spot, interestRate, dividendRate) ->
+            localVol.calibrateImpliedVolatility(impliedVolSurface, spot, interestRate, dividendRate));
+  }
+
+  /**
+   * Calibrate local volatility surface to Black volatilities.
+   * <p>
+   * The local volatility surface of the implied trinomial tree is sampled on a uniform grid,
+   * with one time per time step and two strikes per time step, using {@link LocalVolatilityGridSampler}.
+   * The resulting surface is interpolated bilinearly between the grid points.
+   * <p>
+   * {@code timeToExpiry} determines the coverage of the resulting surface.
+   * 
+   * @param timeToExpiry  the time to expiry
+   * @param currencyPair  the currency pair
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the local volatility surface
+   */
+  public InterpolatedNodalSurface calibrateLocalVolatility(
+      double timeToExpiry,
+      CurrencyPair currencyPair,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities) {
+
+    SurfaceName surfaceName = SurfaceName.of("localVol_" + volatilities.getName());
+    InterpolatedNodalSurface localVolSurface = calibrate(timeToExpiry, currencyPair, ratesProvider, volatilities,
+        (localVol, impliedVolSurface, spot, interestRate, dividendRate) ->
+            localVol.localVolatilityFromImpliedVolatility(
+                impliedVolSurface, spot, interestRate, dividendRate, surfaceName));
+    return LocalVolatilityGridSampler.sample(localVolSurface, nSteps, 2 * nSteps + 1);
+  }
+
+  //-------------------------------------------------------------------------
+  // applies the calibration to the market data of the currency pair
+  private <T> T calibrate(
+      double timeToExpiry,
+      CurrencyPair currencyPair,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities,
+      Calibration<T> calibration) {
+
     validate(ratesProvider, volatilities);
     if (timeToExpiry <= 0d) {
       throw new IllegalArgumentException("option expired");
@@ -118,10 +190,12 @@ public class ImpliedTrinomialTreeFxOptionCalibrator {
     };
     ImpliedTrinomialTreeLocalVolatilityCalculator localVol =
         new ImpliedTrinomialTreeLocalVolatilityCalculator(nSteps, timeToExpiry);
-    return localVol.calibrateImpliedVolatility(impliedVolSurface, todayFx, interestRate, dividendRate);
+    if (parallel) {
+      localVol = localVol.parallel();
+    }
+    return calibration.apply(localVol, impliedVolSurface, todayFx, interestRate, dividendRate);
   }
 
-  //-------------------------------------------------------------------------
   private void validate(
       RatesProvider ratesProvider,
       BlackFxOptionVolatilities volatilities) {
@@ -131,4 +205,14 @@ public class ImpliedTrinomialTreeFxOptionCalibrator {
         "Volatility and rate data must be for the same date");
   }
 
+  // the calibration using the implied volatility and rates of a currency pair
+  private interface Calibration<T> {
+    T apply(
+        ImpliedTrinomialTreeLocalVolatilityCalculator localVol,
+        Function<DoublesPair, Double> impliedVolSurface,
+        double spot,
+        Function<Double, Double> interestRate,
+        Function<Double, Double> dividendRate);
+  }
+
 }
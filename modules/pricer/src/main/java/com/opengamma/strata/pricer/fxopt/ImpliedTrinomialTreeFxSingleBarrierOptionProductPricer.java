@@ -5,11 +5,15 @@
  */
 package com.opengamma.strata.pricer.fxopt;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.math.DoubleMath;
 import com.opengamma.strata.basics.currency.Currency;
@@ -19,11 +23,13 @@ import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
 import com.opengamma.strata.basics.value.ValueDerivatives;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.tuple.Pair;
 import com.opengamma.strata.market.curve.Curve;
 import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
 import com.opengamma.strata.pricer.DiscountFactors;
 import com.opengamma.strata.pricer.impl.tree.ConstantContinuousSingleBarrierKnockoutFunction;
 import com.opengamma.strata.pricer.impl.tree.EuropeanVanillaOptionFunction;
+import com.opengamma.strata.pricer.impl.tree.OptionFunction;
 import com.opengamma.strata.pricer.impl.tree.TrinomialTree;
 import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
 import com.opengamma.strata.pricer.rate.RatesProvider;
@@ -82,6 +88,17 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
     this.calibrator = new ImpliedTrinomialTreeFxOptionCalibrator(nSteps);
   }
 
+  /**
+   * Pricer with the specified calibrator.
+   * <p>
+   * Use {@link CachingImpliedTrinomialTreeFxOptionCalibrator} to share the calibrated trees between calls.
+   * 
+   * @param calibrator  the calibrator
+   */
+  public ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer(ImpliedTrinomialTreeFxOptionCalibrator calibrator) {
+    this.calibrator = ArgChecker.notNull(calibrator, "calibrator");
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Obtains the calibrator.
@@ -321,6 +338,60 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
     return MultiCurrencyAmount.of(domestic, foreign);
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the price of a list of FX barrier option products.
+   * <p>
+   * The options are grouped by currency pair and expiry. The trinomial tree is calibrated once per group,
+   * then all of the options of the group are priced in a single backward induction over the calibrated tree.
+   * If the calibrator caches the trees, see {@link CachingImpliedTrinomialTreeFxOptionCalibrator},
+   * the calibrated trees are also shared across calls.
+   * <p>
+   * The price of each product is the same as {@link #price(ResolvedFxSingleBarrierOption, RatesProvider, BlackFxOptionVolatilities)}.
+   * 
+   * @param options  the option products
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the prices of the products, in the order of the options
+   */
+  public DoubleArray price(
+      List<ResolvedFxSingleBarrierOption> options,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities) {
+
+    List<ValueDerivatives> priceDerivatives = priceDerivatives(options, ratesProvider, volatilities);
+    return DoubleArray.of(options.size(), i -> priceDerivatives.get(i).getValue());
+  }
+
+  /**
+   * Calculates the present value of a list of FX barrier option products.
+   * <p>
+   * The options are grouped by currency pair and expiry. The trinomial tree is calibrated once per group,
+   * then all of the options of the group are priced in a single backward induction over the calibrated tree.
+   * <p>
+   * The present value of each product is the same as 
+   * {@link #presentValue(ResolvedFxSingleBarrierOption, RatesProvider, BlackFxOptionVolatilities)}.
+   * 
+   * @param options  the option products
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the present values of the products, in the order of the options
+   */
+  public List<CurrencyAmount> presentValue(
+      List<ResolvedFxSingleBarrierOption> options,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities) {
+
+    List<ValueDerivatives> priceDerivatives = priceDerivatives(options, ratesProvider, volatilities);
+    ImmutableList.Builder<CurrencyAmount> builder = ImmutableList.builder();
+    for (int i = 0; i < options.size(); ++i) {
+      ResolvedFxVanillaOption underlyingOption = options.get(i).getUnderlyingOption();
+      builder.add(CurrencyAmount.of(
+          underlyingOption.getCounterCurrency(), signedNotional(underlyingOption) * priceDerivatives.get(i).getValue()));
+    }
+    return builder.build();
+  }
+
   //-------------------------------------------------------------------------
   private ValueDerivatives priceDerivatives(
       ResolvedFxSingleBarrierOption option,
@@ -330,6 +401,64 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
 
     validate(option, ratesProvider, volatilities);
     validateData(option, ratesProvider, volatilities, data);
+    TreeFunctions functions = treeFunctions(option, ratesProvider, data);
+    ValueDerivatives barrierPrice = TREE.optionPriceAdjoint(functions.barrierFunction, data);
+    if (functions.vanillaFunction != null) {
+      ValueDerivatives vanillaPrice = TREE.optionPriceAdjoint(functions.vanillaFunction, data);
+      return functions.combine(barrierPrice, vanillaPrice);
+    }
+    return barrierPrice;
+  }
+
+  // prices the options in batch, grouped by currency pair and time to expiry
+  private List<ValueDerivatives> priceDerivatives(
+      List<ResolvedFxSingleBarrierOption> options,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities) {
+
+    Map<Pair<CurrencyPair, Double>, List<Integer>> groups = new LinkedHashMap<>();
+    for (int i = 0; i < options.size(); ++i) {
+      ResolvedFxSingleBarrierOption option = options.get(i);
+      validate(option, ratesProvider, volatilities);
+      ResolvedFxVanillaOption underlyingOption = option.getUnderlyingOption();
+      Pair<CurrencyPair, Double> key = Pair.of(
+          underlyingOption.getUnderlying().getCurrencyPair(), volatilities.relativeTime(underlyingOption.getExpiry()));
+      groups.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+    }
+    ValueDerivatives[] result = new ValueDerivatives[options.size()];
+    for (Entry<Pair<CurrencyPair, Double>, List<Integer>> group : groups.entrySet()) {
+      RecombiningTrinomialTreeData data = calibrator.calibrateTrinomialTree(
+          group.getKey().getSecond(), group.getKey().getFirst(), ratesProvider, volatilities);
+      List<Integer> indices = group.getValue();
+      List<TreeFunctions> treeFunctions = new ArrayList<>(indices.size());
+      List<OptionFunction> functions = new ArrayList<>();
+      for (int index : indices) {
+        TreeFunctions optionFunctions = treeFunctions(options.get(index), ratesProvider, data);
+        treeFunctions.add(optionFunctions);
+        functions.add(optionFunctions.barrierFunction);
+        if (optionFunctions.vanillaFunction != null) {
+          functions.add(optionFunctions.vanillaFunction);
+        }
+      }
+      List<ValueDerivatives> prices = TREE.optionPriceAdjoint(functions, data);
+      int position = 0;
+      for (int j = 0; j < indices.size(); ++j) {
+        TreeFunctions optionFunctions = treeFunctions.get(j);
+        ValueDerivatives barrierPrice = prices.get(position++);
+        result[indices.get(j)] = optionFunctions.vanillaFunction != null ?
+            optionFunctions.combine(barrierPrice, prices.get(position++)) :
+            barrierPrice;
+      }
+    }
+    return ImmutableList.copyOf(result);
+  }
+
+  // creates the option functions to price the barrier option on the tree
+  private TreeFunctions treeFunctions(
+      ResolvedFxSingleBarrierOption option,
+      RatesProvider ratesProvider,
+      RecombiningTrinomialTreeData data) {
+
     int nSteps = data.getNumberOfSteps();
     ResolvedFxVanillaOption underlyingOption = option.getUnderlyingOption();
     double timeToExpiry = data.getTime(nSteps);
@@ -374,15 +503,12 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
         barrier.getBarrierType(),
         barrier.getBarrierLevel(),
         DoubleArray.ofUnsafe(rebateArray));
-    ValueDerivatives barrierPrice = TREE.optionPriceAdjoint(barrierFunction, data);
     if (barrier.getKnockType().isKnockIn()) {  // use in-out parity
       EuropeanVanillaOptionFunction vanillaFunction = EuropeanVanillaOptionFunction.of(
           underlyingOption.getStrike(), timeToExpiry, underlyingOption.getPutCall(), nSteps);
-      ValueDerivatives vanillaPrice = TREE.optionPriceAdjoint(vanillaFunction, data);
-      return ValueDerivatives.of(vanillaPrice.getValue() + rebateAtExpiry - barrierPrice.getValue(),
-          DoubleArray.of(vanillaPrice.getDerivative(0) + rebateAtExpiryDerivative - barrierPrice.getDerivative(0)));
+      return new TreeFunctions(barrierFunction, vanillaFunction, rebateAtExpiry, rebateAtExpiryDerivative);
     }
-    return barrierPrice;
+    return new TreeFunctions(barrierFunction, null, 0d, 0d);
   }
 
   //-------------------------------------------------------------------------
@@ -417,4 +543,31 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
         Math.abs(option.getUnderlying().getBaseCurrencyPayment().getAmount());
   }
 
+  //-------------------------------------------------------------------------
+  // the option functions to price a barrier option, the vanilla function is only used for knock-in options
+  private static final class TreeFunctions {
+    private final OptionFunction barrierFunction;
+    private final OptionFunction vanillaFunction;
+    private final double rebateAtExpiry;
+    private final double rebateAtExpiryDerivative;
+
+    private TreeFunctions(
+        OptionFunction barrierFunction,
+        OptionFunction vanillaFunction,
+        double rebateAtExpiry,
+        double rebateAtExpiryDerivative) {
+
+      this.barrierFunction = barrierFunction;
+      this.vanillaFunction = vanillaFunction;
+      this.rebateAtExpiry = rebateAtExpiry;
+      this.rebateAtExpiryDerivative = rebateAtExpiryDerivative;
+    }
+
+    // knock-in price by in-out parity
+    private ValueDerivatives combine(ValueDerivatives barrierPrice, ValueDerivatives vanillaPrice) {
+      return ValueDerivatives.of(vanillaPrice.getValue() + rebateAtExpiry - barrierPrice.getValue(),
+          DoubleArray.of(vanillaPrice.getDerivative(0) + rebateAtExpiryDerivative - barrierPrice.getDerivative(0)));
+    }
+  }
+
 }
@@ -610,9 +610,7 @@ public final class InterpolatedStrikeSmileDeltaTermStructure
   public double volatility(double time, double strike, double forward) {
     ArgChecker.isTrue(time >= 0, "Positive time");
     SmileDeltaParameters smile = smileForExpiry(time);
-    DoubleArray strikes = smile.strike(forward);
-    BoundCurveInterpolator bound = strikeInterpolator.bind(
-        strikes, smile.getVolatility(), strikeExtrapolatorLeft, strikeExtrapolatorRight);
+    BoundCurveInterpolator bound = bindStrikes(smile, forward);
     return bound.interpolate(strike);
   }
 
@@ -620,15 +618,29 @@ public final class InterpolatedStrikeSmileDeltaTermStructure
   public VolatilityAndBucketedSensitivities volatilityAndSensitivities(double time, double strike, double forward) {
     ArgChecker.isTrue(time >= 0, "Positive time");
     SmileDeltaParameters smile = smileForExpiry(time);
-    DoubleArray strikes = smile.strike(forward);
-    BoundCurveInterpolator bound = strikeInterpolator.bind(
-        strikes, smile.getVolatility(), strikeExtrapolatorLeft, strikeExtrapolatorRight);
+    BoundCurveInterpolator bound = bindStrikes(smile, forward);
     double volatility = bound.interpolate(strike);
     DoubleArray smileVolatilityBar = bound.parameterSensitivity(strike);
     SmileAndBucketedSensitivities smileAndSensitivities = smileAndSensitivitiesForExpiry(time, smileVolatilityBar);
     return VolatilityAndBucketedSensitivities.of(volatility, smileAndSensitivities.getSensitivities());
   }
 
+  /**
+   * Binds the strike interpolator to a smile.
+   * <p>
+   * The delta values of the smile are converted to strikes using the forward.
+   * The bound interpolator provides the volatility at any strike, and its sensitivity
+   * with respect to the volatilities of the smile.
+   * 
+   * @param smile  the smile, typically obtained from {@link #smileForExpiry(double)}
+   * @param forward  the forward
+   * @return the interpolator bound to the strikes and volatilities of the smile
+   */
+  public BoundCurveInterpolator bindStrikes(SmileDeltaParameters smile, double forward) {
+    DoubleArray strikes = smile.strike(forward);
+    return strikeInterpolator.bind(strikes, smile.getVolatility(), strikeExtrapolatorLeft, strikeExtrapolatorRight);
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public SmileDeltaParameters smileForExpiry(double expiry) {
@@ -5,12 +5,23 @@
  */
 package com.opengamma.strata.pricer.fxopt;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
 import com.opengamma.strata.basics.currency.CurrencyPair;
 import com.opengamma.strata.basics.currency.FxRate;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
 import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.tuple.Triple;
+import com.opengamma.strata.market.sensitivity.PointSensitivities;
 import com.opengamma.strata.market.sensitivity.PointSensitivityBuilder;
 import com.opengamma.strata.pricer.fx.DiscountingFxSingleProductPricer;
 import com.opengamma.strata.pricer.impl.option.BlackFormulaRepository;
@@ -282,6 +293,222 @@ public class VannaVolgaFxVanillaOptionProductPricer {
     return MultiCurrencyAmount.of(domestic, foreign);
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the price of a list of foreign exchange vanilla option products.
+   * <p>
+   * The options are grouped by currency pair, expiry and payment date. The smile, the three pillar strikes
+   * and the Black prices at the pillar strikes are computed once per group, the vanna-volga weights and
+   * the price of each option then only require the Black formula at the strike of the option.
+   * <p>
+   * The price of each product is the same as
+   * {@link #price(ResolvedFxVanillaOption, RatesProvider, BlackFxOptionSmileVolatilities)}.
+   * 
+   * @param options  the option products
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the prices of the products, in the order of the options
+   */
+  public DoubleArray price(
+      List<ResolvedFxVanillaOption> options,
+      RatesProvider ratesProvider,
+      BlackFxOptionSmileVolatilities volatilities) {
+
+    double[] prices = new double[options.size()];
+    evaluate(options, ratesProvider, volatilities, prices, null, null);
+    return DoubleArray.ofUnsafe(prices);
+  }
+
+  /**
+   * Calculates the present value of a list of foreign exchange vanilla option products.
+   * <p>
+   * The options are grouped by currency pair, expiry and payment date, and the pillar data is computed
+   * once per group, see {@link #price(List, RatesProvider, BlackFxOptionSmileVolatilities)}.
+   * <p>
+   * The present value of each product is the same as
+   * {@link #presentValue(ResolvedFxVanillaOption, RatesProvider, BlackFxOptionSmileVolatilities)}.
+   * 
+   * @param options  the option products
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the present values of the products, in the order of the options
+   */
+  public List<CurrencyAmount> presentValue(
+      List<ResolvedFxVanillaOption> options,
+      RatesProvider ratesProvider,
+      BlackFxOptionSmileVolatilities volatilities) {
+
+    double[] prices = new double[options.size()];
+    evaluate(options, ratesProvider, volatilities, prices, null, null);
+    return presentValues(options, prices);
+  }
+
+  /**
+   * Calculates the present value sensitivity of a list of foreign exchange vanilla option products.
+   * <p>
+   * The options are grouped by currency pair, expiry and payment date, and the pillar data is computed
+   * once per group, see {@link #price(List, RatesProvider, BlackFxOptionSmileVolatilities)}.
+   * <p>
+   * The sensitivity of each product is the same as the sticky strike sensitivity of the single product.
+   * 
+   * @param options  the option products
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the present value curve sensitivities of the products, in the order of the options
+   */
+  public List<PointSensitivityBuilder> presentValueSensitivityRatesStickyStrike(
+      List<ResolvedFxVanillaOption> options,
+      RatesProvider ratesProvider,
+      BlackFxOptionSmileVolatilities volatilities) {
+
+    PointSensitivityBuilder[] sensitivities = new PointSensitivityBuilder[options.size()];
+    evaluate(options, ratesProvider, volatilities, new double[options.size()], sensitivities, null);
+    return ImmutableList.copyOf(sensitivities);
+  }
+
+  /**
+   * Computes the present value sensitivity to the black volatilities of a list of foreign exchange
+   * vanilla option products.
+   * <p>
+   * The options are grouped by currency pair, expiry and payment date, and the pillar data is computed
+   * once per group, see {@link #price(List, RatesProvider, BlackFxOptionSmileVolatilities)}.
+   * <p>
+   * The sensitivity of each product is the same as the volatility sensitivity of the single product.
+   * 
+   * @param options  the option products
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the present value sensitivities of the products, in the order of the options
+   */
+  public List<PointSensitivityBuilder> presentValueSensitivityModelParamsVolatility(
+      List<ResolvedFxVanillaOption> options,
+      RatesProvider ratesProvider,
+      BlackFxOptionSmileVolatilities volatilities) {
+
+    PointSensitivityBuilder[] sensitivities = new PointSensitivityBuilder[options.size()];
+    evaluate(options, ratesProvider, volatilities, new double[options.size()], null, sensitivities);
+    return ImmutableList.copyOf(sensitivities);
+  }
+
+  /**
+   * Calculates the present value and the present value sensitivities of a list of foreign exchange
+   * vanilla option products.
+   * <p>
+   * The present values, the sensitivities to the curves and the sensitivities to the volatilities
+   * are computed in a single pass over the options. The options are grouped by currency pair, expiry
+   * and payment date, and the pillar data is computed once per group,
+   * see {@link #price(List, RatesProvider, BlackFxOptionSmileVolatilities)}.
+   * <p>
+   * The values of each product are the same as the present value, the sticky strike sensitivity
+   * and the volatility sensitivity of the single product.
+   * 
+   * @param options  the option products
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the present values and sensitivities of the products
+   */
+  public FxVanillaOptionBatchValues presentValueAndSensitivities(
+      List<ResolvedFxVanillaOption> options,
+      RatesProvider ratesProvider,
+      BlackFxOptionSmileVolatilities volatilities) {
+
+    int nOptions = options.size();
+    double[] prices = new double[nOptions];
+    PointSensitivityBuilder[] ratesSensitivities = new PointSensitivityBuilder[nOptions];
+    PointSensitivityBuilder[] volatilitySensitivities = new PointSensitivityBuilder[nOptions];
+    evaluate(options, ratesProvider, volatilities, prices, ratesSensitivities, volatilitySensitivities);
+    List<PointSensitivities> ratesBuilt = new ArrayList<>(nOptions);
+    List<PointSensitivities> volatilityBuilt = new ArrayList<>(nOptions);
+    for (int i = 0; i < nOptions; ++i) {
+      ratesBuilt.add(ratesSensitivities[i].build());
+      volatilityBuilt.add(volatilitySensitivities[i].build());
+    }
+    return FxVanillaOptionBatchValues.of(presentValues(options, prices), ratesBuilt, volatilityBuilt);
+  }
+
+  // evaluates the options, the sensitivities are only computed if the arrays are not null
+  private void evaluate(
+      List<ResolvedFxVanillaOption> options,
+      RatesProvider ratesProvider,
+      BlackFxOptionSmileVolatilities volatilities,
+      double[] prices,
+      PointSensitivityBuilder[] ratesSensitivities,
+      PointSensitivityBuilder[] volatilitySensitivities) {
+
+    validate(ratesProvider, volatilities);
+    Map<Triple<CurrencyPair, Double, LocalDate>, List<Integer>> groups = new LinkedHashMap<>();
+    for (int i = 0; i < options.size(); ++i) {
+      ResolvedFxVanillaOption option = options.get(i);
+      double timeToExpiry = volatilities.relativeTime(option.getExpiry());
+      if (timeToExpiry <= 0d) {
+        prices[i] = 0d;
+        if (ratesSensitivities != null) {
+          ratesSensitivities[i] = PointSensitivityBuilder.none();
+        }
+        if (volatilitySensitivities != null) {
+          volatilitySensitivities[i] = PointSensitivityBuilder.none();
+        }
+        continue;
+      }
+      ResolvedFxSingle underlyingFx = option.getUnderlying();
+      Triple<CurrencyPair, Double, LocalDate> key =
+          Triple.of(underlyingFx.getCurrencyPair(), timeToExpiry, underlyingFx.getPaymentDate());
+      groups.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+    }
+    for (Entry<Triple<CurrencyPair, Double, LocalDate>, List<Integer>> group : groups.entrySet()) {
+      List<Integer> indices = group.getValue();
+      PillarData pillars = new PillarData(
+          options.get(indices.get(0)).getUnderlying(), group.getKey().getSecond(), ratesProvider, volatilities);
+      for (int index : indices) {
+        ResolvedFxVanillaOption option = options.get(index);
+        double strikeRate = option.getStrike();
+        boolean isCall = option.getPutCall().isCall();
+        double timeToExpiry = pillars.timeToExpiry;
+        double forwardRate = pillars.forwardRate;
+        double volAtm = pillars.volAtm;
+        // vanna-volga weights
+        double lnStrike = Math.log(strikeRate);
+        double lnk0 = pillars.lnStrikes[0] - lnStrike;
+        double lnk1 = pillars.lnStrikes[1] - lnStrike;
+        double lnk2 = pillars.lnStrikes[2] - lnStrike;
+        double vegaFlat = BlackFormulaRepository.vega(forwardRate, strikeRate, timeToExpiry, volAtm);
+        double x0 = vegaFlat * lnk1 * lnk2 / pillars.weightDenominator0;
+        double x2 = vegaFlat * lnk0 * lnk1 / pillars.weightDenominator2;
+        double priceFwd = BlackFormulaRepository.price(forwardRate, strikeRate, timeToExpiry, volAtm, isCall) +
+            x0 * pillars.priceSmileAdjustment0 + x2 * pillars.priceSmileAdjustment2;
+        prices[index] = pillars.df * priceFwd;
+        double signedNotional = signedNotional(option);
+        if (ratesSensitivities != null) {
+          double deltaFwd = BlackFormulaRepository.delta(forwardRate, strikeRate, timeToExpiry, volAtm, isCall) +
+              x0 * pillars.deltaSmileAdjustment0 + x2 * pillars.deltaSmileAdjustment2;
+          ResolvedFxSingle underlyingFx = option.getUnderlying();
+          PointSensitivityBuilder fwdSensi = fxPricer.forwardFxRatePointSensitivity(
+              isCall ? underlyingFx : underlyingFx.inverse(), ratesProvider)
+              .multipliedBy(pillars.df * deltaFwd * signedNotional);
+          ratesSensitivities[index] =
+              pillars.dfSensitivity.multipliedBy(priceFwd * signedNotional).combinedWith(fwdSensi);
+        }
+        if (volatilitySensitivities != null) {
+          double factor = pillars.df * signedNotional;
+          double vegaAtm = vegaFlat - x0 * pillars.vegaAtm0 - x2 * pillars.vegaAtm2;
+          volatilitySensitivities[index] = pillars.volatilitySensitivity(1, factor * vegaAtm)
+              .combinedWith(pillars.volatilitySensitivity(0, factor * x0 * pillars.vegaSmile0)
+                  .combinedWith(pillars.volatilitySensitivity(2, factor * x2 * pillars.vegaSmile2)));
+        }
+      }
+    }
+  }
+
+  // the present values from the prices
+  private List<CurrencyAmount> presentValues(List<ResolvedFxVanillaOption> options, double[] prices) {
+    ImmutableList.Builder<CurrencyAmount> builder = ImmutableList.builder();
+    for (int i = 0; i < options.size(); ++i) {
+      ResolvedFxVanillaOption option = options.get(i);
+      builder.add(CurrencyAmount.of(option.getCounterCurrency(), signedNotional(option) * prices[i]));
+    }
+    return builder.build();
+  }
+
   //-------------------------------------------------------------------------
   // signed notional amount to computed present value and value Greeks
   private double signedNotional(ResolvedFxVanillaOption option) {
@@ -317,4 +544,76 @@ public class VannaVolgaFxVanillaOptionProductPricer {
         "volatility and rate data must be for the same date");
     ArgChecker.isTrue(volatilities.getSmile().getStrikeCount() == 3, "the number of data points must be 3");
   }
+
+  //-------------------------------------------------------------------------
+  // the data shared by the options with the same currency pair, expiry and payment date
+  private final class PillarData {
+    private final FxOptionVolatilitiesName name;
+    private final CurrencyPair currencyPair;
+    private final Currency counterCurrency;
+    private final double timeToExpiry;
+    private final double df;
+    private final PointSensitivityBuilder dfSensitivity;
+    private final double forwardRate;
+    private final double[] strikes;
+    private final double[] lnStrikes;
+    private final double volAtm;
+    private final double weightDenominator0;
+    private final double weightDenominator2;
+    private final double vegaAtm0;
+    private final double vegaAtm2;
+    private final double vegaSmile0;
+    private final double vegaSmile2;
+    // difference between the smile and ATM prices at the pillar strike, the same for calls and puts
+    private final double priceSmileAdjustment0;
+    private final double priceSmileAdjustment2;
+    // difference between the smile and ATM deltas at the pillar strike, the same for calls and puts
+    private final double deltaSmileAdjustment0;
+    private final double deltaSmileAdjustment2;
+
+    private PillarData(
+        ResolvedFxSingle underlyingFx,
+        double timeToExpiry,
+        RatesProvider ratesProvider,
+        BlackFxOptionSmileVolatilities volatilities) {
+
+      this.name = volatilities.getName();
+      this.currencyPair = underlyingFx.getCurrencyPair();
+      this.counterCurrency = underlyingFx.getCounterCurrencyPayment().getCurrency();
+      this.timeToExpiry = timeToExpiry;
+      this.df = ratesProvider.discountFactor(counterCurrency, underlyingFx.getPaymentDate());
+      this.dfSensitivity =
+          ratesProvider.discountFactors(counterCurrency).zeroRatePointSensitivity(underlyingFx.getPaymentDate());
+      this.forwardRate = fxPricer.forwardFxRate(underlyingFx, ratesProvider).fxRate(currencyPair);
+      SmileDeltaParameters smileAtTime = volatilities.getSmile().smileForExpiry(timeToExpiry);
+      this.strikes = smileAtTime.strike(forwardRate).toArray();
+      double[] vols = smileAtTime.getVolatility().toArray();
+      this.volAtm = vols[1];
+      this.lnStrikes = new double[] {Math.log(strikes[0]), Math.log(strikes[1]), Math.log(strikes[2])};
+      double lnk21 = Math.log(strikes[1] / strikes[0]);
+      double lnk31 = Math.log(strikes[2] / strikes[0]);
+      double lnk32 = Math.log(strikes[2] / strikes[1]);
+      this.vegaAtm0 = BlackFormulaRepository.vega(forwardRate, strikes[0], timeToExpiry, volAtm);
+      this.vegaAtm2 = BlackFormulaRepository.vega(forwardRate, strikes[2], timeToExpiry, volAtm);
+      this.vegaSmile0 = BlackFormulaRepository.vega(forwardRate, strikes[0], timeToExpiry, vols[0]);
+      this.vegaSmile2 = BlackFormulaRepository.vega(forwardRate, strikes[2], timeToExpiry, vols[2]);
+      this.weightDenominator0 = vegaAtm0 * lnk21 * lnk31;
+      this.weightDenominator2 = vegaAtm2 * lnk31 * lnk32;
+      this.priceSmileAdjustment0 = BlackFormulaRepository.price(forwardRate, strikes[0], timeToExpiry, vols[0], true) -
+          BlackFormulaRepository.price(forwardRate, strikes[0], timeToExpiry, volAtm, true);
+      this.priceSmileAdjustment2 = BlackFormulaRepository.price(forwardRate, strikes[2], timeToExpiry, vols[2], true) -
+          BlackFormulaRepository.price(forwardRate, strikes[2], timeToExpiry, volAtm, true);
+      this.deltaSmileAdjustment0 = BlackFormulaRepository.delta(forwardRate, strikes[0], timeToExpiry, vols[0], true) -
+          BlackFormulaRepository.delta(forwardRate, strikes[0], timeToExpiry, volAtm, true);
+      this.deltaSmileAdjustment2 = BlackFormulaRepository.delta(forwardRate, strikes[2], timeToExpiry, vols[2], true) -
+          BlackFormulaRepository.delta(forwardRate, strikes[2], timeToExpiry, volAtm, true);
+    }
+
+    // the sensitivity to the volatility at a pillar strike
+    private FxOptionSensitivity volatilitySensitivity(int pillar, double sensitivity) {
+      return FxOptionSensitivity.of(
+          name, currencyPair, timeToExpiry, strikes[pillar], forwardRate, counterCurrency, sensitivity);
+    }
+  }
+
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import com.opengamma.strata.basics.currency.CurrencyPair;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.pricer.DiscountFactors;
+import com.opengamma.strata.pricer.fxopt.BlackFxOptionVolatilities;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+
+/**
+ * Black model of an FX rate for Monte Carlo simulation.
+ * <p>
+ * The FX rate follows a lognormal process with deterministic rates under the risk neutral measure of
+ * the counter currency. The volatility is piecewise constant between the simulation times.
+ * The FX rate at the simulation times is simulated exactly:
+ * <p>
+ * {@code S(t_k) = F(t_k) exp(sum_{j<=k} (sigma_j dW_j - sigma_j^2 dt_j / 2))},
+ * where {@code F(t)} is the forward FX rate.
+ * <p>
+ * The path values are the FX rates at the simulation times. The payoff is responsible for discounting,
+ * in the counter currency, the amounts it pays.
+ * <p>
+ * The pathwise derivatives are computed with respect to the spot, index 0,
+ * and to a parallel shift of the volatilities, index 1.
+ */
+public final class BlackFxMonteCarloModel
+    implements MonteCarloModel {
+
+  /**
+   * The simulation times.
+   */
+  private final DoubleArray times;
+  /**
+   * The spot FX rate.
+   */
+  private final double spot;
+  /**
+   * The forward FX rates at the simulation times.
+   */
+  private final DoubleArray forwards;
+  /**
+   * The volatilities between the simulation times.
+   */
+  private final DoubleArray volatilities;
+  /**
+   * The cumulative variance drift at the simulation times.
+   */
+  private final double[] halfVariances;
+  /**
+   * The derivative of the cumulative variance drift with respect to a parallel shift of the volatilities.
+   */
+  private final double[] halfVarianceDerivatives;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance.
+   * <p>
+   * The {@code i}-th volatility applies between the {@code (i-1)}-th and the {@code i}-th simulation times,
+   * where the time before the first is zero.
+   *
+   * @param spot  the spot FX rate
+   * @param times  the simulation times, positive and increasing
+   * @param forwards  the forward FX rates at the simulation times
+   * @param volatilities  the volatilities between the simulation times
+   * @return the model
+   */
+  public static BlackFxMonteCarloModel of(
+      double spot,
+      DoubleArray times,
+      DoubleArray forwards,
+      DoubleArray volatilities) {
+
+    ArgChecker.isTrue(spot > 0d, "spot must be positive");
+    ArgChecker.isTrue(times.size() > 0, "times must not be empty");
+    ArgChecker.isTrue(times.size() == forwards.size(), "times and forwards must have the same size");
+    ArgChecker.isTrue(times.size() == volatilities.size(), "times and volatilities must have the same size");
+    return new BlackFxMonteCarloModel(spot, times, forwards, volatilities);
+  }
+
+  /**
+   * Obtains an instance from market data.
+   * <p>
+   * The forward FX rates are computed from the discount factors of the two currencies.
+   * The volatilities between the simulation times are the forward volatilities implied by the Black volatilities
+   * at the strike, floored at zero.
+   *
+   * @param currencyPair  the currency pair
+   * @param times  the simulation times, positive and increasing
+   * @param strike  the strike at which the Black volatilities are read
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the model
+   */
+  public static BlackFxMonteCarloModel of(
+      CurrencyPair currencyPair,
+      DoubleArray times,
+      double strike,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities) {
+
+    double spot = ratesProvider.fxRate(currencyPair);
+    DiscountFactors baseDiscountFactors = ratesProvider.discountFactors(currencyPair.getBase());
+    DiscountFactors counterDiscountFactors = ratesProvider.discountFactors(currencyPair.getCounter());
+    int nSteps = times.size();
+    double[] forwards = new double[nSteps];
+    double[] vols = new double[nSteps];
+    double previousVariance = 0d;
+    for (int k = 0; k < nSteps; ++k) {
+      double time = times.get(k);
+      forwards[k] = spot * baseDiscountFactors.discountFactor(time) / counterDiscountFactors.discountFactor(time);
+      double vol = volatilities.volatility(currencyPair, time, strike, forwards[k]);
+      double variance = vol * vol * time;
+      double dt = time - (k == 0 ? 0d : times.get(k - 1));
+      vols[k] = Math.sqrt(Math.max(variance - previousVariance, 0d) / dt);
+      previousVariance = Math.max(variance, previousVariance);
+    }
+    return of(spot, times, DoubleArray.ofUnsafe(forwards), DoubleArray.ofUnsafe(vols));
+  }
+
+  private BlackFxMonteCarloModel(
+      double spot,
+      DoubleArray times,
+      DoubleArray forwards,
+      DoubleArray volatilities) {
+
+    int nSteps = times.size();
+    this.times = times;
+    this.spot = spot;
+    this.forwards = forwards;
+    this.volatilities = volatilities;
+    this.halfVariances = new double[nSteps];
+    this.halfVarianceDerivatives = new double[nSteps];
+    double halfVariance = 0d;
+    double halfVarianceDerivative = 0d;
+    for (int k = 0; k < nSteps; ++k) {
+      double dt = times.get(k) - (k == 0 ? 0d : times.get(k - 1));
+      ArgChecker.isTrue(dt > 0d, "times must be positive and increasing");
+      double vol = volatilities.get(k);
+      halfVariance += 0.5 * vol * vol * dt;
+      halfVarianceDerivative += vol * dt;
+      halfVariances[k] = halfVariance;
+      halfVarianceDerivatives[k] = halfVarianceDerivative;
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains the spot FX rate.
+   *
+   * @return the spot
+   */
+  public double getSpot() {
+    return spot;
+  }
+
+  /**
+   * Obtains the forward FX rates at the simulation times.
+   *
+   * @return the forwards
+   */
+  public DoubleArray getForwards() {
+    return forwards;
+  }
+
+  /**
+   * Obtains the volatilities between the simulation times.
+   *
+   * @return the volatilities
+   */
+  public DoubleArray getVolatilities() {
+    return volatilities;
+  }
+
+  @Override
+  public DoubleArray getTimes() {
+    return times;
+  }
+
+  @Override
+  public int getPathSize() {
+    return times.size();
+  }
+
+  @Override
+  public int getParameterCount() {
+    return 2;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void path(double[] increments, double[] path) {
+    double stochastic = 0d;
+    for (int k = 0; k < path.length; ++k) {
+      stochastic += volatilities.get(k) * increments[k];
+      path[k] = forwards.get(k) * Math.exp(stochastic - halfVariances[k]);
+    }
+  }
+
+  @Override
+  public void pathDerivatives(double[] increments, double[] path, double[][] pathDerivatives) {
+    double brownian = 0d;
+    for (int k = 0; k < path.length; ++k) {
+      brownian += increments[k];
+      pathDerivatives[0][k] = path[k] / spot;
+      pathDerivatives[1][k] = path[k] * (brownian - halfVarianceDerivatives[k]);
+    }
+  }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Brownian bridge construction of Brownian motion paths.
+ * <p>
+ * The first normal variate determines the value of the Brownian motion at the last time,
+ * and the subsequent variates fill the intermediate times by recursive bisection.
+ * Used with quasi-random sequences, this concentrates the variance of the path on the first dimensions,
+ * which have the best uniformity properties.
+ * <p>
+ * The construction weights are computed once for the times, the path construction is allocation free.
+ * See Jäckel (2002), Monte Carlo methods in finance, Section 10.8.
+ */
+public final class BrownianBridge {
+
+  /**
+   * The times.
+   */
+  private final double[] times;
+  /**
+   * The index of the time filled at each step.
+   */
+  private final int[] bridgeIndex;
+  /**
+   * The index of the left boundary at each step, the time before the left time is used.
+   */
+  private final int[] leftIndex;
+  /**
+   * The index of the right boundary at each step.
+   */
+  private final int[] rightIndex;
+  /**
+   * The weight of the left boundary at each step.
+   */
+  private final double[] leftWeight;
+  /**
+   * The weight of the right boundary at each step.
+   */
+  private final double[] rightWeight;
+  /**
+   * The standard deviation at each step.
+   */
+  private final double[] stdDev;
+
+  /**
+   * Creates an instance.
+   *
+   * @param times  the positive times, sorted in increasing order
+   */
+  public BrownianBridge(DoubleArray times) {
+    int n = times.size();
+    ArgChecker.isTrue(n > 0, "times must not be empty");
+    ArgChecker.isTrue(times.get(0) > 0d, "times must be positive");
+    for (int i = 1; i < n; ++i) {
+      ArgChecker.isTrue(times.get(i) > times.get(i - 1), "times must be increasing");
+    }
+    this.times = times.toArray();
+    this.bridgeIndex = new int[n];
+    this.leftIndex = new int[n];
+    this.rightIndex = new int[n];
+    this.leftWeight = new double[n];
+    this.rightWeight = new double[n];
+    this.stdDev = new double[n];
+    boolean[] filled = new boolean[n];
+    bridgeIndex[0] = n - 1;
+    stdDev[0] = Math.sqrt(this.times[n - 1]);
+    filled[n - 1] = true;
+    int j = 0;
+    for (int i = 1; i < n; ++i) {
+      while (filled[j]) {
+        j++;
+      }
+      int k = j;
+      while (!filled[k]) {
+        k++;
+      }
+      int l = j + ((k - 1 - j) >> 1);
+      filled[l] = true;
+      bridgeIndex[i] = l;
+      leftIndex[i] = j;
+      rightIndex[i] = k;
+      double timeLeft = j == 0 ? 0d : this.times[j - 1];
+      double timeMid = this.times[l];
+      double timeRight = this.times[k];
+      leftWeight[i] = (timeRight - timeMid) / (timeRight - timeLeft);
+      rightWeight[i] = (timeMid - timeLeft) / (timeRight - timeLeft);
+      stdDev[i] = Math.sqrt((timeMid - timeLeft) * (timeRight - timeMid) / (timeRight - timeLeft));
+      j = k + 1;
+      if (j >= n) {
+        j = 0;
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains the number of times.
+   *
+   * @return the number of times
+   */
+  public int size() {
+    return times.length;
+  }
+
+  /**
+   * Computes the Brownian increments from standard normal variates.
+   * <p>
+   * The {@code i}-th element of {@code increments} is populated with the increment of the Brownian motion
+   * between the {@code (i-1)}-th and the {@code i}-th times, where the time before the first is zero.
+   *
+   * @param normals  the standard normal variates, in order of importance
+   * @param increments  the array to populate with the increments
+   */
+  public void increments(double[] normals, double[] increments) {
+    int n = times.length;
+    increments[n - 1] = stdDev[0] * normals[0];
+    for (int i = 1; i < n; ++i) {
+      int j = leftIndex[i];
+      int k = rightIndex[i];
+      int l = bridgeIndex[i];
+      double left = j == 0 ? 0d : leftWeight[i] * increments[j - 1];
+      increments[l] = left + rightWeight[i] * increments[k] + stdDev[i] * normals[i];
+    }
+    for (int i = n - 1; i > 0; --i) {
+      increments[i] -= increments[i - 1];
+    }
+  }
+
+}
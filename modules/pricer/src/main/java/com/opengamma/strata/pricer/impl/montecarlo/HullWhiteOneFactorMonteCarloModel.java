@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import java.util.List;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.pricer.DiscountFactors;
+import com.opengamma.strata.pricer.model.HullWhiteOneFactorPiecewiseConstantParameters;
+
+/**
+ * Hull-White one factor model with piecewise constant volatility for Monte Carlo simulation.
+ * <p>
+ * The simulation is done under the forward measure associated to the numeraire {@code P(t,T*)},
+ * where the numeraire time {@code T*} is the last bond maturity.
+ * With {@code X} the Gaussian martingale {@code dX = sigma(t) exp(a t) dW} and {@code V(t)} its variance,
+ * the rebased bond prices are exact functions of {@code X}:
+ * <p>
+ * {@code P(t,u) / P(t,T*) = P(0,u) / P(0,T*) exp(-h(u) X(t) - h(u)^2 V(t) / 2)},
+ * with {@code h(u) = (exp(-a T*) - exp(-a u)) / a}.
+ * <p>
+ * For each simulation time {@code t} and each bond maturity {@code u} associated with it,
+ * the path value is the deflated bond price {@code P(0,T*) P(t,u) / P(t,T*)}.
+ * The first maturity associated with each simulation time is the simulation time itself,
+ * so that the first path value of each time is the deflator of a cash flow paid at that time.
+ * Thus the present value of a payoff {@code C} paid at {@code t} is the average of {@code C} times the deflator,
+ * and the bond prices {@code P(t,u)} are the ratios between the path values and the deflator.
+ * <p>
+ * The pathwise derivatives are computed with respect to the piecewise constant volatilities.
+ */
+public final class HullWhiteOneFactorMonteCarloModel
+    implements MonteCarloModel {
+
+  /**
+   * The simulation times.
+   */
+  private final DoubleArray times;
+  /**
+   * The model parameters.
+   */
+  private final HullWhiteOneFactorPiecewiseConstantParameters parameters;
+  /**
+   * The numeraire time.
+   */
+  private final double numeraireTime;
+  /**
+   * The index of the first path value of each simulation time, the last element is the path size.
+   */
+  private final int[] offsets;
+  /**
+   * The bond maturity of each path value.
+   */
+  private final double[] maturities;
+  /**
+   * The initial deflated bond price, i.e., the discount factor, of each path value.
+   */
+  private final double[] initialValues;
+  /**
+   * The function h of each path value.
+   */
+  private final double[] h;
+  /**
+   * The standard deviation of X per unit of Brownian increment at each step.
+   */
+  private final double[] factors;
+  /**
+   * The variance of X at each simulation time.
+   */
+  private final double[] variances;
+  /**
+   * The derivative of the factors with respect to the volatilities.
+   */
+  private final double[][] factorDerivatives;
+  /**
+   * The derivative of the variances with respect to the volatilities.
+   */
+  private final double[][] varianceDerivatives;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance.
+   * <p>
+   * For each simulation time, the bond maturities are the maturities of the bonds to be observed at that time.
+   * The simulation time itself is added as the first maturity, thus it should not be included.
+   * The bond maturities must not be before the simulation time.
+   *
+   * @param parameters  the Hull-White model parameters
+   * @param times  the simulation times, positive and increasing
+   * @param bondMaturities  the bond maturities for each simulation time
+   * @param discountFactors  the discount factors
+   * @return the model
+   */
+  public static HullWhiteOneFactorMonteCarloModel of(
+      HullWhiteOneFactorPiecewiseConstantParameters parameters,
+      DoubleArray times,
+      List<DoubleArray> bondMaturities,
+      DiscountFactors discountFactors) {
+
+    ArgChecker.notNull(parameters, "parameters");
+    ArgChecker.notNull(discountFactors, "discountFactors");
+    ArgChecker.isTrue(times.size() == bondMaturities.size(), "times and bondMaturities must have the same size");
+    return new HullWhiteOneFactorMonteCarloModel(parameters, times, bondMaturities, discountFactors);
+  }
+
+  private HullWhiteOneFactorMonteCarloModel(
+      HullWhiteOneFactorPiecewiseConstantParameters parameters,
+      DoubleArray times,
+      List<DoubleArray> bondMaturities,
+      DiscountFactors discountFactors) {
+
+    int nSteps = times.size();
+    ArgChecker.isTrue(nSteps > 0, "times must not be empty");
+    this.times = times;
+    this.parameters = parameters;
+    this.offsets = new int[nSteps + 1];
+    double maxTime = 0d;
+    for (int k = 0; k < nSteps; ++k) {
+      double time = times.get(k);
+      ArgChecker.isTrue(time > (k == 0 ? 0d : times.get(k - 1)), "times must be positive and increasing");
+      offsets[k + 1] = offsets[k] + 1 + bondMaturities.get(k).size();
+      maxTime = Math.max(maxTime, time);
+      for (int m = 0; m < bondMaturities.get(k).size(); ++m) {
+        ArgChecker.isTrue(bondMaturities.get(k).get(m) >= time, "bond maturities must not be before the time");
+        maxTime = Math.max(maxTime, bondMaturities.get(k).get(m));
+      }
+    }
+    this.numeraireTime = maxTime;
+    double a = parameters.getMeanReversion();
+    double expNumeraire = Math.exp(-a * numeraireTime);
+    int pathSize = offsets[nSteps];
+    this.maturities = new double[pathSize];
+    this.initialValues = new double[pathSize];
+    this.h = new double[pathSize];
+    for (int k = 0; k < nSteps; ++k) {
+      maturities[offsets[k]] = times.get(k);
+      for (int m = 0; m < bondMaturities.get(k).size(); ++m) {
+        maturities[offsets[k] + 1 + m] = bondMaturities.get(k).get(m);
+      }
+    }
+    for (int j = 0; j < pathSize; ++j) {
+      initialValues[j] = discountFactors.discountFactor(maturities[j]);
+      h[j] = (expNumeraire - Math.exp(-a * maturities[j])) / a;
+    }
+    // variance of X between the simulation times, by volatility period
+    DoubleArray volatility = parameters.getVolatility();
+    DoubleArray volatilityTime = parameters.getVolatilityTime();
+    int nVols = volatility.size();
+    this.factors = new double[nSteps];
+    this.variances = new double[nSteps];
+    this.factorDerivatives = new double[nSteps][nVols];
+    this.varianceDerivatives = new double[nSteps][nVols];
+    double variance = 0d;
+    double[] varianceDerivative = new double[nVols];
+    for (int k = 0; k < nSteps; ++k) {
+      double start = k == 0 ? 0d : times.get(k - 1);
+      double end = times.get(k);
+      double incrementVariance = 0d;
+      double[] incrementVarianceDerivative = new double[nVols];
+      for (int i = 0; i < nVols; ++i) {
+        double low = Math.max(start, volatilityTime.get(i));
+        double high = Math.min(end, volatilityTime.get(i + 1));
+        if (high > low) {
+          double integral = (Math.exp(2d * a * high) - Math.exp(2d * a * low)) / (2d * a);
+          double vol = volatility.get(i);
+          incrementVariance += vol * vol * integral;
+          incrementVarianceDerivative[i] = 2d * vol * integral;
+        }
+      }
+      double dt = end - start;
+      factors[k] = Math.sqrt(incrementVariance / dt);
+      variance += incrementVariance;
+      variances[k] = variance;
+      for (int i = 0; i < nVols; ++i) {
+        varianceDerivative[i] += incrementVarianceDerivative[i];
+        varianceDerivatives[k][i] = varianceDerivative[i];
+        factorDerivatives[k][i] = factors[k] > 0d ? incrementVarianceDerivative[i] / (2d * factors[k] * dt) : 0d;
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains the model parameters.
+   *
+   * @return the parameters
+   */
+  public HullWhiteOneFactorPiecewiseConstantParameters getParameters() {
+    return parameters;
+  }
+
+  /**
+   * Obtains the numeraire time.
+   * <p>
+   * This is the last bond maturity.
+   *
+   * @return the numeraire time
+   */
+  public double getNumeraireTime() {
+    return numeraireTime;
+  }
+
+  /**
+   * Obtains the index of the path value for a simulation time and a bond.
+   * <p>
+   * The bond index 0 is the deflator of the simulation time,
+   * the bond index {@code m + 1} is the {@code m}-th bond maturity of the simulation time.
+   *
+   * @param timeIndex  the index of the simulation time
+   * @param bondIndex  the index of the bond
+   * @return the index of the path value
+   */
+  public int pathIndex(int timeIndex, int bondIndex) {
+    return offsets[timeIndex] + bondIndex;
+  }
+
+  @Override
+  public DoubleArray getTimes() {
+    return times;
+  }
+
+  @Override
+  public int getPathSize() {
+    return offsets[offsets.length - 1];
+  }
+
+  @Override
+  public int getParameterCount() {
+    return parameters.getVolatility().size();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void path(double[] increments, double[] path) {
+    double x = 0d;
+    for (int k = 0; k < times.size(); ++k) {
+      x += factors[k] * increments[k];
+      double variance = variances[k];
+      for (int j = offsets[k]; j < offsets[k + 1]; ++j) {
+        path[j] = initialValues[j] * Math.exp(-h[j] * x - 0.5 * h[j] * h[j] * variance);
+      }
+    }
+  }
+
+  @Override
+  public void pathDerivatives(double[] increments, double[] path, double[][] pathDerivatives) {
+    for (int i = 0; i < pathDerivatives.length; ++i) {
+      double xDerivative = 0d;
+      for (int k = 0; k < times.size(); ++k) {
+        xDerivative += factorDerivatives[k][i] * increments[k];
+        double varianceDerivative = varianceDerivatives[k][i];
+        for (int j = offsets[k]; j < offsets[k + 1]; ++j) {
+          pathDerivatives[i][j] = path[j] * (-h[j] * xDerivative - 0.5 * h[j] * h[j] * varianceDerivative);
+        }
+      }
+    }
+  }
+
+}
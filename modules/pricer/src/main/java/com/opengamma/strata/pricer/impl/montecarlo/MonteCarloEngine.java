@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import java.util.stream.IntStream;
+
+import com.opengamma.strata.basics.value.ValueDerivatives;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.math.impl.cern.Probability;
+import com.opengamma.strata.math.impl.random.SobolSequenceGenerator;
+import com.opengamma.strata.math.impl.random.SplittableNormalRandomNumberGenerator;
+
+/**
+ * Monte Carlo pricing engine.
+ * <p>
+ * The engine simulates the paths of a {@link MonteCarloModel} and averages a {@link MonteCarloPayoff} over them.
+ * The derivatives of the price with respect to the model parameters are computed by the pathwise method.
+ * <p>
+ * The paths are split in blocks of fixed size that are simulated in parallel.
+ * The random numbers of a block depend only on the block index, either through a dedicated pseudo-random stream
+ * or through the position in the quasi-random sequence, and the block results are summed in block order.
+ * Thus the result is the same whatever the number of threads.
+ * <p>
+ * Optionally, antithetic variates are used, in which case each draw of normal variates produces two paths,
+ * and the Brownian bridge is used to construct the paths, which is recommended with the Sobol sequence.
+ */
+public final class MonteCarloEngine {
+
+  /**
+   * Default number of paths per block.
+   */
+  private static final int BLOCK_SIZE_DEFAULT = 1024;
+
+  /**
+   * The sequence type.
+   */
+  private final MonteCarloSequenceType sequenceType;
+  /**
+   * The number of draws of normal variates.
+   */
+  private final int numberOfPaths;
+  /**
+   * The seed, used for pseudo-random numbers only.
+   */
+  private final long seed;
+  /**
+   * Whether antithetic variates are used.
+   */
+  private final boolean antithetic;
+  /**
+   * Whether the paths are constructed by Brownian bridge.
+   */
+  private final boolean brownianBridge;
+  /**
+   * The number of draws per block.
+   */
+  private final int blockSize;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an engine using pseudo-random numbers.
+   * <p>
+   * Antithetic variates and Brownian bridge are not used.
+   *
+   * @param numberOfPaths  the number of paths
+   * @param seed  the seed
+   * @return the engine
+   */
+  public static MonteCarloEngine ofPseudoRandom(int numberOfPaths, long seed) {
+    return new MonteCarloEngine(
+        MonteCarloSequenceType.PSEUDO_RANDOM, numberOfPaths, seed, false, false, BLOCK_SIZE_DEFAULT);
+  }
+
+  /**
+   * Obtains an engine using the Sobol sequence.
+   * <p>
+   * The paths are constructed by Brownian bridge. Antithetic variates are not used.
+   *
+   * @param numberOfPaths  the number of paths
+   * @return the engine
+   */
+  public static MonteCarloEngine ofSobol(int numberOfPaths) {
+    return new MonteCarloEngine(MonteCarloSequenceType.SOBOL, numberOfPaths, 0L, false, true, BLOCK_SIZE_DEFAULT);
+  }
+
+  private MonteCarloEngine(
+      MonteCarloSequenceType sequenceType,
+      int numberOfPaths,
+      long seed,
+      boolean antithetic,
+      boolean brownianBridge,
+      int blockSize) {
+
+    this.sequenceType = ArgChecker.notNull(sequenceType, "sequenceType");
+    this.numberOfPaths = ArgChecker.notNegativeOrZero(numberOfPaths, "numberOfPaths");
+    this.seed = seed;
+    this.antithetic = antithetic;
+    this.brownianBridge = brownianBridge;
+    this.blockSize = ArgChecker.notNegativeOrZero(blockSize, "blockSize");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns a copy of this engine with antithetic variates enabled or disabled.
+   * <p>
+   * With antithetic variates, each draw of normal variates produces a second path from the negated variates.
+   *
+   * @param antithetic  whether antithetic variates are used
+   * @return the engine
+   */
+  public MonteCarloEngine withAntithetic(boolean antithetic) {
+    return new MonteCarloEngine(sequenceType, numberOfPaths, seed, antithetic, brownianBridge, blockSize);
+  }
+
+  /**
+   * Returns a copy of this engine with Brownian bridge path construction enabled or disabled.
+   *
+   * @param brownianBridge  whether the paths are constructed by Brownian bridge
+   * @return the engine
+   */
+  public MonteCarloEngine withBrownianBridge(boolean brownianBridge) {
+    return new MonteCarloEngine(sequenceType, numberOfPaths, seed, antithetic, brownianBridge, blockSize);
+  }
+
+  /**
+   * Returns a copy of this engine with the specified block size.
+   * <p>
+   * The block is the unit of parallel work. The block size affects the pseudo-random numbers,
+   * thus the results depend on the block size, but not on the number of threads.
+   *
+   * @param blockSize  the number of draws per block
+   * @return the engine
+   */
+  public MonteCarloEngine withBlockSize(int blockSize) {
+    return new MonteCarloEngine(sequenceType, numberOfPaths, seed, antithetic, brownianBridge, blockSize);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains the sequence type.
+   *
+   * @return the sequence type
+   */
+  public MonteCarloSequenceType getSequenceType() {
+    return sequenceType;
+  }
+
+  /**
+   * Obtains the number of draws of normal variates.
+   * <p>
+   * If antithetic variates are used, the number of simulated paths is twice this number.
+   *
+   * @return the number of paths
+   */
+  public int getNumberOfPaths() {
+    return numberOfPaths;
+  }
+
+  /**
+   * Obtains whether antithetic variates are used.
+   *
+   * @return true if antithetic variates are used
+   */
+  public boolean isAntithetic() {
+    return antithetic;
+  }
+
+  /**
+   * Obtains whether the paths are constructed by Brownian bridge.
+   *
+   * @return true if Brownian bridge is used
+   */
+  public boolean isBrownianBridge() {
+    return brownianBridge;
+  }
+
+  /**
+   * Obtains the number of draws per block.
+   *
+   * @return the block size
+   */
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Computes the price.
+   * <p>
+   * The price is the average of the discounted payoff over the simulated paths.
+   *
+   * @param model  the model
+   * @param payoff  the payoff
+   * @return the price
+   */
+  public double price(MonteCarloModel model, MonteCarloPayoff payoff) {
+    return simulate(model, payoff, false)[0];
+  }
+
+  /**
+   * Computes the price and its derivatives with respect to the model parameters.
+   * <p>
+   * The derivatives are computed by the pathwise method, which requires the payoff to be
+   * continuous with respect to the path values.
+   *
+   * @param model  the model
+   * @param payoff  the payoff
+   * @return the price and its derivatives
+   */
+  public ValueDerivatives priceAdjoint(MonteCarloModel model, MonteCarloPayoff payoff) {
+    double[] result = simulate(model, payoff, true);
+    return ValueDerivatives.of(result[0], DoubleArray.of(model.getParameterCount(), i -> result[i + 1]));
+  }
+
+  //-------------------------------------------------------------------------
+  // simulates all of the blocks in parallel and averages the results in block order
+  private double[] simulate(MonteCarloModel model, MonteCarloPayoff payoff, boolean adjoint) {
+    int nSteps = model.getTimes().size();
+    if (sequenceType == MonteCarloSequenceType.SOBOL) {
+      ArgChecker.isTrue(nSteps <= SobolSequenceGenerator.MAX_DIMENSION,
+          "Sobol sequence supports at most {} time steps, but model has {}",
+          SobolSequenceGenerator.MAX_DIMENSION, nSteps);
+    }
+    BrownianBridge bridge = brownianBridge ? new BrownianBridge(model.getTimes()) : null;
+    int nBlocks = (numberOfPaths + blockSize - 1) / blockSize;
+    double[][] blockSums = new double[nBlocks][];
+    IntStream.range(0, nBlocks).parallel()
+        .forEach(block -> blockSums[block] = simulateBlock(block, model, payoff, bridge, adjoint));
+    int nResults = adjoint ? model.getParameterCount() + 1 : 1;
+    double[] result = new double[nResults];
+    for (int block = 0; block < nBlocks; ++block) {
+      for (int i = 0; i < nResults; ++i) {
+        result[i] += blockSums[block][i];
+      }
+    }
+    double nSamples = antithetic ? 2d * numberOfPaths : numberOfPaths;
+    for (int i = 0; i < nResults; ++i) {
+      result[i] /= nSamples;
+    }
+    return result;
+  }
+
+  // simulates one block, the arrays are allocated once per block
+  private double[] simulateBlock(
+      int block,
+      MonteCarloModel model,
+      MonteCarloPayoff payoff,
+      BrownianBridge bridge,
+      boolean adjoint) {
+
+    DoubleArray times = model.getTimes();
+    int nSteps = times.size();
+    int pathSize = model.getPathSize();
+    int nParams = adjoint ? model.getParameterCount() : 0;
+    double[] sqrtDt = new double[nSteps];
+    for (int i = 0; i < nSteps; ++i) {
+      sqrtDt[i] = Math.sqrt(times.get(i) - (i == 0 ? 0d : times.get(i - 1)));
+    }
+    double[] normals = new double[nSteps];
+    double[] increments = new double[nSteps];
+    double[] path = new double[pathSize];
+    double[] pathBar = new double[pathSize];
+    double[][] pathDerivatives = new double[nParams][pathSize];
+    double[] sums = new double[nParams + 1];
+    int start = block * blockSize;
+    int end = Math.min(numberOfPaths, start + blockSize);
+    SobolSequenceGenerator sobol = null;
+    SplittableNormalRandomNumberGenerator random = null;
+    if (sequenceType == MonteCarloSequenceType.SOBOL) {
+      sobol = new SobolSequenceGenerator(nSteps);
+      sobol.skipTo(start + 1L);
+    } else {
+      random = SplittableNormalRandomNumberGenerator.of(seed).stream(block);
+    }
+    for (int draw = start; draw < end; ++draw) {
+      if (sobol != null) {
+        sobol.nextPoint(normals);
+        for (int i = 0; i < nSteps; ++i) {
+          normals[i] = Probability.normalInverse(normals[i]);
+        }
+      } else {
+        random.fill(normals);
+      }
+      for (int sign = 1; sign >= (antithetic ? -1 : 1); sign -= 2) {
+        if (bridge != null) {
+          bridge.increments(normals, increments);
+          if (sign < 0) {
+            for (int i = 0; i < nSteps; ++i) {
+              increments[i] = -increments[i];
+            }
+          }
+        } else {
+          for (int i = 0; i < nSteps; ++i) {
+            increments[i] = sign * sqrtDt[i] * normals[i];
+          }
+        }
+        model.path(increments, path);
+        if (adjoint) {
+          sums[0] += payoff.valueAdjoint(path, pathBar);
+          model.pathDerivatives(increments, path, pathDerivatives);
+          for (int p = 0; p < nParams; ++p) {
+            double sum = 0d;
+            for (int k = 0; k < pathSize; ++k) {
+              sum += pathBar[k] * pathDerivatives[p][k];
+            }
+            sums[p + 1] += sum;
+          }
+        } else {
+          sums[0] += payoff.value(path);
+        }
+      }
+    }
+    return sums;
+  }
+
+}
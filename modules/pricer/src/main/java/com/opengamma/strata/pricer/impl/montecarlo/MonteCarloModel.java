@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Model used in Monte Carlo simulation.
+ * <p>
+ * The model is driven by a one-dimensional Brownian motion observed on the simulation times.
+ * For each path, the model receives the increments of the Brownian motion between consecutive simulation times,
+ * and computes the path values, which are the quantities observed by the payoffs.
+ * <p>
+ * The model also computes the derivatives of the path values with respect to its parameters,
+ * which are used to compute pathwise Greeks.
+ * <p>
+ * Implementations must be immutable and thread-safe, as paths are generated in parallel.
+ */
+public interface MonteCarloModel {
+
+  /**
+   * Obtains the simulation times.
+   * <p>
+   * The times are positive and sorted in increasing order.
+   * 
+   * @return the simulation times
+   */
+  public abstract DoubleArray getTimes();
+
+  /**
+   * Obtains the number of path values for each path.
+   * 
+   * @return the number of path values
+   */
+  public abstract int getPathSize();
+
+  /**
+   * Obtains the number of model parameters for which pathwise derivatives are computed.
+   * 
+   * @return the number of parameters
+   */
+  public abstract int getParameterCount();
+
+  /**
+   * Computes the path values.
+   * <p>
+   * The {@code i}-th element of {@code increments} is the increment of the Brownian motion 
+   * between the {@code (i-1)}-th and the {@code i}-th simulation times, where the time before the first is zero.
+   * The size of {@code path} is the path size.
+   * 
+   * @param increments  the Brownian increments
+   * @param path  the array to populate with the path values
+   */
+  public abstract void path(double[] increments, double[] path);
+
+  /**
+   * Computes the derivatives of the path values with respect to the model parameters.
+   * <p>
+   * The {@code (i,j)} component of {@code pathDerivatives} is populated with the derivative of the {@code j}-th
+   * path value with respect to the {@code i}-th parameter.
+   * 
+   * @param increments  the Brownian increments
+   * @param path  the path values computed by {@link #path(double[], double[])}
+   * @param pathDerivatives  the array to populate with the derivatives
+   */
+  public abstract void pathDerivatives(double[] increments, double[] path, double[][] pathDerivatives);
+
+}
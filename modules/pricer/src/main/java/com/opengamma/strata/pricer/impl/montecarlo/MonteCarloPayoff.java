@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+/**
+ * Payoff used in Monte Carlo simulation.
+ * <p>
+ * The payoff is a function of the path values computed by a {@link MonteCarloModel}.
+ * The value must include the discounting, so that the price is the average of the values over the paths.
+ * <p>
+ * Implementations must be immutable and thread-safe, as paths are evaluated in parallel.
+ */
+public interface MonteCarloPayoff {
+
+  /**
+   * Computes the discounted payoff for a path.
+   * 
+   * @param path  the path values
+   * @return the discounted payoff
+   */
+  public abstract double value(double[] path);
+
+  /**
+   * Computes the discounted payoff for a path and its derivatives with respect to the path values.
+   * <p>
+   * The derivatives are written to {@code pathBar}, whose size is the same as {@code path}.
+   * 
+   * @param path  the path values
+   * @param pathBar  the array to populate with the derivatives
+   * @return the discounted payoff
+   */
+  public abstract double valueAdjoint(double[] path, double[] pathBar);
+
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import com.opengamma.strata.math.impl.random.SobolSequenceGenerator;
+import com.opengamma.strata.math.impl.random.SplittableNormalRandomNumberGenerator;
+
+/**
+ * The type of sequence used to generate the normal random numbers of a Monte Carlo simulation.
+ */
+public enum MonteCarloSequenceType {
+
+  /**
+   * Pseudo-random numbers.
+   * <p>
+   * The numbers are generated by {@link SplittableNormalRandomNumberGenerator}, with one stream per block of paths.
+   */
+  PSEUDO_RANDOM,
+  /**
+   * Quasi-random numbers.
+   * <p>
+   * The numbers are generated by {@link SobolSequenceGenerator}, with one dimension per time step.
+   * The number of time steps is limited to {@link SobolSequenceGenerator#MAX_DIMENSION}.
+   */
+  SOBOL;
+
+}
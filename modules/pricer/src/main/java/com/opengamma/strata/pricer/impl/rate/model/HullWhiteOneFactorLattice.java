@@ -0,0 +1,594 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.rate.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.tuple.DoublesPair;
+import com.opengamma.strata.math.impl.statistics.distribution.NormalDistribution;
+import com.opengamma.strata.math.impl.statistics.distribution.ProbabilityDistribution;
+import com.opengamma.strata.pricer.model.HullWhiteOneFactorPiecewiseConstantParameters;
+
+/**
+ * Lattice for the Hull-White one factor model with piecewise constant volatility.
+ * <p>
+ * The lattice is built under the forward measure associated to the numeraire {@code P(t,T*)},
+ * the numeraire time {@code T*} being the horizon of the lattice.
+ * With {@code X} the Gaussian martingale {@code dX = sigma(t) exp(a t) dW} and {@code V(t)} its variance,
+ * the deflated bond prices are exact functions of {@code X}:
+ * <p>
+ * {@code P(0,T*) P(t,u) / P(t,T*) = P(0,u) exp(-h(u) X(t) - h(u)^2 V(t) / 2)},
+ * with {@code h(u) = (exp(-a T*) - exp(-a u)) / a}.
+ * The variance and the function h are computed in a form that is stable when the mean reversion {@code a}
+ * is close to zero, and they take their limit values, for example {@code h(u) = u - T*}, when it is zero.
+ * <p>
+ * The states of {@code X} are equally spaced and shared by all the times up to the horizon.
+ * The spacing is such that the states cover the specified number of standard deviations of {@code X}
+ * at the horizon, so that the states only depend on the model parameters and on the lattice settings.
+ * The values between the states are linearly interpolated, with flat extrapolation beyond the first and last states.
+ * Rolling back the values from one time to an earlier one is then the exact Gaussian expectation
+ * of this interpolated function, so that the times can be far apart and are typically the exercise times only.
+ * The transition weights between two times are computed the first time they are used, then reused.
+ * The weights beyond ten standard deviations of the Gaussian increment are folded into the boundary weights.
+ * <p>
+ * The maximum of two interpolated functions has a kink between two states, which the interpolation of
+ * the maximum at the states would misplace. The values at the two states around the kink are adjusted
+ * by {@link #maximum(double[], double[])} so that the interpolated values have the same integral
+ * as the maximum between the states. The results are then smooth functions of the inputs.
+ * <p>
+ * The adjoint methods propagate the derivatives of a result with respect to the values back to
+ * the derivatives with respect to the volatilities of the model, including through the spacing of the states.
+ * <p>
+ * Instances are safe to use from multiple threads.
+ */
+public final class HullWhiteOneFactorLattice {
+
+  /**
+   * The default horizon, in years.
+   */
+  public static final double DEFAULT_HORIZON = 30d;
+  /**
+   * The default number of states on each side of the central state.
+   */
+  public static final int DEFAULT_STATES_PER_SIDE = 1000;
+  /**
+   * The default number of standard deviations covered by the states.
+   */
+  public static final double DEFAULT_STANDARD_DEVIATIONS = 8d;
+  /**
+   * Normal distribution function.
+   */
+  private static final ProbabilityDistribution<Double> NORMAL = new NormalDistribution(0, 1);
+  /**
+   * The number of standard deviations of the Gaussian increment beyond which the weights are folded.
+   */
+  private static final double CUTOFF = 10d;
+
+  /**
+   * The model parameters.
+   */
+  private final HullWhiteOneFactorPiecewiseConstantParameters parameters;
+  /**
+   * The horizon, which is the numeraire time.
+   */
+  private final double horizon;
+  /**
+   * The number of states on each side of the central state.
+   */
+  private final int statesPerSide;
+  /**
+   * The variance of X at the horizon.
+   */
+  private final double horizonVariance;
+  /**
+   * The spacing between the states.
+   */
+  private final double spacing;
+  /**
+   * The transition weights between two times, by start and end time.
+   */
+  private final ConcurrentHashMap<DoublesPair, Step> steps = new ConcurrentHashMap<>();
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance with the default horizon and number of states.
+   * <p>
+   * The states cover 8 standard deviations of {@code X} at 30 years, with 2001 states.
+   *
+   * @param parameters  the Hull-White model parameters
+   * @return the lattice
+   */
+  public static HullWhiteOneFactorLattice of(HullWhiteOneFactorPiecewiseConstantParameters parameters) {
+    return of(parameters, DEFAULT_HORIZON, DEFAULT_STATES_PER_SIDE, DEFAULT_STANDARD_DEVIATIONS);
+  }
+
+  /**
+   * Obtains an instance.
+   * <p>
+   * The number of states is {@code 2 * statesPerSide + 1}.
+   *
+   * @param parameters  the Hull-White model parameters
+   * @param horizon  the horizon, which is the numeraire time and the last time of the lattice
+   * @param statesPerSide  the number of states on each side of the central state
+   * @param standardDeviations  the number of standard deviations of X at the horizon covered by the states
+   * @return the lattice
+   */
+  public static HullWhiteOneFactorLattice of(
+      HullWhiteOneFactorPiecewiseConstantParameters parameters,
+      double horizon,
+      int statesPerSide,
+      double standardDeviations) {
+
+    ArgChecker.notNull(parameters, "parameters");
+    ArgChecker.notNegativeOrZero(horizon, "horizon");
+    ArgChecker.notNegativeOrZero(statesPerSide, "statesPerSide");
+    ArgChecker.notNegativeOrZero(standardDeviations, "standardDeviations");
+    return new HullWhiteOneFactorLattice(parameters, horizon, statesPerSide, standardDeviations);
+  }
+
+  private HullWhiteOneFactorLattice(
+      HullWhiteOneFactorPiecewiseConstantParameters parameters,
+      double horizon,
+      int statesPerSide,
+      double standardDeviations) {
+
+    this.parameters = parameters;
+    this.horizon = horizon;
+    this.statesPerSide = statesPerSide;
+    this.horizonVariance = variance(horizon);
+    ArgChecker.isTrue(horizonVariance > 0d, "the variance at the horizon must be positive");
+    this.spacing = standardDeviations * Math.sqrt(horizonVariance) / statesPerSide;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains the model parameters.
+   *
+   * @return the parameters
+   */
+  public HullWhiteOneFactorPiecewiseConstantParameters getParameters() {
+    return parameters;
+  }
+
+  /**
+   * Obtains the horizon, which is the numeraire time.
+   *
+   * @return the horizon
+   */
+  public double getHorizon() {
+    return horizon;
+  }
+
+  /**
+   * Obtains the number of states.
+   *
+   * @return the number of states
+   */
+  public int getStateCount() {
+    return 2 * statesPerSide + 1;
+  }
+
+  /**
+   * Obtains the states of X.
+   * <p>
+   * The states are the same for all the times.
+   *
+   * @return the states
+   */
+  public DoubleArray getStates() {
+    return DoubleArray.of(getStateCount(), k -> (k - statesPerSide) * spacing);
+  }
+
+  /**
+   * Calculates the variance of X at a time.
+   *
+   * @param time  the time
+   * @return the variance
+   */
+  public double variance(double time) {
+    double a = parameters.getMeanReversion();
+    DoubleArray volatility = parameters.getVolatility();
+    DoubleArray volatilityTime = parameters.getVolatilityTime();
+    double variance = 0d;
+    for (int i = 0; i < volatility.size(); ++i) {
+      double low = Math.max(0d, volatilityTime.get(i));
+      double high = Math.min(time, volatilityTime.get(i + 1));
+      if (high > low) {
+        double vol = volatility.get(i);
+        variance += vol * vol * varianceIntegral(a, low, high);
+      }
+    }
+    return variance;
+  }
+
+  /**
+   * Calculates the function h for a bond maturity.
+   * <p>
+   * This is {@code h(u) = (exp(-a T*) - exp(-a u)) / a}, with {@code T*} the horizon,
+   * and {@code h(u) = u - T*} if the mean reversion {@code a} is zero.
+   * The deflated bond price at the state {@code x} of the time {@code t} is then
+   * {@code P(0,u) exp(-h(u) x - h(u)^2 V(t) / 2)}.
+   *
+   * @param maturity  the bond maturity
+   * @return the function h
+   */
+  public double h(double maturity) {
+    double a = parameters.getMeanReversion();
+    double length = maturity - horizon;
+    return Math.exp(-a * horizon) * length * expm1OverX(-a * length);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Rolls back the values from a time to an earlier one.
+   * <p>
+   * The values are the deflated values at each state at the end time,
+   * and the result is their expectation at each state at the start time.
+   *
+   * @param start  the start time, positive
+   * @param end  the end time, after the start time and not after the horizon
+   * @param values  the values at each state
+   * @return the expectation at each state of the start time
+   */
+  public double[] rollback(double start, double end, double[] values) {
+    ArgChecker.isTrue(start > 0d, "start must be positive");
+    Step step = step(start, end);
+    int nStates = getStateCount();
+    double[] result = new double[nStates];
+    for (int k = 0; k < nStates; ++k) {
+      result[k] = step.expectation(k, values);
+    }
+    return result;
+  }
+
+  /**
+   * Calculates the expectation at time 0 of the values at a time.
+   * <p>
+   * For deflated values, this is the present value.
+   *
+   * @param time  the time of the values, positive and not after the horizon
+   * @param values  the values at each state
+   * @return the expectation
+   */
+  public double expectation(double time, double[] values) {
+    return step(0d, time).expectation(statesPerSide, values);
+  }
+
+  /**
+   * Calculates the values representing the maximum of two functions.
+   * <p>
+   * The result is the maximum at each state, except at the two states around a crossing of the functions.
+   * There the values are adjusted so that their interpolation has the same integral between the states as
+   * the maximum of the interpolated functions.
+   *
+   * @param first  the values of the first function at each state
+   * @param second  the values of the second function at each state
+   * @return the values of the maximum at each state
+   */
+  public double[] maximum(double[] first, double[] second) {
+    int nStates = getStateCount();
+    double[] result = new double[nStates];
+    for (int k = 0; k < nStates; ++k) {
+      result[k] = Math.max(first[k], second[k]);
+    }
+    for (int k = 0; k < nStates - 1; ++k) {
+      double difference0 = first[k] - second[k];
+      double difference1 = first[k + 1] - second[k + 1];
+      if (difference0 * difference1 < 0d) {
+        double positive = Math.max(difference0, difference1);
+        double negative = Math.min(difference0, difference1);
+        // position of the crossing relative to the state where the difference is negative
+        double t = negative / (negative - positive);
+        int negativeState = difference0 < 0d ? k : k + 1;
+        result[negativeState] -= positive * t * (2d - t) / 6d;
+        result[2 * k + 1 - negativeState] -= positive * t * (1d + t) / 6d;
+      }
+    }
+    return result;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the adjoint of {@link #rollback(double, double, double[])}.
+   * <p>
+   * The derivatives of the result with respect to the volatilities are multiplied by the result adjoint
+   * and added to {@code volatilityAdjoint}.
+   *
+   * @param start  the start time, positive
+   * @param end  the end time, after the start time and not after the horizon
+   * @param values  the values at each state
+   * @param resultAdjoint  the adjoint of each state of the result
+   * @param volatilityAdjoint  the adjoint of each volatility, updated by this method
+   * @return the adjoint of the values
+   */
+  public double[] rollbackAdjoint(
+      double start,
+      double end,
+      double[] values,
+      double[] resultAdjoint,
+      double[] volatilityAdjoint) {
+
+    ArgChecker.isTrue(start > 0d, "start must be positive");
+    Step step = step(start, end);
+    int nStates = getStateCount();
+    double[] valuesAdjoint = new double[nStates];
+    double ratioAdjoint = 0d;
+    for (int k = 0; k < nStates; ++k) {
+      if (resultAdjoint[k] != 0d) {
+        ratioAdjoint += step.expectationAdjoint(k, values, resultAdjoint[k], valuesAdjoint);
+      }
+    }
+    ratioAdjoint(step, ratioAdjoint, volatilityAdjoint);
+    return valuesAdjoint;
+  }
+
+  /**
+   * Calculates the adjoint of {@link #expectation(double, double[])}.
+   * <p>
+   * The derivatives of the result with respect to the volatilities are multiplied by the result adjoint
+   * and added to {@code volatilityAdjoint}.
+   *
+   * @param time  the time of the values, positive and not after the horizon
+   * @param values  the values at each state
+   * @param resultAdjoint  the adjoint of the result
+   * @param volatilityAdjoint  the adjoint of each volatility, updated by this method
+   * @return the adjoint of the values
+   */
+  public double[] expectationAdjoint(double time, double[] values, double resultAdjoint, double[] volatilityAdjoint) {
+    Step step = step(0d, time);
+    double[] valuesAdjoint = new double[getStateCount()];
+    double ratioAdjoint = step.expectationAdjoint(statesPerSide, values, resultAdjoint, valuesAdjoint);
+    ratioAdjoint(step, ratioAdjoint, volatilityAdjoint);
+    return valuesAdjoint;
+  }
+
+  /**
+   * Calculates the adjoint of {@link #maximum(double[], double[])}.
+   * <p>
+   * The adjoint of the two functions are added to {@code firstAdjoint} and {@code secondAdjoint}.
+   *
+   * @param first  the values of the first function at each state
+   * @param second  the values of the second function at each state
+   * @param resultAdjoint  the adjoint of each state of the result
+   * @param firstAdjoint  the adjoint of the first function, updated by this method
+   * @param secondAdjoint  the adjoint of the second function, updated by this method
+   */
+  public void maximumAdjoint(
+      double[] first,
+      double[] second,
+      double[] resultAdjoint,
+      double[] firstAdjoint,
+      double[] secondAdjoint) {
+
+    int nStates = getStateCount();
+    for (int k = 0; k < nStates; ++k) {
+      if (first[k] >= second[k]) {
+        firstAdjoint[k] += resultAdjoint[k];
+      } else {
+        secondAdjoint[k] += resultAdjoint[k];
+      }
+    }
+    for (int k = 0; k < nStates - 1; ++k) {
+      double difference0 = first[k] - second[k];
+      double difference1 = first[k + 1] - second[k + 1];
+      if (difference0 * difference1 < 0d) {
+        double positive = Math.max(difference0, difference1);
+        double negative = Math.min(difference0, difference1);
+        double range = positive - negative;
+        double t = negative / (negative - positive);
+        double tPositiveDerivative = negative / (range * range);
+        double tNegativeDerivative = -positive / (range * range);
+        int negativeState = difference0 < 0d ? k : k + 1;
+        int positiveState = 2 * k + 1 - negativeState;
+        double negativeStateAdjoint = resultAdjoint[negativeState];
+        double positiveStateAdjoint = resultAdjoint[positiveState];
+        // adjustments -P t (2 - t) / 6 and -P t (1 + t) / 6
+        double tAdjoint =
+            -positive * (negativeStateAdjoint * (2d - 2d * t) + positiveStateAdjoint * (1d + 2d * t)) / 6d;
+        double positiveAdjoint = -(negativeStateAdjoint * t * (2d - t) + positiveStateAdjoint * t * (1d + t)) / 6d +
+            tAdjoint * tPositiveDerivative;
+        double negativeAdjoint = tAdjoint * tNegativeDerivative;
+        firstAdjoint[positiveState] += positiveAdjoint;
+        secondAdjoint[positiveState] -= positiveAdjoint;
+        firstAdjoint[negativeState] += negativeAdjoint;
+        secondAdjoint[negativeState] -= negativeAdjoint;
+      }
+    }
+  }
+
+  /**
+   * Calculates the adjoint of the variance of X at a time.
+   * <p>
+   * The derivatives of {@link #variance(double)} with respect to the volatilities are multiplied by
+   * the variance adjoint and added to {@code volatilityAdjoint}.
+   *
+   * @param time  the time
+   * @param varianceAdjoint  the adjoint of the variance
+   * @param volatilityAdjoint  the adjoint of each volatility, updated by this method
+   */
+  public void varianceAdjoint(double time, double varianceAdjoint, double[] volatilityAdjoint) {
+    double a = parameters.getMeanReversion();
+    DoubleArray volatility = parameters.getVolatility();
+    DoubleArray volatilityTime = parameters.getVolatilityTime();
+    for (int i = 0; i < volatility.size(); ++i) {
+      double low = Math.max(0d, volatilityTime.get(i));
+      double high = Math.min(time, volatilityTime.get(i + 1));
+      if (high > low) {
+        volatilityAdjoint[i] += varianceAdjoint * 2d * volatility.get(i) * varianceIntegral(a, low, high);
+      }
+    }
+  }
+
+  /**
+   * Calculates the adjoint of the states.
+   * <p>
+   * The states depend on the volatilities through their spacing.
+   * The derivatives of the states with respect to the volatilities are multiplied by the states adjoint
+   * and added to {@code volatilityAdjoint}.
+   *
+   * @param statesAdjoint  the adjoint of each state
+   * @param volatilityAdjoint  the adjoint of each volatility, updated by this method
+   */
+  public void statesAdjoint(double[] statesAdjoint, double[] volatilityAdjoint) {
+    double spacingAdjoint = 0d;
+    for (int k = 0; k < statesAdjoint.length; ++k) {
+      spacingAdjoint += (k - statesPerSide) * statesAdjoint[k];
+    }
+    spacingAdjoint(spacingAdjoint, volatilityAdjoint);
+  }
+
+  //-------------------------------------------------------------------------
+  // (exp(x) - 1) / x, with its limit 1 at zero, accurate for small x
+  private static double expm1OverX(double x) {
+    return x == 0d ? 1d : Math.expm1(x) / x;
+  }
+
+  // the integral of exp(2 a s) between two times
+  private static double varianceIntegral(double a, double low, double high) {
+    return Math.exp(2d * a * low) * (high - low) * expm1OverX(2d * a * (high - low));
+  }
+
+  // the transition weights between two times, computed once
+  private Step step(double start, double end) {
+    ArgChecker.isTrue(end > start, "end must be after start");
+    ArgChecker.isTrue(end <= horizon, "end must not be after the horizon {}", horizon);
+    return steps.computeIfAbsent(DoublesPair.of(start, end), key -> new Step(start, end));
+  }
+
+  // the spacing is proportional to the standard deviation of X at the horizon
+  private void spacingAdjoint(double spacingAdjoint, double[] volatilityAdjoint) {
+    varianceAdjoint(horizon, spacingAdjoint * spacing / (2d * horizonVariance), volatilityAdjoint);
+  }
+
+  // the ratio of a step depends on the spacing and on the variance increment between the times
+  private void ratioAdjoint(Step step, double ratioAdjoint, double[] volatilityAdjoint) {
+    double incrementAdjoint = -ratioAdjoint * step.ratio / (2d * step.incrementVariance);
+    varianceAdjoint(step.end, incrementAdjoint, volatilityAdjoint);
+    if (step.start > 0d) {
+      varianceAdjoint(step.start, -incrementAdjoint, volatilityAdjoint);
+    }
+    spacingAdjoint(ratioAdjoint * step.ratio / spacing, volatilityAdjoint);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The transition weights between two times.
+   */
+  private final class Step {
+    /**
+     * The start time.
+     */
+    private final double start;
+    /**
+     * The end time.
+     */
+    private final double end;
+    /**
+     * The variance of the increment of X between the times.
+     */
+    private final double incrementVariance;
+    /**
+     * The spacing divided by the standard deviation of the increment of X.
+     */
+    private final double ratio;
+    /**
+     * The number of segments on each side of a state.
+     */
+    private final int window;
+    /**
+     * The weights of the lower end of the segments at each offset.
+     */
+    private final double[] lowerWeights;
+    /**
+     * The weights of the upper end of the segments at each offset.
+     */
+    private final double[] upperWeights;
+    /**
+     * The weights of the boundary states at each distance.
+     */
+    private final double[] boundaryWeights;
+    /**
+     * The derivative of the lower weights with respect to the ratio.
+     */
+    private final double[] lowerWeightDerivatives;
+    /**
+     * The derivative of the upper weights with respect to the ratio.
+     */
+    private final double[] upperWeightDerivatives;
+    /**
+     * The derivative of the boundary weights with respect to the ratio.
+     */
+    private final double[] boundaryWeightDerivatives;
+
+    private Step(double start, double end) {
+      this.start = start;
+      this.end = end;
+      this.incrementVariance = variance(end) - variance(start);
+      ArgChecker.isTrue(incrementVariance > 0d, "the variance must be increasing between the times");
+      this.ratio = spacing / Math.sqrt(incrementVariance);
+      this.window = (int) Math.min(getStateCount() - 1, Math.ceil(CUTOFF / ratio));
+      this.lowerWeights = new double[2 * window];
+      this.upperWeights = new double[2 * window];
+      this.lowerWeightDerivatives = new double[2 * window];
+      this.upperWeightDerivatives = new double[2 * window];
+      this.boundaryWeights = new double[window + 1];
+      this.boundaryWeightDerivatives = new double[window + 1];
+      // segment [d, d + 1] in units of spacing, relative to the starting state
+      for (int d = -window; d < window; ++d) {
+        double z0 = d * ratio;
+        double z1 = (d + 1) * ratio;
+        double pdf0 = NORMAL.getPDF(z0);
+        double pdf1 = NORMAL.getPDF(z1);
+        double mass = NORMAL.getCDF(z1) - NORMAL.getCDF(z0);
+        double moment = pdf0 - pdf1;
+        double massDerivative = (d + 1) * pdf1 - d * pdf0;
+        double momentDerivative = -d * z0 * pdf0 + (d + 1) * z1 * pdf1;
+        double upper = moment / ratio - d * mass;
+        double upperDerivative = momentDerivative / ratio - moment / (ratio * ratio) - d * massDerivative;
+        upperWeights[d + window] = upper;
+        lowerWeights[d + window] = mass - upper;
+        upperWeightDerivatives[d + window] = upperDerivative;
+        lowerWeightDerivatives[d + window] = massDerivative - upperDerivative;
+      }
+      for (int e = 0; e <= window; ++e) {
+        boundaryWeights[e] = NORMAL.getCDF(-e * ratio);
+        boundaryWeightDerivatives[e] = -e * NORMAL.getPDF(e * ratio);
+      }
+    }
+
+    // expectation over the step, starting from one state
+    private double expectation(int state, double[] values) {
+      int low = Math.max(0, state - window);
+      int high = Math.min(getStateCount() - 1, state + window);
+      double result = boundaryWeights[state - low] * values[low] + boundaryWeights[high - state] * values[high];
+      for (int l = low; l < high; ++l) {
+        int offset = l - state + window;
+        result += lowerWeights[offset] * values[l] + upperWeights[offset] * values[l + 1];
+      }
+      return result;
+    }
+
+    // adjoint of the expectation from one state, returns the adjoint of the ratio
+    private double expectationAdjoint(int state, double[] values, double resultAdjoint, double[] valuesAdjoint) {
+      int low = Math.max(0, state - window);
+      int high = Math.min(getStateCount() - 1, state + window);
+      valuesAdjoint[low] += resultAdjoint * boundaryWeights[state - low];
+      valuesAdjoint[high] += resultAdjoint * boundaryWeights[high - state];
+      double ratioDerivative = boundaryWeightDerivatives[state - low] * values[low] +
+          boundaryWeightDerivatives[high - state] * values[high];
+      for (int l = low; l < high; ++l) {
+        int offset = l - state + window;
+        valuesAdjoint[l] += resultAdjoint * lowerWeights[offset];
+        valuesAdjoint[l + 1] += resultAdjoint * upperWeights[offset];
+        ratioDerivative += lowerWeightDerivatives[offset] * values[l] + upperWeightDerivatives[offset] * values[l + 1];
+      }
+      return resultAdjoint * ratioDerivative;
+    }
+  }
+
+}
@@ -5,9 +5,14 @@
  */
 package com.opengamma.strata.pricer.impl.tree;
 
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.value.ValueDerivatives;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.DoubleMatrix;
 import com.opengamma.strata.pricer.fxopt.RecombiningTrinomialTreeData;
 
 /**
@@ -17,9 +22,17 @@ import com.opengamma.strata.pricer.fxopt.RecombiningTrinomialTreeData;
  * and the option to price is specified by {@code OptionFunction}. 
  * <p>
  * Option pricing with non-uniform tree is realised by specifying {@code RecombiningTrinomialTreeData}.
+ * <p>
+ * Several options sharing the same tree can be priced in a single backward induction.
+ * The layer data is then read once per time step and the option values of wide time layers are computed in parallel.
  */
 public class TrinomialTree {
 
+  /**
+   * The minimum number of node values in a time layer for the layer to be computed in parallel.
+   */
+  private static final int PARALLEL_THRESHOLD = 2048;
+
   /**
    * Price an option under the specified trinomial lattice.
    * <p>
@@ -117,4 +130,86 @@ public class TrinomialTree {
     return ValueDerivatives.of(values.get(0), DoubleArray.of(delta));
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Price a list of options under the specified trinomial tree grid.
+   * <p>
+   * The options are priced in a single backward induction over the shared nodes.
+   * The result is the same as calling {@link #optionPrice(OptionFunction, RecombiningTrinomialTreeData)}
+   * for each option in turn.
+   * 
+   * @param functions  the options
+   * @param data  the trinomial tree data
+   * @return the option prices, in the order of the options
+   */
+  public DoubleArray optionPrice(
+      List<? extends OptionFunction> functions,
+      RecombiningTrinomialTreeData data) {
+
+    DoubleArray[] values = backwardInduction(functions, data, null);
+    return DoubleArray.of(values.length, k -> values[k].get(0));
+  }
+
+  /**
+   * Compute the price and delta of a list of options under the specified trinomial tree grid.
+   * <p>
+   * The options are priced in a single backward induction over the shared nodes.
+   * The result is the same as calling {@link #optionPriceAdjoint(OptionFunction, RecombiningTrinomialTreeData)}
+   * for each option in turn.
+   * 
+   * @param functions  the options
+   * @param data  the trinomial tree data
+   * @return the option prices and spot deltas, in the order of the options
+   */
+  public List<ValueDerivatives> optionPriceAdjoint(
+      List<? extends OptionFunction> functions,
+      RecombiningTrinomialTreeData data) {
+
+    double[] deltas = new double[functions.size()];
+    DoubleArray[] values = backwardInduction(functions, data, deltas);
+    ImmutableList.Builder<ValueDerivatives> builder = ImmutableList.builder();
+    for (int k = 0; k < values.length; ++k) {
+      builder.add(ValueDerivatives.of(values[k].get(0), DoubleArray.of(deltas[k])));
+    }
+    return builder.build();
+  }
+
+  // backward induction for all of the functions, the deltas are populated if the array is not null
+  private DoubleArray[] backwardInduction(
+      List<? extends OptionFunction> functions,
+      RecombiningTrinomialTreeData data,
+      double[] deltas) {
+
+    int nSteps = data.getNumberOfSteps();
+    int nFunctions = functions.size();
+    for (OptionFunction function : functions) {
+      ArgChecker.isTrue(nSteps == function.getNumberOfSteps(), "mismatch in number of steps");
+    }
+    DoubleArray stateValueAtExpiry = data.getStateValueAtLayer(nSteps);
+    DoubleArray[] values = new DoubleArray[nFunctions];
+    for (int k = 0; k < nFunctions; ++k) {
+      values[k] = functions.get(k).getPayoffAtExpiryTrinomial(stateValueAtExpiry);
+    }
+    for (int i = nSteps - 1; i > -1; --i) {
+      int layer = i;
+      double discountFactor = data.getDiscountFactorAtLayer(i);
+      DoubleMatrix probability = data.getProbabilityAtLayer(i);
+      DoubleArray stateValue = data.getStateValueAtLayer(i);
+      IntStream indices = IntStream.range(0, nFunctions);
+      if (nFunctions > 1 && (long) nFunctions * (2 * i + 1) >= PARALLEL_THRESHOLD) {
+        indices = indices.parallel();
+      }
+      indices.forEach(k -> values[k] = functions.get(k).getNextOptionValues(
+          discountFactor, probability, stateValue, values[k], layer));
+      if (i == 1 && deltas != null) {
+        for (int k = 0; k < nFunctions; ++k) {
+          double d1 = (values[k].get(2) - values[k].get(1)) / (stateValue.get(2) - stateValue.get(1));
+          double d2 = (values[k].get(1) - values[k].get(0)) / (stateValue.get(1) - stateValue.get(0));
+          deltas[k] = 0.5 * (d1 + d2);
+        }
+      }
+    }
+    return values;
+  }
+
 }
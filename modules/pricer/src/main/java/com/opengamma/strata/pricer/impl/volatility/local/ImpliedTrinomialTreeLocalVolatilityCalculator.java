@@ -12,8 +12,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.array.DoubleMatrix;
 import com.opengamma.strata.collect.tuple.DoublesPair;
@@ -34,6 +37,10 @@ import com.opengamma.strata.pricer.impl.option.BlackScholesFormulaRepository;
  * Local volatility calculation based on trinomila tree model.
  * <p>
  * Emanuel Derman, Iraj Kani and Neil Chriss, "Implied Trinomial Trees of the Volatility Smile" (1996).
+ * <p>
+ * The option prices and the Arrow-Debreu security prices of a time slice only depend on the input surface,
+ * thus they are computed for all the time slices before the transition probabilities are resolved backwards.
+ * The time slices can be computed in parallel using {@link #parallel()}.
  */
 public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolatilityCalculator {
 
@@ -58,6 +65,10 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
    * The resulting local volatilities are interpolated by this interpolator along time and spot dimensions.
    */
   private final SurfaceInterpolator interpolator;
+  /**
+   * Whether the time slices of the tree are computed in parallel.
+   */
+  private final boolean parallel;
 
   /**
    * Creates an instance with default setups.
@@ -92,9 +103,33 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
    * @param interpolator  the interpolator
    */
   public ImpliedTrinomialTreeLocalVolatilityCalculator(int nSteps, double maxTime, SurfaceInterpolator interpolator) {
+    this(nSteps, maxTime, interpolator, false);
+  }
+
+  // restricted constructor
+  private ImpliedTrinomialTreeLocalVolatilityCalculator(
+      int nSteps,
+      double maxTime,
+      SurfaceInterpolator interpolator,
+      boolean parallel) {
+
     this.nSteps = nSteps;
     this.maxTime = maxTime;
-    this.interpolator = interpolator;
+    this.interpolator = ArgChecker.notNull(interpolator, "interpolator");
+    this.parallel = parallel;
+  }
+
+  /**
+   * Returns a calculator that computes the time slices of the tree in parallel.
+   * <p>
+   * The option prices and Arrow-Debreu security prices of the time slices are computed using the common fork-join pool.
+   * The results are identical to the sequential calculation.
+   * The implied volatility or price surface and the rate functions must be thread-safe.
+   * 
+   * @return the calculator computing the time slices in parallel
+   */
+  public ImpliedTrinomialTreeLocalVolatilityCalculator parallel() {
+    return new ImpliedTrinomialTreeLocalVolatilityCalculator(nSteps, maxTime, interpolator, true);
   }
 
   //-------------------------------------------------------------------------
@@ -111,12 +146,36 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
         return impliedVolatilitySurface.zValue(tk);
       }
     };
-    ImmutableList<double[]> localVolData = calibrate(surface, spot, interestRate, dividendRate).getFirst();
+    return localVolatilityFromImpliedVolatility(
+        surface, spot, interestRate, dividendRate, SurfaceName.of("localVol_" + impliedVolatilitySurface.getName()));
+  }
+
+  /**
+   * Computes local volatility surface from implied volatility function.
+   * <p>
+   * The implied volatility function must be spanned by time to expiry and strike.
+   * 
+   * @param impliedVolatilitySurface  the implied volatility surface
+   * @param spot  the spot
+   * @param interestRate  the interest rate
+   * @param dividendRate  the dividend rate
+   * @param surfaceName  the name of the local volatility surface
+   * @return the local volatility surface
+   */
+  public InterpolatedNodalSurface localVolatilityFromImpliedVolatility(
+      Function<DoublesPair, Double> impliedVolatilitySurface,
+      double spot,
+      Function<Double, Double> interestRate,
+      Function<Double, Double> dividendRate,
+      SurfaceName surfaceName) {
+
+    ImmutableList<double[]> localVolData =
+        calibrate(impliedVolatilitySurface, spot, interestRate, dividendRate).getFirst();
     SurfaceMetadata metadata = DefaultSurfaceMetadata.builder()
         .xValueType(ValueType.YEAR_FRACTION)
         .yValueType(ValueType.STRIKE)
         .zValueType(ValueType.LOCAL_VOLATILITY)
-        .surfaceName(SurfaceName.of("localVol_" + impliedVolatilitySurface.getName()))
+        .surfaceName(surfaceName)
         .build();
     return InterpolatedNodalSurface.ofUnsorted(
         metadata,
@@ -166,6 +225,41 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
     double dx = refVolatility * Math.sqrt(3d * dt);
     double upFactor = Math.exp(dx);
     double downFactor = Math.exp(-dx);
+    double[] zeroRates = new double[nSteps + 1];
+    double[] zeroDividendRates = new double[nSteps + 1];
+    double[][] assetPriceLayers = new double[nSteps + 1][];
+    double[][] adSecLayers = new double[nSteps + 1][];
+    // option prices and AD security prices of each time slice
+    forEachLayer(i -> {
+      double time = dt * i;
+      double zeroRate = interestRate.apply(time);
+      double zeroDividendRate = dividendRate.apply(time);
+      int nNodes = 2 * i + 1;
+      double[] assetPriceLocal = new double[nNodes];
+      double[] callOptionPrice = new double[nNodes];
+      double[] putOptionPrice = new double[nNodes];
+      int position = i - 1;
+      double assetTmp = spot * Math.pow(upFactor, i);
+      // call options for upper half nodes
+      for (int j = nNodes - 1; j > position - 1; --j) {
+        assetPriceLocal[j] = assetTmp;
+        callOptionPrice[j] = callPriceSurface.zValue(time, assetPriceLocal[j]);
+        assetTmp *= downFactor;
+      }
+      // put options for lower half nodes
+      assetTmp = spot * Math.pow(downFactor, i);
+      for (int j = 0; j < position + 2; ++j) {
+        assetPriceLocal[j] = assetTmp;
+        putOptionPrice[j] = callPriceSurface.zValue(time, assetPriceLocal[j]) - spot * Math.exp(-zeroDividendRate * time) +
+            Math.exp(-zeroRate * time) * assetPriceLocal[j];
+        assetTmp *= upFactor;
+      }
+      zeroRates[i] = zeroRate;
+      zeroDividendRates[i] = zeroDividendRate;
+      assetPriceLayers[i] = assetPriceLocal;
+      adSecLayers[i] = adSecurityPrices(callOptionPrice, putOptionPrice, assetPriceLocal, position);
+    });
+    // transition probabilities, backwards in time
     double[] adSec = new double[2 * nSteps + 1];
     double[] assetPrice = new double[2 * nSteps + 1];
     for (int i = nSteps; i > -1; --i) {
@@ -173,31 +267,8 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
         resolveFirstLayer(interestRate, dividendRate, nTotal, dt, spot, adSec, assetPrice, timeRes, spotRes, volRes,
             df, stateValue, probability);
       } else {
-        double time = dt * i;
-        double zeroRate = interestRate.apply(time);
-        double zeroDividendRate = dividendRate.apply(time);
-        int nNodes = 2 * i + 1;
-        double[] assetPriceLocal = new double[nNodes];
-        double[] callOptionPrice = new double[nNodes];
-        double[] putOptionPrice = new double[nNodes];
-        int position = i - 1;
-        double assetTmp = spot * Math.pow(upFactor, i);
-        // call options for upper half nodes
-        for (int j = nNodes - 1; j > position - 1; --j) {
-          assetPriceLocal[j] = assetTmp;
-          callOptionPrice[j] = callPriceSurface.zValue(time, assetPriceLocal[j]);
-          assetTmp *= downFactor;
-        }
-        // put options for lower half nodes
-        assetTmp = spot * Math.pow(downFactor, i);
-        for (int j = 0; j < position + 2; ++j) {
-          assetPriceLocal[j] = assetTmp;
-          putOptionPrice[j] = callPriceSurface.zValue(time, assetPriceLocal[j]) - spot * Math.exp(-zeroDividendRate * time) +
-              Math.exp(-zeroRate * time) * assetPriceLocal[j];
-          assetTmp *= upFactor;
-        }
-        resolveLayer(interestRate, dividendRate, i, nTotal, position, dt, zeroRate, zeroDividendRate, callOptionPrice,
-            putOptionPrice, adSec, assetPrice, assetPriceLocal, timeRes, spotRes, volRes, df, stateValue, probability);
+        resolveLayer(interestRate, dividendRate, i, nTotal, dt, zeroRates[i], zeroDividendRates[i], adSecLayers[i],
+            adSec, assetPrice, assetPriceLayers[i], timeRes, spotRes, volRes, df, stateValue, probability);
       }
     }
     SurfaceMetadata metadata = DefaultSurfaceMetadata.builder()
@@ -235,6 +306,45 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
     double dx = volatility * Math.sqrt(3d * dt);
     double upFactor = Math.exp(dx);
     double downFactor = Math.exp(-dx);
+    double[] zeroRates = new double[nSteps + 1];
+    double[] zeroDividendRates = new double[nSteps + 1];
+    double[][] assetPriceLayers = new double[nSteps + 1][];
+    double[][] adSecLayers = new double[nSteps + 1][];
+    // option prices and AD security prices of each time slice
+    forEachLayer(i -> {
+      double time = dt * i;
+      double zeroRate = interestRate.apply(time);
+      double zeroDividendRate = dividendRate.apply(time);
+      double zeroCostRate = zeroRate - zeroDividendRate;
+      int nNodes = 2 * i + 1;
+      double[] assetPriceLocal = new double[nNodes];
+      double[] callOptionPrice = new double[nNodes];
+      double[] putOptionPrice = new double[nNodes];
+      int position = i - 1;
+      double assetTmp = spot * Math.pow(upFactor, i);
+      // call options for upper half nodes
+      for (int j = nNodes - 1; j > position - 1; --j) {
+        assetPriceLocal[j] = assetTmp;
+        double impliedVol = impliedVolatilitySurface.apply(DoublesPair.of(time, assetPriceLocal[j]));
+        callOptionPrice[j] = BlackScholesFormulaRepository.price(
+            spot, assetPriceLocal[j], time, impliedVol, zeroRate, zeroCostRate, true);
+        assetTmp *= downFactor;
+      }
+      // put options for lower half nodes
+      assetTmp = spot * Math.pow(downFactor, i);
+      for (int j = 0; j < position + 2; ++j) {
+        assetPriceLocal[j] = assetTmp;
+        double impliedVol = impliedVolatilitySurface.apply(DoublesPair.of(time, assetPriceLocal[j]));
+        putOptionPrice[j] = BlackScholesFormulaRepository.price(
+            spot, assetPriceLocal[j], time, impliedVol, zeroRate, zeroCostRate, false);
+        assetTmp *= upFactor;
+      }
+      zeroRates[i] = zeroRate;
+      zeroDividendRates[i] = zeroDividendRate;
+      assetPriceLayers[i] = assetPriceLocal;
+      adSecLayers[i] = adSecurityPrices(callOptionPrice, putOptionPrice, assetPriceLocal, position);
+    });
+    // transition probabilities, backwards in time
     double[] adSec = new double[2 * nSteps + 1];
     double[] assetPrice = new double[2 * nSteps + 1];
     for (int i = nSteps; i > -1; --i) {
@@ -243,34 +353,8 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
         resolveFirstLayer(interestRate, dividendRate, nTotal, dt, spot, adSec, assetPrice, timeRes, spotRes, volRes,
             df, stateValue, probability);
       } else {
-        double zeroRate = interestRate.apply(timePrim[i]);
-        double zeroDividendRate = dividendRate.apply(timePrim[i]);
-        double zeroCostRate = zeroRate - zeroDividendRate;
-        int nNodes = 2 * i + 1;
-        double[] assetPriceLocal = new double[nNodes];
-        double[] callOptionPrice = new double[nNodes];
-        double[] putOptionPrice = new double[nNodes];
-        int position = i - 1;
-        double assetTmp = spot * Math.pow(upFactor, i);
-        // call options for upper half nodes
-        for (int j = nNodes - 1; j > position - 1; --j) {
-          assetPriceLocal[j] = assetTmp;
-          double impliedVol = impliedVolatilitySurface.apply(DoublesPair.of(timePrim[i], assetPriceLocal[j]));
-          callOptionPrice[j] = BlackScholesFormulaRepository.price(
-              spot, assetPriceLocal[j], timePrim[i], impliedVol, zeroRate, zeroCostRate, true);
-          assetTmp *= downFactor;
-        }
-        // put options for lower half nodes
-        assetTmp = spot * Math.pow(downFactor, i);
-        for (int j = 0; j < position + 2; ++j) {
-          assetPriceLocal[j] = assetTmp;
-          double impliedVol = impliedVolatilitySurface.apply(DoublesPair.of(timePrim[i], assetPriceLocal[j]));
-          putOptionPrice[j] = BlackScholesFormulaRepository.price(
-              spot, assetPriceLocal[j], timePrim[i], impliedVol, zeroRate, zeroCostRate, false);
-          assetTmp *= upFactor;
-        }
-        resolveLayer(interestRate, dividendRate, i, nTotal, position, dt, zeroRate, zeroDividendRate, callOptionPrice,
-            putOptionPrice, adSec, assetPrice, assetPriceLocal, timeRes, spotRes, volRes, df, stateValue, probability);
+        resolveLayer(interestRate, dividendRate, i, nTotal, dt, zeroRates[i], zeroDividendRates[i], adSecLayers[i],
+            adSec, assetPrice, assetPriceLayers[i], timeRes, spotRes, volRes, df, stateValue, probability);
       }
     }
     ImmutableList<double[]> localVolData = ImmutableList.of(timeRes, spotRes, volRes);
@@ -279,6 +363,45 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
     return Pair.of(localVolData, treeData);
   }
 
+  // applies the function to the time slices 1 to nSteps, in parallel if required
+  private void forEachLayer(IntConsumer layerFn) {
+    IntStream layers = IntStream.rangeClosed(1, nSteps);
+    if (parallel) {
+      layers = layers.parallel();
+    }
+    layers.forEach(layerFn);
+  }
+
+  // AD security prices of a time slice from the call options for upper nodes and put options for lower nodes
+  private static double[] adSecurityPrices(
+      double[] callOptionPrice,
+      double[] putOptionPrice,
+      double[] assetPriceLocal,
+      int position) {
+
+    int positionLocal = position;
+    int nNodes = callOptionPrice.length;
+    double[] adSecLocal = new double[nNodes];
+    // AD security prices from call options
+    for (int j = nNodes - 1; j > positionLocal; --j) {
+      adSecLocal[j] = callOptionPrice[j - 1];
+      for (int k = j + 1; k < nNodes; ++k) {
+        adSecLocal[j] -= (assetPriceLocal[k] - assetPriceLocal[j - 1]) * adSecLocal[k];
+      }
+      adSecLocal[j] /= (assetPriceLocal[j] - assetPriceLocal[j - 1]);
+    }
+    ++positionLocal;
+    // AD security prices from put options
+    for (int j = 0; j < positionLocal; ++j) {
+      adSecLocal[j] = putOptionPrice[j + 1];
+      for (int k = 0; k < j; ++k) {
+        adSecLocal[j] -= (assetPriceLocal[j + 1] - assetPriceLocal[k]) * adSecLocal[k];
+      }
+      adSecLocal[j] /= (assetPriceLocal[j + 1] - assetPriceLocal[j]);
+    }
+    return adSecLocal;
+  }
+
   // resolve the t=0 layer
   private void resolveFirstLayer(Function<Double, Double> interestRate, Function<Double, Double> dividendRate,
       int nTotal, double dt, double spot, double[] adSec, double[] assetPrice, double[] timeRes, double[] spotRes,
@@ -302,30 +425,11 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
 
   // resolve the i-th layer
   private void resolveLayer(Function<Double, Double> interestRate, Function<Double, Double> dividendRate, int i,
-      int nTotal, int position, double dt, double zeroRate, double zeroDividendRate, double[] callOptionPrice,
-      double[] putOptionPrice, double[] adSec, double[] assetPrice, double[] assetPriceLocal, double[] timeRes,
-      double[] spotRes, double[] volRes, double[] df, double[][] stateValue, List<DoubleMatrix> probability) {
+      int nTotal, double dt, double zeroRate, double zeroDividendRate, double[] adSecLocal, double[] adSec,
+      double[] assetPrice, double[] assetPriceLocal, double[] timeRes, double[] spotRes, double[] volRes,
+      double[] df, double[][] stateValue, List<DoubleMatrix> probability) {
 
-    int positionLocal = position;
-    int nNodes = callOptionPrice.length;
-    double[] adSecLocal = new double[nNodes];
-    // AD security prices from call options
-    for (int j = nNodes - 1; j > positionLocal; --j) {
-      adSecLocal[j] = callOptionPrice[j - 1];
-      for (int k = j + 1; k < nNodes; ++k) {
-        adSecLocal[j] -= (assetPriceLocal[k] - assetPriceLocal[j - 1]) * adSecLocal[k];
-      }
-      adSecLocal[j] /= (assetPriceLocal[j] - assetPriceLocal[j - 1]);
-    }
-    ++positionLocal;
-    // AD security prices from put options
-    for (int j = 0; j < positionLocal; ++j) {
-      adSecLocal[j] = putOptionPrice[j + 1];
-      for (int k = 0; k < j; ++k) {
-        adSecLocal[j] -= (assetPriceLocal[j + 1] - assetPriceLocal[k]) * adSecLocal[k];
-      }
-      adSecLocal[j] /= (assetPriceLocal[j + 1] - assetPriceLocal[j]);
-    }
+    int nNodes = adSecLocal.length;
     if (i != nSteps) {
       double time = dt * i;
       double timeNext = dt * (i - 1);
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.volatility.local;
+
+import static com.opengamma.strata.market.curve.interpolator.CurveInterpolators.LINEAR;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.surface.InterpolatedNodalSurface;
+import com.opengamma.strata.market.surface.Surface;
+import com.opengamma.strata.market.surface.SurfaceMetadata;
+import com.opengamma.strata.market.surface.interpolator.GridSurfaceInterpolator;
+
+/**
+ * Samples local volatility surfaces on a regular grid.
+ * <p>
+ * The local volatility surfaces produced by {@link LocalVolatilityCalculator} are expensive to evaluate.
+ * {@link DupireLocalVolatilityCalculator} computes finite differences of the implied surface for each point,
+ * and {@link ImpliedTrinomialTreeLocalVolatilityCalculator} interpolates across all of the time slices of the tree.
+ * The sampled surface is evaluated once on each node of a time-strike grid, after which each lookup
+ * is a bilinear interpolation between the four surrounding nodes, with flat extrapolation.
+ */
+public final class LocalVolatilityGridSampler {
+
+  /**
+   * The interpolator of the sampled surfaces.
+   */
+  private static final GridSurfaceInterpolator INTERPOLATOR = GridSurfaceInterpolator.of(LINEAR, LINEAR);
+
+  // restricted constructor
+  private LocalVolatilityGridSampler() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Samples the local volatility surface on the grid spanned by the times and strikes.
+   * <p>
+   * The times and strikes must be sorted in increasing order.
+   *
+   * @param localVolatilitySurface  the local volatility surface
+   * @param times  the times of the grid
+   * @param strikes  the strikes of the grid
+   * @return the sampled surface
+   */
+  public static InterpolatedNodalSurface sample(
+      Surface localVolatilitySurface,
+      DoubleArray times,
+      DoubleArray strikes) {
+
+    ArgChecker.notNull(localVolatilitySurface, "localVolatilitySurface");
+    ArgChecker.isTrue(times.size() > 1, "at least two times are required");
+    ArgChecker.isTrue(strikes.size() > 1, "at least two strikes are required");
+    int nTimes = times.size();
+    int nStrikes = strikes.size();
+    double[] xValues = new double[nTimes * nStrikes];
+    double[] yValues = new double[nTimes * nStrikes];
+    double[] zValues = new double[nTimes * nStrikes];
+    for (int i = 0; i < nTimes; ++i) {
+      for (int j = 0; j < nStrikes; ++j) {
+        int k = i * nStrikes + j;
+        xValues[k] = times.get(i);
+        yValues[k] = strikes.get(j);
+        zValues[k] = localVolatilitySurface.zValue(xValues[k], yValues[k]);
+      }
+    }
+    SurfaceMetadata metadata = localVolatilitySurface.getMetadata().withParameterMetadata(null);
+    return InterpolatedNodalSurface.of(
+        metadata,
+        DoubleArray.ofUnsafe(xValues),
+        DoubleArray.ofUnsafe(yValues),
+        DoubleArray.ofUnsafe(zValues),
+        INTERPOLATOR);
+  }
+
+  /**
+   * Samples the local volatility surface on a uniform grid covering its nodes.
+   * <p>
+   * The grid covers the range of the times and strikes of the nodes of the surface,
+   * with the specified number of equally spaced points in each dimension.
+   *
+   * @param localVolatilitySurface  the local volatility surface
+   * @param nTimes  the number of times of the grid
+   * @param nStrikes  the number of strikes of the grid
+   * @return the sampled surface
+   */
+  public static InterpolatedNodalSurface sample(
+      InterpolatedNodalSurface localVolatilitySurface,
+      int nTimes,
+      int nStrikes) {
+
+    DoubleArray times = uniformGrid(localVolatilitySurface.getXValues(), nTimes);
+    DoubleArray strikes = uniformGrid(localVolatilitySurface.getYValues(), nStrikes);
+    return sample(localVolatilitySurface, times, strikes);
+  }
+
+  // equally spaced points between the minimum and maximum of the values
+  private static DoubleArray uniformGrid(DoubleArray values, int nPoints) {
+    ArgChecker.isTrue(nPoints > 1, "the number of grid points should be greater than 1");
+    double min = values.min();
+    double max = values.max();
+    ArgChecker.isTrue(max > min, "the surface nodes must span a non-empty range");
+    double step = (max - min) / (nPoints - 1);
+    return DoubleArray.of(nPoints, i -> i == nPoints - 1 ? max : min + step * i);
+  }
+
+}
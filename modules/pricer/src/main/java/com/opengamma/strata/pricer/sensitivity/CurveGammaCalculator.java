@@ -53,6 +53,11 @@ import com.opengamma.strata.pricer.rate.RatesProvider;
  * By default the gamma is computed using a one basis-point shift and a forward finite difference.
  * The results themselves are not scaled (they represent the second order derivative).
  * <p>
+ * Each curve is bumped once per parameter, and the sensitivities of the bumped providers are used to
+ * produce the derivative of every first order sensitivity. The base sensitivities are reused
+ * rather than recomputed. The bumps can be evaluated in parallel using {@link #parallel()},
+ * in which case the sensitivity function must be thread-safe.
+ * <p>
  * Reference: Interest Rate Cross-gamma for Single and Multiple Curves. OpenGamma quantitative research 15, July 14
  */
 public final class CurveGammaCalculator {
@@ -60,12 +65,25 @@ public final class CurveGammaCalculator {
   /**
    * Default implementation. Finite difference is forward and the shift is one basis point (0.0001).
    */
-  public static final CurveGammaCalculator DEFAULT = new CurveGammaCalculator(FiniteDifferenceType.FORWARD, 1e-4);
+  public static final CurveGammaCalculator DEFAULT =
+      new CurveGammaCalculator(FiniteDifferenceType.FORWARD, 1e-4, false);
 
   /**
    * The first order finite difference calculator.
    */
   private final VectorFieldFirstOrderDifferentiator fd;
+  /**
+   * The finite difference type.
+   */
+  private final FiniteDifferenceType fdType;
+  /**
+   * The shift applied to the curve parameters.
+   */
+  private final double shift;
+  /**
+   * Whether the bumps are evaluated in parallel.
+   */
+  private final boolean parallel;
 
   //-------------------------------------------------------------------------
   /**
@@ -75,7 +93,7 @@ public final class CurveGammaCalculator {
    * @return the calculator
    */
   public static CurveGammaCalculator ofForwardDifference(double shift) {
-    return new CurveGammaCalculator(FiniteDifferenceType.FORWARD, shift);
+    return new CurveGammaCalculator(FiniteDifferenceType.FORWARD, shift, false);
   }
 
   /**
@@ -85,7 +103,7 @@ public final class CurveGammaCalculator {
    * @return the calculator
    */
   public static CurveGammaCalculator ofCentralDifference(double shift) {
-    return new CurveGammaCalculator(FiniteDifferenceType.CENTRAL, shift);
+    return new CurveGammaCalculator(FiniteDifferenceType.CENTRAL, shift, false);
   }
 
   /**
@@ -95,7 +113,7 @@ public final class CurveGammaCalculator {
    * @return the calculator
    */
   public static CurveGammaCalculator ofBackwardDifference(double shift) {
-    return new CurveGammaCalculator(FiniteDifferenceType.BACKWARD, shift);
+    return new CurveGammaCalculator(FiniteDifferenceType.BACKWARD, shift, false);
   }
 
   //-------------------------------------------------------------------------
@@ -104,9 +122,25 @@ public final class CurveGammaCalculator {
    * 
    * @param fdType  the finite difference type
    * @param shift  the shift to be applied to the curves
+   * @param parallel  whether the bumps are evaluated in parallel
    */
-  private CurveGammaCalculator(FiniteDifferenceType fdType, double shift) {
+  private CurveGammaCalculator(FiniteDifferenceType fdType, double shift, boolean parallel) {
     this.fd = new VectorFieldFirstOrderDifferentiator(fdType, shift);
+    this.fdType = fdType;
+    this.shift = shift;
+    this.parallel = parallel;
+  }
+
+  /**
+   * Returns a calculator that evaluates the bumps of the curve parameters in parallel.
+   * <p>
+   * The bumped providers are independent, thus their sensitivities are computed using the common fork-join pool.
+   * The sensitivity function passed to the calculator must be thread-safe.
+   * 
+   * @return the calculator evaluating the bumps in parallel
+   */
+  public CurveGammaCalculator parallel() {
+    return new CurveGammaCalculator(fdType, shift, true);
   }
 
   //-------------------------------------------------------------------------
@@ -136,7 +170,7 @@ public final class CurveGammaCalculator {
       Curve curve = entry.getValue();
       if (baseDelta.findSensitivity(curve.getName(), currency).isPresent()) {
         CrossGammaParameterSensitivity gammaSingle = computeGammaForCurve(
-            curve, currency, c -> immProv.toBuilder().discountCurve(currency, c).build(), sensitivitiesFn);
+            curve, currency, baseDelta, c -> immProv.toBuilder().discountCurve(currency, c).build(), sensitivitiesFn);
         result = result.combinedWith(gammaSingle);
       } else if (curve.split().size() > 1) {
         ImmutableList<Curve> curves = curve.split();
@@ -148,6 +182,7 @@ public final class CurveGammaCalculator {
             CrossGammaParameterSensitivity gammaSingle = computeGammaForCurve(
                 underlyingCurve,
                 currency,
+                baseDelta,
                 c -> immProv.toBuilder().discountCurve(currency, curve.withUnderlyingCurve(currentIndex, c)).build(),
                 sensitivitiesFn);
             result = result.combinedWith(gammaSingle);
@@ -163,7 +198,7 @@ public final class CurveGammaCalculator {
         Curve curve = entry.getValue();
         if (baseDelta.findSensitivity(curve.getName(), currency).isPresent()) {
           CrossGammaParameterSensitivity gammaSingle = computeGammaForCurve(
-              curve, currency, c -> immProv.toBuilder().indexCurve(index, c).build(), sensitivitiesFn);
+              curve, currency, baseDelta, c -> immProv.toBuilder().indexCurve(index, c).build(), sensitivitiesFn);
           result = result.combinedWith(gammaSingle);
         } else if (curve.split().size() > 1) {
           ImmutableList<Curve> curves = curve.split();
@@ -175,6 +210,7 @@ public final class CurveGammaCalculator {
               CrossGammaParameterSensitivity gammaSingle = computeGammaForCurve(
                   underlyingCurve,
                   currency,
+                  baseDelta,
                   c -> immProv.toBuilder().indexCurve(index, curve.withUnderlyingCurve(currentIndex, c)).build(),
                   sensitivitiesFn);
               result = result.combinedWith(gammaSingle);
@@ -215,9 +251,9 @@ public final class CurveGammaCalculator {
       CurveName curveName = curve.getName();
       if (baseDelta.findSensitivity(curveName, currency).isPresent()) {
         CrossGammaParameterSensitivity gammaSingle = computeGammaForCurve(
-            curveName,
             curve,
             currency,
+            baseDelta,
             c -> replaceIssuerCurve(immProv, legCcy, DiscountFactors.of(currency, valuationDate, c)),
             sensitivitiesFn);
         result = result.combinedWith(gammaSingle);
@@ -231,9 +267,9 @@ public final class CurveGammaCalculator {
             CurveName underlyingCurveName = underlyingCurve.getName();
             if (baseDelta.findSensitivity(underlyingCurveName, currency).isPresent()) {
               CrossGammaParameterSensitivity gammaSingle = computeGammaForCurve(
-                  underlyingCurveName,
                   underlyingCurve,
                   currency,
+                  baseDelta,
                   c -> replaceIssuerCurve(
                       immProv, legCcy, DiscountFactors.of(currency, valuationDate, curve.withUnderlyingCurve(currentIndex, c))),
                   sensitivitiesFn);
@@ -251,9 +287,9 @@ public final class CurveGammaCalculator {
       CurveName curveName = curve.getName();
       if (baseDelta.findSensitivity(curveName, currency).isPresent()) {
         CrossGammaParameterSensitivity gammaSingle = computeGammaForCurve(
-            curveName,
             curve,
             currency,
+            baseDelta,
             c -> replaceRepoCurve(immProv, rgCcy, DiscountFactors.of(currency, valuationDate, c)),
             sensitivitiesFn);
         result = result.combinedWith(gammaSingle);
@@ -267,9 +303,9 @@ public final class CurveGammaCalculator {
             CurveName underlyingCurveName = underlyingCurve.getName();
             if (baseDelta.findSensitivity(underlyingCurveName, rgCcy.getSecond()).isPresent()) {
               CrossGammaParameterSensitivity gammaSingle = computeGammaForCurve(
-                  underlyingCurveName,
                   underlyingCurve,
                   currency,
+                  baseDelta,
                   c -> replaceRepoCurve(
                       immProv, rgCcy, DiscountFactors.of(currency, valuationDate, curve.withUnderlyingCurve(currentIndex, c))),
                   sensitivitiesFn);
@@ -302,17 +338,39 @@ public final class CurveGammaCalculator {
 
     ImmutableRatesProvider immProv = ratesProvider.toImmutableRatesProvider();
     CurrencyParameterSensitivities baseDelta = sensitivitiesFn.apply(immProv); // used to check target sensitivity exits.
-    CrossGammaParameterSensitivities result = CrossGammaParameterSensitivities.empty();
-    for (CurrencyParameterSensitivity baseDeltaSingle : baseDelta.getSensitivities()) {
-      CrossGammaParameterSensitivities resultInner = CrossGammaParameterSensitivities.empty();
-      // discount curve
-      for (Entry<Currency, Curve> entry : immProv.getDiscountCurves().entrySet()) {
-        Currency currency = entry.getKey();
+    // each curve is bumped once, the bumps provide the derivatives of all the first order sensitivities
+    List<Pair<Curve, BumpedSensitivities>> bumpedCurves = new ArrayList<>();
+    // discount curve
+    for (Entry<Currency, Curve> entry : immProv.getDiscountCurves().entrySet()) {
+      Currency currency = entry.getKey();
+      Curve curve = entry.getValue();
+      if (baseDelta.findSensitivity(curve.getName(), currency).isPresent()) {
+        bumpedCurves.add(Pair.of(
+            curve, bump(curve, c -> immProv.toBuilder().discountCurve(currency, c).build(), sensitivitiesFn)));
+      } else if (curve.split().size() > 1) {
+        ImmutableList<Curve> curves = curve.split();
+        int nCurves = curves.size();
+        for (int i = 0; i < nCurves; ++i) {
+          int currentIndex = i;
+          Curve underlyingCurve = curves.get(currentIndex);
+          if (baseDelta.findSensitivity(underlyingCurve.getName(), currency).isPresent()) {
+            bumpedCurves.add(Pair.of(underlyingCurve, bump(
+                underlyingCurve,
+                c -> immProv.toBuilder().discountCurve(currency, curve.withUnderlyingCurve(currentIndex, c)).build(),
+                sensitivitiesFn)));
+          }
+        }
+      }
+    }
+    // forward curve
+    for (Entry<Index, Curve> entry : immProv.getIndexCurves().entrySet()) {
+      Index index = entry.getKey();
+      if (index instanceof RateIndex || index instanceof PriceIndex) {
+        Currency currency = getCurrency(index);
         Curve curve = entry.getValue();
         if (baseDelta.findSensitivity(curve.getName(), currency).isPresent()) {
-          CrossGammaParameterSensitivity gammaSingle = computeGammaForCurve(
-              baseDeltaSingle, curve, c -> immProv.toBuilder().discountCurve(currency, c).build(), sensitivitiesFn);
-          resultInner = resultInner.combinedWith(gammaSingle);
+          bumpedCurves.add(Pair.of(
+              curve, bump(curve, c -> immProv.toBuilder().indexCurve(index, c).build(), sensitivitiesFn)));
         } else if (curve.split().size() > 1) {
           ImmutableList<Curve> curves = curve.split();
           int nCurves = curves.size();
@@ -320,43 +378,22 @@ public final class CurveGammaCalculator {
             int currentIndex = i;
             Curve underlyingCurve = curves.get(currentIndex);
             if (baseDelta.findSensitivity(underlyingCurve.getName(), currency).isPresent()) {
-              CrossGammaParameterSensitivity gammaSingle = computeGammaForCurve(
-                  baseDeltaSingle,
+              bumpedCurves.add(Pair.of(underlyingCurve, bump(
                   underlyingCurve,
-                  c -> immProv.toBuilder().discountCurve(currency, curve.withUnderlyingCurve(currentIndex, c)).build(),
-                  sensitivitiesFn);
-              resultInner = resultInner.combinedWith(gammaSingle);
+                  c -> immProv.toBuilder().indexCurve(index, curve.withUnderlyingCurve(currentIndex, c)).build(),
+                  sensitivitiesFn)));
             }
           }
         }
       }
-      // forward curve
-      for (Entry<Index, Curve> entry : immProv.getIndexCurves().entrySet()) {
-        Index index = entry.getKey();
-        if (index instanceof RateIndex || index instanceof PriceIndex) {
-          Currency currency = getCurrency(index);
-          Curve curve = entry.getValue();
-          if (baseDelta.findSensitivity(curve.getName(), currency).isPresent()) {
-            CrossGammaParameterSensitivity gammaSingle = computeGammaForCurve(
-                baseDeltaSingle, curve, c -> immProv.toBuilder().indexCurve(index, c).build(), sensitivitiesFn);
-            resultInner = resultInner.combinedWith(gammaSingle);
-          } else if (curve.split().size() > 1) {
-            ImmutableList<Curve> curves = curve.split();
-            int nCurves = curves.size();
-            for (int i = 0; i < nCurves; ++i) {
-              int currentIndex = i;
-              Curve underlyingCurve = curves.get(currentIndex);
-              if (baseDelta.findSensitivity(underlyingCurve.getName(), currency).isPresent()) {
-                CrossGammaParameterSensitivity gammaSingle = computeGammaForCurve(
-                    baseDeltaSingle,
-                    underlyingCurve,
-                    c -> immProv.toBuilder().indexCurve(index, curve.withUnderlyingCurve(currentIndex, c)).build(),
-                    sensitivitiesFn);
-                resultInner = resultInner.combinedWith(gammaSingle);
-              }
-            }
-          }
-        }
+    }
+    CrossGammaParameterSensitivities result = CrossGammaParameterSensitivities.empty();
+    for (CurrencyParameterSensitivity baseDeltaSingle : baseDelta.getSensitivities()) {
+      CrossGammaParameterSensitivities resultInner = CrossGammaParameterSensitivities.empty();
+      for (Pair<Curve, BumpedSensitivities> bumpedCurve : bumpedCurves) {
+        CrossGammaParameterSensitivity gammaSingle =
+            computeGammaForCurve(baseDeltaSingle, bumpedCurve.getFirst(), bumpedCurve.getSecond());
+        resultInner = resultInner.combinedWith(gammaSingle);
       }
       result = result.combinedWith(combineSensitivities(baseDeltaSingle, resultInner));
     }
@@ -373,58 +410,66 @@ public final class CurveGammaCalculator {
     throw new IllegalArgumentException("unsupported index");
   }
 
-  // compute the second order sensitivity to Curve
-  CrossGammaParameterSensitivity computeGammaForCurve(
+  // computes the second order sensitivity to the curve
+  private <P> CrossGammaParameterSensitivity computeGammaForCurve(
       Curve curve,
       Currency sensitivityCurrency,
-      Function<Curve, ImmutableRatesProvider> ratesProviderFn,
-      Function<ImmutableRatesProvider, CurrencyParameterSensitivities> sensitivitiesFn) {
+      CurrencyParameterSensitivities baseDelta,
+      Function<Curve, P> providerFn,
+      Function<P, CurrencyParameterSensitivities> sensitivitiesFn) {
 
-    Function<DoubleArray, DoubleArray> function = new Function<DoubleArray, DoubleArray>() {
-      @Override
-      public DoubleArray apply(DoubleArray t) {
-        Curve newCurve = replaceParameters(curve, t);
-        ImmutableRatesProvider newRates = ratesProviderFn.apply(newCurve);
-        CurrencyParameterSensitivities sensiMulti = sensitivitiesFn.apply(newRates);
-        return sensiMulti.getSensitivity(newCurve.getName(), sensitivityCurrency).getSensitivity();
-      }
-    };
-    int nParams = curve.getParameterCount();
-    DoubleMatrix sensi = fd.differentiate(function).apply(DoubleArray.of(nParams, n -> curve.getParameter(n)));
-    List<ParameterMetadata> metadata = IntStream.range(0, nParams)
-        .mapToObj(i -> curve.getParameterMetadata(i))
-        .collect(toImmutableList());
-    return CrossGammaParameterSensitivity.of(curve.getName(), metadata, sensitivityCurrency, sensi);
+    CurrencyParameterSensitivity baseDeltaSingle = baseDelta.getSensitivity(curve.getName(), sensitivityCurrency);
+    DoubleMatrix sensi = bump(curve, providerFn, sensitivitiesFn).derivative(baseDeltaSingle);
+    return CrossGammaParameterSensitivity.of(curve.getName(), parameterMetadata(curve), sensitivityCurrency, sensi);
   }
 
-  // computes the sensitivity of baseDeltaSingle to Curve
-  CrossGammaParameterSensitivity computeGammaForCurve(
+  // computes the sensitivity of baseDeltaSingle to the bumped curve
+  private CrossGammaParameterSensitivity computeGammaForCurve(
       CurrencyParameterSensitivity baseDeltaSingle,
       Curve curve,
-      Function<Curve, ImmutableRatesProvider> ratesProviderFn,
-      Function<ImmutableRatesProvider, CurrencyParameterSensitivities> sensitivitiesFn) {
+      BumpedSensitivities bumped) {
 
-    Function<DoubleArray, DoubleArray> function = new Function<DoubleArray, DoubleArray>() {
-      @Override
-      public DoubleArray apply(DoubleArray t) {
-        Curve newCurve = replaceParameters(curve, t);
-        ImmutableRatesProvider newRates = ratesProviderFn.apply(newCurve);
-        CurrencyParameterSensitivities sensiMulti = sensitivitiesFn.apply(newRates);
-        return sensiMulti.getSensitivity(baseDeltaSingle.getMarketDataName(), baseDeltaSingle.getCurrency()).getSensitivity();
-      }
-    };
-    int nParams = curve.getParameterCount();
-    DoubleMatrix sensi = fd.differentiate(function).apply(DoubleArray.of(nParams, n -> curve.getParameter(n)));
-    List<ParameterMetadata> metadata = IntStream.range(0, nParams)
-        .mapToObj(i -> curve.getParameterMetadata(i))
-        .collect(toImmutableList());
     return CrossGammaParameterSensitivity.of(
         baseDeltaSingle.getMarketDataName(),
         baseDeltaSingle.getParameterMetadata(),
         curve.getName(),
-        metadata,
+        parameterMetadata(curve),
         baseDeltaSingle.getCurrency(),
-        sensi);
+        bumped.derivative(baseDeltaSingle));
+  }
+
+  // computes the sensitivities with each parameter of the curve bumped
+  private <P> BumpedSensitivities bump(
+      Curve curve,
+      Function<Curve, P> providerFn,
+      Function<P, CurrencyParameterSensitivities> sensitivitiesFn) {
+
+    int nParams = curve.getParameterCount();
+    CurrencyParameterSensitivities[] up =
+        fdType == FiniteDifferenceType.BACKWARD ? null : new CurrencyParameterSensitivities[nParams];
+    CurrencyParameterSensitivities[] down =
+        fdType == FiniteDifferenceType.FORWARD ? null : new CurrencyParameterSensitivities[nParams];
+    IntStream indices = IntStream.range(0, nParams);
+    if (parallel) {
+      indices = indices.parallel();
+    }
+    indices.forEach(j -> {
+      double value = curve.getParameter(j);
+      if (up != null) {
+        up[j] = sensitivitiesFn.apply(providerFn.apply(curve.withParameter(j, value + shift)));
+      }
+      if (down != null) {
+        down[j] = sensitivitiesFn.apply(providerFn.apply(curve.withParameter(j, value - shift)));
+      }
+    });
+    return new BumpedSensitivities(up, down, fdType == FiniteDifferenceType.CENTRAL ? 2d * shift : shift);
+  }
+
+  // the metadata of the curve parameters
+  private static List<ParameterMetadata> parameterMetadata(Curve curve) {
+    return IntStream.range(0, curve.getParameterCount())
+        .mapToObj(i -> curve.getParameterMetadata(i))
+        .collect(toImmutableList());
   }
 
   private CrossGammaParameterSensitivity combineSensitivities(
@@ -475,11 +520,6 @@ public final class CurveGammaCalculator {
     return curve.createParameterSensitivity(curveCurrency, gamma);
   }
 
-  //-------------------------------------------------------------------------
-  private Curve replaceParameters(Curve curve, DoubleArray newParameters) {
-    return curve.withPerturbation((i, v, m) -> newParameters.get(i));
-  }
-
   //-------------------------------------------------------------------------
   /**
    * Inner class to compute the delta for a given parallel shift of the curve.
@@ -502,6 +542,42 @@ public final class CurveGammaCalculator {
     }
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Inner class holding the sensitivities computed with each parameter of a curve bumped.
+   * <p>
+   * The up bumps are absent for backward differencing and the down bumps for forward differencing,
+   * the base sensitivity being used instead.
+   */
+  static class BumpedSensitivities {
+    private final CurrencyParameterSensitivities[] up;
+    private final CurrencyParameterSensitivities[] down;
+    private final double step;
+
+    BumpedSensitivities(CurrencyParameterSensitivities[] up, CurrencyParameterSensitivities[] down, double step) {
+      this.up = up;
+      this.down = down;
+      this.step = step;
+    }
+
+    // the derivative of the base sensitivity with respect to the bumped parameters
+    DoubleMatrix derivative(CurrencyParameterSensitivity baseDeltaSingle) {
+      MarketDataName<?> name = baseDeltaSingle.getMarketDataName();
+      Currency currency = baseDeltaSingle.getCurrency();
+      DoubleArray base = baseDeltaSingle.getSensitivity();
+      int nParams = up != null ? up.length : down.length;
+      double[][] res = new double[base.size()][nParams];
+      for (int j = 0; j < nParams; j++) {
+        DoubleArray upJ = up != null ? up[j].getSensitivity(name, currency).getSensitivity() : base;
+        DoubleArray downJ = down != null ? down[j].getSensitivity(name, currency).getSensitivity() : base;
+        for (int i = 0; i < res.length; i++) {
+          res[i][j] = (upJ.get(i) - downJ.get(i)) / step;
+        }
+      }
+      return DoubleMatrix.ofUnsafe(res);
+    }
+  }
+
   //-------------------------------------------------------------------------
   private Curve getCurve(DiscountFactors discountFactors) {
     if (discountFactors instanceof SimpleDiscountFactors) {
@@ -516,30 +592,6 @@ public final class CurveGammaCalculator {
     throw new IllegalArgumentException("Unsupported DiscountFactors type");
   }
 
-  private CrossGammaParameterSensitivity computeGammaForCurve(
-      CurveName curveName,
-      Curve curve,
-      Currency sensitivityCurrency,
-      Function<Curve, ImmutableLegalEntityDiscountingProvider> ratesProviderFn,
-      Function<ImmutableLegalEntityDiscountingProvider, CurrencyParameterSensitivities> sensitivitiesFn) {
-
-    Function<DoubleArray, DoubleArray> function = new Function<DoubleArray, DoubleArray>() {
-      @Override
-      public DoubleArray apply(DoubleArray t) {
-        Curve newCurve = curve.withPerturbation((i, v, m) -> t.get(i));
-        ImmutableLegalEntityDiscountingProvider newRates = ratesProviderFn.apply(newCurve);
-        CurrencyParameterSensitivities sensiMulti = sensitivitiesFn.apply(newRates);
-        return sensiMulti.getSensitivity(curveName, sensitivityCurrency).getSensitivity();
-      }
-    };
-    int nParams = curve.getParameterCount();
-    DoubleMatrix sensi = fd.differentiate(function).apply(DoubleArray.of(nParams, n -> curve.getParameter(n)));
-    List<ParameterMetadata> metadata = IntStream.range(0, nParams)
-        .mapToObj(i -> curve.getParameterMetadata(i))
-        .collect(toImmutableList());
-    return CrossGammaParameterSensitivity.of(curveName, metadata, sensitivityCurrency, sensi);
-  }
-
   private ImmutableLegalEntityDiscountingProvider replaceIssuerCurve(
       ImmutableLegalEntityDiscountingProvider ratesProvider,
       Pair<LegalEntityGroup, Currency> legCcy,
@@ -0,0 +1,417 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.sensitivity;
+
+import static com.opengamma.strata.math.impl.matrix.MatrixAlgebraFactory.OG_ALGEBRA;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToDoubleFunction;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Messages;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.collect.array.IntArray;
+import com.opengamma.strata.collect.tuple.Pair;
+import com.opengamma.strata.data.MarketDataName;
+import com.opengamma.strata.data.scenario.ScenarioPerturbation;
+import com.opengamma.strata.market.ShiftType;
+import com.opengamma.strata.market.curve.CurveParallelShifts;
+import com.opengamma.strata.market.param.CrossGammaParameterSensitivities;
+import com.opengamma.strata.market.param.CrossGammaParameterSensitivity;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivity;
+import com.opengamma.strata.market.param.ParameterMetadata;
+import com.opengamma.strata.market.param.ParameterizedData;
+import com.opengamma.strata.market.param.PointShifts;
+
+/**
+ * Approximates the P&L of scenarios from the first and second order parameter sensitivities.
+ * <p>
+ * The P&L of a scenario is approximated by the second order Taylor expansion
+ * {@code delta . dp + 0.5 * dp^T . gamma . dp}, where {@code dp} is the change of the parameters
+ * of the market data in the scenario. The delta is typically obtained from the parameter sensitivities
+ * of a pricer, and the gamma from {@link CurveGammaCalculator}. If no gamma is provided, the
+ * approximation is first order.
+ * <p>
+ * The parameters of all the market data are arranged in a single vector, in the order in which
+ * the market data appear in the sensitivities. The changes of the parameters in many scenarios are
+ * then held in a dense matrix, with a row for each scenario, and the P&L of all the scenarios is
+ * computed by matrix operations. The changes can be derived from the perturbations used to define the
+ * scenarios, see {@link #parameterChanges(Map, Map)}.
+ * <p>
+ * The quality of the approximation can be measured by comparing it to full revaluation on
+ * a sample of the scenarios, see {@link #approximationError(DoubleArray, int, IntToDoubleFunction)}.
+ * <p>
+ * All the sensitivities must be expressed in the same currency, converting them first if necessary.
+ */
+public final class DeltaGammaPnlCalculator {
+
+  /**
+   * The currency of the sensitivities.
+   */
+  private final Currency currency;
+  /**
+   * The index of the first parameter of each market data in the parameter vector.
+   */
+  private final ImmutableMap<MarketDataName<?>, Integer> offsets;
+  /**
+   * The metadata of the parameters of each market data.
+   */
+  private final ImmutableMap<MarketDataName<?>, List<? extends ParameterMetadata>> metadata;
+  /**
+   * The first order sensitivity to each parameter.
+   */
+  private final DoubleArray delta;
+  /**
+   * The second order sensitivity to each pair of parameters, null if first order only.
+   */
+  private final DoubleMatrix gamma;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains a first order calculator from the parameter sensitivities.
+   *
+   * @param delta  the first order sensitivities
+   * @return the calculator
+   * @throws IllegalArgumentException if the sensitivities are empty or not all in the same currency
+   */
+  public static DeltaGammaPnlCalculator of(CurrencyParameterSensitivities delta) {
+    return of(delta, CrossGammaParameterSensitivities.empty());
+  }
+
+  /**
+   * Obtains a second order calculator from the first and second order parameter sensitivities.
+   * <p>
+   * The second order sensitivities can be intra-curve, as computed by
+   * {@link CurveGammaCalculator#calculateCrossGammaIntraCurve}, or cross-curve, as computed by
+   * {@link CurveGammaCalculator#calculateCrossGammaCrossCurve}.
+   *
+   * @param delta  the first order sensitivities
+   * @param gamma  the second order sensitivities
+   * @return the calculator
+   * @throws IllegalArgumentException if the sensitivities are empty, not all in the same currency or
+   *   if the parameters of a market data differ between the sensitivities
+   */
+  public static DeltaGammaPnlCalculator of(
+      CurrencyParameterSensitivities delta,
+      CrossGammaParameterSensitivities gamma) {
+
+    ArgChecker.notNull(delta, "delta");
+    ArgChecker.notNull(gamma, "gamma");
+    ArgChecker.isTrue(delta.size() + gamma.size() > 0, "Sensitivities must not be empty");
+    Currency currency = delta.size() > 0 ?
+        delta.getSensitivities().get(0).getCurrency() :
+        gamma.getSensitivities().get(0).getCurrency();
+
+    // arrange the parameters of all the market data in a single vector
+    Map<MarketDataName<?>, List<? extends ParameterMetadata>> metadata = new LinkedHashMap<>();
+    for (CurrencyParameterSensitivity sensitivity : delta.getSensitivities()) {
+      checkCurrency(currency, sensitivity.getCurrency());
+      addMetadata(metadata, sensitivity.getMarketDataName(), sensitivity.getParameterMetadata());
+    }
+    for (CrossGammaParameterSensitivity sensitivity : gamma.getSensitivities()) {
+      checkCurrency(currency, sensitivity.getCurrency());
+      addMetadata(metadata, sensitivity.getMarketDataName(), sensitivity.getParameterMetadata());
+      for (Pair<MarketDataName<?>, List<? extends ParameterMetadata>> entry : sensitivity.getOrder()) {
+        addMetadata(metadata, entry.getFirst(), entry.getSecond());
+      }
+    }
+    Map<MarketDataName<?>, Integer> offsets = new LinkedHashMap<>();
+    int parameterCount = 0;
+    for (Map.Entry<MarketDataName<?>, List<? extends ParameterMetadata>> entry : metadata.entrySet()) {
+      offsets.put(entry.getKey(), parameterCount);
+      parameterCount += entry.getValue().size();
+    }
+
+    double[] deltaVector = new double[parameterCount];
+    for (CurrencyParameterSensitivity sensitivity : delta.getSensitivities()) {
+      int offset = offsets.get(sensitivity.getMarketDataName());
+      double[] values = sensitivity.getSensitivity().toArrayUnsafe();
+      for (int i = 0; i < values.length; i++) {
+        deltaVector[offset + i] += values[i];
+      }
+    }
+    DoubleMatrix gammaMatrix = null;
+    if (gamma.size() > 0) {
+      double[][] matrix = new double[parameterCount][parameterCount];
+      for (CrossGammaParameterSensitivity sensitivity : gamma.getSensitivities()) {
+        int rowOffset = offsets.get(sensitivity.getMarketDataName());
+        double[][] values = sensitivity.getSensitivity().toArrayUnsafe();
+        int column = 0;
+        for (Pair<MarketDataName<?>, List<? extends ParameterMetadata>> entry : sensitivity.getOrder()) {
+          int columnOffset = offsets.get(entry.getFirst());
+          int size = entry.getSecond().size();
+          for (int i = 0; i < values.length; i++) {
+            for (int j = 0; j < size; j++) {
+              matrix[rowOffset + i][columnOffset + j] += values[i][column + j];
+            }
+          }
+          column += size;
+        }
+      }
+      gammaMatrix = DoubleMatrix.ofUnsafe(matrix);
+    }
+    return new DeltaGammaPnlCalculator(
+        currency,
+        ImmutableMap.copyOf(offsets),
+        ImmutableMap.copyOf(metadata),
+        DoubleArray.ofUnsafe(deltaVector),
+        gammaMatrix);
+  }
+
+  // checks the currency of a sensitivity
+  private static void checkCurrency(Currency currency, Currency sensitivityCurrency) {
+    ArgChecker.isTrue(
+        sensitivityCurrency.equals(currency),
+        "Sensitivities must all be in {} but found {}", currency, sensitivityCurrency);
+  }
+
+  // adds the parameter metadata of a market data, checking the number of parameters is consistent
+  private static void addMetadata(
+      Map<MarketDataName<?>, List<? extends ParameterMetadata>> metadata,
+      MarketDataName<?> name,
+      List<? extends ParameterMetadata> parameterMetadata) {
+
+    List<? extends ParameterMetadata> existing = metadata.putIfAbsent(name, parameterMetadata);
+    if (existing != null && existing.size() != parameterMetadata.size()) {
+      throw new IllegalArgumentException(Messages.format(
+          "Sensitivities to {} have {} and {} parameters", name, existing.size(), parameterMetadata.size()));
+    }
+  }
+
+  // restricted constructor
+  private DeltaGammaPnlCalculator(
+      Currency currency,
+      ImmutableMap<MarketDataName<?>, Integer> offsets,
+      ImmutableMap<MarketDataName<?>, List<? extends ParameterMetadata>> metadata,
+      DoubleArray delta,
+      DoubleMatrix gamma) {
+
+    this.currency = currency;
+    this.offsets = offsets;
+    this.metadata = metadata;
+    this.delta = delta;
+    this.gamma = gamma;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the currency of the sensitivities, which is the currency of the P&L.
+   *
+   * @return the currency
+   */
+  public Currency getCurrency() {
+    return currency;
+  }
+
+  /**
+   * Gets the names of the market data, in the order of their parameters in the parameter vector.
+   *
+   * @return the market data names
+   */
+  public ImmutableList<MarketDataName<?>> getMarketDataNames() {
+    return offsets.keySet().asList();
+  }
+
+  /**
+   * Gets the total number of parameters.
+   *
+   * @return the number of parameters
+   */
+  public int getParameterCount() {
+    return delta.size();
+  }
+
+  /**
+   * Gets the first order sensitivity to each parameter of the parameter vector.
+   *
+   * @return the delta
+   */
+  public DoubleArray getDelta() {
+    return delta;
+  }
+
+  /**
+   * Gets the second order sensitivity to each pair of parameters of the parameter vector.
+   * <p>
+   * The matrix is zero if the calculator is first order.
+   *
+   * @return the gamma
+   */
+  public DoubleMatrix getGamma() {
+    return gamma != null ? gamma : DoubleMatrix.filled(delta.size(), delta.size());
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Derives the changes of the parameters in each scenario from the perturbations defining the scenarios.
+   * <p>
+   * The perturbations are keyed by the name of the market data they apply to, and must all have
+   * the same number of scenarios. The supported perturbations are {@link CurveParallelShifts},
+   * applying the shift to each parameter of the curve, and {@link PointShifts}.
+   * The parameters of market data without perturbation are unchanged.
+   * Perturbations of market data without sensitivity are ignored.
+   * <p>
+   * The base market data is required to convert relative shifts to changes of the parameters.
+   *
+   * @param baseData  the base market data, keyed by name
+   * @param perturbations  the perturbations, keyed by the name of the market data they apply to
+   * @return the changes, a row for each scenario and a column for each parameter
+   * @throws IllegalArgumentException if the base data of a perturbed market data is missing,
+   *   if the scenario counts differ or if a perturbation is not supported
+   */
+  public DoubleMatrix parameterChanges(
+      Map<? extends MarketDataName<?>, ? extends ParameterizedData> baseData,
+      Map<? extends MarketDataName<?>, ? extends ScenarioPerturbation<?>> perturbations) {
+
+    ArgChecker.notEmpty(perturbations, "perturbations");
+    int scenarioCount = perturbations.values().iterator().next().getScenarioCount();
+    double[][] changes = new double[scenarioCount][delta.size()];
+    for (Map.Entry<? extends MarketDataName<?>, ? extends ScenarioPerturbation<?>> entry : perturbations.entrySet()) {
+      MarketDataName<?> name = entry.getKey();
+      ScenarioPerturbation<?> perturbation = entry.getValue();
+      ArgChecker.isTrue(
+          perturbation.getScenarioCount() == scenarioCount,
+          "Perturbations must all have {} scenarios but found {}", scenarioCount, perturbation.getScenarioCount());
+      Integer offset = offsets.get(name);
+      if (offset == null) {
+        continue;
+      }
+      ParameterizedData base = baseData.get(name);
+      ArgChecker.isTrue(base != null, "Base market data must be provided for {}", name);
+      ArgChecker.isTrue(
+          base.getParameterCount() == metadata.get(name).size(),
+          "Base market data {} must have {} parameters", name, metadata.get(name).size());
+      if (perturbation instanceof CurveParallelShifts) {
+        CurveParallelShifts shifts = (CurveParallelShifts) perturbation;
+        ShiftType shiftType = shifts.getShiftType();
+        for (int k = 0; k < base.getParameterCount(); k++) {
+          double value = base.getParameter(k);
+          for (int s = 0; s < scenarioCount; s++) {
+            changes[s][offset + k] = shiftType.applyShift(value, shifts.getShiftAmounts().get(s)) - value;
+          }
+        }
+      } else if (perturbation instanceof PointShifts) {
+        PointShifts shifts = (PointShifts) perturbation;
+        ShiftType shiftType = shifts.getShiftType();
+        for (int k = 0; k < base.getParameterCount(); k++) {
+          Integer node = nodeIndex(shifts, base.getParameterMetadata(k));
+          if (node == null) {
+            continue;
+          }
+          double value = base.getParameter(k);
+          for (int s = 0; s < scenarioCount; s++) {
+            changes[s][offset + k] = shiftType.applyShift(value, shifts.getShifts().get(s, node)) - value;
+          }
+        }
+      } else {
+        throw new IllegalArgumentException(Messages.format(
+            "Unsupported perturbation for {}: {}", name, perturbation.getClass().getSimpleName()));
+      }
+    }
+    return DoubleMatrix.ofUnsafe(changes);
+  }
+
+  // finds the shifted node matching the parameter, consistent with PointShifts
+  private static Integer nodeIndex(PointShifts shifts, ParameterMetadata parameterMetadata) {
+    Integer node = shifts.getNodeIndices().get(parameterMetadata.getIdentifier());
+    return node != null ? node : shifts.getNodeIndices().get(parameterMetadata.getLabel());
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Approximates the P&L of each scenario.
+   *
+   * @param parameterChanges  the changes of the parameters, a row for each scenario and a column for each parameter
+   * @return the approximate P&L of each scenario
+   * @throws IllegalArgumentException if the number of columns is not the number of parameters
+   */
+  public DoubleArray pnl(DoubleMatrix parameterChanges) {
+    ArgChecker.isTrue(
+        parameterChanges.columnCount() == delta.size(),
+        "Parameter changes must have {} columns but found {}", delta.size(), parameterChanges.columnCount());
+    if (parameterChanges.rowCount() == 0) {
+      return DoubleArray.EMPTY;
+    }
+    // first order: changes . delta, second order: the rows of changes . gamma^T dotted with the rows of changes
+    DoubleArray firstOrder = (DoubleArray) OG_ALGEBRA.multiply(parameterChanges, delta);
+    if (gamma == null) {
+      return firstOrder;
+    }
+    double[][] changes = parameterChanges.toArrayUnsafe();
+    DoubleMatrix gammaProduct = (DoubleMatrix) OG_ALGEBRA.multiply(parameterChanges, gamma.transpose());
+    double[][] gammaChanges = gammaProduct.toArrayUnsafe();
+    return firstOrder.mapWithIndex((s, value) -> {
+      double[] row = changes[s];
+      double[] gammaRow = gammaChanges[s];
+      double secondOrder = 0d;
+      for (int k = 0; k < row.length; k++) {
+        secondOrder += row[k] * gammaRow[k];
+      }
+      return value + 0.5 * secondOrder;
+    });
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Measures the error of the approximate P&L against full revaluation on a sample of the scenarios.
+   * <p>
+   * The sample contains scenarios evenly spread over all the scenarios, together with the scenario
+   * with the lowest approximate P&L, which matters the most for tail measures such as value-at-risk.
+   * The full revaluation function is only invoked for the sampled scenarios.
+   *
+   * @param approximatePnl  the approximate P&L of each scenario
+   * @param sampleSize  the number of scenarios to sample
+   * @param fullRevaluationPnl  the function providing the P&L of a scenario, from its index, by full revaluation
+   * @return the approximation error
+   */
+  public PnlApproximationError approximationError(
+      DoubleArray approximatePnl,
+      int sampleSize,
+      IntToDoubleFunction fullRevaluationPnl) {
+
+    ArgChecker.isFalse(approximatePnl.isEmpty(), "Approximate P&L must not be empty");
+    ArgChecker.notNegativeOrZero(sampleSize, "sampleSize");
+    int scenarioCount = approximatePnl.size();
+    int worst = 0;
+    for (int s = 1; s < scenarioCount; s++) {
+      if (approximatePnl.get(s) < approximatePnl.get(worst)) {
+        worst = s;
+      }
+    }
+    IntArray sample;
+    if (sampleSize >= scenarioCount) {
+      sample = IntArray.of(scenarioCount, i -> i);
+    } else {
+      int evenCount = sampleSize - 1;
+      int[] indices = new int[sampleSize];
+      for (int i = 0; i < evenCount; i++) {
+        indices[i] = (int) ((long) i * scenarioCount / evenCount);
+      }
+      indices[evenCount] = worst;
+      sample = IntArray.ofUnsafe(Arrays.stream(indices).sorted().distinct().toArray());
+    }
+    return PnlApproximationError.of(
+        sample,
+        DoubleArray.of(sample.size(), i -> approximatePnl.get(sample.get(i))),
+        DoubleArray.of(sample.size(), i -> fullRevaluationPnl.applyAsDouble(sample.get(i))));
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "DeltaGammaPnlCalculator[currency=" + currency + ", marketData=" + offsets.keySet() +
+        ", parameterCount=" + delta.size() + ", secondOrder=" + (gamma != null) + "]";
+  }
+
+}
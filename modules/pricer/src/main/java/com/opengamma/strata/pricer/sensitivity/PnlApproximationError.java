@@ -0,0 +1,430 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.sensitivity;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.joda.beans.Bean;
+import org.joda.beans.BeanBuilder;
+import org.joda.beans.ImmutableBean;
+import org.joda.beans.JodaBeanUtils;
+import org.joda.beans.MetaBean;
+import org.joda.beans.MetaProperty;
+import org.joda.beans.gen.BeanDefinition;
+import org.joda.beans.gen.ImmutableValidator;
+import org.joda.beans.gen.PropertyDefinition;
+import org.joda.beans.impl.direct.DirectMetaBean;
+import org.joda.beans.impl.direct.DirectMetaProperty;
+import org.joda.beans.impl.direct.DirectMetaPropertyMap;
+import org.joda.beans.impl.direct.DirectPrivateBeanBuilder;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.IntArray;
+
+/**
+ * The error of a P&L approximation measured against full revaluation on a sample of scenarios.
+ * <p>
+ * The error of a scenario is the approximate P&L minus the P&L obtained by full revaluation.
+ */
+@BeanDefinition(builderScope = "private")
+public final class PnlApproximationError implements ImmutableBean, Serializable {
+
+  /**
+   * The indices of the sampled scenarios.
+   */
+  @PropertyDefinition(validate = "notNull")
+  private final IntArray scenarioIndices;
+  /**
+   * The approximate P&L of each sampled scenario.
+   */
+  @PropertyDefinition(validate = "notNull")
+  private final DoubleArray approximatePnl;
+  /**
+   * The P&L of each sampled scenario obtained by full revaluation.
+   */
+  @PropertyDefinition(validate = "notNull")
+  private final DoubleArray fullRevaluationPnl;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from the P&L of the sampled scenarios.
+   *
+   * @param scenarioIndices  the indices of the sampled scenarios
+   * @param approximatePnl  the approximate P&L of each sampled scenario
+   * @param fullRevaluationPnl  the P&L of each sampled scenario obtained by full revaluation
+   * @return the error
+   */
+  public static PnlApproximationError of(
+      IntArray scenarioIndices,
+      DoubleArray approximatePnl,
+      DoubleArray fullRevaluationPnl) {
+
+    return new PnlApproximationError(scenarioIndices, approximatePnl, fullRevaluationPnl);
+  }
+
+  @ImmutableValidator
+  private void validate() {
+    ArgChecker.isTrue(!scenarioIndices.isEmpty(), "At least one scenario must be sampled");
+    ArgChecker.isTrue(
+        approximatePnl.size() == scenarioIndices.size() && fullRevaluationPnl.size() == scenarioIndices.size(),
+        "P&L must be provided for each sampled scenario");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of sampled scenarios.
+   *
+   * @return the sample size
+   */
+  public int getSampleSize() {
+    return scenarioIndices.size();
+  }
+
+  /**
+   * Gets the error of each sampled scenario.
+   *
+   * @return the errors
+   */
+  public DoubleArray getErrors() {
+    return approximatePnl.minus(fullRevaluationPnl);
+  }
+
+  /**
+   * Gets the mean of the errors.
+   *
+   * @return the mean error
+   */
+  public double getMeanError() {
+    return getErrors().sum() / getSampleSize();
+  }
+
+  /**
+   * Gets the largest absolute error.
+   *
+   * @return the maximum absolute error
+   */
+  public double getMaxAbsoluteError() {
+    return getErrors().map(Math::abs).max();
+  }
+
+  /**
+   * Gets the root mean square of the errors.
+   *
+   * @return the root mean square error
+   */
+  public double getRootMeanSquareError() {
+    return rootMeanSquare(getErrors());
+  }
+
+  /**
+   * Gets the root mean square of the errors relative to the root mean square of the full revaluation P&L.
+   * <p>
+   * The result is zero if the full revaluation P&L is zero in all the sampled scenarios.
+   *
+   * @return the relative root mean square error
+   */
+  public double getRelativeRootMeanSquareError() {
+    double scale = rootMeanSquare(fullRevaluationPnl);
+    return scale == 0d ? 0d : getRootMeanSquareError() / scale;
+  }
+
+  // the root mean square of the values
+  private static double rootMeanSquare(DoubleArray values) {
+    return Math.sqrt(values.map(value -> value * value).sum() / values.size());
+  }
+
+  //------------------------- AUTOGENERATED START -------------------------
+  /**
+   * The meta-bean for {@code PnlApproximationError}.
+   * @return the meta-bean, not null
+   */
+  public static PnlApproximationError.Meta meta() {
+    return PnlApproximationError.Meta.INSTANCE;
+  }
+
+  static {
+    MetaBean.register(PnlApproximationError.Meta.INSTANCE);
+  }
+
+  /**
+   * The serialization version id.
+   */
+  private static final long serialVersionUID = 1L;
+
+  private PnlApproximationError(
+      IntArray scenarioIndices,
+      DoubleArray approximatePnl,
+      DoubleArray fullRevaluationPnl) {
+    JodaBeanUtils.notNull(scenarioIndices, "scenarioIndices");
+    JodaBeanUtils.notNull(approximatePnl, "approximatePnl");
+    JodaBeanUtils.notNull(fullRevaluationPnl, "fullRevaluationPnl");
+    this.scenarioIndices = scenarioIndices;
+    this.approximatePnl = approximatePnl;
+    this.fullRevaluationPnl = fullRevaluationPnl;
+    validate();
+  }
+
+  @Override
+  public PnlApproximationError.Meta metaBean() {
+    return PnlApproximationError.Meta.INSTANCE;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the indices of the sampled scenarios.
+   * @return the value of the property, not null
+   */
+  public IntArray getScenarioIndices() {
+    return scenarioIndices;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the approximate P&L of each sampled scenario.
+   * @return the value of the property, not null
+   */
+  public DoubleArray getApproximatePnl() {
+    return approximatePnl;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the P&L of each sampled scenario obtained by full revaluation.
+   * @return the value of the property, not null
+   */
+  public DoubleArray getFullRevaluationPnl() {
+    return fullRevaluationPnl;
+  }
+
+  //-----------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj != null && obj.getClass() == this.getClass()) {
+      PnlApproximationError other = (PnlApproximationError) obj;
+      return JodaBeanUtils.equal(scenarioIndices, other.scenarioIndices) &&
+          JodaBeanUtils.equal(approximatePnl, other.approximatePnl) &&
+          JodaBeanUtils.equal(fullRevaluationPnl, other.fullRevaluationPnl);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = getClass().hashCode();
+    hash = hash * 31 + JodaBeanUtils.hashCode(scenarioIndices);
+    hash = hash * 31 + JodaBeanUtils.hashCode(approximatePnl);
+    hash = hash * 31 + JodaBeanUtils.hashCode(fullRevaluationPnl);
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder buf = new StringBuilder(128);
+    buf.append("PnlApproximationError{");
+    buf.append("scenarioIndices").append('=').append(scenarioIndices).append(',').append(' ');
+    buf.append("approximatePnl").append('=').append(approximatePnl).append(',').append(' ');
+    buf.append("fullRevaluationPnl").append('=').append(JodaBeanUtils.toString(fullRevaluationPnl));
+    buf.append('}');
+    return buf.toString();
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * The meta-bean for {@code PnlApproximationError}.
+   */
+  public static final class Meta extends DirectMetaBean {
+    /**
+     * The singleton instance of the meta-bean.
+     */
+    static final Meta INSTANCE = new Meta();
+
+    /**
+     * The meta-property for the {@code scenarioIndices} property.
+     */
+    private final MetaProperty<IntArray> scenarioIndices = DirectMetaProperty.ofImmutable(
+        this, "scenarioIndices", PnlApproximationError.class, IntArray.class);
+    /**
+     * The meta-property for the {@code approximatePnl} property.
+     */
+    private final MetaProperty<DoubleArray> approximatePnl = DirectMetaProperty.ofImmutable(
+        this, "approximatePnl", PnlApproximationError.class, DoubleArray.class);
+    /**
+     * The meta-property for the {@code fullRevaluationPnl} property.
+     */
+    private final MetaProperty<DoubleArray> fullRevaluationPnl = DirectMetaProperty.ofImmutable(
+        this, "fullRevaluationPnl", PnlApproximationError.class, DoubleArray.class);
+    /**
+     * The meta-properties.
+     */
+    private final Map<String, MetaProperty<?>> metaPropertyMap$ = new DirectMetaPropertyMap(
+        this, null,
+        "scenarioIndices",
+        "approximatePnl",
+        "fullRevaluationPnl");
+
+    /**
+     * Restricted constructor.
+     */
+    private Meta() {
+    }
+
+    @Override
+    protected MetaProperty<?> metaPropertyGet(String propertyName) {
+      switch (propertyName.hashCode()) {
+        case 58379767:  // scenarioIndices
+          return scenarioIndices;
+        case -749549958:  // approximatePnl
+          return approximatePnl;
+        case -1954108785:  // fullRevaluationPnl
+          return fullRevaluationPnl;
+      }
+      return super.metaPropertyGet(propertyName);
+    }
+
+    @Override
+    public BeanBuilder<? extends PnlApproximationError> builder() {
+      return new PnlApproximationError.Builder();
+    }
+
+    @Override
+    public Class<? extends PnlApproximationError> beanType() {
+      return PnlApproximationError.class;
+    }
+
+    @Override
+    public Map<String, MetaProperty<?>> metaPropertyMap() {
+      return metaPropertyMap$;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The meta-property for the {@code scenarioIndices} property.
+     * @return the meta-property, not null
+     */
+    public MetaProperty<IntArray> scenarioIndices() {
+      return scenarioIndices;
+    }
+
+    /**
+     * The meta-property for the {@code approximatePnl} property.
+     * @return the meta-property, not null
+     */
+    public MetaProperty<DoubleArray> approximatePnl() {
+      return approximatePnl;
+    }
+
+    /**
+     * The meta-property for the {@code fullRevaluationPnl} property.
+     * @return the meta-property, not null
+     */
+    public MetaProperty<DoubleArray> fullRevaluationPnl() {
+      return fullRevaluationPnl;
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    protected Object propertyGet(Bean bean, String propertyName, boolean quiet) {
+      switch (propertyName.hashCode()) {
+        case 58379767:  // scenarioIndices
+          return ((PnlApproximationError) bean).getScenarioIndices();
+        case -749549958:  // approximatePnl
+          return ((PnlApproximationError) bean).getApproximatePnl();
+        case -1954108785:  // fullRevaluationPnl
+          return ((PnlApproximationError) bean).getFullRevaluationPnl();
+      }
+      return super.propertyGet(bean, propertyName, quiet);
+    }
+
+    @Override
+    protected void propertySet(Bean bean, String propertyName, Object newValue, boolean quiet) {
+      metaProperty(propertyName);
+      if (quiet) {
+        return;
+      }
+      throw new UnsupportedOperationException("Property cannot be written: " + propertyName);
+    }
+
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * The bean-builder for {@code PnlApproximationError}.
+   */
+  private static final class Builder extends DirectPrivateBeanBuilder<PnlApproximationError> {
+
+    private IntArray scenarioIndices;
+    private DoubleArray approximatePnl;
+    private DoubleArray fullRevaluationPnl;
+
+    /**
+     * Restricted constructor.
+     */
+    private Builder() {
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public Object get(String propertyName) {
+      switch (propertyName.hashCode()) {
+        case 58379767:  // scenarioIndices
+          return scenarioIndices;
+        case -749549958:  // approximatePnl
+          return approximatePnl;
+        case -1954108785:  // fullRevaluationPnl
+          return fullRevaluationPnl;
+        default:
+          throw new NoSuchElementException("Unknown property: " + propertyName);
+      }
+    }
+
+    @Override
+    public Builder set(String propertyName, Object newValue) {
+      switch (propertyName.hashCode()) {
+        case 58379767:  // scenarioIndices
+          this.scenarioIndices = (IntArray) newValue;
+          break;
+        case -749549958:  // approximatePnl
+          this.approximatePnl = (DoubleArray) newValue;
+          break;
+        case -1954108785:  // fullRevaluationPnl
+          this.fullRevaluationPnl = (DoubleArray) newValue;
+          break;
+        default:
+          throw new NoSuchElementException("Unknown property: " + propertyName);
+      }
+      return this;
+    }
+
+    @Override
+    public PnlApproximationError build() {
+      return new PnlApproximationError(
+          scenarioIndices,
+          approximatePnl,
+          fullRevaluationPnl);
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public String toString() {
+      StringBuilder buf = new StringBuilder(128);
+      buf.append("PnlApproximationError.Builder{");
+      buf.append("scenarioIndices").append('=').append(JodaBeanUtils.toString(scenarioIndices)).append(',').append(' ');
+      buf.append("approximatePnl").append('=').append(JodaBeanUtils.toString(approximatePnl)).append(',').append(' ');
+      buf.append("fullRevaluationPnl").append('=').append(JodaBeanUtils.toString(fullRevaluationPnl));
+      buf.append('}');
+      return buf.toString();
+    }
+
+  }
+
+  //-------------------------- AUTOGENERATED END --------------------------
+}
@@ -5,14 +5,20 @@
  */
 package com.opengamma.strata.pricer.sensitivity;
 
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import org.joda.beans.MetaProperty;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
@@ -39,6 +45,11 @@ import com.opengamma.strata.pricer.rate.RatesProvider;
  * <p>
  * This is based on an {@link ImmutableRatesProvider}, {@link LegalEntityDiscountingProvider} or {@link CreditRatesProvider}.
  * The sensitivities are calculated by finite difference.
+ * <p>
+ * Each bumped provider is evaluated once, even when the sensitivities of several targets are requested.
+ * The bumped providers can be evaluated in parallel, see
+ * {@link #RatesFiniteDifferenceSensitivityCalculator(double, boolean)},
+ * in which case the value function must be thread-safe.
  */
 public class RatesFiniteDifferenceSensitivityCalculator {
 
@@ -52,6 +63,10 @@ public class RatesFiniteDifferenceSensitivityCalculator {
    * The shift used for finite difference.
    */
   private final double shift;
+  /**
+   * Whether the bumped providers are evaluated in parallel.
+   */
+  private final boolean parallel;
 
   /**
    * Create an instance of the finite difference calculator.
@@ -59,7 +74,21 @@ public class RatesFiniteDifferenceSensitivityCalculator {
    * @param shift  the shift used in the finite difference computation
    */
   public RatesFiniteDifferenceSensitivityCalculator(double shift) {
+    this(shift, false);
+  }
+
+  /**
+   * Create an instance of the finite difference calculator, evaluating the bumped providers in parallel if required.
+   * <p>
+   * The bumped providers are independent, thus they can be evaluated using the common fork-join pool.
+   * In that case, the value function passed to the calculator must be thread-safe.
+   * 
+   * @param shift  the shift used in the finite difference computation
+   * @param parallel  whether the bumped providers are evaluated in parallel
+   */
+  public RatesFiniteDifferenceSensitivityCalculator(double shift, boolean parallel) {
     this.shift = shift;
+    this.parallel = parallel;
   }
 
   //-------------------------------------------------------------------------
@@ -77,42 +106,65 @@ public class RatesFiniteDifferenceSensitivityCalculator {
       RatesProvider provider,
       Function<ImmutableRatesProvider, CurrencyAmount> valueFn) {
 
+    return sensitivity(provider, ImmutableList.of(valueFn), Function::apply).get(0);
+  }
+
+  /**
+   * Computes the first order sensitivities of the values of several targets by finite difference.
+   * <p>
+   * The finite difference is computed by forward type.
+   * Each bumped provider is built once and all the targets are valued against it,
+   * rather than bumping the curves separately for each target.
+   * The function should return a value in the same currency for any rate provider for a given target.
+   * 
+   * @param <T>  the type of the targets, typically a resolved trade
+   * @param provider  the rates provider
+   * @param targets  the targets
+   * @param valueFn  the function from a target and a rate provider to a currency amount
+   *   for which the sensitivity should be computed
+   * @return the curve sensitivity of each target, in the order of the targets
+   */
+  public <T> List<CurrencyParameterSensitivities> sensitivity(
+      RatesProvider provider,
+      List<T> targets,
+      BiFunction<? super T, ImmutableRatesProvider, CurrencyAmount> valueFn) {
+
     ImmutableRatesProvider immProv = provider.toImmutableRatesProvider();
-    CurrencyAmount valueInit = valueFn.apply(immProv);
-    CurrencyParameterSensitivities discounting = sensitivity(
+    Function<ImmutableRatesProvider, List<CurrencyAmount>> valuesFn = bumped -> targets.stream()
+        .map(target -> valueFn.apply(target, bumped))
+        .collect(toImmutableList());
+    List<CurrencyAmount> valuesInit = valuesFn.apply(immProv);
+    List<CurrencyParameterSensitivities> discounting = sensitivity(
         immProv,
         immProv.getDiscountCurves(),
         (base, bumped) -> base.toBuilder().discountCurves(bumped).build(),
-        valueFn,
-        valueInit);
-    CurrencyParameterSensitivities forward = sensitivity(
+        valuesFn,
+        valuesInit);
+    List<CurrencyParameterSensitivities> forward = sensitivity(
         immProv,
         immProv.getIndexCurves(),
         (base, bumped) -> base.toBuilder().indexCurves(bumped).build(),
-        valueFn,
-        valueInit);
-    return discounting.combinedWith(forward);
+        valuesFn,
+        valuesInit);
+    return combinedWith(discounting, forward);
   }
 
-  // computes the sensitivity with respect to the curves
-  private <T> CurrencyParameterSensitivities sensitivity(
+  // computes the sensitivity of each value with respect to the curves
+  private <K> List<CurrencyParameterSensitivities> sensitivity(
       ImmutableRatesProvider provider,
-      Map<T, Curve> baseCurves,
-      BiFunction<ImmutableRatesProvider, Map<T, Curve>, ImmutableRatesProvider> storeBumpedFn,
-      Function<ImmutableRatesProvider, CurrencyAmount> valueFn,
-      CurrencyAmount valueInit) {
+      Map<K, Curve> baseCurves,
+      BiFunction<ImmutableRatesProvider, Map<K, Curve>, ImmutableRatesProvider> storeBumpedFn,
+      Function<ImmutableRatesProvider, List<CurrencyAmount>> valuesFn,
+      List<CurrencyAmount> valuesInit) {
 
-    CurrencyParameterSensitivities result = CurrencyParameterSensitivities.empty();
-    for (Entry<T, Curve> entry : baseCurves.entrySet()) {
-      Curve curve = entry.getValue();
-      DoubleArray sensitivity = DoubleArray.of(curve.getParameterCount(), i -> {
-        Curve dscBumped = curve.withParameter(i, curve.getParameter(i) + shift);
-        Map<T, Curve> mapBumped = new HashMap<>(baseCurves);
+    List<CurrencyParameterSensitivities> result = emptySensitivities(valuesInit.size());
+    for (Entry<K, Curve> entry : baseCurves.entrySet()) {
+      Function<Curve, ImmutableRatesProvider> bumpedProviderFn = dscBumped -> {
+        Map<K, Curve> mapBumped = new HashMap<>(baseCurves);
         mapBumped.put(entry.getKey(), dscBumped);
-        ImmutableRatesProvider providerDscBumped = storeBumpedFn.apply(provider, mapBumped);
-        return (valueFn.apply(providerDscBumped).getAmount() - valueInit.getAmount()) / shift;
-      });
-      result = result.combinedWith(curve.createParameterSensitivity(valueInit.getCurrency(), sensitivity));
+        return storeBumpedFn.apply(provider, mapBumped);
+      };
+      result = combinedWith(result, curveSensitivity(entry.getValue(), bumpedProviderFn, valuesFn, valuesInit));
     }
     return result;
   }
@@ -152,17 +204,12 @@ public class RatesFiniteDifferenceSensitivityCalculator {
     for (Pair<T, Currency> key : baseCurves.keySet()) {
       DiscountFactors discountFactors = baseCurves.get(key);
       Curve curve = checkDiscountFactors(discountFactors);
-      int paramCount = curve.getParameterCount();
-      double[] sensitivity = new double[paramCount];
-      for (int i = 0; i < paramCount; i++) {
-        Curve dscBumped = curve.withParameter(i, curve.getParameter(i) + shift);
+      Function<Curve, ImmutableLegalEntityDiscountingProvider> bumpedProviderFn = dscBumped -> {
         Map<Pair<T, Currency>, DiscountFactors> mapBumped = new HashMap<>(baseCurves);
         mapBumped.put(key, createDiscountFactors(discountFactors, dscBumped));
-        ImmutableLegalEntityDiscountingProvider providerDscBumped = provider.toBuilder().set(metaProperty, mapBumped).build();
-        sensitivity[i] = (valueFn.apply(providerDscBumped).getAmount() - valueInit.getAmount()) / shift;
-      }
-      result = result.combinedWith(
-          curve.createParameterSensitivity(valueInit.getCurrency(), DoubleArray.copyOf(sensitivity)));
+        return provider.toBuilder().set(metaProperty, mapBumped).build();
+      };
+      result = result.combinedWith(curveSensitivity(curve, bumpedProviderFn, valueFn, valueInit));
     }
     return result;
   }
@@ -203,17 +250,12 @@ public class RatesFiniteDifferenceSensitivityCalculator {
       CreditDiscountFactors creditDiscountFactors = baseCurves.get(key);
       DiscountFactors discountFactors = creditDiscountFactors.toDiscountFactors();
       Curve curve = checkDiscountFactors(discountFactors);
-      int paramCount = curve.getParameterCount();
-      double[] sensitivity = new double[paramCount];
-      for (int i = 0; i < paramCount; i++) {
-        Curve dscBumped = curve.withParameter(i, curve.getParameter(i) + shift);
+      Function<Curve, ImmutableCreditRatesProvider> bumpedProviderFn = dscBumped -> {
         Map<T, CreditDiscountFactors> mapBumped = new HashMap<>(baseCurves);
         mapBumped.put(key, createCreditDiscountFactors(creditDiscountFactors, dscBumped));
-        ImmutableCreditRatesProvider providerDscBumped = provider.toBuilder().set(metaProperty, mapBumped).build();
-        sensitivity[i] = (valueFn.apply(providerDscBumped).getAmount() - valueInit.getAmount()) / shift;
-      }
-      result = result.combinedWith(
-          curve.createParameterSensitivity(valueInit.getCurrency(), DoubleArray.copyOf(sensitivity)));
+        return provider.toBuilder().set(metaProperty, mapBumped).build();
+      };
+      result = result.combinedWith(curveSensitivity(curve, bumpedProviderFn, valueFn, valueInit));
     }
     return result;
   }
@@ -231,23 +273,71 @@ public class RatesFiniteDifferenceSensitivityCalculator {
       CreditDiscountFactors creditDiscountFactors = credit.getSurvivalProbabilities();
       DiscountFactors discountFactors = creditDiscountFactors.toDiscountFactors();
       Curve curve = checkDiscountFactors(discountFactors);
-      int paramCount = curve.getParameterCount();
-      double[] sensitivity = new double[paramCount];
-      for (int i = 0; i < paramCount; i++) {
-        Curve dscBumped = curve.withParameter(i, curve.getParameter(i) + shift);
+      Function<Curve, ImmutableCreditRatesProvider> bumpedProviderFn = dscBumped -> {
         Map<T, LegalEntitySurvivalProbabilities> mapBumped = new HashMap<>(baseCurves);
         mapBumped.put(key, LegalEntitySurvivalProbabilities.of(
             credit.getLegalEntityId(), createCreditDiscountFactors(creditDiscountFactors, dscBumped)));
-        ImmutableCreditRatesProvider providerDscBumped = provider.toBuilder().set(metaProperty, mapBumped).build();
-        sensitivity[i] = (valueFn.apply(providerDscBumped).getAmount() - valueInit.getAmount()) / shift;
-      }
-      result = result.combinedWith(
-          curve.createParameterSensitivity(valueInit.getCurrency(), DoubleArray.copyOf(sensitivity)));
+        return provider.toBuilder().set(metaProperty, mapBumped).build();
+      };
+      result = result.combinedWith(curveSensitivity(curve, bumpedProviderFn, valueFn, valueInit));
     }
     return result;
   }
 
   //-------------------------------------------------------------------------
+  // computes the sensitivity of the value to the parameters of the curve
+  private <P> CurrencyParameterSensitivities curveSensitivity(
+      Curve curve,
+      Function<Curve, P> bumpedProviderFn,
+      Function<P, CurrencyAmount> valueFn,
+      CurrencyAmount valueInit) {
+
+    Function<P, List<CurrencyAmount>> valuesFn = provider -> ImmutableList.of(valueFn.apply(provider));
+    return curveSensitivity(curve, bumpedProviderFn, valuesFn, ImmutableList.of(valueInit)).get(0);
+  }
+
+  // computes the sensitivities of the values to the parameters of the curve, each bumped provider being valued once
+  private <P> List<CurrencyParameterSensitivities> curveSensitivity(
+      Curve curve,
+      Function<Curve, P> bumpedProviderFn,
+      Function<P, List<CurrencyAmount>> valuesFn,
+      List<CurrencyAmount> valuesInit) {
+
+    int paramCount = curve.getParameterCount();
+    int valueCount = valuesInit.size();
+    double[][] sensitivity = new double[valueCount][paramCount];
+    IntStream indices = IntStream.range(0, paramCount);
+    if (parallel) {
+      indices = indices.parallel();
+    }
+    indices.forEach(i -> {
+      Curve dscBumped = curve.withParameter(i, curve.getParameter(i) + shift);
+      List<CurrencyAmount> values = valuesFn.apply(bumpedProviderFn.apply(dscBumped));
+      for (int k = 0; k < valueCount; k++) {
+        sensitivity[k][i] = (values.get(k).getAmount() - valuesInit.get(k).getAmount()) / shift;
+      }
+    });
+    return IntStream.range(0, valueCount)
+        .mapToObj(k -> CurrencyParameterSensitivities.of(
+            curve.createParameterSensitivity(valuesInit.get(k).getCurrency(), DoubleArray.ofUnsafe(sensitivity[k]))))
+        .collect(toImmutableList());
+  }
+
+  // empty sensitivities for each value
+  private static List<CurrencyParameterSensitivities> emptySensitivities(int valueCount) {
+    return Collections.nCopies(valueCount, CurrencyParameterSensitivities.empty());
+  }
+
+  // combines the sensitivities of each value
+  private static List<CurrencyParameterSensitivities> combinedWith(
+      List<CurrencyParameterSensitivities> sensitivities,
+      List<CurrencyParameterSensitivities> other) {
+
+    return IntStream.range(0, sensitivities.size())
+        .mapToObj(k -> sensitivities.get(k).combinedWith(other.get(k)))
+        .collect(toImmutableList());
+  }
+
   // check that the discountFactors is ZeroRateDiscountFactors or SimpleDiscountFactors
   private Curve checkDiscountFactors(DiscountFactors discountFactors) {
     if (discountFactors instanceof ZeroRateDiscountFactors) {
@@ -0,0 +1,446 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.swap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.index.IborIndexObservation;
+import com.opengamma.strata.basics.index.Index;
+import com.opengamma.strata.basics.index.OvernightIndexObservation;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.product.rate.FixedRateComputation;
+import com.opengamma.strata.product.rate.IborRateComputation;
+import com.opengamma.strata.product.rate.OvernightCompoundedRateComputation;
+import com.opengamma.strata.product.rate.RateComputation;
+import com.opengamma.strata.product.swap.NegativeRateMethod;
+import com.opengamma.strata.product.swap.NotionalExchange;
+import com.opengamma.strata.product.swap.RateAccrualPeriod;
+import com.opengamma.strata.product.swap.RatePaymentPeriod;
+import com.opengamma.strata.product.swap.ResolvedSwapLeg;
+import com.opengamma.strata.product.swap.SwapPaymentEvent;
+import com.opengamma.strata.product.swap.SwapPaymentPeriod;
+
+/**
+ * A swap leg flattened into arrays, for use by {@link CompiledSwapLegPricer}.
+ * <p>
+ * A {@link ResolvedSwapLeg} is a list of payment periods, each of which holds a list of accrual periods
+ * with a rate computation. Pricing it involves dispatching on the type of each of these objects.
+ * This class performs the dispatch once, storing the details of the vanilla periods in arrays
+ * indexed by period: payment date, accrual factor, notional, spread, fixed rate, index and
+ * fixing period. The pricer can then price the leg in straight loops over the arrays.
+ * <p>
+ * A payment period is vanilla if it is a {@link RatePaymentPeriod} with a single accrual period,
+ * no FX reset, a gearing of one, negative rates allowed and one of the following rate computations:
+ * <ul>
+ * <li>{@link FixedRateComputation}
+ * <li>{@link IborRateComputation}
+ * <li>{@link OvernightCompoundedRateComputation} with no rate cut-off
+ * </ul>
+ * All other periods are kept as objects and priced using the standard period pricer.
+ * Likewise, the {@link NotionalExchange} events in the leg currency are flattened, the other events are not.
+ * <p>
+ * The dates are stored rather than the times, as the times depend on the curves used for pricing.
+ * This class is immutable and can be compiled once and priced many times.
+ */
+public final class CompiledSwapLeg {
+
+  /**
+   * The type of a period that is priced using the standard period pricer.
+   */
+  static final int OTHER = 0;
+  /**
+   * The type of a fixed rate period.
+   */
+  static final int FIXED = 1;
+  /**
+   * The type of an Ibor rate period.
+   */
+  static final int IBOR = 2;
+  /**
+   * The type of an overnight compounded rate period.
+   */
+  static final int OVERNIGHT = 3;
+
+  /**
+   * The underlying leg.
+   */
+  private final ResolvedSwapLeg leg;
+  /**
+   * The indices referred to by the index identifiers.
+   */
+  private final ImmutableList<Index> indices;
+  /**
+   * The number of periods that are priced using the standard period pricer.
+   */
+  private final int otherPeriodCount;
+  /**
+   * The events that are priced using the standard event pricer.
+   */
+  private final ImmutableList<SwapPaymentEvent> otherEvents;
+
+  /**
+   * The period types, indexed by period.
+   */
+  private final int[] types;
+  /**
+   * The payment dates, indexed by period.
+   */
+  private final LocalDate[] paymentDates;
+  /**
+   * The accrual year fractions, indexed by period.
+   */
+  private final double[] accrualFactors;
+  /**
+   * The notionals, indexed by period.
+   */
+  private final double[] notionals;
+  /**
+   * The spreads, indexed by period.
+   */
+  private final double[] spreads;
+  /**
+   * The fixed rates, indexed by period, zero if the period is not fixed.
+   */
+  private final double[] fixedRates;
+  /**
+   * The identifiers of the indices in {@code indices}, indexed by period, -1 if the period is not floating.
+   */
+  private final int[] indexIds;
+  /**
+   * The dates after which the floating rates are not known, indexed by period.
+   * This is the fixing date for Ibor and the publication date of the first fixing for overnight.
+   */
+  private final LocalDate[] fixingDates;
+  /**
+   * The start dates of the fixing periods, indexed by period.
+   */
+  private final LocalDate[] fixingStartDates;
+  /**
+   * The end dates of the fixing periods, indexed by period.
+   */
+  private final LocalDate[] fixingEndDates;
+  /**
+   * The year fractions of the fixing periods in the index day count, indexed by period.
+   */
+  private final double[] fixingYearFractions;
+  /**
+   * The payment dates of the notional exchanges.
+   */
+  private final LocalDate[] eventDates;
+  /**
+   * The amounts of the notional exchanges.
+   */
+  private final double[] eventAmounts;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Compiles the swap leg.
+   *
+   * @param leg  the swap leg
+   * @return the compiled swap leg
+   */
+  public static CompiledSwapLeg of(ResolvedSwapLeg leg) {
+    ArgChecker.notNull(leg, "leg");
+    return new CompiledSwapLeg(leg);
+  }
+
+  // restricted constructor
+  private CompiledSwapLeg(ResolvedSwapLeg leg) {
+    this.leg = leg;
+    ImmutableList<SwapPaymentPeriod> periods = leg.getPaymentPeriods();
+    int nbPeriods = periods.size();
+    this.types = new int[nbPeriods];
+    this.paymentDates = new LocalDate[nbPeriods];
+    this.accrualFactors = new double[nbPeriods];
+    this.notionals = new double[nbPeriods];
+    this.spreads = new double[nbPeriods];
+    this.fixedRates = new double[nbPeriods];
+    this.indexIds = new int[nbPeriods];
+    this.fixingDates = new LocalDate[nbPeriods];
+    this.fixingStartDates = new LocalDate[nbPeriods];
+    this.fixingEndDates = new LocalDate[nbPeriods];
+    this.fixingYearFractions = new double[nbPeriods];
+    List<Index> indexList = new ArrayList<>();
+    int nbOther = 0;
+    for (int i = 0; i < nbPeriods; i++) {
+      SwapPaymentPeriod period = periods.get(i);
+      paymentDates[i] = period.getPaymentDate();
+      indexIds[i] = -1;
+      types[i] = compilePeriod(period, i, indexList);
+      if (types[i] == OTHER) {
+        nbOther++;
+      }
+    }
+    this.indices = ImmutableList.copyOf(indexList);
+    this.otherPeriodCount = nbOther;
+    // notional exchanges in the leg currency
+    List<NotionalExchange> exchanges = new ArrayList<>();
+    ImmutableList.Builder<SwapPaymentEvent> others = ImmutableList.builder();
+    for (SwapPaymentEvent event : leg.getPaymentEvents()) {
+      if (event instanceof NotionalExchange && event.getCurrency().equals(leg.getCurrency())) {
+        exchanges.add((NotionalExchange) event);
+      } else {
+        others.add(event);
+      }
+    }
+    this.otherEvents = others.build();
+    this.eventDates = new LocalDate[exchanges.size()];
+    this.eventAmounts = new double[exchanges.size()];
+    for (int i = 0; i < exchanges.size(); i++) {
+      eventDates[i] = exchanges.get(i).getPaymentDate();
+      eventAmounts[i] = exchanges.get(i).getPaymentAmount().getAmount();
+    }
+  }
+
+  // stores the details of a vanilla period and returns its type, or OTHER if the period is not vanilla
+  private int compilePeriod(SwapPaymentPeriod period, int i, List<Index> indexList) {
+    if (!(period instanceof RatePaymentPeriod)) {
+      return OTHER;
+    }
+    RatePaymentPeriod ratePeriod = (RatePaymentPeriod) period;
+    if (ratePeriod.getFxReset().isPresent() || ratePeriod.getAccrualPeriods().size() != 1) {
+      return OTHER;
+    }
+    RateAccrualPeriod accrualPeriod = ratePeriod.getAccrualPeriods().get(0);
+    if (accrualPeriod.getGearing() != 1d ||
+        accrualPeriod.getNegativeRateMethod() != NegativeRateMethod.ALLOW_NEGATIVE) {
+      return OTHER;
+    }
+    int type;
+    RateComputation computation = accrualPeriod.getRateComputation();
+    if (computation instanceof FixedRateComputation) {
+      fixedRates[i] = ((FixedRateComputation) computation).getRate();
+      type = FIXED;
+    } else if (computation instanceof IborRateComputation) {
+      IborIndexObservation observation = ((IborRateComputation) computation).getObservation();
+      indexIds[i] = indexId(observation.getIndex(), indexList);
+      fixingDates[i] = observation.getFixingDate();
+      fixingStartDates[i] = observation.getEffectiveDate();
+      fixingEndDates[i] = observation.getMaturityDate();
+      fixingYearFractions[i] = observation.getYearFraction();
+      type = IBOR;
+    } else if (computation instanceof OvernightCompoundedRateComputation &&
+        ((OvernightCompoundedRateComputation) computation).getRateCutOffDays() <= 1) {
+      // without cut-off and before the first publication, the compounded rate is the period rate
+      OvernightCompoundedRateComputation overnight = (OvernightCompoundedRateComputation) computation;
+      OvernightIndexObservation observation = overnight.observeOn(overnight.getStartDate());
+      LocalDate lastFixing = overnight.getFixingCalendar().previous(overnight.getEndDate());
+      indexIds[i] = indexId(overnight.getIndex(), indexList);
+      fixingDates[i] = observation.getPublicationDate();
+      fixingStartDates[i] = observation.getEffectiveDate();
+      fixingEndDates[i] = overnight.calculateMaturityFromFixing(lastFixing);
+      fixingYearFractions[i] = overnight.getIndex().getDayCount().yearFraction(fixingStartDates[i], fixingEndDates[i]);
+      type = OVERNIGHT;
+    } else {
+      return OTHER;
+    }
+    accrualFactors[i] = accrualPeriod.getYearFraction();
+    notionals[i] = ratePeriod.getNotional();
+    spreads[i] = accrualPeriod.getSpread();
+    return type;
+  }
+
+  // finds the identifier of the index, adding it if necessary
+  private static int indexId(Index index, List<Index> indexList) {
+    int id = indexList.indexOf(index);
+    if (id < 0) {
+      indexList.add(index);
+      id = indexList.size() - 1;
+    }
+    return id;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the underlying swap leg.
+   *
+   * @return the swap leg
+   */
+  public ResolvedSwapLeg getLeg() {
+    return leg;
+  }
+
+  /**
+   * Gets the currency of the swap leg.
+   *
+   * @return the currency
+   */
+  public Currency getCurrency() {
+    return leg.getCurrency();
+  }
+
+  /**
+   * Gets the number of payment periods.
+   *
+   * @return the number of periods
+   */
+  public int getPeriodCount() {
+    return types.length;
+  }
+
+  /**
+   * Gets the indices of the floating periods.
+   * <p>
+   * The index identifiers of the periods refer to the position in this list.
+   *
+   * @return the indices
+   */
+  public ImmutableList<Index> getIndices() {
+    return indices;
+  }
+
+  /**
+   * Gets the events that are not flattened.
+   *
+   * @return the events
+   */
+  ImmutableList<SwapPaymentEvent> getOtherEvents() {
+    return otherEvents;
+  }
+
+  /**
+   * Checks if all the periods and events of the leg are flattened.
+   * <p>
+   * When this is true, the leg is priced without calling the standard period and event pricers,
+   * except for the floating periods whose rate is already fixed.
+   *
+   * @return true if all the periods and events are flattened
+   */
+  public boolean isVanilla() {
+    return otherPeriodCount == 0 && otherEvents.isEmpty();
+  }
+
+  //-------------------------------------------------------------------------
+  // the arrays below are returned without copying for the pricers in the same package and must not be modified
+  /**
+   * Gets the period types.
+   *
+   * @return the period types, not copied
+   */
+  int[] getTypes() {
+    return types;
+  }
+
+  /**
+   * Gets the payment dates.
+   *
+   * @return the payment dates, not copied
+   */
+  LocalDate[] getPaymentDates() {
+    return paymentDates;
+  }
+
+  /**
+   * Gets the accrual year fractions.
+   *
+   * @return the accrual year fractions, not copied
+   */
+  double[] getAccrualFactors() {
+    return accrualFactors;
+  }
+
+  /**
+   * Gets the notionals.
+   *
+   * @return the notionals, not copied
+   */
+  double[] getNotionals() {
+    return notionals;
+  }
+
+  /**
+   * Gets the spreads.
+   *
+   * @return the spreads, not copied
+   */
+  double[] getSpreads() {
+    return spreads;
+  }
+
+  /**
+   * Gets the fixed rates.
+   *
+   * @return the fixed rates, not copied
+   */
+  double[] getFixedRates() {
+    return fixedRates;
+  }
+
+  /**
+   * Gets the index identifiers.
+   *
+   * @return the index identifiers, not copied
+   */
+  int[] getIndexIds() {
+    return indexIds;
+  }
+
+  /**
+   * Gets the fixing dates.
+   *
+   * @return the fixing dates, not copied
+   */
+  LocalDate[] getFixingDates() {
+    return fixingDates;
+  }
+
+  /**
+   * Gets the fixing period start dates.
+   *
+   * @return the fixing period start dates, not copied
+   */
+  LocalDate[] getFixingStartDates() {
+    return fixingStartDates;
+  }
+
+  /**
+   * Gets the fixing period end dates.
+   *
+   * @return the fixing period end dates, not copied
+   */
+  LocalDate[] getFixingEndDates() {
+    return fixingEndDates;
+  }
+
+  /**
+   * Gets the fixing period year fractions.
+   *
+   * @return the fixing period year fractions, not copied
+   */
+  double[] getFixingYearFractions() {
+    return fixingYearFractions;
+  }
+
+  /**
+   * Gets the notional exchange payment dates.
+   *
+   * @return the notional exchange payment dates, not copied
+   */
+  LocalDate[] getEventDates() {
+    return eventDates;
+  }
+
+  /**
+   * Gets the notional exchange amounts.
+   *
+   * @return the notional exchange amounts, not copied
+   */
+  double[] getEventAmounts() {
+    return eventAmounts;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "CompiledSwapLeg[" + leg.getType() + ", " + types.length + " periods, " +
+        (types.length - otherPeriodCount) + " flattened]";
+  }
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.swap;
+
+import static com.opengamma.strata.pricer.swap.CompiledSwapLeg.FIXED;
+import static com.opengamma.strata.pricer.swap.CompiledSwapLeg.OTHER;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.index.IborIndex;
+import com.opengamma.strata.basics.index.Index;
+import com.opengamma.strata.basics.index.OvernightIndex;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.pricer.DiscountFactors;
+import com.opengamma.strata.pricer.rate.DiscountIborIndexRates;
+import com.opengamma.strata.pricer.rate.DiscountOvernightIndexRates;
+import com.opengamma.strata.pricer.rate.IborIndexRates;
+import com.opengamma.strata.pricer.rate.OvernightIndexRates;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+import com.opengamma.strata.product.swap.ResolvedSwap;
+import com.opengamma.strata.product.swap.ResolvedSwapLeg;
+import com.opengamma.strata.product.swap.SwapLegType;
+import com.opengamma.strata.product.swap.SwapPaymentEvent;
+import com.opengamma.strata.product.swap.SwapPaymentPeriod;
+
+/**
+ * Pricer for compiled swap legs.
+ * <p>
+ * This function provides the ability to price a {@link CompiledSwapLeg}.
+ * The present value, the PVBP and the par rate are computed in loops over the arrays of the compiled leg.
+ * The discount factors of the payment dates are obtained in a single call to the discounting curve.
+ * The forward rates are computed from the forward curve discount factors, which requires the index rates
+ * to be {@link DiscountIborIndexRates} or {@link DiscountOvernightIndexRates}.
+ * <p>
+ * The periods that are not flattened, the floating periods whose rate is already fixed or partly fixed,
+ * and the periods on indices with other types of rates are priced using the standard period pricer
+ * of the {@link DiscountingSwapLegPricer}. The results are the same as the ones of that pricer.
+ */
+public class CompiledSwapLegPricer {
+
+  /**
+   * Default implementation.
+   */
+  public static final CompiledSwapLegPricer DEFAULT = new CompiledSwapLegPricer(DiscountingSwapLegPricer.DEFAULT);
+
+  /**
+   * Pricer for the periods and events that are not flattened.
+   */
+  private final DiscountingSwapLegPricer legPricer;
+  /**
+   * Pricer for the swaps whose par rate cannot be computed from the compiled legs.
+   */
+  private final DiscountingSwapProductPricer productPricer;
+
+  /**
+   * Creates an instance.
+   *
+   * @param legPricer  the pricer for the periods and events that are not flattened
+   */
+  public CompiledSwapLegPricer(DiscountingSwapLegPricer legPricer) {
+    this.legPricer = ArgChecker.notNull(legPricer, "legPricer");
+    this.productPricer = new DiscountingSwapProductPricer(legPricer);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the present value of the swap leg.
+   * <p>
+   * The present value of the leg is the value on the valuation date.
+   * This is the discounted forecast value.
+   * The result is returned using the payment currency of the leg.
+   *
+   * @param leg  the compiled leg
+   * @param provider  the rates provider
+   * @return the present value of the swap leg
+   */
+  public CurrencyAmount presentValue(CompiledSwapLeg leg, RatesProvider provider) {
+    return CurrencyAmount.of(leg.getCurrency(), presentValueInternal(leg, provider));
+  }
+
+  /**
+   * Calculates the present value of each swap leg.
+   * <p>
+   * The results are in the order of the legs, in the payment currency of each leg.
+   *
+   * @param legs  the compiled legs
+   * @param provider  the rates provider
+   * @return the present values of the swap legs
+   */
+  public List<CurrencyAmount> presentValue(List<CompiledSwapLeg> legs, RatesProvider provider) {
+    ImmutableList.Builder<CurrencyAmount> builder = ImmutableList.builder();
+    for (CompiledSwapLeg leg : legs) {
+      builder.add(presentValue(leg, provider));
+    }
+    return builder.build();
+  }
+
+  // calculates the present value in the currency of the swap leg
+  double presentValueInternal(CompiledSwapLeg leg, RatesProvider provider) {
+    return presentValuePeriodsInternal(leg, provider) + presentValueEventsInternal(leg, provider);
+  }
+
+  // calculates the present value of the periods in the currency of the swap leg
+  double presentValuePeriodsInternal(CompiledSwapLeg leg, RatesProvider provider) {
+    LocalDate valuationDate = provider.getValuationDate();
+    DiscountFactors discountFactors = provider.discountFactors(leg.getCurrency());
+    double[] paymentDfs = discountFactors(discountFactors, leg.getPaymentDates());
+    DiscountFactors[] forwardFactors = forwardFactors(leg, provider);
+    List<SwapPaymentPeriod> periods = leg.getLeg().getPaymentPeriods();
+    double total = 0d;
+    for (int i = 0; i < paymentDfs.length; i++) {
+      if (leg.getPaymentDates()[i].isBefore(valuationDate)) {
+        continue;
+      }
+      int type = leg.getTypes()[i];
+      DiscountFactors forward = type == FIXED || type == OTHER ? null : forwardFactors[leg.getIndexIds()[i]];
+      double rate;
+      if (type == FIXED) {
+        rate = leg.getFixedRates()[i];
+      } else if (forward != null && leg.getFixingDates()[i].isAfter(valuationDate)) {
+        // simply compounded forward rate from discount factors
+        double dfStart = forward.discountFactor(leg.getFixingStartDates()[i]);
+        double dfEnd = forward.discountFactor(leg.getFixingEndDates()[i]);
+        rate = (dfStart / dfEnd - 1d) / leg.getFixingYearFractions()[i];
+      } else {
+        total += legPricer.getPeriodPricer().presentValue(periods.get(i), provider);
+        continue;
+      }
+      total += (rate + leg.getSpreads()[i]) * leg.getAccrualFactors()[i] * leg.getNotionals()[i] * paymentDfs[i];
+    }
+    return total;
+  }
+
+  // calculates the present value of the events in the currency of the swap leg
+  double presentValueEventsInternal(CompiledSwapLeg leg, RatesProvider provider) {
+    LocalDate valuationDate = provider.getValuationDate();
+    double total = 0d;
+    if (leg.getEventDates().length > 0) {
+      DiscountFactors discountFactors = provider.discountFactors(leg.getCurrency());
+      for (int i = 0; i < leg.getEventDates().length; i++) {
+        if (!leg.getEventDates()[i].isBefore(valuationDate)) {
+          total += leg.getEventAmounts()[i] * discountFactors.discountFactor(leg.getEventDates()[i]);
+        }
+      }
+    }
+    for (SwapPaymentEvent event : leg.getOtherEvents()) {
+      if (!event.getPaymentDate().isBefore(valuationDate)) {
+        total += legPricer.getEventPricer().presentValue(event, provider);
+      }
+    }
+    return total;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Computes the Present Value of a Basis Point for a swap leg.
+   * <p>
+   * The Present Value of a Basis Point is the value of the leg when the rate is equal to 1.
+   * A better name would be "Present Value of 1".
+   * The PV01, the change in value for a one basis point change in rate, is this value multiplied by 0.0001.
+   * <p>
+   * The periods that are not flattened must be supported by
+   * {@link DiscountingSwapLegPricer#pvbp(ResolvedSwapLeg, RatesProvider)}.
+   *
+   * @param leg  the compiled leg
+   * @param provider  the rates provider
+   * @return the Present Value of a Basis Point
+   */
+  public double pvbp(CompiledSwapLeg leg, RatesProvider provider) {
+    DiscountFactors discountFactors = provider.discountFactors(leg.getCurrency());
+    double[] paymentDfs = discountFactors(discountFactors, leg.getPaymentDates());
+    List<SwapPaymentPeriod> periods = leg.getLeg().getPaymentPeriods();
+    double pvbpLeg = 0d;
+    for (int i = 0; i < paymentDfs.length; i++) {
+      if (leg.getTypes()[i] == OTHER) {
+        pvbpLeg += legPricer.getPeriodPricer().pvbp(periods.get(i), provider);
+      } else {
+        pvbpLeg += paymentDfs[i] * leg.getAccrualFactors()[i] * leg.getNotionals()[i];
+      }
+    }
+    return pvbpLeg;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Computes the par rate of the swap formed by the legs.
+   * <p>
+   * The par rate is the common rate on all payments of the fixed leg for which the total swap present value is 0.
+   * The par rate is computed with respect to the first fixed leg.
+   * <p>
+   * If the fixed leg is not vanilla, the par rate is computed by
+   * {@link DiscountingSwapProductPricer#parRate(ResolvedSwap, RatesProvider)}.
+   *
+   * @param legs  the compiled legs of the swap
+   * @param provider  the rates provider
+   * @return the par rate
+   */
+  public double parRate(List<CompiledSwapLeg> legs, RatesProvider provider) {
+    CompiledSwapLeg fixedLeg = legs.stream()
+        .filter(leg -> leg.getLeg().getType() == SwapLegType.FIXED)
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Swap must contain a fixed leg"));
+    if (!fixedLeg.isVanilla()) {
+      ResolvedSwapLeg[] resolvedLegs = legs.stream().map(CompiledSwapLeg::getLeg).toArray(ResolvedSwapLeg[]::new);
+      return productPricer.parRate(ResolvedSwap.of(resolvedLegs), provider);
+    }
+    Currency ccyFixedLeg = fixedLeg.getCurrency();
+    // other payments (not fixed leg coupons) converted in fixed leg currency
+    double otherLegsConvertedPv = 0d;
+    for (CompiledSwapLeg leg : legs) {
+      if (leg != fixedLeg) {
+        double pvLocal = presentValueInternal(leg, provider);
+        otherLegsConvertedPv += (pvLocal * provider.fxRate(leg.getCurrency(), ccyFixedLeg));
+      }
+    }
+    double fixedLegEventsPv = presentValueEventsInternal(fixedLeg, provider);
+    double pvbpFixedLeg = pvbp(fixedLeg, provider);
+    return -(otherLegsConvertedPv + fixedLegEventsPv) / pvbpFixedLeg;
+  }
+
+  //-------------------------------------------------------------------------
+  // the discount factors of the dates, computed in one call
+  private static double[] discountFactors(DiscountFactors discountFactors, LocalDate[] dates) {
+    DoubleArray yearFractions = DoubleArray.of(dates.length, i -> discountFactors.relativeYearFraction(dates[i]));
+    return discountFactors.discountFactors(yearFractions).toArrayUnsafe();
+  }
+
+  // the discount factors of the forward curves, indexed by index identifier, null if not available
+  private static DiscountFactors[] forwardFactors(CompiledSwapLeg leg, RatesProvider provider) {
+    List<Index> indices = leg.getIndices();
+    DiscountFactors[] factors = new DiscountFactors[indices.size()];
+    for (int j = 0; j < indices.size(); j++) {
+      Index index = indices.get(j);
+      if (index instanceof IborIndex) {
+        IborIndexRates rates = provider.iborIndexRates((IborIndex) index);
+        if (rates instanceof DiscountIborIndexRates) {
+          factors[j] = ((DiscountIborIndexRates) rates).getDiscountFactors();
+        }
+      } else if (index instanceof OvernightIndex) {
+        OvernightIndexRates rates = provider.overnightIndexRates((OvernightIndex) index);
+        if (rates instanceof DiscountOvernightIndexRates) {
+          factors[j] = ((DiscountOvernightIndexRates) rates).getDiscountFactors();
+        }
+      }
+    }
+    return factors;
+  }
+
+}
@@ -13,6 +13,7 @@ import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.basics.currency.MultiCurrencyAmountAccumulator;
 import com.opengamma.strata.basics.value.ValueDerivatives;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
@@ -639,27 +640,34 @@ public class DiscountingSwapLegPricer {
    * @return the currency exposure of the swap leg
    */
   public MultiCurrencyAmount currencyExposure(ResolvedSwapLeg leg, RatesProvider provider) {
-    return currencyExposurePeriodsInternal(leg, provider).plus(currencyExposureEventsInternal(leg, provider));
+    MultiCurrencyAmountAccumulator total = MultiCurrencyAmountAccumulator.create();
+    currencyExposurePeriodsInternal(leg, provider, total);
+    currencyExposureEventsInternal(leg, provider, total);
+    return total.toMultiCurrencyAmount();
   }
 
-  private MultiCurrencyAmount currencyExposurePeriodsInternal(ResolvedSwapLeg leg, RatesProvider provider) {
-    MultiCurrencyAmount total = MultiCurrencyAmount.empty();
+  private void currencyExposurePeriodsInternal(
+      ResolvedSwapLeg leg,
+      RatesProvider provider,
+      MultiCurrencyAmountAccumulator total) {
+
     for (SwapPaymentPeriod period : leg.getPaymentPeriods()) {
       if (!period.getPaymentDate().isBefore(provider.getValuationDate())) {
-        total = total.plus(paymentPeriodPricer.currencyExposure(period, provider));
+        total.add(paymentPeriodPricer.currencyExposure(period, provider));
       }
     }
-    return total;
   }
 
-  private MultiCurrencyAmount currencyExposureEventsInternal(ResolvedSwapLeg leg, RatesProvider provider) {
-    MultiCurrencyAmount total = MultiCurrencyAmount.empty();
+  private void currencyExposureEventsInternal(
+      ResolvedSwapLeg leg,
+      RatesProvider provider,
+      MultiCurrencyAmountAccumulator total) {
+
     for (SwapPaymentEvent event : leg.getPaymentEvents()) {
       if (!event.getPaymentDate().isBefore(provider.getValuationDate())) {
-        total = total.plus(paymentEventPricer.currencyExposure(event, provider));
+        total.add(paymentEventPricer.currencyExposure(event, provider));
       }
     }
-    return total;
   }
 
   //-------------------------------------------------------------------------
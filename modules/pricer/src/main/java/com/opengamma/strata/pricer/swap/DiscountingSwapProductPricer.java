@@ -15,6 +15,7 @@ import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.basics.currency.MultiCurrencyAmountAccumulator;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.tuple.Triple;
 import com.opengamma.strata.market.amount.CashFlows;
@@ -155,11 +156,11 @@ public class DiscountingSwapProductPricer {
    * @return the accrued interest of the swap product
    */
   public MultiCurrencyAmount accruedInterest(ResolvedSwap swap, RatesProvider provider) {
-    MultiCurrencyAmount result = MultiCurrencyAmount.empty();
+    MultiCurrencyAmountAccumulator result = MultiCurrencyAmountAccumulator.create();
     for (ResolvedSwapLeg leg : swap.getLegs()) {
-      result = result.plus(legPricer.accruedInterest(leg, provider));
+      result.add(legPricer.accruedInterest(leg, provider));
     }
-    return result;
+    return result.toMultiCurrencyAmount();
   }
 
   //-------------------------------------------------------------------------
@@ -446,11 +447,11 @@ public class DiscountingSwapProductPricer {
    * @return the currency exposure of the swap product
    */
   public MultiCurrencyAmount currencyExposure(ResolvedSwap swap, RatesProvider provider) {
-    MultiCurrencyAmount ce = MultiCurrencyAmount.empty();
+    MultiCurrencyAmountAccumulator ce = MultiCurrencyAmountAccumulator.create();
     for (ResolvedSwapLeg leg : swap.getLegs()) {
-      ce = ce.plus(legPricer.currencyExposure(leg, provider));
+      ce.add(legPricer.currencyExposure(leg, provider));
     }
-    return ce;
+    return ce.toMultiCurrencyAmount();
   }
 
   /**
@@ -461,11 +462,11 @@ public class DiscountingSwapProductPricer {
    * @return the current cash of the swap product
    */
   public MultiCurrencyAmount currentCash(ResolvedSwap swap, RatesProvider provider) {
-    MultiCurrencyAmount ce = MultiCurrencyAmount.empty();
+    MultiCurrencyAmountAccumulator ce = MultiCurrencyAmountAccumulator.create();
     for (ResolvedSwapLeg leg : swap.getLegs()) {
-      ce = ce.plus(legPricer.currentCash(leg, provider));
+      ce.add(legPricer.currentCash(leg, provider));
     }
-    return ce;
+    return ce.toMultiCurrencyAmount();
   }
 
   //-------------------------------------------------------------------------
@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.swap;
+
+import java.time.LocalDate;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.IntArray;
+import com.opengamma.strata.market.amount.CashFlow;
+import com.opengamma.strata.market.amount.CashFlows;
+
+/**
+ * The projected cash flows of a list of swaps, stored in columns.
+ * <p>
+ * Each cash flow is a row, identified by its position in the columns.
+ * The columns are the index of the leg in the swap, the payment date, the currency,
+ * the forecast value, the discount factor and the forward rate.
+ * The rows of a swap are contiguous, starting at {@link #getFirstRow(int)}, in the order of the swaps.
+ * Within a swap, they are ordered as in {@link DiscountingSwapProductPricer#cashFlows}.
+ * <p>
+ * The forward rate is the rate of the period, before spread, if the period is flattened
+ * by {@link CompiledSwapLeg}, and NaN otherwise, in particular for the payment events.
+ * For fixed periods, it is the fixed rate.
+ * <p>
+ * Instances are created by {@link SwapCashFlowProjector}.
+ */
+public final class SwapCashFlowProjection {
+
+  /**
+   * The position of the first row of each swap, with an extra element for the row count.
+   */
+  private final int[] swapOffsets;
+  /**
+   * The leg indices, by row.
+   */
+  private final int[] legIndices;
+  /**
+   * The payment dates, by row.
+   */
+  private final LocalDate[] paymentDates;
+  /**
+   * The currencies, by row.
+   */
+  private final Currency[] currencies;
+  /**
+   * The forecast values, by row.
+   */
+  private final double[] forecastValues;
+  /**
+   * The discount factors, by row.
+   */
+  private final double[] discountFactors;
+  /**
+   * The forward rates, by row.
+   */
+  private final double[] forwardRates;
+  /**
+   * The number of forward rates computed from the curves.
+   */
+  private final int forwardRateEvaluationCount;
+
+  // package-private constructor, the arrays are not copied and must have the row count as length
+  SwapCashFlowProjection(
+      int[] swapOffsets,
+      int[] legIndices,
+      LocalDate[] paymentDates,
+      Currency[] currencies,
+      double[] forecastValues,
+      double[] discountFactors,
+      double[] forwardRates,
+      int forwardRateEvaluationCount) {
+
+    this.swapOffsets = swapOffsets;
+    this.legIndices = legIndices;
+    this.paymentDates = paymentDates;
+    this.currencies = currencies;
+    this.forecastValues = forecastValues;
+    this.discountFactors = discountFactors;
+    this.forwardRates = forwardRates;
+    this.forwardRateEvaluationCount = forwardRateEvaluationCount;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of swaps.
+   *
+   * @return the number of swaps
+   */
+  public int getSwapCount() {
+    return swapOffsets.length - 1;
+  }
+
+  /**
+   * Gets the number of cash flows, which is the number of rows.
+   *
+   * @return the number of cash flows
+   */
+  public int getCashFlowCount() {
+    return forecastValues.length;
+  }
+
+  /**
+   * Gets the number of forward rates computed from the curves.
+   * <p>
+   * Each fixing period of an index is computed once, however many swaps refer to it.
+   *
+   * @return the number of forward rate evaluations
+   */
+  public int getForwardRateEvaluationCount() {
+    return forwardRateEvaluationCount;
+  }
+
+  /**
+   * Gets the first row of a swap.
+   * <p>
+   * The rows of the swap range from this row, inclusive, to the first row of the next swap, exclusive.
+   * The swap index may be equal to the swap count, in which case the row count is returned.
+   *
+   * @param swapIndex  the index of the swap
+   * @return the first row of the swap
+   */
+  public int getFirstRow(int swapIndex) {
+    ArgChecker.inRangeInclusive(swapIndex, 0, getSwapCount(), "swapIndex");
+    return swapOffsets[swapIndex];
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the leg index of a row, which is the position of the leg in the swap.
+   *
+   * @param row  the row
+   * @return the leg index
+   */
+  public int getLegIndex(int row) {
+    return legIndices[checkRow(row)];
+  }
+
+  /**
+   * Gets the payment date of a row.
+   *
+   * @param row  the row
+   * @return the payment date
+   */
+  public LocalDate getPaymentDate(int row) {
+    return paymentDates[checkRow(row)];
+  }
+
+  /**
+   * Gets the currency of a row.
+   *
+   * @param row  the row
+   * @return the currency
+   */
+  public Currency getCurrency(int row) {
+    return currencies[checkRow(row)];
+  }
+
+  /**
+   * Gets the forecast value of a row.
+   *
+   * @param row  the row
+   * @return the forecast value
+   */
+  public double getForecastValue(int row) {
+    return forecastValues[checkRow(row)];
+  }
+
+  /**
+   * Gets the discount factor of a row.
+   *
+   * @param row  the row
+   * @return the discount factor
+   */
+  public double getDiscountFactor(int row) {
+    return discountFactors[checkRow(row)];
+  }
+
+  /**
+   * Gets the forward rate of a row, NaN if not available.
+   *
+   * @param row  the row
+   * @return the forward rate
+   */
+  public double getForwardRate(int row) {
+    return forwardRates[checkRow(row)];
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the leg index column.
+   *
+   * @return the leg indices, by row
+   */
+  public IntArray getLegIndices() {
+    return IntArray.ofUnsafe(legIndices);
+  }
+
+  /**
+   * Gets the payment date column.
+   *
+   * @return the payment dates, by row
+   */
+  public ImmutableList<LocalDate> getPaymentDates() {
+    return ImmutableList.copyOf(paymentDates);
+  }
+
+  /**
+   * Gets the currency column.
+   *
+   * @return the currencies, by row
+   */
+  public ImmutableList<Currency> getCurrencies() {
+    return ImmutableList.copyOf(currencies);
+  }
+
+  /**
+   * Gets the forecast value column.
+   *
+   * @return the forecast values, by row
+   */
+  public DoubleArray getForecastValues() {
+    return DoubleArray.ofUnsafe(forecastValues);
+  }
+
+  /**
+   * Gets the discount factor column.
+   *
+   * @return the discount factors, by row
+   */
+  public DoubleArray getDiscountFactors() {
+    return DoubleArray.ofUnsafe(discountFactors);
+  }
+
+  /**
+   * Gets the forward rate column.
+   *
+   * @return the forward rates, by row
+   */
+  public DoubleArray getForwardRates() {
+    return DoubleArray.ofUnsafe(forwardRates);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the cash flows of a swap.
+   * <p>
+   * This creates the objects representing the cash flows, it is intended for a small number of swaps.
+   *
+   * @param swapIndex  the index of the swap
+   * @return the cash flows
+   */
+  public CashFlows getCashFlows(int swapIndex) {
+    ArgChecker.inRange(swapIndex, 0, getSwapCount(), "swapIndex");
+    ImmutableList.Builder<CashFlow> builder = ImmutableList.builder();
+    for (int row = swapOffsets[swapIndex]; row < swapOffsets[swapIndex + 1]; row++) {
+      builder.add(CashFlow.ofForecastValue(
+          paymentDates[row], currencies[row], forecastValues[row], discountFactors[row]));
+    }
+    return CashFlows.of(builder.build());
+  }
+
+  // checks the row is valid
+  private int checkRow(int row) {
+    return ArgChecker.inRange(row, 0, getCashFlowCount(), "row");
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "SwapCashFlowProjection[" + getSwapCount() + " swaps, " + getCashFlowCount() + " cash flows]";
+  }
+
+}
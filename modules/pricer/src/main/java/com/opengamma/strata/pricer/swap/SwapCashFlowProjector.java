@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.swap;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+import static com.opengamma.strata.pricer.swap.CompiledSwapLeg.FIXED;
+import static com.opengamma.strata.pricer.swap.CompiledSwapLeg.OTHER;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.index.IborIndex;
+import com.opengamma.strata.basics.index.Index;
+import com.opengamma.strata.basics.index.OvernightIndex;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.tuple.Triple;
+import com.opengamma.strata.pricer.DiscountFactors;
+import com.opengamma.strata.pricer.rate.DiscountIborIndexRates;
+import com.opengamma.strata.pricer.rate.DiscountOvernightIndexRates;
+import com.opengamma.strata.pricer.rate.IborIndexRates;
+import com.opengamma.strata.pricer.rate.OvernightIndexRates;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+import com.opengamma.strata.product.swap.ResolvedSwap;
+import com.opengamma.strata.product.swap.SwapPaymentEvent;
+import com.opengamma.strata.product.swap.SwapPaymentPeriod;
+
+/**
+ * Projects the cash flows of many swaps.
+ * <p>
+ * This provides the cash flows of {@link DiscountingSwapProductPricer#cashFlows} for a list of swaps,
+ * stored in the columns of a {@link SwapCashFlowProjection}, without creating objects for each cash flow
+ * and without building explain maps.
+ * <p>
+ * The legs are flattened using {@link CompiledSwapLeg}. The forward rates of the flattened floating periods
+ * are computed from the forward curve discount factors, each distinct fixing period of an index being
+ * computed once for all the swaps. The discount factors of the payment dates of a leg are obtained
+ * in a single call to the discounting curve. The curves are looked up once per currency and index.
+ * <p>
+ * The periods and events that are not flattened, and the floating periods whose rate is already fixed
+ * or partly fixed, are priced using the standard period and event pricers of the {@link DiscountingSwapLegPricer}.
+ */
+public class SwapCashFlowProjector {
+
+  /**
+   * Default implementation.
+   */
+  public static final SwapCashFlowProjector DEFAULT = new SwapCashFlowProjector(DiscountingSwapLegPricer.DEFAULT);
+
+  /**
+   * Pricer for the periods and events that are not flattened.
+   */
+  private final DiscountingSwapLegPricer legPricer;
+
+  /**
+   * Creates an instance.
+   *
+   * @param legPricer  the pricer for the periods and events that are not flattened
+   */
+  public SwapCashFlowProjector(DiscountingSwapLegPricer legPricer) {
+    this.legPricer = ArgChecker.notNull(legPricer, "legPricer");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Projects the cash flows of the swaps.
+   * <p>
+   * The legs of the swaps are compiled before projecting the cash flows.
+   *
+   * @param swaps  the swaps
+   * @param provider  the rates provider
+   * @return the cash flows, in the order of the swaps
+   */
+  public SwapCashFlowProjection cashFlows(List<ResolvedSwap> swaps, RatesProvider provider) {
+    List<List<CompiledSwapLeg>> compiled = swaps.stream()
+        .map(swap -> swap.getLegs().stream().map(CompiledSwapLeg::of).collect(toImmutableList()))
+        .collect(toImmutableList());
+    return compiledCashFlows(compiled, provider);
+  }
+
+  /**
+   * Projects the cash flows of the swaps, from their compiled legs.
+   * <p>
+   * Each element of the list contains the compiled legs of a swap.
+   *
+   * @param swaps  the compiled legs of the swaps
+   * @param provider  the rates provider
+   * @return the cash flows, in the order of the swaps
+   */
+  public SwapCashFlowProjection compiledCashFlows(List<? extends List<CompiledSwapLeg>> swaps, RatesProvider provider) {
+    Projection projection = new Projection(provider);
+    int[] swapOffsets = new int[swaps.size() + 1];
+    for (int k = 0; k < swaps.size(); k++) {
+      swapOffsets[k] = projection.size;
+      List<CompiledSwapLeg> legs = swaps.get(k);
+      for (int j = 0; j < legs.size(); j++) {
+        projection.addLeg(legs.get(j), j);
+      }
+    }
+    swapOffsets[swaps.size()] = projection.size;
+    return projection.build(swapOffsets);
+  }
+
+  //-------------------------------------------------------------------------
+  // the state of a projection, with the curves and forward rates shared by all the swaps
+  private final class Projection {
+
+    private final RatesProvider provider;
+    private final LocalDate valuationDate;
+    private final Map<Currency, DiscountFactors> discountCurves = new HashMap<>();
+    private final Map<Index, Optional<DiscountFactors>> forwardCurves = new HashMap<>();
+    private final Map<Triple<Index, LocalDate, LocalDate>, Double> forwardRates = new HashMap<>();
+    private int size;
+    private int[] legColumn = new int[16];
+    private LocalDate[] dateColumn = new LocalDate[16];
+    private Currency[] currencyColumn = new Currency[16];
+    private double[] amountColumn = new double[16];
+    private double[] dfColumn = new double[16];
+    private double[] rateColumn = new double[16];
+
+    private Projection(RatesProvider provider) {
+      this.provider = provider;
+      this.valuationDate = provider.getValuationDate();
+    }
+
+    // adds the cash flows of the periods and then of the events, as in DiscountingSwapLegPricer
+    private void addLeg(CompiledSwapLeg leg, int legIndex) {
+      Currency currency = leg.getCurrency();
+      DiscountFactors discountFactors = discountCurves.computeIfAbsent(currency, provider::discountFactors);
+      DoubleArray yearFractions = DoubleArray.of(
+          leg.getPaymentDates().length, i -> discountFactors.relativeYearFraction(leg.getPaymentDates()[i]));
+      double[] paymentDfs = discountFactors.discountFactors(yearFractions).toArrayUnsafe();
+      List<Index> indices = leg.getIndices();
+      List<SwapPaymentPeriod> periods = leg.getLeg().getPaymentPeriods();
+      for (int i = 0; i < paymentDfs.length; i++) {
+        if (leg.getPaymentDates()[i].isBefore(valuationDate)) {
+          continue;
+        }
+        int type = leg.getTypes()[i];
+        if (type == OTHER) {
+          SwapPaymentPeriod period = periods.get(i);
+          double forecastValue = legPricer.getPeriodPricer().forecastValue(period, provider);
+          add(legIndex, period.getPaymentDate(), period.getCurrency(), forecastValue, Double.NaN);
+          continue;
+        }
+        double rate;
+        double forecastValue;
+        DiscountFactors forward = type == FIXED ? null : forwardCurve(indices.get(leg.getIndexIds()[i]));
+        if (type == FIXED) {
+          rate = leg.getFixedRates()[i];
+          forecastValue = (rate + leg.getSpreads()[i]) * leg.getAccrualFactors()[i] * leg.getNotionals()[i];
+        } else if (forward != null && leg.getFixingDates()[i].isAfter(valuationDate)) {
+          rate = forwardRate(indices.get(leg.getIndexIds()[i]), forward, leg, i);
+          forecastValue = (rate + leg.getSpreads()[i]) * leg.getAccrualFactors()[i] * leg.getNotionals()[i];
+        } else {
+          // the rate is recovered from the forecast value, the period having no gearing
+          forecastValue = legPricer.getPeriodPricer().forecastValue(periods.get(i), provider);
+          rate = forecastValue / (leg.getAccrualFactors()[i] * leg.getNotionals()[i]) - leg.getSpreads()[i];
+        }
+        addDiscounted(legIndex, leg.getPaymentDates()[i], currency, forecastValue, paymentDfs[i], rate);
+      }
+      for (int i = 0; i < leg.getEventDates().length; i++) {
+        if (!leg.getEventDates()[i].isBefore(valuationDate)) {
+          addDiscounted(
+              legIndex,
+              leg.getEventDates()[i],
+              currency,
+              leg.getEventAmounts()[i],
+              discountFactors.discountFactor(leg.getEventDates()[i]),
+              Double.NaN);
+        }
+      }
+      for (SwapPaymentEvent event : leg.getOtherEvents()) {
+        if (!event.getPaymentDate().isBefore(valuationDate)) {
+          double forecastValue = legPricer.getEventPricer().forecastValue(event, provider);
+          add(legIndex, event.getPaymentDate(), event.getCurrency(), forecastValue, Double.NaN);
+        }
+      }
+    }
+
+    // the forward rate of the fixing period, computed once for all the swaps
+    private double forwardRate(Index index, DiscountFactors forward, CompiledSwapLeg leg, int i) {
+      Triple<Index, LocalDate, LocalDate> key =
+          Triple.of(index, leg.getFixingStartDates()[i], leg.getFixingEndDates()[i]);
+      Double cached = forwardRates.get(key);
+      if (cached != null) {
+        return cached;
+      }
+      // simply compounded forward rate from discount factors
+      double dfStart = forward.discountFactor(leg.getFixingStartDates()[i]);
+      double dfEnd = forward.discountFactor(leg.getFixingEndDates()[i]);
+      double rate = (dfStart / dfEnd - 1d) / leg.getFixingYearFractions()[i];
+      forwardRates.put(key, rate);
+      return rate;
+    }
+
+    // the discount factors of the forward curve, null if the index rates are not based on discount factors
+    private DiscountFactors forwardCurve(Index index) {
+      return forwardCurves.computeIfAbsent(index, this::findForwardCurve).orElse(null);
+    }
+
+    private Optional<DiscountFactors> findForwardCurve(Index index) {
+      if (index instanceof IborIndex) {
+        IborIndexRates rates = provider.iborIndexRates((IborIndex) index);
+        if (rates instanceof DiscountIborIndexRates) {
+          return Optional.of(((DiscountIborIndexRates) rates).getDiscountFactors());
+        }
+      } else if (index instanceof OvernightIndex) {
+        OvernightIndexRates rates = provider.overnightIndexRates((OvernightIndex) index);
+        if (rates instanceof DiscountOvernightIndexRates) {
+          return Optional.of(((DiscountOvernightIndexRates) rates).getDiscountFactors());
+        }
+      }
+      return Optional.empty();
+    }
+
+    // adds a cash flow, looking up the discount factor
+    private void add(int legIndex, LocalDate paymentDate, Currency currency, double forecastValue, double rate) {
+      if (forecastValue != 0d) {
+        DiscountFactors discountFactors = discountCurves.computeIfAbsent(currency, provider::discountFactors);
+        double discountFactor = discountFactors.discountFactor(paymentDate);
+        addDiscounted(legIndex, paymentDate, currency, forecastValue, discountFactor, rate);
+      }
+    }
+
+    // adds a cash flow, zero forecast values being skipped as in DiscountingSwapLegPricer
+    private void addDiscounted(
+        int legIndex,
+        LocalDate paymentDate,
+        Currency currency,
+        double forecastValue,
+        double discountFactor,
+        double rate) {
+
+      if (forecastValue == 0d) {
+        return;
+      }
+      if (size == amountColumn.length) {
+        int capacity = size * 2;
+        legColumn = Arrays.copyOf(legColumn, capacity);
+        dateColumn = Arrays.copyOf(dateColumn, capacity);
+        currencyColumn = Arrays.copyOf(currencyColumn, capacity);
+        amountColumn = Arrays.copyOf(amountColumn, capacity);
+        dfColumn = Arrays.copyOf(dfColumn, capacity);
+        rateColumn = Arrays.copyOf(rateColumn, capacity);
+      }
+      legColumn[size] = legIndex;
+      dateColumn[size] = paymentDate;
+      currencyColumn[size] = currency;
+      amountColumn[size] = forecastValue;
+      dfColumn[size] = discountFactor;
+      rateColumn[size] = rate;
+      size++;
+    }
+
+    private SwapCashFlowProjection build(int[] swapOffsets) {
+      return new SwapCashFlowProjection(
+          swapOffsets,
+          Arrays.copyOf(legColumn, size),
+          Arrays.copyOf(dateColumn, size),
+          Arrays.copyOf(currencyColumn, size),
+          Arrays.copyOf(amountColumn, size),
+          Arrays.copyOf(dfColumn, size),
+          Arrays.copyOf(rateColumn, size),
+          forwardRates.size());
+    }
+  }
+
+}
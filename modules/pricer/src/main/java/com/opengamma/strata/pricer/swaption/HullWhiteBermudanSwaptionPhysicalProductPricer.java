@@ -0,0 +1,554 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.swaption;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.currency.Payment;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.sensitivity.PointSensitivityBuilder;
+import com.opengamma.strata.pricer.DiscountingPaymentPricer;
+import com.opengamma.strata.pricer.impl.rate.model.HullWhiteOneFactorLattice;
+import com.opengamma.strata.pricer.impl.rate.swap.CashFlowEquivalentCalculator;
+import com.opengamma.strata.pricer.model.HullWhiteOneFactorPiecewiseConstantParametersProvider;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+import com.opengamma.strata.product.common.LongShort;
+import com.opengamma.strata.product.common.SettlementType;
+import com.opengamma.strata.product.swap.NotionalExchange;
+import com.opengamma.strata.product.swap.ResolvedSwapLeg;
+import com.opengamma.strata.product.swap.SwapPaymentEvent;
+import com.opengamma.strata.product.swaption.ResolvedSwaption;
+
+/**
+ * Pricer for Bermudan swaptions with physical settlement in Hull-White one factor model
+ * with piecewise constant volatility.
+ * <p>
+ * A Bermudan swaption is represented by the list of its exercises, in increasing order of expiry.
+ * Each exercise is a European swaption with physical settlement whose underlying is the swap entered
+ * if the option is exercised at that expiry. All the exercises must have the same currency and long/short flag.
+ * A European swaption is represented by a list with a single exercise.
+ * The underlying swaps are replaced by their cash flow equivalent, see {@link CashFlowEquivalentCalculator}.
+ * <p>
+ * The swaptions are priced by backward induction on a {@link HullWhiteOneFactorLattice}.
+ * The lattice only depends on the model parameters and on the settings of the pricer, in particular its horizon,
+ * and is shared by all the swaptions priced together. Each swaption is rolled back between its own expiries only,
+ * so that its results do not depend on the other swaptions. The expiries must not be after the horizon.
+ * The swaptions are priced in parallel if the instance is obtained from {@link #parallel()}.
+ * <p>
+ * The sensitivities are the exact derivatives of the lattice present value, computed by adjoint differentiation
+ * of the backward induction. For European swaptions, the results converge to the ones of
+ * {@link HullWhiteSwaptionPhysicalProductPricer} when the number of lattice states increases.
+ * With the default settings, the present values are within {@code 1.0E-5} of the notional and the sensitivities
+ * within {@code 1.0E-3} of their size, for expiries of a few years.
+ * <p>
+ * Reference: Henrard, "M. Bermudan Swaptions in Gaussian HJM One-Factor Model: Analytical and Numerical Approaches".
+ * SSRN, October 2008. Available at SSRN: http://ssrn.com/abstract=1287982
+ */
+public final class HullWhiteBermudanSwaptionPhysicalProductPricer {
+
+  /**
+   * Default implementation.
+   */
+  public static final HullWhiteBermudanSwaptionPhysicalProductPricer DEFAULT =
+      new HullWhiteBermudanSwaptionPhysicalProductPricer(
+          DiscountingPaymentPricer.DEFAULT,
+          HullWhiteOneFactorLattice.DEFAULT_HORIZON,
+          HullWhiteOneFactorLattice.DEFAULT_STATES_PER_SIDE,
+          HullWhiteOneFactorLattice.DEFAULT_STANDARD_DEVIATIONS,
+          false);
+
+  /**
+   * Pricer for {@link Payment}.
+   */
+  private final DiscountingPaymentPricer paymentPricer;
+  /**
+   * The horizon of the lattice, in years.
+   */
+  private final double horizon;
+  /**
+   * The number of lattice states on each side of the central state.
+   */
+  private final int statesPerSide;
+  /**
+   * The number of standard deviations covered by the lattice states.
+   */
+  private final double standardDeviations;
+  /**
+   * Whether the swaptions are priced in parallel.
+   */
+  private final boolean parallel;
+
+  /**
+   * Creates an instance.
+   *
+   * @param paymentPricer  the pricer for {@link Payment}
+   * @param horizon  the horizon of the lattice, in years, not before the expiries of the swaptions
+   * @param statesPerSide  the number of lattice states on each side of the central state
+   * @param standardDeviations  the number of standard deviations covered by the lattice states
+   */
+  public HullWhiteBermudanSwaptionPhysicalProductPricer(
+      DiscountingPaymentPricer paymentPricer,
+      double horizon,
+      int statesPerSide,
+      double standardDeviations) {
+
+    this(paymentPricer, horizon, statesPerSide, standardDeviations, false);
+  }
+
+  // private constructor
+  private HullWhiteBermudanSwaptionPhysicalProductPricer(
+      DiscountingPaymentPricer paymentPricer,
+      double horizon,
+      int statesPerSide,
+      double standardDeviations,
+      boolean parallel) {
+
+    this.paymentPricer = ArgChecker.notNull(paymentPricer, "paymentPricer");
+    this.horizon = ArgChecker.notNegativeOrZero(horizon, "horizon");
+    this.statesPerSide = ArgChecker.notNegativeOrZero(statesPerSide, "statesPerSide");
+    this.standardDeviations = ArgChecker.notNegativeOrZero(standardDeviations, "standardDeviations");
+    this.parallel = parallel;
+  }
+
+  /**
+   * Returns a pricer that prices the swaptions in parallel.
+   * <p>
+   * The lattice is built once, then the swaptions are priced in parallel.
+   * The results are identical to the ones of this pricer.
+   *
+   * @return the parallel pricer
+   */
+  public HullWhiteBermudanSwaptionPhysicalProductPricer parallel() {
+    return new HullWhiteBermudanSwaptionPhysicalProductPricer(
+        paymentPricer, horizon, statesPerSide, standardDeviations, true);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the present value of the Bermudan swaption.
+   * <p>
+   * The result is expressed using the currency of the swaption.
+   *
+   * @param exercises  the exercises of the swaption, in increasing order of expiry
+   * @param ratesProvider  the rates provider
+   * @param hwProvider  the Hull-White model parameter provider
+   * @return the present value
+   */
+  public CurrencyAmount presentValue(
+      List<ResolvedSwaption> exercises,
+      RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+
+    return presentValues(ImmutableList.of(exercises), ratesProvider, hwProvider).get(0);
+  }
+
+  /**
+   * Calculates the present values of a list of Bermudan swaptions.
+   * <p>
+   * Each result is expressed using the currency of the swaption.
+   *
+   * @param swaptions  the swaptions, each represented by its exercises in increasing order of expiry
+   * @param ratesProvider  the rates provider
+   * @param hwProvider  the Hull-White model parameter provider
+   * @return the present value of each swaption
+   */
+  public List<CurrencyAmount> presentValues(
+      List<List<ResolvedSwaption>> swaptions,
+      RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+
+    BermudanData[] data = prepare(swaptions, ratesProvider, hwProvider, false);
+    HullWhiteOneFactorLattice lattice = lattice(hwProvider);
+    CurrencyAmount[] results = new CurrencyAmount[data.length];
+    forEach(data.length, i -> {
+      BermudanData swaption = data[i];
+      double pv = presentValue(swaption, lattice, null, null);
+      results[i] = CurrencyAmount.of(swaption.currency, swaption.sign * pv);
+    });
+    return ImmutableList.copyOf(results);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the present value sensitivity of the Bermudan swaption to the rate curves.
+   *
+   * @param exercises  the exercises of the swaption, in increasing order of expiry
+   * @param ratesProvider  the rates provider
+   * @param hwProvider  the Hull-White model parameter provider
+   * @return the point sensitivity to the rate curves
+   */
+  public PointSensitivityBuilder presentValueSensitivityRates(
+      List<ResolvedSwaption> exercises,
+      RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+
+    return presentValueSensitivitiesRates(ImmutableList.of(exercises), ratesProvider, hwProvider).get(0);
+  }
+
+  /**
+   * Calculates the present value sensitivities of a list of Bermudan swaptions to the rate curves.
+   *
+   * @param swaptions  the swaptions, each represented by its exercises in increasing order of expiry
+   * @param ratesProvider  the rates provider
+   * @param hwProvider  the Hull-White model parameter provider
+   * @return the point sensitivity to the rate curves of each swaption
+   */
+  public List<PointSensitivityBuilder> presentValueSensitivitiesRates(
+      List<List<ResolvedSwaption>> swaptions,
+      RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+
+    BermudanData[] data = prepare(swaptions, ratesProvider, hwProvider, true);
+    HullWhiteOneFactorLattice lattice = lattice(hwProvider);
+    int nParams = hwProvider.getParameters().getVolatility().size();
+    PointSensitivityBuilder[] results = new PointSensitivityBuilder[data.length];
+    forEach(data.length, i -> {
+      BermudanData swaption = data[i];
+      double[][] cashFlowAdjoint = swaption.newCashFlowAdjoint();
+      presentValue(swaption, lattice, cashFlowAdjoint, new double[nParams]);
+      PointSensitivityBuilder point = PointSensitivityBuilder.none();
+      for (int e = 0; e < swaption.expiries.length; ++e) {
+        for (int j = 0; j < swaption.payments[e].length; ++j) {
+          double adjoint = cashFlowAdjoint[e][j];
+          if (adjoint == 0d) {
+            continue;
+          }
+          Payment payment = swaption.payments[e][j];
+          point = point.combinedWith(
+              paymentPricer.presentValueSensitivity(payment, ratesProvider).multipliedBy(adjoint));
+          PointSensitivityBuilder amountSensitivity = swaption.paymentSensitivities[e][j];
+          if (!amountSensitivity.equals(PointSensitivityBuilder.none())) {
+            point = point.combinedWith(amountSensitivity
+                .multipliedBy(adjoint * ratesProvider.discountFactor(payment.getCurrency(), payment.getDate())));
+          }
+        }
+      }
+      results[i] = swaption.sign > 0d ? point : point.multipliedBy(-1d);
+    });
+    return ImmutableList.copyOf(results);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the present value sensitivity of the Bermudan swaption to the piecewise constant volatility
+   * parameters of the Hull-White model.
+   *
+   * @param exercises  the exercises of the swaption, in increasing order of expiry
+   * @param ratesProvider  the rates provider
+   * @param hwProvider  the Hull-White model parameter provider
+   * @return the present value Hull-White model parameter sensitivity of the swaption
+   */
+  public DoubleArray presentValueSensitivityModelParamsHullWhite(
+      List<ResolvedSwaption> exercises,
+      RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+
+    return presentValueSensitivitiesModelParamsHullWhite(ImmutableList.of(exercises), ratesProvider, hwProvider).get(0);
+  }
+
+  /**
+   * Calculates the present value sensitivities of a list of Bermudan swaptions to the piecewise constant
+   * volatility parameters of the Hull-White model.
+   * <p>
+   * The sensitivity of a swaption whose exercises have all expired is empty.
+   *
+   * @param swaptions  the swaptions, each represented by its exercises in increasing order of expiry
+   * @param ratesProvider  the rates provider
+   * @param hwProvider  the Hull-White model parameter provider
+   * @return the present value Hull-White model parameter sensitivity of each swaption
+   */
+  public List<DoubleArray> presentValueSensitivitiesModelParamsHullWhite(
+      List<List<ResolvedSwaption>> swaptions,
+      RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+
+    BermudanData[] data = prepare(swaptions, ratesProvider, hwProvider, false);
+    HullWhiteOneFactorLattice lattice = lattice(hwProvider);
+    int nParams = hwProvider.getParameters().getVolatility().size();
+    DoubleArray[] results = new DoubleArray[data.length];
+    forEach(data.length, i -> {
+      BermudanData swaption = data[i];
+      if (swaption.expiries.length == 0) { // all exercises have expired
+        results[i] = DoubleArray.EMPTY;
+      } else {
+        double[] volatilityAdjoint = new double[nParams];
+        presentValue(swaption, lattice, swaption.newCashFlowAdjoint(), volatilityAdjoint);
+        results[i] = DoubleArray.ofUnsafe(volatilityAdjoint).multipliedBy(swaption.sign);
+      }
+    });
+    return ImmutableList.copyOf(results);
+  }
+
+  //-------------------------------------------------------------------------
+  // extracts the cash flow equivalents of the exercises which have not expired
+  private BermudanData[] prepare(
+      List<List<ResolvedSwaption>> swaptions,
+      RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider,
+      boolean withSensitivity) {
+
+    ArgChecker.notNull(swaptions, "swaptions");
+    ArgChecker.isTrue(hwProvider.getValuationDateTime().toLocalDate().equals(ratesProvider.getValuationDate()),
+        "Hull-White model data and rate data should be for the same date");
+    BermudanData[] data = new BermudanData[swaptions.size()];
+    forEach(data.length, i -> data[i] =
+        new BermudanData(swaptions.get(i), ratesProvider, hwProvider, paymentPricer, withSensitivity));
+    return data;
+  }
+
+  // the lattice shared by all the swaptions
+  private HullWhiteOneFactorLattice lattice(HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+    return HullWhiteOneFactorLattice.of(hwProvider.getParameters(), horizon, statesPerSide, standardDeviations);
+  }
+
+  // present value by backward induction, with the adjoint if the adjoint arrays are not null
+  // the adjoint of the discounted cash flows and of the volatilities are added to the arrays
+  private double presentValue(
+      BermudanData swaption,
+      HullWhiteOneFactorLattice lattice,
+      double[][] cashFlowAdjoint,
+      double[] volatilityAdjoint) {
+
+    int nExercises = swaption.expiries.length;
+    if (nExercises == 0) {
+      return 0d;
+    }
+    // an exercise on the valuation date is compared to the continuation value at the end
+    int firstExercise = swaption.expiries[0] > 0d ? 0 : 1;
+    double pv = 0d;
+    double continuationAdjoint = 1d;
+    double intrinsic = 0d;
+    if (firstExercise == 1) {
+      for (double cashFlow : swaption.discountedCashFlows[0]) {
+        intrinsic += cashFlow;
+      }
+    }
+    if (firstExercise < nExercises) {
+      double[] expiries = swaption.expiries;
+      double[] states = lattice.getStates().toArrayUnsafe();
+      int nStates = states.length;
+      int last = nExercises - 1;
+      double[][] values = new double[nExercises][];
+      double[][] continuations = new double[nExercises][];
+      double[][] exerciseValues = new double[nExercises][];
+      for (int e = last; e >= firstExercise; --e) {
+        continuations[e] = e == last ?
+            new double[nStates] :
+            lattice.rollback(expiries[e], expiries[e + 1], values[e + 1]);
+        exerciseValues[e] = exerciseValue(swaption, e, lattice, states);
+        values[e] = lattice.maximum(exerciseValues[e], continuations[e]);
+      }
+      pv = lattice.expectation(expiries[firstExercise], values[firstExercise]);
+      if (firstExercise == 1 && intrinsic > pv) {
+        continuationAdjoint = 0d;
+      }
+      if (cashFlowAdjoint != null && continuationAdjoint != 0d) {
+        // adjoint of the backward induction
+        double[] valuesAdjoint = lattice.expectationAdjoint(
+            expiries[firstExercise], values[firstExercise], continuationAdjoint, volatilityAdjoint);
+        for (int e = firstExercise; e <= last; ++e) {
+          double[] exerciseAdjoint = new double[nStates];
+          double[] continuationsAdjoint = new double[nStates];
+          lattice.maximumAdjoint(
+              exerciseValues[e], continuations[e], valuesAdjoint, exerciseAdjoint, continuationsAdjoint);
+          exerciseValueAdjoint(swaption, e, lattice, states, exerciseAdjoint, cashFlowAdjoint, volatilityAdjoint);
+          if (e < last) {
+            valuesAdjoint = lattice.rollbackAdjoint(
+                expiries[e], expiries[e + 1], values[e + 1], continuationsAdjoint, volatilityAdjoint);
+          }
+        }
+      }
+    }
+    if (firstExercise == 1 && intrinsic > pv) {
+      if (cashFlowAdjoint != null) {
+        Arrays.fill(cashFlowAdjoint[0], 1d);
+      }
+      return intrinsic;
+    }
+    return pv;
+  }
+
+  // the deflated value of the underlying swap of an exercise at each state
+  private static double[] exerciseValue(
+      BermudanData swaption,
+      int exerciseIndex,
+      HullWhiteOneFactorLattice lattice,
+      double[] states) {
+
+    double variance = lattice.variance(swaption.expiries[exerciseIndex]);
+    double[] maturities = swaption.maturities[exerciseIndex];
+    double[] cashFlows = swaption.discountedCashFlows[exerciseIndex];
+    double[] result = new double[states.length];
+    for (int j = 0; j < maturities.length; ++j) {
+      double h = lattice.h(maturities[j]);
+      double convexity = -0.5 * h * h * variance;
+      for (int k = 0; k < states.length; ++k) {
+        result[k] += cashFlows[j] * Math.exp(-h * states[k] + convexity);
+      }
+    }
+    return result;
+  }
+
+  // the adjoint of the exercise value, with respect to the cash flows, the variance and the states
+  private static void exerciseValueAdjoint(
+      BermudanData swaption,
+      int exerciseIndex,
+      HullWhiteOneFactorLattice lattice,
+      double[] states,
+      double[] exerciseAdjoint,
+      double[][] cashFlowAdjoint,
+      double[] volatilityAdjoint) {
+
+    double expiry = swaption.expiries[exerciseIndex];
+    double variance = lattice.variance(expiry);
+    double[] maturities = swaption.maturities[exerciseIndex];
+    double[] cashFlows = swaption.discountedCashFlows[exerciseIndex];
+    double[] statesAdjoint = new double[states.length];
+    double varianceAdjoint = 0d;
+    for (int j = 0; j < maturities.length; ++j) {
+      double h = lattice.h(maturities[j]);
+      double convexity = -0.5 * h * h * variance;
+      double adjoint = 0d;
+      for (int k = 0; k < states.length; ++k) {
+        if (exerciseAdjoint[k] != 0d) {
+          double bondAdjoint = exerciseAdjoint[k] * Math.exp(-h * states[k] + convexity);
+          adjoint += bondAdjoint;
+          statesAdjoint[k] -= h * cashFlows[j] * bondAdjoint;
+        }
+      }
+      cashFlowAdjoint[exerciseIndex][j] += adjoint;
+      varianceAdjoint += -0.5 * h * h * cashFlows[j] * adjoint;
+    }
+    lattice.varianceAdjoint(expiry, varianceAdjoint, volatilityAdjoint);
+    lattice.statesAdjoint(statesAdjoint, volatilityAdjoint);
+  }
+
+  // runs the task for each index, in parallel if required
+  private void forEach(int size, IntConsumer task) {
+    IntStream indices = IntStream.range(0, size);
+    if (parallel) {
+      indices = indices.parallel();
+    }
+    indices.forEach(task);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The cash flow equivalents of the exercises of a swaption.
+   */
+  private static final class BermudanData {
+    /**
+     * The currency.
+     */
+    private final Currency currency;
+    /**
+     * The sign of the long/short flag.
+     */
+    private final double sign;
+    /**
+     * The expiry time of each exercise which has not expired.
+     */
+    private final double[] expiries;
+    /**
+     * The cash flow equivalent of the underlying swap of each exercise.
+     */
+    private final Payment[][] payments;
+    /**
+     * The sensitivity of the cash flow equivalent amounts, null if not required.
+     */
+    private final PointSensitivityBuilder[][] paymentSensitivities;
+    /**
+     * The payment time of the cash flow equivalents.
+     */
+    private final double[][] maturities;
+    /**
+     * The discounted cash flow equivalents.
+     */
+    private final double[][] discountedCashFlows;
+
+    private BermudanData(
+        List<ResolvedSwaption> exercises,
+        RatesProvider ratesProvider,
+        HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider,
+        DiscountingPaymentPricer paymentPricer,
+        boolean withSensitivity) {
+
+      ArgChecker.notEmpty(exercises, "exercises");
+      ResolvedSwaption first = exercises.get(0);
+      this.currency = first.getCurrency();
+      LongShort longShort = first.getLongShort();
+      this.sign = longShort.isLong() ? 1d : -1d;
+      LocalDate valuationDate = ratesProvider.getValuationDate();
+      LocalDate previousExpiry = null;
+      int firstAlive = exercises.size();
+      for (int e = 0; e < exercises.size(); ++e) {
+        ResolvedSwaption exercise = exercises.get(e);
+        ArgChecker.isFalse(exercise.getUnderlying().isCrossCurrency(), "underlying swap should be single currency");
+        ArgChecker.isTrue(exercise.getSwaptionSettlement().getSettlementType().equals(SettlementType.PHYSICAL),
+            "swaption should be physical settlement");
+        ArgChecker.isTrue(exercise.getCurrency().equals(currency), "exercises should have the same currency");
+        ArgChecker.isTrue(exercise.getLongShort().equals(longShort), "exercises should have the same long/short flag");
+        ArgChecker.isTrue(previousExpiry == null || exercise.getExpiryDate().isAfter(previousExpiry),
+            "exercises should be in increasing order of expiry");
+        previousExpiry = exercise.getExpiryDate();
+        if (firstAlive == exercises.size() && !exercise.getExpiryDate().isBefore(valuationDate)) {
+          firstAlive = e;
+        }
+      }
+      int nExercises = exercises.size() - firstAlive;
+      this.expiries = new double[nExercises];
+      this.payments = new Payment[nExercises][];
+      this.paymentSensitivities = withSensitivity ? new PointSensitivityBuilder[nExercises][] : null;
+      this.maturities = new double[nExercises][];
+      this.discountedCashFlows = new double[nExercises][];
+      for (int e = 0; e < nExercises; ++e) {
+        ResolvedSwaption exercise = exercises.get(firstAlive + e);
+        expiries[e] = hwProvider.relativeTime(exercise.getExpiryDate());
+        if (withSensitivity) {
+          ImmutableMap<Payment, PointSensitivityBuilder> cashFlowEquivSensi = CashFlowEquivalentCalculator
+              .cashFlowEquivalentAndSensitivitySwap(exercise.getUnderlying(), ratesProvider);
+          payments[e] = cashFlowEquivSensi.keySet().toArray(new Payment[0]);
+          paymentSensitivities[e] = cashFlowEquivSensi.values().toArray(new PointSensitivityBuilder[0]);
+        } else {
+          ResolvedSwapLeg cashFlowEquiv =
+              CashFlowEquivalentCalculator.cashFlowEquivalentSwap(exercise.getUnderlying(), ratesProvider);
+          List<SwapPaymentEvent> events = cashFlowEquiv.getPaymentEvents();
+          payments[e] = new Payment[events.size()];
+          for (int j = 0; j < events.size(); ++j) {
+            payments[e][j] = ((NotionalExchange) events.get(j)).getPayment();
+          }
+        }
+        int nPayments = payments[e].length;
+        maturities[e] = new double[nPayments];
+        discountedCashFlows[e] = new double[nPayments];
+        for (int j = 0; j < nPayments; ++j) {
+          Payment payment = payments[e][j];
+          maturities[e][j] = hwProvider.relativeTime(payment.getDate());
+          discountedCashFlows[e][j] = paymentPricer.presentValueAmount(payment, ratesProvider);
+        }
+      }
+    }
+
+    // the adjoint array of the discounted cash flows
+    private double[][] newCashFlowAdjoint() {
+      double[][] adjoint = new double[discountedCashFlows.length][];
+      for (int e = 0; e < adjoint.length; ++e) {
+        adjoint[e] = new double[discountedCashFlows[e].length];
+      }
+      return adjoint;
+    }
+  }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.swaption;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import com.opengamma.strata.basics.date.DayCount;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.math.impl.rootfinding.BracketRoot;
+import com.opengamma.strata.math.impl.rootfinding.BrentSingleRootFinder;
+import com.opengamma.strata.math.impl.rootfinding.RealSingleRootFinder;
+import com.opengamma.strata.math.impl.statistics.distribution.NormalDistribution;
+import com.opengamma.strata.math.impl.statistics.distribution.ProbabilityDistribution;
+import com.opengamma.strata.pricer.DiscountingPaymentPricer;
+import com.opengamma.strata.pricer.impl.rate.model.HullWhiteOneFactorPiecewiseConstantInterestRateModel;
+import com.opengamma.strata.pricer.impl.rate.swap.CashFlowEquivalentCalculator;
+import com.opengamma.strata.pricer.model.HullWhiteOneFactorPiecewiseConstantParameters;
+import com.opengamma.strata.pricer.model.HullWhiteOneFactorPiecewiseConstantParametersProvider;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+import com.opengamma.strata.product.common.SettlementType;
+import com.opengamma.strata.product.swap.NotionalExchange;
+import com.opengamma.strata.product.swap.ResolvedSwap;
+import com.opengamma.strata.product.swap.ResolvedSwapLeg;
+import com.opengamma.strata.product.swap.SwapLegType;
+import com.opengamma.strata.product.swaption.ResolvedSwaption;
+
+/**
+ * Calibrates the piecewise constant volatilities of the Hull-White one factor model to swaptions.
+ * <p>
+ * The swaptions are European swaptions with physical settlement, typically a co-terminal strip,
+ * and are priced with {@link HullWhiteSwaptionPhysicalProductPricer}.
+ * The volatility is constant between two consecutive expiries, and the mean reversion is fixed.
+ * <p>
+ * The present value of a European swaption only depends on the volatilities through the variance of the
+ * model factor at its expiry, {@code V(t) = int_0^t sigma(s)^2 exp(2 a s) ds}.
+ * The variance at each expiry is thus solved independently from its swaption price,
+ * and the volatilities are then obtained from the variance increments between the expiries.
+ * The mean reversion may be zero, in which case {@code V(t) = int_0^t sigma(s)^2 ds}.
+ * The swaptions are solved in parallel if the instance is obtained from {@link #parallel()}.
+ */
+public final class HullWhiteSwaptionPhysicalCalibrator {
+
+  /**
+   * Normal distribution function.
+   */
+  private static final ProbabilityDistribution<Double> NORMAL = new NormalDistribution(0, 1);
+  /**
+   * The root finder.
+   */
+  private static final RealSingleRootFinder ROOT_FINDER = new BrentSingleRootFinder(1.0E-12);
+  /**
+   * Brackets a root.
+   */
+  private static final BracketRoot ROOT_BRACKETER = new BracketRoot();
+  /**
+   * The Hull-White model.
+   */
+  private static final HullWhiteOneFactorPiecewiseConstantInterestRateModel MODEL =
+      HullWhiteOneFactorPiecewiseConstantInterestRateModel.DEFAULT;
+  /**
+   * The minimum standard deviation of the model factor.
+   */
+  private static final double MIN_DEVIATION = 1.0E-4;
+  /**
+   * The maximum standard deviation of the model factor.
+   */
+  private static final double MAX_DEVIATION = 1d;
+
+  /**
+   * Default implementation.
+   */
+  public static final HullWhiteSwaptionPhysicalCalibrator DEFAULT =
+      new HullWhiteSwaptionPhysicalCalibrator(DiscountingPaymentPricer.DEFAULT);
+
+  /**
+   * Pricer for payments.
+   */
+  private final DiscountingPaymentPricer paymentPricer;
+  /**
+   * Whether the swaptions are solved in parallel.
+   */
+  private final boolean parallel;
+
+  /**
+   * Creates an instance.
+   *
+   * @param paymentPricer  the pricer for payments
+   */
+  public HullWhiteSwaptionPhysicalCalibrator(DiscountingPaymentPricer paymentPricer) {
+    this(paymentPricer, false);
+  }
+
+  // private constructor
+  private HullWhiteSwaptionPhysicalCalibrator(DiscountingPaymentPricer paymentPricer, boolean parallel) {
+    this.paymentPricer = ArgChecker.notNull(paymentPricer, "paymentPricer");
+    this.parallel = parallel;
+  }
+
+  /**
+   * Returns a calibrator that solves the swaptions in parallel.
+   * <p>
+   * The results are identical to the ones of this calibrator.
+   *
+   * @return the parallel calibrator
+   */
+  public HullWhiteSwaptionPhysicalCalibrator parallel() {
+    return new HullWhiteSwaptionPhysicalCalibrator(paymentPricer, true);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calibrates the volatilities to the present values of the swaptions.
+   * <p>
+   * The swaptions must be in increasing order of expiry, all expiries being after the valuation date.
+   * The present values are signed, i.e., negative for short swaptions.
+   * The volatility between the expiries {@code t(i-1)} and {@code t(i)} is calibrated to the i-th swaption,
+   * with {@code t(-1) = 0}. The last volatility applies to all the times after the last but one expiry.
+   *
+   * @param swaptions  the swaptions
+   * @param presentValues  the present value of each swaption
+   * @param ratesProvider  the rates provider
+   * @param meanReversion  the mean reversion of the model
+   * @param dayCount  the day count used to compute the times
+   * @param valuationDateTime  the valuation date-time
+   * @return the calibrated model parameters
+   * @throws IllegalArgumentException if the calibrated variances are not increasing
+   */
+  public HullWhiteOneFactorPiecewiseConstantParametersProvider calibrate(
+      List<ResolvedSwaption> swaptions,
+      DoubleArray presentValues,
+      RatesProvider ratesProvider,
+      double meanReversion,
+      DayCount dayCount,
+      ZonedDateTime valuationDateTime) {
+
+    ArgChecker.notEmpty(swaptions, "swaptions");
+    ArgChecker.isTrue(swaptions.size() == presentValues.size(), "one present value is required for each swaption");
+    ArgChecker.isTrue(valuationDateTime.toLocalDate().equals(ratesProvider.getValuationDate()),
+        "Hull-White model data and rate data should be for the same date");
+    int nSwaptions = swaptions.size();
+    LocalDate valuationDate = ratesProvider.getValuationDate();
+    double[] expiries = new double[nSwaptions];
+    for (int i = 0; i < nSwaptions; ++i) {
+      ResolvedSwaption swaption = swaptions.get(i);
+      ArgChecker.isFalse(swaption.getUnderlying().isCrossCurrency(), "underlying swap should be single currency");
+      ArgChecker.isTrue(swaption.getSwaptionSettlement().getSettlementType().equals(SettlementType.PHYSICAL),
+          "swaption should be physical settlement");
+      ArgChecker.isTrue(swaption.getExpiryDate().isAfter(valuationDate), "swaption should not expire before valuation");
+      expiries[i] = dayCount.yearFraction(valuationDate, swaption.getExpiryDate());
+      ArgChecker.isTrue(i == 0 || expiries[i] > expiries[i - 1], "swaptions should be in increasing order of expiry");
+    }
+    // variance at each expiry
+    double[] variances = new double[nSwaptions];
+    IntStream indices = IntStream.range(0, nSwaptions);
+    if (parallel) {
+      indices = indices.parallel();
+    }
+    indices.forEach(i -> {
+      ResolvedSwaption swaption = swaptions.get(i);
+      double deviation = deviation(
+          swaption.getUnderlying(),
+          expiries[i],
+          presentValues.get(i) * (swaption.getLongShort().isLong() ? 1d : -1d),
+          ratesProvider,
+          meanReversion,
+          dayCount);
+      variances[i] = deviation * deviation;
+    });
+    // volatilities from the variance increments
+    double[] volatilities = new double[nSwaptions];
+    for (int i = 0; i < nSwaptions; ++i) {
+      double start = i == 0 ? 0d : expiries[i - 1];
+      double incrementVariance = variances[i] - (i == 0 ? 0d : variances[i - 1]);
+      ArgChecker.isTrue(incrementVariance > 0d,
+          "calibrated variance should be increasing, but decreases at expiry {}", swaptions.get(i).getExpiryDate());
+      double length = expiries[i] - start;
+      double integral = Math.exp(2d * meanReversion * start) * length * expm1OverX(2d * meanReversion * length);
+      volatilities[i] = Math.sqrt(incrementVariance / integral);
+    }
+    HullWhiteOneFactorPiecewiseConstantParameters parameters = HullWhiteOneFactorPiecewiseConstantParameters.of(
+        meanReversion, DoubleArray.ofUnsafe(volatilities), DoubleArray.copyOf(expiries, 0, nSwaptions - 1));
+    return HullWhiteOneFactorPiecewiseConstantParametersProvider.of(parameters, dayCount, valuationDateTime);
+  }
+
+  // the standard deviation of the model factor at expiry matching the price
+  private double deviation(
+      ResolvedSwap swap,
+      double expiry,
+      double price,
+      RatesProvider ratesProvider,
+      double meanReversion,
+      DayCount dayCount) {
+
+    LocalDate valuationDate = ratesProvider.getValuationDate();
+    ResolvedSwapLeg cashFlowEquiv = CashFlowEquivalentCalculator.cashFlowEquivalentSwap(swap, ratesProvider);
+    int nPayments = cashFlowEquiv.getPaymentEvents().size();
+    double[] factors = new double[nPayments];
+    double[] discountedCashFlow = new double[nPayments];
+    double expFactor = Math.exp(-meanReversion * expiry);
+    for (int loopcf = 0; loopcf < nPayments; loopcf++) {
+      NotionalExchange payment = (NotionalExchange) cashFlowEquiv.getPaymentEvents().get(loopcf);
+      double maturity = dayCount.yearFraction(valuationDate, payment.getPaymentDate());
+      double length = maturity - expiry;
+      factors[loopcf] = expFactor * length * expm1OverX(-meanReversion * length);
+      discountedCashFlow[loopcf] = paymentPricer.presentValueAmount(payment.getPayment(), ratesProvider);
+    }
+    double omega = (swap.getLegs(SwapLegType.FIXED).get(0).getPayReceive().isPay() ? -1d : 1d);
+    DoubleArray dcf = DoubleArray.ofUnsafe(discountedCashFlow);
+    // alpha is proportional to the standard deviation of the model factor
+    Function<Double, Double> priceError = deviation -> {
+      DoubleArray alpha = DoubleArray.of(nPayments, j -> deviation * factors[j]);
+      double kappa = MODEL.kappa(dcf, alpha);
+      double pv = 0d;
+      for (int loopcf = 0; loopcf < nPayments; loopcf++) {
+        pv += discountedCashFlow[loopcf] * NORMAL.getCDF(omega * (kappa + alpha.get(loopcf)));
+      }
+      return pv - price;
+    };
+    double[] range = ROOT_BRACKETER.getBracketedPoints(priceError, 0.005, 0.02, MIN_DEVIATION, MAX_DEVIATION);
+    return ROOT_FINDER.getRoot(priceError, range[0], range[1]);
+  }
+
+  // (exp(x) - 1) / x, with its limit 1 at zero, accurate for small x
+  private static double expm1OverX(double x) {
+    return x == 0d ? 1d : Math.expm1(x) / x;
+  }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer;
+
+import static com.opengamma.strata.basics.currency.Currency.GBP;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.basics.date.DayCounts.ACT_365F;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.CurrencyAmountArray;
+import com.opengamma.strata.basics.currency.Payment;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.curve.CurveMetadata;
+import com.opengamma.strata.market.curve.CurveName;
+import com.opengamma.strata.market.curve.Curves;
+import com.opengamma.strata.market.curve.InterpolatedNodalCurve;
+import com.opengamma.strata.market.curve.interpolator.CurveExtrapolator;
+import com.opengamma.strata.market.curve.interpolator.CurveExtrapolators;
+import com.opengamma.strata.market.curve.interpolator.CurveInterpolator;
+import com.opengamma.strata.market.curve.interpolator.CurveInterpolators;
+
+/**
+ * Test {@link ScenarioDiscountFactors}.
+ */
+@Test
+public class ScenarioDiscountFactorsTest {
+
+  private static final LocalDate DATE_VAL = date(2015, 6, 4);
+  private static final CurveMetadata METADATA = Curves.zeroRates(CurveName.of("TestCurve"), ACT_365F);
+  private static final DoubleArray TIMES = DoubleArray.of(0.25, 1, 2, 5, 10);
+  private static final DoubleArray RATES = DoubleArray.of(0.010, 0.012, 0.015, 0.020, 0.025);
+  private static final List<LocalDate> DATES = ImmutableList.of(
+      date(2015, 5, 20), date(2015, 6, 4), date(2015, 6, 20), date(2016, 1, 15), date(2018, 3, 1), date(2027, 12, 31));
+  private static final double TOL = 1e-14;
+
+  private static final List<DiscountFactors> SCENARIOS = ImmutableList.of(
+      discountFactors(RATES, CurveInterpolators.LINEAR),
+      discountFactors(RATES.plus(0.001), CurveInterpolators.LINEAR),
+      discountFactors(RATES.with(2, 0.018), CurveInterpolators.LINEAR));
+
+  private static DiscountFactors discountFactors(DoubleArray rates, CurveInterpolator interpolator) {
+    return discountFactors(rates, interpolator, CurveExtrapolators.FLAT);
+  }
+
+  private static DiscountFactors discountFactors(
+      DoubleArray rates,
+      CurveInterpolator interpolator,
+      CurveExtrapolator extrapolator) {
+
+    InterpolatedNodalCurve curve = InterpolatedNodalCurve.of(
+        METADATA, TIMES, rates, interpolator, CurveExtrapolators.FLAT, extrapolator);
+    return ZeroRateDiscountFactors.of(GBP, DATE_VAL, curve);
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_of() {
+    ScenarioDiscountFactors test = ScenarioDiscountFactors.of(SCENARIOS);
+    assertEquals(test.getCurrency(), GBP);
+    assertEquals(test.getScenarioCount(), 3);
+    assertEquals(test.getDiscountFactors(1), SCENARIOS.get(1));
+    assertTrue(test.isSharedYearFraction());
+    assertTrue(test.toString().contains("sharedYearFraction=true"));
+    assertThrowsIllegalArg(() -> test.getDiscountFactors(3));
+  }
+
+  public void test_of_invalid() {
+    assertThrowsIllegalArg(() -> ScenarioDiscountFactors.of(ImmutableList.of()));
+    DiscountFactors usd = DiscountFactors.of(USD, DATE_VAL, InterpolatedNodalCurve.of(
+        METADATA, TIMES, RATES, CurveInterpolators.LINEAR));
+    assertThrowsIllegalArg(() -> ScenarioDiscountFactors.of(ImmutableList.of(SCENARIOS.get(0), usd)));
+  }
+
+  public void test_discountFactors_shared() {
+    ScenarioDiscountFactors test = ScenarioDiscountFactors.of(SCENARIOS);
+    for (LocalDate date : DATES) {
+      DoubleArray dfs = test.discountFactors(date);
+      for (int i = 0; i < SCENARIOS.size(); i++) {
+        assertEquals(dfs.get(i), SCENARIOS.get(i).discountFactor(date), TOL);
+      }
+    }
+  }
+
+  public void test_discountFactors_notShared() {
+    List<DiscountFactors> scenarios = ImmutableList.of(
+        SCENARIOS.get(0),
+        discountFactors(RATES, CurveInterpolators.LOG_LINEAR),
+        discountFactors(RATES, CurveInterpolators.LINEAR, CurveExtrapolators.LINEAR),
+        DiscountFactors.of(GBP, DATE_VAL.plusDays(1), ((ZeroRateDiscountFactors) SCENARIOS.get(1)).getCurve()));
+    ScenarioDiscountFactors test = ScenarioDiscountFactors.of(scenarios);
+    assertFalse(test.isSharedYearFraction());
+    for (LocalDate date : DATES) {
+      DoubleArray dfs = test.discountFactors(date);
+      for (int i = 0; i < scenarios.size(); i++) {
+        assertEquals(dfs.get(i), scenarios.get(i).discountFactor(date), TOL);
+      }
+    }
+  }
+
+  public void test_discountFactors_otherInterpolators() {
+    List<DiscountFactors> scenarios = ImmutableList.of(
+        discountFactors(RATES, CurveInterpolators.NATURAL_CUBIC_SPLINE),
+        discountFactors(RATES.plus(0.001), CurveInterpolators.LOG_LINEAR, CurveExtrapolators.LINEAR),
+        SimpleDiscountFactors.of(GBP, DATE_VAL, InterpolatedNodalCurve.of(
+            Curves.discountFactors(CurveName.of("Simple"), ACT_365F), TIMES, RATES.map(r -> 1d - r),
+            CurveInterpolators.LINEAR)));
+    ScenarioDiscountFactors test = ScenarioDiscountFactors.of(scenarios);
+    assertTrue(test.isSharedYearFraction());
+    for (LocalDate date : DATES) {
+      DoubleArray dfs = test.discountFactors(date);
+      for (int i = 0; i < scenarios.size(); i++) {
+        assertEquals(dfs.get(i), scenarios.get(i).discountFactor(date), TOL);
+      }
+    }
+  }
+
+  public void test_presentValue() {
+    List<Payment> payments = ImmutableList.of(
+        Payment.of(GBP, 100, DATE_VAL.minusDays(1)),
+        Payment.of(GBP, 5000, DATES.get(5)),
+        Payment.of(GBP, 1000, DATES.get(2)),
+        Payment.of(GBP, -250, DATES.get(4)));
+    assertPresentValue(SCENARIOS, payments);
+    assertPresentValue(ImmutableList.of(
+        SCENARIOS.get(0),
+        discountFactors(RATES, CurveInterpolators.LOG_LINEAR),
+        DiscountFactors.of(GBP, DATES.get(2), ((ZeroRateDiscountFactors) SCENARIOS.get(1)).getCurve())), payments);
+    assertPresentValue(SCENARIOS, ImmutableList.of());
+    ScenarioDiscountFactors test = ScenarioDiscountFactors.of(SCENARIOS);
+    assertThrowsIllegalArg(() -> test.presentValue(ImmutableList.of(Payment.of(USD, 1, DATES.get(1)))));
+  }
+
+  private static void assertPresentValue(List<DiscountFactors> scenarios, List<Payment> payments) {
+    DiscountingPaymentPricer pricer = DiscountingPaymentPricer.DEFAULT;
+    CurrencyAmountArray pv = ScenarioDiscountFactors.of(scenarios).presentValue(payments);
+    assertEquals(pv.getCurrency(), GBP);
+    for (int i = 0; i < scenarios.size(); i++) {
+      double expected = 0d;
+      for (Payment payment : payments) {
+        expected += pricer.presentValue(payment, scenarios.get(i)).getAmount();
+      }
+      assertEquals(pv.get(i).getAmount(), expected, 1e-10);
+    }
+  }
+
+}
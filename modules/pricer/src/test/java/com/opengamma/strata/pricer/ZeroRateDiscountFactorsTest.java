@@ -15,12 +15,15 @@ import static com.opengamma.strata.collect.TestHelper.date;
 import static com.opengamma.strata.pricer.CompoundedRateType.CONTINUOUS;
 import static com.opengamma.strata.pricer.CompoundedRateType.PERIODIC;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.market.ValueType;
 import com.opengamma.strata.market.curve.CurveMetadata;
@@ -243,6 +246,30 @@ public class ZeroRateDiscountFactorsTest {
     assertEquals(test.parameterSensitivity(point).size(), 1);
   }
 
+  public void test_parameterSensitivity_list() {
+    ZeroRateDiscountFactors test = ZeroRateDiscountFactors.of(GBP, DATE_VAL, CURVE);
+    List<ZeroRateSensitivity> points = ImmutableList.of(
+        ZeroRateSensitivity.of(GBP, 5d, 2d),
+        ZeroRateSensitivity.of(GBP, 1d, 1d),
+        ZeroRateSensitivity.of(GBP, 12d, 3d),
+        ZeroRateSensitivity.of(GBP, 2d, USD, 4d));
+    CurrencyParameterSensitivities expected = CurrencyParameterSensitivities.empty();
+    for (ZeroRateSensitivity point : points) {
+      expected = expected.combinedWith(test.parameterSensitivity(point));
+    }
+    assertTrue(test.parameterSensitivity(points).equalWithTolerance(expected, TOL));
+    assertEquals(test.parameterSensitivity(ImmutableList.of()), CurrencyParameterSensitivities.empty());
+  }
+
+  public void test_discountFactors() {
+    ZeroRateDiscountFactors test = ZeroRateDiscountFactors.of(GBP, DATE_VAL, CURVE);
+    DoubleArray yearFractions = DoubleArray.of(0d, 0.5d, 3d, 10d, 12d, 1d);
+    DoubleArray computed = test.discountFactors(yearFractions);
+    for (int i = 0; i < yearFractions.size(); i++) {
+      assertEquals(computed.get(i), test.discountFactor(yearFractions.get(i)), TOL);
+    }
+  }
+
   //-------------------------------------------------------------------------
   public void test_createParameterSensitivity() {
     ZeroRateDiscountFactors test = ZeroRateDiscountFactors.of(GBP, DATE_VAL, CURVE);
@@ -124,6 +124,16 @@ public class BlackBondFutureOptionMarginedProductPricerTest {
     assertEquals(computed, expected, TOL);
   }
 
+  public void test_prices_from_basket_analytics() {
+    BondFutureBasketAnalytics basket = BondFutureBasketAnalytics.of(FUTURE_OPTION_PRODUCT.getUnderlyingFuture());
+    List<LegalEntityDiscountingProvider> providers = Arrays.asList(RATE_PROVIDER, RATE_PROVIDER);
+    DoubleArray computed = OPTION_PRICER.prices(FUTURE_OPTION_PRODUCT, basket, providers, Arrays.asList(VOLS, VOLS));
+    double expected = OPTION_PRICER.price(FUTURE_OPTION_PRODUCT, RATE_PROVIDER, VOLS);
+    assertEquals(computed.size(), 2);
+    assertEquals(computed.get(0), expected, TOL);
+    assertEquals(computed.get(1), expected, TOL);
+  }
+
   public void test_price_from_generic_provider() {
     BondFutureVolatilities vols = BlackBondFutureExpiryLogMoneynessVolatilities.of(VAL_DATE_TIME, SURFACE);
     double computed = OPTION_PRICER.price(FUTURE_OPTION_PRODUCT, RATE_PROVIDER, vols);
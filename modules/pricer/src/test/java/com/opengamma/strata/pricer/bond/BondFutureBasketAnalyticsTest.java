@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.bond;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.collect.array.IntArray;
+import com.opengamma.strata.collect.tuple.Pair;
+import com.opengamma.strata.market.curve.LegalEntityGroup;
+import com.opengamma.strata.market.sensitivity.PointSensitivities;
+import com.opengamma.strata.pricer.DiscountFactors;
+import com.opengamma.strata.pricer.datasets.LegalEntityDiscountingProviderDataSets;
+import com.opengamma.strata.product.bond.ResolvedBondFuture;
+import com.opengamma.strata.product.bond.ResolvedFixedCouponBond;
+
+/**
+ * Test {@link BondFutureBasketAnalytics}.
+ */
+@Test
+public class BondFutureBasketAnalyticsTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+
+  private static final ResolvedBondFuture FUTURE_PRODUCT = BondDataSets.FUTURE_PRODUCT_USD.resolve(REF_DATA);
+  private static final ImmutableLegalEntityDiscountingProvider PROVIDER =
+      (ImmutableLegalEntityDiscountingProvider) LegalEntityDiscountingProviderDataSets.ISSUER_REPO_ZERO;
+  private static final List<LegalEntityDiscountingProvider> SCENARIOS = ImmutableList.of(
+      PROVIDER,
+      shiftedIssuer(0.03),
+      shiftedIssuer(-0.01),
+      LegalEntityDiscountingProviderDataSets.ISSUER_REPO_SIMPLE);
+
+  private static final double TOL = 1.0e-12;
+  private static final DiscountingBondFutureProductPricer FUTURE_PRICER = DiscountingBondFutureProductPricer.DEFAULT;
+  private static final DiscountingFixedCouponBondProductPricer BOND_PRICER =
+      DiscountingFixedCouponBondProductPricer.DEFAULT;
+
+  //-------------------------------------------------------------------------
+  public void test_of() {
+    BondFutureBasketAnalytics test = BondFutureBasketAnalytics.of(FUTURE_PRODUCT);
+    assertEquals(test.getFuture(), FUTURE_PRODUCT);
+  }
+
+  public void test_convertedPrices() {
+    BondFutureBasketAnalytics test = BondFutureBasketAnalytics.of(FUTURE_PRODUCT);
+    DoubleMatrix computed = test.convertedPrices(SCENARIOS);
+    LocalDate deliveryDate = FUTURE_PRODUCT.getLastDeliveryDate();
+    assertEquals(computed.rowCount(), SCENARIOS.size());
+    assertEquals(computed.columnCount(), FUTURE_PRODUCT.getDeliveryBasket().size());
+    for (int s = 0; s < SCENARIOS.size(); s++) {
+      for (int i = 0; i < FUTURE_PRODUCT.getDeliveryBasket().size(); i++) {
+        ResolvedFixedCouponBond bond = FUTURE_PRODUCT.getDeliveryBasket().get(i);
+        double dirtyPrice = BOND_PRICER.dirtyPriceFromCurves(bond, SCENARIOS.get(s), deliveryDate);
+        double expected = BOND_PRICER.cleanPriceFromDirtyPrice(bond, deliveryDate, dirtyPrice) /
+            FUTURE_PRODUCT.getConversionFactors().get(i);
+        assertEquals(computed.get(s, i), expected, TOL);
+      }
+    }
+  }
+
+  public void test_prices() {
+    BondFutureBasketAnalytics test = BondFutureBasketAnalytics.of(FUTURE_PRODUCT);
+    DoubleArray computed = test.prices(SCENARIOS);
+    for (int s = 0; s < SCENARIOS.size(); s++) {
+      assertEquals(computed.get(s), FUTURE_PRICER.price(FUTURE_PRODUCT, SCENARIOS.get(s)), TOL);
+    }
+  }
+
+  public void test_cheapestToDeliver() {
+    BondFutureBasketAnalytics test = BondFutureBasketAnalytics.of(FUTURE_PRODUCT);
+    IntArray computed = test.cheapestToDeliver(SCENARIOS);
+    DoubleMatrix convertedPrices = test.convertedPrices(SCENARIOS);
+    for (int s = 0; s < SCENARIOS.size(); s++) {
+      assertEquals(convertedPrices.get(s, computed.get(s)), convertedPrices.row(s).min());
+    }
+  }
+
+  public void test_priceSensitivities() {
+    BondFutureBasketAnalytics test = BondFutureBasketAnalytics.of(FUTURE_PRODUCT);
+    List<PointSensitivities> computed = test.priceSensitivities(SCENARIOS);
+    assertEquals(computed.size(), SCENARIOS.size());
+    for (int s = 0; s < SCENARIOS.size(); s++) {
+      PointSensitivities expected = FUTURE_PRICER.priceSensitivity(FUTURE_PRODUCT, SCENARIOS.get(s));
+      assertTrue(computed.get(s).equalWithTolerance(expected, TOL));
+    }
+  }
+
+  public void test_invalid() {
+    BondFutureBasketAnalytics test = BondFutureBasketAnalytics.of(FUTURE_PRODUCT);
+    assertThrowsIllegalArg(() -> test.prices(ImmutableList.of()));
+  }
+
+  //-------------------------------------------------------------------------
+  // shifts the zero rates of the issuer curves
+  private static LegalEntityDiscountingProvider shiftedIssuer(double shift) {
+    ImmutableMap.Builder<Pair<LegalEntityGroup, Currency>, DiscountFactors> issuerCurves = ImmutableMap.builder();
+    PROVIDER.getIssuerCurves()
+        .forEach((key, curve) -> issuerCurves.put(key, curve.withPerturbation((i, value, meta) -> value + shift)));
+    return PROVIDER.toBuilder().issuerCurves(issuerCurves.build()).build();
+  }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.bond;
+
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.basics.date.DayCounts.ACT_ACT_ICMA;
+import static com.opengamma.strata.basics.date.HolidayCalendarIds.JPTO;
+import static com.opengamma.strata.basics.date.HolidayCalendarIds.SAT_SUN;
+import static com.opengamma.strata.basics.date.HolidayCalendarIds.USNY;
+import static com.opengamma.strata.basics.index.PriceIndices.US_CPI_U;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static com.opengamma.strata.product.bond.CapitalIndexedBondYieldConvention.US_IL_REAL;
+import static com.opengamma.strata.product.swap.PriceIndexCalculationMethod.INTERPOLATED;
+import static org.testng.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.date.BusinessDayAdjustment;
+import com.opengamma.strata.basics.date.BusinessDayConventions;
+import com.opengamma.strata.basics.date.DayCounts;
+import com.opengamma.strata.basics.date.DaysAdjustment;
+import com.opengamma.strata.basics.schedule.Frequency;
+import com.opengamma.strata.basics.schedule.PeriodicSchedule;
+import com.opengamma.strata.basics.schedule.RollConventions;
+import com.opengamma.strata.basics.schedule.StubConvention;
+import com.opengamma.strata.basics.value.ValueSchedule;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
+import com.opengamma.strata.product.LegalEntityId;
+import com.opengamma.strata.product.SecurityId;
+import com.opengamma.strata.product.bond.CapitalIndexedBond;
+import com.opengamma.strata.product.bond.FixedCouponBond;
+import com.opengamma.strata.product.bond.FixedCouponBondYieldConvention;
+import com.opengamma.strata.product.bond.ResolvedCapitalIndexedBond;
+import com.opengamma.strata.product.bond.ResolvedFixedCouponBond;
+import com.opengamma.strata.product.swap.InflationRateCalculation;
+
+/**
+ * Test {@link BondYieldAnalytics}.
+ */
+@Test
+public class BondYieldAnalyticsTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final SecurityId SECURITY_ID = SecurityId.of("OG-Ticker", "GOVT1-BOND1");
+  private static final LegalEntityId ISSUER_ID = LegalEntityId.of("OG-Ticker", "GOVT1");
+
+  private static final ResolvedFixedCouponBond PRODUCT_US = fixedCouponBond(
+      date(2006, 11, 15), 10, Frequency.P6M, 0.04625, Currency.USD, DayCounts.ACT_ACT_ICMA,
+      FixedCouponBondYieldConvention.US_STREET, DaysAdjustment.NONE);
+  private static final ResolvedFixedCouponBond PRODUCT_UK = fixedCouponBond(
+      date(2002, 9, 7), 12, Frequency.P6M, 0.05, Currency.GBP, DayCounts.ACT_ACT_ICMA,
+      FixedCouponBondYieldConvention.GB_BUMP_DMO,
+      DaysAdjustment.ofCalendarDays(-7, BusinessDayAdjustment.of(BusinessDayConventions.PRECEDING, SAT_SUN)));
+  private static final ResolvedFixedCouponBond PRODUCT_GER = fixedCouponBond(
+      date(2002, 9, 7), 12, Frequency.P12M, 0.05, Currency.EUR, DayCounts.ACT_ACT_ICMA,
+      FixedCouponBondYieldConvention.DE_BONDS, DaysAdjustment.NONE);
+  private static final ResolvedFixedCouponBond PRODUCT_JP = fixedCouponBond(
+      date(2015, 9, 20), 10, Frequency.P6M, 0.004, Currency.JPY, DayCounts.NL_365,
+      FixedCouponBondYieldConvention.JP_SIMPLE, DaysAdjustment.NONE);
+  private static final List<ResolvedFixedCouponBond> FIXED_BONDS = ImmutableList.of(
+      PRODUCT_US, PRODUCT_US, PRODUCT_UK, PRODUCT_UK, PRODUCT_GER, PRODUCT_GER, PRODUCT_JP, PRODUCT_JP);
+  private static final List<LocalDate> FIXED_SETTLEMENTS = ImmutableList.of(
+      date(2011, 8, 23), date(2016, 6, 8), date(2011, 9, 5), date(2014, 6, 4),
+      date(2011, 9, 7), date(2014, 6, 6), date(2015, 9, 29), date(2025, 6, 6));
+  private static final DoubleArray FIXED_YIELDS =
+      DoubleArray.of(0.04, 0.04, 0.04, 0.04, 0.04, 0.04, 0.00321, 0.00321);
+
+  private static final InflationRateCalculation RATE_CALC = InflationRateCalculation.builder()
+      .gearing(ValueSchedule.of(0.01))
+      .index(US_CPI_U)
+      .lag(Period.ofMonths(3))
+      .indexCalculationMethod(INTERPOLATED)
+      .firstIndexValue(198.47742)
+      .build();
+  private static final DaysAdjustment SETTLE_OFFSET = DaysAdjustment.ofBusinessDays(2, USNY);
+  private static final PeriodicSchedule SCHEDULE = PeriodicSchedule.of(
+      date(2006, 1, 15), date(2016, 1, 15), Frequency.P6M,
+      BusinessDayAdjustment.of(BusinessDayConventions.FOLLOWING, USNY), StubConvention.NONE, RollConventions.NONE);
+  private static final CapitalIndexedBond BOND_IL = CapitalIndexedBond.builder()
+      .securityId(SECURITY_ID)
+      .notional(10_000_000d)
+      .currency(USD)
+      .dayCount(ACT_ACT_ICMA)
+      .rateCalculation(RATE_CALC)
+      .legalEntityId(ISSUER_ID)
+      .yieldConvention(US_IL_REAL)
+      .settlementDateOffset(SETTLE_OFFSET)
+      .accrualSchedule(SCHEDULE)
+      .build();
+  private static final ResolvedCapitalIndexedBond PRODUCT_IL = BOND_IL.resolve(REF_DATA);
+  private static final ResolvedCapitalIndexedBond PRODUCT_IL_EX_COUPON = BOND_IL.toBuilder()
+      .exCouponPeriod(DaysAdjustment.ofCalendarDays(-5,
+          BusinessDayAdjustment.of(BusinessDayConventions.PRECEDING, USNY)))
+      .build()
+      .resolve(REF_DATA);
+  private static final LocalDate VALUATION_IL = date(2014, 7, 10);
+  private static final LocalDateDoubleTimeSeries TS_IL = CapitalIndexedBondCurveDataSet.getTimeSeries(VALUATION_IL);
+  private static final ImmutableRatesProvider RATES_PROVIDER_IL =
+      CapitalIndexedBondCurveDataSet.getRatesProvider(VALUATION_IL, TS_IL);
+
+  private static final DiscountingFixedCouponBondProductPricer PRICER = DiscountingFixedCouponBondProductPricer.DEFAULT;
+  private static final DiscountingCapitalIndexedBondProductPricer PRICER_IL =
+      DiscountingCapitalIndexedBondProductPricer.DEFAULT;
+  private static final double TOL = 1.0e-12;
+
+  private static ResolvedFixedCouponBond fixedCouponBond(
+      LocalDate start,
+      int years,
+      Frequency frequency,
+      double rate,
+      Currency currency,
+      com.opengamma.strata.basics.date.DayCount dayCount,
+      FixedCouponBondYieldConvention yieldConvention,
+      DaysAdjustment exCoupon) {
+
+    PeriodicSchedule schedule = PeriodicSchedule.of(start, start.plusYears(years), frequency,
+        BusinessDayAdjustment.of(BusinessDayConventions.FOLLOWING, currency.equals(Currency.JPY) ? JPTO : SAT_SUN),
+        StubConvention.SHORT_INITIAL, false);
+    return FixedCouponBond.builder()
+        .securityId(SECURITY_ID)
+        .dayCount(dayCount)
+        .fixedRate(rate)
+        .legalEntityId(ISSUER_ID)
+        .currency(currency)
+        .notional(100)
+        .accrualSchedule(schedule)
+        .settlementDateOffset(DaysAdjustment.ofBusinessDays(3, SAT_SUN))
+        .yieldConvention(yieldConvention)
+        .exCouponPeriod(exCoupon)
+        .build()
+        .resolve(REF_DATA);
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_fixedCoupon() {
+    BondYieldAnalytics test = BondYieldAnalytics.ofFixedCoupon(FIXED_BONDS, FIXED_SETTLEMENTS);
+    assertEquals(test.getBondCount(), FIXED_BONDS.size());
+    DoubleArray prices = test.dirtyPriceFromYield(FIXED_YIELDS);
+    DoubleArray yields = test.yieldFromDirtyPrice(prices);
+    DoubleArray durations = test.modifiedDurationFromYield(FIXED_YIELDS);
+    DoubleArray convexities = test.convexityFromYield(FIXED_YIELDS);
+    for (int i = 0; i < FIXED_BONDS.size(); i++) {
+      ResolvedFixedCouponBond bond = FIXED_BONDS.get(i);
+      LocalDate settlement = FIXED_SETTLEMENTS.get(i);
+      double yield = FIXED_YIELDS.get(i);
+      assertEquals(prices.get(i), PRICER.dirtyPriceFromYield(bond, settlement, yield), TOL);
+      assertEquals(yields.get(i), yield, TOL);
+      assertEquals(durations.get(i), PRICER.modifiedDurationFromYield(bond, settlement, yield), TOL);
+      assertEquals(convexities.get(i), PRICER.convexityFromYield(bond, settlement, yield), TOL);
+    }
+  }
+
+  public void test_fixedCoupon_yieldFromDirtyPrice() {
+    BondYieldAnalytics test = BondYieldAnalytics.ofFixedCoupon(FIXED_BONDS, FIXED_SETTLEMENTS);
+    DoubleArray prices = DoubleArray.of(1.04, 1.01, 1.09, 1.03, 1.08, 1.02, 1.005, 1.001);
+    DoubleArray yields = test.yieldFromDirtyPrice(prices);
+    for (int i = 0; i < FIXED_BONDS.size(); i++) {
+      double expected = PRICER.yieldFromDirtyPrice(FIXED_BONDS.get(i), FIXED_SETTLEMENTS.get(i), prices.get(i));
+      assertEquals(yields.get(i), expected, 1.0e-10);
+    }
+  }
+
+  public void test_capitalIndexed() {
+    List<ResolvedCapitalIndexedBond> bonds = ImmutableList.of(PRODUCT_IL, PRODUCT_IL_EX_COUPON);
+    LocalDate settlement = SETTLE_OFFSET.adjust(VALUATION_IL, REF_DATA);
+    List<LocalDate> settlements = ImmutableList.of(settlement, settlement);
+    DoubleArray yieldsInput = DoubleArray.of(0.0175, -0.005);
+    BondYieldAnalytics test = BondYieldAnalytics.ofCapitalIndexed(bonds, settlements);
+    DoubleArray prices = test.dirtyPriceFromYield(yieldsInput);
+    DoubleArray yields = test.yieldFromDirtyPrice(prices);
+    DoubleArray durations = test.modifiedDurationFromYield(yieldsInput);
+    DoubleArray convexities = test.convexityFromYield(yieldsInput);
+    for (int i = 0; i < bonds.size(); i++) {
+      ResolvedCapitalIndexedBond bond = bonds.get(i);
+      double yield = yieldsInput.get(i);
+      assertEquals(
+          prices.get(i), PRICER_IL.dirtyPriceFromStandardYield(bond, RATES_PROVIDER_IL, settlement, yield), TOL);
+      assertEquals(yields.get(i), yield, TOL);
+      assertEquals(
+          durations.get(i),
+          PRICER_IL.modifiedDurationFromStandardYield(bond, RATES_PROVIDER_IL, settlement, yield),
+          TOL);
+      assertEquals(
+          convexities.get(i),
+          PRICER_IL.convexityFromStandardYield(bond, RATES_PROVIDER_IL, settlement, yield),
+          TOL);
+    }
+  }
+
+  public void test_parallel() {
+    BondYieldAnalytics base = BondYieldAnalytics.ofFixedCoupon(FIXED_BONDS, FIXED_SETTLEMENTS);
+    BondYieldAnalytics test = base.parallel();
+    assertEquals(test.getBondCount(), base.getBondCount());
+    DoubleArray prices = base.dirtyPriceFromYield(FIXED_YIELDS);
+    assertEquals(test.dirtyPriceFromYield(FIXED_YIELDS), prices);
+    assertEquals(test.yieldFromDirtyPrice(prices), base.yieldFromDirtyPrice(prices));
+    assertEquals(test.modifiedDurationFromYield(FIXED_YIELDS), base.modifiedDurationFromYield(FIXED_YIELDS));
+    assertEquals(test.convexityFromYield(FIXED_YIELDS), base.convexityFromYield(FIXED_YIELDS));
+  }
+
+  public void test_invalid() {
+    assertThrowsIllegalArg(() -> BondYieldAnalytics.ofFixedCoupon(FIXED_BONDS, FIXED_SETTLEMENTS.subList(0, 2)));
+    BondYieldAnalytics test = BondYieldAnalytics.ofFixedCoupon(FIXED_BONDS, FIXED_SETTLEMENTS);
+    assertThrowsIllegalArg(() -> test.dirtyPriceFromYield(DoubleArray.of(0.01)));
+    assertThrowsIllegalArg(() -> test.yieldFromDirtyPrice(DoubleArray.of(1d)));
+    assertThrowsIllegalArg(() -> BondYieldAnalytics.ofFixedCoupon(
+        ImmutableList.of(PRODUCT_JP), ImmutableList.of(PRODUCT_JP.getUnadjustedEndDate().plusDays(1))));
+  }
+
+}
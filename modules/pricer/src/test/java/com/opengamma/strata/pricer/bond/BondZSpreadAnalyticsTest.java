@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.bond;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.basics.date.DayCounts.ACT_365F;
+import static com.opengamma.strata.basics.date.DayCounts.ACT_ACT_ICMA;
+import static com.opengamma.strata.basics.date.HolidayCalendarIds.EUTA;
+import static com.opengamma.strata.basics.date.HolidayCalendarIds.USNY;
+import static com.opengamma.strata.basics.index.PriceIndices.US_CPI_U;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static com.opengamma.strata.pricer.CompoundedRateType.CONTINUOUS;
+import static com.opengamma.strata.pricer.CompoundedRateType.PERIODIC;
+import static com.opengamma.strata.product.bond.CapitalIndexedBondYieldConvention.US_IL_REAL;
+import static com.opengamma.strata.product.swap.PriceIndexCalculationMethod.INTERPOLATED;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.date.BusinessDayAdjustment;
+import com.opengamma.strata.basics.date.BusinessDayConventions;
+import com.opengamma.strata.basics.date.DaysAdjustment;
+import com.opengamma.strata.basics.schedule.Frequency;
+import com.opengamma.strata.basics.schedule.PeriodicSchedule;
+import com.opengamma.strata.basics.schedule.RollConventions;
+import com.opengamma.strata.basics.schedule.StubConvention;
+import com.opengamma.strata.basics.value.ValueSchedule;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.collect.tuple.Pair;
+import com.opengamma.strata.market.curve.Curves;
+import com.opengamma.strata.market.curve.InterpolatedNodalCurve;
+import com.opengamma.strata.market.curve.LegalEntityGroup;
+import com.opengamma.strata.market.curve.RepoGroup;
+import com.opengamma.strata.market.curve.interpolator.CurveInterpolators;
+import com.opengamma.strata.pricer.DiscountFactors;
+import com.opengamma.strata.pricer.ZeroRateDiscountFactors;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
+import com.opengamma.strata.product.LegalEntityId;
+import com.opengamma.strata.product.SecurityId;
+import com.opengamma.strata.product.bond.CapitalIndexedBond;
+import com.opengamma.strata.product.bond.FixedCouponBond;
+import com.opengamma.strata.product.bond.FixedCouponBondYieldConvention;
+import com.opengamma.strata.product.bond.ResolvedCapitalIndexedBond;
+import com.opengamma.strata.product.bond.ResolvedFixedCouponBond;
+import com.opengamma.strata.product.swap.InflationRateCalculation;
+
+/**
+ * Test {@link BondZSpreadAnalytics}.
+ */
+@Test
+public class BondZSpreadAnalyticsTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final SecurityId SECURITY_ID = SecurityId.of("OG-Ticker", "GOVT1-BOND1");
+  private static final LegalEntityId ISSUER_ID = LegalEntityId.of("OG-Ticker", "GOVT1");
+
+  // fixed coupon bond
+  private static final LocalDate VAL_DATE = date(2016, 4, 25);
+  private static final BusinessDayAdjustment BUSINESS_ADJUST =
+      BusinessDayAdjustment.of(BusinessDayConventions.MODIFIED_FOLLOWING, EUTA);
+  private static final ResolvedFixedCouponBond PRODUCT = FixedCouponBond.builder()
+      .securityId(SECURITY_ID)
+      .dayCount(ACT_365F)
+      .fixedRate(0.015)
+      .legalEntityId(ISSUER_ID)
+      .currency(EUR)
+      .notional(1.0e7)
+      .accrualSchedule(PeriodicSchedule.of(
+          date(2015, 4, 12), date(2025, 4, 12), Frequency.P6M, BUSINESS_ADJUST, StubConvention.SHORT_INITIAL, false))
+      .settlementDateOffset(DaysAdjustment.ofBusinessDays(3, EUTA))
+      .yieldConvention(FixedCouponBondYieldConvention.DE_BONDS)
+      .exCouponPeriod(DaysAdjustment.ofBusinessDays(-5, EUTA, BUSINESS_ADJUST))
+      .build()
+      .resolve(REF_DATA);
+  private static final InterpolatedNodalCurve CURVE_REPO = InterpolatedNodalCurve.of(
+      Curves.zeroRates("TestRepoCurve", ACT_365F),
+      DoubleArray.of(0.1, 2.0, 10.0),
+      DoubleArray.of(0.05, 0.06, 0.09),
+      CurveInterpolators.LINEAR);
+  private static final InterpolatedNodalCurve CURVE_ISSUER = InterpolatedNodalCurve.of(
+      Curves.zeroRates("TestIssuerCurve", ACT_365F),
+      DoubleArray.of(0.2, 9.0, 15.0),
+      DoubleArray.of(0.03, 0.05, 0.13),
+      CurveInterpolators.LINEAR);
+  private static final DiscountFactors DSC_FACTORS_REPO = ZeroRateDiscountFactors.of(EUR, VAL_DATE, CURVE_REPO);
+  private static final DiscountFactors DSC_FACTORS_ISSUER = ZeroRateDiscountFactors.of(EUR, VAL_DATE, CURVE_ISSUER);
+  private static final RepoGroup GROUP_REPO = RepoGroup.of("GOVT1 BOND1");
+  private static final LegalEntityGroup GROUP_ISSUER = LegalEntityGroup.of("GOVT1");
+  private static final ImmutableLegalEntityDiscountingProvider PROVIDER =
+      ImmutableLegalEntityDiscountingProvider.builder()
+          .issuerCurves(ImmutableMap.of(Pair.of(GROUP_ISSUER, EUR), DSC_FACTORS_ISSUER))
+          .issuerCurveGroups(ImmutableMap.of(ISSUER_ID, GROUP_ISSUER))
+          .repoCurves(ImmutableMap.of(Pair.of(GROUP_REPO, EUR), DSC_FACTORS_REPO))
+          .repoCurveSecurityGroups(ImmutableMap.of(SECURITY_ID, GROUP_REPO))
+          .valuationDate(VAL_DATE)
+          .build();
+  private static final List<ResolvedFixedCouponBond> FIXED_BONDS = ImmutableList.of(PRODUCT, PRODUCT, PRODUCT);
+  private static final List<LocalDate> FIXED_SETTLEMENTS =
+      ImmutableList.of(VAL_DATE, date(2016, 4, 28), date(2016, 10, 10));
+  private static final DoubleArray FIXED_Z_SPREADS = DoubleArray.of(0.035, -0.01, 0.02);
+
+  // capital indexed bond
+  private static final LocalDate VALUATION_IL = date(2014, 7, 10);
+  private static final DaysAdjustment SETTLE_OFFSET = DaysAdjustment.ofBusinessDays(2, USNY);
+  private static final CapitalIndexedBond BOND_IL = CapitalIndexedBond.builder()
+      .securityId(SecurityId.of("OG-Ticker", "BOND1"))
+      .notional(10_000_000d)
+      .currency(USD)
+      .dayCount(ACT_ACT_ICMA)
+      .rateCalculation(InflationRateCalculation.builder()
+          .gearing(ValueSchedule.of(0.01))
+          .index(US_CPI_U)
+          .lag(Period.ofMonths(3))
+          .indexCalculationMethod(INTERPOLATED)
+          .firstIndexValue(198.47742)
+          .build())
+      .legalEntityId(CapitalIndexedBondCurveDataSet.getIssuerId())
+      .yieldConvention(US_IL_REAL)
+      .settlementDateOffset(SETTLE_OFFSET)
+      .accrualSchedule(PeriodicSchedule.of(
+          date(2006, 1, 15), date(2016, 1, 15), Frequency.P6M,
+          BusinessDayAdjustment.of(BusinessDayConventions.FOLLOWING, USNY), StubConvention.NONE, RollConventions.NONE))
+      .build();
+  private static final ResolvedCapitalIndexedBond PRODUCT_IL = BOND_IL.resolve(REF_DATA);
+  private static final ResolvedCapitalIndexedBond PRODUCT_IL_EX_COUPON = BOND_IL.toBuilder()
+      .exCouponPeriod(DaysAdjustment.ofCalendarDays(-5,
+          BusinessDayAdjustment.of(BusinessDayConventions.PRECEDING, USNY)))
+      .build()
+      .resolve(REF_DATA);
+  private static final LocalDateDoubleTimeSeries TS_IL = CapitalIndexedBondCurveDataSet.getTimeSeries(VALUATION_IL);
+  private static final ImmutableRatesProvider RATES_PROVIDER_IL =
+      CapitalIndexedBondCurveDataSet.getRatesProvider(VALUATION_IL, TS_IL);
+  private static final LegalEntityDiscountingProvider ISSUER_PROVIDER_IL =
+      CapitalIndexedBondCurveDataSet.getLegalEntityDiscountingProvider(VALUATION_IL);
+  private static final List<ResolvedCapitalIndexedBond> IL_BONDS = ImmutableList.of(PRODUCT_IL, PRODUCT_IL_EX_COUPON);
+  private static final LocalDate SETTLEMENT_IL = SETTLE_OFFSET.adjust(VALUATION_IL, REF_DATA);
+  private static final List<LocalDate> IL_SETTLEMENTS = ImmutableList.of(SETTLEMENT_IL, SETTLEMENT_IL);
+  private static final DoubleArray IL_Z_SPREADS = DoubleArray.of(0.0125, -0.002);
+
+  private static final DiscountingFixedCouponBondProductPricer PRICER = DiscountingFixedCouponBondProductPricer.DEFAULT;
+  private static final DiscountingCapitalIndexedBondProductPricer PRICER_IL =
+      DiscountingCapitalIndexedBondProductPricer.DEFAULT;
+  private static final int PERIODS_PER_YEAR = 4;
+  private static final double TOL = 1.0e-12;
+
+  //-------------------------------------------------------------------------
+  public void test_fixedCoupon() {
+    BondZSpreadAnalytics test = BondZSpreadAnalytics.ofFixedCoupon(FIXED_BONDS, PROVIDER, FIXED_SETTLEMENTS);
+    assertEquals(test.getBondCount(), FIXED_BONDS.size());
+    DoubleArray continuous = test.dirtyPriceFromZSpread(FIXED_Z_SPREADS, CONTINUOUS, 0);
+    DoubleArray periodic = test.dirtyPriceFromZSpread(FIXED_Z_SPREADS, PERIODIC, PERIODS_PER_YEAR);
+    for (int i = 0; i < FIXED_BONDS.size(); i++) {
+      ResolvedFixedCouponBond bond = FIXED_BONDS.get(i);
+      LocalDate settlement = FIXED_SETTLEMENTS.get(i);
+      double z = FIXED_Z_SPREADS.get(i);
+      assertEquals(
+          continuous.get(i),
+          PRICER.dirtyPriceFromCurvesWithZSpread(bond, PROVIDER, z, CONTINUOUS, 0, settlement),
+          TOL);
+      assertEquals(
+          periodic.get(i),
+          PRICER.dirtyPriceFromCurvesWithZSpread(bond, PROVIDER, z, PERIODIC, PERIODS_PER_YEAR, settlement),
+          TOL);
+    }
+    assertTrue(test.zSpreadFromDirtyPrice(continuous, CONTINUOUS, 0).equalWithTolerance(FIXED_Z_SPREADS, 1.0e-10));
+    assertTrue(test.zSpreadFromDirtyPrice(periodic, PERIODIC, PERIODS_PER_YEAR)
+        .equalWithTolerance(FIXED_Z_SPREADS, 1.0e-10));
+  }
+
+  public void test_capitalIndexed() {
+    BondZSpreadAnalytics test =
+        BondZSpreadAnalytics.ofCapitalIndexed(IL_BONDS, RATES_PROVIDER_IL, ISSUER_PROVIDER_IL, IL_SETTLEMENTS);
+    DoubleArray continuous = test.dirtyPriceFromZSpread(IL_Z_SPREADS, CONTINUOUS, 0);
+    DoubleArray periodic = test.dirtyPriceFromZSpread(IL_Z_SPREADS, PERIODIC, PERIODS_PER_YEAR);
+    for (int i = 0; i < IL_BONDS.size(); i++) {
+      ResolvedCapitalIndexedBond bond = IL_BONDS.get(i);
+      double z = IL_Z_SPREADS.get(i);
+      assertEquals(
+          continuous.get(i),
+          PRICER_IL.dirtyNominalPriceFromCurvesWithZSpread(
+              bond, RATES_PROVIDER_IL, ISSUER_PROVIDER_IL, SETTLEMENT_IL, z, CONTINUOUS, 0),
+          TOL);
+      assertEquals(
+          periodic.get(i),
+          PRICER_IL.dirtyNominalPriceFromCurvesWithZSpread(
+              bond, RATES_PROVIDER_IL, ISSUER_PROVIDER_IL, SETTLEMENT_IL, z, PERIODIC, PERIODS_PER_YEAR),
+          TOL);
+    }
+    assertTrue(test.zSpreadFromDirtyPrice(continuous, CONTINUOUS, 0).equalWithTolerance(IL_Z_SPREADS, 1.0e-10));
+  }
+
+  public void test_parallel() {
+    BondZSpreadAnalytics base = BondZSpreadAnalytics.ofFixedCoupon(FIXED_BONDS, PROVIDER, FIXED_SETTLEMENTS);
+    BondZSpreadAnalytics test = base.parallel();
+    DoubleArray prices = base.dirtyPriceFromZSpread(FIXED_Z_SPREADS, CONTINUOUS, 0);
+    assertEquals(test.dirtyPriceFromZSpread(FIXED_Z_SPREADS, CONTINUOUS, 0), prices);
+    assertEquals(test.zSpreadFromDirtyPrice(prices, CONTINUOUS, 0), base.zSpreadFromDirtyPrice(prices, CONTINUOUS, 0));
+  }
+
+  public void test_invalid() {
+    assertThrowsIllegalArg(
+        () -> BondZSpreadAnalytics.ofFixedCoupon(FIXED_BONDS, PROVIDER, FIXED_SETTLEMENTS.subList(0, 1)));
+    assertThrowsIllegalArg(
+        () -> BondZSpreadAnalytics.ofCapitalIndexed(IL_BONDS, RATES_PROVIDER_IL, PROVIDER, IL_SETTLEMENTS));
+    BondZSpreadAnalytics test = BondZSpreadAnalytics.ofFixedCoupon(FIXED_BONDS, PROVIDER, FIXED_SETTLEMENTS);
+    assertThrowsIllegalArg(() -> test.dirtyPriceFromZSpread(DoubleArray.of(0.01), CONTINUOUS, 0));
+    assertThrowsIllegalArg(() -> test.dirtyPriceFromZSpread(FIXED_Z_SPREADS, PERIODIC, 0));
+  }
+
+}
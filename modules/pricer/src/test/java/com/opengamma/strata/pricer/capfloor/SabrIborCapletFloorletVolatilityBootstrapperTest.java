@@ -12,9 +12,11 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.testng.annotations.Test;
 
+import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.collect.array.DoubleMatrix;
 import com.opengamma.strata.collect.tuple.Pair;
 import com.opengamma.strata.market.ValueType;
@@ -24,6 +26,7 @@ import com.opengamma.strata.market.surface.ConstantSurface;
 import com.opengamma.strata.market.surface.Surfaces;
 import com.opengamma.strata.pricer.impl.volatility.smile.SabrHaganVolatilityFunctionProvider;
 import com.opengamma.strata.pricer.option.RawOptionData;
+import com.opengamma.strata.product.capfloor.IborCapletFloorletPeriod;
 import com.opengamma.strata.product.capfloor.ResolvedIborCapFloorLeg;
 
 /**
@@ -122,6 +125,62 @@ public class SabrIborCapletFloorletVolatilityBootstrapperTest extends CapletStri
     assertEquals(resVols.getParameters().getRhoCurve(), definition.getRhoCurve().get());
   }
 
+  public void test_parallel() {
+    SabrIborCapletFloorletVolatilityBootstrapDefinition definition =
+        SabrIborCapletFloorletVolatilityBootstrapDefinition.ofFixedBeta(
+            IborCapletFloorletVolatilitiesName.of("test"),
+            USD_LIBOR_3M,
+            ACT_ACT_ISDA,
+            0.85,
+            CurveInterpolators.STEP_UPPER,
+            CurveExtrapolators.FLAT,
+            CurveExtrapolators.FLAT,
+            SabrHaganVolatilityFunctionProvider.DEFAULT);
+    RawOptionData data = RawOptionData.of(createBlackMaturities(), createBlackStrikes(), ValueType.STRIKE,
+        createFullBlackDataMatrix(), ValueType.BLACK_VOLATILITY);
+    IborCapletFloorletVolatilityCalibrationResult expected =
+        CALIBRATOR.calibrate(definition, CALIBRATION_TIME, data, RATES_PROVIDER);
+    IborCapletFloorletVolatilityCalibrationResult computed =
+        CALIBRATOR.parallel().calibrate(definition, CALIBRATION_TIME, data, RATES_PROVIDER);
+    assertEquals(computed, expected);
+  }
+
+  public void test_periodPricer() {
+    SabrIborCapletFloorletVolatilityBootstrapDefinition definition =
+        SabrIborCapletFloorletVolatilityBootstrapDefinition.ofFixedBeta(
+            IborCapletFloorletVolatilitiesName.of("test"),
+            USD_LIBOR_3M,
+            ACT_ACT_ISDA,
+            0.85,
+            CurveInterpolators.STEP_UPPER,
+            CurveExtrapolators.FLAT,
+            CurveExtrapolators.FLAT,
+            SabrHaganVolatilityFunctionProvider.DEFAULT);
+    RawOptionData data = RawOptionData.of(createBlackMaturities(), createBlackStrikes(), ValueType.STRIKE,
+        createFullBlackDataMatrix(), ValueType.BLACK_VOLATILITY);
+    AtomicInteger count = new AtomicInteger();
+    SabrIborCapletFloorletPeriodPricer periodPricer = new SabrIborCapletFloorletPeriodPricer() {
+      @Override
+      protected double presentValue(
+          IborCapletFloorletPeriod period,
+          double forward,
+          double discountFactor,
+          IborCapletFloorletVolatilities volatilities) {
+
+        count.incrementAndGet();
+        return super.presentValue(period, forward, discountFactor, volatilities);
+      }
+    };
+    SabrIborCapletFloorletVolatilityBootstrapper calibrator = SabrIborCapletFloorletVolatilityBootstrapper.of(
+        VolatilityIborCapFloorLegPricer.DEFAULT, periodPricer, 1.0e-10, ReferenceData.standard());
+    IborCapletFloorletVolatilityCalibrationResult expected =
+        CALIBRATOR.calibrate(definition, CALIBRATION_TIME, data, RATES_PROVIDER);
+    IborCapletFloorletVolatilityCalibrationResult computed =
+        calibrator.calibrate(definition, CALIBRATION_TIME, data, RATES_PROVIDER);
+    assertEquals(computed, expected);
+    assertTrue(count.get() > 0);
+  }
+
   public void test_invalid_data() {
     SabrIborCapletFloorletVolatilityBootstrapDefinition definition =
         SabrIborCapletFloorletVolatilityBootstrapDefinition.ofFixedBeta(
@@ -299,4 +358,42 @@ public class SabrIborCapletFloorletVolatilityBootstrapperTest extends CapletStri
     }
   }
 
+  //-------------------------------------------------------------------------
+  @Test(enabled = false)
+  void performance() {
+    SabrIborCapletFloorletVolatilityBootstrapDefinition definition =
+        SabrIborCapletFloorletVolatilityBootstrapDefinition.ofFixedBeta(
+            IborCapletFloorletVolatilitiesName.of("test"),
+            USD_LIBOR_3M,
+            ACT_ACT_ISDA,
+            0.85,
+            CurveInterpolators.STEP_UPPER,
+            CurveExtrapolators.FLAT,
+            CurveExtrapolators.FLAT,
+            SabrHaganVolatilityFunctionProvider.DEFAULT);
+    RawOptionData data = RawOptionData.of(createBlackMaturities(), createBlackStrikes(), ValueType.STRIKE,
+        createFullBlackDataMatrix(), ValueType.BLACK_VOLATILITY);
+    SabrIborCapletFloorletVolatilityBootstrapper parallel = CALIBRATOR.parallel();
+    long startTime, endTime;
+    int nbTests = 20;
+    int nbRep = 3;
+    double count = 0d;
+
+    for (int i = 0; i < nbRep; i++) {
+      startTime = System.currentTimeMillis();
+      for (int looprep = 0; looprep < nbTests; looprep++) {
+        count += CALIBRATOR.calibrate(definition, CALIBRATION_TIME, data, RATES_PROVIDER).getChiSquare();
+      }
+      endTime = System.currentTimeMillis();
+      System.out.println("Performance: " + nbTests + " sequential bootstraps in " + (endTime - startTime) + " ms.");
+      startTime = System.currentTimeMillis();
+      for (int looprep = 0; looprep < nbTests; looprep++) {
+        count += parallel.calibrate(definition, CALIBRATION_TIME, data, RATES_PROVIDER).getChiSquare();
+      }
+      endTime = System.currentTimeMillis();
+      System.out.println("Performance: " + nbTests + " parallel bootstraps in " + (endTime - startTime) + " ms.");
+    }
+    System.out.println("Avoiding hotspot: " + count);
+  }
+
 }
@@ -83,6 +83,21 @@ public class SabrIborCapletFloorletVolatilityCalibratorTest
     assertEquals(resVols.getParameters().getBetaCurve(), definition.getBetaCurve().get());
   }
 
+  public void test_parallel() {
+    SabrIborCapletFloorletVolatilityCalibrationDefinition definition =
+        SabrIborCapletFloorletVolatilityCalibrationDefinition.ofFixedBeta(
+            NAME, USD_LIBOR_3M, ACT_ACT_ISDA, 0.7, ALPHA_KNOTS, BETA_RHO_KNOTS, NU_KNOTS, DOUBLE_QUADRATIC, FLAT, FLAT, HAGAN);
+    DoubleMatrix volData = createFullBlackDataMatrix();
+    DoubleMatrix error = DoubleMatrix.filled(volData.rowCount(), volData.columnCount(), 1.0e-3);
+    RawOptionData data = RawOptionData.of(
+        createBlackMaturities(), createBlackStrikes(), ValueType.STRIKE, volData, error, ValueType.BLACK_VOLATILITY);
+    IborCapletFloorletVolatilityCalibrationResult expected =
+        CALIBRATOR.calibrate(definition, CALIBRATION_TIME, data, RATES_PROVIDER);
+    IborCapletFloorletVolatilityCalibrationResult computed =
+        CALIBRATOR.parallel().calibrate(definition, CALIBRATION_TIME, data, RATES_PROVIDER);
+    assertEquals(computed, expected);
+  }
+
   public void recovery_test_black_fixedRho() {
     double rho = 0.15;
     SabrIborCapletFloorletVolatilityCalibrationDefinition definition =
@@ -135,6 +135,12 @@ public class SabrExtrapolationReplicationCmsPeriodPricerTest {
       new RatesFiniteDifferenceSensitivityCalculator(EPS);  
   private static final DiscountingSwapProductPricer PRICER_SWAP =
       DiscountingSwapProductPricer.DEFAULT;
+  private static final SabrExtrapolationReplicationCmsPeriodPricer PRICER_GRID =
+      SabrExtrapolationReplicationCmsPeriodPricer.ofFixedGrid(CUT_OFF_STRIKE, MU, 8);
+  private static final double TOL_GRID_PV = 1.0e-6;
+  private static final double TOL_GRID_RESIDUAL = 1.0e-8;
+  private static final double TOL_GRID_SENSI = 1.0e-6;
+  private static final double TOL_GRID_VEGA = 1.0e-4; // relative tolerance of the adaptive vega integration is 1e-3
 
   public void test_presentValue_zero() {
     CurrencyAmount pv = PRICER.presentValue(COUPON, RATES_PROVIDER, VOLATILITIES);
@@ -544,6 +550,49 @@ public class SabrExtrapolationReplicationCmsPeriodPricerTest {
     assertThrowsIllegalArg(() -> PRICER.presentValueSensitivityStrike(COUPON, RATES_PROVIDER, VOLATILITIES));
   }
 
+  //-------------------------------------------------------------------------
+  public void test_fixedGrid_presentValue() {
+    SabrParametersSwaptionVolatilities[] volatilities = new SabrParametersSwaptionVolatilities[] {
+        VOLATILITIES, VOLATILITIES_SHIFT};
+    for (SabrParametersSwaptionVolatilities vols : volatilities) {
+      for (CmsPeriod period : new CmsPeriod[] {COUPON, CAPLET, FLOORLET, CAPLET_NEGATIVE, FLOORLET_NEGATIVE}) {
+        double expected = PRICER.presentValue(period, RATES_PROVIDER, vols).getAmount();
+        double computed = PRICER_GRID.presentValue(period, RATES_PROVIDER, vols).getAmount();
+        // the adaptive integration returns a small residual when the put range is empty
+        assertEquals(computed, expected, Math.max(Math.abs(expected) * TOL_GRID_PV, NOTIONAL * TOL_GRID_RESIDUAL));
+      }
+    }
+    // fixed and expired periods do not depend on the integration
+    assertEquals(
+        PRICER_GRID.presentValue(CAPLET, RATES_PROVIDER_AFTER_FIX, VOLATILITIES_AFTER_FIX),
+        PRICER.presentValue(CAPLET, RATES_PROVIDER_AFTER_FIX, VOLATILITIES_AFTER_FIX));
+  }
+
+  public void test_fixedGrid_presentValueSensitivity() {
+    for (CmsPeriod period : new CmsPeriod[] {COUPON, CAPLET, FLOORLET}) {
+      PointSensitivities expectedRates =
+          PRICER.presentValueSensitivityRates(period, RATES_PROVIDER, VOLATILITIES_SHIFT).build();
+      PointSensitivities computedRates =
+          PRICER_GRID.presentValueSensitivityRates(period, RATES_PROVIDER, VOLATILITIES_SHIFT).build();
+      assertTrue(computedRates.equalWithTolerance(expectedRates, NOTIONAL * TOL_GRID_SENSI));
+      PointSensitivities expectedSabr =
+          PRICER.presentValueSensitivityModelParamsSabr(period, RATES_PROVIDER, VOLATILITIES_SHIFT).build();
+      PointSensitivities computedSabr =
+          PRICER_GRID.presentValueSensitivityModelParamsSabr(period, RATES_PROVIDER, VOLATILITIES_SHIFT).build();
+      assertTrue(computedSabr.equalWithTolerance(expectedSabr, NOTIONAL * TOL_GRID_VEGA));
+    }
+    for (CmsPeriod period : new CmsPeriod[] {CAPLET, FLOORLET}) {
+      double expected = PRICER.presentValueSensitivityStrike(period, RATES_PROVIDER, VOLATILITIES_SHIFT);
+      double computed = PRICER_GRID.presentValueSensitivityStrike(period, RATES_PROVIDER, VOLATILITIES_SHIFT);
+      assertEquals(computed, expected, NOTIONAL * TOL_GRID_SENSI);
+    }
+  }
+
+  public void test_fixedGrid_invalid() {
+    assertThrowsIllegalArg(() -> SabrExtrapolationReplicationCmsPeriodPricer.ofFixedGrid(CUT_OFF_STRIKE, 1d, 4));
+    assertThrowsIllegalArg(() -> SabrExtrapolationReplicationCmsPeriodPricer.ofFixedGrid(CUT_OFF_STRIKE, MU, 0));
+  }
+
   //-------------------------------------------------------------------------
   private void testPresentValueSensitivitySabrParameter(CmsPeriod coupon, CmsPeriod caplet, CmsPeriod foorlet,
       RatesProvider ratesProvider, SabrParametersSwaptionVolatilities volatilities) {
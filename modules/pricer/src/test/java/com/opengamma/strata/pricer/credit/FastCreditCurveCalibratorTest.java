@@ -8,6 +8,8 @@ package com.opengamma.strata.pricer.credit;
 import static com.opengamma.strata.basics.currency.Currency.EUR;
 import static com.opengamma.strata.basics.date.DayCounts.ACT_360;
 import static com.opengamma.strata.basics.date.DayCounts.ACT_365F;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 import java.time.LocalDate;
@@ -16,6 +18,7 @@ import java.util.List;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.opengamma.strata.basics.StandardId;
 import com.opengamma.strata.basics.schedule.Frequency;
@@ -291,4 +294,77 @@ public class FastCreditCurveCalibratorTest extends IsdaCompliantCreditCurveCalib
     testJacobian(BUILDER_MARKIT, ccMf, ratesProvider, nodes, quotes, ONE_PC, EPS);
   }
 
+  //-------------------------------------------------------------------------
+  public void bulkTest() {
+    LocalDate valuationDate = LocalDate.of(2013, 2, 27);
+    DoubleArray ycTime = DoubleArray.of(0.09041095890410959, 0.5123287671232877, 1.010958904109589, 2.008219178082192,
+        5.008219178082192, 10.01095890410959, 20.01917808219178, 30.027397260273972);
+    DoubleArray ycRate = DoubleArray.of(0.0020651105531615476, 0.004599628230463427, 0.0075703969168129295,
+        0.003965128877560435, 0.009361825469323602, 0.020289623737560873, 0.029087919732133784, 0.03110021763406523);
+    IsdaCreditDiscountFactors yc =
+        IsdaCreditDiscountFactors.of(EUR, valuationDate, CurveName.of("yc_usd"), ycTime, ycRate, ACT_365F);
+    LocalDate startDate = LocalDate.of(2012, 12, 20);
+    LocalDate[] pillarDates = new LocalDate[] {
+        LocalDate.of(2013, 9, 20), LocalDate.of(2014, 3, 20), LocalDate.of(2015, 3, 20), LocalDate.of(2016, 3, 20),
+        LocalDate.of(2018, 3, 20), LocalDate.of(2020, 3, 20), LocalDate.of(2023, 3, 20)};
+    double[] quotes = new double[] {0.006485, 0.008163, 0.011763, 0.015136, 0.021905, 0.025211, 0.027549};
+    int nPillars = pillarDates.length;
+    ImmutableMarketDataBuilder builderCredit = ImmutableMarketData.builder(valuationDate);
+    List<CdsIsdaCreditCurveNode> nodes = new ArrayList<>(nPillars);
+    for (int i = 0; i < nPillars; ++i) {
+      CdsConvention conv = ImmutableCdsConvention.of("conv", EUR, ACT_360, Frequency.P3M, BUS_ADJ, CDS_SETTLE_STD);
+      CdsTemplate temp = DatesCdsTemplate.of(startDate, pillarDates[i], conv);
+      QuoteId id = QuoteId.of(StandardId.of("OG", pillarDates[i].toString()));
+      nodes.add(CdsIsdaCreditCurveNode.ofParSpread(temp, id, LEGAL_ENTITY));
+      builderCredit.addValue(id, quotes[i]);
+    }
+    ImmutableMarketData marketData = builderCredit.build();
+    List<ResolvedCdsTrade> trades = new ArrayList<>(nPillars);
+    for (int i = 0; i < nPillars; ++i) {
+      trades.add(nodes.get(i).trade(1d, marketData, REF_DATA).getUnderlyingTrade().resolve(REF_DATA));
+    }
+    // entities with scaled spreads, points upfront and different recovery rates
+    int nEntities = 6;
+    List<DoubleArray> spreads = new ArrayList<>(nEntities);
+    List<DoubleArray> pufs = new ArrayList<>(nEntities);
+    List<CurveName> names = new ArrayList<>(nEntities);
+    List<RecoveryRates> recoveryRates = new ArrayList<>(nEntities);
+    for (int e = 0; e < nEntities; ++e) {
+      double scale = 0.5 + 0.5 * e;
+      double upfront = e % 2 == 0 ? 0d : 0.01 * e;
+      spreads.add(DoubleArray.of(nPillars, i -> quotes[i] * scale));
+      pufs.add(DoubleArray.of(nPillars, i -> upfront * (i + 1) / nPillars));
+      names.add(CurveName.of("entity" + e));
+      recoveryRates.add(ConstantRecoveryRates.of(LEGAL_ENTITY, valuationDate, 0.2 + 0.05 * e));
+    }
+    FastCreditCurveCalibrator zeroHazard =
+        new FastCreditCurveCalibrator(AccrualOnDefaultFormula.ORIGINAL_ISDA, ArbitrageHandling.ZERO_HAZARD_RATE);
+    for (FastCreditCurveCalibrator calibrator : new FastCreditCurveCalibrator[] {BUILDER_ISDA, BUILDER_MARKIT, zeroHazard}) {
+      List<NodalCurve> computed =
+          calibrator.calibrate(trades, spreads, pufs, names, valuationDate, yc, recoveryRates, REF_DATA);
+      assertEquals(computed.size(), nEntities);
+      for (int e = 0; e < nEntities; ++e) {
+        NodalCurve expected = calibrator.calibrate(
+            trades, spreads.get(e), pufs.get(e), names.get(e), valuationDate, yc, recoveryRates.get(e), REF_DATA);
+        assertEquals(computed.get(e).getName(), names.get(e));
+        assertTrue(DoubleArrayMath.fuzzyEquals(
+            computed.get(e).getXValues().toArray(), expected.getXValues().toArray(), TOL));
+        assertTrue(DoubleArrayMath.fuzzyEquals(
+            computed.get(e).getYValues().toArray(), expected.getYValues().toArray(), 1.0e-12));
+      }
+    }
+    // single node
+    List<NodalCurve> single = BUILDER_ISDA.calibrate(
+        trades.subList(0, 1), ImmutableList.of(DoubleArray.of(quotes[0])), ImmutableList.of(DoubleArray.of(0d)),
+        ImmutableList.of(CurveName.of("single")), valuationDate, yc, recoveryRates.subList(0, 1), REF_DATA);
+    NodalCurve singleExpected = BUILDER_ISDA.calibrate(trades.subList(0, 1), DoubleArray.of(quotes[0]),
+        DoubleArray.of(0d), CurveName.of("single"), valuationDate, yc, recoveryRates.get(0), REF_DATA);
+    assertEquals(single.get(0).getYValues().get(0), singleExpected.getYValues().get(0), 1.0e-12);
+    // invalid inputs
+    assertThrowsIllegalArg(() -> BUILDER_ISDA.calibrate(
+        trades, spreads, pufs.subList(0, 1), names, valuationDate, yc, recoveryRates, REF_DATA));
+    assertThrowsIllegalArg(() -> BUILDER_ISDA.calibrate(
+        trades.subList(0, 2), spreads, pufs, names, valuationDate, yc, recoveryRates, REF_DATA));
+  }
+
 }
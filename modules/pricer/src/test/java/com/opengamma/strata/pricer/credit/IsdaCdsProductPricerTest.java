@@ -213,6 +213,26 @@ public class IsdaCdsProductPricerTest {
     assertEquals(PRICER_CORRECT.getAccrualOnDefaultFormula(), AccrualOnDefaultFormula.CORRECT);
   }
 
+  public void scheduleCacheTest() {
+    IsdaIntegrationScheduleCache cache = IsdaIntegrationScheduleCache.of();
+    IsdaCdsProductPricer pricerCached = new IsdaCdsProductPricer(AccrualOnDefaultFormula.MARKIT_FIX, cache);
+    assertEquals(pricerCached.getScheduleCache().get(), cache);
+    assertEquals(PRICER_FIX.getScheduleCache().isPresent(), false);
+    for (ResolvedCds product : new ResolvedCds[] {PRODUCT_NEXTDAY, PRODUCT_BEFORE, PRODUCT_AFTER, PRODUCT_NS_STEPIN}) {
+      LocalDate settlementDate = product.getSettlementDateOffset().adjust(VALUATION_DATE, REF_DATA);
+      for (int i = 0; i < 2; ++i) {
+        assertEquals(
+            pricerCached.presentValue(product, RATES_PROVIDER, settlementDate, DIRTY, REF_DATA).getAmount(),
+            PRICER_FIX.presentValue(product, RATES_PROVIDER, settlementDate, DIRTY, REF_DATA).getAmount(),
+            NOTIONAL * TOL);
+        assertEquals(
+            pricerCached.presentValueSensitivity(product, RATES_PROVIDER, settlementDate, REF_DATA).build(),
+            PRICER_FIX.presentValueSensitivity(product, RATES_PROVIDER, settlementDate, REF_DATA).build());
+      }
+    }
+    assertTrue(cache.getCacheSize() > 0);
+  }
+
   public void endedTest() {
     LocalDate valuationDate = PRODUCT_NEXTDAY.getProtectionEndDate().plusDays(1);
     CreditRatesProvider provider = createCreditRatesProvider(valuationDate);
@@ -280,6 +280,49 @@ public class IsdaHomogenousCdsIndexProductPricerTest {
     assertEquals(computed.getAmount(), expected, NOTIONAL * TOL);
   }
 
+  public void batchTest() {
+    IsdaIntegrationScheduleCache cache = IsdaIntegrationScheduleCache.of();
+    IsdaHomogenousCdsIndexProductPricer pricerCached =
+        new IsdaHomogenousCdsIndexProductPricer(AccrualOnDefaultFormula.ORIGINAL_ISDA, cache);
+    ResolvedCdsIndex product7y = CdsIndex.of(BUY, INDEX_ID, LEGAL_ENTITIES, USD, NOTIONAL, START_DATE,
+        LocalDate.of(2020, 12, 20), P3M, SAT_SUN, COUPON).resolve(REF_DATA);
+    List<ResolvedCdsIndex> products = ImmutableList.of(PRODUCT, PRODUCT_SELL, product7y, PRODUCT);
+    for (IsdaHomogenousCdsIndexProductPricer pricer : ImmutableList.of(PRICER, pricerCached)) {
+      List<CurrencyAmount> computed = pricer.presentValue(products, RATES_PROVIDER, SETTLEMENT_STD, CLEAN, REF_DATA);
+      assertEquals(computed.size(), products.size());
+      for (int i = 0; i < products.size(); ++i) {
+        CurrencyAmount expected = PRICER.presentValue(products.get(i), RATES_PROVIDER, SETTLEMENT_STD, CLEAN, REF_DATA);
+        assertEquals(computed.get(i).getCurrency(), USD);
+        assertEquals(computed.get(i).getAmount(), expected.getAmount(), NOTIONAL * TOL);
+      }
+    }
+    long scheduleCacheSize = cache.getScheduleCacheSize();
+    long termCacheSize = cache.getTermCacheSize();
+    assertTrue(scheduleCacheSize > 0);
+    assertTrue(termCacheSize > 0);
+    // scenarios with shifted curves share the integration schedules, the node sets being unchanged
+    List<CreditRatesProvider> scenarios = new ArrayList<>();
+    for (int i = 0; i < 3; ++i) {
+      double shift = 1.0e-3 * i;
+      InterpolatedNodalCurve curve = NODAL_CC.withYValues(RATE_CC.map(r -> r + shift));
+      scenarios.add(((ImmutableCreditRatesProvider) RATES_PROVIDER).toBuilder()
+          .creditCurves(ImmutableMap.of(Pair.of(INDEX_ID, USD),
+              LegalEntitySurvivalProbabilities.of(INDEX_ID, IsdaCreditDiscountFactors.of(USD, VALUATION_DATE, curve))))
+          .build());
+    }
+    List<CurrencyAmount> computed = pricerCached.presentValue(PRODUCT, scenarios, SETTLEMENT_STD, DIRTY, REF_DATA);
+    List<CurrencyAmount> computedDefault = PRICER.presentValue(PRODUCT, scenarios, SETTLEMENT_STD, DIRTY, REF_DATA);
+    assertEquals(cache.getScheduleCacheSize(), scheduleCacheSize);
+    // the integrals depend on the curves of each scenario
+    assertTrue(cache.getTermCacheSize() > termCacheSize);
+    for (int i = 0; i < scenarios.size(); ++i) {
+      CurrencyAmount expected = PRICER.presentValue(PRODUCT, scenarios.get(i), SETTLEMENT_STD, DIRTY, REF_DATA);
+      assertEquals(computed.get(i).getAmount(), expected.getAmount(), NOTIONAL * TOL);
+      assertEquals(computedDefault.get(i).getAmount(), expected.getAmount(), NOTIONAL * TOL);
+    }
+    assertTrue(computed.get(0).getAmount() != computed.get(2).getAmount());
+  }
+
   //-------------------------------------------------------------------------
   private static CreditRatesProvider createCreditRatesProviderSingle(LocalDate valuationDate, boolean isSingle) {
     IsdaCreditDiscountFactors yc = IsdaCreditDiscountFactors.of(USD, valuationDate, NODAL_YC);
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.credit;
+
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.basics.date.DayCounts.ACT_365F;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.curve.CurveName;
+
+/**
+ * Test {@link IsdaIntegrationScheduleCache}.
+ */
+@Test
+public class IsdaIntegrationScheduleCacheTest {
+
+  private static final DoubleArray SET_A = DoubleArray.of(0.5, 0.9, 1.4);
+  private static final DoubleArray SET_B = DoubleArray.of(0.3, 0.4, 1.5, 1.6);
+  private static final LocalDate VALUATION = LocalDate.of(2016, 5, 6);
+  private static final CreditDiscountFactors DFS = IsdaCreditDiscountFactors.of(
+      USD, VALUATION, CurveName.of("yieldUsd"), SET_A, DoubleArray.of(0.01, 0.012, 0.015), ACT_365F);
+  private static final LegalEntitySurvivalProbabilities SURVIVAL = LegalEntitySurvivalProbabilities.of(
+      StandardId.of("OG", "ABC"),
+      IsdaCreditDiscountFactors.of(USD, VALUATION, CurveName.of("credit"), SET_B, DoubleArray.of(4, i -> 0.02), ACT_365F));
+
+  public void test_getIntegrationsPoints() {
+    IsdaIntegrationScheduleCache test = IsdaIntegrationScheduleCache.of();
+    DoubleArray computed = test.getIntegrationsPoints(0.1, 2d, SET_A, SET_B);
+    assertEquals(computed, DoublesScheduleGenerator.getIntegrationsPoints(0.1, 2d, SET_A, SET_B));
+    assertEquals(test.getCacheSize(), 1);
+    assertSame(test.getIntegrationsPoints(0.1, 2d, SET_A, SET_B), computed);
+    assertEquals(test.getCacheSize(), 1);
+    // node sets compared by identity
+    DoubleArray copy = test.getIntegrationsPoints(0.1, 2d, DoubleArray.copyOf(SET_A.toArray()), SET_B);
+    assertNotSame(copy, computed);
+    assertEquals(copy, computed);
+    assertEquals(test.getScheduleCacheSize(), 2);
+    DoubleArray other = test.getIntegrationsPoints(0.1, 1.5, SET_A, SET_B);
+    assertEquals(other, DoublesScheduleGenerator.getIntegrationsPoints(0.1, 1.5, SET_A, SET_B));
+    assertEquals(test.getScheduleCacheSize(), 3);
+    test.clearCache();
+    assertEquals(test.getCacheSize(), 0);
+  }
+
+  public void test_truncateSetInclusive() {
+    IsdaIntegrationScheduleCache test = IsdaIntegrationScheduleCache.of(1);
+    DoubleArray computed = test.truncateSetInclusive(0.35, 1.45, SET_B);
+    assertEquals(computed, DoublesScheduleGenerator.truncateSetInclusive(0.35, 1.45, SET_B));
+    assertSame(test.truncateSetInclusive(0.35, 1.45, SET_B), computed);
+    // truncation is not confused with integration points, the maximum size is respected
+    test.getIntegrationsPoints(0.35, 1.45, SET_B, SET_A);
+    assertEquals(test.getScheduleCacheSize(), 1);
+  }
+
+  public void test_terms() {
+    IsdaIntegrationScheduleCache test = IsdaIntegrationScheduleCache.of();
+    AtomicInteger count = new AtomicInteger();
+    assertEquals(test.protectionTerm(DFS, SURVIVAL, 0.1, 2d, () -> count.incrementAndGet()), 1d);
+    assertEquals(test.protectionTerm(DFS, SURVIVAL, 0.1, 2d, () -> count.incrementAndGet()), 1d);
+    assertEquals(test.protectionTerm(DFS, SURVIVAL, 0.1, 1.5, () -> count.incrementAndGet()), 2d);
+    assertEquals(test.getTermCacheSize(), 2);
+    // terms keyed by formula, and not confused with protection terms
+    assertEquals(test.accrualOnDefaultTerm(AccrualOnDefaultFormula.ORIGINAL_ISDA,
+        DFS, SURVIVAL, 0.1, 2d, 0.1, 0.1, 2d, () -> count.incrementAndGet()), 3d);
+    assertEquals(test.accrualOnDefaultTerm(AccrualOnDefaultFormula.MARKIT_FIX,
+        DFS, SURVIVAL, 0.1, 2d, 0.1, 0.1, 2d, () -> count.incrementAndGet()), 4d);
+    assertEquals(test.accrualOnDefaultTerm(AccrualOnDefaultFormula.ORIGINAL_ISDA,
+        DFS, SURVIVAL, 0.1, 2d, 0.1, 0.1, 2d, () -> count.incrementAndGet()), 3d);
+    assertEquals(test.getTermCacheSize(), 4);
+    // curves compared by identity
+    LegalEntitySurvivalProbabilities survivalCopy =
+        LegalEntitySurvivalProbabilities.of(SURVIVAL.getLegalEntityId(), SURVIVAL.getSurvivalProbabilities());
+    assertEquals(test.protectionTerm(DFS, survivalCopy, 0.1, 2d, () -> count.incrementAndGet()), 5d);
+    assertEquals(test.getCacheSize(), 5);
+  }
+
+  public void test_of_invalid() {
+    assertThrowsIllegalArg(() -> IsdaIntegrationScheduleCache.of(0));
+  }
+
+}
@@ -9,6 +9,7 @@ import static com.opengamma.strata.basics.currency.Currency.EUR;
 import static com.opengamma.strata.basics.currency.Currency.GBP;
 import static com.opengamma.strata.basics.currency.Currency.USD;
 import static com.opengamma.strata.basics.date.DayCounts.ACT_365F;
+import static com.opengamma.strata.collect.TestHelper.assertSerialization;
 import static com.opengamma.strata.collect.TestHelper.coverBeanEquals;
 import static com.opengamma.strata.collect.TestHelper.coverImmutableBean;
 import static com.opengamma.strata.collect.TestHelper.date;
@@ -21,6 +22,7 @@ import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Iterator;
+import java.util.stream.IntStream;
 
 import org.testng.annotations.Test;
 
@@ -108,6 +110,41 @@ public class BlackFxOptionSmileVolatilitiesTest {
     }
   }
 
+  public void test_volatility_memoised() {
+    // repeated queries, with a change of forward at each expiry, on a single instance
+    BlackFxOptionSmileVolatilities test =
+        BlackFxOptionSmileVolatilities.of(NAME, CURRENCY_PAIR, VAL_DATE_TIME, SMILE_TERM);
+    for (int k = 0; k < 3; ++k) {
+      for (int i = 0; i < NB_EXPIRY; i++) {
+        double expiryTime = test.relativeTime(TEST_EXPIRY[i]);
+        double forward = FORWARD[i] + 0.01 * (k % 2);
+        for (int j = 0; j < NB_STRIKE; ++j) {
+          double volExpected = SMILE_TERM.volatility(expiryTime, TEST_STRIKE[j], forward);
+          assertEquals(test.volatility(CURRENCY_PAIR, expiryTime, TEST_STRIKE[j], forward), volExpected, TOLERANCE);
+        }
+      }
+    }
+  }
+
+  public void test_volatility_memoised_parallel() {
+    BlackFxOptionSmileVolatilities test =
+        BlackFxOptionSmileVolatilities.of(NAME, CURRENCY_PAIR, VAL_DATE_TIME, SMILE_TERM);
+    int nQueries = 1000;
+    double[] computed = new double[nQueries];
+    IntStream.range(0, nQueries).parallel().forEach(n -> {
+      int i = n % NB_EXPIRY;
+      double forward = FORWARD[i] + 0.01 * (n % 3);
+      computed[n] = test.volatility(CURRENCY_PAIR, TEST_EXPIRY[i], TEST_STRIKE[n % NB_STRIKE], forward);
+    });
+    for (int n = 0; n < nQueries; ++n) {
+      int i = n % NB_EXPIRY;
+      double forward = FORWARD[i] + 0.01 * (n % 3);
+      double expiryTime = test.relativeTime(TEST_EXPIRY[i]);
+      double volExpected = SMILE_TERM.volatility(expiryTime, TEST_STRIKE[n % NB_STRIKE], forward);
+      assertEquals(computed[n], volExpected, TOLERANCE);
+    }
+  }
+
   //-------------------------------------------------------------------------
   public void test_surfaceParameterSensitivity() {
     for (int i = 0; i < NB_EXPIRY; i++) {
@@ -163,6 +200,13 @@ public class BlackFxOptionSmileVolatilitiesTest {
     coverBeanEquals(test1, test2);
   }
 
+  public void test_serialization() {
+    BlackFxOptionSmileVolatilities test =
+        BlackFxOptionSmileVolatilities.of(NAME, CURRENCY_PAIR, VAL_DATE_TIME, SMILE_TERM);
+    test.volatility(CURRENCY_PAIR, TEST_EXPIRY[1], TEST_STRIKE[1], FORWARD[1]);
+    assertSerialization(test);
+  }
+
   //-------------------------------------------------------------------------
   // bumping a node point at (nodeExpiry, nodeDelta)
   private double nodeSensitivity(
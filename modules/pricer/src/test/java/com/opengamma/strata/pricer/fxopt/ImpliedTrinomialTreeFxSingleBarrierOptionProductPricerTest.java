@@ -9,18 +9,25 @@ import static com.opengamma.strata.basics.currency.Currency.EUR;
 import static com.opengamma.strata.basics.currency.Currency.USD;
 import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.List;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.currency.CurrencyPair;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
 import com.opengamma.strata.basics.currency.Payment;
+import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
+import com.opengamma.strata.market.surface.InterpolatedNodalSurface;
 import com.opengamma.strata.pricer.DiscountingPaymentPricer;
 import com.opengamma.strata.pricer.fx.RatesProviderFxDataSets;
 import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
@@ -331,6 +338,56 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricerTest {
     assertEquals(ce, ceWithData);
   }
 
+  public void test_batch() {
+    ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer pricer =
+        new ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer(new CachingImpliedTrinomialTreeFxOptionCalibrator(39));
+    ResolvedFxSingleBarrierOption putDko = ResolvedFxSingleBarrierOption.of(PUT, BARRIER_DKO, REBATE_BASE);
+    List<ResolvedFxSingleBarrierOption> options = ImmutableList.of(CALL_DKO, CALL_UKI_C, putDko);
+    DoubleArray prices = pricer.price(options, RATE_PROVIDER, VOLS);
+    List<CurrencyAmount> pvs = pricer.presentValue(options, RATE_PROVIDER, VOLS);
+    assertEquals(prices.size(), options.size());
+    assertEquals(pvs.size(), options.size());
+    for (int i = 0; i < options.size(); ++i) {
+      assertEquals(prices.get(i), PRICER_39.price(options.get(i), RATE_PROVIDER, VOLS, DATA_39));
+      assertEquals(pvs.get(i), PRICER_39.presentValue(options.get(i), RATE_PROVIDER, VOLS, DATA_39));
+    }
+  }
+
+  public void test_cachingCalibrator() {
+    CachingImpliedTrinomialTreeFxOptionCalibrator calibrator = new CachingImpliedTrinomialTreeFxOptionCalibrator(39);
+    RecombiningTrinomialTreeData data = calibrator.calibrateTrinomialTree(CALL, RATE_PROVIDER, VOLS);
+    assertEquals(data, DATA_39);
+    assertSame(calibrator.calibrateTrinomialTree(PUT, RATE_PROVIDER, VOLS), data);
+    assertEquals(calibrator.getCacheSize(), 1L);
+    assertNotSame(calibrator.calibrateTrinomialTree(CALL, RATE_PROVIDER_FLAT, VOLS_FLAT), data);
+    assertEquals(calibrator.getCacheSize(), 2L);
+    calibrator.clearCache();
+    assertEquals(calibrator.getCacheSize(), 0L);
+    assertThrowsIllegalArg(() -> calibrator.calibrateTrinomialTree(CALL, RATE_PROVIDER_AFTER, VOLS_AFTER));
+  }
+
+  public void test_cachingCalibrator_localVolatility() {
+    CachingImpliedTrinomialTreeFxOptionCalibrator calibrator = new CachingImpliedTrinomialTreeFxOptionCalibrator(39);
+    double timeToExpiry = VOLS.relativeTime(CALL.getExpiry());
+    CurrencyPair pair = CALL.getUnderlying().getCurrencyPair();
+    InterpolatedNodalSurface localVol = calibrator.calibrateLocalVolatility(timeToExpiry, pair, RATE_PROVIDER, VOLS);
+    assertEquals(localVol.getParameterCount(), 39 * 79);
+    assertSame(calibrator.calibrateLocalVolatility(timeToExpiry, pair, RATE_PROVIDER, VOLS), localVol);
+    assertEquals(calibrator.getLocalVolatilityCacheSize(), 1L);
+    assertEquals(calibrator.getCacheSize(), 0L);
+    calibrator.clearCache();
+    assertEquals(calibrator.getLocalVolatilityCacheSize(), 0L);
+    InterpolatedNodalSurface expected =
+        new ImpliedTrinomialTreeFxOptionCalibrator(39).calibrateLocalVolatility(timeToExpiry, pair, RATE_PROVIDER, VOLS);
+    assertEquals(localVol, expected);
+  }
+
+  public void test_parallelCalibrator() {
+    ImpliedTrinomialTreeFxOptionCalibrator calibrator = new ImpliedTrinomialTreeFxOptionCalibrator(39, true);
+    assertTrue(calibrator.isParallel());
+    assertEquals(calibrator.calibrateTrinomialTree(CALL, RATE_PROVIDER, VOLS), DATA_39);
+  }
+
   public void test_expired_calibration() {
     assertThrowsIllegalArg(() -> PRICER_39.getCalibrator().calibrateTrinomialTree(CALL_DKO.getUnderlyingOption(),
         RATE_PROVIDER_AFTER, VOLS_AFTER));
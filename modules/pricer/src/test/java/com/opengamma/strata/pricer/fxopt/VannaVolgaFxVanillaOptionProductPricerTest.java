@@ -16,10 +16,12 @@ import static org.testng.Assert.assertTrue;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.function.Function;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
 import com.opengamma.strata.basics.currency.CurrencyPair;
 import com.opengamma.strata.basics.currency.FxRate;
@@ -327,6 +329,66 @@ public class VannaVolgaFxVanillaOptionProductPricerTest {
   }
 
   //-------------------------------------------------------------------------
+  public void test_batch() {
+    List<ResolvedFxVanillaOption> options = batchOptions();
+    DoubleArray computedPrices = PRICER.price(options, RATES_PROVIDER, VOLS);
+    List<CurrencyAmount> computedPvs = PRICER.presentValue(options, RATES_PROVIDER, VOLS);
+    List<PointSensitivityBuilder> computedRates =
+        PRICER.presentValueSensitivityRatesStickyStrike(options, RATES_PROVIDER, VOLS);
+    List<PointSensitivityBuilder> computedVols =
+        PRICER.presentValueSensitivityModelParamsVolatility(options, RATES_PROVIDER, VOLS);
+    FxVanillaOptionBatchValues computedAll = PRICER.presentValueAndSensitivities(options, RATES_PROVIDER, VOLS);
+    assertEquals(computedPrices.size(), options.size());
+    assertEquals(computedAll.getOptionCount(), options.size());
+    for (int i = 0; i < options.size(); ++i) {
+      ResolvedFxVanillaOption option = options.get(i);
+      double expectedPrice = PRICER.price(option, RATES_PROVIDER, VOLS);
+      CurrencyAmount expectedPv = PRICER.presentValue(option, RATES_PROVIDER, VOLS);
+      PointSensitivities expectedRates =
+          PRICER.presentValueSensitivityRatesStickyStrike(option, RATES_PROVIDER, VOLS).build();
+      PointSensitivities expectedVols =
+          PRICER.presentValueSensitivityModelParamsVolatility(option, RATES_PROVIDER, VOLS).build();
+      assertEquals(computedPrices.get(i), expectedPrice, TOL);
+      for (CurrencyAmount pv : ImmutableList.of(computedPvs.get(i), computedAll.getPresentValues().get(i))) {
+        assertEquals(pv.getCurrency(), expectedPv.getCurrency());
+        assertEquals(pv.getAmount(), expectedPv.getAmount(), NOTIONAL * TOL);
+      }
+      CurrencyParameterSensitivities expectedRatesParam = RATES_PROVIDER.parameterSensitivity(expectedRates);
+      assertTrue(RATES_PROVIDER.parameterSensitivity(computedRates.get(i).build())
+          .equalWithTolerance(expectedRatesParam, NOTIONAL * TOL));
+      assertTrue(RATES_PROVIDER.parameterSensitivity(computedAll.getRatesSensitivities().get(i))
+          .equalWithTolerance(expectedRatesParam, NOTIONAL * TOL));
+      assertTrue(computedVols.get(i).build().normalized()
+          .equalWithTolerance(expectedVols.normalized(), NOTIONAL * TOL));
+      assertTrue(computedAll.getVolatilitySensitivities().get(i).normalized()
+          .equalWithTolerance(expectedVols.normalized(), NOTIONAL * TOL));
+    }
+  }
+
+  public void test_batch_empty() {
+    List<ResolvedFxVanillaOption> options = ImmutableList.of();
+    assertEquals(PRICER.price(options, RATES_PROVIDER, VOLS), DoubleArray.EMPTY);
+    assertEquals(PRICER.presentValueAndSensitivities(options, RATES_PROVIDER, VOLS).getOptionCount(), 0);
+  }
+
+  // options with two expiries, in both directions of the currency pair, and an expired option
+  private static List<ResolvedFxVanillaOption> batchOptions() {
+    ImmutableList.Builder<ResolvedFxVanillaOption> builder = ImmutableList.builder();
+    ZonedDateTime expiryShort = ZonedDateTime.of(2012, 3, 13, 10, 0, 0, 0, ZONE);
+    LocalDate payShort = LocalDate.of(2012, 3, 15);
+    for (int i = 0; i < NB_STRIKES; ++i) {
+      builder.add(CALLS[i]).add(PUTS[i]);
+      ResolvedFxSingle underlyingShort = ResolvedFxSingle.of(
+          UNDERLYING[i].getBaseCurrencyPayment().getValue(),
+          UNDERLYING[i].getCounterCurrencyPayment().getValue(),
+          payShort);
+      builder.add(CALLS[i].toBuilder().expiry(expiryShort).underlying(underlyingShort).build());
+      builder.add(PUTS[i].toBuilder().expiry(expiryShort).underlying(underlyingShort.inverse()).build());
+    }
+    builder.add(CALLS[0].toBuilder().expiry(VAL_DATETIME.minusDays(1)).build());
+    return builder.build();
+  }
+
   public void regression_test() {
     double[] expected = new double[] {
       3.860405407112769E7, 3.0897699603079587E7, 2.3542824458812844E7, 1.6993448607300103E7, 1.1705393621236656E7,
@@ -0,0 +1,308 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.model;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.pricer.impl.rate.model.HullWhiteOneFactorLattice;
+import com.opengamma.strata.pricer.model.HullWhiteOneFactorPiecewiseConstantParameters;
+
+/**
+ * Test {@link HullWhiteOneFactorLattice}.
+ */
+@Test
+public class HullWhiteOneFactorLatticeTest {
+
+  private static final double MEAN_REVERSION = 0.01;
+  private static final DoubleArray VOLATILITY = DoubleArray.of(0.01, 0.011, 0.012, 0.013, 0.014);
+  private static final DoubleArray VOLATILITY_TIME = DoubleArray.of(0.5, 1.0, 2.0, 5.0);
+  private static final HullWhiteOneFactorPiecewiseConstantParameters MODEL_PARAMETERS =
+      HullWhiteOneFactorPiecewiseConstantParameters.of(MEAN_REVERSION, VOLATILITY, VOLATILITY_TIME);
+  private static final DoubleArray TIMES = DoubleArray.of(1d, 2.5d, 5d);
+  private static final double HORIZON = 10d;
+  private static final int STATES_PER_SIDE = 200;
+  private static final double STANDARD_DEVIATIONS = 8d;
+  private static final HullWhiteOneFactorLattice LATTICE =
+      HullWhiteOneFactorLattice.of(MODEL_PARAMETERS, HORIZON, STATES_PER_SIDE, STANDARD_DEVIATIONS);
+
+  private static final double TOL = 1.0e-14;
+  private static final double LATTICE_TOL = 1.0e-5;
+  private static final double FD_EPS = 1.0e-6;
+
+  //-------------------------------------------------------------------------
+  public void test_of() {
+    assertEquals(LATTICE.getParameters(), MODEL_PARAMETERS);
+    assertEquals(LATTICE.getHorizon(), HORIZON);
+    assertEquals(LATTICE.getStateCount(), 2 * STATES_PER_SIDE + 1);
+    DoubleArray states = LATTICE.getStates();
+    assertEquals(states.get(STATES_PER_SIDE), 0d);
+    assertEquals(states.get(2 * STATES_PER_SIDE), -states.get(0), TOL);
+    double deviation = Math.sqrt(LATTICE.variance(HORIZON));
+    assertEquals(states.get(2 * STATES_PER_SIDE), STANDARD_DEVIATIONS * deviation, TOL);
+    HullWhiteOneFactorLattice defaultLattice = HullWhiteOneFactorLattice.of(MODEL_PARAMETERS);
+    assertEquals(defaultLattice.getHorizon(), HullWhiteOneFactorLattice.DEFAULT_HORIZON);
+    assertEquals(defaultLattice.getStateCount(), 2 * HullWhiteOneFactorLattice.DEFAULT_STATES_PER_SIDE + 1);
+  }
+
+  public void test_variance() {
+    for (int i = 0; i < TIMES.size(); ++i) {
+      double time = TIMES.get(i);
+      double expected = 0d;
+      for (int j = 0; j < VOLATILITY.size(); ++j) {
+        double low = MODEL_PARAMETERS.getVolatilityTime().get(j);
+        double high = Math.min(time, MODEL_PARAMETERS.getVolatilityTime().get(j + 1));
+        if (high > low) {
+          expected += VOLATILITY.get(j) * VOLATILITY.get(j) *
+              (Math.exp(2d * MEAN_REVERSION * high) - Math.exp(2d * MEAN_REVERSION * low)) / (2d * MEAN_REVERSION);
+        }
+      }
+      assertEquals(LATTICE.variance(time), expected, TOL);
+    }
+  }
+
+  public void test_h() {
+    double expected = (Math.exp(-MEAN_REVERSION * HORIZON) - Math.exp(-MEAN_REVERSION * 7d)) / MEAN_REVERSION;
+    assertEquals(LATTICE.h(7d), expected, TOL);
+    assertEquals(LATTICE.h(HORIZON), 0d, TOL);
+  }
+
+  public void test_zeroMeanReversion() {
+    HullWhiteOneFactorPiecewiseConstantParameters parameters =
+        HullWhiteOneFactorPiecewiseConstantParameters.of(0d, VOLATILITY, VOLATILITY_TIME);
+    HullWhiteOneFactorLattice lattice =
+        HullWhiteOneFactorLattice.of(parameters, HORIZON, STATES_PER_SIDE, STANDARD_DEVIATIONS);
+    assertEquals(lattice.h(7d), 7d - HORIZON, TOL);
+    for (int i = 0; i < TIMES.size(); ++i) {
+      double time = TIMES.get(i);
+      double expected = 0d;
+      for (int j = 0; j < VOLATILITY.size(); ++j) {
+        double low = parameters.getVolatilityTime().get(j);
+        double high = Math.min(time, parameters.getVolatilityTime().get(j + 1));
+        if (high > low) {
+          expected += VOLATILITY.get(j) * VOLATILITY.get(j) * (high - low);
+        }
+      }
+      assertEquals(lattice.variance(time), expected, TOL);
+    }
+    // continuous in the mean reversion
+    HullWhiteOneFactorLattice small = HullWhiteOneFactorLattice.of(
+        HullWhiteOneFactorPiecewiseConstantParameters.of(1.0e-10, VOLATILITY, VOLATILITY_TIME),
+        HORIZON, STATES_PER_SIDE, STANDARD_DEVIATIONS);
+    assertEquals(small.h(7d), lattice.h(7d), 1.0e-8);
+    for (int i = 0; i < TIMES.size(); ++i) {
+      assertEquals(small.variance(TIMES.get(i)), lattice.variance(TIMES.get(i)), 1.0e-12);
+    }
+    // deflated bond prices remain martingales
+    double h = lattice.h(7d);
+    double[] states = lattice.getStates().toArray();
+    int last = TIMES.size() - 1;
+    double[] values = deflatedBond(h, states, lattice.variance(TIMES.get(last)));
+    for (int i = last; i > 0; --i) {
+      values = lattice.rollback(TIMES.get(i - 1), TIMES.get(i), values);
+    }
+    assertEquals(lattice.expectation(TIMES.get(0), values), 1d, LATTICE_TOL);
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_martingale() {
+    // the deflated bond prices divided by the discount factor are martingales
+    double h = LATTICE.h(7d);
+    double[] states = LATTICE.getStates().toArray();
+    int last = TIMES.size() - 1;
+    double[] values = deflatedBond(h, states, LATTICE.variance(TIMES.get(last)));
+    for (int i = last; i > 0; --i) {
+      values = LATTICE.rollback(TIMES.get(i - 1), TIMES.get(i), values);
+      double[] expected = deflatedBond(h, states, LATTICE.variance(TIMES.get(i - 1)));
+      int quarter = states.length / 4;
+      for (int k = quarter; k < states.length - quarter; ++k) {
+        assertEquals(values[k] / expected[k], 1d, LATTICE_TOL);
+      }
+    }
+    assertEquals(LATTICE.expectation(TIMES.get(0), values), 1d, LATTICE_TOL);
+    // directly from the last time
+    double[] valuesLast = deflatedBond(h, states, LATTICE.variance(TIMES.get(last)));
+    assertEquals(LATTICE.expectation(TIMES.get(last), valuesLast), 1d, LATTICE_TOL);
+  }
+
+  public void test_maximum() {
+    double[] states = LATTICE.getStates().toArray();
+    double[] bond = deflatedBond(LATTICE.h(7d), states, LATTICE.variance(TIMES.get(0)));
+    double[] first = new double[states.length];
+    double[] second = new double[states.length];
+    for (int k = 0; k < states.length; ++k) {
+      first[k] = bond[k] - 1d;
+      second[k] = 0.5 * (1d - bond[k]);
+    }
+    double[] computed = LATTICE.maximum(first, second);
+    int crossings = 0;
+    double adjustment = 0d;
+    double expected = 0d;
+    for (int k = 0; k < states.length; ++k) {
+      adjustment += computed[k] - Math.max(first[k], second[k]);
+      if (k < states.length - 1) {
+        double difference0 = first[k] - second[k];
+        double difference1 = first[k + 1] - second[k + 1];
+        if (difference0 * difference1 < 0d) {
+          // integral of the maximum between the states, less the one of the interpolated maximum
+          crossings++;
+          int nSteps = 100000;
+          for (int l = 0; l < nSteps; ++l) {
+            double s = (l + 0.5) / nSteps;
+            expected += Math.max(difference0 + s * (difference1 - difference0), 0d) / nSteps;
+          }
+          expected -= 0.5 * (Math.max(difference0, 0d) + Math.max(difference1, 0d));
+        } else if (computed[k] != Math.max(first[k], second[k])) {
+          // only the states around the crossing are adjusted
+          assertTrue(k > 0 && (first[k - 1] - second[k - 1]) * (first[k] - second[k]) < 0d);
+        }
+      }
+    }
+    assertEquals(crossings, 1);
+    assertEquals(adjustment, expected, 1.0e-12);
+  }
+
+  public void test_adjoint() {
+    double[] states = LATTICE.getStates().toArray();
+    double[] payoff = payoff(LATTICE, states);
+    int last = TIMES.size() - 1;
+    double[][] values = new double[TIMES.size()][];
+    values[last] = payoff;
+    for (int i = last; i > 0; --i) {
+      values[i - 1] = LATTICE.rollback(TIMES.get(i - 1), TIMES.get(i), values[i]);
+    }
+    double[] volatilityAdjoint = new double[VOLATILITY.size()];
+    double[] valuesAdjoint = LATTICE.expectationAdjoint(TIMES.get(0), values[0], 1d, volatilityAdjoint);
+    for (int i = 1; i <= last; ++i) {
+      valuesAdjoint =
+          LATTICE.rollbackAdjoint(TIMES.get(i - 1), TIMES.get(i), values[i], valuesAdjoint, volatilityAdjoint);
+    }
+    // sensitivity to the payoff values
+    for (int k = 0; k < states.length; k += 37) {
+      double[] bumped = payoff.clone();
+      bumped[k] += 1d;
+      assertEquals(valuesAdjoint[k], expectation(LATTICE, bumped) - expectation(LATTICE, payoff), 1.0e-12);
+    }
+    // sensitivity to the volatilities, through the transition weights, the states and the variance of the payoff
+    double h = LATTICE.h(7d);
+    double[] bond = deflatedBond(h, states, LATTICE.variance(TIMES.get(last)));
+    double[] optionAdjoint = new double[states.length];
+    LATTICE.maximumAdjoint(
+        intrinsic(bond), new double[states.length], valuesAdjoint, optionAdjoint, new double[states.length]);
+    double[] statesAdjoint = new double[states.length];
+    double varianceAdjoint = 0d;
+    for (int k = 0; k < states.length; ++k) {
+      statesAdjoint[k] = -h * bond[k] * optionAdjoint[k];
+      varianceAdjoint += -0.5 * h * h * bond[k] * optionAdjoint[k];
+    }
+    LATTICE.statesAdjoint(statesAdjoint, volatilityAdjoint);
+    LATTICE.varianceAdjoint(TIMES.get(last), varianceAdjoint, volatilityAdjoint);
+    for (int j = 0; j < VOLATILITY.size(); ++j) {
+      HullWhiteOneFactorLattice latticeUp = lattice(VOLATILITY.with(j, VOLATILITY.get(j) + FD_EPS));
+      HullWhiteOneFactorLattice latticeDw = lattice(VOLATILITY.with(j, VOLATILITY.get(j) - FD_EPS));
+      double expected = (expectation(latticeUp, payoff(latticeUp, latticeUp.getStates().toArray())) -
+          expectation(latticeDw, payoff(latticeDw, latticeDw.getStates().toArray()))) / (2d * FD_EPS);
+      assertEquals(volatilityAdjoint[j], expected, 1.0e-6);
+    }
+  }
+
+  public void test_maximumAdjoint() {
+    double[] states = LATTICE.getStates().toArray();
+    double[] first = deflatedBond(LATTICE.h(7d), states, LATTICE.variance(TIMES.get(0)));
+    double[] second = new double[states.length];
+    for (int k = 0; k < states.length; ++k) {
+      second[k] = 1d + 0.1 * states[k];
+    }
+    double[] resultAdjoint = new double[states.length];
+    for (int k = 0; k < states.length; ++k) {
+      resultAdjoint[k] = Math.sin(k);
+    }
+    double[] firstAdjoint = new double[states.length];
+    double[] secondAdjoint = new double[states.length];
+    LATTICE.maximumAdjoint(first, second, resultAdjoint, firstAdjoint, secondAdjoint);
+    double eps = 1.0e-8;
+    for (int k = 0; k < states.length; ++k) {
+      double[] firstUp = first.clone();
+      double[] firstDw = first.clone();
+      firstUp[k] += eps;
+      firstDw[k] -= eps;
+      double expectedFirst = (dot(LATTICE.maximum(firstUp, second), resultAdjoint) -
+          dot(LATTICE.maximum(firstDw, second), resultAdjoint)) / (2d * eps);
+      assertEquals(firstAdjoint[k], expectedFirst, 1.0e-6);
+      double[] secondUp = second.clone();
+      double[] secondDw = second.clone();
+      secondUp[k] += eps;
+      secondDw[k] -= eps;
+      double expectedSecond = (dot(LATTICE.maximum(first, secondUp), resultAdjoint) -
+          dot(LATTICE.maximum(first, secondDw), resultAdjoint)) / (2d * eps);
+      assertEquals(secondAdjoint[k], expectedSecond, 1.0e-6);
+    }
+  }
+
+  public void test_invalid() {
+    assertThrowsIllegalArg(() -> HullWhiteOneFactorLattice.of(MODEL_PARAMETERS, 0d, STATES_PER_SIDE, 8d));
+    assertThrowsIllegalArg(() -> HullWhiteOneFactorLattice.of(MODEL_PARAMETERS, HORIZON, 0, 8d));
+    assertThrowsIllegalArg(() -> HullWhiteOneFactorLattice.of(MODEL_PARAMETERS, HORIZON, STATES_PER_SIDE, 0d));
+    double[] values = new double[LATTICE.getStateCount()];
+    assertThrowsIllegalArg(() -> LATTICE.rollback(0d, 1d, values));
+    assertThrowsIllegalArg(() -> LATTICE.rollback(2d, 1d, values));
+    assertThrowsIllegalArg(() -> LATTICE.rollback(1d, HORIZON + 1d, values));
+    assertThrowsIllegalArg(() -> LATTICE.expectation(HORIZON + 1d, values));
+  }
+
+  //-------------------------------------------------------------------------
+  // the deflated bond price divided by the discount factor
+  private static double[] deflatedBond(double h, double[] states, double variance) {
+    double[] values = new double[states.length];
+    for (int k = 0; k < states.length; ++k) {
+      values[k] = Math.exp(-h * states[k] - 0.5 * h * h * variance);
+    }
+    return values;
+  }
+
+  // an option on a bond, at the last time
+  private static double[] payoff(HullWhiteOneFactorLattice lattice, double[] states) {
+    double[] bond = deflatedBond(lattice.h(7d), states, lattice.variance(TIMES.get(TIMES.size() - 1)));
+    return lattice.maximum(intrinsic(bond), new double[bond.length]);
+  }
+
+  // the intrinsic value of the option on the bond
+  private static double[] intrinsic(double[] bond) {
+    double[] intrinsic = new double[bond.length];
+    for (int k = 0; k < bond.length; ++k) {
+      intrinsic[k] = bond[k] - 1d;
+    }
+    return intrinsic;
+  }
+
+  // the expectation of the payoff at the last time
+  private static double expectation(HullWhiteOneFactorLattice lattice, double[] payoff) {
+    double[] values = payoff;
+    for (int i = TIMES.size() - 1; i > 0; --i) {
+      values = lattice.rollback(TIMES.get(i - 1), TIMES.get(i), values);
+    }
+    return lattice.expectation(TIMES.get(0), values);
+  }
+
+  // lattice with the volatilities
+  private static HullWhiteOneFactorLattice lattice(DoubleArray volatility) {
+    HullWhiteOneFactorPiecewiseConstantParameters parameters = MODEL_PARAMETERS.withVolatility(volatility);
+    return HullWhiteOneFactorLattice.of(parameters, HORIZON, STATES_PER_SIDE, STANDARD_DEVIATIONS);
+  }
+
+  private static double dot(double[] first, double[] second) {
+    double result = 0d;
+    for (int k = 0; k < first.length; ++k) {
+      result += first[k] * second[k];
+    }
+    return result;
+  }
+
+}
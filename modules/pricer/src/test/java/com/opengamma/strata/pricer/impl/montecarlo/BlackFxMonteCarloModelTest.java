@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.basics.currency.CurrencyPair;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.pricer.fx.RatesProviderFxDataSets;
+import com.opengamma.strata.pricer.fxopt.BlackFxOptionSmileVolatilities;
+import com.opengamma.strata.pricer.fxopt.FxVolatilitySmileDataSet;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+
+/**
+ * Test {@link BlackFxMonteCarloModel}.
+ */
+@Test
+public class BlackFxMonteCarloModelTest {
+
+  private static final LocalDate VAL_DATE = LocalDate.of(2011, 6, 13);
+  private static final ZonedDateTime VAL_DATE_TIME = VAL_DATE.atStartOfDay(ZoneOffset.UTC);
+  private static final RatesProvider RATES_PROVIDER = RatesProviderFxDataSets.createProviderEURUSD(VAL_DATE);
+  private static final BlackFxOptionSmileVolatilities VOLS =
+      FxVolatilitySmileDataSet.createVolatilitySmileProvider5(VAL_DATE_TIME);
+  private static final CurrencyPair EUR_USD = CurrencyPair.of(EUR, USD);
+  private static final DoubleArray TIMES = DoubleArray.of(0.25, 0.5, 0.75, 1d);
+  private static final double STRIKE = 1.45;
+
+  public void test_marketData() {
+    BlackFxMonteCarloModel test = BlackFxMonteCarloModel.of(EUR_USD, TIMES, STRIKE, RATES_PROVIDER, VOLS);
+    double spot = RATES_PROVIDER.fxRate(EUR_USD);
+    assertEquals(test.getSpot(), spot);
+    assertEquals(test.getTimes(), TIMES);
+    assertEquals(test.getPathSize(), 4);
+    assertEquals(test.getParameterCount(), 2);
+    double variance = 0d;
+    for (int k = 0; k < TIMES.size(); ++k) {
+      double time = TIMES.get(k);
+      double forward = RATES_PROVIDER.fxRate(EUR_USD) * RATES_PROVIDER.discountFactors(EUR).discountFactor(time) /
+          RATES_PROVIDER.discountFactors(USD).discountFactor(time);
+      assertEquals(test.getForwards().get(k), forward, 1.0e-12);
+      double dt = time - (k == 0 ? 0d : TIMES.get(k - 1));
+      variance += test.getVolatilities().get(k) * test.getVolatilities().get(k) * dt;
+      double vol = VOLS.volatility(EUR_USD, time, STRIKE, forward);
+      assertEquals(variance, vol * vol * time, 1.0e-12);
+    }
+  }
+
+  public void test_path() {
+    BlackFxMonteCarloModel test =
+        BlackFxMonteCarloModel.of(1.2, TIMES, DoubleArray.of(1.21, 1.22, 1.23, 1.24), DoubleArray.filled(4, 0.1));
+    double[] increments = new double[] {0.1, -0.2, 0.05, 0.3};
+    double[] path = new double[4];
+    test.path(increments, path);
+    double brownian = 0d;
+    for (int k = 0; k < 4; ++k) {
+      brownian += increments[k];
+      double expected = test.getForwards().get(k) * Math.exp(0.1 * brownian - 0.5 * 0.01 * TIMES.get(k));
+      assertEquals(path[k], expected, 1.0e-14);
+    }
+    // derivatives by finite difference
+    double shift = 1.0e-6;
+    double[][] derivatives = new double[2][4];
+    test.pathDerivatives(increments, path, derivatives);
+    BlackFxMonteCarloModel spotUp = BlackFxMonteCarloModel.of(
+        1.2 + shift, TIMES, test.getForwards().multipliedBy((1.2 + shift) / 1.2), test.getVolatilities());
+    BlackFxMonteCarloModel volUp = BlackFxMonteCarloModel.of(
+        1.2, TIMES, test.getForwards(), test.getVolatilities().plus(shift));
+    double[] pathSpotUp = new double[4];
+    double[] pathVolUp = new double[4];
+    spotUp.path(increments, pathSpotUp);
+    volUp.path(increments, pathVolUp);
+    for (int k = 0; k < 4; ++k) {
+      assertEquals(derivatives[0][k], (pathSpotUp[k] - path[k]) / shift, 1.0e-5);
+      assertEquals(derivatives[1][k], (pathVolUp[k] - path[k]) / shift, 1.0e-5);
+    }
+  }
+
+  public void test_invalid() {
+    assertThrowsIllegalArg(() -> BlackFxMonteCarloModel.of(
+        -1d, TIMES, DoubleArray.filled(4, 1d), DoubleArray.filled(4, 0.1)));
+    assertThrowsIllegalArg(() -> BlackFxMonteCarloModel.of(
+        1d, TIMES, DoubleArray.filled(3, 1d), DoubleArray.filled(4, 0.1)));
+    assertThrowsIllegalArg(() -> BlackFxMonteCarloModel.of(
+        1d, DoubleArray.of(1d, 0.5), DoubleArray.filled(2, 1d), DoubleArray.filled(2, 0.1)));
+  }
+
+}
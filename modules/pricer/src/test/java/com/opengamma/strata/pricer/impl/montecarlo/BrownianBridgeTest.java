@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.math.impl.random.SplittableNormalRandomNumberGenerator;
+
+/**
+ * Test {@link BrownianBridge}.
+ */
+@Test
+public class BrownianBridgeTest {
+
+  private static final DoubleArray TIMES = DoubleArray.of(0.1, 0.25, 0.5, 0.6, 1d, 1.5, 2.25);
+
+  public void test_lastValue() {
+    BrownianBridge bridge = new BrownianBridge(TIMES);
+    assertEquals(bridge.size(), TIMES.size());
+    double[] normals = new double[] {1.2, -0.3, 0.4, 0.7, -1.1, 0.2, 0.05};
+    double[] increments = new double[TIMES.size()];
+    bridge.increments(normals, increments);
+    double sum = 0d;
+    for (double increment : increments) {
+      sum += increment;
+    }
+    assertEquals(sum, Math.sqrt(TIMES.get(TIMES.size() - 1)) * normals[0], 1.0e-14);
+  }
+
+  public void test_covariance() {
+    // the increments are independent, with variance the time difference
+    BrownianBridge bridge = new BrownianBridge(TIMES);
+    SplittableNormalRandomNumberGenerator generator = SplittableNormalRandomNumberGenerator.of(1L);
+    int n = TIMES.size();
+    int nPaths = 200_000;
+    double[][] covariance = new double[n][n];
+    double[] normals = new double[n];
+    double[] increments = new double[n];
+    for (int p = 0; p < nPaths; ++p) {
+      generator.fill(normals);
+      bridge.increments(normals, increments);
+      for (int i = 0; i < n; ++i) {
+        for (int j = 0; j < n; ++j) {
+          covariance[i][j] += increments[i] * increments[j] / nPaths;
+        }
+      }
+    }
+    for (int i = 0; i < n; ++i) {
+      double dt = TIMES.get(i) - (i == 0 ? 0d : TIMES.get(i - 1));
+      for (int j = 0; j < n; ++j) {
+        assertEquals(covariance[i][j], i == j ? dt : 0d, 1.0e-2);
+      }
+    }
+  }
+
+  public void test_invalid() {
+    assertThrowsIllegalArg(() -> new BrownianBridge(DoubleArray.of()));
+    assertThrowsIllegalArg(() -> new BrownianBridge(DoubleArray.of(0d, 1d)));
+    assertThrowsIllegalArg(() -> new BrownianBridge(DoubleArray.of(1d, 1d)));
+  }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.date.DayCounts.ACT_365F;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.value.ValueDerivatives;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.curve.CurveName;
+import com.opengamma.strata.market.curve.Curves;
+import com.opengamma.strata.market.curve.InterpolatedNodalCurve;
+import com.opengamma.strata.market.curve.interpolator.CurveInterpolators;
+import com.opengamma.strata.pricer.DiscountFactors;
+import com.opengamma.strata.pricer.ZeroRateDiscountFactors;
+import com.opengamma.strata.pricer.impl.option.BlackFormulaRepository;
+import com.opengamma.strata.pricer.impl.rate.model.HullWhiteOneFactorPiecewiseConstantInterestRateModel;
+import com.opengamma.strata.pricer.model.HullWhiteOneFactorPiecewiseConstantParameters;
+
+/**
+ * Test {@link HullWhiteOneFactorMonteCarloModel}.
+ */
+@Test
+public class HullWhiteOneFactorMonteCarloModelTest {
+
+  private static final LocalDate VAL_DATE = LocalDate.of(2018, 3, 15);
+  private static final DiscountFactors DISCOUNT_FACTORS = ZeroRateDiscountFactors.of(EUR, VAL_DATE,
+      InterpolatedNodalCurve.of(Curves.zeroRates(CurveName.of("EUR-DSC"), ACT_365F),
+          DoubleArray.of(0.5, 1d, 2d, 5d), DoubleArray.of(0.01, 0.012, 0.015, 0.02), CurveInterpolators.LINEAR));
+  private static final HullWhiteOneFactorPiecewiseConstantParameters PARAMETERS =
+      HullWhiteOneFactorPiecewiseConstantParameters.of(
+          0.05, DoubleArray.of(0.008, 0.01, 0.012), DoubleArray.of(0.6, 2d));
+  private static final HullWhiteOneFactorPiecewiseConstantInterestRateModel HW =
+      HullWhiteOneFactorPiecewiseConstantInterestRateModel.DEFAULT;
+  private static final DoubleArray TIMES = DoubleArray.of(0.5, 1d);
+  private static final List<DoubleArray> MATURITIES = ImmutableList.of(DoubleArray.of(0.75), DoubleArray.of(2d, 3d));
+  private static final HullWhiteOneFactorMonteCarloModel MODEL =
+      HullWhiteOneFactorMonteCarloModel.of(PARAMETERS, TIMES, MATURITIES, DISCOUNT_FACTORS);
+  private static final MonteCarloEngine ENGINE = MonteCarloEngine.ofSobol(1 << 15);
+
+  public void test_of() {
+    assertEquals(MODEL.getTimes(), TIMES);
+    assertEquals(MODEL.getParameters(), PARAMETERS);
+    assertEquals(MODEL.getNumeraireTime(), 3d);
+    assertEquals(MODEL.getPathSize(), 5);
+    assertEquals(MODEL.getParameterCount(), 3);
+    assertEquals(MODEL.pathIndex(0, 1), 1);
+    assertEquals(MODEL.pathIndex(1, 0), 2);
+    assertEquals(MODEL.pathIndex(1, 2), 4);
+  }
+
+  public void test_martingale() {
+    // the deflated bond prices are martingales
+    double[] maturities = new double[] {0.5, 0.75, 1d, 2d, 3d};
+    for (int j = 0; j < maturities.length; ++j) {
+      int index = j;
+      double computed = ENGINE.price(MODEL, new LinearPayoff(index));
+      assertEquals(computed, DISCOUNT_FACTORS.discountFactor(maturities[j]), 1.0e-5);
+    }
+  }
+
+  public void test_bondOption() {
+    double strike = 0.97;
+    BondCallPayoff payoff = new BondCallPayoff(MODEL.pathIndex(1, 0), MODEL.pathIndex(1, 2), strike);
+    double df1 = DISCOUNT_FACTORS.discountFactor(1d);
+    double df3 = DISCOUNT_FACTORS.discountFactor(3d);
+    double alpha = Math.abs(HW.alpha(PARAMETERS, 0d, 1d, 3d, 1d));
+    double expected = strike * df3 * BlackFormulaRepository.price(df1 / df3, 1d / strike, 1d, alpha, false);
+    assertEquals(ENGINE.price(MODEL, payoff), expected, 1.0e-6);
+  }
+
+  public void test_pathwiseVega() {
+    double strike = 0.97;
+    BondCallPayoff payoff = new BondCallPayoff(MODEL.pathIndex(1, 0), MODEL.pathIndex(1, 2), strike);
+    ValueDerivatives computed = ENGINE.priceAdjoint(MODEL, payoff);
+    double shift = 1.0e-6;
+    for (int i = 0; i < PARAMETERS.getVolatility().size(); ++i) {
+      DoubleArray volUp = PARAMETERS.getVolatility().with(i, PARAMETERS.getVolatility().get(i) + shift);
+      DoubleArray volDw = PARAMETERS.getVolatility().with(i, PARAMETERS.getVolatility().get(i) - shift);
+      double priceUp = ENGINE.price(
+          HullWhiteOneFactorMonteCarloModel.of(PARAMETERS.withVolatility(volUp), TIMES, MATURITIES, DISCOUNT_FACTORS),
+          payoff);
+      double priceDw = ENGINE.price(
+          HullWhiteOneFactorMonteCarloModel.of(PARAMETERS.withVolatility(volDw), TIMES, MATURITIES, DISCOUNT_FACTORS),
+          payoff);
+      assertEquals(computed.getDerivative(i), 0.5 * (priceUp - priceDw) / shift, 1.0e-4);
+    }
+  }
+
+  public void test_invalid() {
+    assertThrowsIllegalArg(() -> HullWhiteOneFactorMonteCarloModel.of(
+        PARAMETERS, DoubleArray.of(1d), MATURITIES, DISCOUNT_FACTORS));
+    assertThrowsIllegalArg(() -> HullWhiteOneFactorMonteCarloModel.of(
+        PARAMETERS, DoubleArray.of(1d, 0.5), MATURITIES, DISCOUNT_FACTORS));
+    assertThrowsIllegalArg(() -> HullWhiteOneFactorMonteCarloModel.of(
+        PARAMETERS, DoubleArray.of(0.5, 2.5), MATURITIES, DISCOUNT_FACTORS));
+  }
+
+  //-------------------------------------------------------------------------
+  // payoff equal to a path value
+  private static final class LinearPayoff implements MonteCarloPayoff {
+    private final int index;
+
+    private LinearPayoff(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public double value(double[] path) {
+      return path[index];
+    }
+
+    @Override
+    public double valueAdjoint(double[] path, double[] pathBar) {
+      pathBar[index] = 1d;
+      return path[index];
+    }
+  }
+
+  // call on a zero-coupon bond, paid at expiry
+  private static final class BondCallPayoff implements MonteCarloPayoff {
+    private final int deflatorIndex;
+    private final int bondIndex;
+    private final double strike;
+
+    private BondCallPayoff(int deflatorIndex, int bondIndex, double strike) {
+      this.deflatorIndex = deflatorIndex;
+      this.bondIndex = bondIndex;
+      this.strike = strike;
+    }
+
+    @Override
+    public double value(double[] path) {
+      return Math.max(path[bondIndex] - strike * path[deflatorIndex], 0d);
+    }
+
+    @Override
+    public double valueAdjoint(double[] path, double[] pathBar) {
+      double value = value(path);
+      pathBar[bondIndex] = value > 0d ? 1d : 0d;
+      pathBar[deflatorIndex] = value > 0d ? -strike : 0d;
+      return value;
+    }
+  }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.basics.value.ValueDerivatives;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.math.impl.random.SobolSequenceGenerator;
+import com.opengamma.strata.pricer.impl.option.BlackFormulaRepository;
+
+/**
+ * Test {@link MonteCarloEngine}.
+ */
+@Test
+public class MonteCarloEngineTest {
+
+  private static final double SPOT = 1.2;
+  private static final double STRIKE = 1.25;
+  private static final double VOL = 0.15;
+  private static final double DF = 0.97;
+  private static final DoubleArray TIMES = DoubleArray.of(0.25, 0.5, 0.75, 1d);
+  private static final DoubleArray FORWARDS = DoubleArray.of(4, i -> SPOT * (1d + 0.01 * TIMES.get(i)));
+  private static final BlackFxMonteCarloModel MODEL =
+      BlackFxMonteCarloModel.of(SPOT, TIMES, FORWARDS, DoubleArray.filled(4, VOL));
+  private static final MonteCarloPayoff CALL = new MonteCarloPayoff() {
+    @Override
+    public double value(double[] path) {
+      return DF * Math.max(path[3] - STRIKE, 0d);
+    }
+
+    @Override
+    public double valueAdjoint(double[] path, double[] pathBar) {
+      pathBar[0] = 0d;
+      pathBar[1] = 0d;
+      pathBar[2] = 0d;
+      pathBar[3] = path[3] > STRIKE ? DF : 0d;
+      return value(path);
+    }
+  };
+  private static final double PRICE = DF * BlackFormulaRepository.price(FORWARDS.get(3), STRIKE, 1d, VOL, true);
+
+  public void test_of() {
+    MonteCarloEngine test = MonteCarloEngine.ofPseudoRandom(1000, 7L);
+    assertEquals(test.getSequenceType(), MonteCarloSequenceType.PSEUDO_RANDOM);
+    assertEquals(test.getNumberOfPaths(), 1000);
+    assertFalse(test.isAntithetic());
+    assertFalse(test.isBrownianBridge());
+    MonteCarloEngine sobol = MonteCarloEngine.ofSobol(1000).withAntithetic(true).withBlockSize(100);
+    assertEquals(sobol.getSequenceType(), MonteCarloSequenceType.SOBOL);
+    assertTrue(sobol.isAntithetic());
+    assertTrue(sobol.isBrownianBridge());
+    assertEquals(sobol.getBlockSize(), 100);
+  }
+
+  public void test_pseudoRandom() {
+    MonteCarloEngine engine = MonteCarloEngine.ofPseudoRandom(100_000, 1L).withAntithetic(true);
+    assertEquals(engine.price(MODEL, CALL), PRICE, 2.0e-4);
+  }
+
+  public void test_sobol() {
+    MonteCarloEngine engine = MonteCarloEngine.ofSobol(1 << 15);
+    assertEquals(engine.price(MODEL, CALL), PRICE, 1.0e-4);
+    MonteCarloEngine engineNoBridge = engine.withBrownianBridge(false);
+    assertEquals(engineNoBridge.price(MODEL, CALL), PRICE, 2.0e-4);
+  }
+
+  public void test_pathwiseGreeks() {
+    MonteCarloEngine engine = MonteCarloEngine.ofSobol(1 << 15);
+    ValueDerivatives computed = engine.priceAdjoint(MODEL, CALL);
+    assertEquals(computed.getValue(), engine.price(MODEL, CALL), 1.0e-14);
+    double forwardRatio = FORWARDS.get(3) / SPOT;
+    double delta = DF * forwardRatio * BlackFormulaRepository.delta(FORWARDS.get(3), STRIKE, 1d, VOL, true);
+    double vega = DF * BlackFormulaRepository.vega(FORWARDS.get(3), STRIKE, 1d, VOL);
+    assertEquals(computed.getDerivative(0), delta, 1.0e-3);
+    assertEquals(computed.getDerivative(1), vega, 1.0e-3);
+  }
+
+  public void test_threadIndependence() throws Exception {
+    // the parallel streams run in the pool of the calling task, thus the pools set the parallelism
+    MonteCarloEngine engine = MonteCarloEngine.ofPseudoRandom(10_000, 3L).withBlockSize(100);
+    MonteCarloEngine sobol = MonteCarloEngine.ofSobol(10_000).withBlockSize(100);
+    ForkJoinPool singleThread = new ForkJoinPool(1);
+    ForkJoinPool multiThread = new ForkJoinPool(4);
+    try {
+      double price = singleThread.submit(() -> engine.price(MODEL, CALL)).get();
+      ValueDerivatives priceAdjoint = singleThread.submit(() -> engine.priceAdjoint(MODEL, CALL)).get();
+      double sobolPrice = singleThread.submit(() -> sobol.price(MODEL, CALL)).get();
+      for (int i = 0; i < 5; ++i) {
+        double multiThreadPrice = multiThread.submit(() -> engine.price(MODEL, CALL)).get();
+        double multiThreadSobolPrice = multiThread.submit(() -> sobol.price(MODEL, CALL)).get();
+        assertEquals(multiThreadPrice, price);
+        assertEquals(multiThread.submit(() -> engine.priceAdjoint(MODEL, CALL)).get(), priceAdjoint);
+        assertEquals(multiThreadSobolPrice, sobolPrice);
+      }
+      assertEquals(engine.price(MODEL, CALL), price);
+    } finally {
+      singleThread.shutdown();
+      multiThread.shutdown();
+    }
+    // Sobol points do not depend on the block size
+    assertEquals(sobol.withBlockSize(77).price(MODEL, CALL), sobol.price(MODEL, CALL), 1.0e-12);
+  }
+
+  public void test_sobolDimension() {
+    int nSteps = SobolSequenceGenerator.MAX_DIMENSION + 1;
+    DoubleArray times = DoubleArray.of(nSteps, i -> 0.1 * (i + 1));
+    BlackFxMonteCarloModel model =
+        BlackFxMonteCarloModel.of(SPOT, times, DoubleArray.filled(nSteps, SPOT), DoubleArray.filled(nSteps, VOL));
+    assertThrowsIllegalArg(() -> MonteCarloEngine.ofSobol(100).price(model, CALL));
+  }
+
+}
@@ -82,4 +82,47 @@ public class TrinomialTreeTest {
     }
   }
 
+  /**
+   * Test batch pricing is consistent with pricing individual options.
+   */
+  public void test_trinomialTree_batch() {
+    int nSteps = 95;
+    double dt = TIME / nSteps;
+    LatticeSpecification lattice = new CoxRossRubinsteinLatticeSpecification();
+    double interest = INTERESTS[2];
+    double dividend = DIVIDENDS[1];
+    double[] params = lattice.getParametersTrinomial(VOLS[1], interest - dividend, dt).toArray();
+    DoubleArray time = DoubleArray.of(nSteps + 1, i -> dt * i);
+    DoubleArray df = DoubleArray.of(nSteps, i -> Math.exp(-interest * dt));
+    double[][] stateValue = new double[nSteps + 1][];
+    stateValue[0] = new double[] {SPOT };
+    List<DoubleMatrix> prob = new ArrayList<DoubleMatrix>();
+    double[] probs = new double[] {params[5], params[4], params[3] };
+    for (int i = 0; i < nSteps; ++i) {
+      int index = i;
+      stateValue[i + 1] = DoubleArray.of(2 * i + 3,
+          j -> SPOT * Math.pow(params[2], index + 1 - j) * Math.pow(params[1], j)).toArray();
+      double[][] probMatrix = new double[2 * i + 1][];
+      Arrays.fill(probMatrix, probs);
+      prob.add(DoubleMatrix.ofUnsafe(probMatrix));
+    }
+    RecombiningTrinomialTreeData treeData =
+        RecombiningTrinomialTreeData.of(DoubleMatrix.ofUnsafe(stateValue), prob, df, time);
+    // enough functions to trigger the parallel computation of wide layers
+    List<OptionFunction> functions = new ArrayList<>();
+    for (int k = 0; k < 20; ++k) {
+      for (double strike : STRIKES) {
+        functions.add(EuropeanVanillaOptionFunction.of(strike + k, TIME, PutCall.ofPut(k % 2 == 0), nSteps));
+      }
+    }
+    DoubleArray prices = TRINOMIAL_TREE.optionPrice(functions, treeData);
+    List<ValueDerivatives> priceDerivs = TRINOMIAL_TREE.optionPriceAdjoint(functions, treeData);
+    assertEquals(prices.size(), functions.size());
+    assertEquals(priceDerivs.size(), functions.size());
+    for (int k = 0; k < functions.size(); ++k) {
+      assertEquals(prices.get(k), TRINOMIAL_TREE.optionPrice(functions.get(k), treeData));
+      assertEquals(priceDerivs.get(k), TRINOMIAL_TREE.optionPriceAdjoint(functions.get(k), treeData));
+    }
+  }
+
 }
@@ -170,4 +170,31 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculatorTest {
     }
   }
 
+  public void parallelTest() {
+    Function<Double, Double> interestRate = new Function<Double, Double>() {
+      @Override
+      public Double apply(Double x) {
+        return 0.03d;
+      }
+    };
+    Function<Double, Double> dividendRate = new Function<Double, Double>() {
+      @Override
+      public Double apply(Double x) {
+        return 0.01d;
+      }
+    };
+    ImpliedTrinomialTreeLocalVolatilityCalculator calc =
+        new ImpliedTrinomialTreeLocalVolatilityCalculator(28, 1.45d, INTERP_LINEAR);
+    InterpolatedNodalSurface expectedVol =
+        calc.localVolatilityFromImpliedVolatility(VOL_SURFACE, SPOT, interestRate, dividendRate);
+    InterpolatedNodalSurface computedVol =
+        calc.parallel().localVolatilityFromImpliedVolatility(VOL_SURFACE, SPOT, interestRate, dividendRate);
+    assertEquals(computedVol, expectedVol);
+    InterpolatedNodalSurface expectedPrice =
+        calc.localVolatilityFromPrice(PRICE_SURFACE, SPOT, interestRate, dividendRate);
+    InterpolatedNodalSurface computedPrice =
+        calc.parallel().localVolatilityFromPrice(PRICE_SURFACE, SPOT, interestRate, dividendRate);
+    assertEquals(computedPrice, expectedPrice);
+  }
+
 }
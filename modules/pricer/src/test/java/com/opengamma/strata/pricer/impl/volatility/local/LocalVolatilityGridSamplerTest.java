@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.volatility.local;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.market.curve.interpolator.CurveExtrapolators.INTERPOLATOR;
+import static com.opengamma.strata.market.curve.interpolator.CurveInterpolators.LINEAR;
+import static com.opengamma.strata.market.curve.interpolator.CurveInterpolators.NATURAL_SPLINE;
+import static org.testng.Assert.assertEquals;
+
+import java.util.function.Function;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.surface.DefaultSurfaceMetadata;
+import com.opengamma.strata.market.surface.DeformedSurface;
+import com.opengamma.strata.market.surface.InterpolatedNodalSurface;
+import com.opengamma.strata.market.surface.interpolator.GridSurfaceInterpolator;
+
+/**
+ * Test {@link LocalVolatilityGridSampler}.
+ */
+@Test
+public class LocalVolatilityGridSamplerTest {
+
+  private static final GridSurfaceInterpolator INTERP_CUBIC = GridSurfaceInterpolator.of(
+      NATURAL_SPLINE, INTERPOLATOR, NATURAL_SPLINE, INTERPOLATOR);
+  private static final DoubleArray TIMES =
+      DoubleArray.of(0.25, 0.25, 0.25, 0.5, 0.5, 0.5, 0.75, 0.75, 0.75, 1, 1, 1);
+  private static final DoubleArray STRIKES =
+      DoubleArray.of(0.8, 1.4, 2, 0.8, 1.4, 2, 0.8, 1.4, 2, 0.8, 1.4, 2);
+  private static final DoubleArray VOLS =
+      DoubleArray.of(0.21, 0.17, 0.185, 0.17, 0.15, 0.16, 0.15, 0.14, 0.14, 0.14, 0.13, 0.13);
+  private static final InterpolatedNodalSurface VOL_SURFACE =
+      InterpolatedNodalSurface.ofUnsorted(DefaultSurfaceMetadata.of("Test"), TIMES, STRIKES, VOLS, INTERP_CUBIC);
+  private static final double SPOT = 1.40;
+  private static final Function<Double, Double> INTEREST_RATE = new Function<Double, Double>() {
+    @Override
+    public Double apply(Double x) {
+      return 0.03d;
+    }
+  };
+  private static final Function<Double, Double> DIVIDEND_RATE = new Function<Double, Double>() {
+    @Override
+    public Double apply(Double x) {
+      return 0.01d;
+    }
+  };
+  private static final double TOL = 1.0e-14;
+
+  public void test_sample() {
+    DeformedSurface localVol = new DupireLocalVolatilityCalculator()
+        .localVolatilityFromImpliedVolatility(VOL_SURFACE, SPOT, INTEREST_RATE, DIVIDEND_RATE);
+    DoubleArray times = DoubleArray.of(0.3, 0.6, 0.9);
+    DoubleArray strikes = DoubleArray.of(1.0, 1.2, 1.4, 1.6);
+    InterpolatedNodalSurface computed = LocalVolatilityGridSampler.sample(localVol, times, strikes);
+    assertEquals(computed.getName(), localVol.getName());
+    assertEquals(computed.getParameterCount(), times.size() * strikes.size());
+    assertEquals(computed.getInterpolator(), GridSurfaceInterpolator.of(LINEAR, LINEAR));
+    // nodes
+    for (int i = 0; i < times.size(); ++i) {
+      for (int j = 0; j < strikes.size(); ++j) {
+        double expected = localVol.zValue(times.get(i), strikes.get(j));
+        assertEquals(computed.zValue(times.get(i), strikes.get(j)), expected, TOL);
+      }
+    }
+    // bilinear interpolation between nodes
+    double weightTime = (0.4 - 0.3) / (0.6 - 0.3);
+    double weightStrike = (1.25 - 1.2) / (1.4 - 1.2);
+    double expected = (1d - weightTime) * (1d - weightStrike) * localVol.zValue(0.3, 1.2) +
+        (1d - weightTime) * weightStrike * localVol.zValue(0.3, 1.4) +
+        weightTime * (1d - weightStrike) * localVol.zValue(0.6, 1.2) +
+        weightTime * weightStrike * localVol.zValue(0.6, 1.4);
+    assertEquals(computed.zValue(0.4, 1.25), expected, 1.0e-12);
+    // flat extrapolation
+    assertEquals(computed.zValue(1.5, 2.0), localVol.zValue(0.9, 1.6), TOL);
+  }
+
+  public void test_sample_uniform() {
+    ImpliedTrinomialTreeLocalVolatilityCalculator calc = new ImpliedTrinomialTreeLocalVolatilityCalculator(
+        20, 1d, GridSurfaceInterpolator.of(LINEAR, LINEAR));
+    InterpolatedNodalSurface localVol =
+        calc.localVolatilityFromImpliedVolatility(VOL_SURFACE, SPOT, INTEREST_RATE, DIVIDEND_RATE);
+    InterpolatedNodalSurface computed = LocalVolatilityGridSampler.sample(localVol, 5, 7);
+    assertEquals(computed.getParameterCount(), 35);
+    assertEquals(computed.getXValues().get(0), localVol.getXValues().min());
+    assertEquals(computed.getXValues().get(34), localVol.getXValues().max());
+    assertEquals(computed.getYValues().get(0), localVol.getYValues().min());
+    assertEquals(computed.getYValues().get(34), localVol.getYValues().max());
+    for (int k = 0; k < computed.getParameterCount(); ++k) {
+      double expected = localVol.zValue(computed.getXValues().get(k), computed.getYValues().get(k));
+      assertEquals(computed.getZValues().get(k), expected, TOL);
+    }
+  }
+
+  public void test_invalid() {
+    DoubleArray single = DoubleArray.of(0.5);
+    DoubleArray times = DoubleArray.of(0.5, 1.0);
+    assertThrowsIllegalArg(() -> LocalVolatilityGridSampler.sample(VOL_SURFACE, single, times));
+    assertThrowsIllegalArg(() -> LocalVolatilityGridSampler.sample(VOL_SURFACE, times, single));
+    assertThrowsIllegalArg(() -> LocalVolatilityGridSampler.sample(VOL_SURFACE, 1, 5));
+  }
+
+}
@@ -257,6 +257,21 @@ public class CurveGammaCalculatorCrossGammaTest {
     assertFalse(priceIndexSensi.isPresent());
   }
 
+  public void sensitivity_parallel() {
+    for (CurveGammaCalculator calculator : new CurveGammaCalculator[] {FORWARD, CENTRAL, BACKWARD}) {
+      CrossGammaParameterSensitivities intra =
+          calculator.calculateCrossGammaIntraCurve(RatesProviderDataSets.MULTI_CPI_USD, this::sensiFn);
+      CrossGammaParameterSensitivities intraParallel =
+          calculator.parallel().calculateCrossGammaIntraCurve(RatesProviderDataSets.MULTI_CPI_USD, this::sensiFn);
+      assertEquals(intraParallel, intra);
+      CrossGammaParameterSensitivities cross =
+          calculator.calculateCrossGammaCrossCurve(RatesProviderDataSets.MULTI_CPI_USD, this::sensiFn);
+      CrossGammaParameterSensitivities crossParallel =
+          calculator.parallel().calculateCrossGammaCrossCurve(RatesProviderDataSets.MULTI_CPI_USD, this::sensiFn);
+      assertEquals(crossParallel, cross);
+    }
+  }
+
   // test diagonal part against finite difference approximation computed from pv
   public void swap_exampleTest() {
     LocalDate start = LocalDate.of(2014, 3, 10);
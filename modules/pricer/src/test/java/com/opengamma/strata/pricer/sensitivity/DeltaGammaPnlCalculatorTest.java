@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.sensitivity;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.basics.date.DayCounts.ACT_365F;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.FxRate;
+import com.opengamma.strata.basics.currency.Payment;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.data.scenario.MarketDataBox;
+import com.opengamma.strata.data.scenario.ScenarioPerturbation;
+import com.opengamma.strata.market.ShiftType;
+import com.opengamma.strata.market.curve.Curve;
+import com.opengamma.strata.market.curve.CurveName;
+import com.opengamma.strata.market.curve.CurveParallelShifts;
+import com.opengamma.strata.market.curve.Curves;
+import com.opengamma.strata.market.curve.InterpolatedNodalCurve;
+import com.opengamma.strata.market.curve.interpolator.CurveInterpolators;
+import com.opengamma.strata.market.param.CrossGammaParameterSensitivities;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
+import com.opengamma.strata.market.param.LabelParameterMetadata;
+import com.opengamma.strata.market.param.ParameterMetadata;
+import com.opengamma.strata.market.param.ParameterizedData;
+import com.opengamma.strata.market.param.PointShifts;
+import com.opengamma.strata.market.param.PointShiftsBuilder;
+import com.opengamma.strata.pricer.DiscountingPaymentPricer;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+
+/**
+ * Test {@link DeltaGammaPnlCalculator}.
+ */
+@Test
+public class DeltaGammaPnlCalculatorTest {
+
+  private static final LocalDate VAL_DATE = date(2018, 6, 1);
+  private static final CurveName CURVE_NAME = CurveName.of("USD-Disc");
+  private static final DoubleArray TIMES = DoubleArray.of(0.5, 1, 2, 5, 10);
+  private static final List<ParameterMetadata> NODES = ImmutableList.of(
+      LabelParameterMetadata.of("6M"),
+      LabelParameterMetadata.of("1Y"),
+      LabelParameterMetadata.of("2Y"),
+      LabelParameterMetadata.of("5Y"),
+      LabelParameterMetadata.of("10Y"));
+  private static final InterpolatedNodalCurve CURVE = InterpolatedNodalCurve.of(
+      Curves.zeroRates(CURVE_NAME, ACT_365F, NODES),
+      TIMES,
+      DoubleArray.of(0.01, 0.012, 0.016, 0.022, 0.027),
+      CurveInterpolators.LINEAR);
+  private static final RatesProvider PROVIDER = provider(CURVE);
+  private static final List<Payment> PAYMENTS = ImmutableList.of(
+      Payment.of(USD, 1_000_000, date(2019, 6, 3)),
+      Payment.of(USD, -2_500_000, date(2021, 3, 15)),
+      Payment.of(USD, 4_000_000, date(2027, 12, 1)));
+  private static final DiscountingPaymentPricer PRICER = DiscountingPaymentPricer.DEFAULT;
+  private static final CurveGammaCalculator GAMMA_CALCULATOR = CurveGammaCalculator.ofCentralDifference(1e-4);
+  private static final int SCENARIO_COUNT = 200;
+
+  private static RatesProvider provider(Curve curve) {
+    return ImmutableRatesProvider.builder(VAL_DATE).discountCurve(USD, curve).build();
+  }
+
+  private static double presentValue(RatesProvider provider) {
+    return PAYMENTS.stream().mapToDouble(payment -> PRICER.presentValue(payment, provider).getAmount()).sum();
+  }
+
+  private static CurrencyParameterSensitivities sensitivity(RatesProvider provider) {
+    return PAYMENTS.stream()
+        .map(payment -> provider.parameterSensitivity(PRICER.presentValueSensitivity(payment, provider).build()))
+        .reduce(CurrencyParameterSensitivities.empty(), CurrencyParameterSensitivities::combinedWith);
+  }
+
+  private static PointShifts pointShifts() {
+    Random random = new Random(1);
+    PointShiftsBuilder builder = PointShifts.builder(ShiftType.ABSOLUTE);
+    for (int s = 0; s < SCENARIO_COUNT; s++) {
+      for (ParameterMetadata node : NODES) {
+        builder.addShift(s, node.getIdentifier(), random.nextGaussian() * 0.002);
+      }
+    }
+    return builder.build();
+  }
+
+  // the P&L of a scenario by full revaluation
+  private static double fullRevaluationPnl(ScenarioPerturbation<ParameterizedData> perturbation, int scenarioIndex) {
+    MarketDataBox<ParameterizedData> shifted =
+        perturbation.applyTo(MarketDataBox.ofSingleValue(CURVE), ReferenceData.empty());
+    return presentValue(provider((Curve) shifted.getValue(scenarioIndex))) - presentValue(PROVIDER);
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_of() {
+    CurrencyParameterSensitivities delta = sensitivity(PROVIDER);
+    DeltaGammaPnlCalculator test = DeltaGammaPnlCalculator.of(delta);
+    assertEquals(test.getCurrency(), USD);
+    assertEquals(test.getMarketDataNames(), ImmutableList.of(CURVE_NAME));
+    assertEquals(test.getParameterCount(), 5);
+    assertEquals(test.getDelta(), delta.getSensitivity(CURVE_NAME, USD).getSensitivity());
+    assertEquals(test.getGamma(), DoubleMatrix.filled(5, 5));
+    assertTrue(test.toString().contains("secondOrder=false"));
+  }
+
+  public void test_of_gamma() {
+    CrossGammaParameterSensitivities gamma =
+        GAMMA_CALCULATOR.calculateCrossGammaIntraCurve(PROVIDER, DeltaGammaPnlCalculatorTest::sensitivity);
+    DeltaGammaPnlCalculator test = DeltaGammaPnlCalculator.of(sensitivity(PROVIDER), gamma);
+    assertEquals(test.getGamma(), gamma.getSensitivity(CURVE_NAME, USD).getSensitivity());
+    assertTrue(test.toString().contains("secondOrder=true"));
+  }
+
+  public void test_of_invalid() {
+    CurrencyParameterSensitivities delta = sensitivity(PROVIDER);
+    assertThrowsIllegalArg(() -> DeltaGammaPnlCalculator.of(CurrencyParameterSensitivities.empty()));
+    assertThrowsIllegalArg(() -> DeltaGammaPnlCalculator.of(
+        delta.combinedWith(delta.convertedTo(EUR, FxRate.of(USD, EUR, 0.8)))));
+  }
+
+  public void test_parameterChanges() {
+    DeltaGammaPnlCalculator test = DeltaGammaPnlCalculator.of(sensitivity(PROVIDER));
+    PointShifts points = PointShifts.builder(ShiftType.RELATIVE)
+        .addShift(0, "2Y", 0.1)
+        .addShift(1, "10Y", -0.1)
+        .build();
+    DoubleMatrix changes =
+        test.parameterChanges(ImmutableMap.of(CURVE_NAME, CURVE), ImmutableMap.of(CURVE_NAME, points));
+    assertEquals(changes.rowCount(), 2);
+    assertEquals(changes.get(0, 2), 0.0016, 1e-15);
+    assertEquals(changes.get(0, 0), 0d, 0d);
+    assertEquals(changes.get(1, 4), -0.0027, 1e-15);
+    CurveParallelShifts parallel = CurveParallelShifts.absolute(0.001, -0.002);
+    DoubleMatrix parallelChanges =
+        test.parameterChanges(ImmutableMap.of(CURVE_NAME, CURVE), ImmutableMap.of(CURVE_NAME, parallel));
+    assertEquals(parallelChanges.get(0, 3), 0.001, 1e-15);
+    assertEquals(parallelChanges.get(1, 0), -0.002, 1e-15);
+    // perturbations of market data without sensitivity are ignored
+    DoubleMatrix ignored = test.parameterChanges(
+        ImmutableMap.of(CURVE_NAME, CURVE), ImmutableMap.of(CurveName.of("Other"), parallel));
+    assertEquals(ignored, DoubleMatrix.filled(2, 5));
+  }
+
+  public void test_parameterChanges_invalid() {
+    DeltaGammaPnlCalculator test = DeltaGammaPnlCalculator.of(sensitivity(PROVIDER));
+    Map<CurveName, Curve> base = ImmutableMap.of(CURVE_NAME, CURVE);
+    assertThrowsIllegalArg(() -> test.parameterChanges(base, ImmutableMap.of()));
+    assertThrowsIllegalArg(() -> test.parameterChanges(
+        ImmutableMap.of(), ImmutableMap.of(CURVE_NAME, CurveParallelShifts.absolute(0.001))));
+    assertThrowsIllegalArg(() -> test.parameterChanges(
+        base,
+        ImmutableMap.of(CURVE_NAME, CurveParallelShifts.absolute(0.001), CurveName.of("Other"), pointShifts())));
+  }
+
+  public void test_pnl_firstOrder() {
+    DeltaGammaPnlCalculator test = DeltaGammaPnlCalculator.of(sensitivity(PROVIDER));
+    DoubleMatrix changes = DoubleMatrix.of(2, 5,
+        0.0001, 0, 0, 0, 0,
+        0, 0.0002, 0, -0.0003, 0);
+    DoubleArray pnl = test.pnl(changes);
+    DoubleArray delta = test.getDelta();
+    assertEquals(pnl.get(0), 0.0001 * delta.get(0), 1e-10);
+    assertEquals(pnl.get(1), 0.0002 * delta.get(1) - 0.0003 * delta.get(3), 1e-10);
+    assertThrowsIllegalArg(() -> test.pnl(DoubleMatrix.filled(1, 4)));
+  }
+
+  public void test_pnl_secondOrder() {
+    CrossGammaParameterSensitivities gamma =
+        GAMMA_CALCULATOR.calculateCrossGammaIntraCurve(PROVIDER, DeltaGammaPnlCalculatorTest::sensitivity);
+    DeltaGammaPnlCalculator test = DeltaGammaPnlCalculator.of(sensitivity(PROVIDER), gamma);
+    DoubleMatrix changes = DoubleMatrix.of(1, 5, 0.001, 0, 0.002, 0, -0.001);
+    DoubleArray dp = changes.row(0);
+    double expected = dp.multipliedBy(test.getDelta()).sum();
+    DoubleMatrix g = test.getGamma();
+    for (int i = 0; i < 5; i++) {
+      for (int j = 0; j < 5; j++) {
+        expected += 0.5 * dp.get(i) * g.get(i, j) * dp.get(j);
+      }
+    }
+    assertEquals(test.pnl(changes).get(0), expected, 1e-8);
+  }
+
+  public void test_approximationError() {
+    CurrencyParameterSensitivities delta = sensitivity(PROVIDER);
+    CrossGammaParameterSensitivities gamma =
+        GAMMA_CALCULATOR.calculateCrossGammaIntraCurve(PROVIDER, DeltaGammaPnlCalculatorTest::sensitivity);
+    PointShifts shifts = pointShifts();
+    Map<CurveName, Curve> base = ImmutableMap.of(CURVE_NAME, CURVE);
+    Map<CurveName, PointShifts> perturbations = ImmutableMap.of(CURVE_NAME, shifts);
+
+    DeltaGammaPnlCalculator firstOrder = DeltaGammaPnlCalculator.of(delta);
+    DeltaGammaPnlCalculator secondOrder = DeltaGammaPnlCalculator.of(delta, gamma);
+    DoubleArray firstOrderPnl = firstOrder.pnl(firstOrder.parameterChanges(base, perturbations));
+    DoubleArray secondOrderPnl = secondOrder.pnl(secondOrder.parameterChanges(base, perturbations));
+    assertEquals(secondOrderPnl.size(), SCENARIO_COUNT);
+
+    PnlApproximationError firstOrderError =
+        firstOrder.approximationError(firstOrderPnl, 20, s -> fullRevaluationPnl(shifts, s));
+    PnlApproximationError secondOrderError =
+        secondOrder.approximationError(secondOrderPnl, 20, s -> fullRevaluationPnl(shifts, s));
+    assertTrue(secondOrderError.getSampleSize() >= 19 && secondOrderError.getSampleSize() <= 20);
+    assertTrue(secondOrderError.getScenarioIndices().contains(secondOrderPnl.indexOf(secondOrderPnl.min())));
+    assertTrue(secondOrderError.getRelativeRootMeanSquareError() < 1e-3);
+    assertTrue(secondOrderError.getMaxAbsoluteError() < firstOrderError.getMaxAbsoluteError());
+    assertTrue(secondOrderError.getRootMeanSquareError() < firstOrderError.getRootMeanSquareError());
+  }
+
+  public void test_approximationError_sample() {
+    DeltaGammaPnlCalculator test = DeltaGammaPnlCalculator.of(sensitivity(PROVIDER));
+    DoubleArray pnl = DoubleArray.of(5d, 3d, -7d, 1d);
+    PnlApproximationError error = test.approximationError(pnl, 1, s -> pnl.get(s) + 1d);
+    assertEquals(error.getScenarioIndices().toArray(), new int[] {2});
+    assertEquals(error.getMeanError(), -1d, 0d);
+    PnlApproximationError all = test.approximationError(pnl, 10, s -> pnl.get(s));
+    assertEquals(all.getScenarioIndices().toArray(), new int[] {0, 1, 2, 3});
+    assertEquals(all.getMaxAbsoluteError(), 0d, 0d);
+    assertThrowsIllegalArg(() -> test.approximationError(DoubleArray.EMPTY, 1, s -> 0d));
+    assertThrowsIllegalArg(() -> test.approximationError(pnl, 0, s -> 0d));
+  }
+
+}
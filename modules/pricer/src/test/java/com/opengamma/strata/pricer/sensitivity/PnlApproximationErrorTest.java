@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.sensitivity;
+
+import static com.opengamma.strata.collect.TestHelper.assertSerialization;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.collect.TestHelper.coverBeanEquals;
+import static com.opengamma.strata.collect.TestHelper.coverImmutableBean;
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.IntArray;
+
+/**
+ * Test {@link PnlApproximationError}.
+ */
+@Test
+public class PnlApproximationErrorTest {
+
+  private static final double TOL = 1e-12;
+
+  public void test_of() {
+    PnlApproximationError test = PnlApproximationError.of(
+        IntArray.of(0, 5, 9), DoubleArray.of(10d, -20d, 3d), DoubleArray.of(12d, -18d, 2d));
+    assertEquals(test.getScenarioIndices(), IntArray.of(0, 5, 9));
+    assertEquals(test.getApproximatePnl(), DoubleArray.of(10d, -20d, 3d));
+    assertEquals(test.getFullRevaluationPnl(), DoubleArray.of(12d, -18d, 2d));
+    assertEquals(test.getSampleSize(), 3);
+    assertEquals(test.getErrors(), DoubleArray.of(-2d, -2d, 1d));
+    assertEquals(test.getMeanError(), -1d, TOL);
+    assertEquals(test.getMaxAbsoluteError(), 2d, TOL);
+    assertEquals(test.getRootMeanSquareError(), Math.sqrt(3d), TOL);
+    assertEquals(test.getRelativeRootMeanSquareError(), Math.sqrt(3d) / Math.sqrt(472d / 3d), TOL);
+  }
+
+  public void test_of_zeroPnl() {
+    PnlApproximationError test = PnlApproximationError.of(IntArray.of(1), DoubleArray.of(0d), DoubleArray.of(0d));
+    assertEquals(test.getRootMeanSquareError(), 0d, 0d);
+    assertEquals(test.getRelativeRootMeanSquareError(), 0d, 0d);
+  }
+
+  public void test_of_invalid() {
+    assertThrowsIllegalArg(() -> PnlApproximationError.of(IntArray.EMPTY, DoubleArray.EMPTY, DoubleArray.EMPTY));
+    assertThrowsIllegalArg(() -> PnlApproximationError.of(IntArray.of(1), DoubleArray.of(1d, 2d), DoubleArray.of(1d)));
+    assertThrowsIllegalArg(() -> PnlApproximationError.of(IntArray.of(1), DoubleArray.of(1d), DoubleArray.of(1d, 2d)));
+  }
+
+  //-------------------------------------------------------------------------
+  public void coverage() {
+    PnlApproximationError test = PnlApproximationError.of(IntArray.of(1), DoubleArray.of(1d), DoubleArray.of(2d));
+    coverImmutableBean(test);
+    PnlApproximationError test2 =
+        PnlApproximationError.of(IntArray.of(2, 3), DoubleArray.of(1d, 4d), DoubleArray.of(2d, 3d));
+    coverBeanEquals(test, test2);
+  }
+
+  public void test_serialization() {
+    assertSerialization(PnlApproximationError.of(IntArray.of(1), DoubleArray.of(1d), DoubleArray.of(2d)));
+  }
+
+}
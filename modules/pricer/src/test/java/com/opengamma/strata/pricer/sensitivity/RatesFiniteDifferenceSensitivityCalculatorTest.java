@@ -7,13 +7,16 @@ package com.opengamma.strata.pricer.sensitivity;
 
 import static com.opengamma.strata.basics.currency.Currency.USD;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.stream.Stream;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.opengamma.strata.basics.StandardId;
 import com.opengamma.strata.basics.currency.Currency;
@@ -94,6 +97,49 @@ public class RatesFiniteDifferenceSensitivityCalculatorTest {
     }
   }
 
+  @Test
+  public void sensitivity_multi_target() {
+    List<Double> multipliers = ImmutableList.of(1d, -2d, 0.5d);
+    int[] evaluations = new int[1];
+    List<CurrencyParameterSensitivities> sensiComputed = FD_CALCULATOR.sensitivity(
+        RatesProviderDataSets.MULTI_CPI_USD,
+        multipliers,
+        (multiplier, provider) -> {
+          if (multiplier == 1d) {
+            evaluations[0]++;
+          }
+          return fn(provider).multipliedBy(multiplier);
+        });
+    CurrencyParameterSensitivities expected = FD_CALCULATOR.sensitivity(RatesProviderDataSets.MULTI_CPI_USD, this::fn);
+    assertEquals(sensiComputed.size(), multipliers.size());
+    for (int k = 0; k < multipliers.size(); k++) {
+      assertTrue(sensiComputed.get(k).equalWithTolerance(expected.multipliedBy(multipliers.get(k)), TOLERANCE_DELTA));
+    }
+    // the base provider and each bumped provider are valued once
+    ImmutableRatesProvider provider = RatesProviderDataSets.MULTI_CPI_USD;
+    int paramCount = Stream.concat(
+        provider.getDiscountCurves().values().stream(),
+        provider.getIndexCurves().values().stream())
+        .mapToInt(Curve::getParameterCount)
+        .sum();
+    assertEquals(evaluations[0], paramCount + 1);
+  }
+
+  @Test
+  public void sensitivity_parallel() {
+    RatesFiniteDifferenceSensitivityCalculator parallel = new RatesFiniteDifferenceSensitivityCalculator(1.0E-4, true);
+    assertEquals(
+        parallel.sensitivity(RatesProviderDataSets.MULTI_CPI_USD, this::fn),
+        FD_CALCULATOR.sensitivity(RatesProviderDataSets.MULTI_CPI_USD, this::fn));
+    assertEquals(
+        parallel.sensitivity(LegalEntityDiscountingProviderDataSets.ISSUER_REPO_ZERO, this::fn),
+        FD_CALCULATOR.sensitivity(LegalEntityDiscountingProviderDataSets.ISSUER_REPO_ZERO, this::fn));
+    CreditRatesProvider rates = CreditRatesProviderDataSets.createCreditRatesProvider(LocalDate.of(2014, 1, 3));
+    assertEquals(
+        parallel.sensitivity(rates, this::creditFunction),
+        FD_CALCULATOR.sensitivity(rates, this::creditFunction));
+  }
+
   // private function for testing. Returns the sum of rates multiplied by time
   private CurrencyAmount fn(ImmutableRatesProvider provider) {
     double result = 0.0;
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.swap;
+
+import static com.opengamma.strata.basics.date.Tenor.TENOR_10Y;
+import static com.opengamma.strata.basics.date.Tenor.TENOR_2Y;
+import static com.opengamma.strata.basics.date.Tenor.TENOR_5Y;
+import static com.opengamma.strata.basics.index.IborIndices.USD_LIBOR_3M;
+import static com.opengamma.strata.basics.index.OvernightIndices.USD_FED_FUND;
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.pricer.datasets.RatesProviderDataSets.MULTI_GBP_USD;
+import static com.opengamma.strata.pricer.datasets.RatesProviderDataSets.MULTI_USD;
+import static com.opengamma.strata.pricer.swap.SwapDummyData.FIXED_CMP_FLAT_SWAP_LEG_PAY_GBP;
+import static com.opengamma.strata.pricer.swap.SwapDummyData.FIXED_CMP_NONE_SWAP_LEG_PAY_GBP;
+import static com.opengamma.strata.pricer.swap.SwapDummyData.FIXED_FX_RESET_SWAP_LEG_PAY_GBP;
+import static com.opengamma.strata.pricer.swap.SwapDummyData.FIXED_SWAP_LEG_PAY_USD;
+import static com.opengamma.strata.pricer.swap.SwapDummyData.IBOR_SWAP_LEG_REC_GBP;
+import static com.opengamma.strata.pricer.swap.SwapDummyData.IBOR_SWAP_LEG_REC_GBP_MULTI;
+import static com.opengamma.strata.product.common.BuySell.BUY;
+import static com.opengamma.strata.product.common.BuySell.SELL;
+import static com.opengamma.strata.product.swap.type.FixedIborSwapConventions.USD_FIXED_6M_LIBOR_3M;
+import static com.opengamma.strata.product.swap.type.FixedOvernightSwapConventions.USD_FIXED_1Y_FED_FUND_OIS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeriesBuilder;
+import com.opengamma.strata.pricer.datasets.RatesProviderDataSets;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+import com.opengamma.strata.product.swap.RatePaymentPeriod;
+import com.opengamma.strata.product.swap.ResolvedSwap;
+import com.opengamma.strata.product.swap.ResolvedSwapLeg;
+import com.opengamma.strata.product.swap.SwapLegType;
+
+/**
+ * Test {@link CompiledSwapLegPricer} and {@link CompiledSwapLeg}.
+ */
+@Test
+public class CompiledSwapLegPricerTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final LocalDate VAL_DATE = MULTI_USD.getValuationDate();
+  private static final double NOTIONAL = 100_000_000;
+  private static final double FIXED_RATE = 0.015;
+
+  // spot starting, the first Ibor rate fixes on the valuation date
+  private static final ResolvedSwap SWAP_IBOR_SPOT = USD_FIXED_6M_LIBOR_3M
+      .createTrade(VAL_DATE, TENOR_5Y, BUY, NOTIONAL, FIXED_RATE, REF_DATA).getProduct().resolve(REF_DATA);
+  private static final ResolvedSwap SWAP_IBOR_FWD = USD_FIXED_6M_LIBOR_3M
+      .createTrade(VAL_DATE, Period.ofMonths(6), TENOR_10Y, SELL, NOTIONAL, FIXED_RATE, REF_DATA)
+      .getProduct().resolve(REF_DATA);
+  private static final ResolvedSwap SWAP_OIS_SPOT = USD_FIXED_1Y_FED_FUND_OIS
+      .createTrade(VAL_DATE, TENOR_2Y, BUY, NOTIONAL, FIXED_RATE, REF_DATA).getProduct().resolve(REF_DATA);
+  private static final ResolvedSwap SWAP_OIS_FWD = USD_FIXED_1Y_FED_FUND_OIS
+      .createTrade(VAL_DATE, Period.ofMonths(3), TENOR_5Y, SELL, NOTIONAL, FIXED_RATE, REF_DATA)
+      .getProduct().resolve(REF_DATA);
+  private static final List<ResolvedSwap> SWAPS =
+      ImmutableList.of(SWAP_IBOR_SPOT, SWAP_IBOR_FWD, SWAP_OIS_SPOT, SWAP_OIS_FWD);
+
+  private static final CompiledSwapLegPricer PRICER = CompiledSwapLegPricer.DEFAULT;
+  private static final DiscountingSwapLegPricer LEG_PRICER = DiscountingSwapLegPricer.DEFAULT;
+  private static final DiscountingSwapProductPricer PRODUCT_PRICER = DiscountingSwapProductPricer.DEFAULT;
+  private static final double TOLERANCE_PV = 1.0e-6;
+  private static final double TOLERANCE_RATE = 1.0e-12;
+
+  //-------------------------------------------------------------------------
+  public void test_compile() {
+    ResolvedSwapLeg fixedLeg = SWAP_IBOR_SPOT.getLegs(SwapLegType.FIXED).get(0);
+    ResolvedSwapLeg iborLeg = SWAP_IBOR_SPOT.getLegs(SwapLegType.IBOR).get(0);
+    ResolvedSwapLeg overnightLeg = SWAP_OIS_SPOT.getLegs(SwapLegType.OVERNIGHT).get(0);
+    CompiledSwapLeg fixed = CompiledSwapLeg.of(fixedLeg);
+    assertEquals(fixed.getLeg(), fixedLeg);
+    assertEquals(fixed.getCurrency(), fixedLeg.getCurrency());
+    assertEquals(fixed.getPeriodCount(), fixedLeg.getPaymentPeriods().size());
+    assertEquals(fixed.getIndices(), ImmutableList.of());
+    assertTrue(fixed.isVanilla());
+    for (int i = 0; i < fixed.getPeriodCount(); i++) {
+      assertEquals(fixed.getTypes()[i], CompiledSwapLeg.FIXED);
+      assertEquals(fixed.getPaymentDates()[i], fixedLeg.getPaymentPeriods().get(i).getPaymentDate());
+      assertEquals(fixed.getFixedRates()[i], FIXED_RATE);
+      assertEquals(fixed.getIndexIds()[i], -1);
+    }
+    CompiledSwapLeg ibor = CompiledSwapLeg.of(iborLeg);
+    assertEquals(ibor.getIndices(), ImmutableList.of(USD_LIBOR_3M));
+    assertTrue(ibor.isVanilla());
+    for (int i = 0; i < ibor.getPeriodCount(); i++) {
+      assertEquals(ibor.getTypes()[i], CompiledSwapLeg.IBOR);
+      assertEquals(ibor.getIndexIds()[i], 0);
+    }
+    CompiledSwapLeg overnight = CompiledSwapLeg.of(overnightLeg);
+    assertEquals(overnight.getIndices(), ImmutableList.of(USD_FED_FUND));
+    assertTrue(overnight.isVanilla());
+    for (int i = 0; i < overnight.getPeriodCount(); i++) {
+      assertEquals(overnight.getTypes()[i], CompiledSwapLeg.OVERNIGHT);
+      assertTrue(overnight.getFixingStartDates()[i].isBefore(overnight.getFixingEndDates()[i]));
+    }
+  }
+
+  public void test_compile_notVanilla() {
+    assertFalse(CompiledSwapLeg.of(FIXED_FX_RESET_SWAP_LEG_PAY_GBP).isVanilla());
+    assertFalse(CompiledSwapLeg.of(FIXED_CMP_FLAT_SWAP_LEG_PAY_GBP).isVanilla());
+    assertFalse(CompiledSwapLeg.of(FIXED_CMP_NONE_SWAP_LEG_PAY_GBP).isVanilla());
+    assertEquals(CompiledSwapLeg.of(FIXED_FX_RESET_SWAP_LEG_PAY_GBP).getTypes()[0], CompiledSwapLeg.OTHER);
+    // notional exchanges in the leg currency are flattened
+    assertTrue(CompiledSwapLeg.of(IBOR_SWAP_LEG_REC_GBP_MULTI).isVanilla());
+    assertEquals(CompiledSwapLeg.of(IBOR_SWAP_LEG_REC_GBP_MULTI).getEventDates().length, 1);
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_presentValue() {
+    for (ResolvedSwap swap : SWAPS) {
+      for (ResolvedSwapLeg leg : swap.getLegs()) {
+        CurrencyAmount computed = PRICER.presentValue(CompiledSwapLeg.of(leg), MULTI_USD);
+        CurrencyAmount expected = LEG_PRICER.presentValue(leg, MULTI_USD);
+        assertEquals(computed.getCurrency(), expected.getCurrency());
+        assertEquals(computed.getAmount(), expected.getAmount(), TOLERANCE_PV);
+      }
+    }
+  }
+
+  public void test_presentValue_list() {
+    List<CompiledSwapLeg> legs = compile(SWAP_IBOR_FWD);
+    List<CurrencyAmount> computed = PRICER.presentValue(legs, MULTI_USD);
+    assertEquals(computed.size(), legs.size());
+    for (int i = 0; i < legs.size(); i++) {
+      assertEquals(computed.get(i), PRICER.presentValue(legs.get(i), MULTI_USD));
+    }
+  }
+
+  public void test_presentValue_dummyLegs() {
+    List<ResolvedSwapLeg> legs = ImmutableList.of(
+        FIXED_FX_RESET_SWAP_LEG_PAY_GBP,
+        FIXED_CMP_FLAT_SWAP_LEG_PAY_GBP,
+        FIXED_CMP_NONE_SWAP_LEG_PAY_GBP,
+        FIXED_SWAP_LEG_PAY_USD,
+        IBOR_SWAP_LEG_REC_GBP_MULTI);
+    for (ResolvedSwapLeg leg : legs) {
+      CurrencyAmount computed = PRICER.presentValue(CompiledSwapLeg.of(leg), MULTI_GBP_USD);
+      CurrencyAmount expected = LEG_PRICER.presentValue(leg, MULTI_GBP_USD);
+      assertEquals(computed.getCurrency(), expected.getCurrency());
+      assertEquals(computed.getAmount(), expected.getAmount(), TOLERANCE_PV);
+    }
+  }
+
+  public void test_presentValue_afterValuation() {
+    // some periods paid and some rates fixed
+    LocalDate valuationDate = VAL_DATE.plusMonths(7);
+    LocalDateDoubleTimeSeriesBuilder builder = LocalDateDoubleTimeSeries.builder();
+    for (LocalDate date = VAL_DATE; !date.isAfter(valuationDate); date = date.plusDays(1)) {
+      builder.put(date, 0.0025);
+    }
+    RatesProvider provider = RatesProviderDataSets.multiUsd(valuationDate).toBuilder()
+        .timeSeries(USD_LIBOR_3M, builder.build())
+        .timeSeries(USD_FED_FUND, builder.build())
+        .build();
+    for (ResolvedSwapLeg leg : Iterables.concat(SWAP_IBOR_FWD.getLegs(), SWAP_OIS_SPOT.getLegs())) {
+      double computed = PRICER.presentValue(CompiledSwapLeg.of(leg), provider).getAmount();
+      assertEquals(computed, LEG_PRICER.presentValue(leg, provider).getAmount(), TOLERANCE_PV);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_pvbp() {
+    for (ResolvedSwap swap : SWAPS) {
+      for (ResolvedSwapLeg leg : swap.getLegs()) {
+        double computed = PRICER.pvbp(CompiledSwapLeg.of(leg), MULTI_USD);
+        assertEquals(computed, LEG_PRICER.pvbp(leg, MULTI_USD), TOLERANCE_PV);
+      }
+    }
+  }
+
+  public void test_pvbp_notVanilla() {
+    double computed = PRICER.pvbp(CompiledSwapLeg.of(FIXED_CMP_FLAT_SWAP_LEG_PAY_GBP), MULTI_GBP_USD);
+    assertEquals(computed, LEG_PRICER.pvbp(FIXED_CMP_FLAT_SWAP_LEG_PAY_GBP, MULTI_GBP_USD), TOLERANCE_PV);
+    assertThrowsIllegalArg(() -> PRICER.pvbp(CompiledSwapLeg.of(FIXED_FX_RESET_SWAP_LEG_PAY_GBP), MULTI_GBP_USD));
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_parRate() {
+    for (ResolvedSwap swap : SWAPS) {
+      double computed = PRICER.parRate(compile(swap), MULTI_USD);
+      assertEquals(computed, PRODUCT_PRICER.parRate(swap, MULTI_USD), TOLERANCE_RATE);
+    }
+  }
+
+  public void test_parRate_notVanilla() {
+    // compounded fixed leg with several payments, priced by the product pricer
+    RatePaymentPeriod period = (RatePaymentPeriod) FIXED_CMP_FLAT_SWAP_LEG_PAY_GBP.getPaymentPeriods().get(0);
+    ResolvedSwapLeg fixedLeg = FIXED_CMP_FLAT_SWAP_LEG_PAY_GBP.toBuilder()
+        .paymentPeriods(period, period.toBuilder().paymentDate(period.getPaymentDate().plusMonths(3)).build())
+        .build();
+    assertFalse(CompiledSwapLeg.of(fixedLeg).isVanilla());
+    ResolvedSwap swap = ResolvedSwap.of(IBOR_SWAP_LEG_REC_GBP, fixedLeg);
+    double computed = PRICER.parRate(compile(swap), MULTI_GBP_USD);
+    assertEquals(computed, PRODUCT_PRICER.parRate(swap, MULTI_GBP_USD), TOLERANCE_RATE);
+    // compounded fixed leg with a single payment, supported by neither pricer
+    ResolvedSwap swapSingle = ResolvedSwap.of(IBOR_SWAP_LEG_REC_GBP, FIXED_CMP_FLAT_SWAP_LEG_PAY_GBP);
+    assertThrowsIllegalArg(() -> PRODUCT_PRICER.parRate(swapSingle, MULTI_GBP_USD));
+    assertThrowsIllegalArg(() -> PRICER.parRate(compile(swapSingle), MULTI_GBP_USD));
+  }
+
+  public void test_parRate_noFixedLeg() {
+    List<CompiledSwapLeg> legs = ImmutableList.of(CompiledSwapLeg.of(IBOR_SWAP_LEG_REC_GBP));
+    assertThrowsIllegalArg(() -> PRICER.parRate(legs, MULTI_GBP_USD));
+  }
+
+  //-------------------------------------------------------------------------
+  private static List<CompiledSwapLeg> compile(ResolvedSwap swap) {
+    return swap.getLegs().stream().map(CompiledSwapLeg::of).collect(toImmutableList());
+  }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.swap;
+
+import static com.opengamma.strata.basics.date.Tenor.TENOR_10Y;
+import static com.opengamma.strata.basics.date.Tenor.TENOR_2Y;
+import static com.opengamma.strata.basics.date.Tenor.TENOR_5Y;
+import static com.opengamma.strata.basics.index.IborIndices.USD_LIBOR_3M;
+import static com.opengamma.strata.basics.index.OvernightIndices.USD_FED_FUND;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.pricer.datasets.RatesProviderDataSets.MULTI_GBP_USD;
+import static com.opengamma.strata.pricer.datasets.RatesProviderDataSets.MULTI_USD;
+import static com.opengamma.strata.pricer.swap.SwapDummyData.FIXED_CMP_FLAT_SWAP_LEG_PAY_GBP;
+import static com.opengamma.strata.pricer.swap.SwapDummyData.FIXED_FX_RESET_SWAP_LEG_PAY_GBP;
+import static com.opengamma.strata.pricer.swap.SwapDummyData.IBOR_SWAP_LEG_REC_GBP_MULTI;
+import static com.opengamma.strata.pricer.swap.SwapDummyData.SWAP_CROSS_CURRENCY;
+import static com.opengamma.strata.product.common.BuySell.BUY;
+import static com.opengamma.strata.product.common.BuySell.SELL;
+import static com.opengamma.strata.product.swap.type.FixedIborSwapConventions.USD_FIXED_6M_LIBOR_3M;
+import static com.opengamma.strata.product.swap.type.FixedOvernightSwapConventions.USD_FIXED_1Y_FED_FUND_OIS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeriesBuilder;
+import com.opengamma.strata.market.amount.CashFlow;
+import com.opengamma.strata.market.amount.CashFlows;
+import com.opengamma.strata.pricer.datasets.RatesProviderDataSets;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+import com.opengamma.strata.product.rate.IborRateComputation;
+import com.opengamma.strata.product.swap.RatePaymentPeriod;
+import com.opengamma.strata.product.swap.ResolvedSwap;
+import com.opengamma.strata.product.swap.ResolvedSwapLeg;
+import com.opengamma.strata.product.swap.SwapLegType;
+
+/**
+ * Test {@link SwapCashFlowProjector} and {@link SwapCashFlowProjection}.
+ */
+@Test
+public class SwapCashFlowProjectorTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final LocalDate VAL_DATE = MULTI_USD.getValuationDate();
+  private static final double NOTIONAL = 100_000_000;
+  private static final double FIXED_RATE = 0.015;
+
+  private static final ResolvedSwap SWAP_IBOR_SPOT = USD_FIXED_6M_LIBOR_3M
+      .createTrade(VAL_DATE, TENOR_5Y, BUY, NOTIONAL, FIXED_RATE, REF_DATA).getProduct().resolve(REF_DATA);
+  private static final ResolvedSwap SWAP_IBOR_FWD = USD_FIXED_6M_LIBOR_3M
+      .createTrade(VAL_DATE, Period.ofMonths(6), TENOR_10Y, SELL, NOTIONAL, FIXED_RATE, REF_DATA)
+      .getProduct().resolve(REF_DATA);
+  // same fixing periods as SWAP_IBOR_FWD
+  private static final ResolvedSwap SWAP_IBOR_FWD_2 = USD_FIXED_6M_LIBOR_3M
+      .createTrade(VAL_DATE, Period.ofMonths(6), TENOR_10Y, BUY, 2 * NOTIONAL, 0.02, REF_DATA)
+      .getProduct().resolve(REF_DATA);
+  private static final ResolvedSwap SWAP_OIS_SPOT = USD_FIXED_1Y_FED_FUND_OIS
+      .createTrade(VAL_DATE, TENOR_2Y, BUY, NOTIONAL, FIXED_RATE, REF_DATA).getProduct().resolve(REF_DATA);
+  private static final ResolvedSwap SWAP_OIS_FWD = USD_FIXED_1Y_FED_FUND_OIS
+      .createTrade(VAL_DATE, Period.ofMonths(3), TENOR_5Y, SELL, NOTIONAL, FIXED_RATE, REF_DATA)
+      .getProduct().resolve(REF_DATA);
+  private static final List<ResolvedSwap> SWAPS =
+      ImmutableList.of(SWAP_IBOR_SPOT, SWAP_IBOR_FWD, SWAP_OIS_SPOT, SWAP_OIS_FWD, SWAP_IBOR_FWD_2);
+
+  private static final SwapCashFlowProjector PROJECTOR = SwapCashFlowProjector.DEFAULT;
+  private static final DiscountingSwapProductPricer PRODUCT_PRICER = DiscountingSwapProductPricer.DEFAULT;
+  private static final double TOLERANCE_PV = 1.0e-6;
+  private static final double TOLERANCE_RATE = 1.0e-12;
+
+  //-------------------------------------------------------------------------
+  public void test_cashFlows() {
+    SwapCashFlowProjection test = PROJECTOR.cashFlows(SWAPS, MULTI_USD);
+    assertEquals(test.getSwapCount(), SWAPS.size());
+    assertEquals(test.getFirstRow(0), 0);
+    assertEquals(test.getFirstRow(SWAPS.size()), test.getCashFlowCount());
+    for (int k = 0; k < SWAPS.size(); k++) {
+      assertCashFlows(test.getCashFlows(k), PRODUCT_PRICER.cashFlows(SWAPS.get(k), MULTI_USD));
+    }
+    assertEquals(test.getForecastValues().size(), test.getCashFlowCount());
+    assertEquals(test.getDiscountFactors().size(), test.getCashFlowCount());
+    assertEquals(test.getForwardRates().size(), test.getCashFlowCount());
+    assertEquals(test.getLegIndices().size(), test.getCashFlowCount());
+    assertEquals(test.getPaymentDates().size(), test.getCashFlowCount());
+    assertEquals(test.getCurrencies().size(), test.getCashFlowCount());
+  }
+
+  public void test_cashFlows_compiled() {
+    List<CompiledSwapLeg> legs = ImmutableList.of(
+        CompiledSwapLeg.of(SWAP_IBOR_FWD.getLegs().get(0)),
+        CompiledSwapLeg.of(SWAP_IBOR_FWD.getLegs().get(1)));
+    List<List<CompiledSwapLeg>> compiled = ImmutableList.of(legs);
+    SwapCashFlowProjection test = PROJECTOR.compiledCashFlows(compiled, MULTI_USD);
+    SwapCashFlowProjection expected = PROJECTOR.cashFlows(ImmutableList.of(SWAP_IBOR_FWD), MULTI_USD);
+    assertEquals(test.getForecastValues(), expected.getForecastValues());
+    assertEquals(test.getDiscountFactors(), expected.getDiscountFactors());
+    assertEquals(test.getForwardRates(), expected.getForwardRates());
+    assertEquals(test.getPaymentDates(), expected.getPaymentDates());
+  }
+
+  public void test_cashFlows_columns() {
+    SwapCashFlowProjection test = PROJECTOR.cashFlows(ImmutableList.of(SWAP_IBOR_FWD), MULTI_USD);
+    ResolvedSwapLeg fixedLeg = SWAP_IBOR_FWD.getLegs(SwapLegType.FIXED).get(0);
+    ResolvedSwapLeg iborLeg = SWAP_IBOR_FWD.getLegs(SwapLegType.IBOR).get(0);
+    int fixedLegIndex = SWAP_IBOR_FWD.getLegs().indexOf(fixedLeg);
+    int row = 0;
+    for (int j = 0; j < SWAP_IBOR_FWD.getLegs().size(); j++) {
+      ResolvedSwapLeg leg = SWAP_IBOR_FWD.getLegs().get(j);
+      for (int i = 0; i < leg.getPaymentPeriods().size(); i++, row++) {
+        RatePaymentPeriod period = (RatePaymentPeriod) leg.getPaymentPeriods().get(i);
+        assertEquals(test.getLegIndex(row), j);
+        assertEquals(test.getPaymentDate(row), period.getPaymentDate());
+        assertEquals(test.getCurrency(row), period.getCurrency());
+        if (j == fixedLegIndex) {
+          assertEquals(test.getForwardRate(row), FIXED_RATE);
+        } else {
+          IborRateComputation computation =
+              (IborRateComputation) period.getAccrualPeriods().get(0).getRateComputation();
+          double expected = MULTI_USD.iborIndexRates(USD_LIBOR_3M).rate(computation.getObservation());
+          assertEquals(test.getForwardRate(row), expected, TOLERANCE_RATE);
+        }
+      }
+    }
+    assertEquals(row, fixedLeg.getPaymentPeriods().size() + iborLeg.getPaymentPeriods().size());
+    assertEquals(test.getCashFlowCount(), row);
+    assertEquals(test.getForwardRateEvaluationCount(), iborLeg.getPaymentPeriods().size());
+  }
+
+  public void test_cashFlows_sharedForwardRates() {
+    int count = PROJECTOR.cashFlows(ImmutableList.of(SWAP_IBOR_FWD), MULTI_USD).getForwardRateEvaluationCount();
+    SwapCashFlowProjection test = PROJECTOR.cashFlows(ImmutableList.of(SWAP_IBOR_FWD, SWAP_IBOR_FWD_2), MULTI_USD);
+    assertEquals(test.getForwardRateEvaluationCount(), count);
+    int first = test.getFirstRow(1);
+    int rows = test.getFirstRow(2) - first;
+    assertEquals(rows, test.getFirstRow(1));
+    int iborLegIndex = SWAP_IBOR_FWD.getLegs().indexOf(SWAP_IBOR_FWD.getLegs(SwapLegType.IBOR).get(0));
+    for (int row = 0; row < rows; row++) {
+      assertEquals(test.getDiscountFactor(first + row), test.getDiscountFactor(row));
+      if (test.getLegIndex(row) == iborLegIndex) {
+        assertEquals(test.getForwardRate(first + row), test.getForwardRate(row));
+      }
+    }
+  }
+
+  public void test_cashFlows_afterValuation() {
+    // some periods paid and some rates fixed
+    LocalDate valuationDate = VAL_DATE.plusMonths(7);
+    LocalDateDoubleTimeSeriesBuilder builder = LocalDateDoubleTimeSeries.builder();
+    for (LocalDate date = VAL_DATE; !date.isAfter(valuationDate); date = date.plusDays(1)) {
+      builder.put(date, 0.0025);
+    }
+    RatesProvider provider = RatesProviderDataSets.multiUsd(valuationDate).toBuilder()
+        .timeSeries(USD_LIBOR_3M, builder.build())
+        .timeSeries(USD_FED_FUND, builder.build())
+        .build();
+    SwapCashFlowProjection test = PROJECTOR.cashFlows(SWAPS, provider);
+    for (int k = 0; k < SWAPS.size(); k++) {
+      assertCashFlows(test.getCashFlows(k), PRODUCT_PRICER.cashFlows(SWAPS.get(k), provider));
+    }
+    // the rate of the Ibor period fixed in the past is the fixing
+    boolean fixed = false;
+    for (int row = test.getFirstRow(1); row < test.getFirstRow(2); row++) {
+      fixed |= Math.abs(test.getForwardRate(row) - 0.0025) < TOLERANCE_RATE;
+    }
+    assertTrue(fixed);
+  }
+
+  public void test_cashFlows_notVanilla() {
+    List<ResolvedSwap> swaps = ImmutableList.of(
+        SWAP_CROSS_CURRENCY,
+        ResolvedSwap.of(IBOR_SWAP_LEG_REC_GBP_MULTI, FIXED_FX_RESET_SWAP_LEG_PAY_GBP),
+        ResolvedSwap.of(IBOR_SWAP_LEG_REC_GBP_MULTI, FIXED_CMP_FLAT_SWAP_LEG_PAY_GBP));
+    SwapCashFlowProjection test = PROJECTOR.cashFlows(swaps, MULTI_GBP_USD);
+    for (int k = 0; k < swaps.size(); k++) {
+      assertCashFlows(test.getCashFlows(k), PRODUCT_PRICER.cashFlows(swaps.get(k), MULTI_GBP_USD));
+    }
+  }
+
+  public void test_cashFlows_empty() {
+    SwapCashFlowProjection test = PROJECTOR.cashFlows(ImmutableList.of(), MULTI_USD);
+    assertEquals(test.getSwapCount(), 0);
+    assertEquals(test.getCashFlowCount(), 0);
+    assertEquals(test.getForwardRateEvaluationCount(), 0);
+  }
+
+  public void test_invalid() {
+    SwapCashFlowProjection test = PROJECTOR.cashFlows(ImmutableList.of(SWAP_IBOR_SPOT), MULTI_USD);
+    assertThrowsIllegalArg(() -> test.getForecastValue(test.getCashFlowCount()));
+    assertThrowsIllegalArg(() -> test.getCashFlows(1));
+    assertThrowsIllegalArg(() -> test.getFirstRow(2));
+  }
+
+  //-------------------------------------------------------------------------
+  private static void assertCashFlows(CashFlows computed, CashFlows expected) {
+    assertEquals(computed.getCashFlows().size(), expected.getCashFlows().size());
+    for (int i = 0; i < expected.getCashFlows().size(); i++) {
+      CashFlow computedFlow = computed.getCashFlow(i);
+      CashFlow expectedFlow = expected.getCashFlow(i);
+      assertEquals(computedFlow.getPaymentDate(), expectedFlow.getPaymentDate());
+      assertEquals(computedFlow.getForecastValue().getCurrency(), expectedFlow.getForecastValue().getCurrency());
+      assertEquals(
+          computedFlow.getForecastValue().getAmount(), expectedFlow.getForecastValue().getAmount(), TOLERANCE_PV);
+      assertEquals(computedFlow.getDiscountFactor(), expectedFlow.getDiscountFactor(), TOLERANCE_RATE);
+    }
+  }
+
+}
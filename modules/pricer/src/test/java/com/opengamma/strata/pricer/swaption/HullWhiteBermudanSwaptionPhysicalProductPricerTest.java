@@ -0,0 +1,356 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.swaption;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.date.BusinessDayConventions.MODIFIED_FOLLOWING;
+import static com.opengamma.strata.basics.date.DayCounts.THIRTY_U_360;
+import static com.opengamma.strata.basics.index.IborIndices.EUR_EURIBOR_6M;
+import static com.opengamma.strata.basics.schedule.Frequency.P12M;
+import static com.opengamma.strata.basics.schedule.Frequency.P6M;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.product.common.LongShort.LONG;
+import static com.opengamma.strata.product.common.LongShort.SHORT;
+import static com.opengamma.strata.product.common.PayReceive.PAY;
+import static com.opengamma.strata.product.common.PayReceive.RECEIVE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.date.AdjustableDate;
+import com.opengamma.strata.basics.date.BusinessDayAdjustment;
+import com.opengamma.strata.basics.date.DaysAdjustment;
+import com.opengamma.strata.basics.date.HolidayCalendarId;
+import com.opengamma.strata.basics.date.HolidayCalendarIds;
+import com.opengamma.strata.basics.schedule.Frequency;
+import com.opengamma.strata.basics.schedule.PeriodicSchedule;
+import com.opengamma.strata.basics.schedule.StubConvention;
+import com.opengamma.strata.basics.value.ValueSchedule;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
+import com.opengamma.strata.market.sensitivity.PointSensitivities;
+import com.opengamma.strata.market.sensitivity.PointSensitivityBuilder;
+import com.opengamma.strata.pricer.DiscountingPaymentPricer;
+import com.opengamma.strata.pricer.index.HullWhiteIborFutureDataSet;
+import com.opengamma.strata.pricer.model.HullWhiteOneFactorPiecewiseConstantParameters;
+import com.opengamma.strata.pricer.model.HullWhiteOneFactorPiecewiseConstantParametersProvider;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
+import com.opengamma.strata.pricer.sensitivity.RatesFiniteDifferenceSensitivityCalculator;
+import com.opengamma.strata.pricer.swap.DiscountingSwapProductPricer;
+import com.opengamma.strata.product.common.LongShort;
+import com.opengamma.strata.product.common.PayReceive;
+import com.opengamma.strata.product.swap.FixedRateCalculation;
+import com.opengamma.strata.product.swap.IborRateCalculation;
+import com.opengamma.strata.product.swap.NotionalSchedule;
+import com.opengamma.strata.product.swap.PaymentSchedule;
+import com.opengamma.strata.product.swap.RateCalculationSwapLeg;
+import com.opengamma.strata.product.swap.Swap;
+import com.opengamma.strata.product.swaption.CashSwaptionSettlement;
+import com.opengamma.strata.product.swaption.CashSwaptionSettlementMethod;
+import com.opengamma.strata.product.swaption.PhysicalSwaptionSettlement;
+import com.opengamma.strata.product.swaption.ResolvedSwaption;
+import com.opengamma.strata.product.swaption.Swaption;
+
+/**
+ * Test {@link HullWhiteBermudanSwaptionPhysicalProductPricer}.
+ */
+@Test
+public class HullWhiteBermudanSwaptionPhysicalProductPricerTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final HolidayCalendarId CALENDAR = HolidayCalendarIds.SAT_SUN;
+  private static final BusinessDayAdjustment BDA_MF = BusinessDayAdjustment.of(MODIFIED_FOLLOWING, CALENDAR);
+  private static final double NOTIONAL = 100000000; //100m
+  private static final double RATE = 0.0175;
+  private static final LocalDate END = LocalDate.of(2021, 7, 12);
+  private static final List<LocalDate> EXPIRIES = ImmutableList.of(
+      LocalDate.of(2016, 7, 7), LocalDate.of(2017, 7, 7), LocalDate.of(2018, 7, 6), LocalDate.of(2019, 7, 5));
+  private static final List<ResolvedSwaption> BERMUDAN_REC_LONG = bermudan(RECEIVE, LONG);
+  private static final List<ResolvedSwaption> BERMUDAN_REC_SHORT = bermudan(RECEIVE, SHORT);
+  private static final List<ResolvedSwaption> BERMUDAN_PAY_LONG = bermudan(PAY, LONG);
+
+  private static final LocalDate VALUATION = LocalDate.of(2011, 7, 7);
+  private static final HullWhiteOneFactorPiecewiseConstantParametersProvider HW_PROVIDER =
+      HullWhiteIborFutureDataSet.createHullWhiteProvider(VALUATION);
+  private static final ImmutableRatesProvider RATE_PROVIDER = HullWhiteIborFutureDataSet.createRatesProvider(VALUATION);
+
+  private static final double TOL = 1.0e-12;
+  private static final double LATTICE_TOL = 1.0e-5;
+  private static final double FD_TOL = 1.0e-7;
+  private static final HullWhiteBermudanSwaptionPhysicalProductPricer PRICER =
+      HullWhiteBermudanSwaptionPhysicalProductPricer.DEFAULT;
+  private static final HullWhiteSwaptionPhysicalProductPricer PRICER_EUROPEAN =
+      HullWhiteSwaptionPhysicalProductPricer.DEFAULT;
+  private static final DiscountingSwapProductPricer SWAP_PRICER = DiscountingSwapProductPricer.DEFAULT;
+  private static final RatesFiniteDifferenceSensitivityCalculator FD_CAL =
+      new RatesFiniteDifferenceSensitivityCalculator(FD_TOL);
+
+  //-------------------------------------------------------------------------
+  public void test_presentValue_european() {
+    for (int i = 0; i < EXPIRIES.size(); ++i) {
+      for (ResolvedSwaption swaption : ImmutableList.of(BERMUDAN_REC_LONG.get(i), BERMUDAN_PAY_LONG.get(i))) {
+        CurrencyAmount computed = PRICER.presentValue(ImmutableList.of(swaption), RATE_PROVIDER, HW_PROVIDER);
+        CurrencyAmount expected = PRICER_EUROPEAN.presentValue(swaption, RATE_PROVIDER, HW_PROVIDER);
+        assertEquals(computed.getCurrency(), EUR);
+        assertEquals(computed.getAmount(), expected.getAmount(), NOTIONAL * LATTICE_TOL);
+      }
+    }
+  }
+
+  public void test_presentValue_bermudan() {
+    CurrencyAmount computed = PRICER.presentValue(BERMUDAN_REC_LONG, RATE_PROVIDER, HW_PROVIDER);
+    assertEquals(computed.getCurrency(), EUR);
+    double maxEuropean = 0d;
+    for (ResolvedSwaption swaption : BERMUDAN_REC_LONG) {
+      double european = PRICER.presentValue(ImmutableList.of(swaption), RATE_PROVIDER, HW_PROVIDER).getAmount();
+      maxEuropean = Math.max(maxEuropean, european);
+    }
+    assertTrue(computed.getAmount() > maxEuropean);
+    CurrencyAmount computedShort = PRICER.presentValue(BERMUDAN_REC_SHORT, RATE_PROVIDER, HW_PROVIDER);
+    assertEquals(computedShort.getAmount(), -computed.getAmount(), NOTIONAL * TOL);
+  }
+
+  public void test_presentValues() {
+    List<List<ResolvedSwaption>> swaptions = ImmutableList.of(
+        BERMUDAN_REC_LONG,
+        ImmutableList.of(BERMUDAN_PAY_LONG.get(1)),
+        BERMUDAN_PAY_LONG,
+        ImmutableList.of(BERMUDAN_REC_SHORT.get(3)));
+    List<CurrencyAmount> computed = PRICER.presentValues(swaptions, RATE_PROVIDER, HW_PROVIDER);
+    assertEquals(computed.size(), swaptions.size());
+    // the results do not depend on the other swaptions of the batch
+    for (int i = 0; i < swaptions.size(); ++i) {
+      assertEquals(computed.get(i).getAmount(),
+          PRICER.presentValue(swaptions.get(i), RATE_PROVIDER, HW_PROVIDER).getAmount(), NOTIONAL * TOL);
+    }
+    assertEquals(computed.get(1).getAmount(),
+        PRICER_EUROPEAN.presentValue(BERMUDAN_PAY_LONG.get(1), RATE_PROVIDER, HW_PROVIDER).getAmount(),
+        NOTIONAL * LATTICE_TOL);
+    assertEquals(computed.get(3).getAmount(),
+        PRICER_EUROPEAN.presentValue(BERMUDAN_REC_SHORT.get(3), RATE_PROVIDER, HW_PROVIDER).getAmount(),
+        NOTIONAL * LATTICE_TOL);
+    // parallel
+    List<CurrencyAmount> computedParallel = PRICER.parallel().presentValues(swaptions, RATE_PROVIDER, HW_PROVIDER);
+    assertEquals(computedParallel, computed);
+  }
+
+  public void test_presentValue_expiredExercise() {
+    LocalDate valuationDate = LocalDate.of(2016, 9, 1);
+    ImmutableRatesProvider ratesProvider = HullWhiteIborFutureDataSet.createRatesProvider(valuationDate);
+    HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider =
+        HullWhiteIborFutureDataSet.createHullWhiteProvider(valuationDate);
+    CurrencyAmount computed = PRICER.presentValue(BERMUDAN_REC_LONG, ratesProvider, hwProvider);
+    CurrencyAmount expected = PRICER.presentValue(BERMUDAN_REC_LONG.subList(1, 4), ratesProvider, hwProvider);
+    assertEquals(computed.getAmount(), expected.getAmount(), NOTIONAL * TOL);
+  }
+
+  public void test_presentValue_atExpiry() {
+    LocalDate valuationDate = EXPIRIES.get(0);
+    ImmutableRatesProvider ratesProvider = HullWhiteIborFutureDataSet.createRatesProvider(valuationDate);
+    HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider =
+        HullWhiteIborFutureDataSet.createHullWhiteProvider(valuationDate);
+    for (List<ResolvedSwaption> bermudan : ImmutableList.of(BERMUDAN_REC_LONG, BERMUDAN_PAY_LONG)) {
+      double computed = PRICER.presentValue(bermudan, ratesProvider, hwProvider).getAmount();
+      double swapPv =
+          SWAP_PRICER.presentValue(bermudan.get(0).getUnderlying(), ratesProvider).getAmount(EUR).getAmount();
+      double continuation = PRICER.presentValue(bermudan.subList(1, 4), ratesProvider, hwProvider).getAmount();
+      assertEquals(computed, Math.max(swapPv, continuation), NOTIONAL * TOL);
+      double european =
+          PRICER.presentValue(ImmutableList.of(bermudan.get(0)), ratesProvider, hwProvider).getAmount();
+      assertEquals(european, Math.max(swapPv, 0d), NOTIONAL * TOL);
+    }
+  }
+
+  public void test_presentValue_afterExpiry() {
+    LocalDate valuationDate = EXPIRIES.get(3).plusDays(1);
+    ImmutableRatesProvider ratesProvider = HullWhiteIborFutureDataSet.createRatesProvider(valuationDate);
+    HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider =
+        HullWhiteIborFutureDataSet.createHullWhiteProvider(valuationDate);
+    assertEquals(PRICER.presentValue(BERMUDAN_REC_LONG, ratesProvider, hwProvider), CurrencyAmount.zero(EUR));
+    assertEquals(PRICER.presentValueSensitivityRates(BERMUDAN_REC_LONG, ratesProvider, hwProvider),
+        PointSensitivityBuilder.none());
+    assertEquals(PRICER.presentValueSensitivityModelParamsHullWhite(BERMUDAN_REC_LONG, ratesProvider, hwProvider),
+        DoubleArray.EMPTY);
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_presentValueSensitivityRates() {
+    for (List<ResolvedSwaption> bermudan : ImmutableList.of(BERMUDAN_REC_LONG, BERMUDAN_REC_SHORT, BERMUDAN_PAY_LONG)) {
+      PointSensitivities point =
+          PRICER.presentValueSensitivityRates(bermudan, RATE_PROVIDER, HW_PROVIDER).build();
+      CurrencyParameterSensitivities computed = RATE_PROVIDER.parameterSensitivity(point);
+      CurrencyParameterSensitivities expected =
+          FD_CAL.sensitivity(RATE_PROVIDER, p -> PRICER.presentValue(bermudan, p, HW_PROVIDER));
+      assertTrue(computed.equalWithTolerance(expected, NOTIONAL * FD_TOL * 1000d));
+    }
+  }
+
+  public void test_presentValueSensitivityRates_european() {
+    ResolvedSwaption swaption = BERMUDAN_PAY_LONG.get(2);
+    PointSensitivities point = PRICER.presentValueSensitivityRates(
+        ImmutableList.of(swaption), RATE_PROVIDER, HW_PROVIDER).build();
+    PointSensitivities expected =
+        PRICER_EUROPEAN.presentValueSensitivityRates(swaption, RATE_PROVIDER, HW_PROVIDER).build();
+    assertTrue(RATE_PROVIDER.parameterSensitivity(point).equalWithTolerance(
+        RATE_PROVIDER.parameterSensitivity(expected), NOTIONAL * LATTICE_TOL * 100d));
+  }
+
+  public void test_presentValueSensitivitiesRates() {
+    List<List<ResolvedSwaption>> swaptions = ImmutableList.of(BERMUDAN_REC_LONG, BERMUDAN_PAY_LONG);
+    List<PointSensitivityBuilder> computed =
+        PRICER.presentValueSensitivitiesRates(swaptions, RATE_PROVIDER, HW_PROVIDER);
+    List<PointSensitivityBuilder> computedParallel =
+        PRICER.parallel().presentValueSensitivitiesRates(swaptions, RATE_PROVIDER, HW_PROVIDER);
+    for (int i = 0; i < swaptions.size(); ++i) {
+      PointSensitivities expected =
+          PRICER.presentValueSensitivityRates(swaptions.get(i), RATE_PROVIDER, HW_PROVIDER).build();
+      PointSensitivities expectedNormalized = expected.normalized();
+      assertTrue(computed.get(i).build().normalized().equalWithTolerance(expectedNormalized, NOTIONAL * TOL));
+      assertTrue(computedParallel.get(i).build().normalized().equalWithTolerance(expectedNormalized, NOTIONAL * TOL));
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_presentValueSensitivityModelParamsHullWhite() {
+    DoubleArray vols = HW_PROVIDER.getParameters().getVolatility();
+    for (List<ResolvedSwaption> bermudan : ImmutableList.of(BERMUDAN_REC_LONG, BERMUDAN_REC_SHORT)) {
+      DoubleArray computed = PRICER.presentValueSensitivityModelParamsHullWhite(bermudan, RATE_PROVIDER, HW_PROVIDER);
+      assertEquals(computed.size(), vols.size());
+      for (int i = 0; i < vols.size(); ++i) {
+        HullWhiteOneFactorPiecewiseConstantParametersProvider provUp =
+            withVolatility(vols.with(i, vols.get(i) + FD_TOL));
+        HullWhiteOneFactorPiecewiseConstantParametersProvider provDw =
+            withVolatility(vols.with(i, vols.get(i) - FD_TOL));
+        double expected = 0.5 * (PRICER.presentValue(bermudan, RATE_PROVIDER, provUp).getAmount() -
+            PRICER.presentValue(bermudan, RATE_PROVIDER, provDw).getAmount()) / FD_TOL;
+        assertEquals(computed.get(i), expected, NOTIONAL * FD_TOL);
+      }
+    }
+  }
+
+  public void test_presentValueSensitivityModelParamsHullWhite_european() {
+    for (ResolvedSwaption swaption : BERMUDAN_PAY_LONG) {
+      DoubleArray computed = PRICER.presentValueSensitivityModelParamsHullWhite(
+          ImmutableList.of(swaption), RATE_PROVIDER, HW_PROVIDER);
+      DoubleArray expected = PRICER_EUROPEAN.presentValueSensitivityModelParamsHullWhite(
+          swaption, RATE_PROVIDER, HW_PROVIDER);
+      assertTrue(computed.equalWithTolerance(expected, NOTIONAL * LATTICE_TOL * 100d));
+    }
+  }
+
+  public void test_presentValueSensitivitiesModelParamsHullWhite() {
+    List<List<ResolvedSwaption>> swaptions = ImmutableList.of(BERMUDAN_REC_LONG, BERMUDAN_PAY_LONG);
+    List<DoubleArray> computed =
+        PRICER.presentValueSensitivitiesModelParamsHullWhite(swaptions, RATE_PROVIDER, HW_PROVIDER);
+    List<DoubleArray> computedParallel =
+        PRICER.parallel().presentValueSensitivitiesModelParamsHullWhite(swaptions, RATE_PROVIDER, HW_PROVIDER);
+    for (int i = 0; i < swaptions.size(); ++i) {
+      DoubleArray expected =
+          PRICER.presentValueSensitivityModelParamsHullWhite(swaptions.get(i), RATE_PROVIDER, HW_PROVIDER);
+      assertTrue(computed.get(i).equalWithTolerance(expected, NOTIONAL * TOL));
+      assertEquals(computedParallel.get(i), computed.get(i));
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_invalid() {
+    ResolvedSwaption cash = Swaption.builder()
+        .expiryDate(AdjustableDate.of(EXPIRIES.get(1), BDA_MF))
+        .expiryTime(LocalTime.NOON)
+        .expiryZone(ZoneOffset.UTC)
+        .longShort(LONG)
+        .swaptionSettlement(CashSwaptionSettlement.of(END, CashSwaptionSettlementMethod.PAR_YIELD))
+        .underlying(swap(EXPIRIES.get(1), RECEIVE))
+        .build()
+        .resolve(REF_DATA);
+    assertThrowsIllegalArg(() -> PRICER.presentValue(ImmutableList.of(cash), RATE_PROVIDER, HW_PROVIDER));
+    assertThrowsIllegalArg(() -> PRICER.presentValue(ImmutableList.of(), RATE_PROVIDER, HW_PROVIDER));
+    assertThrowsIllegalArg(() -> PRICER.presentValue(
+        ImmutableList.of(BERMUDAN_REC_LONG.get(1), BERMUDAN_REC_LONG.get(0)), RATE_PROVIDER, HW_PROVIDER));
+    assertThrowsIllegalArg(() -> PRICER.presentValue(
+        ImmutableList.of(BERMUDAN_REC_LONG.get(0), BERMUDAN_REC_SHORT.get(1)), RATE_PROVIDER, HW_PROVIDER));
+    assertThrowsIllegalArg(() -> PRICER.presentValue(
+        BERMUDAN_REC_LONG, RATE_PROVIDER, HullWhiteIborFutureDataSet.createHullWhiteProvider(VALUATION.plusDays(1))));
+    // expiries after the horizon
+    HullWhiteBermudanSwaptionPhysicalProductPricer pricerShort = new HullWhiteBermudanSwaptionPhysicalProductPricer(
+        DiscountingPaymentPricer.DEFAULT, 6d, 100, 8d);
+    assertThrowsIllegalArg(() -> pricerShort.presentValue(BERMUDAN_REC_LONG, RATE_PROVIDER, HW_PROVIDER));
+  }
+
+  //-------------------------------------------------------------------------
+  // the exercises of a Bermudan swaption
+  private static List<ResolvedSwaption> bermudan(PayReceive fixedPayReceive, LongShort longShort) {
+    ImmutableList.Builder<ResolvedSwaption> builder = ImmutableList.builder();
+    for (LocalDate expiry : EXPIRIES) {
+      builder.add(Swaption.builder()
+          .expiryDate(AdjustableDate.of(expiry, BDA_MF))
+          .expiryTime(LocalTime.NOON)
+          .expiryZone(ZoneOffset.UTC)
+          .swaptionSettlement(PhysicalSwaptionSettlement.DEFAULT)
+          .longShort(longShort)
+          .underlying(swap(expiry, fixedPayReceive))
+          .build()
+          .resolve(REF_DATA));
+    }
+    return builder.build();
+  }
+
+  // the swap starting two days after the expiry and ending at the common end date
+  private static Swap swap(LocalDate expiry, PayReceive fixedPayReceive) {
+    LocalDate start = BDA_MF.adjust(CALENDAR.resolve(REF_DATA).shift(expiry, 2), REF_DATA);
+    RateCalculationSwapLeg fixedLeg = RateCalculationSwapLeg.builder()
+        .payReceive(fixedPayReceive)
+        .accrualSchedule(schedule(start, P12M))
+        .paymentSchedule(paymentSchedule(P12M))
+        .notionalSchedule(NotionalSchedule.of(EUR, NOTIONAL))
+        .calculation(FixedRateCalculation.builder().dayCount(THIRTY_U_360).rate(ValueSchedule.of(RATE)).build())
+        .build();
+    RateCalculationSwapLeg iborLeg = RateCalculationSwapLeg.builder()
+        .payReceive(fixedPayReceive.isPay() ? PayReceive.RECEIVE : PayReceive.PAY)
+        .accrualSchedule(schedule(start, P6M))
+        .paymentSchedule(paymentSchedule(P6M))
+        .notionalSchedule(NotionalSchedule.of(EUR, NOTIONAL))
+        .calculation(IborRateCalculation.builder()
+            .index(EUR_EURIBOR_6M)
+            .fixingDateOffset(DaysAdjustment.ofBusinessDays(-2, CALENDAR, BDA_MF))
+            .build())
+        .build();
+    return Swap.of(fixedLeg, iborLeg);
+  }
+
+  private static PeriodicSchedule schedule(LocalDate start, Frequency frequency) {
+    return PeriodicSchedule.builder()
+        .startDate(start)
+        .endDate(END)
+        .frequency(frequency)
+        .businessDayAdjustment(BDA_MF)
+        .stubConvention(StubConvention.SHORT_INITIAL)
+        .build();
+  }
+
+  private static PaymentSchedule paymentSchedule(Frequency frequency) {
+    return PaymentSchedule.builder()
+        .paymentFrequency(frequency)
+        .paymentDateOffset(DaysAdjustment.NONE)
+        .build();
+  }
+
+  private static HullWhiteOneFactorPiecewiseConstantParametersProvider withVolatility(DoubleArray volatility) {
+    HullWhiteOneFactorPiecewiseConstantParameters parameters = HW_PROVIDER.getParameters().withVolatility(volatility);
+    return HullWhiteOneFactorPiecewiseConstantParametersProvider.of(
+        parameters, HW_PROVIDER.getDayCount(), HW_PROVIDER.getValuationDateTime());
+  }
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2018 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.swaption;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.date.BusinessDayConventions.MODIFIED_FOLLOWING;
+import static com.opengamma.strata.basics.date.DayCounts.ACT_ACT_ISDA;
+import static com.opengamma.strata.basics.date.DayCounts.THIRTY_U_360;
+import static com.opengamma.strata.basics.index.IborIndices.EUR_EURIBOR_6M;
+import static com.opengamma.strata.basics.schedule.Frequency.P12M;
+import static com.opengamma.strata.basics.schedule.Frequency.P6M;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.product.common.LongShort.LONG;
+import static com.opengamma.strata.product.common.LongShort.SHORT;
+import static com.opengamma.strata.product.common.PayReceive.PAY;
+import static com.opengamma.strata.product.common.PayReceive.RECEIVE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.date.AdjustableDate;
+import com.opengamma.strata.basics.date.BusinessDayAdjustment;
+import com.opengamma.strata.basics.date.DaysAdjustment;
+import com.opengamma.strata.basics.date.HolidayCalendarId;
+import com.opengamma.strata.basics.date.HolidayCalendarIds;
+import com.opengamma.strata.basics.schedule.Frequency;
+import com.opengamma.strata.basics.schedule.PeriodicSchedule;
+import com.opengamma.strata.basics.schedule.StubConvention;
+import com.opengamma.strata.basics.value.ValueSchedule;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.pricer.index.HullWhiteIborFutureDataSet;
+import com.opengamma.strata.pricer.model.HullWhiteOneFactorPiecewiseConstantParameters;
+import com.opengamma.strata.pricer.model.HullWhiteOneFactorPiecewiseConstantParametersProvider;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
+import com.opengamma.strata.product.common.LongShort;
+import com.opengamma.strata.product.common.PayReceive;
+import com.opengamma.strata.product.swap.FixedRateCalculation;
+import com.opengamma.strata.product.swap.IborRateCalculation;
+import com.opengamma.strata.product.swap.NotionalSchedule;
+import com.opengamma.strata.product.swap.PaymentSchedule;
+import com.opengamma.strata.product.swap.RateCalculationSwapLeg;
+import com.opengamma.strata.product.swap.Swap;
+import com.opengamma.strata.product.swaption.PhysicalSwaptionSettlement;
+import com.opengamma.strata.product.swaption.ResolvedSwaption;
+import com.opengamma.strata.product.swaption.Swaption;
+
+/**
+ * Test {@link HullWhiteSwaptionPhysicalCalibrator}.
+ */
+@Test
+public class HullWhiteSwaptionPhysicalCalibratorTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final HolidayCalendarId CALENDAR = HolidayCalendarIds.SAT_SUN;
+  private static final BusinessDayAdjustment BDA_MF = BusinessDayAdjustment.of(MODIFIED_FOLLOWING, CALENDAR);
+  private static final double NOTIONAL = 100000000; //100m
+  private static final double RATE = 0.0175;
+  private static final LocalDate END = LocalDate.of(2021, 7, 12);
+  private static final List<LocalDate> EXPIRIES = ImmutableList.of(
+      LocalDate.of(2016, 7, 7), LocalDate.of(2017, 7, 7), LocalDate.of(2018, 7, 6), LocalDate.of(2019, 7, 5));
+  private static final List<ResolvedSwaption> SWAPTIONS_REC_LONG = coTerminal(RECEIVE, LONG);
+  private static final List<ResolvedSwaption> SWAPTIONS_PAY_SHORT = coTerminal(PAY, SHORT);
+
+  private static final LocalDate VALUATION = LocalDate.of(2011, 7, 7);
+  private static final HullWhiteOneFactorPiecewiseConstantParametersProvider HW_PROVIDER =
+      HullWhiteIborFutureDataSet.createHullWhiteProvider(VALUATION);
+  private static final ImmutableRatesProvider RATE_PROVIDER = HullWhiteIborFutureDataSet.createRatesProvider(VALUATION);
+  private static final double MEAN_REVERSION = 0.01;
+  private static final DoubleArray VOLATILITY = DoubleArray.of(0.011, 0.012, 0.013, 0.014);
+  private static final HullWhiteOneFactorPiecewiseConstantParametersProvider HW_PROVIDER_CALIBRATION =
+      HullWhiteOneFactorPiecewiseConstantParametersProvider.of(
+          HullWhiteOneFactorPiecewiseConstantParameters.of(
+              MEAN_REVERSION,
+              VOLATILITY,
+              DoubleArray.of(3, i -> HW_PROVIDER.relativeTime(SWAPTIONS_REC_LONG.get(i).getExpiryDate()))),
+          ACT_ACT_ISDA,
+          HW_PROVIDER.getValuationDateTime());
+
+  private static final double TOL = 1.0e-6;
+  private static final HullWhiteSwaptionPhysicalProductPricer PRICER = HullWhiteSwaptionPhysicalProductPricer.DEFAULT;
+  private static final HullWhiteSwaptionPhysicalCalibrator CALIBRATOR = HullWhiteSwaptionPhysicalCalibrator.DEFAULT;
+
+  //-------------------------------------------------------------------------
+  public void test_calibrate() {
+    for (List<ResolvedSwaption> swaptions : ImmutableList.of(SWAPTIONS_REC_LONG, SWAPTIONS_PAY_SHORT)) {
+      DoubleArray pvs = presentValues(swaptions);
+      HullWhiteOneFactorPiecewiseConstantParametersProvider computed = CALIBRATOR.calibrate(
+          swaptions, pvs, RATE_PROVIDER, MEAN_REVERSION, ACT_ACT_ISDA, HW_PROVIDER.getValuationDateTime());
+      HullWhiteOneFactorPiecewiseConstantParameters expected = HW_PROVIDER_CALIBRATION.getParameters();
+      assertEquals(computed.getValuationDateTime(), HW_PROVIDER.getValuationDateTime());
+      assertEquals(computed.getDayCount(), ACT_ACT_ISDA);
+      assertEquals(computed.getParameters().getMeanReversion(), MEAN_REVERSION);
+      assertTrue(computed.getParameters().getVolatilityTime().equalWithTolerance(expected.getVolatilityTime(), 0d));
+      assertTrue(computed.getParameters().getVolatility().equalWithTolerance(VOLATILITY, TOL));
+      for (int i = 0; i < swaptions.size(); ++i) {
+        assertEquals(
+            PRICER.presentValue(swaptions.get(i), RATE_PROVIDER, computed).getAmount(), pvs.get(i), NOTIONAL * TOL);
+      }
+    }
+  }
+
+  public void test_calibrate_parallel() {
+    DoubleArray pvs = presentValues(SWAPTIONS_REC_LONG);
+    HullWhiteOneFactorPiecewiseConstantParametersProvider computed = CALIBRATOR.calibrate(
+        SWAPTIONS_REC_LONG, pvs, RATE_PROVIDER, MEAN_REVERSION, ACT_ACT_ISDA, HW_PROVIDER.getValuationDateTime());
+    HullWhiteOneFactorPiecewiseConstantParametersProvider computedParallel = CALIBRATOR.parallel().calibrate(
+        SWAPTIONS_REC_LONG, pvs, RATE_PROVIDER, MEAN_REVERSION, ACT_ACT_ISDA, HW_PROVIDER.getValuationDateTime());
+    assertEquals(computedParallel, computed);
+  }
+
+  public void test_calibrate_zeroMeanReversion() {
+    DoubleArray pvs = presentValues(SWAPTIONS_REC_LONG);
+    HullWhiteOneFactorPiecewiseConstantParametersProvider computed = CALIBRATOR.calibrate(
+        SWAPTIONS_REC_LONG, pvs, RATE_PROVIDER, 0d, ACT_ACT_ISDA, HW_PROVIDER.getValuationDateTime());
+    assertEquals(computed.getParameters().getMeanReversion(), 0d);
+    DoubleArray volatility = computed.getParameters().getVolatility();
+    assertEquals(volatility.size(), VOLATILITY.size());
+    for (int i = 0; i < volatility.size(); ++i) {
+      assertTrue(volatility.get(i) > 0d);
+    }
+    // continuous in the mean reversion
+    HullWhiteOneFactorPiecewiseConstantParametersProvider small = CALIBRATOR.calibrate(
+        SWAPTIONS_REC_LONG, pvs, RATE_PROVIDER, 1.0e-10, ACT_ACT_ISDA, HW_PROVIDER.getValuationDateTime());
+    assertTrue(volatility.equalWithTolerance(small.getParameters().getVolatility(), TOL));
+  }
+
+  public void test_calibrate_invalid() {
+    DoubleArray pvs = presentValues(SWAPTIONS_REC_LONG);
+    assertThrowsIllegalArg(() -> CALIBRATOR.calibrate(
+        SWAPTIONS_REC_LONG, pvs.subArray(1), RATE_PROVIDER, MEAN_REVERSION, ACT_ACT_ISDA,
+        HW_PROVIDER.getValuationDateTime()));
+    assertThrowsIllegalArg(() -> CALIBRATOR.calibrate(
+        ImmutableList.of(SWAPTIONS_REC_LONG.get(1), SWAPTIONS_REC_LONG.get(0)), pvs.subArray(0, 2), RATE_PROVIDER,
+        MEAN_REVERSION, ACT_ACT_ISDA, HW_PROVIDER.getValuationDateTime()));
+    // decreasing variance, the first swaption being priced with a much higher volatility
+    HullWhiteOneFactorPiecewiseConstantParametersProvider hwProviderHigh =
+        HullWhiteOneFactorPiecewiseConstantParametersProvider.of(
+            HullWhiteOneFactorPiecewiseConstantParameters.of(MEAN_REVERSION, DoubleArray.of(0.03), DoubleArray.EMPTY),
+            ACT_ACT_ISDA,
+            HW_PROVIDER.getValuationDateTime());
+    double pvHigh = PRICER.presentValue(SWAPTIONS_REC_LONG.get(0), RATE_PROVIDER, hwProviderHigh).getAmount();
+    assertThrowsIllegalArg(() -> CALIBRATOR.calibrate(
+        SWAPTIONS_REC_LONG.subList(0, 2), DoubleArray.of(pvHigh, pvs.get(1)), RATE_PROVIDER,
+        MEAN_REVERSION, ACT_ACT_ISDA, HW_PROVIDER.getValuationDateTime()));
+    // expired swaption
+    LocalDate valuationAfter = EXPIRIES.get(0).plusDays(1);
+    HullWhiteOneFactorPiecewiseConstantParametersProvider hwProviderAfter =
+        HullWhiteIborFutureDataSet.createHullWhiteProvider(valuationAfter);
+    ImmutableRatesProvider ratesProviderAfter = HullWhiteIborFutureDataSet.createRatesProvider(valuationAfter);
+    assertThrowsIllegalArg(() -> CALIBRATOR.calibrate(
+        SWAPTIONS_REC_LONG, pvs, ratesProviderAfter, MEAN_REVERSION, ACT_ACT_ISDA,
+        hwProviderAfter.getValuationDateTime()));
+  }
+
+  //-------------------------------------------------------------------------
+  private static DoubleArray presentValues(List<ResolvedSwaption> swaptions) {
+    return DoubleArray.of(
+        swaptions.size(),
+        i -> PRICER.presentValue(swaptions.get(i), RATE_PROVIDER, HW_PROVIDER_CALIBRATION).getAmount());
+  }
+
+  // the co-terminal swaptions
+  private static List<ResolvedSwaption> coTerminal(PayReceive fixedPayReceive, LongShort longShort) {
+    ImmutableList.Builder<ResolvedSwaption> builder = ImmutableList.builder();
+    for (LocalDate expiry : EXPIRIES) {
+      builder.add(Swaption.builder()
+          .expiryDate(AdjustableDate.of(expiry, BDA_MF))
+          .expiryTime(LocalTime.NOON)
+          .expiryZone(ZoneOffset.UTC)
+          .swaptionSettlement(PhysicalSwaptionSettlement.DEFAULT)
+          .longShort(longShort)
+          .underlying(swap(expiry, fixedPayReceive))
+          .build()
+          .resolve(REF_DATA));
+    }
+    return builder.build();
+  }
+
+  // the swap starting two days after the expiry and ending at the common end date
+  private static Swap swap(LocalDate expiry, PayReceive fixedPayReceive) {
+    LocalDate start = BDA_MF.adjust(CALENDAR.resolve(REF_DATA).shift(expiry, 2), REF_DATA);
+    RateCalculationSwapLeg fixedLeg = RateCalculationSwapLeg.builder()
+        .payReceive(fixedPayReceive)
+        .accrualSchedule(schedule(start, P12M))
+        .paymentSchedule(paymentSchedule(P12M))
+        .notionalSchedule(NotionalSchedule.of(EUR, NOTIONAL))
+        .calculation(FixedRateCalculation.builder().dayCount(THIRTY_U_360).rate(ValueSchedule.of(RATE)).build())
+        .build();
+    RateCalculationSwapLeg iborLeg = RateCalculationSwapLeg.builder()
+        .payReceive(fixedPayReceive.isPay() ? PayReceive.RECEIVE : PayReceive.PAY)
+        .accrualSchedule(schedule(start, P6M))
+        .paymentSchedule(paymentSchedule(P6M))
+        .notionalSchedule(NotionalSchedule.of(EUR, NOTIONAL))
+        .calculation(IborRateCalculation.builder()
+            .index(EUR_EURIBOR_6M)
+            .fixingDateOffset(DaysAdjustment.ofBusinessDays(-2, CALENDAR, BDA_MF))
+            .build())
+        .build();
+    return Swap.of(fixedLeg, iborLeg);
+  }
+
+  private static PeriodicSchedule schedule(LocalDate start, Frequency frequency) {
+    return PeriodicSchedule.builder()
+        .startDate(start)
+        .endDate(END)
+        .frequency(frequency)
+        .businessDayAdjustment(BDA_MF)
+        .stubConvention(StubConvention.SHORT_INITIAL)
+        .build();
+  }
+
+  private static PaymentSchedule paymentSchedule(Frequency frequency) {
+    return PaymentSchedule.builder()
+        .paymentFrequency(frequency)
+        .paymentDateOffset(DaysAdjustment.NONE)
+        .build();
+  }
+
+}
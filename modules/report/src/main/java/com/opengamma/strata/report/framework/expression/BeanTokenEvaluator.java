@@ -5,15 +5,21 @@
  */
 package com.opengamma.strata.report.framework.expression;
 
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.joda.beans.Bean;
+import org.joda.beans.DynamicBean;
+import org.joda.beans.MetaBean;
+import org.joda.beans.MetaProperty;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
 import com.opengamma.strata.calc.runner.CalculationFunctions;
 import com.opengamma.strata.market.amount.LegAmount;
 import com.opengamma.strata.market.amount.LegAmounts;
@@ -41,6 +47,18 @@ import com.opengamma.strata.market.amount.LegAmounts;
  */
 public class BeanTokenEvaluator extends TokenEvaluator<Bean> {
 
+  /**
+   * The property lookup of each bean type, created once per concrete class.
+   * Dynamic beans are not cached as their properties can vary between instances.
+   */
+  private static final ClassValue<BeanProperties> PROPERTIES_BY_TYPE =
+      new ClassValue<BeanProperties>() {
+        @Override
+        protected BeanProperties computeValue(Class<?> type) {
+          return BeanProperties.of(ImmutableList.copyOf(MetaBean.of(type).metaPropertyIterable()));
+        }
+      };
+
   @Override
   public Class<Bean> getTargetType() {
     return Bean.class;
@@ -48,13 +66,13 @@ public class BeanTokenEvaluator extends TokenEvaluator<Bean> {
 
   @Override
   public Set<String> tokens(Bean bean) {
-    if (bean.propertyNames().size() == 1) {
-      String singlePropertyName = Iterables.getOnlyElement(bean.propertyNames());
-      Object propertyValue = bean.property(singlePropertyName).get();
+    BeanProperties properties = properties(bean);
+    if (properties.singleProperty != null) {
+      Object propertyValue = properties.singleProperty.get(bean);
       Set<String> valueTokens = ValuePathEvaluator.tokens(propertyValue);
 
       return ImmutableSet.<String>builder()
-          .add(singlePropertyName)
+          .add(properties.singleProperty.name())
           .addAll(valueTokens)
           .build();
     } else {
@@ -69,12 +87,11 @@ public class BeanTokenEvaluator extends TokenEvaluator<Bean> {
       String firstToken,
       List<String> remainingTokens) {
 
-    Optional<String> propertyName = bean.propertyNames().stream()
-        .filter(p -> p.equalsIgnoreCase(firstToken))
-        .findFirst();
+    BeanProperties properties = properties(bean);
+    MetaProperty<?> property = properties.find(firstToken);
 
-    if (propertyName.isPresent()) {
-      Object propertyValue = bean.property(propertyName.get()).get();
+    if (property != null) {
+      Object propertyValue = property.get(bean);
 
       return propertyValue != null ?
           EvaluationResult.success(propertyValue, remainingTokens) :
@@ -83,9 +100,8 @@ public class BeanTokenEvaluator extends TokenEvaluator<Bean> {
     // The bean has a single property which doesn't match the token.
     // Return the property value without consuming any tokens.
     // This allows skipping over properties when the bean only has a single property.
-    if (bean.propertyNames().size() == 1) {
-      String singlePropertyName = Iterables.getOnlyElement(bean.propertyNames());
-      Object propertyValue = bean.property(singlePropertyName).get();
+    if (properties.singleProperty != null) {
+      Object propertyValue = properties.singleProperty.get(bean);
       List<String> tokens = ImmutableList.<String>builder().add(firstToken).addAll(remainingTokens).build();
 
       return propertyValue != null ?
@@ -95,4 +111,39 @@ public class BeanTokenEvaluator extends TokenEvaluator<Bean> {
     return invalidTokenFailure(bean, firstToken);
   }
 
+  // obtains the properties of the bean, avoiding the lookup by name for each row of a report
+  private static BeanProperties properties(Bean bean) {
+    if (bean instanceof DynamicBean) {
+      return BeanProperties.of(bean.propertyNames().stream()
+          .map(name -> bean.property(name).metaProperty())
+          .collect(toImmutableList()));
+    }
+    return PROPERTIES_BY_TYPE.get(bean.getClass());
+  }
+
+  //-------------------------------------------------------------------------
+  // the properties of a bean, keyed by lower case name as the tokens are case insensitive
+  private static final class BeanProperties {
+    private final Map<String, MetaProperty<?>> properties;
+    private final MetaProperty<?> singleProperty;
+
+    private BeanProperties(Map<String, MetaProperty<?>> properties, MetaProperty<?> singleProperty) {
+      this.properties = properties;
+      this.singleProperty = singleProperty;
+    }
+
+    private static BeanProperties of(List<MetaProperty<?>> metaProperties) {
+      Map<String, MetaProperty<?>> properties = new HashMap<>();
+      for (MetaProperty<?> property : metaProperties) {
+        properties.putIfAbsent(property.name().toLowerCase(Locale.ENGLISH), property);
+      }
+      MetaProperty<?> singleProperty = metaProperties.size() == 1 ? metaProperties.get(0) : null;
+      return new BeanProperties(properties, singleProperty);
+    }
+
+    private MetaProperty<?> find(String token) {
+      return properties.get(token.toLowerCase(Locale.ENGLISH));
+    }
+  }
+
 }
@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableSet;
 import com.opengamma.strata.basics.index.IborIndex;
 import com.opengamma.strata.calc.Measure;
 import com.opengamma.strata.calc.runner.CalculationFunctions;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.result.FailureReason;
 import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.product.fra.Fra;
@@ -41,6 +42,8 @@ public final class ValuePathEvaluator {
 
   /** The separator used in the value path. */
   private static final String PATH_SEPARATOR = "\\.";
+  /** The number of rows above which the rows are evaluated in parallel. */
+  private static final int PARALLEL_THRESHOLD = 1000;
 
   private static final ImmutableList<TokenEvaluator<?>> EVALUATORS = ImmutableList.of(
       new CurrencyAmountTokenEvaluator(),
@@ -53,6 +56,15 @@ public final class ValuePathEvaluator {
       new BeanTokenEvaluator(),
       new IterableTokenEvaluator());
 
+  /** The evaluator for each target type, looked up once per concrete class. */
+  private static final ClassValue<Optional<TokenEvaluator<Object>>> EVALUATOR_BY_TYPE =
+      new ClassValue<Optional<TokenEvaluator<Object>>>() {
+        @Override
+        protected Optional<TokenEvaluator<Object>> computeValue(Class<?> type) {
+          return findEvaluator(type);
+        }
+      };
+
   //-------------------------------------------------------------------------
   /**
    * Gets the measure encoded in a value path, if present.
@@ -83,16 +95,36 @@ public final class ValuePathEvaluator {
    * @return the list of resolved results for each trade
    */
   public static List<Result<?>> evaluate(String valuePath, ReportCalculationResults results) {
+    return evaluate(valuePath, results, 0, results.getCalculationResults().getRowCount());
+  }
+
+  /**
+   * Evaluates a value path against a range of rows of a set of results, returning the resolved result for each trade.
+   * <p>
+   * This allows a large report to be evaluated and output in blocks of rows.
+   * The value path is tokenized once, and the rows are evaluated in parallel if there are many of them.
+   *
+   * @param valuePath  the value path
+   * @param results  the calculation results
+   * @param startRow  the index of the first row to evaluate, inclusive
+   * @param endRow  the index of the last row to evaluate, exclusive
+   * @return the list of resolved results for each trade in the range
+   */
+  public static List<Result<?>> evaluate(String valuePath, ReportCalculationResults results, int startRow, int endRow) {
+    ArgChecker.isTrue(startRow >= 0 && startRow <= endRow, "Invalid row range {} to {}", startRow, endRow);
     List<String> tokens = tokenize(valuePath);
 
     if (tokens.size() < 1) {
       return Collections.nCopies(
-          results.getTargets().size(),
+          endRow - startRow,
           Result.failure(FailureReason.INVALID, "Column expressions must not be empty"));
     }
     CalculationFunctions functions = results.getCalculationFunctions();
-    int rowCount = results.getCalculationResults().getRowCount();
-    return IntStream.range(0, rowCount)
+    IntStream rowIndices = IntStream.range(startRow, endRow);
+    if (endRow - startRow > PARALLEL_THRESHOLD) {
+      rowIndices = rowIndices.parallel();
+    }
+    return rowIndices
         .mapToObj(rowIndex -> evaluate(functions, tokens, RootEvaluator.INSTANCE, new ResultsRow(results, rowIndex)))
         .collect(toImmutableList());
   }
@@ -143,8 +175,13 @@ public final class ValuePathEvaluator {
     return ImmutableList.copyOf(tokens);
   }
 
-  @SuppressWarnings("unchecked")
+  // gets the evaluator for the type, cached as the same types occur in every row
   private static Optional<TokenEvaluator<Object>> getEvaluator(Class<?> targetClass) {
+    return EVALUATOR_BY_TYPE.get(targetClass);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Optional<TokenEvaluator<Object>> findEvaluator(Class<?> targetClass) {
     return EVALUATORS.stream()
         .filter(e -> e.getTargetType().isAssignableFrom(targetClass))
         .map(e -> (TokenEvaluator<Object>) e)
@@ -7,11 +7,18 @@ package com.opengamma.strata.report.trade;
 
 import static com.opengamma.strata.collect.Guavate.toImmutableList;
 
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.IntStream;
 
 import com.opengamma.strata.collect.Messages;
+import com.opengamma.strata.collect.Unchecked;
+import com.opengamma.strata.collect.io.CsvOutput;
 import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.report.ReportCalculationResults;
 import com.opengamma.strata.report.framework.format.FormatCategory;
 import com.opengamma.strata.report.framework.format.FormatSettings;
 import com.opengamma.strata.report.framework.format.ReportFormatter;
@@ -28,12 +35,53 @@ public final class TradeReportFormatter
    * The single shared instance of this report formatter.
    */
   public static final TradeReportFormatter INSTANCE = new TradeReportFormatter();
+  /**
+   * The number of rows evaluated and written at a time when streaming.
+   */
+  private static final int STREAM_BLOCK_SIZE = 10_000;
 
   // restricted constructor
   private TradeReportFormatter() {
     super(FormatSettings.of(FormatCategory.TEXT, ValueFormatters.UNSUPPORTED));
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Evaluates a trade report and outputs it in CSV format, without building the report in memory.
+   * <p>
+   * The output is the same as {@link #writeCsv(TradeReport, OutputStream)} on the report produced
+   * by {@link TradeReportRunner}. The rows are evaluated and written in blocks, thus the memory used
+   * is bounded by the block size rather than by the size of the report.
+   *
+   * @param results  the calculation results
+   * @param reportTemplate  the report template
+   * @param out  the output stream to write to
+   */
+  @SuppressWarnings("resource")
+  public void writeCsv(ReportCalculationResults results, TradeReportTemplate reportTemplate, OutputStream out) {
+    OutputStreamWriter outputWriter = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    CsvOutput csvOut = CsvOutput.safe(outputWriter);
+    List<TradeReportColumn> columns = reportTemplate.getColumns();
+    csvOut.writeLine(columns.stream().map(TradeReportColumn::getHeader).collect(toImmutableList()));
+    int rowCount = results.getCalculationResults().getRowCount();
+
+    for (int startRow = 0; startRow < rowCount; startRow += STREAM_BLOCK_SIZE) {
+      int endRow = Math.min(startRow + STREAM_BLOCK_SIZE, rowCount);
+      List<List<Result<?>>> block = new ArrayList<>(columns.size());
+      for (TradeReportColumn column : columns) {
+        block.add(TradeReportRunner.evaluateColumn(column, results, startRow, endRow));
+      }
+      for (int rowIdx = 0; rowIdx < endRow - startRow; rowIdx++) {
+        List<String> line = new ArrayList<>(columns.size());
+        for (int colIdx = 0; colIdx < columns.size(); colIdx++) {
+          line.add(formatResult(columns.get(colIdx), block.get(colIdx).get(rowIdx), ReportOutputFormat.CSV));
+        }
+        csvOut.writeLine(line);
+      }
+    }
+    Unchecked.wrap(outputWriter::flush);
+  }
+
   //-------------------------------------------------------------------------
   @Override
   protected List<Class<?>> getColumnTypes(TradeReport report) {
@@ -68,7 +116,11 @@ public final class TradeReportFormatter
   protected String formatData(TradeReport report, int rowIdx, int colIdx, ReportOutputFormat format) {
     TradeReportColumn templateColumn = report.getColumns().get(colIdx);
     Result<?> result = report.getData().get(rowIdx, colIdx);
+    return formatResult(templateColumn, result, format);
+  }
 
+  // formats the result of a column
+  private String formatResult(TradeReportColumn templateColumn, Result<?> result, ReportOutputFormat format) {
     if (result.isFailure()) {
       return templateColumn.isIgnoreFailures() ? "" : Messages.format("FAIL: {}", result.getFailure().getMessage());
     }
@@ -58,18 +58,11 @@ public final class TradeReportRunner
   public TradeReport runReport(ReportCalculationResults results, TradeReportTemplate reportTemplate) {
     ImmutableTable.Builder<Integer, Integer, Result<?>> resultTable = ImmutableTable.builder();
 
+    int rowCount = results.getCalculationResults().getRowCount();
+
     for (int reportColumnIdx = 0; reportColumnIdx < reportTemplate.getColumns().size(); reportColumnIdx++) {
       TradeReportColumn reportColumn = reportTemplate.getColumns().get(reportColumnIdx);
-      List<Result<?>> columnResults;
-
-      if (reportColumn.getValue().isPresent()) {
-        columnResults = ValuePathEvaluator.evaluate(reportColumn.getValue().get(), results);
-      } else {
-        columnResults = IntStream.range(0, results.getTargets().size())
-            .mapToObj(i -> Result.failure(FailureReason.INVALID, "No value specified in report template"))
-            .collect(toImmutableList());
-      }
-      int rowCount = results.getCalculationResults().getRowCount();
+      List<Result<?>> columnResults = evaluateColumn(reportColumn, results, 0, rowCount);
 
       for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
         resultTable.put(rowIdx, reportColumnIdx, columnResults.get(rowIdx));
@@ -84,4 +77,20 @@ public final class TradeReportRunner
         .build();
   }
 
+  //-------------------------------------------------------------------------
+  // evaluates a report column for a range of rows, the end row is exclusive
+  static List<Result<?>> evaluateColumn(
+      TradeReportColumn reportColumn,
+      ReportCalculationResults results,
+      int startRow,
+      int endRow) {
+
+    if (reportColumn.getValue().isPresent()) {
+      return ValuePathEvaluator.evaluate(reportColumn.getValue().get(), results, startRow, endRow);
+    }
+    return IntStream.range(startRow, endRow)
+        .mapToObj(i -> Result.failure(FailureReason.INVALID, "No value specified in report template"))
+        .collect(toImmutableList());
+  }
+
 }
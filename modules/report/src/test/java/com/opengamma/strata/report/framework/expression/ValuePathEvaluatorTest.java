@@ -6,6 +6,8 @@
 package com.opengamma.strata.report.framework.expression;
 
 import static com.opengamma.strata.basics.index.IborIndices.GBP_LIBOR_3M;
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
 import static com.opengamma.strata.collect.TestHelper.date;
 import static com.opengamma.strata.product.common.BuySell.BUY;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -13,6 +15,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import org.testng.annotations.Test;
 
@@ -122,6 +125,38 @@ public class ValuePathEvaluatorTest {
     assertThat(counterpartyResults).isEqualTo(expectedCounterparties);
   }
 
+  public void rowRange() {
+    ReportCalculationResults reportResults = reportResults();
+
+    List<Result<?>> counterpartyResults = ValuePathEvaluator.evaluate("Trade.Counterparty.Value", reportResults, 1, 3);
+    assertThat(counterpartyResults).containsExactly(Result.success("cpty2"), Result.success("cpty3"));
+    assertThat(ValuePathEvaluator.evaluate("Trade.Counterparty.Value", reportResults, 2, 2)).isEmpty();
+    assertThrowsIllegalArg(() -> ValuePathEvaluator.evaluate("Trade.Counterparty.Value", reportResults, 2, 1));
+  }
+
+  public void manyRows() {
+    int rowCount = 2500;
+    Measure measure = Measure.of("PresentValue");
+    Column column = Column.of(measure);
+    List<Trade> trades = IntStream.range(0, rowCount)
+        .mapToObj(i -> trade("cpty" + i, i))
+        .collect(toImmutableList());
+    List<Result<?>> resultValues = IntStream.range(0, rowCount)
+        .mapToObj(i -> Result.success(CurrencyAmount.of(Currency.GBP, i)))
+        .collect(toImmutableList());
+    Results results = Results.of(ImmutableList.of(column.toHeader()), resultValues);
+    ReportCalculationResults reportResults =
+        ReportCalculationResults.of(LocalDate.now(ZoneOffset.UTC), trades, ImmutableList.of(column), results);
+
+    List<Result<?>> notionals = ValuePathEvaluator.evaluate("Trade.Product.Notional", reportResults);
+    List<Result<?>> currencies = ValuePathEvaluator.evaluate("Measures.PresentValue.Currency", reportResults);
+    assertThat(notionals).hasSize(rowCount);
+    for (int i = 0; i < rowCount; i++) {
+      assertThat(notionals.get(i)).isEqualTo(Result.success((double) i));
+      assertThat(currencies.get(i)).isEqualTo(Result.success(Currency.GBP));
+    }
+  }
+
   //--------------------------------------------------------------------------------------------------
 
   private static ReportCalculationResults reportResults() {
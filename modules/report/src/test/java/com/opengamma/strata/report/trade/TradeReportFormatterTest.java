@@ -5,8 +5,13 @@
  */
 package com.opengamma.strata.report.trade;
 
+import static com.opengamma.strata.basics.index.IborIndices.GBP_LIBOR_3M;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static com.opengamma.strata.product.common.BuySell.BUY;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
@@ -16,8 +21,18 @@ import org.testng.annotations.Test;
 
 import com.google.common.collect.ArrayTable;
 import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.calc.Results;
 import com.opengamma.strata.collect.result.FailureReason;
 import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.product.Trade;
+import com.opengamma.strata.product.TradeInfo;
+import com.opengamma.strata.product.fra.Fra;
+import com.opengamma.strata.product.fra.FraTrade;
+import com.opengamma.strata.report.ReportCalculationResults;
 
 /**
  * Test {@link TradeReportFormatter}.
@@ -26,6 +41,14 @@ import com.opengamma.strata.collect.result.Result;
 public class TradeReportFormatterTest {
 
   private static final ImmutableList<Integer> INDICES = ImmutableList.of(0, 1);
+  private static final Fra FRA = Fra.builder()
+      .buySell(BUY)
+      .notional(1_000_000d)
+      .startDate(date(2015, 8, 5))
+      .endDate(date(2015, 11, 5))
+      .fixedRate(0.25d)
+      .index(GBP_LIBOR_3M)
+      .build();
 
   public void getColumnTypes() {
     ArrayTable<Integer, Integer, Result<?>> table = ArrayTable.create(INDICES, INDICES);
@@ -62,6 +85,36 @@ public class TradeReportFormatterTest {
     assertThat(columnTypes).isEqualTo(ImmutableList.of(Object.class, Object.class));
   }
 
+  public void writeCsv_streaming() {
+    Measure measure = Measure.of("PresentValue");
+    Column column = Column.of(measure);
+    List<Trade> trades = ImmutableList.of(
+        FraTrade.builder().info(TradeInfo.of(date(2015, 8, 5))).product(FRA).build(),
+        FraTrade.builder().product(FRA.toBuilder().notional(2_000_000d).build()).build());
+    List<Result<?>> resultValues = ImmutableList.of(
+        Result.success(CurrencyAmount.of(Currency.GBP, 2d)),
+        Result.failure(FailureReason.ERROR, "fail"));
+    Results results = Results.of(ImmutableList.of(column.toHeader()), resultValues);
+    ReportCalculationResults reportResults =
+        ReportCalculationResults.of(date(2015, 8, 3), trades, ImmutableList.of(column), results);
+    TradeReportTemplate template = TradeReportTemplate.builder()
+        .columns(
+            TradeReportColumn.builder().header("Date").value("Trade.TradeDate").build(),
+            TradeReportColumn.builder().header("Notional").value("Product.Notional").build(),
+            TradeReportColumn.builder().header("PV").value("Measures.PresentValue").build(),
+            TradeReportColumn.builder().header("PV ignored").value("Measures.PresentValue").ignoreFailures(true).build(),
+            TradeReportColumn.builder().header("Empty").build())
+        .build();
+
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    TradeReportFormatter.INSTANCE.writeCsv(TradeReportRunner.INSTANCE.runReport(reportResults, template), expected);
+    ByteArrayOutputStream computed = new ByteArrayOutputStream();
+    TradeReportFormatter.INSTANCE.writeCsv(reportResults, template, computed);
+    String computedCsv = new String(computed.toByteArray(), StandardCharsets.UTF_8);
+    assertThat(computedCsv).isEqualTo(new String(expected.toByteArray(), StandardCharsets.UTF_8));
+    assertThat(computedCsv).contains("FAIL: Unable to calculate measure");
+  }
+
   private TradeReport report(ArrayTable<Integer, Integer, Result<?>> table) {
     return TradeReport.builder()
         .columns(